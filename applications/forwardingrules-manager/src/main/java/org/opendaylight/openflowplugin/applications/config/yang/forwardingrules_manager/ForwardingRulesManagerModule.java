@@ -17,7 +17,10 @@ public class ForwardingRulesManagerModule extends org.opendaylight.openflowplugi
 
     private static final Logger LOG = LoggerFactory.getLogger(ForwardingRulesManagerModule.class);
     private static final boolean ENABLE_FGM_STALE_MARKING = false;
-    private static final int RECONCILIATION_RETRY_COUNT = 5;
+    private static final boolean FLAT_BATCH_RECONCILIATION_ENABLED = false;
+    private static final int RECONCILIATION_BATCH_SIZE = 1000;
+    private static final int RECONCILIATION_BATCHES_IN_FLIGHT = 4;
+    private static final int RECONCILIATION_MAX_CONCURRENT_NODES = 4;
 
     public ForwardingRulesManagerModule(org.opendaylight.controller.config.api.ModuleIdentifier identifier, org.opendaylight.controller.config.api.DependencyResolver dependencyResolver) {
         super(identifier, dependencyResolver);
@@ -65,16 +68,46 @@ public class ForwardingRulesManagerModule extends org.opendaylight.openflowplugi
             fwdRulesMgrCfgBuilder.setStaleMarkingEnabled(ENABLE_FGM_STALE_MARKING);
         }
 
-	if(getForwardingManagerSettings() != null && getForwardingManagerSettings().getReconciliationRetryCount()>0){
-	            fwdRulesMgrCfgBuilder.setReconciliationRetryCount(getForwardingManagerSettings().getReconciliationRetryCount());
-	}
-	else{
-	      LOG.warn("Could not load XML configuration file via ConfigSubsystem for reconciliation retry! " +
-	      "Fallback to default config value(s)");
-	      fwdRulesMgrCfgBuilder.setReconciliationRetryCount(RECONCILIATION_RETRY_COUNT);
-	     }
+        if (getForwardingManagerSettings() != null
+                && getForwardingManagerSettings().getFlatBatchReconciliationEnabled() != null) {
+            fwdRulesMgrCfgBuilder.setFlatBatchReconciliationEnabled(
+                    getForwardingManagerSettings().getFlatBatchReconciliationEnabled());
+        } else {
+            LOG.warn("Could not load XML configuration file via ConfigSubsystem for flat batch reconciliation! " +
+                    "Fallback to default config value(s)");
+            fwdRulesMgrCfgBuilder.setFlatBatchReconciliationEnabled(FLAT_BATCH_RECONCILIATION_ENABLED);
+        }
 
+        if (getForwardingManagerSettings() != null && getForwardingManagerSettings().getReconciliationBatchSize() != null
+                && getForwardingManagerSettings().getReconciliationBatchSize() > 0) {
+            fwdRulesMgrCfgBuilder.setReconciliationBatchSize(getForwardingManagerSettings().getReconciliationBatchSize());
+        } else {
+            LOG.warn("Could not load XML configuration file via ConfigSubsystem for reconciliation batch size! " +
+                    "Fallback to default config value(s)");
+            fwdRulesMgrCfgBuilder.setReconciliationBatchSize(RECONCILIATION_BATCH_SIZE);
+        }
 
+        if (getForwardingManagerSettings() != null
+                && getForwardingManagerSettings().getReconciliationBatchesInFlight() != null
+                && getForwardingManagerSettings().getReconciliationBatchesInFlight() > 0) {
+            fwdRulesMgrCfgBuilder.setReconciliationBatchesInFlight(
+                    getForwardingManagerSettings().getReconciliationBatchesInFlight());
+        } else {
+            LOG.warn("Could not load XML configuration file via ConfigSubsystem for reconciliation batches in flight! " +
+                    "Fallback to default config value(s)");
+            fwdRulesMgrCfgBuilder.setReconciliationBatchesInFlight(RECONCILIATION_BATCHES_IN_FLIGHT);
+        }
+
+        if (getForwardingManagerSettings() != null
+                && getForwardingManagerSettings().getReconciliationMaxConcurrentNodes() != null
+                && getForwardingManagerSettings().getReconciliationMaxConcurrentNodes() > 0) {
+            fwdRulesMgrCfgBuilder.setReconciliationMaxConcurrentNodes(
+                    getForwardingManagerSettings().getReconciliationMaxConcurrentNodes());
+        } else {
+            LOG.warn("Could not load XML configuration file via ConfigSubsystem for reconciliation concurrent nodes! " +
+                    "Fallback to default config value(s)");
+            fwdRulesMgrCfgBuilder.setReconciliationMaxConcurrentNodes(RECONCILIATION_MAX_CONCURRENT_NODES);
+        }
 
         return fwdRulesMgrCfgBuilder.build();
 
@@ -0,0 +1,349 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.openflowplugin.applications.frm.impl;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.JdkFutureAdapters;
+import com.google.common.util.concurrent.ListenableFuture;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.opendaylight.openflowplugin.applications.frm.ForwardingRulesManager;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flat.batch.service.rev160321.ProcessFlatBatchInput;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flat.batch.service.rev160321.ProcessFlatBatchInputBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flat.batch.service.rev160321.ProcessFlatBatchOutput;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flat.batch.service.rev160321.process.flat.batch.input.Batch;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flat.batch.service.rev160321.process.flat.batch.input.BatchBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flat.batch.service.rev160321.process.flat.batch.input.batch.BatchChoice;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flat.batch.service.rev160321.process.flat.batch.input.batch.batch.choice.FlatBatchAddFlowCaseBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flat.batch.service.rev160321.process.flat.batch.input.batch.batch.choice.FlatBatchAddGroupCaseBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flat.batch.service.rev160321.process.flat.batch.input.batch.batch.choice.FlatBatchAddMeterCaseBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flat.batch.service.rev160321.process.flat.batch.input.batch.batch.choice.flat.batch.add.flow._case.FlatBatchAddFlow;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flat.batch.service.rev160321.process.flat.batch.input.batch.batch.choice.flat.batch.add.flow._case.FlatBatchAddFlowBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flat.batch.service.rev160321.process.flat.batch.input.batch.batch.choice.flat.batch.add.group._case.FlatBatchAddGroup;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flat.batch.service.rev160321.process.flat.batch.input.batch.batch.choice.flat.batch.add.group._case.FlatBatchAddGroupBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flat.batch.service.rev160321.process.flat.batch.input.batch.batch.choice.flat.batch.add.meter._case.FlatBatchAddMeter;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flat.batch.service.rev160321.process.flat.batch.input.batch.batch.choice.flat.batch.add.meter._case.FlatBatchAddMeterBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.FlowCapableNode;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.meters.Meter;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.Table;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.table.Flow;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.group.types.rev131018.groups.Group;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.NodeRef;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.Node;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+import org.opendaylight.yangtools.yang.common.RpcResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reconciles groups, meters and flows of one node through sal-flat-batch service.
+ * <p>
+ * Groups are pushed in layers of {@link GroupDependencyGraph} - groups of chain loops are left out - then meters and
+ * flows. Every layer (and meters and flows) is one stage split into chunks of at most batch size items. Chunks of
+ * one stage are independent, so up to batches-in-flight of them wait for result at the same time; next stage
+ * starts when all chunks of previous stage completed. Stage small enough to fit into preceding single chunk stage
+ * is appended to that chunk, flat batch service puts barrier between dependent steps of the chunk.
+ */
+final class FlatBatchReconciliation {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FlatBatchReconciliation.class);
+
+    /**
+     * The number of seconds to wait for a chunk to be processed or for room in window of chunks in flight.
+     */
+    private static final long BATCH_TIMEOUT_SECONDS = 60;
+
+    private final ForwardingRulesManager provider;
+    private final InstanceIdentifier<FlowCapableNode> nodeIdent;
+    private final int batchSize;
+    private final Semaphore window;
+    private final ReconciliationProgress progress;
+
+    private final List<Chunk> chunks = new ArrayList<>();
+    private int stageCount;
+    private boolean lastStageSingleChunk;
+
+    FlatBatchReconciliation(final ForwardingRulesManager provider, final InstanceIdentifier<FlowCapableNode> nodeIdent,
+                            final int batchSize, final int batchesInFlight, final ReconciliationProgress progress) {
+        this.provider = Preconditions.checkNotNull(provider);
+        this.nodeIdent = Preconditions.checkNotNull(nodeIdent);
+        this.batchSize = Math.max(1, batchSize);
+        this.window = new Semaphore(Math.max(1, batchesInFlight));
+        this.progress = Preconditions.checkNotNull(progress);
+    }
+
+    /**
+     * Pushes groups, meters and flows of given configuration to device, blocks until all chunks are processed.
+     *
+     * @param flowNode configuration of node
+     * @return false if flat batch service is not available for node (first chunk failed as a whole), nothing
+     *         else was submitted then
+     */
+    boolean reconcile(final FlowCapableNode flowNode) {
+        plan(flowNode);
+        progress.planned(countItems());
+        LOG.debug("Reconciling node {} in {} flat batches of {} stages", progress.getNodeId(), chunks.size(),
+                stageCount);
+
+        final List<ListenableFuture<RpcResult<ProcessFlatBatchOutput>>> stageFutures = new ArrayList<>();
+        int stage = -1;
+        try {
+            for (int i = 0; i < chunks.size(); i++) {
+                final Chunk chunk = chunks.get(i);
+                if (chunk.stage != stage) {
+                    awaitStage(stageFutures);
+                    stageFutures.clear();
+                    stage = chunk.stage;
+                }
+                if (!provider.isNodeActive(nodeIdent)) {
+                    LOG.info("Node {} disconnected, reconciliation stopped", progress.getNodeId());
+                    return true;
+                }
+                if (!window.tryAcquire(BATCH_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                    LOG.warn("Reconciliation of node {} stopped, flat batches did not complete in {} seconds",
+                            progress.getNodeId(), BATCH_TIMEOUT_SECONDS);
+                    return true;
+                }
+                final ListenableFuture<RpcResult<ProcessFlatBatchOutput>> future = submit(chunk);
+                if (i == 0 && !probe(future)) {
+                    return false;
+                }
+                stageFutures.add(future);
+            }
+            awaitStage(stageFutures);
+        } catch (final InterruptedException e) {
+            LOG.warn("Reconciliation of node {} interrupted", progress.getNodeId());
+            Thread.currentThread().interrupt();
+        } catch (final TimeoutException e) {
+            LOG.warn("Reconciliation of node {} stopped, flat batches did not complete in {} seconds",
+                    progress.getNodeId(), BATCH_TIMEOUT_SECONDS);
+        } finally {
+            progress.finish();
+        }
+        return true;
+    }
+
+    /**
+     * Waits for the first chunk, so that unavailable flat batch service (e.g. node is connected through plugin
+     * not providing it) costs one failed RPC instead of all of them.
+     */
+    private boolean probe(final ListenableFuture<RpcResult<ProcessFlatBatchOutput>> future)
+            throws InterruptedException, TimeoutException {
+        try {
+            final RpcResult<ProcessFlatBatchOutput> result = future.get(BATCH_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            if (result.isSuccessful() || result.getResult() != null) {
+                return true;
+            }
+            LOG.warn("Flat batch service is not available for node {}: {}", progress.getNodeId(), result.getErrors());
+        } catch (final ExecutionException e) {
+            LOG.warn("Flat batch service is not available for node {}: {}", progress.getNodeId(), e.getMessage());
+            LOG.debug("Flat batch service is not available for node {}", progress.getNodeId(), e);
+        }
+        return false;
+    }
+
+    private void awaitStage(final List<ListenableFuture<RpcResult<ProcessFlatBatchOutput>>> stageFutures)
+            throws InterruptedException, TimeoutException {
+        if (!stageFutures.isEmpty()) {
+            try {
+                Futures.successfulAsList(stageFutures).get(BATCH_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (final ExecutionException e) {
+                // failures are accounted by callbacks of particular chunks
+                LOG.trace("Flat batch of node {} failed", progress.getNodeId(), e);
+            }
+        }
+    }
+
+    private ListenableFuture<RpcResult<ProcessFlatBatchOutput>> submit(final Chunk chunk) {
+        final ProcessFlatBatchInput input = new ProcessFlatBatchInputBuilder()
+                .setNode(new NodeRef(nodeIdent.firstIdentifierOf(Node.class)))
+                .setBatch(chunk.batches)
+                .setExitOnFirstError(false)
+                .build();
+
+        final ListenableFuture<RpcResult<ProcessFlatBatchOutput>> future;
+        try {
+            future = JdkFutureAdapters.listenInPoolThread(provider.getSalFlatBatchService().processFlatBatch(input));
+        } catch (final RuntimeException e) {
+            window.release();
+            throw e;
+        }
+        progress.batchSubmitted(chunk.size);
+
+        Futures.addCallback(future, new FutureCallback<RpcResult<ProcessFlatBatchOutput>>() {
+            @Override
+            public void onSuccess(final RpcResult<ProcessFlatBatchOutput> result) {
+                window.release();
+                final int failed;
+                if (result.getResult() != null && result.getResult().getBatchFailure() != null
+                        && !result.getResult().getBatchFailure().isEmpty()) {
+                    failed = Math.min(chunk.size, result.getResult().getBatchFailure().size());
+                } else {
+                    failed = result.isSuccessful() ? 0 : chunk.size;
+                }
+                if (failed > 0) {
+                    LOG.warn("Flat batch of node {} failed for {} of {} items: {}", progress.getNodeId(), failed,
+                            chunk.size, result.getErrors());
+                }
+                progress.batchCompleted(chunk.size, failed);
+            }
+
+            @Override
+            public void onFailure(final Throwable t) {
+                window.release();
+                LOG.debug("Flat batch of node {} failed", progress.getNodeId(), t);
+                progress.batchCompleted(chunk.size, chunk.size);
+            }
+        });
+        return future;
+    }
+
+    private int countItems() {
+        int items = 0;
+        for (final Chunk chunk : chunks) {
+            items += chunk.size;
+        }
+        return items;
+    }
+
+    @VisibleForTesting
+    List<List<Batch>> plan(final FlowCapableNode flowNode) {
+        final List<Group> groups = flowNode.getGroup() != null
+                ? flowNode.getGroup() : Collections.<Group>emptyList();
+        for (final List<Group> layer : new GroupDependencyGraph(groups).getLayers()) {
+            addStage(layer, GROUP_CHOICE_FACTORY);
+        }
+
+        final List<Meter> meters = flowNode.getMeter() != null
+                ? flowNode.getMeter() : Collections.<Meter>emptyList();
+        addStage(meters, METER_CHOICE_FACTORY);
+
+        final List<Flow> flows = new ArrayList<>();
+        final List<Table> tables = flowNode.getTable() != null
+                ? flowNode.getTable() : Collections.<Table>emptyList();
+        for (final Table table : tables) {
+            if (table.getFlow() == null) {
+                continue;
+            }
+            for (final Flow flow : table.getFlow()) {
+                if (table.getId().equals(flow.getTableId())) {
+                    flows.add(flow);
+                } else {
+                    LOG.warn("TableID in URI tableId={} and in palyload tableId={} is not same.",
+                            flow.getTableId(), table.getId());
+                }
+            }
+        }
+        addStage(flows, FLOW_CHOICE_FACTORY);
+
+        final List<List<Batch>> plan = new ArrayList<>(chunks.size());
+        for (final Chunk chunk : chunks) {
+            plan.add(chunk.batches);
+        }
+        return plan;
+    }
+
+    private <T> void addStage(final List<T> items, final ChoiceFactory<T> factory) {
+        if (items.isEmpty()) {
+            return;
+        }
+        if (lastStageSingleChunk) {
+            final Chunk last = chunks.get(chunks.size() - 1);
+            if (last.size + items.size() <= batchSize) {
+                last.add(factory, items);
+                return;
+            }
+        }
+
+        final int stage = stageCount++;
+        for (int from = 0; from < items.size(); from += batchSize) {
+            final Chunk chunk = new Chunk(stage);
+            chunk.add(factory, items.subList(from, Math.min(from + batchSize, items.size())));
+            chunks.add(chunk);
+        }
+        lastStageSingleChunk = items.size() <= batchSize;
+    }
+
+    /**
+     * One process-flat-batch RPC.
+     */
+    private static final class Chunk {
+        private final int stage;
+        private final List<Batch> batches = new ArrayList<>();
+        private int size;
+
+        private Chunk(final int stage) {
+            this.stage = stage;
+        }
+
+        private <T> void add(final ChoiceFactory<T> factory, final List<T> items) {
+            batches.add(new BatchBuilder()
+                    .setBatchOrder(batches.size())
+                    .setBatchChoice(factory.createChoice(items, size))
+                    .build());
+            size += items.size();
+        }
+    }
+
+    private abstract static class ChoiceFactory<T> {
+        /**
+         * @param items items of one batch step
+         * @param offset batch order of the first item
+         */
+        abstract BatchChoice createChoice(List<T> items, int offset);
+    }
+
+    private static final ChoiceFactory<Group> GROUP_CHOICE_FACTORY = new ChoiceFactory<Group>() {
+        @Override
+        BatchChoice createChoice(final List<Group> items, final int offset) {
+            final List<FlatBatchAddGroup> groups = new ArrayList<>(items.size());
+            for (final Group group : items) {
+                groups.add(new FlatBatchAddGroupBuilder(group)
+                        .setBatchOrder(offset + groups.size())
+                        .build());
+            }
+            return new FlatBatchAddGroupCaseBuilder().setFlatBatchAddGroup(groups).build();
+        }
+    };
+
+    private static final ChoiceFactory<Meter> METER_CHOICE_FACTORY = new ChoiceFactory<Meter>() {
+        @Override
+        BatchChoice createChoice(final List<Meter> items, final int offset) {
+            final List<FlatBatchAddMeter> meters = new ArrayList<>(items.size());
+            for (final Meter meter : items) {
+                meters.add(new FlatBatchAddMeterBuilder(meter)
+                        .setBatchOrder(offset + meters.size())
+                        .build());
+            }
+            return new FlatBatchAddMeterCaseBuilder().setFlatBatchAddMeter(meters).build();
+        }
+    };
+
+    private static final ChoiceFactory<Flow> FLOW_CHOICE_FACTORY = new ChoiceFactory<Flow>() {
+        @Override
+        BatchChoice createChoice(final List<Flow> items, final int offset) {
+            final List<FlatBatchAddFlow> flows = new ArrayList<>(items.size());
+            for (final Flow flow : items) {
+                flows.add(new FlatBatchAddFlowBuilder(flow)
+                        .setFlowId(flow.getId())
+                        .setBatchOrder(offset + flows.size())
+                        .build());
+            }
+            return new FlatBatchAddFlowCaseBuilder().setFlatBatchAddFlow(flows).build();
+        }
+    };
+}
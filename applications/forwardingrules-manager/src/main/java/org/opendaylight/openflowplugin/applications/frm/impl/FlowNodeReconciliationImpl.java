@@ -16,24 +16,20 @@ import com.google.common.collect.Lists;
 import com.google.common.util.concurrent.CheckedFuture;
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
-import com.google.common.util.concurrent.JdkFutureAdapters;
 import com.google.common.util.concurrent.ListenableFuture;
 
-import java.math.BigInteger;
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
-import java.util.ListIterator;
-import java.util.Map;
-import java.util.Map.Entry;
-import java.util.HashMap;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicBoolean;
 import javax.annotation.Nonnull;
 
 import org.opendaylight.controller.md.sal.binding.api.DataBroker;
@@ -47,9 +43,6 @@ import org.opendaylight.controller.md.sal.common.api.data.TransactionCommitFaile
 import org.opendaylight.openflowplugin.applications.frm.FlowNodeReconciliation;
 import org.opendaylight.openflowplugin.applications.frm.ForwardingRulesManager;
 import org.opendaylight.openflowplugin.common.wait.SimpleTaskRetryLooper;
-import org.opendaylight.yang.gen.v1.urn.opendaylight.action.types.rev131112.action.action.GroupActionCase;
-import org.opendaylight.yang.gen.v1.urn.opendaylight.action.types.rev131112.action.action.OutputActionCase;
-import org.opendaylight.yang.gen.v1.urn.opendaylight.action.types.rev131112.action.list.Action;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.FlowCapableNode;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.FlowId;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.meters.Meter;
@@ -65,13 +58,12 @@ import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.ta
 import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.table.StaleFlow;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.table.StaleFlowKey;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.group.types.rev131018.GroupId;
-import org.opendaylight.yang.gen.v1.urn.opendaylight.group.types.rev131018.group.Buckets;
-import org.opendaylight.yang.gen.v1.urn.opendaylight.group.types.rev131018.group.buckets.Bucket;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.group.types.rev131018.groups.Group;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.group.types.rev131018.groups.GroupBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.group.types.rev131018.groups.GroupKey;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.group.types.rev131018.groups.StaleGroup;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.group.types.rev131018.groups.StaleGroupKey;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.NodeId;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.Nodes;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.Node;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.NodeKey;
@@ -100,18 +92,6 @@ public class FlowNodeReconciliationImpl implements FlowNodeReconciliation {
 
     private static final Logger LOG = LoggerFactory.getLogger(FlowNodeReconciliationImpl.class);
 
-    /**
-     * The number of nanoseconds to wait for a single group to be added.
-     */
-    private static final long  ADD_GROUP_TIMEOUT = TimeUnit.SECONDS.toNanos(3);
-
-    /**
-     * The maximum number of nanoseconds to wait for completion of add-group
-     * RPCs.
-     */
-    private static final long  MAX_ADD_GROUP_TIMEOUT =
-        TimeUnit.SECONDS.toNanos(20);
-
     private final DataBroker dataBroker;
 
     private final ForwardingRulesManager provider;
@@ -120,7 +100,16 @@ public class FlowNodeReconciliationImpl implements FlowNodeReconciliation {
     private ListenerRegistration<FlowNodeReconciliationImpl> listenerRegistration;
 
     private final int THREAD_POOL_SIZE = 4;
-    ExecutorService executor = Executors.newFixedThreadPool(THREAD_POOL_SIZE);
+    ExecutorService executor;
+    /* Pushes flows of node whose groups did not complete in time */
+    private final ScheduledExecutorService groupTimeoutScheduler = Executors.newSingleThreadScheduledExecutor();
+
+    private static final long ADD_GROUP_TIMEOUT = TimeUnit.SECONDS.toNanos(3);
+
+    /** Flows are pushed at the latest this long after groups were sent. */
+    private static final long MAX_ADD_GROUP_TIMEOUT = TimeUnit.SECONDS.toNanos(20);
+
+    private final ConcurrentMap<NodeId, ReconciliationProgress> reconciliationProgress = new ConcurrentHashMap<>();
 
     private static final InstanceIdentifier<FlowCapableNode> II_TO_FLOW_CAPABLE_NODE
             = InstanceIdentifier.builder(Nodes.class)
@@ -131,6 +120,9 @@ public class FlowNodeReconciliationImpl implements FlowNodeReconciliation {
     public FlowNodeReconciliationImpl (final ForwardingRulesManager manager, final DataBroker db) {
         this.provider = Preconditions.checkNotNull(manager, "ForwardingRulesManager can not be null!");
         dataBroker = Preconditions.checkNotNull(db, "DataBroker can not be null!");
+        /* Nodes reconciled at the same time, others wait in executor queue */
+        final int maxConcurrentNodes = provider.getConfiguration().getReconciliationMaxConcurrentNodes();
+        executor = Executors.newFixedThreadPool(maxConcurrentNodes > 0 ? maxConcurrentNodes : THREAD_POOL_SIZE);
         /* Build Path */
         final InstanceIdentifier<FlowCapableNode> flowNodeWildCardIdentifier = InstanceIdentifier.create(Nodes.class)
                 .child(Node.class).augmentation(FlowCapableNode.class);
@@ -166,6 +158,7 @@ public class FlowNodeReconciliationImpl implements FlowNodeReconciliation {
             }
             listenerRegistration = null;
         }
+        groupTimeoutScheduler.shutdownNow();
     }
 
     @Override
@@ -230,6 +223,16 @@ public class FlowNodeReconciliationImpl implements FlowNodeReconciliation {
     @Override
     public void flowNodeDisconnected(InstanceIdentifier<FlowCapableNode> disconnectedNode) {
         provider.unregistrateNode(disconnectedNode);
+        reconciliationProgress.remove(disconnectedNode.firstKeyOf(Node.class).getId());
+    }
+
+    /**
+     * @param nodeId node identifier
+     * @return progress of running or last finished flat batch reconciliation of connected node, null if node
+     *         was not reconciled through flat batches
+     */
+    public ReconciliationProgress getReconciliationProgress(final NodeId nodeId) {
+        return reconciliationProgress.get(nodeId);
     }
 
     @Override
@@ -264,14 +267,11 @@ public class FlowNodeReconciliationImpl implements FlowNodeReconciliation {
         @Override
         public void run() {
 
-            String sNode = nodeIdentity.firstKeyOf(Node.class, NodeKey.class).getId().getValue();
-            BigInteger nDpId = getDpnIdFromNodeName(sNode);
+            final String sNode = nodeIdentity.firstKeyOf(Node.class, NodeKey.class).getId().getValue();
 
             ReadOnlyTransaction trans = provider.getReadTranaction();
             Optional<FlowCapableNode> flowNode = Optional.absent();
 
-            //initialize the counter
-            int counter = 0;
             try {
                 flowNode = trans.read(LogicalDatastoreType.CONFIGURATION, nodeIdentity).get();
             } catch (Exception e) {
@@ -295,105 +295,19 @@ public class FlowNodeReconciliationImpl implements FlowNodeReconciliation {
                     }
                 }
 
-            /* Groups - have to be first */
+            /* Groups, meters and flows in flat batches, one RPC per item if flat batch service is not available */
+                if (provider.getConfiguration().isFlatBatchReconciliationEnabled()
+                        && reconcileInFlatBatches(flowNode.get())) {
+                    trans.close();
+                    return;
+                }
+
+            /* Groups - have to be first, every group after the groups it points to */
                 List<Group> groups = flowNode.get().getGroup() != null
                         ? flowNode.get().getGroup() : Collections.<Group>emptyList();
-                List<Group> toBeInstalledGroups = new ArrayList<>();
-                toBeInstalledGroups.addAll(groups);
-                //new list for suspected groups pointing to ports .. when the ports come up late
-                List<Group> suspectedGroups = new ArrayList<>();
-                Map<Long, ListenableFuture<?>> groupFutures = new HashMap<>();
-
-                while ((!(toBeInstalledGroups.isEmpty()) || !(suspectedGroups.isEmpty())) &&
-                        (counter <= provider.getConfiguration().getReconciliationRetryCount())) { //also check if the counter has not crossed the threshold
-
-                    if (toBeInstalledGroups.isEmpty() && !suspectedGroups.isEmpty()) {
-                        LOG.error("These Groups are pointing to node-connectors that are not up yet {}", suspectedGroups.toString());
-                        toBeInstalledGroups.addAll(suspectedGroups);
-                        break;
-                    }
-
-                    ListIterator<Group> iterator = toBeInstalledGroups.listIterator();
-                    while (iterator.hasNext()) {
-                        Group group = iterator.next();
-                        boolean okToInstall = true;
-                        Buckets buckets = group.getBuckets();
-                        List<Bucket> bucketList = (buckets == null)
-                            ? null : buckets.getBucket();
-                        if (bucketList == null) {
-                            bucketList = Collections.<Bucket>emptyList();
-                        }
-                        for (Bucket bucket : bucketList) {
-                            List<Action> actions = bucket.getAction();
-                            if (actions == null) {
-                                actions = Collections.<Action>emptyList();
-                            }
-                            for (Action action : actions) {
-                                //chained-port
-                                if (action.getAction().getImplementedInterface().getName()
-                                        .equals("org.opendaylight.yang.gen.v1.urn.opendaylight.action.types.rev131112.action.action.OutputActionCase")) {
-                                    String nodeConnectorUri = ((OutputActionCase) (action.getAction()))
-                                            .getOutputAction().getOutputNodeConnector().getValue();
-
-                                    LOG.warn("Installing the group for node connector {}", nodeConnectorUri);
-
-                                    //check if the nodeconnector is there in the multimap
-                                    boolean isPresent = provider.getFlowNodeConnectorInventoryTranslatorImpl()
-                                            .isNodeConnectorUpdated(nDpId, nodeConnectorUri);
-                                    //if yes set okToInstall = true
-
-                                    if (isPresent) {
-                                        break;
-                                    }//else put it in a different list and still set okToInstall = true
-                                    else {
-                                        suspectedGroups.add(group);
-                                        LOG.error("Not yet received the node-connector updated for {} " +
-                                                "for the group with id {}", nodeConnectorUri, group.getGroupId().toString());
-                                        break;
-                                    }
-
-
-                                }
-                                //chained groups
-                                else if (action.getAction().getImplementedInterface().getName()
-                                        .equals("org.opendaylight.yang.gen.v1.urn.opendaylight.action.types.rev131112.action.action.GroupActionCase")) {
-                                    Long groupId = ((GroupActionCase) (action.getAction())).getGroupAction().getGroupId();
-                                    ListenableFuture<?> future =
-                                        groupFutures.get(groupId);
-                                    if (future == null) {
-                                        okToInstall = false;
-                                        break;
-                                    }
-
-                                    // Need to ensure that the group specified
-                                    // by group-action is already installed.
-                                    awaitGroup(sNode, future);
-                                }
-                            }
-                            if (!okToInstall) {
-                                //increment retry counter value
-                                counter++;
-                                break;
-                            }
-                        }
+                ListenableFuture<Void> groupsInstalled =
+                        new GroupReconciliation(provider, nodeIdentity, new GroupDependencyGraph(groups)).start();
 
-                        if (okToInstall) {
-                            addGroup(groupFutures, group);
-                            iterator.remove();
-                            // resetting the counter to zero
-                            counter = 0;
-                        }
-                    }
-                }
-
-            /* installation of suspected groups*/
-                if (!toBeInstalledGroups.isEmpty()) {
-                    for (Group group : toBeInstalledGroups) {
-                        LOG.error("Installing the group {} finally although the port is not up after checking for {} times "
-                                , group.getGroupId().toString(), provider.getConfiguration().getReconciliationRetryCount());
-                        addGroup(groupFutures, group);
-                    }
-                }
             /* Meters */
                 List<Meter> meters = flowNode.get().getMeter() != null
                         ? flowNode.get().getMeter() : Collections.<Meter>emptyList();
@@ -403,110 +317,79 @@ public class FlowNodeReconciliationImpl implements FlowNodeReconciliation {
                     provider.getMeterCommiter().add(meterIdent, meter, nodeIdentity);
                 }
 
-                // Need to wait for all groups to be installed before adding
-                // flows.
-                awaitGroups(sNode, groupFutures.values());
-
-            /* Flows */
-                List<Table> tables = flowNode.get().getTable() != null
+            /* Flows - once add-group RPCs of all groups completed, or when waiting for them timed out */
+                final List<Table> tables = flowNode.get().getTable() != null
                         ? flowNode.get().getTable() : Collections.<Table>emptyList();
-                for (Table table : tables) {
-                    final KeyedInstanceIdentifier<Table, TableKey> tableIdent =
-                            nodeIdentity.child(Table.class, table.getKey());
-                    List<Flow> flows = table.getFlow() != null ? table.getFlow() : Collections.<Flow>emptyList();
-                    for (Flow flow : flows) {
-                        final KeyedInstanceIdentifier<Flow, FlowKey> flowIdent =
-                                tableIdent.child(Flow.class, flow.getKey());
-                        provider.getFlowCommiter().add(flowIdent, flow, nodeIdentity);
+                final AtomicBoolean flowsPushed = new AtomicBoolean();
+                final Runnable pushFlows = new Runnable() {
+                    @Override
+                    public void run() {
+                        if (flowsPushed.compareAndSet(false, true)) {
+                            addFlows(tables);
+                        }
                     }
-                }
+                };
+                final long timeout = Math.min(ADD_GROUP_TIMEOUT * Math.max(groups.size(), 1), MAX_ADD_GROUP_TIMEOUT);
+                final ScheduledFuture<?> groupsTimeout = groupTimeoutScheduler.schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (!flowsPushed.get()) {
+                            LOG.warn("Groups of node {} not completed in {} ms, pushing flows anyway", sNode,
+                                    TimeUnit.NANOSECONDS.toMillis(timeout));
+                            executor.execute(pushFlows);
+                        }
+                    }
+                }, timeout, TimeUnit.NANOSECONDS);
+                Futures.addCallback(groupsInstalled, new FutureCallback<Void>() {
+                    @Override
+                    public void onSuccess(Void result) {
+                        groupsTimeout.cancel(false);
+                        pushFlows.run();
+                    }
+
+                    @Override
+                    public void onFailure(Throwable t) {
+                        LOG.error("Group reconciliation of node {} failed", sNode, t);
+                        groupsTimeout.cancel(false);
+                        pushFlows.run();
+                    }
+                }, executor);
             }
         /* clean transaction */
             trans.close();
         }
 
-        /**
-         * Invoke add-group RPC, and put listenable future associated with the
-         * RPC into the given map.
-         *
-         * @param map        The map to store listenable futures associated with
-         *                   add-group RPC.
-         * @param group      The group to add.
-         */
-        private void addGroup(Map<Long, ListenableFuture<?>> map, Group group) {
-            KeyedInstanceIdentifier<Group, GroupKey> groupIdent =
-                nodeIdentity.child(Group.class, group.getKey());
-            final Long groupId = group.getGroupId().getValue();
-            ListenableFuture<?> future = JdkFutureAdapters.listenInPoolThread(
-                provider.getGroupCommiter().add(
-                    groupIdent, group, nodeIdentity));
-
-            Futures.addCallback(future, new FutureCallback<Object>() {
-                @Override
-                public void onSuccess(Object result) {
-                    if (LOG.isTraceEnabled()) {
-                        LOG.trace("add-group RPC completed: node={}, id={}",
-                                  nodeIdentity.firstKeyOf(Node.class).getId().
-                                  getValue(), groupId);
-                    }
-                }
-
-                @Override
-                public void onFailure(Throwable cause) {
-                    String msg = "add-group RPC failed: node=" +
-                        nodeIdentity.firstKeyOf(Node.class).getId().getValue() +
-                        ", id=" + groupId;
-                    LOG.error(msg, cause);
-                }
-            });
-
-            map.put(groupId, future);
-        }
-
-        /**
-         * Wait for completion of add-group RPC.
-         *
-         * @param nodeId  The identifier for the target node.
-         * @param future  Future associated with add-group RPC that installs
-         *                the target group.
-         */
-        private void awaitGroup(String nodeId, ListenableFuture<?> future) {
-            awaitGroups(nodeId, Collections.<ListenableFuture<?>>singleton(future));
+        private boolean reconcileInFlatBatches(final FlowCapableNode flowNode) {
+            final NodeId nodeId = nodeIdentity.firstKeyOf(Node.class).getId();
+            final ReconciliationProgress progress = new ReconciliationProgress(nodeId.getValue());
+            reconciliationProgress.put(nodeId, progress);
+
+            final ForwardingRulesManagerConfig config = provider.getConfiguration();
+            final boolean reconciled = new FlatBatchReconciliation(provider, nodeIdentity,
+                    config.getReconciliationBatchSize(), config.getReconciliationBatchesInFlight(), progress)
+                    .reconcile(flowNode);
+            if (reconciled) {
+                LOG.info("Reconciliation finished: {}", progress);
+            } else {
+                reconciliationProgress.remove(nodeId, progress);
+            }
+            return reconciled;
         }
 
-        /**
-         * Wait for completion of add-group RPCs.
-         *
-         * @param nodeId   The identifier for the target node.
-         * @param futures  A collection of futures associated with add-group
-         *                 RPCs.
-         */
-        private void awaitGroups(String nodeId,
-                                 Collection<ListenableFuture<?>> futures) {
-            if (!futures.isEmpty()) {
-                long timeout = Math.min(
-                    ADD_GROUP_TIMEOUT * futures.size(), MAX_ADD_GROUP_TIMEOUT);
-                try {
-                    Futures.successfulAsList(futures).
-                        get(timeout, TimeUnit.NANOSECONDS);
-                    LOG.trace("awaitGroups() completed: node={}", nodeId);
-                } catch (TimeoutException e) {
-                    LOG.warn("add-group RPCs did not complete: node={}",
-                             nodeId);
-                } catch (Exception e) {
-                    LOG.error("Unhandled exception while waiting for group installation on node {}",
-                              nodeId, e);
+        private void addFlows(List<Table> tables) {
+            for (Table table : tables) {
+                final KeyedInstanceIdentifier<Table, TableKey> tableIdent =
+                        nodeIdentity.child(Table.class, table.getKey());
+                List<Flow> flows = table.getFlow() != null ? table.getFlow() : Collections.<Flow>emptyList();
+                for (Flow flow : flows) {
+                    final KeyedInstanceIdentifier<Flow, FlowKey> flowIdent =
+                            tableIdent.child(Flow.class, flow.getKey());
+                    provider.getFlowCommiter().add(flowIdent, flow, nodeIdentity);
                 }
             }
         }
     }
 
-    private BigInteger getDpnIdFromNodeName(String nodeName) {
-
-        String dpId = nodeName.substring(nodeName.lastIndexOf(SEPARATOR) + 1);
-        return new BigInteger(dpId);
-   }
-
    private void reconciliationPreProcess(final InstanceIdentifier<FlowCapableNode> nodeIdent) {
 
 
@@ -14,19 +14,37 @@ package org.opendaylight.openflowplugin.applications.frm.impl;
 public class ForwardingRulesManagerConfig {
 
     private final boolean m_staleMarkingEnabled;
-    private final int m_reconciliationRetryCount;
+    private final boolean m_flatBatchReconciliationEnabled;
+    private final int m_reconciliationBatchSize;
+    private final int m_reconciliationBatchesInFlight;
+    private final int m_reconciliationMaxConcurrentNodes;
 
     private ForwardingRulesManagerConfig(ForwardingRulesManagerConfigBuilder builder){
         m_staleMarkingEnabled = builder.isStaleMarkingEnabled();
-        m_reconciliationRetryCount = builder.getReconciliationRetryCount();
+        m_flatBatchReconciliationEnabled = builder.isFlatBatchReconciliationEnabled();
+        m_reconciliationBatchSize = builder.getReconciliationBatchSize();
+        m_reconciliationBatchesInFlight = builder.getReconciliationBatchesInFlight();
+        m_reconciliationMaxConcurrentNodes = builder.getReconciliationMaxConcurrentNodes();
     }
 
     public boolean isStaleMarkingEnabled(){
         return m_staleMarkingEnabled;
     }
 
-    public int getReconciliationRetryCount() {
-        return m_reconciliationRetryCount;
+    public boolean isFlatBatchReconciliationEnabled() {
+        return m_flatBatchReconciliationEnabled;
+    }
+
+    public int getReconciliationBatchSize() {
+        return m_reconciliationBatchSize;
+    }
+
+    public int getReconciliationBatchesInFlight() {
+        return m_reconciliationBatchesInFlight;
+    }
+
+    public int getReconciliationMaxConcurrentNodes() {
+        return m_reconciliationMaxConcurrentNodes;
     }
 
 
@@ -38,19 +56,37 @@ public class ForwardingRulesManagerConfig {
 
     public static class ForwardingRulesManagerConfigBuilder {
         private boolean staleMarkingEnabled ;
-        private int reconciliationRetryCount ;
+        private boolean flatBatchReconciliationEnabled;
+        private int reconciliationBatchSize;
+        private int reconciliationBatchesInFlight;
+        private int reconciliationMaxConcurrentNodes;
 
         public boolean isStaleMarkingEnabled(){
             return staleMarkingEnabled;
         }
-        public int getReconciliationRetryCount() {return reconciliationRetryCount;}
+        public boolean isFlatBatchReconciliationEnabled() {return flatBatchReconciliationEnabled;}
+        public int getReconciliationBatchSize() {return reconciliationBatchSize;}
+        public int getReconciliationBatchesInFlight() {return reconciliationBatchesInFlight;}
+        public int getReconciliationMaxConcurrentNodes() {return reconciliationMaxConcurrentNodes;}
 
         public void setStaleMarkingEnabled(boolean staleMarkingEnabledFlag){
             staleMarkingEnabled = staleMarkingEnabledFlag;
         }
 
-        public void setReconciliationRetryCount(int retryCount ){
-            reconciliationRetryCount = retryCount;
+        public void setFlatBatchReconciliationEnabled(boolean flatBatchReconciliationEnabledFlag) {
+            flatBatchReconciliationEnabled = flatBatchReconciliationEnabledFlag;
+        }
+
+        public void setReconciliationBatchSize(int batchSize) {
+            reconciliationBatchSize = batchSize;
+        }
+
+        public void setReconciliationBatchesInFlight(int batchesInFlight) {
+            reconciliationBatchesInFlight = batchesInFlight;
+        }
+
+        public void setReconciliationMaxConcurrentNodes(int maxConcurrentNodes) {
+            reconciliationMaxConcurrentNodes = maxConcurrentNodes;
         }
 
         public ForwardingRulesManagerConfig build(){
@@ -0,0 +1,222 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.openflowplugin.applications.frm.impl;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.action.types.rev131112.action.action.GroupActionCase;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.action.types.rev131112.action.action.OutputActionCase;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.action.types.rev131112.action.list.Action;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.group.types.rev131018.group.buckets.Bucket;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.group.types.rev131018.groups.Group;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Dependencies among groups of one node. Group depends on every configured group it points to through group action
+ * or watch group of its buckets, such group has to be installed first.
+ * <p>
+ * Groups are ordered into layers - first layer does not depend on any group, every other group is in the layer
+ * following the last layer of its dependencies. Groups of a chain loop and groups depending on them can not be
+ * ordered and are reported as unresolved.
+ */
+public final class GroupDependencyGraph {
+
+    private static final Logger LOG = LoggerFactory.getLogger(GroupDependencyGraph.class);
+
+    /**
+     * Maximal number of physical port, bigger numbers are reserved ports (e.g. OFPP_ANY means no watch port).
+     */
+    private static final long OFPP_MAX = 0xffffff00L;
+
+    /**
+     * Maximal number of group, bigger numbers are reserved (e.g. OFPG_ANY means no watch group).
+     */
+    private static final long OFPG_MAX = 0xffffff00L;
+
+    private final Map<Long, Group> groups = new LinkedHashMap<>();
+    private final Map<Long, Set<Long>> dependencies = new HashMap<>();
+    private final Map<Long, List<Long>> dependents = new HashMap<>();
+    private final List<List<Group>> layers;
+    private final Set<Long> unresolved;
+
+    /**
+     * @param configuredGroups groups configured for node, in any order
+     */
+    public GroupDependencyGraph(@Nonnull final Collection<Group> configuredGroups) {
+        for (final Group group : configuredGroups) {
+            groups.put(group.getGroupId().getValue(), group);
+        }
+        for (final Group group : configuredGroups) {
+            final Long groupId = group.getGroupId().getValue();
+            final Set<Long> groupDependencies = new LinkedHashSet<>();
+            for (final Long referenced : getReferencedGroups(group)) {
+                if (groups.containsKey(referenced)) {
+                    groupDependencies.add(referenced);
+                } else {
+                    LOG.debug("Group {} points to group {} which is not configured", groupId, referenced);
+                }
+            }
+            dependencies.put(groupId, groupDependencies);
+            dependents.put(groupId, new ArrayList<Long>());
+        }
+        for (final Map.Entry<Long, Set<Long>> entry : dependencies.entrySet()) {
+            for (final Long dependency : entry.getValue()) {
+                dependents.get(dependency).add(entry.getKey());
+            }
+        }
+
+        layers = computeLayers();
+        final Set<Long> ordered = new LinkedHashSet<>();
+        for (final List<Group> layer : layers) {
+            for (final Group group : layer) {
+                ordered.add(group.getGroupId().getValue());
+            }
+        }
+        final Set<Long> notOrdered = new LinkedHashSet<>(groups.keySet());
+        notOrdered.removeAll(ordered);
+        unresolved = ImmutableSet.copyOf(notOrdered);
+        if (!unresolved.isEmpty()) {
+            LOG.error("Groups {} are part of or depend on a chain loop, they can not be installed", unresolved);
+        }
+    }
+
+    /**
+     * Kahn's algorithm processing one layer at a time, every edge is visited once.
+     */
+    private List<List<Group>> computeLayers() {
+        final Map<Long, Integer> pendingDependencies = new HashMap<>();
+        List<Long> layer = new ArrayList<>();
+        for (final Map.Entry<Long, Set<Long>> entry : dependencies.entrySet()) {
+            pendingDependencies.put(entry.getKey(), entry.getValue().size());
+        }
+        for (final Long groupId : groups.keySet()) {
+            if (pendingDependencies.get(groupId) == 0) {
+                layer.add(groupId);
+            }
+        }
+
+        final ImmutableList.Builder<List<Group>> builder = ImmutableList.builder();
+        while (!layer.isEmpty()) {
+            final List<Group> layerGroups = new ArrayList<>(layer.size());
+            final List<Long> nextLayer = new ArrayList<>();
+            for (final Long groupId : layer) {
+                layerGroups.add(groups.get(groupId));
+                for (final Long dependent : dependents.get(groupId)) {
+                    final int pending = pendingDependencies.get(dependent) - 1;
+                    pendingDependencies.put(dependent, pending);
+                    if (pending == 0) {
+                        nextLayer.add(dependent);
+                    }
+                }
+            }
+            builder.add(Collections.unmodifiableList(layerGroups));
+            layer = nextLayer;
+        }
+        return builder.build();
+    }
+
+    /**
+     * @return groups in topological layers, without {@link #getUnresolvedGroups() unresolved} groups
+     */
+    public List<List<Group>> getLayers() {
+        return layers;
+    }
+
+    /**
+     * @return ids of groups in chain loop or depending on such group
+     */
+    public Set<Long> getUnresolvedGroups() {
+        return unresolved;
+    }
+
+    public int size() {
+        return groups.size();
+    }
+
+    public Group getGroup(final Long groupId) {
+        return groups.get(groupId);
+    }
+
+    /**
+     * @return ids of configured groups given group points to
+     */
+    public Set<Long> getDependencies(final Long groupId) {
+        return Collections.unmodifiableSet(dependencies.get(groupId));
+    }
+
+    /**
+     * @return ids of configured groups pointing to given group
+     */
+    public List<Long> getDependents(final Long groupId) {
+        return Collections.unmodifiableList(dependents.get(groupId));
+    }
+
+    /**
+     * @param group group
+     * @param nodeId identifier of node, prefix of its node connector identifiers
+     * @return node connector identifiers group outputs to or watches
+     */
+    public static Set<String> getReferencedPorts(final Group group, final String nodeId) {
+        final Set<String> ports = new LinkedHashSet<>();
+        for (final Bucket bucket : getBuckets(group)) {
+            if (bucket.getWatchPort() != null && bucket.getWatchPort() <= OFPP_MAX) {
+                ports.add(nodeId + FlowNodeReconciliationImpl.SEPARATOR + bucket.getWatchPort());
+            }
+            for (final Action action : getActions(bucket)) {
+                if (action.getAction() instanceof OutputActionCase) {
+                    final OutputActionCase output = (OutputActionCase) action.getAction();
+                    if (output.getOutputAction() != null && output.getOutputAction().getOutputNodeConnector() != null) {
+                        ports.add(output.getOutputAction().getOutputNodeConnector().getValue());
+                    }
+                }
+            }
+        }
+        return ports;
+    }
+
+    private static Set<Long> getReferencedGroups(final Group group) {
+        final Set<Long> referenced = new LinkedHashSet<>();
+        for (final Bucket bucket : getBuckets(group)) {
+            if (bucket.getWatchGroup() != null && bucket.getWatchGroup() <= OFPG_MAX) {
+                referenced.add(bucket.getWatchGroup());
+            }
+            for (final Action action : getActions(bucket)) {
+                if (action.getAction() instanceof GroupActionCase) {
+                    final GroupActionCase groupAction = (GroupActionCase) action.getAction();
+                    if (groupAction.getGroupAction() != null && groupAction.getGroupAction().getGroupId() != null) {
+                        referenced.add(groupAction.getGroupAction().getGroupId());
+                    }
+                }
+            }
+        }
+        return referenced;
+    }
+
+    private static List<Bucket> getBuckets(final Group group) {
+        if (group.getBuckets() == null || group.getBuckets().getBucket() == null) {
+            return Collections.emptyList();
+        }
+        return group.getBuckets().getBucket();
+    }
+
+    private static List<Action> getActions(final Bucket bucket) {
+        return bucket.getAction() == null ? Collections.<Action>emptyList() : bucket.getAction();
+    }
+}
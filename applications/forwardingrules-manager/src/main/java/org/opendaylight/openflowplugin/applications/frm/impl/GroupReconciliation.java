@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.openflowplugin.applications.frm.impl;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.JdkFutureAdapters;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import org.opendaylight.openflowplugin.applications.frm.ForwardingRulesManager;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.FlowCapableNode;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.group.types.rev131018.groups.Group;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.Node;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Installs groups of one node through add-group RPCs in order given by {@link GroupDependencyGraph}. Group is sent
+ * as soon as add-group RPCs of all groups it points to completed, no thread waits for them.
+ * <p>
+ * Group outputting to or watching a port which is not up yet is put aside until nothing else can be sent, then it
+ * is sent even if the port is still not up.
+ */
+final class GroupReconciliation {
+
+    private static final Logger LOG = LoggerFactory.getLogger(GroupReconciliation.class);
+
+    private final ForwardingRulesManager provider;
+    private final InstanceIdentifier<FlowCapableNode> nodeIdent;
+    private final GroupDependencyGraph graph;
+    private final String nodeId;
+    private final BigInteger dpId;
+    private final SettableFuture<Void> completed = SettableFuture.create();
+
+    // guarded by this
+    private final Map<Long, Integer> pendingDependencies = new HashMap<>();
+    private final Queue<Group> ready = new ArrayDeque<>();
+    private final List<Group> waitingForPorts = new ArrayList<>();
+    private final Set<Long> portsChecked = new HashSet<>();
+    private int inFlight;
+    private int remaining;
+    private boolean draining;
+
+    GroupReconciliation(final ForwardingRulesManager provider, final InstanceIdentifier<FlowCapableNode> nodeIdent,
+                        final GroupDependencyGraph graph) {
+        this.provider = Preconditions.checkNotNull(provider);
+        this.nodeIdent = Preconditions.checkNotNull(nodeIdent);
+        this.graph = Preconditions.checkNotNull(graph);
+        nodeId = nodeIdent.firstKeyOf(Node.class).getId().getValue();
+        dpId = new BigInteger(nodeId.substring(nodeId.lastIndexOf(FlowNodeReconciliationImpl.SEPARATOR) + 1));
+    }
+
+    /**
+     * Starts sending groups.
+     *
+     * @return future completed when add-group RPCs of all groups but {@link GroupDependencyGraph#getUnresolvedGroups()
+     *         unresolved} ones completed, successfully or not
+     */
+    ListenableFuture<Void> start() {
+        final boolean empty;
+        synchronized (this) {
+            for (final List<Group> layer : graph.getLayers()) {
+                for (final Group group : layer) {
+                    final Long groupId = group.getGroupId().getValue();
+                    pendingDependencies.put(groupId, graph.getDependencies(groupId).size());
+                    remaining++;
+                }
+            }
+            if (!graph.getLayers().isEmpty()) {
+                ready.addAll(graph.getLayers().get(0));
+            }
+            empty = remaining == 0;
+        }
+        if (empty) {
+            completed.set(null);
+        } else {
+            drain();
+        }
+        return completed;
+    }
+
+    /**
+     * Sends ready groups. Only one thread drains at a time, groups made ready by RPCs completed in the meantime
+     * (possibly synchronously, from within this loop) are picked up by the draining thread, so long chains do not
+     * deepen the stack.
+     */
+    private void drain() {
+        synchronized (this) {
+            if (draining) {
+                return;
+            }
+            draining = true;
+        }
+        while (true) {
+            final Group group;
+            synchronized (this) {
+                if (ready.isEmpty() && inFlight == 0 && !waitingForPorts.isEmpty()) {
+                    // nothing else can be sent, ports had their chance to come up
+                    ready.addAll(waitingForPorts);
+                    waitingForPorts.clear();
+                }
+                group = ready.poll();
+                if (group == null) {
+                    draining = false;
+                    return;
+                }
+                inFlight++;
+            }
+
+            final Long groupId = group.getGroupId().getValue();
+            final String port = findPortNotUp(group);
+            if (port != null) {
+                synchronized (this) {
+                    if (portsChecked.add(groupId)) {
+                        LOG.warn("Not yet received the node-connector updated for {} for the group with id {}",
+                                port, groupId);
+                        waitingForPorts.add(group);
+                        inFlight--;
+                        continue;
+                    }
+                }
+                LOG.error("Installing the group {} finally although the port {} is not up", groupId, port);
+            }
+            addGroup(group);
+        }
+    }
+
+    private String findPortNotUp(final Group group) {
+        for (final String port : GroupDependencyGraph.getReferencedPorts(group, nodeId)) {
+            if (!provider.getFlowNodeConnectorInventoryTranslatorImpl().isNodeConnectorUpdated(dpId, port)) {
+                return port;
+            }
+        }
+        return null;
+    }
+
+    private void addGroup(final Group group) {
+        final Long groupId = group.getGroupId().getValue();
+        ListenableFuture<?> future;
+        try {
+            future = JdkFutureAdapters.listenInPoolThread(provider.getGroupCommiter().add(
+                    nodeIdent.child(Group.class, group.getKey()), group, nodeIdent));
+        } catch (final RuntimeException e) {
+            future = Futures.immediateFailedFuture(e);
+        }
+
+        Futures.addCallback(future, new FutureCallback<Object>() {
+            @Override
+            public void onSuccess(final Object result) {
+                if (LOG.isTraceEnabled()) {
+                    LOG.trace("add-group RPC completed: node={}, id={}", nodeId, groupId);
+                }
+                groupCompleted(groupId);
+            }
+
+            @Override
+            public void onFailure(final Throwable cause) {
+                LOG.error("add-group RPC failed: node=" + nodeId + ", id=" + groupId, cause);
+                groupCompleted(groupId);
+            }
+        });
+    }
+
+    /**
+     * Dependents of failed group are sent as well, device reports the missing group then.
+     */
+    private void groupCompleted(final Long groupId) {
+        final boolean finished;
+        synchronized (this) {
+            inFlight--;
+            remaining--;
+            for (final Long dependent : graph.getDependents(groupId)) {
+                final Integer pending = pendingDependencies.get(dependent);
+                if (pending != null) {
+                    pendingDependencies.put(dependent, pending - 1);
+                    if (pending == 1) {
+                        ready.add(graph.getGroup(dependent));
+                    }
+                }
+            }
+            finished = remaining == 0;
+        }
+        if (finished) {
+            LOG.trace("All groups of node {} completed", nodeId);
+            completed.set(null);
+        } else {
+            drain();
+        }
+    }
+}
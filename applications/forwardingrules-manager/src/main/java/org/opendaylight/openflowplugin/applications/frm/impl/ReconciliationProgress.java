@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.openflowplugin.applications.frm.impl;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Progress of flat batch reconciliation of one node. Items are groups, meters and flows, batches are
+ * process-flat-batch RPCs.
+ */
+public final class ReconciliationProgress {
+
+    private final String nodeId;
+    private final long startNanos = System.nanoTime();
+    private final AtomicInteger submittedItems = new AtomicInteger();
+    private final AtomicInteger completedItems = new AtomicInteger();
+    private final AtomicInteger failedItems = new AtomicInteger();
+    private final AtomicInteger submittedBatches = new AtomicInteger();
+    private final AtomicInteger completedBatches = new AtomicInteger();
+    private volatile int totalItems;
+    private volatile long finishNanos;
+    private volatile boolean finished;
+
+    ReconciliationProgress(final String nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    void planned(final int items) {
+        totalItems = items;
+    }
+
+    void batchSubmitted(final int items) {
+        submittedBatches.incrementAndGet();
+        submittedItems.addAndGet(items);
+    }
+
+    void batchCompleted(final int items, final int failed) {
+        completedBatches.incrementAndGet();
+        completedItems.addAndGet(items - failed);
+        failedItems.addAndGet(failed);
+    }
+
+    void finish() {
+        finishNanos = System.nanoTime();
+        finished = true;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public int getTotalItems() {
+        return totalItems;
+    }
+
+    public int getSubmittedItems() {
+        return submittedItems.get();
+    }
+
+    /**
+     * @return number of items confirmed by device
+     */
+    public int getCompletedItems() {
+        return completedItems.get();
+    }
+
+    public int getFailedItems() {
+        return failedItems.get();
+    }
+
+    public int getSubmittedBatches() {
+        return submittedBatches.get();
+    }
+
+    public int getCompletedBatches() {
+        return completedBatches.get();
+    }
+
+    /**
+     * @return true if all batches were processed or reconciliation was aborted
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * @return time spent so far or until reconciliation finished
+     */
+    public long getElapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis((finished ? finishNanos : System.nanoTime()) - startNanos);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "node: %s, items: %d/%d/%d (submitted/completed/failed) of %d, "
+                        + "batches: %d/%d (submitted/completed), elapsed: %d ms%s",
+                nodeId, getSubmittedItems(), getCompletedItems(), getFailedItems(), getTotalItems(),
+                getSubmittedBatches(), getCompletedBatches(), getElapsedMillis(), finished ? "" : " (running)");
+    }
+}
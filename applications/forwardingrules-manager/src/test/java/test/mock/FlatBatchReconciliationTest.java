@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package test.mock;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+import org.opendaylight.controller.md.sal.binding.api.WriteTransaction;
+import org.opendaylight.controller.md.sal.common.api.clustering.EntityOwnershipService;
+import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
+import org.opendaylight.controller.sal.binding.api.RpcProviderRegistry;
+import org.opendaylight.openflowplugin.applications.frm.impl.FlowNodeReconciliationImpl;
+import org.opendaylight.openflowplugin.applications.frm.impl.ForwardingRulesManagerConfig;
+import org.opendaylight.openflowplugin.applications.frm.impl.ForwardingRulesManagerImpl;
+import org.opendaylight.openflowplugin.applications.frm.impl.ReconciliationProgress;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.action.types.rev131112.action.action.GroupActionCaseBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.action.types.rev131112.action.action.group.action._case.GroupActionBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.action.types.rev131112.action.list.Action;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.action.types.rev131112.action.list.ActionBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.action.types.rev131112.action.list.ActionKey;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flat.batch.service.rev160321.ProcessFlatBatchInput;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flat.batch.service.rev160321.process.flat.batch.input.batch.batch.choice.FlatBatchAddFlowCase;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flat.batch.service.rev160321.process.flat.batch.input.batch.batch.choice.FlatBatchAddGroupCase;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flat.batch.service.rev160321.process.flat.batch.input.batch.batch.choice.FlatBatchAddMeterCase;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.FlowCapableNode;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.FlowCapableNodeBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.FlowId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.meters.Meter;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.meters.MeterBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.meters.MeterKey;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.Table;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.TableBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.TableKey;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.table.Flow;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.table.FlowBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.table.FlowKey;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.group.types.rev131018.BucketId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.group.types.rev131018.GroupId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.group.types.rev131018.group.BucketsBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.group.types.rev131018.group.buckets.Bucket;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.group.types.rev131018.group.buckets.BucketBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.group.types.rev131018.group.buckets.BucketKey;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.group.types.rev131018.groups.Group;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.group.types.rev131018.groups.GroupBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.group.types.rev131018.groups.GroupKey;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.NodeId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.Nodes;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.NodesBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.Node;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.NodeBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.NodeKey;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.meter.types.rev130918.MeterId;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+import test.mock.util.EntityOwnershipServiceMock;
+import test.mock.util.FRMTest;
+import test.mock.util.RpcProviderRegistryMock;
+import test.mock.util.SalFlatBatchServiceMock;
+
+public class FlatBatchReconciliationTest extends FRMTest {
+
+    RpcProviderRegistry rpcProviderRegistryMock = new RpcProviderRegistryMock();
+    EntityOwnershipService eos = new EntityOwnershipServiceMock();
+
+    NodeKey s1Key = new NodeKey(new NodeId("S1"));
+
+    @Test
+    public void reconcileInChunksTest() throws Exception {
+        ForwardingRulesManagerConfig.ForwardingRulesManagerConfigBuilder cfgBuilder = ForwardingRulesManagerConfig.builder();
+        cfgBuilder.setFlatBatchReconciliationEnabled(true);
+        cfgBuilder.setReconciliationBatchSize(3);
+        cfgBuilder.setReconciliationBatchesInFlight(2);
+        cfgBuilder.setReconciliationMaxConcurrentNodes(1);
+
+        try (ForwardingRulesManagerImpl forwardingRulesManager = new ForwardingRulesManagerImpl(
+                getDataBroker(),
+                rpcProviderRegistryMock,
+                cfgBuilder.build(),
+                eos)) {
+            forwardingRulesManager.start();
+
+            // group 3 points to group 2 which points to group 1
+            List<Group> groups = new ArrayList<>();
+            groups.add(createGroup(3L, 2L));
+            groups.add(createGroup(2L, 1L));
+            groups.add(createGroup(1L, null));
+            List<Meter> meters = Collections.singletonList(new MeterBuilder()
+                    .setKey(new MeterKey(new MeterId(1L))).setMeterId(new MeterId(1L)).build());
+            List<Flow> flows = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                FlowId flowId = new FlowId("flow" + i);
+                flows.add(new FlowBuilder().setKey(new FlowKey(flowId)).setId(flowId).setTableId((short) 0).build());
+            }
+            Table table = new TableBuilder().setKey(new TableKey((short) 0)).setFlow(flows).build();
+            addConfiguredNode(new FlowCapableNodeBuilder().setGroup(groups).setMeter(meters)
+                    .setTable(Collections.singletonList(table)).build());
+
+            FlowNodeReconciliationImpl reconciliation =
+                    (FlowNodeReconciliationImpl) forwardingRulesManager.getFlowNodeReconciliation();
+            ReconciliationProgress progress = null;
+            for (int i = 0; i < 100 && (progress == null || !progress.isFinished()); i++) {
+                Thread.sleep(50);
+                progress = reconciliation.getReconciliationProgress(s1Key.getId());
+            }
+            assertNotNull(progress);
+            assertTrue(progress.isFinished());
+            assertEquals(8, progress.getTotalItems());
+            assertEquals(8, progress.getCompletedItems());
+            assertEquals(0, progress.getFailedItems());
+            assertEquals(4, progress.getCompletedBatches());
+
+            SalFlatBatchServiceMock salFlatBatchService =
+                    (SalFlatBatchServiceMock) forwardingRulesManager.getSalFlatBatchService();
+            List<ProcessFlatBatchInput> calls = salFlatBatchService.getProcessFlatBatchCalls();
+            assertEquals(4, calls.size());
+
+            // all group layers fit into the first chunk, one step per layer
+            assertEquals(3, calls.get(0).getBatch().size());
+            for (int i = 0; i < 3; i++) {
+                FlatBatchAddGroupCase groupCase = (FlatBatchAddGroupCase) calls.get(0).getBatch().get(i).getBatchChoice();
+                assertEquals(1, groupCase.getFlatBatchAddGroup().size());
+                assertEquals(i + 1, groupCase.getFlatBatchAddGroup().get(0).getGroupId().getValue().intValue());
+            }
+            assertEquals(1, ((FlatBatchAddMeterCase) calls.get(1).getBatch().get(0).getBatchChoice())
+                    .getFlatBatchAddMeter().size());
+            assertEquals(3, ((FlatBatchAddFlowCase) calls.get(2).getBatch().get(0).getBatchChoice())
+                    .getFlatBatchAddFlow().size());
+            assertEquals(1, ((FlatBatchAddFlowCase) calls.get(3).getBatch().get(0).getBatchChoice())
+                    .getFlatBatchAddFlow().size());
+        }
+    }
+
+    private static Group createGroup(long groupId, Long chainedGroupId) {
+        List<Action> actions = new ArrayList<>();
+        if (chainedGroupId != null) {
+            actions.add(new ActionBuilder().setKey(new ActionKey(0)).setOrder(0)
+                    .setAction(new GroupActionCaseBuilder()
+                            .setGroupAction(new GroupActionBuilder().setGroupId(chainedGroupId).build())
+                            .build())
+                    .build());
+        }
+        Bucket bucket = new BucketBuilder().setKey(new BucketKey(new BucketId(0L))).setBucketId(new BucketId(0L))
+                .setAction(actions).build();
+        return new GroupBuilder().setKey(new GroupKey(new GroupId(groupId))).setGroupId(new GroupId(groupId))
+                .setBuckets(new BucketsBuilder().setBucket(Collections.singletonList(bucket)).build()).build();
+    }
+
+    private void addConfiguredNode(FlowCapableNode configuredNode) {
+        Nodes nodes = new NodesBuilder().setNode(Collections.<Node>emptyList()).build();
+        InstanceIdentifier<Node> nodeII = InstanceIdentifier.create(Nodes.class).child(Node.class, s1Key);
+
+        WriteTransaction writeTx = getDataBroker().newWriteOnlyTransaction();
+        writeTx.put(LogicalDatastoreType.CONFIGURATION, InstanceIdentifier.create(Nodes.class), nodes);
+        writeTx.put(LogicalDatastoreType.CONFIGURATION, nodeII, new NodeBuilder().setKey(s1Key)
+                .addAugmentation(FlowCapableNode.class, configuredNode).build());
+        assertCommit(writeTx.submit());
+
+        writeTx = getDataBroker().newWriteOnlyTransaction();
+        writeTx.put(LogicalDatastoreType.OPERATIONAL, InstanceIdentifier.create(Nodes.class), nodes);
+        writeTx.put(LogicalDatastoreType.OPERATIONAL, nodeII, new NodeBuilder().setKey(s1Key)
+                .addAugmentation(FlowCapableNode.class, new FlowCapableNodeBuilder().build()).build());
+        assertCommit(writeTx.submit());
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package test.mock;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import org.opendaylight.controller.md.sal.binding.api.WriteTransaction;
+import org.opendaylight.controller.md.sal.common.api.clustering.EntityOwnershipService;
+import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
+import org.opendaylight.controller.sal.binding.api.RpcProviderRegistry;
+import org.opendaylight.openflowplugin.applications.frm.impl.ForwardingRulesManagerImpl;
+import org.opendaylight.openflowplugin.applications.frm.impl.GroupDependencyGraph;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.action.types.rev131112.action.action.GroupActionCaseBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.action.types.rev131112.action.action.group.action._case.GroupActionBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.action.types.rev131112.action.list.Action;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.action.types.rev131112.action.list.ActionBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.action.types.rev131112.action.list.ActionKey;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.FlowCapableNode;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.FlowCapableNodeBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.FlowId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.Table;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.TableBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.TableKey;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.table.Flow;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.table.FlowBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.table.FlowKey;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.service.rev130819.AddFlowInput;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.group.service.rev130918.AddGroupInput;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.group.types.rev131018.BucketId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.group.types.rev131018.GroupId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.group.types.rev131018.GroupTypes;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.group.types.rev131018.group.BucketsBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.group.types.rev131018.group.buckets.Bucket;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.group.types.rev131018.group.buckets.BucketBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.group.types.rev131018.group.buckets.BucketKey;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.group.types.rev131018.groups.Group;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.group.types.rev131018.groups.GroupBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.group.types.rev131018.groups.GroupKey;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.NodeId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.Nodes;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.NodesBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.Node;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.NodeBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.NodeKey;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import test.mock.util.EntityOwnershipServiceMock;
+import test.mock.util.FRMTest;
+import test.mock.util.RpcProviderRegistryMock;
+import test.mock.util.SalFlowServiceMock;
+import test.mock.util.SalGroupServiceMock;
+
+public class GroupReconciliationTest extends FRMTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(GroupReconciliationTest.class);
+    private static final int CHAIN_LENGTH = 5000;
+    private static final long OFPP_ANY = 0xffffffffL;
+
+    RpcProviderRegistry rpcProviderRegistryMock = new RpcProviderRegistryMock();
+    EntityOwnershipService eos = new EntityOwnershipServiceMock();
+
+    NodeKey s1Key = new NodeKey(new NodeId("openflow:1"));
+
+    @Test
+    public void chainedFastFailoverGroupsTest() throws Exception {
+        try (ForwardingRulesManagerImpl forwardingRulesManager = new ForwardingRulesManagerImpl(
+                getDataBroker(),
+                rpcProviderRegistryMock,
+                getConfig(),
+                eos)) {
+            forwardingRulesManager.start();
+
+            // group N watches and points to group N-1, ..., group 2 watches and points to group 1
+            List<Group> groups = new ArrayList<>();
+            groups.add(createGroup(1L));
+            for (long groupId = 2; groupId <= CHAIN_LENGTH; groupId++) {
+                groups.add(createGroup(groupId, groupId - 1));
+            }
+            Collections.shuffle(groups, new Random(42));
+            FlowId flowId = new FlowId("flow");
+            Flow flow = new FlowBuilder().setKey(new FlowKey(flowId)).setId(flowId).setTableId((short) 0).build();
+            Table table = new TableBuilder().setKey(new TableKey((short) 0))
+                    .setFlow(Collections.singletonList(flow)).build();
+            writeConfiguredNode(new FlowCapableNodeBuilder().setGroup(groups)
+                    .setTable(Collections.singletonList(table)).build());
+
+            SalFlowServiceMock salFlowService = (SalFlowServiceMock) forwardingRulesManager.getSalFlowService();
+            List<AddFlowInput> addFlowCalls = salFlowService.getAddFlowCalls();
+            long start = System.nanoTime();
+            writeOperationalNode();
+            for (int i = 0; i < 600 && addFlowCalls.isEmpty(); i++) {
+                Thread.sleep(50);
+            }
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            LOG.info("Reconciliation of {} chained groups completed in {} ms", CHAIN_LENGTH, elapsedMillis);
+
+            // flow goes after all groups, every group after the group it points to
+            assertEquals(1, addFlowCalls.size());
+            SalGroupServiceMock salGroupService = (SalGroupServiceMock) forwardingRulesManager.getSalGroupService();
+            List<AddGroupInput> addGroupCalls = salGroupService.getAddGroupCalls();
+            assertEquals(CHAIN_LENGTH, addGroupCalls.size());
+            for (int i = 0; i < CHAIN_LENGTH; i++) {
+                assertEquals(i + 1, addGroupCalls.get(i).getGroupId().getValue().intValue());
+            }
+            assertTrue("Reconciliation took " + elapsedMillis + " ms", elapsedMillis < TimeUnit.SECONDS.toMillis(30));
+        }
+    }
+
+    @Test
+    public void chainLoopTest() {
+        // 1 and 2 point to each other, 3 points to the loop, 5 points to 4
+        GroupDependencyGraph graph = new GroupDependencyGraph(Arrays.asList(
+                createGroup(1L, 2L), createGroup(2L, 1L), createGroup(3L, 1L), createGroup(5L, 4L), createGroup(4L)));
+
+        assertEquals(ImmutableSet.of(1L, 2L, 3L), graph.getUnresolvedGroups());
+        assertEquals(2, graph.getLayers().size());
+        assertEquals(1, graph.getLayers().get(0).size());
+        assertEquals(4L, graph.getLayers().get(0).get(0).getGroupId().getValue().longValue());
+        assertEquals(1, graph.getLayers().get(1).size());
+        assertEquals(5L, graph.getLayers().get(1).get(0).getGroupId().getValue().longValue());
+    }
+
+    private static Group createGroup(long groupId) {
+        return createGroup(groupId, null);
+    }
+
+    /**
+     * Fast failover group with one bucket watching and pointing to chained group if given.
+     */
+    private static Group createGroup(long groupId, Long chainedGroupId) {
+        BucketBuilder bucketBuilder = new BucketBuilder().setKey(new BucketKey(new BucketId(0L)))
+                .setBucketId(new BucketId(0L)).setWatchPort(OFPP_ANY);
+        List<Action> actions = new ArrayList<>();
+        if (chainedGroupId != null) {
+            bucketBuilder.setWatchGroup(chainedGroupId);
+            actions.add(new ActionBuilder().setKey(new ActionKey(0)).setOrder(0)
+                    .setAction(new GroupActionCaseBuilder()
+                            .setGroupAction(new GroupActionBuilder().setGroupId(chainedGroupId).build())
+                            .build())
+                    .build());
+        }
+        Bucket bucket = bucketBuilder.setAction(actions).build();
+        return new GroupBuilder().setKey(new GroupKey(new GroupId(groupId))).setGroupId(new GroupId(groupId))
+                .setGroupType(GroupTypes.GroupFf)
+                .setBuckets(new BucketsBuilder().setBucket(Collections.singletonList(bucket)).build()).build();
+    }
+
+    private void writeConfiguredNode(FlowCapableNode configuredNode) {
+        WriteTransaction writeTx = getDataBroker().newWriteOnlyTransaction();
+        writeTx.put(LogicalDatastoreType.CONFIGURATION, InstanceIdentifier.create(Nodes.class),
+                new NodesBuilder().setNode(Collections.<Node>emptyList()).build());
+        writeTx.put(LogicalDatastoreType.CONFIGURATION, InstanceIdentifier.create(Nodes.class).child(Node.class, s1Key),
+                new NodeBuilder().setKey(s1Key).addAugmentation(FlowCapableNode.class, configuredNode).build());
+        assertCommit(writeTx.submit());
+    }
+
+    private void writeOperationalNode() {
+        WriteTransaction writeTx = getDataBroker().newWriteOnlyTransaction();
+        writeTx.put(LogicalDatastoreType.OPERATIONAL, InstanceIdentifier.create(Nodes.class),
+                new NodesBuilder().setNode(Collections.<Node>emptyList()).build());
+        writeTx.put(LogicalDatastoreType.OPERATIONAL, InstanceIdentifier.create(Nodes.class).child(Node.class, s1Key),
+                new NodeBuilder().setKey(s1Key)
+                        .addAugmentation(FlowCapableNode.class, new FlowCapableNodeBuilder().build()).build());
+        assertCommit(writeTx.submit());
+    }
+}
@@ -0,0 +1,30 @@
+package test.mock.util;
+
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flat.batch.service.rev160321.ProcessFlatBatchInput;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flat.batch.service.rev160321.ProcessFlatBatchOutput;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flat.batch.service.rev160321.ProcessFlatBatchOutputBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flat.batch.service.rev160321.SalFlatBatchService;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flat.batch.service.rev160321.process.flat.batch.output.BatchFailure;
+import org.opendaylight.yangtools.yang.common.RpcResult;
+import org.opendaylight.yangtools.yang.common.RpcResultBuilder;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Future;
+
+public class SalFlatBatchServiceMock implements SalFlatBatchService {
+    private List<ProcessFlatBatchInput> processFlatBatchCalls = new CopyOnWriteArrayList<>();
+
+    @Override
+    public Future<RpcResult<ProcessFlatBatchOutput>> processFlatBatch(ProcessFlatBatchInput input) {
+        processFlatBatchCalls.add(input);
+        return RpcResultBuilder.success(new ProcessFlatBatchOutputBuilder()
+                .setBatchFailure(Collections.<BatchFailure>emptyList())
+                .build()).buildFuture();
+    }
+
+    public List<ProcessFlatBatchInput> getProcessFlatBatchCalls() {
+        return processFlatBatchCalls;
+    }
+}
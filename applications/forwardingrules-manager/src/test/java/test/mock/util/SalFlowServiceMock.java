@@ -10,11 +10,12 @@ import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.service.rev130819.Upda
 import org.opendaylight.yangtools.yang.common.RpcResult;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.Future;
 
 public class SalFlowServiceMock implements SalFlowService{
-    private List<AddFlowInput> addFlowCalls = new ArrayList<>();
+    private List<AddFlowInput> addFlowCalls = Collections.synchronizedList(new ArrayList<AddFlowInput>());
     private List<RemoveFlowInput> removeFlowCalls = new ArrayList<>();
     private List<UpdateFlowInput> updateFlowCalls = new ArrayList<>();
 
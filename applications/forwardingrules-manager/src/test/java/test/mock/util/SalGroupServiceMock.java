@@ -8,20 +8,22 @@ import org.opendaylight.yang.gen.v1.urn.opendaylight.group.service.rev130918.Sal
 import org.opendaylight.yang.gen.v1.urn.opendaylight.group.service.rev130918.UpdateGroupInput;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.group.service.rev130918.UpdateGroupOutput;
 import org.opendaylight.yangtools.yang.common.RpcResult;
+import org.opendaylight.yangtools.yang.common.RpcResultBuilder;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.Future;
 
 public class SalGroupServiceMock implements SalGroupService {
-    private List<AddGroupInput> addGroupCalls = new ArrayList<>();
+    private List<AddGroupInput> addGroupCalls = Collections.synchronizedList(new ArrayList<AddGroupInput>());
     private List<RemoveGroupInput> removeGroupCalls = new ArrayList<>();
     private List<UpdateGroupInput> updateGroupCalls = new ArrayList<>();
 
     @Override
     public Future<RpcResult<AddGroupOutput>> addGroup(AddGroupInput input) {
         addGroupCalls.add(input);
-        return null;
+        return RpcResultBuilder.<AddGroupOutput>success().buildFuture();
     }
 
     @Override
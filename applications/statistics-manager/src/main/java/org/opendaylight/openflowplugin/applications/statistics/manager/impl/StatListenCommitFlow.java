@@ -12,6 +12,7 @@ import com.google.common.base.Optional;
 import com.google.common.collect.BiMap;
 import com.google.common.collect.HashBiMap;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -19,8 +20,12 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.opendaylight.controller.md.sal.binding.api.DataBroker;
+import org.opendaylight.controller.md.sal.binding.api.DataObjectModification;
+import org.opendaylight.controller.md.sal.binding.api.DataTreeModification;
 import org.opendaylight.controller.md.sal.binding.api.ReadWriteTransaction;
 import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
 import org.opendaylight.controller.md.sal.common.api.data.ReadFailedException;
@@ -30,7 +35,7 @@ import org.opendaylight.openflowplugin.applications.statistics.manager.StatRpcMs
 import org.opendaylight.openflowplugin.applications.statistics.manager.StatisticsManager;
 import org.opendaylight.openflowplugin.applications.statistics.manager.StatisticsManager.StatDataStoreOperation;
 import org.opendaylight.openflowplugin.applications.statistics.manager.StatisticsManager.StatDataStoreOperation.StatsManagerOperationType;
-import org.opendaylight.openflowplugin.applications.statistics.manager.impl.helper.FlowComparator;
+import org.opendaylight.openflowplugin.applications.statistics.manager.impl.helper.ConfigFlowIndex;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.FlowCapableNode;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.FlowHashIdMapping;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.FlowHashIdMappingBuilder;
@@ -92,6 +97,9 @@ public class StatListenCommitFlow extends StatAbstractListenCommit<Flow, Openday
 
     private final AtomicInteger unaccountedFlowsCounter = new AtomicInteger(0);
 
+    /* config flows of tables with statistics processed, kept in sync with Config/DS by data tree changes */
+    private final ConcurrentMap<InstanceIdentifier<Table>, ConfigFlowIndex> configFlowIndexes = new ConcurrentHashMap<>();
+
     public StatListenCommitFlow (final StatisticsManager manager, final DataBroker db,
             final NotificationProviderService nps,
                                  final StatNodeRegistration nrm){
@@ -109,6 +117,47 @@ public class StatListenCommitFlow extends StatAbstractListenCommit<Flow, Openday
                 .augmentation(FlowCapableNode.class).child(Table.class).child(Flow.class);
     }
 
+    @Override
+    public void onDataTreeChanged(final Collection<DataTreeModification<Flow>> changes) {
+        super.onDataTreeChanged(changes);
+        for (final DataTreeModification<Flow> change : changes) {
+            final InstanceIdentifier<Flow> flowIdent = change.getRootPath().getRootIdentifier();
+            final ConfigFlowIndex configFlowIndex = configFlowIndexes.get(flowIdent.firstIdentifierOf(Table.class));
+            if (configFlowIndex == null) {
+                continue;
+            }
+            final DataObjectModification<Flow> mod = change.getRootNode();
+            switch (mod.getModificationType()) {
+                case DELETE:
+                    configFlowIndex.remove(flowIdent.firstKeyOf(Flow.class, FlowKey.class));
+                    break;
+                case SUBTREE_MODIFIED:
+                case WRITE:
+                    configFlowIndex.update(mod.getDataAfter());
+                    break;
+                default:
+                    LOG.debug("Unhandled modification type {} of {}", mod.getModificationType(), flowIdent);
+            }
+        }
+    }
+
+    @Override
+    public void cleanForDisconnect(final InstanceIdentifier<Node> nodeIdent) {
+        super.cleanForDisconnect(nodeIdent);
+        final Iterator<InstanceIdentifier<Table>> tableIdents = configFlowIndexes.keySet().iterator();
+        while (tableIdents.hasNext()) {
+            if (nodeIdent.equals(tableIdents.next().firstIdentifierOf(Node.class))) {
+                tableIdents.remove();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        configFlowIndexes.clear();
+        super.close();
+    }
+
     @Override
     public void onAggregateFlowStatisticsUpdate(final AggregateFlowStatisticsUpdate notification) {
         final TransactionId transId = notification.getTransactionId();
@@ -331,7 +380,7 @@ public class StatListenCommitFlow extends StatAbstractListenCommit<Flow, Openday
         final KeyedInstanceIdentifier<Table, TableKey> tableRef;
         final TableKey tableKey;
         final BiMap<FlowHashIdMapKey, FlowId> flowIdByHash;
-        List<Flow> configFlows;
+        ConfigFlowIndex configFlows;
 
         public TableFlowUpdateState(final KeyedInstanceIdentifier<Table, TableKey> tablePath, final Table table) {
             tableRef = tablePath;
@@ -376,32 +425,31 @@ public class StatListenCommitFlow extends StatAbstractListenCommit<Flow, Openday
 
         private FlowKey searchInConfiguration(final FlowAndStatisticsMapList flowStat, final ReadWriteTransaction trans) {
             initConfigFlows();
-            final Iterator<Flow> it = configFlows.iterator();
-            while(it.hasNext()) {
-                final Flow cfgFlow = it.next();
-                final FlowKey cfgKey = cfgFlow.getKey();
-                final FlowId cfgFlowId = cfgKey.getId();
-
-                if(! flowIdByHash.inverse().containsKey(cfgFlowId)) {
-                    if(FlowComparator.flowEquals(flowStat, cfgFlow)) {
-                        return cfgKey;
-                    }
-                }
-            }
-            return null;
+            return configFlows.find(flowStat, flowIdByHash.inverse().keySet());
         }
 
         private void initConfigFlows() {
-            final Optional<Table> table = readLatestConfiguration(tableRef);
-            List<Flow> localList = null;
-            if(table.isPresent()) {
-                localList = table.get().getFlow();
+            if (configFlows != null) {
+                return;
             }
-            if(localList == null) {
-                configFlows = Collections.emptyList();
-            } else {
-                configFlows = new ArrayList<>(localList);
+            ConfigFlowIndex configFlowIndex = configFlowIndexes.get(tableRef);
+            if (configFlowIndex == null) {
+                // register before reading so that changes racing with the read are not lost
+                final ConfigFlowIndex newIndex = new ConfigFlowIndex();
+                configFlowIndex = configFlowIndexes.putIfAbsent(tableRef, newIndex);
+                if (configFlowIndex == null) {
+                    configFlowIndex = newIndex;
+                }
+            }
+            if (!configFlowIndex.isLoaded()) {
+                final Optional<Table> table = readLatestConfiguration(tableRef);
+                List<Flow> localList = null;
+                if (table.isPresent()) {
+                    localList = table.get().getFlow();
+                }
+                configFlowIndex.load(localList == null ? Collections.<Flow>emptyList() : localList);
             }
+            configFlows = configFlowIndex;
         }
 
         private FlowKey getFlowKeyAndRemoveHash(final FlowHashIdMapKey key) {
@@ -488,9 +536,10 @@ public class StatListenCommitFlow extends StatAbstractListenCommit<Flow, Openday
 
         List<InstanceIdentifier<Flow>> notStatReportedConfigFlows() {
             if (configFlows != null) {
-                final List<InstanceIdentifier<Flow>> returnList = new ArrayList<>(configFlows.size());
-                for (final Flow confFlow : configFlows) {
-                    final InstanceIdentifier<Flow> confFlowIdent = tableRef.child(Flow.class, confFlow.getKey());
+                final List<FlowKey> configFlowKeys = configFlows.getFlowKeys();
+                final List<InstanceIdentifier<Flow>> returnList = new ArrayList<>(configFlowKeys.size());
+                for (final FlowKey confFlowKey : configFlowKeys) {
+                    final InstanceIdentifier<Flow> confFlowIdent = tableRef.child(Flow.class, confFlowKey);
                     returnList.add(confFlowIdent);
                 }
                 return returnList;
@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.openflowplugin.applications.statistics.manager.impl.helper;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.FlowId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.table.Flow;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.table.FlowKey;
+
+/**
+ * Index of config flows of one table used to pair flow statistics with config flow ids. Flows are bucketed by
+ * {@link FlowFingerprint}, {@link FlowComparator} is used only to verify candidates of the bucket.
+ * <p>
+ * Index is filled once by {@link #load(Collection)} and then kept up to date by {@link #update(Flow)} and
+ * {@link #remove(FlowKey)} driven by config datastore changes. Changes received before initial load are not
+ * overwritten by (possibly older) loaded content.
+ */
+public final class ConfigFlowIndex {
+
+    private final Map<FlowKey, FlowFingerprint> flows = new HashMap<>();
+    private final Map<Integer, Map<FlowKey, Flow>> fineBuckets = new HashMap<>();
+    private final Map<Integer, Map<FlowKey, Flow>> coarseBuckets = new HashMap<>();
+    private Set<FlowKey> changedBeforeLoad = new HashSet<>();
+
+    /**
+     * @param configFlows content of config table
+     */
+    public synchronized void load(final Collection<Flow> configFlows) {
+        if (isLoaded()) {
+            return;
+        }
+        for (final Flow flow : configFlows) {
+            if (!changedBeforeLoad.contains(flow.getKey())) {
+                add(flow);
+            }
+        }
+        changedBeforeLoad = null;
+    }
+
+    public synchronized boolean isLoaded() {
+        return changedBeforeLoad == null;
+    }
+
+    /**
+     * @param flow created or modified config flow
+     */
+    public synchronized void update(final Flow flow) {
+        if (!isLoaded()) {
+            changedBeforeLoad.add(flow.getKey());
+        }
+        unindex(flow.getKey());
+        add(flow);
+    }
+
+    /**
+     * @param flowKey key of removed config flow
+     */
+    public synchronized void remove(final FlowKey flowKey) {
+        if (!isLoaded()) {
+            changedBeforeLoad.add(flowKey);
+        }
+        unindex(flowKey);
+    }
+
+    /**
+     * @param statsFlow flow reported by device
+     * @param excludedIds ids of config flows already paired
+     * @return key of config flow equal to given one or null
+     */
+    public synchronized FlowKey find(final org.opendaylight.yang.gen.v1.urn.opendaylight.flow.types.rev131026.Flow statsFlow,
+                                     final Set<FlowId> excludedIds) {
+        final FlowFingerprint fingerprint = FlowFingerprint.of(statsFlow);
+        final Map<FlowKey, Flow> fineBucket = fineBuckets.get(fingerprint.getFine());
+        if (fineBucket != null) {
+            for (final Flow cfgFlow : fineBucket.values()) {
+                if (!excludedIds.contains(cfgFlow.getId()) && FlowComparator.flowEquals(statsFlow, cfgFlow)) {
+                    return cfgFlow.getKey();
+                }
+            }
+        }
+
+        // loose address comparison can pair flows with different fine keys
+        if (fingerprint.isMaskSensitive()) {
+            final Map<FlowKey, Flow> coarseBucket = coarseBuckets.get(fingerprint.getCoarse());
+            if (coarseBucket != null) {
+                for (final Flow cfgFlow : coarseBucket.values()) {
+                    if ((fineBucket == null || !fineBucket.containsKey(cfgFlow.getKey()))
+                            && !excludedIds.contains(cfgFlow.getId()) && FlowComparator.flowEquals(statsFlow, cfgFlow)) {
+                        return cfgFlow.getKey();
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return keys of all indexed config flows
+     */
+    public synchronized List<FlowKey> getFlowKeys() {
+        return new ArrayList<>(flows.keySet());
+    }
+
+    public synchronized int size() {
+        return flows.size();
+    }
+
+    private void add(final Flow flow) {
+        final FlowFingerprint fingerprint = FlowFingerprint.of(flow);
+        flows.put(flow.getKey(), fingerprint);
+        bucket(fineBuckets, fingerprint.getFine()).put(flow.getKey(), flow);
+        bucket(coarseBuckets, fingerprint.getCoarse()).put(flow.getKey(), flow);
+    }
+
+    private void unindex(final FlowKey flowKey) {
+        final FlowFingerprint fingerprint = flows.remove(flowKey);
+        if (fingerprint != null) {
+            unbucket(fineBuckets, fingerprint.getFine(), flowKey);
+            unbucket(coarseBuckets, fingerprint.getCoarse(), flowKey);
+        }
+    }
+
+    private static Map<FlowKey, Flow> bucket(final Map<Integer, Map<FlowKey, Flow>> buckets, final int key) {
+        Map<FlowKey, Flow> bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = new LinkedHashMap<>();
+            buckets.put(key, bucket);
+        }
+        return bucket;
+    }
+
+    private static void unbucket(final Map<Integer, Map<FlowKey, Flow>> buckets, final int key,
+                                 final FlowKey flowKey) {
+        final Map<FlowKey, Flow> bucket = buckets.get(key);
+        if (bucket != null) {
+            bucket.remove(flowKey);
+            if (bucket.isEmpty()) {
+                buckets.remove(key);
+            }
+        }
+    }
+}
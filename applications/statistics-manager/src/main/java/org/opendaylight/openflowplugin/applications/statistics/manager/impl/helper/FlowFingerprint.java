@@ -0,0 +1,258 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.openflowplugin.applications.statistics.manager.impl.helper;
+
+import com.google.common.net.InetAddresses;
+import java.util.Arrays;
+import java.util.Locale;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev100924.Ipv4Address;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev100924.Ipv4Prefix;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev100924.Ipv6Prefix;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.yang.types.rev100924.MacAddress;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.yang.types.rev130715.DottedQuad;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.types.rev131026.Flow;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.types.rev131026.flow.Match;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.MacAddressFilter;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.match.EthernetMatch;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.match.Layer3Match;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.match.Layer4Match;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.match.layer._3.match.ArpMatch;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.match.layer._3.match.Ipv4Match;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.match.layer._3.match.Ipv4MatchArbitraryBitMask;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.match.layer._3.match.Ipv6Match;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.match.layer._3.match.Ipv6MatchArbitraryBitMask;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.match.layer._4.match.SctpMatch;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.match.layer._4.match.TcpMatch;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.match.layer._4.match.UdpMatch;
+
+/**
+ * Hash keys of flow used to look up candidates for {@link FlowComparator#flowEquals(Flow, Flow)} without
+ * comparing against every stored flow.
+ * <p>
+ * Both keys are built only from values which {@link FlowComparator} compares for equality (priority with default
+ * applied, match field presence, ethernet type, ip protocol, layer 3/4 kind) - flows equal according to
+ * {@link FlowComparator} always share the coarse key. The fine key adds match values normalized the way switch
+ * reports them (lower case MAC addresses, masked IPv4/IPv6 addresses, ports, in-port, vlan id, metadata). Flows
+ * equal according to {@link FlowComparator} share the fine key too unless they rely on loose address comparison
+ * (e.g. unmasked address against masked one), {@link #isMaskSensitive()} tells whether such comparison applies.
+ */
+public final class FlowFingerprint {
+
+    private static final int DEFAULT_PRIORITY = 0x8000;
+    private static final int IPV4_FAMILY = 4;
+    private static final int IPV6_FAMILY = 6;
+    private static final int ARP_FAMILY = 0x806;
+    private static final int OTHER_FAMILY = 1;
+    private static final int IPV4_FULL_MASK = 0xffffffff;
+
+    private final int coarse;
+    private final int fine;
+    private final boolean maskSensitive;
+
+    private FlowFingerprint(final int coarse, final int fine, final boolean maskSensitive) {
+        this.coarse = coarse;
+        this.fine = fine;
+        this.maskSensitive = maskSensitive;
+    }
+
+    public static FlowFingerprint of(final Flow flow) {
+        final Integer priority = flow.getPriority();
+        int coarse = priority == null ? DEFAULT_PRIORITY : priority;
+        final Match match = flow.getMatch();
+        if (match == null) {
+            return new FlowFingerprint(coarse, coarse, false);
+        }
+
+        coarse = mix(coarse, presenceBits(match));
+        int fine = 0;
+
+        final EthernetMatch ethernetMatch = match.getEthernetMatch();
+        if (ethernetMatch != null) {
+            if (ethernetMatch.getEthernetType() != null && ethernetMatch.getEthernetType().getType() != null) {
+                coarse = mix(coarse, ethernetMatch.getEthernetType().getType().getValue());
+            }
+            fine = mixMacFilter(fine, ethernetMatch.getEthernetSource());
+            fine = mixMacFilter(fine, ethernetMatch.getEthernetDestination());
+        }
+        if (match.getIpMatch() != null) {
+            coarse = mix(coarse, match.getIpMatch().getIpProtocol());
+        }
+
+        final Layer3Match layer3Match = match.getLayer3Match();
+        if (layer3Match != null) {
+            coarse = mix(coarse, layer3Family(layer3Match));
+            fine = mixLayer3(fine, layer3Match);
+        }
+
+        final Layer4Match layer4Match = match.getLayer4Match();
+        if (layer4Match != null) {
+            coarse = mix(coarse, layer4Match.getImplementedInterface().getName());
+            fine = mixLayer4(fine, layer4Match);
+        }
+
+        if (match.getInPort() != null) {
+            fine = mix(fine, match.getInPort().getValue());
+        }
+        if (match.getVlanMatch() != null && match.getVlanMatch().getVlanId() != null
+                && match.getVlanMatch().getVlanId().getVlanId() != null) {
+            fine = mix(fine, match.getVlanMatch().getVlanId().getVlanId().getValue());
+        }
+        if (match.getMetadata() != null) {
+            fine = mix(fine, match.getMetadata().getMetadata());
+        }
+
+        return new FlowFingerprint(coarse, mix(coarse, fine), layer3Match != null);
+    }
+
+    /**
+     * @return key shared by all flows equal according to {@link FlowComparator}
+     */
+    public int getCoarse() {
+        return coarse;
+    }
+
+    /**
+     * @return key shared by flows equal according to {@link FlowComparator} with normalized match
+     */
+    public int getFine() {
+        return fine;
+    }
+
+    /**
+     * @return true if flow can equal to flows with different fine key because of loose address comparison
+     */
+    public boolean isMaskSensitive() {
+        return maskSensitive;
+    }
+
+    private static int presenceBits(final Match match) {
+        final Object[] fields = {match.getEthernetMatch(), match.getIcmpv4Match(), match.getInPhyPort(),
+                match.getInPort(), match.getIpMatch(), match.getLayer3Match(), match.getLayer4Match(),
+                match.getProtocolMatchFields(), match.getMetadata(), match.getTunnel(), match.getVlanMatch()};
+        int bits = 0;
+        for (int i = 0; i < fields.length; i++) {
+            if (fields[i] != null) {
+                bits |= 1 << i;
+            }
+        }
+        return bits;
+    }
+
+    private static int layer3Family(final Layer3Match layer3Match) {
+        if (layer3Match instanceof Ipv4Match || layer3Match instanceof Ipv4MatchArbitraryBitMask) {
+            return IPV4_FAMILY;
+        } else if (layer3Match instanceof Ipv6Match || layer3Match instanceof Ipv6MatchArbitraryBitMask) {
+            return IPV6_FAMILY;
+        } else if (layer3Match instanceof ArpMatch) {
+            return ARP_FAMILY;
+        }
+        return OTHER_FAMILY;
+    }
+
+    private static int mixLayer3(final int hash, final Layer3Match layer3Match) {
+        int result = hash;
+        try {
+            if (layer3Match instanceof Ipv4Match) {
+                final Ipv4Match ipv4Match = (Ipv4Match) layer3Match;
+                result = mixIpv4Prefix(result, ipv4Match.getIpv4Source());
+                result = mixIpv4Prefix(result, ipv4Match.getIpv4Destination());
+            } else if (layer3Match instanceof Ipv4MatchArbitraryBitMask) {
+                final Ipv4MatchArbitraryBitMask ipv4Match = (Ipv4MatchArbitraryBitMask) layer3Match;
+                result = mixIpv4Masked(result, ipv4Match.getIpv4SourceAddressNoMask(),
+                        ipv4Match.getIpv4SourceArbitraryBitmask());
+                result = mixIpv4Masked(result, ipv4Match.getIpv4DestinationAddressNoMask(),
+                        ipv4Match.getIpv4DestinationArbitraryBitmask());
+            } else if (layer3Match instanceof Ipv6Match) {
+                final Ipv6Match ipv6Match = (Ipv6Match) layer3Match;
+                result = mixIpv6Prefix(result, ipv6Match.getIpv6Source());
+                result = mixIpv6Prefix(result, ipv6Match.getIpv6Destination());
+            }
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            // unparsable address - left to coarse key
+            return hash;
+        }
+        return result;
+    }
+
+    private static int mixIpv4Prefix(final int hash, final Ipv4Prefix prefix) {
+        if (prefix == null) {
+            return mix(hash, null);
+        }
+        final IntegerIpAddress address = MatchComparatorHelper.strIpToIntIp(prefix.getValue());
+        return mix(mix(hash, address.getIp() & address.getMask()), address.getMask());
+    }
+
+    private static int mixIpv4Masked(final int hash, final Ipv4Address address, final DottedQuad mask) {
+        if (address == null) {
+            return mix(hash, null);
+        }
+        final int ip = MatchComparatorHelper.strIpToIntIp(address.getValue()).getIp();
+        int maskInt = IPV4_FULL_MASK;
+        if (mask != null) {
+            final byte[] maskBytes = MatchComparatorHelper.convertArbitraryMaskToByteArray(mask);
+            maskInt = ((maskBytes[0] & 0xff) << 24) | ((maskBytes[1] & 0xff) << 16)
+                    | ((maskBytes[2] & 0xff) << 8) | (maskBytes[3] & 0xff);
+        }
+        return mix(mix(hash, ip & maskInt), maskInt);
+    }
+
+    private static int mixIpv6Prefix(final int hash, final Ipv6Prefix prefix) {
+        if (prefix == null) {
+            return mix(hash, null);
+        }
+        final String[] parts = prefix.getValue().split("/");
+        if (parts.length < 2) {
+            return mix(hash, parts[0]);
+        }
+        final int prefixLength = Integer.parseInt(parts[1]);
+        final byte[] address = InetAddresses.forString(parts[0]).getAddress();
+        for (int i = 0; i < address.length; i++) {
+            final int bits = Math.min(Math.max(prefixLength - i * Byte.SIZE, 0), Byte.SIZE);
+            address[i] &= (byte) (0xff00 >>> bits);
+        }
+        return mix(mix(hash, Arrays.hashCode(address)), prefixLength);
+    }
+
+    private static int mixMacFilter(final int hash, final MacAddressFilter macAddressFilter) {
+        if (macAddressFilter == null) {
+            return mix(hash, null);
+        }
+        return mix(mix(hash, lowerCase(macAddressFilter.getAddress())), lowerCase(macAddressFilter.getMask()));
+    }
+
+    private static String lowerCase(final MacAddress macAddress) {
+        return macAddress == null ? null : macAddress.getValue().toLowerCase(Locale.ENGLISH);
+    }
+
+    private static int mixLayer4(final int hash, final Layer4Match layer4Match) {
+        int result = hash;
+        if (layer4Match instanceof TcpMatch) {
+            final TcpMatch tcpMatch = (TcpMatch) layer4Match;
+            result = mix(result, tcpMatch.getTcpSourcePort() == null ? null : tcpMatch.getTcpSourcePort().getValue());
+            result = mix(result, tcpMatch.getTcpDestinationPort() == null
+                    ? null : tcpMatch.getTcpDestinationPort().getValue());
+        } else if (layer4Match instanceof UdpMatch) {
+            final UdpMatch udpMatch = (UdpMatch) layer4Match;
+            result = mix(result, udpMatch.getUdpSourcePort() == null ? null : udpMatch.getUdpSourcePort().getValue());
+            result = mix(result, udpMatch.getUdpDestinationPort() == null
+                    ? null : udpMatch.getUdpDestinationPort().getValue());
+        } else if (layer4Match instanceof SctpMatch) {
+            final SctpMatch sctpMatch = (SctpMatch) layer4Match;
+            result = mix(result, sctpMatch.getSctpSourcePort() == null
+                    ? null : sctpMatch.getSctpSourcePort().getValue());
+            result = mix(result, sctpMatch.getSctpDestinationPort() == null
+                    ? null : sctpMatch.getSctpDestinationPort().getValue());
+        }
+        return result;
+    }
+
+    private static int mix(final int hash, final Object value) {
+        return 31 * hash + (value == null ? 0 : value.hashCode());
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.openflowplugin.applications.statistics.manager.impl.helper;
+
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev100924.Ipv4Prefix;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.yang.types.rev100924.MacAddress;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.FlowId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.table.Flow;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.table.FlowBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.table.FlowKey;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.statistics.rev130819.flow.and.statistics.map.list.FlowAndStatisticsMapList;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.statistics.rev130819.flow.and.statistics.map.list.FlowAndStatisticsMapListBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.types.rev131026.flow.Match;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.types.rev131026.flow.MatchBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.ethernet.match.fields.EthernetSourceBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.match.EthernetMatchBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.match.layer._3.match.Ipv4MatchBuilder;
+
+/**
+ * Test for {@link ConfigFlowIndex} and {@link FlowFingerprint}.
+ */
+public class ConfigFlowIndexTest {
+
+    private static final short TABLE_ID = 0;
+
+    private ConfigFlowIndex configFlowIndex;
+
+    @Before
+    public void setUp() throws Exception {
+        configFlowIndex = new ConfigFlowIndex();
+        configFlowIndex.load(Arrays.asList(
+                createConfigFlow("ipv4-1", 10, createIpv4Match("10.0.0.1/24")),
+                createConfigFlow("ipv4-2", 10, createIpv4Match("10.0.1.1/24")),
+                createConfigFlow("mac-1", 20, createMacMatch("aa:bb:cc:dd:ee:ff"))));
+        Assert.assertTrue(configFlowIndex.isLoaded());
+        Assert.assertEquals(3, configFlowIndex.size());
+    }
+
+    @Test
+    public void testFind() throws Exception {
+        Assert.assertEquals(new FlowKey(new FlowId("ipv4-1")), find(createStatsFlow(10, createIpv4Match("10.0.0.0/24"))));
+        Assert.assertEquals(new FlowKey(new FlowId("ipv4-2")), find(createStatsFlow(10, createIpv4Match("10.0.1.0/24"))));
+        Assert.assertEquals(new FlowKey(new FlowId("mac-1")), find(createStatsFlow(20, createMacMatch("AA:BB:CC:DD:EE:FF"))));
+
+        // different priority
+        Assert.assertNull(find(createStatsFlow(11, createIpv4Match("10.0.0.0/24"))));
+        Assert.assertNull(find(createStatsFlow(20, createMacMatch("aa:bb:cc:dd:ee:00"))));
+    }
+
+    @Test
+    public void testFind_looseAddress() throws Exception {
+        // unmasked address of the same host - found by fallback comparison
+        Assert.assertEquals(new FlowKey(new FlowId("ipv4-1")), find(createStatsFlow(10, createIpv4Match("10.0.0.1/32"))));
+    }
+
+    @Test
+    public void testFind_excluded() throws Exception {
+        Assert.assertNull(configFlowIndex.find(createStatsFlow(10, createIpv4Match("10.0.0.0/24")),
+                Collections.singleton(new FlowId("ipv4-1"))));
+    }
+
+    @Test
+    public void testUpdateAndRemove() throws Exception {
+        configFlowIndex.update(createConfigFlow("ipv4-1", 10, createIpv4Match("10.0.2.0/24")));
+        Assert.assertEquals(3, configFlowIndex.size());
+        Assert.assertNull(find(createStatsFlow(10, createIpv4Match("10.0.0.0/24"))));
+        Assert.assertEquals(new FlowKey(new FlowId("ipv4-1")), find(createStatsFlow(10, createIpv4Match("10.0.2.0/24"))));
+
+        configFlowIndex.remove(new FlowKey(new FlowId("ipv4-1")));
+        Assert.assertEquals(2, configFlowIndex.size());
+        Assert.assertNull(find(createStatsFlow(10, createIpv4Match("10.0.2.0/24"))));
+        Assert.assertFalse(configFlowIndex.getFlowKeys().contains(new FlowKey(new FlowId("ipv4-1"))));
+    }
+
+    @Test
+    public void testLoad_changedBeforeLoad() throws Exception {
+        final ConfigFlowIndex index = new ConfigFlowIndex();
+        index.remove(new FlowKey(new FlowId("removed")));
+        index.update(createConfigFlow("updated", 10, createIpv4Match("10.0.3.0/24")));
+        Assert.assertFalse(index.isLoaded());
+
+        index.load(Arrays.asList(
+                createConfigFlow("removed", 10, createIpv4Match("10.0.0.0/24")),
+                createConfigFlow("updated", 10, createIpv4Match("10.0.1.0/24"))));
+
+        Assert.assertEquals(1, index.size());
+        Assert.assertEquals(new FlowKey(new FlowId("updated")),
+                index.find(createStatsFlow(10, createIpv4Match("10.0.3.0/24")), Collections.<FlowId>emptySet()));
+    }
+
+    @Test
+    public void testFingerprint() throws Exception {
+        final FlowFingerprint configFingerprint = FlowFingerprint.of(createConfigFlow("f", 10,
+                createIpv4Match("10.0.0.1/24")));
+        final FlowFingerprint statsFingerprint = FlowFingerprint.of(createStatsFlow(10,
+                createIpv4Match("10.0.0.0/24")));
+
+        Assert.assertEquals(configFingerprint.getFine(), statsFingerprint.getFine());
+        Assert.assertEquals(configFingerprint.getCoarse(), statsFingerprint.getCoarse());
+        Assert.assertTrue(statsFingerprint.isMaskSensitive());
+
+        // default priority
+        Assert.assertEquals(FlowFingerprint.of(new FlowBuilder().setMatch(new MatchBuilder().build()).build()).getFine(),
+                FlowFingerprint.of(createStatsFlow(0x8000, new MatchBuilder().build())).getFine());
+        Assert.assertFalse(FlowFingerprint.of(createStatsFlow(20, createMacMatch("aa:bb:cc:dd:ee:ff"))).isMaskSensitive());
+    }
+
+    private FlowKey find(final FlowAndStatisticsMapList statsFlow) {
+        return configFlowIndex.find(statsFlow, Collections.<FlowId>emptySet());
+    }
+
+    private static Flow createConfigFlow(final String flowId, final int priority, final Match match) {
+        return new FlowBuilder()
+                .setId(new FlowId(flowId))
+                .setKey(new FlowKey(new FlowId(flowId)))
+                .setTableId(TABLE_ID)
+                .setPriority(priority)
+                .setMatch(match)
+                .build();
+    }
+
+    private static FlowAndStatisticsMapList createStatsFlow(final int priority, final Match match) {
+        return new FlowAndStatisticsMapListBuilder()
+                .setTableId(TABLE_ID)
+                .setPriority(priority)
+                .setMatch(match)
+                .build();
+    }
+
+    private static Match createIpv4Match(final String destination) {
+        return new MatchBuilder()
+                .setLayer3Match(new Ipv4MatchBuilder().setIpv4Destination(new Ipv4Prefix(destination)).build())
+                .build();
+    }
+
+    private static Match createMacMatch(final String source) {
+        return new MatchBuilder()
+                .setEthernetMatch(new EthernetMatchBuilder()
+                        .setEthernetSource(new EthernetSourceBuilder().setAddress(new MacAddress(source)).build())
+                        .build())
+                .build();
+    }
+}
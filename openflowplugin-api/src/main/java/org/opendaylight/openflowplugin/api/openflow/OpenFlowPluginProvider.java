@@ -60,6 +60,59 @@ public interface OpenFlowPluginProvider extends AutoCloseable, BindingService {
 
     void setIsStatisticsPollingOff(final boolean isStatisticsPollingOff);
 
+    /**
+     * If set to true then flow statistics are written to operational DS incrementally (only changes against last poll),
+     * otherwise all known flows are deleted and rewritten on every poll.
+     * @param isStatisticsWriteIncremental
+     */
+    void setIsStatisticsWriteIncremental(final boolean isStatisticsWriteIncremental);
+
+    /**
+     * Maximal number of statistics multipart requests in flight per device during one polling cycle,
+     * 1 means that statistics types are collected strictly one after another.
+     * @param statisticsGatheringWindow
+     */
+    void setStatisticsGatheringWindow(final int statisticsGatheringWindow);
+
+    /**
+     * If set to true then device flow registries keep matches in compact canonical binary form
+     * instead of binding objects.
+     * @param isFlowRegistryCompact
+     */
+    void setIsFlowRegistryCompact(final boolean isFlowRegistryCompact);
+
+    /**
+     * If set to true then flows are identified by normalized match (e.g. masked addresses, full masks dropped),
+     * otherwise by match binding object equality.
+     * @param isFlowRegistryKeyNormalized
+     */
+    void setIsFlowRegistryKeyNormalized(final boolean isFlowRegistryKeyNormalized);
+
+    /**
+     * Maximal rate [packetIn/s] of one ingress port and reason of device, 0 means no limit.
+     * @param packetInPortRate
+     */
+    void setPacketInPortRate(final long packetInPortRate);
+
+    /**
+     * Maximal rate [packetIn/s] of one device, 0 means no limit.
+     * @param packetInDeviceRate
+     */
+    void setPacketInDeviceRate(final long packetInDeviceRate);
+
+    /**
+     * Amount of pending datastore operations of device merged into one transaction, 0 means that every
+     * submit request is committed immediately.
+     * @param transactionCoalescingSize
+     */
+    void setTransactionCoalescingSize(final int transactionCoalescingSize);
+
+    /**
+     * Maximal delay [ms] of requested datastore submit when coalescing is on.
+     * @param transactionCoalescingDelay
+     */
+    void setTransactionCoalescingDelay(final long transactionCoalescingDelay);
+
     void setEntityOwnershipService(EntityOwnershipService entityOwnershipService);
 
 
@@ -75,4 +128,57 @@ public interface OpenFlowPluginProvider extends AutoCloseable, BindingService {
     void setBarrierInterval(long barrierTimeoutLimit);
 
     void setEchoReplyTimeout(long echoReplyTimeout);
+
+    /**
+     * Maximal number of OF handshakes running at once, 0 means no limit.
+     * @param handshakeConcurrencyLimit
+     */
+    void setHandshakeConcurrencyLimit(int handshakeConcurrencyLimit);
+
+    /**
+     * Maximal number of OF handshakes waiting for free slot when handshake concurrency is limited.
+     * @param handshakeQueueSize
+     */
+    void setHandshakeQueueSize(int handshakeQueueSize);
+
+    /**
+     * Maximal wait [ms] of OF handshake for free slot.
+     * @param handshakeQueueTimeout
+     */
+    void setHandshakeQueueTimeout(long handshakeQueueTimeout);
+
+    /**
+     * If set to true then auxiliary connections carry flow programming and statistics requests of their device.
+     * Flows pointing to a group, group and meter modifications, flow deletes over all tables and barriers stay
+     * on the primary connection - barrier or delete of all flows is not ordered against flows sent over auxiliary
+     * connections.
+     * @param useAuxiliaryConnections
+     */
+    void setUseAuxiliaryConnections(boolean useAuxiliaryConnections);
+
+    /**
+     * If set to true then flow steps of flat batch are sent as bulk of FLOW_MODs instead of one flow rpc per flow.
+     * Such flows are not reported to item lifecycle listeners and do not count against rpc requests quota.
+     * @param useBulkFlowMods
+     */
+    void setUseBulkFlowMods(boolean useBulkFlowMods);
+
+    /**
+     * Maximal number of cached flow match and instructions conversions, 0 means no caching.
+     * @param flowConversionCacheSize
+     */
+    void setFlowConversionCacheSize(int flowConversionCacheSize);
+
+    /**
+     * If set to true then table features of reconnecting devices are taken from cache when their description
+     * did not change.
+     * @param cacheTableFeatures
+     */
+    void setCacheTableFeatures(boolean cacheTableFeatures);
+
+    /**
+     * Directory where cached table features survive restart, empty keeps them in memory only.
+     * @param tableFeaturesCacheDirectory
+     */
+    void setTableFeaturesCacheDirectory(String tableFeaturesCacheDirectory);
 }
@@ -18,6 +18,7 @@ import org.opendaylight.controller.md.sal.binding.api.NotificationPublishService
 import org.opendaylight.openflowplugin.api.openflow.connection.ConnectionContext;
 import org.opendaylight.openflowplugin.api.openflow.device.handlers.DeviceReplyProcessor;
 import org.opendaylight.openflowplugin.api.openflow.device.handlers.MultiMsgCollector;
+import org.opendaylight.openflowplugin.api.openflow.device.handlers.MultipartReplySink;
 import org.opendaylight.openflowplugin.api.openflow.registry.ItemLifeCycleRegistry;
 import org.opendaylight.openflowplugin.api.openflow.registry.flow.DeviceFlowRegistry;
 import org.opendaylight.openflowplugin.api.openflow.registry.group.DeviceGroupRegistry;
@@ -152,6 +153,14 @@ public interface DeviceContext extends AutoCloseable,
      */
     ConnectionContext getAuxiliaryConnectiobContexts(BigInteger cookie);
 
+    /**
+     * Method picks connection carrying requests of given ordering key, requests sharing the key keep their order.
+     *
+     * @param orderingKey e.g. flow table id
+     * @return auxiliary connection context or primary connection context if there is no auxiliary connection
+     */
+    ConnectionContext selectConnectionContext(long orderingKey);
+
     /**
      * Method exposes flow registry used for storing flow ids identified by calculated flow hash.
      *
@@ -195,6 +204,14 @@ public interface DeviceContext extends AutoCloseable,
 
     MultiMsgCollector getMultiMsgCollector(final RequestContext<List<MultipartReply>> requestContext);
 
+    /**
+     * @param requestContext request context of multipart request, it is finished with empty result
+     * @param sink           consumer of translated multipart replies
+     * @return collector feeding replies to given sink one by one instead of collecting them
+     */
+    MultiMsgCollector getMultiMsgCollector(final RequestContext<List<MultipartReply>> requestContext,
+                                           final MultipartReplySink sink);
+
     /**
      * indicates that device context is fully published (e.g.: packetIn messages should be passed)
      */
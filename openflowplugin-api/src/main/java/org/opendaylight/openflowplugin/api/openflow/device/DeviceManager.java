@@ -49,5 +49,44 @@ public interface DeviceManager extends DeviceConnectedHandler, DeviceDisconnecte
     DeviceContext getDeviceContextFromNodeId(NodeId nodeId);
 
     void setStatisticsRpcEnabled(boolean isStatisticsRpcEnabled);
+
+    void setFlowRegistryCompact(boolean isFlowRegistryCompact);
+
+    /**
+     * @param isFlowRegistryKeyNormalized if true then device flow registries identify flows by normalized match,
+     *                                    otherwise by match binding object equality
+     */
+    void setFlowRegistryKeyNormalized(boolean isFlowRegistryKeyNormalized);
+
+    /**
+     * @param packetInPortRate   packetIns per second of one ingress port and reason, 0 means no limit
+     * @param packetInDeviceRate packetIns per second of one device, 0 means no limit
+     */
+    void setPacketInRateLimits(long packetInPortRate, long packetInDeviceRate);
+
+    /**
+     * @param transactionCoalescingSize  pending datastore operations of device forcing submit, 0 disables coalescing
+     * @param transactionCoalescingDelay maximal delay of requested datastore submit [ms]
+     */
+    void setTransactionCoalescing(int transactionCoalescingSize, long transactionCoalescingDelay);
+
+    /**
+     * @param useAuxiliaryConnections if true then auxiliary connections get attached to device and carry its traffic,
+     *                                otherwise they are refused
+     */
+    void setUseAuxiliaryConnections(boolean useAuxiliaryConnections);
+
+    /**
+     * @param useBulkFlowMods if true then flow steps of flat batch are sent as bulk of FLOW_MODs,
+     *                        otherwise through flow service one rpc per flow
+     */
+    void setUseBulkFlowMods(boolean useBulkFlowMods);
+
+    /**
+     * @param cacheTableFeatures          if true then table features are kept per datapath id and device description
+     *                                    and reconnecting devices do not send them again
+     * @param tableFeaturesCacheDirectory where cached table features are persisted, empty keeps them in memory only
+     */
+    void setTableFeaturesCache(boolean cacheTableFeatures, String tableFeaturesCacheDirectory);
 }
 
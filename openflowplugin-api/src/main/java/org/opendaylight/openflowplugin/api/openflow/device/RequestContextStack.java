@@ -7,7 +7,9 @@
  */
 package org.opendaylight.openflowplugin.api.openflow.device;
 
+import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import org.opendaylight.openflowplugin.api.openflow.connection.ConnectionContext;
 
 /**
  * Created by Martin Bobak &lt;mbobak@cisco.com&gt; on 1.4.2015.
@@ -19,4 +21,12 @@ public interface RequestContextStack {
      * @return A request context, or null if one cannot be created.
      */
     @Nullable <T> RequestContext<T> createRequestContext();
+
+    /**
+     * Method returns new request context for request sent over given (auxiliary) connection of device.
+     *
+     * @param connectionContext connection whose outbound queue reserves XID of the request
+     * @return A request context, or null if one cannot be created.
+     */
+    @Nullable <T> RequestContext<T> createRequestContext(@Nonnull ConnectionContext connectionContext);
 }
@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.openflowplugin.api.openflow.device.handlers;
+
+import java.util.List;
+import javax.annotation.Nonnull;
+import org.opendaylight.yangtools.yang.binding.DataObject;
+
+/**
+ * Consumer of one multipart reply stream. Each multipart reply is translated and passed as a chunk
+ * as soon as it arrives, so replies are never collected into one list (peak memory does not depend
+ * on number of replies). All methods of one stream are called sequentially, exactly one of
+ * {@link #onCompleted()} and {@link #onFailure(Throwable)} ends the stream.
+ */
+public interface MultipartReplySink {
+
+    /**
+     * @param chunk translated content of one multipart reply
+     */
+    void onChunk(@Nonnull List<? extends DataObject> chunk);
+
+    /**
+     * Last multipart reply was delivered.
+     */
+    void onCompleted();
+
+    /**
+     * Stream was broken, no more chunks will come.
+     *
+     * @param cause failure reason
+     */
+    void onFailure(@Nonnull Throwable cause);
+}
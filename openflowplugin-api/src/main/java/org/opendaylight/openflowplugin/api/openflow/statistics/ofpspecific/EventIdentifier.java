@@ -8,13 +8,27 @@
 
 package org.opendaylight.openflowplugin.api.openflow.statistics.ofpspecific;
 
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
 /**
  * Created by Martin Bobak &lt;mbobak@cisco.com&gt; on 29.5.2015.
+ * <p>
+ * Identifies one occurrence of an event - besides event type and device it carries start time of the occurrence,
+ * so concurrent occurrences of the same event type are measured independently.
  */
 public final class EventIdentifier {
 
+    /**
+     * Start time of an occurrence which was not started (or was already finished).
+     */
+    public static final long NOT_STARTED = Long.MIN_VALUE;
+
+    private static final AtomicLongFieldUpdater<EventIdentifier> START_NANOS_UPDATER =
+            AtomicLongFieldUpdater.newUpdater(EventIdentifier.class, "startNanos");
+
     private final String eventName;
     private final String deviceId;
+    private volatile long startNanos = NOT_STARTED;
 
     public EventIdentifier(final String eventName, final String deviceId) {
         this.eventName = eventName;
@@ -28,4 +42,18 @@ public final class EventIdentifier {
     public String getDeviceId() {
         return deviceId;
     }
+
+    /**
+     * @param nanoTime start time of this occurrence ({@link System#nanoTime()})
+     */
+    public void markStart(final long nanoTime) {
+        startNanos = nanoTime;
+    }
+
+    /**
+     * @return start time of this occurrence or {@link #NOT_STARTED}, the start time is handed out only once
+     */
+    public long takeStart() {
+        return START_NANOS_UPDATER.getAndSet(this, NOT_STARTED);
+    }
 }
@@ -8,6 +8,10 @@
 
 package org.opendaylight.openflowplugin.api.openflow.statistics.ofpspecific;
 
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.NodeConnectorId;
+
 /**
  * Created by Martin Bobak &lt;mbobak@cisco.com&gt; on 20.4.2015.
  */
@@ -37,6 +41,10 @@ public interface MessageSpy extends Runnable {
          * packetIn from switch reached processing limit and got dropped
          */
         FROM_SWITCH_PACKET_IN_LIMIT_REACHED_AND_DROPPED,
+        /**
+         * packetIn from switch exceeded rate of its ingress port and reason or rate of device and got dropped
+         */
+        FROM_SWITCH_PACKET_IN_RATE_EXCEEDED,
         /**
          * message from switch to MD-SAL  - notification service rejected notfication
          */
@@ -49,6 +57,14 @@ public interface MessageSpy extends Runnable {
          * message from switch - publishing into MD-SAL failed
          */
         FROM_SWITCH_PUBLISHED_FAILURE,
+        /**
+         * flow reported by switch resolved to flow id already known to flow registry
+         */
+        FROM_SWITCH_FLOW_ID_RESOLVED,
+        /**
+         * flow reported by switch not found in flow registry - alien flow id created
+         */
+        FROM_SWITCH_FLOW_ID_ALIEN,
 
         /**
          * message from MD-SAL entered service - first point of encounter
@@ -104,4 +120,13 @@ public interface MessageSpy extends Runnable {
      */
     void spyMessage(Class<?> message, STATISTIC_GROUP statGroup);
 
+    /**
+     * Count packetIn dropped by packetIn rate limiter - both per ingress port and per reason
+     * (in {@link STATISTIC_GROUP#FROM_SWITCH_PACKET_IN_RATE_EXCEEDED} group).
+     *
+     * @param ingress ingress port of dropped packetIn, null if not known
+     * @param reason  reason of dropped packetIn
+     */
+    void spyPacketInDropped(@Nullable NodeConnectorId ingress, @Nonnull Class<?> reason);
+
 }
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.openflowplugin.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.opendaylight.openflowjava.protocol.api.util.EncodeConstants;
+import org.opendaylight.openflowplugin.api.openflow.md.util.OpenflowVersion;
+import org.opendaylight.openflowplugin.extension.api.path.ActionPath;
+import org.opendaylight.openflowplugin.openflow.md.core.sal.convertor.ActionConvertor;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.table.Flow;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.action.rev150203.actions.grouping.Action;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link ActionConvertor} in both directions, one action list (apply actions of one flow) per operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ActionConvertorBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int flowCount;
+
+    private List<Flow> flows;
+    private List<List<org.opendaylight.yang.gen.v1.urn.opendaylight.action.types.rev131112.action.list.Action>> salActions;
+    private List<List<Action>> ofActions;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        flows = FlowFixtures.createFlows(flowCount);
+        salActions = FlowFixtures.extractActions(flows);
+        ofActions = new ArrayList<>(flowCount);
+        for (int i = 0; i < flowCount; i++) {
+            ofActions.add(ActionConvertor.getActions(salActions.get(i), EncodeConstants.OF13_VERSION_ID,
+                    FlowFixtures.DATAPATH_ID, flows.get(i)));
+        }
+    }
+
+    @Benchmark
+    public List<Action> salToOpenflow() {
+        final int index = next();
+        return ActionConvertor.getActions(salActions.get(index), EncodeConstants.OF13_VERSION_ID,
+                FlowFixtures.DATAPATH_ID, flows.get(index));
+    }
+
+    @Benchmark
+    public List<org.opendaylight.yang.gen.v1.urn.opendaylight.action.types.rev131112.action.Action> openflowToSal() {
+        return ActionConvertor.toMDSalActions(ofActions.get(next()), OpenflowVersion.OF13,
+                ActionPath.FLOWSSTATISTICSUPDATE_FLOWANDSTATISTICSMAPLIST_INSTRUCTIONS_INSTRUCTION_INSTRUCTION_APPLYACTIONSCASE_APPLYACTIONS_ACTION_ACTION);
+    }
+
+    private int next() {
+        if (++cursor == flowCount) {
+            cursor = 0;
+        }
+        return cursor;
+    }
+}
@@ -0,0 +1,306 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.openflowplugin.benchmarks;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.math.BigInteger;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.opendaylight.openflowjava.protocol.api.connection.ConnectionAdapter;
+import org.opendaylight.openflowjava.protocol.api.connection.OutboundQueue;
+import org.opendaylight.openflowjava.protocol.api.util.EncodeConstants;
+import org.opendaylight.openflowplugin.api.openflow.connection.ConnectionContext;
+import org.opendaylight.openflowplugin.api.openflow.device.DeviceContext;
+import org.opendaylight.openflowplugin.api.openflow.device.DeviceState;
+import org.opendaylight.openflowplugin.api.openflow.device.RequestContext;
+import org.opendaylight.openflowplugin.api.openflow.device.TranslatorLibrary;
+import org.opendaylight.openflowplugin.api.openflow.device.handlers.DeviceReplyProcessor;
+import org.opendaylight.openflowplugin.impl.device.listener.MultiMsgCollectorImpl;
+import org.opendaylight.openflowplugin.impl.translator.PortUpdateTranslator;
+import org.opendaylight.openflowplugin.impl.util.DeviceInitializationUtils;
+import org.opendaylight.openflowplugin.openflow.md.util.OpenflowPortsUtil;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.yang.types.rev100924.MacAddress;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.NodeId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.Nodes;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.Node;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.NodeKey;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.types.rev130731.ActionType;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.types.rev130731.Capabilities;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.types.rev130731.GroupCapabilities;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.types.rev130731.GroupTypes;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.types.rev130731.MeterBandTypeBitmap;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.types.rev130731.MeterFlags;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.types.rev130731.MultipartRequestFlags;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.types.rev130731.MultipartType;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.types.rev130731.PortConfig;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.types.rev130731.PortFeatures;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.types.rev130731.PortState;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.types.rev130731.TableConfig;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.GetFeaturesOutput;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.GetFeaturesOutputBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.MultipartReply;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.MultipartReplyMessage;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.MultipartReplyMessageBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.MultipartRequestInput;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.OfHeader;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.multipart.reply.MultipartReplyBody;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.multipart.reply.multipart.reply.body.MultipartReplyDescCaseBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.multipart.reply.multipart.reply.body.MultipartReplyGroupFeaturesCaseBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.multipart.reply.multipart.reply.body.MultipartReplyMeterFeaturesCaseBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.multipart.reply.multipart.reply.body.MultipartReplyPortDescCaseBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.multipart.reply.multipart.reply.body.MultipartReplyTableFeaturesCaseBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.multipart.reply.multipart.reply.body.multipart.reply.desc._case.MultipartReplyDescBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.multipart.reply.multipart.reply.body.multipart.reply.group.features._case.MultipartReplyGroupFeaturesBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.multipart.reply.multipart.reply.body.multipart.reply.meter.features._case.MultipartReplyMeterFeaturesBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.multipart.reply.multipart.reply.body.multipart.reply.port.desc._case.MultipartReplyPortDescBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.multipart.reply.multipart.reply.body.multipart.reply.port.desc._case.multipart.reply.port.desc.Ports;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.multipart.reply.multipart.reply.body.multipart.reply.port.desc._case.multipart.reply.port.desc.PortsBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.multipart.reply.multipart.reply.body.multipart.reply.table.features._case.MultipartReplyTableFeaturesBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.multipart.reply.multipart.reply.body.multipart.reply.table.features._case.multipart.reply.table.features.TableFeatures;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.multipart.reply.multipart.reply.body.multipart.reply.table.features._case.multipart.reply.table.features.TableFeaturesBuilder;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to ready of OF 1.3 devices connecting at once - {@link DeviceInitializationUtils#initializeNodeInformation}
+ * of all {@code deviceCount} devices until the last of them has its static information written. Devices are
+ * simulated switches answering every multipart request after {@link #ROUND_TRIP_MILLIS}, replies are delivered by
+ * {@link #IO_THREADS} threads as they would be by netty. Datastore writes go nowhere.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeviceInitializationBenchmark {
+
+    private static final long ROUND_TRIP_MILLIS = 2;
+    private static final int IO_THREADS = 4;
+    private static final int PORTS_PER_DEVICE = 48;
+    private static final int TABLES_PER_DEVICE = 16;
+    private static final short OF13 = (short) EncodeConstants.OF13_VERSION_ID;
+
+    @Param({"1", "100", "1000"})
+    private int deviceCount;
+
+    private ScheduledExecutorService ioThreads;
+    private Map<MultipartType, MultipartReplyBody> replyBodies;
+    private DeviceContext[] devices;
+
+    @Setup
+    public void setUp() throws UnknownHostException {
+        OpenflowPortsUtil.init();
+        ioThreads = Executors.newScheduledThreadPool(IO_THREADS);
+        replyBodies = createReplyBodies();
+        final TranslatorLibrary translatorLibrary = Stubs.stub(TranslatorLibrary.class,
+                Collections.<String, Object>singletonMap("lookupTranslator", new PortUpdateTranslator()));
+        devices = new DeviceContext[deviceCount];
+        for (int i = 0; i < deviceCount; i++) {
+            devices[i] = createDevice(i, translatorLibrary);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        ioThreads.shutdownNow();
+    }
+
+    @Benchmark
+    public List<Void> initializeDevices() throws Exception {
+        final List<ListenableFuture<Void>> ready = new ArrayList<>(deviceCount);
+        for (DeviceContext device : devices) {
+            ready.add(DeviceInitializationUtils.initializeNodeInformation(device, true));
+        }
+        return Futures.allAsList(ready).get();
+    }
+
+    private DeviceContext createDevice(final int index, final TranslatorLibrary translatorLibrary)
+            throws UnknownHostException {
+        final BigInteger datapathId = BigInteger.valueOf(index + 1);
+        final NodeId nodeId = new NodeId("openflow:" + datapathId);
+        final InstanceIdentifier<Node> nodeII = InstanceIdentifier.create(Nodes.class)
+                .child(Node.class, new NodeKey(nodeId));
+        final GetFeaturesOutput features = new GetFeaturesOutputBuilder()
+                .setDatapathId(datapathId)
+                .setVersion(OF13)
+                .setTables((short) TABLES_PER_DEVICE)
+                .setCapabilities(new Capabilities(true, true, true, true, true, true, true))
+                .build();
+
+        final Map<String, Object> stateAnswers = new HashMap<>();
+        stateAnswers.put("getVersion", OF13);
+        stateAnswers.put("getNodeId", nodeId);
+        stateAnswers.put("getNodeInstanceIdentifier", nodeII);
+        stateAnswers.put("getFeatures", features);
+        final DeviceState deviceState = Stubs.stub(DeviceState.class, stateAnswers);
+
+        final InetAddress address = InetAddress.getByAddress(new byte[]{10, 0, (byte) (index >> 8), (byte) index});
+        final ConnectionAdapter connectionAdapter = Stubs.stub(ConnectionAdapter.class,
+                Collections.<String, Object>singletonMap("getRemoteAddress", new InetSocketAddress(address, 6653)));
+
+        final Map<String, Object> connectionAnswers = new HashMap<>();
+        connectionAnswers.put("getNodeId", nodeId);
+        connectionAnswers.put("getFeatures", features);
+        connectionAnswers.put("getConnectionAdapter", connectionAdapter);
+        connectionAnswers.put("getOutboundQueueProvider", createSwitch());
+        final ConnectionContext connectionContext = Stubs.stub(ConnectionContext.class, connectionAnswers);
+
+        final AtomicLong xids = new AtomicLong();
+        final Map<String, Object> deviceAnswers = new HashMap<>();
+        deviceAnswers.put("getDeviceState", deviceState);
+        deviceAnswers.put("getPrimaryConnectionContext", connectionContext);
+        deviceAnswers.put("oook", translatorLibrary);
+        deviceAnswers.put("reserveXidForDeviceMessage", new InvocationHandler() {
+            @Override
+            public Object invoke(final Object proxy, final Method method, final Object[] args) {
+                return xids.incrementAndGet();
+            }
+        });
+        deviceAnswers.put("getMultiMsgCollector", new InvocationHandler() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object invoke(final Object proxy, final Method method, final Object[] args) {
+                return new MultiMsgCollectorImpl((DeviceReplyProcessor) proxy,
+                        (RequestContext<List<MultipartReply>>) args[0]);
+            }
+        });
+        return Stubs.stub(DeviceContext.class, deviceAnswers);
+    }
+
+    /**
+     * @return outbound queue of simulated switch - each request is answered by single reply one round trip later
+     */
+    private OutboundQueue createSwitch() {
+        return Stubs.stub(OutboundQueue.class, Collections.<String, Object>singletonMap("commitEntry",
+                new InvocationHandler() {
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    public Object invoke(final Object proxy, final Method method, final Object[] args) {
+                        final MultipartRequestInput request = (MultipartRequestInput) args[1];
+                        final FutureCallback<OfHeader> callback = (FutureCallback<OfHeader>) args[2];
+                        final MultipartReplyMessage reply = new MultipartReplyMessageBuilder()
+                                .setVersion(OF13)
+                                .setXid(request.getXid())
+                                .setType(request.getType())
+                                .setFlags(new MultipartRequestFlags(false))
+                                .setMultipartReplyBody(replyBodies.get(request.getType()))
+                                .build();
+                        ioThreads.schedule(new Runnable() {
+                            @Override
+                            public void run() {
+                                callback.onSuccess(reply);
+                            }
+                        }, ROUND_TRIP_MILLIS, TimeUnit.MILLISECONDS);
+                        return null;
+                    }
+                }));
+    }
+
+    /**
+     * @return replies of all simulated switches - same model, {@link #PORTS_PER_DEVICE} ports,
+     * {@link #TABLES_PER_DEVICE} tables without properties
+     */
+    private static Map<MultipartType, MultipartReplyBody> createReplyBodies() {
+        final Map<MultipartType, MultipartReplyBody> bodies = new EnumMap<>(MultipartType.class);
+        bodies.put(MultipartType.OFPMPDESC, new MultipartReplyDescCaseBuilder()
+                .setMultipartReplyDesc(new MultipartReplyDescBuilder()
+                        .setMfrDesc("Simulated switch")
+                        .setHwDesc("benchmark")
+                        .setSwDesc("1.0")
+                        .setSerialNum("None")
+                        .setDpDesc("None")
+                        .build())
+                .build());
+        bodies.put(MultipartType.OFPMPMETERFEATURES, new MultipartReplyMeterFeaturesCaseBuilder()
+                .setMultipartReplyMeterFeatures(new MultipartReplyMeterFeaturesBuilder()
+                        .setBandTypes(new MeterBandTypeBitmap(true, true))
+                        .setCapabilities(new MeterFlags(true, true, true, true))
+                        .setMaxMeter(1024L)
+                        .setMaxBands((short) 2)
+                        .setMaxColor((short) 0)
+                        .build())
+                .build());
+        final ActionType actionType = new ActionType(true, true, true, true, true, true, true, true, true, true, true,
+                true, true, true, true, true, true);
+        bodies.put(MultipartType.OFPMPGROUPFEATURES, new MultipartReplyGroupFeaturesCaseBuilder()
+                .setMultipartReplyGroupFeatures(new MultipartReplyGroupFeaturesBuilder()
+                        .setTypes(new GroupTypes(true, true, true, true))
+                        .setCapabilities(new GroupCapabilities(true, true, true, true))
+                        .setMaxGroups(Arrays.asList(256L, 256L, 256L, 256L))
+                        .setActionsBitmap(Arrays.asList(actionType, actionType, actionType, actionType))
+                        .build())
+                .build());
+
+        final List<TableFeatures> tables = new ArrayList<>(TABLES_PER_DEVICE);
+        for (short tableId = 0; tableId < TABLES_PER_DEVICE; tableId++) {
+            tables.add(new TableFeaturesBuilder()
+                    .setTableId(tableId)
+                    .setName("table" + tableId)
+                    .setMetadataMatch(new byte[]{-1, -1, -1, -1, -1, -1, -1, -1})
+                    .setMetadataWrite(new byte[]{-1, -1, -1, -1, -1, -1, -1, -1})
+                    .setConfig(new TableConfig(false))
+                    .setMaxEntries(100000L)
+                    .build());
+        }
+        bodies.put(MultipartType.OFPMPTABLEFEATURES, new MultipartReplyTableFeaturesCaseBuilder()
+                .setMultipartReplyTableFeatures(new MultipartReplyTableFeaturesBuilder()
+                        .setTableFeatures(tables)
+                        .build())
+                .build());
+
+        final List<Ports> ports = new ArrayList<>(PORTS_PER_DEVICE);
+        for (long portNo = 1; portNo <= PORTS_PER_DEVICE; portNo++) {
+            ports.add(new PortsBuilder()
+                    .setPortNo(portNo)
+                    .setHwAddr(new MacAddress(String.format("02:00:00:00:00:%02x", portNo)))
+                    .setName("eth" + portNo)
+                    .setConfig(PortConfig.getDefaultInstance("noFwd"))
+                    .setState(PortState.getDefaultInstance("live"))
+                    .setCurrentFeatures(PortFeatures.getDefaultInstance("_10gbFd"))
+                    .setAdvertisedFeatures(PortFeatures.getDefaultInstance("_10gbFd"))
+                    .setSupportedFeatures(PortFeatures.getDefaultInstance("_10gbFd"))
+                    .setPeerFeatures(PortFeatures.getDefaultInstance("_10gbFd"))
+                    .setCurrSpeed(10000000L)
+                    .setMaxSpeed(10000000L)
+                    .build());
+        }
+        bodies.put(MultipartType.OFPMPPORTDESC, new MultipartReplyPortDescCaseBuilder()
+                .setMultipartReplyPortDesc(new MultipartReplyPortDescBuilder().setPorts(ports).build())
+                .build());
+        return bodies;
+    }
+}
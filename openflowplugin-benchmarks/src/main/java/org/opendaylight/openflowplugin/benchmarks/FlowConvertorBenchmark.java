@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.openflowplugin.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.opendaylight.openflowjava.protocol.api.util.EncodeConstants;
+import org.opendaylight.openflowplugin.openflow.md.core.sal.convertor.FlowConvertor;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.table.Flow;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.FlowModInputBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link FlowConvertor#toFlowModInputs(org.opendaylight.yang.gen.v1.urn.opendaylight.flow.types.rev131026.Flow,
+ * short, java.math.BigInteger)} - complete conversion of one flow (match, instructions, actions) per operation.
+ * With conversion cache enabled every pass over the flows after the first one plays the same pipeline being pushed
+ * to another device.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FlowConvertorBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int flowCount;
+
+    @Param({"0", "65535"})
+    private int conversionCacheSize;
+
+    private List<Flow> flows;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        flows = FlowFixtures.createFlows(flowCount);
+        FlowConvertor.setConversionCacheSize(conversionCacheSize);
+    }
+
+    @TearDown
+    public void tearDown() {
+        FlowConvertor.setConversionCacheSize(0);
+    }
+
+    @Benchmark
+    public List<FlowModInputBuilder> toFlowModInputs() {
+        return FlowConvertor.toFlowModInputs(flows.get(next()), EncodeConstants.OF13_VERSION_ID,
+                FlowFixtures.DATAPATH_ID);
+    }
+
+    private int next() {
+        if (++cursor == flowCount) {
+            cursor = 0;
+        }
+        return cursor;
+    }
+}
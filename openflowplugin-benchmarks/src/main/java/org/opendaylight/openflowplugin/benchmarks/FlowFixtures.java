@@ -0,0 +1,270 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.openflowplugin.benchmarks;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.opendaylight.openflowplugin.api.openflow.md.util.OpenflowVersion;
+import org.opendaylight.openflowplugin.openflow.md.util.InventoryDataServiceUtil;
+import org.opendaylight.openflowplugin.openflow.md.util.OpenflowPortsUtil;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev100924.Ipv4Prefix;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev100924.Ipv6Prefix;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev100924.PortNumber;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.yang.types.rev100924.MacAddress;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.action.types.rev131112.action.action.DecNwTtlCaseBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.action.types.rev131112.action.action.GroupActionCaseBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.action.types.rev131112.action.action.OutputActionCaseBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.action.types.rev131112.action.action.PushVlanActionCaseBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.action.types.rev131112.action.action.dec.nw.ttl._case.DecNwTtlBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.action.types.rev131112.action.action.group.action._case.GroupActionBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.action.types.rev131112.action.action.output.action._case.OutputActionBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.action.types.rev131112.action.action.push.vlan.action._case.PushVlanActionBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.action.types.rev131112.action.list.Action;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.action.types.rev131112.action.list.ActionBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.FlowId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.table.Flow;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.table.FlowBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.types.rev131026.FlowCookie;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.types.rev131026.flow.InstructionsBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.types.rev131026.flow.Match;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.types.rev131026.flow.MatchBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.types.rev131026.instruction.instruction.ApplyActionsCaseBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.types.rev131026.instruction.instruction.GoToTableCaseBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.types.rev131026.instruction.instruction.apply.actions._case.ApplyActionsBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.types.rev131026.instruction.instruction.go.to.table._case.GoToTableBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.types.rev131026.instruction.list.Instruction;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.types.rev131026.instruction.list.InstructionBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.l2.types.rev130827.EtherType;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.l2.types.rev130827.VlanId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.ethernet.match.fields.EthernetDestinationBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.ethernet.match.fields.EthernetSourceBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.ethernet.match.fields.EthernetTypeBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.match.EthernetMatchBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.match.IpMatchBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.match.MetadataBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.match.VlanMatchBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.match.layer._3.match.Ipv4MatchBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.match.layer._3.match.Ipv6MatchBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.match.layer._4.match.TcpMatchBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.match.layer._4.match.UdpMatchBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.vlan.match.fields.VlanIdBuilder;
+
+/**
+ * Generator of flows resembling those pushed by applications - mixture of L2, IPv4/IPv6 with TCP/UDP and metadata
+ * (pipeline) matches spread over several tables. Same seed always gives the same flows, so results of different runs
+ * are comparable.
+ */
+public final class FlowFixtures {
+
+    public static final BigInteger DATAPATH_ID = BigInteger.valueOf(42);
+    public static final int PORTS = 48;
+    private static final long SEED = 0x5EED;
+    private static final int TABLES = 8;
+    private static final int ETH_TYPE_IPV4 = 0x0800;
+    private static final int ETH_TYPE_IPV6 = 0x86dd;
+    private static final short IP_PROTO_TCP = 6;
+    private static final short IP_PROTO_UDP = 17;
+
+    static {
+        OpenflowPortsUtil.init();
+    }
+
+    private FlowFixtures() {
+        throw new IllegalStateException("This class should not be instantiated.");
+    }
+
+    /**
+     * @param count number of flows
+     * @return distinct flows, order is shuffled so neighbouring flows do not share match shape
+     */
+    public static List<Flow> createFlows(final int count) {
+        final Random random = new Random(SEED);
+        final List<Flow> flows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            final short tableId = (short) (i % TABLES);
+            final Match match;
+            switch (random.nextInt(10)) {
+                case 0:
+                case 1:
+                    match = createL2Match(i, random);
+                    break;
+                case 2:
+                case 3:
+                case 4:
+                    match = createIpv4Match(i, random, IP_PROTO_TCP);
+                    break;
+                case 5:
+                case 6:
+                    match = createIpv4Match(i, random, IP_PROTO_UDP);
+                    break;
+                case 7:
+                case 8:
+                    match = createIpv6Match(i, random);
+                    break;
+                default:
+                    match = createMetadataMatch(i, random);
+                    break;
+            }
+
+            flows.add(new FlowBuilder()
+                    .setId(new FlowId("bench-flow-" + i))
+                    .setTableId(tableId)
+                    .setPriority(100 + random.nextInt(1000))
+                    .setCookie(new FlowCookie(BigInteger.valueOf(i)))
+                    .setIdleTimeout(0)
+                    .setHardTimeout(0)
+                    .setMatch(match)
+                    .setInstructions(new InstructionsBuilder()
+                            .setInstruction(createInstructions(tableId, random))
+                            .build())
+                    .build());
+        }
+        Collections.shuffle(flows, random);
+        return flows;
+    }
+
+    /**
+     * @param flows flows to take actions from
+     * @return apply actions of all flows
+     */
+    public static List<List<Action>> extractActions(final List<Flow> flows) {
+        final List<List<Action>> actions = new ArrayList<>(flows.size());
+        for (Flow flow : flows) {
+            final Instruction applyActions = flow.getInstructions().getInstruction().get(0);
+            actions.add(((org.opendaylight.yang.gen.v1.urn.opendaylight.flow.types.rev131026.instruction.instruction.ApplyActionsCase)
+                    applyActions.getInstruction()).getApplyActions().getAction());
+        }
+        return actions;
+    }
+
+    private static MatchBuilder createMatchBuilder(final Random random) {
+        return new MatchBuilder().setInPort(InventoryDataServiceUtil.nodeConnectorIdfromDatapathPortNo(
+                DATAPATH_ID, (long) (1 + random.nextInt(PORTS)), OpenflowVersion.OF13));
+    }
+
+    private static Match createL2Match(final int index, final Random random) {
+        return createMatchBuilder(random)
+                .setEthernetMatch(new EthernetMatchBuilder()
+                        .setEthernetSource(new EthernetSourceBuilder().setAddress(macAddress(index)).build())
+                        .setEthernetDestination(new EthernetDestinationBuilder()
+                                .setAddress(macAddress(random.nextInt())).build())
+                        .build())
+                .setVlanMatch(new VlanMatchBuilder()
+                        .setVlanId(new VlanIdBuilder()
+                                .setVlanId(new VlanId(1 + random.nextInt(4094)))
+                                .setVlanIdPresent(true)
+                                .build())
+                        .build())
+                .build();
+    }
+
+    private static Match createIpv4Match(final int index, final Random random, final short ipProtocol) {
+        final MatchBuilder matchBuilder = createMatchBuilder(random)
+                .setEthernetMatch(ethernetTypeMatch(ETH_TYPE_IPV4))
+                .setIpMatch(new IpMatchBuilder().setIpProtocol(ipProtocol).build())
+                .setLayer3Match(new Ipv4MatchBuilder()
+                        .setIpv4Source(new Ipv4Prefix(ipv4Address(index) + "/32"))
+                        .setIpv4Destination(new Ipv4Prefix(ipv4Address(random.nextInt() & 0xffffff00) + "/24"))
+                        .build());
+        final PortNumber destinationPort = new PortNumber(1 + random.nextInt(65535));
+        if (ipProtocol == IP_PROTO_TCP) {
+            matchBuilder.setLayer4Match(new TcpMatchBuilder().setTcpDestinationPort(destinationPort).build());
+        } else {
+            matchBuilder.setLayer4Match(new UdpMatchBuilder().setUdpDestinationPort(destinationPort).build());
+        }
+        return matchBuilder.build();
+    }
+
+    private static Match createIpv6Match(final int index, final Random random) {
+        return createMatchBuilder(random)
+                .setEthernetMatch(ethernetTypeMatch(ETH_TYPE_IPV6))
+                .setIpMatch(new IpMatchBuilder().setIpProtocol(IP_PROTO_TCP).build())
+                .setLayer3Match(new Ipv6MatchBuilder()
+                        .setIpv6Source(new Ipv6Prefix(String.format("2001:db8:%x:%x::%x/128",
+                                index >>> 16, index & 0xffff, 1 + random.nextInt(0xffff))))
+                        .setIpv6Destination(new Ipv6Prefix(String.format("2001:db8:ffff:%x::/64",
+                                random.nextInt(0xffff))))
+                        .build())
+                .setLayer4Match(new TcpMatchBuilder()
+                        .setTcpDestinationPort(new PortNumber(1 + random.nextInt(65535)))
+                        .build())
+                .build();
+    }
+
+    private static Match createMetadataMatch(final int index, final Random random) {
+        return createMatchBuilder(random)
+                .setMetadata(new MetadataBuilder()
+                        .setMetadata(BigInteger.valueOf(index).shiftLeft(8))
+                        .setMetadataMask(new BigInteger("ffffffffffffff00", 16))
+                        .build())
+                .setEthernetMatch(ethernetTypeMatch(ETH_TYPE_IPV4))
+                .setLayer3Match(new Ipv4MatchBuilder()
+                        .setIpv4Destination(new Ipv4Prefix(ipv4Address(random.nextInt()) + "/32"))
+                        .build())
+                .build();
+    }
+
+    private static List<Instruction> createInstructions(final short tableId, final Random random) {
+        final List<Action> actions = new ArrayList<>();
+        int order = 0;
+        if (random.nextInt(4) == 0) {
+            actions.add(new ActionBuilder().setOrder(order++).setAction(new PushVlanActionCaseBuilder()
+                    .setPushVlanAction(new PushVlanActionBuilder().setEthernetType(0x8100).build())
+                    .build()).build());
+        }
+        if (random.nextBoolean()) {
+            actions.add(new ActionBuilder().setOrder(order++).setAction(new DecNwTtlCaseBuilder()
+                    .setDecNwTtl(new DecNwTtlBuilder().build())
+                    .build()).build());
+        }
+        if (random.nextInt(8) == 0) {
+            actions.add(new ActionBuilder().setOrder(order++).setAction(new GroupActionCaseBuilder()
+                    .setGroupAction(new GroupActionBuilder().setGroupId((long) random.nextInt(1024)).build())
+                    .build()).build());
+        } else {
+            actions.add(new ActionBuilder().setOrder(order++).setAction(new OutputActionCaseBuilder()
+                    .setOutputAction(new OutputActionBuilder()
+                            .setOutputNodeConnector(InventoryDataServiceUtil.nodeConnectorIdfromDatapathPortNo(
+                                    DATAPATH_ID, (long) (1 + random.nextInt(PORTS)), OpenflowVersion.OF13))
+                            .setMaxLength(0xffff)
+                            .build())
+                    .build()).build());
+        }
+
+        final List<Instruction> instructions = new ArrayList<>(2);
+        instructions.add(new InstructionBuilder().setOrder(0).setInstruction(new ApplyActionsCaseBuilder()
+                .setApplyActions(new ApplyActionsBuilder().setAction(actions).build())
+                .build()).build());
+        if (tableId < TABLES - 1 && random.nextBoolean()) {
+            instructions.add(new InstructionBuilder().setOrder(1).setInstruction(new GoToTableCaseBuilder()
+                    .setGoToTable(new GoToTableBuilder().setTableId((short) (tableId + 1)).build())
+                    .build()).build());
+        }
+        return instructions;
+    }
+
+    private static org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.match.EthernetMatch
+            ethernetTypeMatch(final int ethernetType) {
+        return new EthernetMatchBuilder()
+                .setEthernetType(new EthernetTypeBuilder().setType(new EtherType((long) ethernetType)).build())
+                .build();
+    }
+
+    private static MacAddress macAddress(final int value) {
+        return new MacAddress(String.format("02:00:%02x:%02x:%02x:%02x",
+                (value >>> 24) & 0xff, (value >>> 16) & 0xff, (value >>> 8) & 0xff, value & 0xff));
+    }
+
+    private static String ipv4Address(final int value) {
+        return ((value >>> 24) & 0xff) + "." + ((value >>> 16) & 0xff) + "." + ((value >>> 8) & 0xff) + "." + (value & 0xff);
+    }
+}
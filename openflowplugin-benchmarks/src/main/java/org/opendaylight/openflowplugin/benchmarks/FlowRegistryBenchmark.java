@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.openflowplugin.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.opendaylight.openflowplugin.api.openflow.registry.flow.DeviceFlowRegistry;
+import org.opendaylight.openflowplugin.api.openflow.registry.flow.FlowRegistryKey;
+import org.opendaylight.openflowplugin.impl.registry.flow.CompactDeviceFlowRegistryImpl;
+import org.opendaylight.openflowplugin.impl.registry.flow.DeviceFlowRegistryImpl;
+import org.opendaylight.openflowplugin.impl.registry.flow.FlowDescriptorFactory;
+import org.opendaylight.openflowplugin.impl.registry.flow.FlowRegistryKeyFactory;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.FlowId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.table.Flow;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link FlowRegistryKeyFactory} and {@link DeviceFlowRegistryImpl} / {@link CompactDeviceFlowRegistryImpl}
+ * ({@code compact} parameter, {@code normalized} match keys) the way statistics processing uses them - key of
+ * reported flow is created and its flow id resolved in the registry holding all flows of the device. Populating the whole registry is measured too, its
+ * normalized allocation rate approximates the heap the registry retains per device.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FlowRegistryBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int flowCount;
+
+    @Param({"false", "true"})
+    private boolean compact;
+
+    @Param({"false", "true"})
+    private boolean normalized;
+
+    private FlowRegistryKeyFactory keyFactory;
+    private List<Flow> flows;
+    private FlowRegistryKey[] keys;
+    private DeviceFlowRegistry deviceFlowRegistry;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        keyFactory = new FlowRegistryKeyFactory(normalized);
+        flows = FlowFixtures.createFlows(flowCount);
+        keys = new FlowRegistryKey[flowCount];
+        for (int i = 0; i < flowCount; i++) {
+            keys[i] = keyFactory.createKey(flows.get(i));
+        }
+        deviceFlowRegistry = populate();
+    }
+
+    /**
+     * All flows of the device are stored into new registry.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public DeviceFlowRegistry populate() {
+        final DeviceFlowRegistry registry = compact
+                ? new CompactDeviceFlowRegistryImpl()
+                : new DeviceFlowRegistryImpl(null, normalized);
+        for (int i = 0; i < flowCount; i++) {
+            final Flow flow = flows.get(i);
+            registry.store(keyFactory.createKey(flow),
+                    FlowDescriptorFactory.create(flow.getTableId(), flow.getId()));
+        }
+        return registry;
+    }
+
+    @Benchmark
+    public FlowRegistryKey createKey() {
+        return keyFactory.createKey(flows.get(next()));
+    }
+
+    /**
+     * Key is created again, as for a flow coming from the device, then resolved.
+     */
+    @Benchmark
+    public FlowId createKeyAndResolve() {
+        final Flow flow = flows.get(next());
+        return deviceFlowRegistry.storeIfNecessary(keyFactory.createKey(flow), flow.getTableId());
+    }
+
+    @Benchmark
+    public FlowId resolve() {
+        final int index = next();
+        return deviceFlowRegistry.storeIfNecessary(keys[index], flows.get(index).getTableId());
+    }
+
+    private int next() {
+        if (++cursor == flowCount) {
+            cursor = 0;
+        }
+        return cursor;
+    }
+}
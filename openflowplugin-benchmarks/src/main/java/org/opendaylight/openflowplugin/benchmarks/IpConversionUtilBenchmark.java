@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.openflowplugin.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.opendaylight.openflowplugin.openflow.md.core.sal.convertor.IpConversionUtil;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev100924.Ipv4Prefix;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev100924.Ipv6Address;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev100924.Ipv6Prefix;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.opendaylight.ipv6.arbitrary.bitmask.fields.rev160224.Ipv6ArbitraryMask;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * {@link IpConversionUtil} work done for one IP match field - prefix split into address and mask on the way to
+ * the switch, mask classification and formatting on the way back (flow statistics). Yang type construction is
+ * included, as the convertors pay for it as well.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IpConversionUtilBenchmark {
+
+    private static final long SEED = 0x5EED;
+
+    @Param({"1000", "10000", "100000"})
+    private int flowCount;
+
+    private Ipv4Prefix[] ipv4Prefixes;
+    private byte[][] ipv4Masks;
+    private Ipv6Prefix[] ipv6Prefixes;
+    private Ipv6Address[] ipv6Addresses;
+    private byte[][] ipv6Masks;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(SEED);
+        ipv4Prefixes = new Ipv4Prefix[flowCount];
+        ipv4Masks = new byte[flowCount][];
+        ipv6Prefixes = new Ipv6Prefix[flowCount];
+        ipv6Addresses = new Ipv6Address[flowCount];
+        ipv6Masks = new byte[flowCount][];
+        for (int i = 0; i < flowCount; i++) {
+            final int ipv4Length = 8 + random.nextInt(25);
+            final int ipv4Address = random.nextInt() & IpConversionUtil.ipv4Netmask(ipv4Length);
+            ipv4Prefixes[i] = new Ipv4Prefix(IpConversionUtil.ipv4AddressToString(ipv4Address) + "/" + ipv4Length);
+            ipv4Masks[i] = IpConversionUtil.ipv4AddressToBytes(IpConversionUtil.ipv4Netmask(ipv4Length));
+
+            final int ipv6Length = 16 + random.nextInt(113);
+            final long high = 0x20010db800000000L | (random.nextLong() & 0xffffffffL);
+            final long low = random.nextInt(0xffff);
+            ipv6Prefixes[i] = new Ipv6Prefix(IpConversionUtil.ipv6AddressToString(
+                    high & IpConversionUtil.ipv6NetmaskHigh(ipv6Length), low & IpConversionUtil.ipv6NetmaskLow(ipv6Length))
+                    + "/" + ipv6Length);
+            // statistics carry addresses in the uncompressed form produced by openflowjava
+            ipv6Addresses[i] = new Ipv6Address(IpConversionUtil.createIpv6ArbitraryBitMask(
+                    IpConversionUtil.ipv6AddressToBytes(high, low)).getValue());
+            ipv6Masks[i] = IpConversionUtil.ipv6AddressToBytes(
+                    IpConversionUtil.ipv6NetmaskHigh(ipv6Length), IpConversionUtil.ipv6NetmaskLow(ipv6Length));
+        }
+    }
+
+    @Benchmark
+    public void ipv4ToOpenflow(final Blackhole blackhole) {
+        final Ipv4Prefix prefix = ipv4Prefixes[next()];
+        blackhole.consume(IpConversionUtil.extractIpv4Address(prefix));
+        blackhole.consume(IpConversionUtil.ipv4AddressToBytes(
+                IpConversionUtil.ipv4Netmask(IpConversionUtil.extractPrefix(prefix))));
+    }
+
+    @Benchmark
+    public void ipv6ToOpenflow(final Blackhole blackhole) {
+        final Ipv6Prefix prefix = ipv6Prefixes[next()];
+        blackhole.consume(IpConversionUtil.extractIpv6Address(prefix));
+        blackhole.consume(IpConversionUtil.convertIpv6PrefixToByteArray(IpConversionUtil.extractIpv6Prefix(prefix)));
+    }
+
+    @Benchmark
+    public void ipv4FromOpenflow(final Blackhole blackhole) {
+        final byte[] mask = ipv4Masks[next()];
+        blackhole.consume(IpConversionUtil.isArbitraryBitMask(mask));
+        blackhole.consume(IpConversionUtil.createArbitraryBitMask(mask));
+    }
+
+    @Benchmark
+    public void ipv6FromOpenflow(final Blackhole blackhole) {
+        final int index = next();
+        final byte[] mask = ipv6Masks[index];
+        blackhole.consume(IpConversionUtil.isIpv6ArbitraryBitMask(mask));
+        blackhole.consume(IpConversionUtil.compressedIpv6AddressFormat(ipv6Addresses[index]));
+    }
+
+    @Benchmark
+    public Ipv6ArbitraryMask ipv6MaskFromOpenflow() {
+        return IpConversionUtil.createCompressedIpv6ArbitraryBitMask(ipv6Masks[next()]);
+    }
+
+    private int next() {
+        if (++cursor == flowCount) {
+            cursor = 0;
+        }
+        return cursor;
+    }
+}
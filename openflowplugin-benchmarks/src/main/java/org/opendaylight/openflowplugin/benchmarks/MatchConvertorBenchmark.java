@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.openflowplugin.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.opendaylight.openflowplugin.api.openflow.md.util.OpenflowVersion;
+import org.opendaylight.openflowplugin.openflow.md.core.sal.convertor.match.MatchConvertorImpl;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.table.Flow;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.types.rev131026.flow.Match;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.oxm.rev150225.OxmMatchType;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.oxm.rev150225.match.entries.grouping.MatchEntry;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.oxm.rev150225.match.grouping.MatchBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link MatchConvertorImpl} in both directions, one match per operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MatchConvertorBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int flowCount;
+
+    private final MatchConvertorImpl matchConvertor = new MatchConvertorImpl();
+    private Match[] salMatches;
+    private org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.oxm.rev150225.match.grouping.Match[] ofMatches;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        final List<Flow> flows = FlowFixtures.createFlows(flowCount);
+        salMatches = new Match[flowCount];
+        ofMatches = new org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.oxm.rev150225.match.grouping.Match[flowCount];
+        for (int i = 0; i < flowCount; i++) {
+            salMatches[i] = flows.get(i).getMatch();
+            ofMatches[i] = new MatchBuilder()
+                    .setType(OxmMatchType.class)
+                    .setMatchEntry(matchConvertor.convert(salMatches[i], FlowFixtures.DATAPATH_ID))
+                    .build();
+        }
+    }
+
+    @Benchmark
+    public List<MatchEntry> salToOpenflow() {
+        return matchConvertor.convert(salMatches[next()], FlowFixtures.DATAPATH_ID);
+    }
+
+    @Benchmark
+    public org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.Match openflowToSal() {
+        return MatchConvertorImpl.fromOFMatchToSALMatch(ofMatches[next()], FlowFixtures.DATAPATH_ID, OpenflowVersion.OF13)
+                .build();
+    }
+
+    private int next() {
+        if (++cursor == flowCount) {
+            cursor = 0;
+        }
+        return cursor;
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.openflowplugin.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.opendaylight.openflowplugin.api.openflow.statistics.ofpspecific.MessageSpy;
+import org.opendaylight.openflowplugin.impl.statistics.ofpspecific.DeviceMessageSpy;
+import org.opendaylight.openflowplugin.impl.statistics.ofpspecific.MessageIntelligenceAgencyImpl;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.NodeId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.PacketInMessage;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.packet.service.rev130709.PacketReceived;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Counting of one successfully published packet-in (three spied events) by the global
+ * {@link MessageIntelligenceAgencyImpl} alone and through per device {@link DeviceMessageSpy}. Every benchmark thread
+ * plays one device, compare with {@link PacketReceivedTranslatorBenchmark#translate()} to get the relative overhead.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class MessageSpyBenchmark {
+
+    private final MessageIntelligenceAgencyImpl messageIntelligenceAgency = new MessageIntelligenceAgencyImpl();
+    private final AtomicInteger deviceIds = new AtomicInteger();
+
+    @State(Scope.Thread)
+    public static class Device {
+        private DeviceMessageSpy deviceMessageSpy;
+
+        @Setup
+        public void setUp(final MessageSpyBenchmark benchmark) {
+            deviceMessageSpy = benchmark.messageIntelligenceAgency.createDeviceMessageSpy(
+                    new NodeId("openflow:" + benchmark.deviceIds.incrementAndGet()));
+        }
+    }
+
+    @Benchmark
+    public void globalSpy() {
+        spyPacketIn(messageIntelligenceAgency);
+    }
+
+    @Benchmark
+    public void deviceSpy(final Device device) {
+        spyPacketIn(device.deviceMessageSpy);
+    }
+
+    private static void spyPacketIn(final MessageSpy messageSpy) {
+        messageSpy.spyMessage(PacketInMessage.class, MessageSpy.STATISTIC_GROUP.FROM_SWITCH);
+        messageSpy.spyMessage(PacketReceived.class, MessageSpy.STATISTIC_GROUP.FROM_SWITCH_TRANSLATE_OUT_SUCCESS);
+        messageSpy.spyMessage(PacketReceived.class, MessageSpy.STATISTIC_GROUP.FROM_SWITCH_PUBLISHED_SUCCESS);
+    }
+}
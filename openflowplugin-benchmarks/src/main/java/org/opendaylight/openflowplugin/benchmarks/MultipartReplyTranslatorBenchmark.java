@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.openflowplugin.benchmarks;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.opendaylight.openflowjava.protocol.api.util.EncodeConstants;
+import org.opendaylight.openflowplugin.api.openflow.md.core.ConnectionConductor;
+import org.opendaylight.openflowplugin.api.openflow.md.core.session.SessionContext;
+import org.opendaylight.openflowplugin.openflow.md.core.sal.convertor.FlowConvertor;
+import org.opendaylight.openflowplugin.openflow.md.core.translator.MultipartReplyTranslator;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.table.Flow;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.types.rev130731.MultipartRequestFlags;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.types.rev130731.MultipartType;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.FlowModInputBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.GetFeaturesOutput;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.GetFeaturesOutputBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.MultipartReplyMessage;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.MultipartReplyMessageBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.multipart.reply.multipart.reply.body.MultipartReplyFlowCaseBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.multipart.reply.multipart.reply.body.multipart.reply.flow._case.MultipartReplyFlowBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.multipart.reply.multipart.reply.body.multipart.reply.flow._case.multipart.reply.flow.FlowStats;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.multipart.reply.multipart.reply.body.multipart.reply.flow._case.multipart.reply.flow.FlowStatsBuilder;
+import org.opendaylight.yangtools.yang.binding.DataObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link MultipartReplyTranslator} on flow statistics replies of the generated flows. Every reply carries
+ * {@link #FLOWS_PER_REPLY} flows, score is reported per flow.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MultipartReplyTranslatorBenchmark {
+
+    /**
+     * Divides all fixture sizes.
+     */
+    private static final int FLOWS_PER_REPLY = 100;
+
+    @Param({"1000", "10000", "100000"})
+    private int flowCount;
+
+    private final MultipartReplyTranslator translator = new MultipartReplyTranslator();
+    private MultipartReplyMessage[] replies;
+    private SessionContext sessionContext;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        final List<Flow> flows = FlowFixtures.createFlows(flowCount);
+        replies = new MultipartReplyMessage[flowCount / FLOWS_PER_REPLY];
+        for (int i = 0; i < replies.length; i++) {
+            final List<FlowStats> flowStats = new ArrayList<>(FLOWS_PER_REPLY);
+            for (Flow flow : flows.subList(i * FLOWS_PER_REPLY, (i + 1) * FLOWS_PER_REPLY)) {
+                flowStats.add(createFlowStats(flow));
+            }
+            replies[i] = new MultipartReplyMessageBuilder()
+                    .setVersion((short) EncodeConstants.OF13_VERSION_ID)
+                    .setXid((long) i)
+                    .setType(MultipartType.OFPMPFLOW)
+                    .setFlags(new MultipartRequestFlags(i < replies.length - 1))
+                    .setMultipartReplyBody(new MultipartReplyFlowCaseBuilder()
+                            .setMultipartReplyFlow(new MultipartReplyFlowBuilder().setFlowStats(flowStats).build())
+                            .build())
+                    .build();
+        }
+
+        final ConnectionConductor conductor = Stubs.stub(ConnectionConductor.class,
+                Collections.<String, Object>singletonMap("getVersion", (short) EncodeConstants.OF13_VERSION_ID));
+        final GetFeaturesOutput features = new GetFeaturesOutputBuilder()
+                .setDatapathId(FlowFixtures.DATAPATH_ID)
+                .setVersion((short) EncodeConstants.OF13_VERSION_ID)
+                .build();
+        final Map<String, Object> answers = new HashMap<>();
+        answers.put("getPrimaryConductor", conductor);
+        answers.put("getFeatures", features);
+        sessionContext = Stubs.stub(SessionContext.class, answers);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FLOWS_PER_REPLY)
+    public List<DataObject> translateFlowStats() {
+        if (++cursor == replies.length) {
+            cursor = 0;
+        }
+        return translator.translate(null, sessionContext, replies[cursor]);
+    }
+
+    /**
+     * @return statistics of flow as reported by device - match and instructions in openflow form
+     */
+    private static FlowStats createFlowStats(final Flow flow) {
+        final FlowModInputBuilder flowMod = FlowConvertor.toFlowModInputs(flow, EncodeConstants.OF13_VERSION_ID,
+                FlowFixtures.DATAPATH_ID).get(0);
+        return new FlowStatsBuilder()
+                .setTableId(flowMod.getTableId().getValue().shortValue())
+                .setDurationSec(3600L)
+                .setDurationNsec(0L)
+                .setPriority(flowMod.getPriority())
+                .setIdleTimeout(flowMod.getIdleTimeout())
+                .setHardTimeout(flowMod.getHardTimeout())
+                .setFlags(flowMod.getFlags())
+                .setCookie(flowMod.getCookie())
+                .setPacketCount(BigInteger.valueOf(flowMod.getCookie().longValue() * 1000))
+                .setByteCount(BigInteger.valueOf(flowMod.getCookie().longValue() * 64000))
+                .setMatch(flowMod.getMatch())
+                .setInstruction(flowMod.getInstruction())
+                .build();
+    }
+}
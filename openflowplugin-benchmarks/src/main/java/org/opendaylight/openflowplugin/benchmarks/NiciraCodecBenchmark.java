@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.openflowplugin.benchmarks;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.opendaylight.openflowjava.nx.NiciraMatchCodecs;
+import org.opendaylight.openflowjava.nx.api.NiciraConstants;
+import org.opendaylight.openflowjava.nx.codec.action.AbstractActionCodec;
+import org.opendaylight.openflowjava.nx.codec.action.NiciraActionCodecs;
+import org.opendaylight.openflowjava.nx.codec.action.OutputRegCodec;
+import org.opendaylight.openflowjava.nx.codec.action.RegLoadCodec;
+import org.opendaylight.openflowjava.nx.codec.action.RegMoveCodec;
+import org.opendaylight.openflowjava.nx.codec.action.ResubmitCodec;
+import org.opendaylight.openflowjava.nx.codec.action.SetNspCodec;
+import org.opendaylight.openflowjava.nx.codec.match.AbstractMatchCodec;
+import org.opendaylight.openflowjava.protocol.api.util.EncodeConstants;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.action.rev150203.actions.grouping.Action;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.oxm.rev150225.match.entries.grouping.MatchEntry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Nicira extension codecs on mixture of match entries and actions used by overlay (tunnel, register pipeline)
+ * and service chaining applications, one match entry or action per operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NiciraCodecBenchmark {
+
+    private static final long SEED = 0x5EED;
+    private static final int NX_ACTION_HEADER_LENGTH = 10;
+    private static final int MAX_MATCH_VALUE_LENGTH = 8;
+
+    private static final AbstractMatchCodec[] MATCH_CODECS = {
+            NiciraMatchCodecs.REG0_CODEC,
+            NiciraMatchCodecs.REG1_CODEC,
+            NiciraMatchCodecs.REG2_CODEC,
+            NiciraMatchCodecs.REG3_CODEC,
+            NiciraMatchCodecs.TUN_ID_CODEC,
+            NiciraMatchCodecs.TUN_IPV4_SRC_CODEC,
+            NiciraMatchCodecs.TUN_IPV4_DST_CODEC,
+            NiciraMatchCodecs.ETH_SRC_CODEC,
+            NiciraMatchCodecs.ARP_SPA_CODEC,
+            NiciraMatchCodecs.NSP_CODEC,
+            NiciraMatchCodecs.NSI_CODEC,
+            NiciraMatchCodecs.NSC1_CODEC,
+            NiciraMatchCodecs.CT_ZONE_CODEC
+    };
+
+    private static final AbstractActionCodec[] ACTION_CODECS = {
+            NiciraActionCodecs.REG_LOAD_CODEC,
+            NiciraActionCodecs.REG_MOVE_CODEC,
+            NiciraActionCodecs.OUTPUT_REG_CODEC,
+            NiciraActionCodecs.RESUBMIT_CODEC,
+            NiciraActionCodecs.SET_NSP_CODEC
+    };
+    private static final int[] ACTION_LENGTHS = {
+            RegLoadCodec.LENGTH,
+            RegMoveCodec.LENGTH,
+            OutputRegCodec.LENGTH,
+            ResubmitCodec.LENGTH,
+            SetNspCodec.LENGTH
+    };
+    private static final int[] ACTION_SUBTYPES = {
+            RegLoadCodec.SUBTYPE,
+            RegMoveCodec.SUBTYPE,
+            OutputRegCodec.SUBTYPE,
+            ResubmitCodec.NXAST_RESUBMIT_TABLE_SUBTYPE,
+            SetNspCodec.NXAST_SET_NSP_SUBTYPE
+    };
+
+    @Param({"1000", "10000", "100000"})
+    private int entryCount;
+
+    private int[] matchCodecIndexes;
+    private MatchEntry[] matchEntries;
+    private int[] matchOffsets;
+    private ByteBuf serializedMatchEntries;
+
+    private int[] actionCodecIndexes;
+    private Action[] actions;
+    private int[] actionOffsets;
+    private ByteBuf serializedActions;
+
+    private ByteBuf outBuffer;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(SEED);
+        outBuffer = Unpooled.buffer();
+
+        matchCodecIndexes = new int[entryCount];
+        matchEntries = new MatchEntry[entryCount];
+        matchOffsets = new int[entryCount];
+        serializedMatchEntries = Unpooled.buffer();
+        final byte[] value = new byte[MAX_MATCH_VALUE_LENGTH];
+        for (int i = 0; i < entryCount; i++) {
+            final int codecIndex = random.nextInt(MATCH_CODECS.length);
+            final AbstractMatchCodec codec = MATCH_CODECS[codecIndex];
+            nextBytes(random, value);
+            // values of all shapes are read back from wire format, so no codec specific builders are needed
+            final ByteBuf wire = Unpooled.buffer();
+            wire.writeInt((int) codec.getHeaderWithoutHasMask().toLong());
+            wire.writeBytes(value, 0, codec.getValueLength());
+
+            matchCodecIndexes[i] = codecIndex;
+            matchEntries[i] = codec.deserialize(wire);
+            matchOffsets[i] = serializedMatchEntries.writerIndex();
+            codec.serialize(matchEntries[i], serializedMatchEntries);
+        }
+
+        actionCodecIndexes = new int[entryCount];
+        actions = new Action[entryCount];
+        actionOffsets = new int[entryCount];
+        serializedActions = Unpooled.buffer();
+        for (int i = 0; i < entryCount; i++) {
+            final int codecIndex = random.nextInt(ACTION_CODECS.length);
+            final AbstractActionCodec codec = ACTION_CODECS[codecIndex];
+            final byte[] body = new byte[ACTION_LENGTHS[codecIndex] - NX_ACTION_HEADER_LENGTH];
+            nextBytes(random, body);
+            final ByteBuf wire = Unpooled.buffer();
+            wire.writeShort(EncodeConstants.EXPERIMENTER_VALUE);
+            wire.writeShort(ACTION_LENGTHS[codecIndex]);
+            wire.writeInt(NiciraConstants.NX_VENDOR_ID.intValue());
+            wire.writeShort(ACTION_SUBTYPES[codecIndex]);
+            wire.writeBytes(body);
+
+            actionCodecIndexes[i] = codecIndex;
+            actions[i] = codec.deserialize(wire);
+            actionOffsets[i] = serializedActions.writerIndex();
+            codec.serialize(actions[i], serializedActions);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        outBuffer.release();
+        serializedMatchEntries.release();
+        serializedActions.release();
+    }
+
+    @Benchmark
+    public int serializeMatchEntry() {
+        final int index = next();
+        outBuffer.clear();
+        MATCH_CODECS[matchCodecIndexes[index]].serialize(matchEntries[index], outBuffer);
+        return outBuffer.writerIndex();
+    }
+
+    @Benchmark
+    public MatchEntry deserializeMatchEntry() {
+        final int index = next();
+        serializedMatchEntries.readerIndex(matchOffsets[index]);
+        return MATCH_CODECS[matchCodecIndexes[index]].deserialize(serializedMatchEntries);
+    }
+
+    @Benchmark
+    public int serializeAction() {
+        final int index = next();
+        outBuffer.clear();
+        ACTION_CODECS[actionCodecIndexes[index]].serialize(actions[index], outBuffer);
+        return outBuffer.writerIndex();
+    }
+
+    @Benchmark
+    public Action deserializeAction() {
+        final int index = next();
+        serializedActions.readerIndex(actionOffsets[index]);
+        return ACTION_CODECS[actionCodecIndexes[index]].deserialize(serializedActions);
+    }
+
+    private int next() {
+        if (++cursor == entryCount) {
+            cursor = 0;
+        }
+        return cursor;
+    }
+
+    /**
+     * Fills random bytes with the highest bit cleared, so that no 64 bit value gets out of unsigned range.
+     */
+    private static void nextBytes(final Random random, final byte[] bytes) {
+        random.nextBytes(bytes);
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] &= 0x7f;
+        }
+    }
+}
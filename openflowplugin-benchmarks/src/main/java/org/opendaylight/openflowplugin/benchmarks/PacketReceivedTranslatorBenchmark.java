@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.openflowplugin.benchmarks;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.math.BigInteger;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.opendaylight.openflowjava.protocol.api.util.EncodeConstants;
+import org.opendaylight.openflowplugin.api.openflow.connection.ConnectionContext;
+import org.opendaylight.openflowplugin.api.openflow.device.DeviceContext;
+import org.opendaylight.openflowplugin.api.openflow.device.DeviceState;
+import org.opendaylight.openflowplugin.impl.translator.PacketReceivedTranslator;
+import org.opendaylight.openflowplugin.openflow.md.core.sal.convertor.match.MatchConvertorImpl;
+import org.opendaylight.openflowplugin.openflow.md.util.InventoryDataServiceUtil;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.table.Flow;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.NodeConnectorRef;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.Nodes;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.Node;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.NodeKey;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.types.rev130731.PacketInReason;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.types.rev130731.TableId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.oxm.rev150225.OxmMatchType;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.oxm.rev150225.match.grouping.MatchBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.FeaturesReply;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.PacketInMessage;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.PacketInMessageBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.packet.service.rev130709.PacketReceived;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.packet.service.rev130709.packet.received.Match;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link PacketReceivedTranslator} on packet-ins matching the generated flows. Translation alone covers what the
+ * device context does for every packet-in, match of the notification is converted lazily - only when a listener
+ * asks for it - so it is measured separately.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PacketReceivedTranslatorBenchmark {
+
+    private static final int PAYLOAD_LENGTH = 128;
+
+    @Param({"1000", "10000", "100000"})
+    private int flowCount;
+
+    private final PacketReceivedTranslator translator = new PacketReceivedTranslator();
+    private PacketInMessage[] packetIns;
+    private DeviceContext deviceContext;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        final List<Flow> flows = FlowFixtures.createFlows(flowCount);
+        final MatchConvertorImpl matchConvertor = new MatchConvertorImpl();
+        final byte[] payload = new byte[PAYLOAD_LENGTH];
+        packetIns = new PacketInMessage[flowCount];
+        for (int i = 0; i < flowCount; i++) {
+            final Flow flow = flows.get(i);
+            packetIns[i] = new PacketInMessageBuilder()
+                    .setVersion((short) EncodeConstants.OF13_VERSION_ID)
+                    .setXid((long) i)
+                    .setBufferId(0xffffffffL)
+                    .setTotalLen(PAYLOAD_LENGTH)
+                    .setReason(PacketInReason.OFPRACTION)
+                    .setTableId(new TableId(flow.getTableId().longValue()))
+                    .setCookie(flow.getCookie().getValue())
+                    .setMatch(new MatchBuilder()
+                            .setType(OxmMatchType.class)
+                            .setMatchEntry(matchConvertor.convert(flow.getMatch(), FlowFixtures.DATAPATH_ID))
+                            .build())
+                    .setData(payload)
+                    .build();
+        }
+        deviceContext = createDeviceContext(FlowFixtures.DATAPATH_ID);
+    }
+
+    @Benchmark
+    public PacketReceived translate() {
+        return translator.translate(packetIns[next()], deviceContext, null);
+    }
+
+    @Benchmark
+    public Match translateWithMatch() {
+        return translator.translate(packetIns[next()], deviceContext, null).getMatch();
+    }
+
+    private int next() {
+        if (++cursor == flowCount) {
+            cursor = 0;
+        }
+        return cursor;
+    }
+
+    /**
+     * @return device context caching node connector references per port like the real one does
+     */
+    private static DeviceContext createDeviceContext(final BigInteger datapathId) {
+        final FeaturesReply featuresReply = Stubs.stub(FeaturesReply.class,
+                Collections.<String, Object>singletonMap("getDatapathId", datapathId));
+        final ConnectionContext connectionContext = Stubs.stub(ConnectionContext.class,
+                Collections.<String, Object>singletonMap("getFeatures", featuresReply));
+        final DeviceState deviceState = Stubs.stub(DeviceState.class,
+                Collections.<String, Object>singletonMap("getNodeInstanceIdentifier",
+                        InstanceIdentifier.create(Nodes.class).child(Node.class,
+                                new NodeKey(InventoryDataServiceUtil.nodeIdFromDatapathId(datapathId)))));
+
+        final Map<Long, NodeConnectorRef> nodeConnectorRefs = new ConcurrentHashMap<>();
+        final Map<String, Object> answers = new ConcurrentHashMap<>();
+        answers.put("getPrimaryConnectionContext", connectionContext);
+        answers.put("getDeviceState", deviceState);
+        answers.put("lookupNodeConnectorRef", new InvocationHandler() {
+            @Override
+            public Object invoke(final Object proxy, final Method method, final Object[] args) {
+                return nodeConnectorRefs.get(args[0]);
+            }
+        });
+        answers.put("storeNodeConnectorRef", new InvocationHandler() {
+            @Override
+            public Object invoke(final Object proxy, final Method method, final Object[] args) {
+                nodeConnectorRefs.put((Long) args[0], (NodeConnectorRef) args[1]);
+                return null;
+            }
+        });
+        return Stubs.stub(DeviceContext.class, answers);
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.openflowplugin.benchmarks;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+
+/**
+ * Stubs of context interfaces the benchmarked code asks for device details. Unlike mocks they do not record
+ * invocations, so they neither grow during the measurement nor add their allocations to the reported rate.
+ */
+final class Stubs {
+
+    private Stubs() {
+        throw new IllegalStateException("This class should not be instantiated.");
+    }
+
+    /**
+     * @param type    stubbed interface
+     * @param answers method name -> returned value, {@link InvocationHandler} values are invoked instead
+     * @return stub answering unknown methods with null (zero / false for primitives)
+     */
+    static <T> T stub(final Class<T> type, final Map<String, Object> answers) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, new InvocationHandler() {
+            @Override
+            public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+                if (method.getDeclaringClass() == Object.class) {
+                    switch (method.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        default:
+                            return type.getSimpleName() + " stub";
+                    }
+                }
+
+                final Object answer = answers.get(method.getName());
+                if (answer instanceof InvocationHandler) {
+                    return ((InvocationHandler) answer).invoke(proxy, method, args);
+                }
+                if (answer == null && method.getReturnType().isPrimitive()) {
+                    return defaultValue(method.getReturnType());
+                }
+                return answer;
+            }
+        }));
+    }
+
+    private static Object defaultValue(final Class<?> primitiveType) {
+        if (primitiveType == boolean.class) {
+            return false;
+        } else if (primitiveType == long.class) {
+            return 0L;
+        } else if (primitiveType == int.class) {
+            return 0;
+        } else if (primitiveType == short.class) {
+            return (short) 0;
+        } else if (primitiveType == byte.class) {
+            return (byte) 0;
+        } else if (primitiveType == char.class) {
+            return (char) 0;
+        } else if (primitiveType == float.class) {
+            return 0f;
+        } else if (primitiveType == double.class) {
+            return 0d;
+        }
+        // void
+        return null;
+    }
+}
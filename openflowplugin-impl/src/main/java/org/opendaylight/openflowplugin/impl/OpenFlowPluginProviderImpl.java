@@ -56,6 +56,7 @@ import org.opendaylight.openflowplugin.impl.statistics.ofpspecific.MessageIntell
 import org.opendaylight.openflowplugin.impl.util.TranslatorLibraryUtil;
 import org.opendaylight.openflowplugin.openflow.md.core.ThreadPoolLoggingExecutor;
 import org.opendaylight.openflowplugin.openflow.md.core.extension.ExtensionConverterManagerImpl;
+import org.opendaylight.openflowplugin.openflow.md.core.sal.convertor.FlowConvertor;
 import org.opendaylight.openflowplugin.openflow.md.core.session.OFSessionUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -70,6 +71,14 @@ public class OpenFlowPluginProviderImpl implements OpenFlowPluginProvider, OpenF
     private long barrierInterval;
     private int barrierCountLimit;
     private long echoReplyTimeout;
+    private int handshakeConcurrencyLimit = 0;
+    private int handshakeQueueSize = 1000;
+    private long handshakeQueueTimeout = 30000;
+    private boolean useAuxiliaryConnections = false;
+    private boolean useBulkFlowMods = false;
+    private int flowConversionCacheSize = 0;
+    private boolean cacheTableFeatures = false;
+    private String tableFeaturesCacheDirectory = "";
     private DeviceManager deviceManager;
     private RoleManager roleManager;
     private RpcManager rpcManager;
@@ -86,6 +95,14 @@ public class OpenFlowPluginProviderImpl implements OpenFlowPluginProvider, OpenF
     private Collection<SwitchConnectionProvider> switchConnectionProviders;
     private boolean switchFeaturesMandatory = false;
     private boolean isStatisticsPollingOff = false;
+    private boolean isStatisticsWriteIncremental = false;
+    private int statisticsGatheringWindow = 1;
+    private boolean isFlowRegistryCompact = false;
+    private boolean isFlowRegistryKeyNormalized = false;
+    private long packetInPortRate = 0;
+    private long packetInDeviceRate = 0;
+    private int transactionCoalescingSize = 0;
+    private long transactionCoalescingDelay = 100;
     private boolean isStatisticsRpcEnabled;
     private boolean skipTableFeatures = true;
 
@@ -123,6 +140,36 @@ public class OpenFlowPluginProviderImpl implements OpenFlowPluginProvider, OpenF
         this.isStatisticsPollingOff = isStatisticsPollingOff;
     }
 
+    @Override
+    public void setIsStatisticsWriteIncremental(final boolean isStatisticsWriteIncremental) {
+        this.isStatisticsWriteIncremental = isStatisticsWriteIncremental;
+    }
+
+    @Override
+    public void setStatisticsGatheringWindow(final int statisticsGatheringWindow) {
+        this.statisticsGatheringWindow = statisticsGatheringWindow;
+    }
+
+    @Override
+    public void setIsFlowRegistryCompact(final boolean isFlowRegistryCompact) {
+        this.isFlowRegistryCompact = isFlowRegistryCompact;
+    }
+
+    @Override
+    public void setIsFlowRegistryKeyNormalized(final boolean isFlowRegistryKeyNormalized) {
+        this.isFlowRegistryKeyNormalized = isFlowRegistryKeyNormalized;
+    }
+
+    @Override
+    public void setTransactionCoalescingSize(final int transactionCoalescingSize) {
+        this.transactionCoalescingSize = transactionCoalescingSize;
+    }
+
+    @Override
+    public void setTransactionCoalescingDelay(final long transactionCoalescingDelay) {
+        this.transactionCoalescingDelay = transactionCoalescingDelay;
+    }
+
     private void startSwitchConnections() {
         final List<ListenableFuture<Boolean>> starterChain = new ArrayList<>(switchConnectionProviders.size());
         for (final SwitchConnectionProvider switchConnectionPrv : switchConnectionProviders) {
@@ -171,6 +218,56 @@ public class OpenFlowPluginProviderImpl implements OpenFlowPluginProvider, OpenF
         this.echoReplyTimeout = echoReplyTimeout;
     }
 
+    @Override
+    public void setPacketInPortRate(final long packetInPortRate) {
+        this.packetInPortRate = packetInPortRate;
+    }
+
+    @Override
+    public void setPacketInDeviceRate(final long packetInDeviceRate) {
+        this.packetInDeviceRate = packetInDeviceRate;
+    }
+
+    @Override
+    public void setHandshakeConcurrencyLimit(final int handshakeConcurrencyLimit) {
+        this.handshakeConcurrencyLimit = handshakeConcurrencyLimit;
+    }
+
+    @Override
+    public void setHandshakeQueueSize(final int handshakeQueueSize) {
+        this.handshakeQueueSize = handshakeQueueSize;
+    }
+
+    @Override
+    public void setHandshakeQueueTimeout(final long handshakeQueueTimeout) {
+        this.handshakeQueueTimeout = handshakeQueueTimeout;
+    }
+
+    @Override
+    public void setUseAuxiliaryConnections(final boolean useAuxiliaryConnections) {
+        this.useAuxiliaryConnections = useAuxiliaryConnections;
+    }
+
+    @Override
+    public void setUseBulkFlowMods(final boolean useBulkFlowMods) {
+        this.useBulkFlowMods = useBulkFlowMods;
+    }
+
+    @Override
+    public void setFlowConversionCacheSize(final int flowConversionCacheSize) {
+        this.flowConversionCacheSize = flowConversionCacheSize;
+    }
+
+    @Override
+    public void setCacheTableFeatures(final boolean cacheTableFeatures) {
+        this.cacheTableFeatures = cacheTableFeatures;
+    }
+
+    @Override
+    public void setTableFeaturesCacheDirectory(final String tableFeaturesCacheDirectory) {
+        this.tableFeaturesCacheDirectory = tableFeaturesCacheDirectory;
+    }
+
 
     @Override
     public void setSwitchFeaturesMandatory(final boolean switchFeaturesMandatory) {
@@ -211,8 +308,10 @@ public class OpenFlowPluginProviderImpl implements OpenFlowPluginProvider, OpenF
         // TODO: copied from OpenFlowPluginProvider (Helium) misusesing the old way of distributing extension converters
         // TODO: rewrite later!
         OFSessionUtil.getSessionManager().setExtensionConverterProvider(extensionConverterManager);
+        FlowConvertor.setConversionCacheSize(flowConversionCacheSize);
 
-        connectionManager = new ConnectionManagerImpl(echoReplyTimeout, threadPool);
+        connectionManager = new ConnectionManagerImpl(echoReplyTimeout, threadPool, conductor,
+                handshakeConcurrencyLimit, handshakeQueueSize, handshakeQueueTimeout);
 
         registerMXBean(messageIntelligenceAgency);
 
@@ -228,7 +327,8 @@ public class OpenFlowPluginProviderImpl implements OpenFlowPluginProvider, OpenF
         conductor.setSafelyDeviceManager(deviceManager);
 
         roleManager = new RoleManagerImpl(entityOwnershipService, dataBroker, conductor);
-        statisticsManager = new StatisticsManagerImpl(rpcProviderRegistry, isStatisticsPollingOff, conductor);
+        statisticsManager = new StatisticsManagerImpl(rpcProviderRegistry, isStatisticsPollingOff,
+                isStatisticsWriteIncremental, statisticsGatheringWindow, conductor);
         rpcManager = new RpcManagerImpl(rpcProviderRegistry, rpcRequestsQuota, conductor);
 
         roleManager.addRoleChangeListener((RoleChangeListener) conductor);
@@ -248,6 +348,13 @@ public class OpenFlowPluginProviderImpl implements OpenFlowPluginProvider, OpenF
         roleManager.setDeviceTerminationPhaseHandler(deviceManager);
 
         deviceManager.setStatisticsRpcEnabled(isStatisticsRpcEnabled);
+        deviceManager.setFlowRegistryCompact(isFlowRegistryCompact);
+        deviceManager.setFlowRegistryKeyNormalized(isFlowRegistryKeyNormalized);
+        deviceManager.setPacketInRateLimits(packetInPortRate, packetInDeviceRate);
+        deviceManager.setTransactionCoalescing(transactionCoalescingSize, transactionCoalescingDelay);
+        deviceManager.setUseAuxiliaryConnections(useAuxiliaryConnections);
+        deviceManager.setUseBulkFlowMods(useBulkFlowMods);
+        deviceManager.setTableFeaturesCache(cacheTableFeatures, tableFeaturesCacheDirectory);
         deviceManager.setNotificationPublishService(notificationPublishService);
 
         TranslatorLibraryUtil.setBasicTranslatorLibrary(deviceManager);
@@ -9,6 +9,7 @@
 package org.opendaylight.openflowplugin.impl.connection;
 
 import java.net.InetAddress;
+import java.net.InetSocketAddress;
 import java.util.concurrent.ThreadPoolExecutor;
 import org.opendaylight.openflowjava.protocol.api.connection.ConnectionAdapter;
 import org.opendaylight.openflowjava.protocol.api.connection.ConnectionReadyListener;
@@ -16,6 +17,7 @@ import org.opendaylight.openflowplugin.api.openflow.connection.ConnectionContext
 import org.opendaylight.openflowplugin.api.openflow.connection.ConnectionManager;
 import org.opendaylight.openflowplugin.api.openflow.connection.HandshakeContext;
 import org.opendaylight.openflowplugin.api.openflow.device.handlers.DeviceConnectedHandler;
+import org.opendaylight.openflowplugin.api.openflow.lifecycle.LifecycleConductor;
 import org.opendaylight.openflowplugin.api.openflow.md.core.ConnectionConductor;
 import org.opendaylight.openflowplugin.api.openflow.md.core.HandshakeListener;
 import org.opendaylight.openflowplugin.api.openflow.md.core.HandshakeManager;
@@ -41,10 +43,42 @@ public class ConnectionManagerImpl implements ConnectionManager {
     private DeviceConnectedHandler deviceConnectedHandler;
     private final long echoReplyTimeout;
     private final ThreadPoolExecutor threadPool;
+    private final LifecycleConductor conductor;
+    private final HandshakeAdmissionControl handshakeAdmissionControl;
 
-    public ConnectionManagerImpl(long echoReplyTimeout, final ThreadPoolExecutor threadPool) {
+    /**
+     * Remembers addresses of switches which got connected as devices, so they get priority
+     * when reconnecting through busy handshake queue.
+     */
+    private final DeviceConnectedHandler knownDeviceTracker = new DeviceConnectedHandler() {
+        @Override
+        public boolean deviceConnected(final ConnectionContext connectionContext) throws Exception {
+            final InetSocketAddress remoteAddress = connectionContext.getConnectionAdapter().getRemoteAddress();
+            if (remoteAddress != null) {
+                handshakeAdmissionControl.markKnown(remoteAddress.getAddress());
+            }
+            return deviceConnectedHandler.deviceConnected(connectionContext);
+        }
+    };
+
+    public ConnectionManagerImpl(long echoReplyTimeout, final ThreadPoolExecutor threadPool,
+                                 final LifecycleConductor conductor) {
+        this(echoReplyTimeout, threadPool, conductor, 0, 0, 0);
+    }
+
+    /**
+     * @param maxConcurrentHandshakes handshakes allowed to run at once, 0 means no limit
+     * @param handshakeQueueSize      handshakes allowed to wait for free handshake slot
+     * @param handshakeQueueTimeout   maximal wait [ms] for free handshake slot
+     */
+    public ConnectionManagerImpl(long echoReplyTimeout, final ThreadPoolExecutor threadPool,
+                                 final LifecycleConductor conductor, final int maxConcurrentHandshakes,
+                                 final int handshakeQueueSize, final long handshakeQueueTimeout) {
         this.echoReplyTimeout = echoReplyTimeout;
         this.threadPool = threadPool;
+        this.conductor = conductor;
+        this.handshakeAdmissionControl = new HandshakeAdmissionControl(maxConcurrentHandshakes, handshakeQueueSize,
+                handshakeQueueTimeout, conductor, threadPool);
     }
 
     @Override
@@ -52,24 +86,25 @@ public class ConnectionManagerImpl implements ConnectionManager {
         LOG.trace("prepare connection context");
         final ConnectionContext connectionContext = new ConnectionContextImpl(connectionAdapter);
 
-        HandshakeListener handshakeListener = new HandshakeListenerImpl(connectionContext, deviceConnectedHandler);
+        HandshakeListener handshakeListener = new HandshakeListenerImpl(connectionContext, knownDeviceTracker);
         final HandshakeManager handshakeManager = createHandshakeManager(connectionAdapter, handshakeListener);
 
         LOG.trace("prepare handshake context");
-        HandshakeContext handshakeContext = new HandshakeContextImpl(threadPool, handshakeManager);
+        final HandshakeAdmissionControl.Ticket admissionTicket = handshakeAdmissionControl.createTicket(connectionContext);
+        HandshakeContext handshakeContext = new HandshakeContextImpl(threadPool, handshakeManager, admissionTicket);
         handshakeListener.setHandshakeContext(handshakeContext);
         connectionContext.setHandshakeContext(handshakeContext);
 
         LOG.trace("prepare connection listeners");
         final ConnectionReadyListener connectionReadyListener = new ConnectionReadyListenerImpl(
-                connectionContext, handshakeContext);
+                connectionContext, handshakeContext, admissionTicket);
         connectionAdapter.setConnectionReadyListener(connectionReadyListener);
 
         final OpenflowProtocolListener ofMessageListener =
-                new OpenflowProtocolListenerInitialImpl(connectionContext, handshakeContext);
+                new OpenflowProtocolListenerInitialImpl(connectionContext, handshakeContext, admissionTicket);
         connectionAdapter.setMessageListener(ofMessageListener);
 
-        final SystemNotificationsListener systemListener = new SystemNotificationsListenerImpl(connectionContext, echoReplyTimeout, threadPool);
+        final SystemNotificationsListener systemListener = new SystemNotificationsListenerImpl(connectionContext, echoReplyTimeout, conductor);
         connectionAdapter.setSystemListener(systemListener);
 
         LOG.trace("connection ballet finished");
@@ -101,8 +136,14 @@ public class ConnectionManagerImpl implements ConnectionManager {
 
     @Override
     public boolean accept(final InetAddress switchAddress) {
-        // TODO add connection accept logic based on address
-        return true;
+        return handshakeAdmissionControl.accept(switchAddress);
+    }
+
+    /**
+     * @return admission control of handshakes
+     */
+    public HandshakeAdmissionControl getHandshakeAdmissionControl() {
+        return handshakeAdmissionControl;
     }
 
     @Override
@@ -0,0 +1,373 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.openflowplugin.impl.connection;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import io.netty.util.Timeout;
+import io.netty.util.TimerTask;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+import org.opendaylight.openflowplugin.api.openflow.connection.ConnectionContext;
+import org.opendaylight.openflowplugin.api.openflow.lifecycle.LifecycleConductor;
+import org.opendaylight.openflowplugin.impl.statistics.ofpspecific.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Admission control of OF handshakes - at most {@code maxConcurrentHandshakes} handshakes run at once, the others
+ * wait (up to {@code maxWaitMillis}) in queue where switches connecting from address which already brought a device
+ * up are served first. New connections are refused already in {@link #accept(InetAddress)} once the queue is full.
+ * <p>
+ * Every connection holds one {@link Ticket} - handshake events (connection ready, hello) are passed through
+ * {@link Ticket#admitOrDefer(Runnable)} and deferred events are replayed on handshake pool when a slot frees up.
+ * Slot is given back by {@link Ticket#release()} once the handshake context gets closed.
+ */
+public class HandshakeAdmissionControl {
+
+    private static final Logger LOG = LoggerFactory.getLogger(HandshakeAdmissionControl.class);
+    private static final int KNOWN_ADDRESSES_LIMIT = 16384;
+    @VisibleForTesting
+    static final long MIN_BACK_OFF_MILLIS = 1000;
+
+    private final int maxConcurrentHandshakes;
+    private final int maxPendingHandshakes;
+    private final long maxWaitMillis;
+    private final LifecycleConductor conductor;
+    private final Executor replayExecutor;
+
+    private final Object lock = new Object();
+    @GuardedBy("lock")
+    private int activeHandshakes;
+    @GuardedBy("lock")
+    private final Deque<Ticket> knownPending = new ArrayDeque<>();
+    @GuardedBy("lock")
+    private final Deque<Ticket> unknownPending = new ArrayDeque<>();
+    @GuardedBy("lock")
+    private final Set<InetAddress> knownAddresses = Collections.newSetFromMap(
+            new LinkedHashMap<InetAddress, Boolean>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(final Map.Entry<InetAddress, Boolean> eldest) {
+                    return size() > KNOWN_ADDRESSES_LIMIT;
+                }
+            });
+
+    private final Histogram handshakeDurations = new Histogram();
+    private final AtomicLong rejectedConnections = new AtomicLong();
+    private final AtomicLong expiredHandshakes = new AtomicLong();
+
+    /**
+     * @param maxConcurrentHandshakes handshakes allowed to run at once, 0 means no limit
+     * @param maxPendingHandshakes    handshakes allowed to wait for free slot
+     * @param maxWaitMillis           maximal wait [ms] of handshake for free slot, connection is closed then
+     * @param conductor               provider of shared timer
+     * @param replayExecutor          executor replaying deferred handshake events (handshake pool)
+     */
+    public HandshakeAdmissionControl(final int maxConcurrentHandshakes,
+                                     final int maxPendingHandshakes,
+                                     final long maxWaitMillis,
+                                     @Nonnull final LifecycleConductor conductor,
+                                     @Nonnull final Executor replayExecutor) {
+        Preconditions.checkArgument(maxConcurrentHandshakes >= 0, "Negative handshake limit: %s", maxConcurrentHandshakes);
+        Preconditions.checkArgument(maxPendingHandshakes >= 0, "Negative handshake queue size: %s", maxPendingHandshakes);
+        this.maxConcurrentHandshakes = maxConcurrentHandshakes;
+        this.maxPendingHandshakes = maxPendingHandshakes;
+        this.maxWaitMillis = maxWaitMillis;
+        this.conductor = Preconditions.checkNotNull(conductor);
+        this.replayExecutor = Preconditions.checkNotNull(replayExecutor);
+    }
+
+    private boolean isUnlimited() {
+        return maxConcurrentHandshakes == 0;
+    }
+
+    /**
+     * Early admission - connection is refused when all handshake slots are taken and handshake queue is full,
+     * unless the address already brought a device up.
+     *
+     * @param switchAddress address of connecting switch
+     * @return true if connection is accepted
+     */
+    public boolean accept(final InetAddress switchAddress) {
+        if (isUnlimited()) {
+            return true;
+        }
+
+        synchronized (lock) {
+            if (activeHandshakes < maxConcurrentHandshakes || pendingHandshakes() < maxPendingHandshakes
+                    || knownAddresses.contains(switchAddress)) {
+                return true;
+            }
+        }
+
+        rejectedConnections.incrementAndGet();
+        LOG.info("Refusing connection from {}, handshake capacity exhausted (limit: {}, queue: {}), retry in about {} ms",
+                switchAddress, maxConcurrentHandshakes, maxPendingHandshakes, estimateBackOffMillis());
+        return false;
+    }
+
+    /**
+     * Address will get priority in handshake queue from now on.
+     *
+     * @param switchAddress address of switch which finished handshake and got connected as device
+     */
+    public void markKnown(@Nullable final InetAddress switchAddress) {
+        if (switchAddress != null) {
+            synchronized (lock) {
+                knownAddresses.add(switchAddress);
+            }
+        }
+    }
+
+    /**
+     * @param connectionContext connection about to handshake
+     * @return admission ticket of given connection
+     */
+    public Ticket createTicket(@Nonnull final ConnectionContext connectionContext) {
+        final InetSocketAddress remoteAddress = connectionContext.getConnectionAdapter().getRemoteAddress();
+        return new Ticket(connectionContext, remoteAddress == null ? null : remoteAddress.getAddress());
+    }
+
+    /**
+     * @return suggested delay [ms] before the next connection attempt, based on handshake durations and queue depth
+     */
+    public long estimateBackOffMillis() {
+        final int waiting;
+        synchronized (lock) {
+            waiting = pendingHandshakes() + 1;
+        }
+        final long rounds = (waiting + Math.max(1, maxConcurrentHandshakes) - 1) / Math.max(1, maxConcurrentHandshakes);
+        return Math.max(MIN_BACK_OFF_MILLIS, rounds * handshakeDurations.getMean());
+    }
+
+    @GuardedBy("lock")
+    private int pendingHandshakes() {
+        return knownPending.size() + unknownPending.size();
+    }
+
+    public int getActiveHandshakes() {
+        synchronized (lock) {
+            return activeHandshakes;
+        }
+    }
+
+    public int getPendingHandshakes() {
+        synchronized (lock) {
+            return pendingHandshakes();
+        }
+    }
+
+    public long getRejectedConnections() {
+        return rejectedConnections.get();
+    }
+
+    public long getExpiredHandshakes() {
+        return expiredHandshakes.get();
+    }
+
+    /**
+     * @return durations [ms] of finished handshakes
+     */
+    public Histogram getHandshakeDurations() {
+        return handshakeDurations;
+    }
+
+    private void releaseSlot() {
+        final Ticket next;
+        synchronized (lock) {
+            next = knownPending.isEmpty() ? unknownPending.pollFirst() : knownPending.pollFirst();
+            if (next == null) {
+                activeHandshakes--;
+                return;
+            }
+        }
+        // slot is handed over to the next ticket directly, active count stays the same
+        next.onAdmitted();
+    }
+
+    private enum State {
+        NEW, PENDING, ADMITTED, FINISHED
+    }
+
+    /**
+     * Admission state of one connection.
+     */
+    public final class Ticket {
+
+        private final ConnectionContext connectionContext;
+        private final InetAddress address;
+        @GuardedBy("this")
+        private State state = State.NEW;
+        @GuardedBy("this")
+        private final List<Runnable> deferredEvents = new ArrayList<>(2);
+        @GuardedBy("this")
+        private Timeout waitTimeout;
+        @GuardedBy("this")
+        private long admittedAt;
+
+        private Ticket(final ConnectionContext connectionContext, @Nullable final InetAddress address) {
+            this.connectionContext = connectionContext;
+            this.address = address;
+        }
+
+        /**
+         * @param replay handshake event to be replayed once handshake gets admitted
+         * @return true if handshake is admitted and the event can be processed right away,
+         * false if the event got deferred (or dropped as the connection did not get admitted at all)
+         */
+        public boolean admitOrDefer(@Nonnull final Runnable replay) {
+            if (isUnlimited()) {
+                return true;
+            }
+
+            boolean refused = false;
+            synchronized (this) {
+                switch (state) {
+                    case ADMITTED:
+                        return true;
+                    case PENDING:
+                        deferredEvents.add(replay);
+                        return false;
+                    case FINISHED:
+                        return false;
+                    default:
+                        break;
+                }
+
+                synchronized (lock) {
+                    if (activeHandshakes < maxConcurrentHandshakes) {
+                        activeHandshakes++;
+                        admittedAt = System.nanoTime();
+                        state = State.ADMITTED;
+                        return true;
+                    }
+
+                    final boolean known = address != null && knownAddresses.contains(address);
+                    if (known || unknownPending.size() + knownPending.size() < maxPendingHandshakes) {
+                        (known ? knownPending : unknownPending).addLast(this);
+                        state = State.PENDING;
+                        deferredEvents.add(replay);
+                    } else {
+                        state = State.FINISHED;
+                        refused = true;
+                    }
+                }
+
+                if (!refused) {
+                    waitTimeout = conductor.newTimeout(new TimerTask() {
+                        @Override
+                        public void run(final Timeout timeout) throws Exception {
+                            onWaitExpired();
+                        }
+                    }, maxWaitMillis, TimeUnit.MILLISECONDS);
+                    LOG.debug("Handshake of {} queued, all {} handshake slots are taken", address, maxConcurrentHandshakes);
+                }
+            }
+
+            if (refused) {
+                rejectedConnections.incrementAndGet();
+                LOG.info("Closing connection of {}, handshake queue is full, retry in about {} ms",
+                        address, estimateBackOffMillis());
+                connectionContext.closeConnection(false);
+            }
+            return false;
+        }
+
+        private void onAdmitted() {
+            final List<Runnable> events;
+            synchronized (this) {
+                events = state == State.PENDING ? new ArrayList<>(deferredEvents) : null;
+            }
+            if (events == null) {
+                // ticket was released meanwhile, pass the slot further
+                releaseSlot();
+                return;
+            }
+
+            synchronized (this) {
+                state = State.ADMITTED;
+                admittedAt = System.nanoTime();
+                if (waitTimeout != null) {
+                    waitTimeout.cancel();
+                }
+                deferredEvents.clear();
+            }
+
+            LOG.debug("Handshake of {} admitted, replaying {} deferred events", address, events.size());
+            replayExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    for (Runnable event : events) {
+                        event.run();
+                    }
+                }
+            });
+        }
+
+        private void onWaitExpired() {
+            synchronized (this) {
+                if (state != State.PENDING) {
+                    return;
+                }
+                synchronized (lock) {
+                    knownPending.remove(this);
+                    unknownPending.remove(this);
+                }
+                state = State.FINISHED;
+                deferredEvents.clear();
+            }
+
+            expiredHandshakes.incrementAndGet();
+            LOG.info("Closing connection of {}, handshake waited for free slot longer than {} ms", address, maxWaitMillis);
+            connectionContext.closeConnection(false);
+        }
+
+        /**
+         * Gives handshake slot back (or leaves the queue), idempotent.
+         */
+        public void release() {
+            final boolean wasAdmitted;
+            final long duration;
+            synchronized (this) {
+                if (state == State.PENDING) {
+                    synchronized (lock) {
+                        knownPending.remove(this);
+                        unknownPending.remove(this);
+                    }
+                    if (waitTimeout != null) {
+                        waitTimeout.cancel();
+                    }
+                    deferredEvents.clear();
+                }
+                wasAdmitted = state == State.ADMITTED;
+                duration = System.nanoTime() - admittedAt;
+                state = State.FINISHED;
+            }
+
+            if (wasAdmitted) {
+                handshakeDurations.record(TimeUnit.NANOSECONDS.toMillis(duration));
+                releaseSlot();
+            }
+        }
+    }
+}
@@ -8,6 +8,7 @@
 package org.opendaylight.openflowplugin.impl.connection;
 
 import java.util.concurrent.ThreadPoolExecutor;
+import javax.annotation.Nullable;
 import org.opendaylight.openflowplugin.api.openflow.connection.HandshakeContext;
 import org.opendaylight.openflowplugin.api.openflow.md.core.HandshakeManager;
 
@@ -18,14 +19,26 @@ public class HandshakeContextImpl implements HandshakeContext {
 
     private ThreadPoolExecutor handshakePool;
     private HandshakeManager handshakeManager;
+    private final HandshakeAdmissionControl.Ticket admissionTicket;
 
     /**
      * @param handshakePool
      * @param handshakeManager
      */
     public HandshakeContextImpl(ThreadPoolExecutor handshakePool, HandshakeManager handshakeManager) {
+        this(handshakePool, handshakeManager, null);
+    }
+
+    /**
+     * @param handshakePool
+     * @param handshakeManager
+     * @param admissionTicket handshake admission to be released on close, handshake is not limited if null
+     */
+    public HandshakeContextImpl(ThreadPoolExecutor handshakePool, HandshakeManager handshakeManager,
+                                @Nullable HandshakeAdmissionControl.Ticket admissionTicket) {
         this.handshakePool = handshakePool;
         this.handshakeManager = handshakeManager;
+        this.admissionTicket = admissionTicket;
     }
 
     @Override
@@ -40,5 +53,8 @@ public class HandshakeContextImpl implements HandshakeContext {
 
     @Override
     public void close() {
+        if (admissionTicket != null) {
+            admissionTicket.release();
+        }
     }
 }
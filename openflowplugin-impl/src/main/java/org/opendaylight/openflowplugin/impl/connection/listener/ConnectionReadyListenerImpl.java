@@ -8,9 +8,11 @@
 package org.opendaylight.openflowplugin.impl.connection.listener;
 
 import java.util.concurrent.Future;
+import javax.annotation.Nullable;
 import org.opendaylight.openflowjava.protocol.api.connection.ConnectionReadyListener;
 import org.opendaylight.openflowplugin.api.openflow.connection.ConnectionContext;
 import org.opendaylight.openflowplugin.api.openflow.connection.HandshakeContext;
+import org.opendaylight.openflowplugin.impl.connection.HandshakeAdmissionControl;
 import org.opendaylight.openflowplugin.openflow.md.core.HandshakeStepWrapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -24,6 +26,7 @@ public class ConnectionReadyListenerImpl implements ConnectionReadyListener {
 
     private ConnectionContext connectionContext;
     private HandshakeContext handshakeContext;
+    private final HandshakeAdmissionControl.Ticket admissionTicket;
 
     /**
      * @param connectionContext
@@ -31,8 +34,20 @@ public class ConnectionReadyListenerImpl implements ConnectionReadyListener {
      */
     public ConnectionReadyListenerImpl(ConnectionContext connectionContext,
             HandshakeContext handshakeContext) {
+        this(connectionContext, handshakeContext, null);
+    }
+
+    /**
+     * @param connectionContext
+     * @param handshakeContext
+     * @param admissionTicket handshake admission of this connection, handshake is not limited if null
+     */
+    public ConnectionReadyListenerImpl(ConnectionContext connectionContext,
+            HandshakeContext handshakeContext,
+            @Nullable HandshakeAdmissionControl.Ticket admissionTicket) {
                 this.connectionContext = connectionContext;
                 this.handshakeContext = handshakeContext;
+                this.admissionTicket = admissionTicket;
     }
 
     @Override
@@ -40,6 +55,17 @@ public class ConnectionReadyListenerImpl implements ConnectionReadyListener {
         LOG.debug("device is connected and ready-to-use (pipeline prepared): {}",
                 connectionContext.getConnectionAdapter().getRemoteAddress());
 
+        if (admissionTicket != null && !admissionTicket.admitOrDefer(new Runnable() {
+            @Override
+            public void run() {
+                onConnectionReady();
+            }
+        })) {
+            LOG.debug("handshake of device {} not admitted yet, connection ready event deferred",
+                    connectionContext.getConnectionAdapter().getRemoteAddress());
+            return;
+        }
+
         if (connectionContext.getConnectionState() == null) {
             synchronized (connectionContext) {
                 if (connectionContext.getConnectionState() == null) {
@@ -8,8 +8,10 @@
 package org.opendaylight.openflowplugin.impl.connection.listener;
 
 import com.google.common.base.Objects;
+import javax.annotation.Nullable;
 import org.opendaylight.openflowplugin.api.openflow.connection.ConnectionContext;
 import org.opendaylight.openflowplugin.api.openflow.connection.HandshakeContext;
+import org.opendaylight.openflowplugin.impl.connection.HandshakeAdmissionControl;
 import org.opendaylight.openflowplugin.openflow.md.core.HandshakeStepWrapper;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.EchoReplyInputBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.EchoRequestMessage;
@@ -33,6 +35,7 @@ public class OpenflowProtocolListenerInitialImpl implements OpenflowProtocolList
 
     private final ConnectionContext connectionContext;
     private final HandshakeContext handshakeContext;
+    private final HandshakeAdmissionControl.Ticket admissionTicket;
 
     /**
      * @param connectionContext
@@ -40,8 +43,20 @@ public class OpenflowProtocolListenerInitialImpl implements OpenflowProtocolList
      */
     public OpenflowProtocolListenerInitialImpl(final ConnectionContext connectionContext,
                                                final HandshakeContext handshakeContext) {
+        this(connectionContext, handshakeContext, null);
+    }
+
+    /**
+     * @param connectionContext
+     * @param handshakeContext
+     * @param admissionTicket handshake admission of this connection, handshake is not limited if null
+     */
+    public OpenflowProtocolListenerInitialImpl(final ConnectionContext connectionContext,
+                                               final HandshakeContext handshakeContext,
+                                               @Nullable final HandshakeAdmissionControl.Ticket admissionTicket) {
         this.connectionContext = connectionContext;
         this.handshakeContext = handshakeContext;
+        this.admissionTicket = admissionTicket;
     }
 
     @Override
@@ -73,6 +88,15 @@ public class OpenflowProtocolListenerInitialImpl implements OpenflowProtocolList
     @Override
     public void onHelloMessage(final HelloMessage hello) {
         LOG.debug("processing HELLO.xid: {} from device {}", hello.getXid(), connectionContext.getConnectionAdapter().getRemoteAddress());
+        if (admissionTicket != null && !admissionTicket.admitOrDefer(new Runnable() {
+            @Override
+            public void run() {
+                onHelloMessage(hello);
+            }
+        })) {
+            LOG.debug("handshake of device {} not admitted yet, hello deferred", connectionContext.getConnectionAdapter().getRemoteAddress());
+            return;
+        }
         final ConnectionContext.CONNECTION_STATE connectionState = connectionContext.getConnectionState();
         if (connectionState == null
                 || ConnectionContext.CONNECTION_STATE.HANDSHAKING.equals(connectionState)) {
@@ -9,14 +9,25 @@ package org.opendaylight.openflowplugin.impl.connection.listener;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.JdkFutureAdapters;
+import io.netty.util.Timeout;
+import io.netty.util.TimerTask;
 import java.net.InetSocketAddress;
+import java.util.ArrayList;
 import java.util.Date;
-import java.util.concurrent.Future;
-import java.util.concurrent.ThreadPoolExecutor;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 import javax.annotation.Nonnull;
+import javax.annotation.concurrent.GuardedBy;
 import org.opendaylight.openflowplugin.api.openflow.connection.ConnectionContext;
 import org.opendaylight.openflowplugin.api.openflow.device.Xid;
+import org.opendaylight.openflowplugin.api.openflow.lifecycle.LifecycleConductor;
+import org.opendaylight.openflowplugin.api.openflow.statistics.ofpspecific.MessageIntelligenceAgency;
+import org.opendaylight.openflowplugin.impl.statistics.ofpspecific.Histogram;
+import org.opendaylight.openflowplugin.impl.statistics.ofpspecific.MessageIntelligenceAgencyImpl;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.NodeId;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.EchoInputBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.EchoOutput;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.FeaturesReply;
@@ -29,57 +40,119 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- *
+ * Keeps connection alive without parking any thread - idle switch is probed by a few pipelined echo requests
+ * spread over echo reply timeout. The first successful echo reply brings connection back to working state,
+ * when none arrives till the timeout expires (checked by shared timer) then the connection is closed.
+ * Round trip time of every echo reply is recorded and exposed per device.
  */
 public class SystemNotificationsListenerImpl implements SystemNotificationsListener {
 
     private final ConnectionContext connectionContext;
     private static final Logger LOG = LoggerFactory.getLogger(SystemNotificationsListenerImpl.class);
     @VisibleForTesting
-    static final long MAX_ECHO_REPLY_TIMEOUT = 2000;
+    static final int MAX_OUTSTANDING_ECHOES = 3;
     private final long echoReplyTimeout;
-    private final ThreadPoolExecutor threadPool;
+    private final LifecycleConductor conductor;
+    private final Histogram echoRoundTripTimes = new Histogram();
+
+    private final Object probeLock = new Object();
+    @GuardedBy("probeLock")
+    private long probeGeneration;
+    @GuardedBy("probeLock")
+    private boolean probing;
+    @GuardedBy("probeLock")
+    private int echoesSent;
+    @GuardedBy("probeLock")
+    private final List<Timeout> probeTimeouts = new ArrayList<>(MAX_OUTSTANDING_ECHOES);
+    private volatile NodeId registeredNodeId;
 
     public SystemNotificationsListenerImpl(@Nonnull final ConnectionContext connectionContext,
                                            long echoReplyTimeout,
-                                           @Nonnull final ThreadPoolExecutor threadPool) {
-        this.threadPool = threadPool;
+                                           @Nonnull final LifecycleConductor conductor) {
         this.connectionContext = Preconditions.checkNotNull(connectionContext);
         this.echoReplyTimeout = echoReplyTimeout;
+        this.conductor = Preconditions.checkNotNull(conductor);
     }
 
     @Override
     public void onDisconnectEvent(final DisconnectEvent notification) {
         LOG.info("ConnectionEvent: Connection closed by device, Device:{}, NodeId:{}",
                 connectionContext.getConnectionAdapter().getRemoteAddress(), connectionContext.getNodeId());
+        stopProbing();
+        unregisterEchoRoundTripTimes();
         connectionContext.onConnectionClosed();
     }
 
     @Override
     public void onSwitchIdleEvent(final SwitchIdleEvent notification) {
-        threadPool.execute(new Runnable() {
-            @Override
-            public void run() {
-                boolean shouldBeDisconnected = true;
-
-                final InetSocketAddress remoteAddress = connectionContext.getConnectionAdapter().getRemoteAddress();
-
-                if (ConnectionContext.CONNECTION_STATE.WORKING.equals(connectionContext.getConnectionState())) {
-                    FeaturesReply features = connectionContext.getFeatures();
-                    LOG.info("Switch Idle state occurred, node={}|auxId={}", remoteAddress, features.getAuxiliaryId());
-                    connectionContext.changeStateToTimeouting();
-                    EchoInputBuilder builder = new EchoInputBuilder();
-                    builder.setVersion(features.getVersion());
-                    Xid xid = new Xid(0L);
-                    builder.setXid(xid.getValue());
-
-                    Future<RpcResult<EchoOutput>> echoReplyFuture = connectionContext.getConnectionAdapter().echo(builder.build());
-
-                    try {
-                        RpcResult<EchoOutput> echoReplyValue = echoReplyFuture.get(echoReplyTimeout, TimeUnit.MILLISECONDS);
+        final InetSocketAddress remoteAddress = connectionContext.getConnectionAdapter().getRemoteAddress();
+
+        if (!ConnectionContext.CONNECTION_STATE.WORKING.equals(connectionContext.getConnectionState())) {
+            synchronized (probeLock) {
+                if (probing) {
+                    LOG.debug("Switch Idle state occurred while echo probe is running, node={}", remoteAddress);
+                    return;
+                }
+            }
+            closeIdleConnection(remoteAddress);
+            return;
+        }
+
+        final FeaturesReply features = connectionContext.getFeatures();
+        LOG.info("Switch Idle state occurred, node={}|auxId={}", remoteAddress, features.getAuxiliaryId());
+        registerEchoRoundTripTimes(features);
+        connectionContext.changeStateToTimeouting();
+
+        final long generation;
+        synchronized (probeLock) {
+            if (probing) {
+                return;
+            }
+            probing = true;
+            echoesSent = 0;
+            generation = ++probeGeneration;
+            probeTimeouts.add(conductor.newTimeout(new TimerTask() {
+                @Override
+                public void run(final Timeout timeout) throws Exception {
+                    onProbeExpired(generation, remoteAddress);
+                }
+            }, echoReplyTimeout, TimeUnit.MILLISECONDS));
+        }
+
+        sendEcho(generation, features.getVersion(), remoteAddress);
+    }
+
+    private void sendEcho(final long generation, final Short version, final InetSocketAddress remoteAddress) {
+        final int sequence;
+        synchronized (probeLock) {
+            if (!probing || generation != probeGeneration) {
+                return;
+            }
+            sequence = ++echoesSent;
+            if (sequence < MAX_OUTSTANDING_ECHOES) {
+                // next echo is pipelined before reply of this one arrives, so a single lost echo does not kill the connection
+                probeTimeouts.add(conductor.newTimeout(new TimerTask() {
+                    @Override
+                    public void run(final Timeout timeout) throws Exception {
+                        sendEcho(generation, version, remoteAddress);
+                    }
+                }, echoReplyTimeout / MAX_OUTSTANDING_ECHOES, TimeUnit.MILLISECONDS));
+            }
+        }
+
+        final EchoInputBuilder builder = new EchoInputBuilder();
+        builder.setVersion(version);
+        final Xid xid = new Xid((long) sequence);
+        builder.setXid(xid.getValue());
+
+        final long sentAt = System.nanoTime();
+        Futures.addCallback(JdkFutureAdapters.listenInPoolThread(connectionContext.getConnectionAdapter().echo(builder.build())),
+                new FutureCallback<RpcResult<EchoOutput>>() {
+                    @Override
+                    public void onSuccess(final RpcResult<EchoOutput> echoReplyValue) {
                         if (echoReplyValue.isSuccessful()) {
-                            connectionContext.changeStateToWorking();
-                            shouldBeDisconnected = false;
+                            echoRoundTripTimes.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - sentAt));
+                            onEchoReply(generation);
                         } else {
                             for (RpcError replyError : echoReplyValue.getErrors()) {
                                 Throwable cause = replyError.getCause();
@@ -90,29 +163,106 @@ public class SystemNotificationsListenerImpl implements SystemNotificationsListe
                                 if (LOG.isTraceEnabled()) {
                                     LOG.trace("Received EchoReply from [{}] in TIMEOUTING state, Error:{}", remoteAddress, cause);
                                 }
-
                             }
                         }
-                    } catch (Exception e) {
+                    }
+
+                    @Override
+                    public void onFailure(final Throwable t) {
                         if (LOG.isWarnEnabled()) {
-                            LOG.warn("Exception while  waiting for echoReply from [{}] in TIMEOUTING state: {}", remoteAddress, e.getMessage());
+                            LOG.warn("Exception while  waiting for echoReply from [{}] in TIMEOUTING state: {}", remoteAddress, t.getMessage());
                         }
 
                         if (LOG.isTraceEnabled()) {
-                            LOG.trace("Exception while  waiting for echoReply from [{}] in TIMEOUTING state: {}", remoteAddress, e);
+                            LOG.trace("Exception while  waiting for echoReply from [{}] in TIMEOUTING state: {}", remoteAddress, t);
                         }
-
-                    }
-                }
-                if (shouldBeDisconnected) {
-                    if (LOG.isInfoEnabled()) {
-                        LOG.info("ConnectionEvent:Closing connection as device is idle. Echo sent at {}. Device:{}, NodeId:{}",
-                                new Date(System.currentTimeMillis() - echoReplyTimeout), remoteAddress, connectionContext.getNodeId());
                     }
+                });
+    }
 
-                    connectionContext.closeConnection(true);
-                }
+    private void onEchoReply(final long generation) {
+        synchronized (probeLock) {
+            if (!probing || generation != probeGeneration) {
+                // late reply of already finished probe
+                return;
+            }
+            finishProbe();
+        }
+        connectionContext.changeStateToWorking();
+    }
+
+    private void onProbeExpired(final long generation, final InetSocketAddress remoteAddress) {
+        synchronized (probeLock) {
+            if (!probing || generation != probeGeneration) {
+                return;
             }
-        });
+            finishProbe();
+        }
+        closeIdleConnection(remoteAddress);
+    }
+
+    private void stopProbing() {
+        synchronized (probeLock) {
+            if (probing) {
+                finishProbe();
+            }
+        }
+    }
+
+    @GuardedBy("probeLock")
+    private void finishProbe() {
+        probing = false;
+        for (Timeout timeout : probeTimeouts) {
+            timeout.cancel();
+        }
+        probeTimeouts.clear();
+    }
+
+    private void closeIdleConnection(final InetSocketAddress remoteAddress) {
+        if (LOG.isInfoEnabled()) {
+            LOG.info("ConnectionEvent:Closing connection as device is idle. Echo sent at {}. Device:{}, NodeId:{}",
+                    new Date(System.currentTimeMillis() - echoReplyTimeout), remoteAddress, connectionContext.getNodeId());
+        }
+
+        unregisterEchoRoundTripTimes();
+        connectionContext.closeConnection(true);
+    }
+
+    /**
+     * Only the primary connection represents the device, auxiliary connections would overwrite its entry.
+     */
+    private void registerEchoRoundTripTimes(final FeaturesReply features) {
+        final NodeId nodeId = connectionContext.getNodeId();
+        if (registeredNodeId != null || nodeId == null
+                || (features.getAuxiliaryId() != null && features.getAuxiliaryId() != 0)) {
+            return;
+        }
+
+        final MessageIntelligenceAgency messageIntelligenceAgency = conductor.getMessageIntelligenceAgency();
+        if (messageIntelligenceAgency instanceof MessageIntelligenceAgencyImpl) {
+            ((MessageIntelligenceAgencyImpl) messageIntelligenceAgency).registerEchoRoundTripTimes(nodeId, echoRoundTripTimes);
+            registeredNodeId = nodeId;
+        }
+    }
+
+    private void unregisterEchoRoundTripTimes() {
+        final NodeId nodeId = registeredNodeId;
+        if (nodeId == null) {
+            return;
+        }
+        registeredNodeId = null;
+
+        final MessageIntelligenceAgency messageIntelligenceAgency = conductor.getMessageIntelligenceAgency();
+        if (messageIntelligenceAgency instanceof MessageIntelligenceAgencyImpl) {
+            ((MessageIntelligenceAgencyImpl) messageIntelligenceAgency).unregisterEchoRoundTripTimes(nodeId, echoRoundTripTimes);
+        }
+    }
+
+    /**
+     * @return round trip times [us] of successful echo replies on this connection
+     */
+    @VisibleForTesting
+    Histogram getEchoRoundTripTimes() {
+        return echoRoundTripTimes;
     }
 }
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.openflowplugin.impl.device;
+
+import com.google.common.base.Preconditions;
+import java.util.Arrays;
+import javax.annotation.Nonnull;
+import org.opendaylight.openflowplugin.api.openflow.connection.ConnectionContext;
+
+/**
+ * Spreads requests of one device over its primary and auxiliary connections. Requests sharing an ordering key (flow
+ * table, statistics type) always go over the same connection, so their mutual order is kept. Keys are assigned by
+ * rendezvous hashing, primary connection takes part in it as auxiliary id 0 (its id in features reply) - when
+ * an auxiliary connection comes or goes, only keys of that connection move.
+ * <p>
+ * Requests which have to be ordered against a barrier (barrier goes over primary connection only) must not be
+ * routed here at all, they stay on primary connection.
+ */
+public final class AuxiliaryConnectionRouter {
+
+    private static final Route[] NO_ROUTES = new Route[0];
+    private static final short PRIMARY_AUXILIARY_ID = 0;
+
+    private final ConnectionContext primaryConnectionContext;
+    private volatile Route[] routes = NO_ROUTES;
+
+    public AuxiliaryConnectionRouter(@Nonnull final ConnectionContext primaryConnectionContext) {
+        this.primaryConnectionContext = Preconditions.checkNotNull(primaryConnectionContext);
+    }
+
+    /**
+     * @param auxiliaryId       auxiliary id announced by switch in features reply
+     * @param connectionContext auxiliary connection with its own outbound queue
+     */
+    public synchronized void addConnection(final short auxiliaryId, @Nonnull final ConnectionContext connectionContext) {
+        final Route[] current = removeRoute(routes, auxiliaryId);
+        final Route[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = new Route(auxiliaryId, Preconditions.checkNotNull(connectionContext));
+        routes = updated;
+    }
+
+    /**
+     * @param auxiliaryId auxiliary id of dropped connection
+     */
+    public synchronized void removeConnection(final short auxiliaryId) {
+        routes = removeRoute(routes, auxiliaryId);
+    }
+
+    private static Route[] removeRoute(final Route[] current, final short auxiliaryId) {
+        for (int i = 0; i < current.length; i++) {
+            if (current[i].auxiliaryId == auxiliaryId) {
+                final Route[] updated = new Route[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, i);
+                System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                return updated;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * @param orderingKey key of requests which have to keep their order
+     * @return connection carrying requests of given key
+     */
+    public ConnectionContext select(final long orderingKey) {
+        final Route[] current = routes;
+        if (current.length == 0) {
+            return primaryConnectionContext;
+        }
+
+        ConnectionContext selected = primaryConnectionContext;
+        long selectedWeight = weight(orderingKey, PRIMARY_AUXILIARY_ID);
+        for (Route route : current) {
+            final long weight = weight(orderingKey, route.auxiliaryId);
+            if (weight > selectedWeight) {
+                selected = route.connectionContext;
+                selectedWeight = weight;
+            }
+        }
+        return selected;
+    }
+
+    public int getConnectionCount() {
+        return routes.length;
+    }
+
+    /**
+     * Finalizer of splitmix64 applied on key mixed with auxiliary id - well spread and cheap.
+     */
+    private static long weight(final long orderingKey, final short auxiliaryId) {
+        long z = orderingKey * 0x9E3779B97F4A7C15L + auxiliaryId;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static final class Route {
+        private final short auxiliaryId;
+        private final ConnectionContext connectionContext;
+
+        private Route(final short auxiliaryId, final ConnectionContext connectionContext) {
+            this.auxiliaryId = auxiliaryId;
+            this.connectionContext = connectionContext;
+        }
+    }
+}
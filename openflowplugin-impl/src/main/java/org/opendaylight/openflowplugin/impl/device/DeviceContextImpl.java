@@ -17,7 +17,6 @@ import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import io.netty.util.Timeout;
 import java.math.BigInteger;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -40,6 +39,8 @@ import org.opendaylight.openflowplugin.api.openflow.device.RequestContext;
 import org.opendaylight.openflowplugin.api.openflow.device.TranslatorLibrary;
 import org.opendaylight.openflowplugin.api.openflow.device.Xid;
 import org.opendaylight.openflowplugin.api.openflow.device.handlers.MultiMsgCollector;
+import org.opendaylight.openflowplugin.api.openflow.device.handlers.MultipartReplySink;
+import org.opendaylight.openflowplugin.api.openflow.lifecycle.LifecycleConductor;
 import org.opendaylight.openflowplugin.api.openflow.md.core.SwitchConnectionDistinguisher;
 import org.opendaylight.openflowplugin.api.openflow.md.core.TranslatorKey;
 import org.opendaylight.openflowplugin.api.openflow.registry.ItemLifeCycleRegistry;
@@ -61,11 +62,13 @@ import org.opendaylight.openflowplugin.extension.api.path.MessagePath;
 import org.opendaylight.openflowplugin.impl.common.ItemLifeCycleSourceImpl;
 import org.opendaylight.openflowplugin.impl.common.NodeStaticReplyTranslatorUtil;
 import org.opendaylight.openflowplugin.impl.device.listener.MultiMsgCollectorImpl;
+import org.opendaylight.openflowplugin.impl.device.listener.StreamingMultiMsgCollectorImpl;
 import org.opendaylight.openflowplugin.impl.registry.flow.DeviceFlowRegistryImpl;
 import org.opendaylight.openflowplugin.impl.registry.flow.FlowRegistryKeyFactory;
 import org.opendaylight.openflowplugin.impl.registry.group.DeviceGroupRegistryImpl;
 import org.opendaylight.openflowplugin.impl.registry.meter.DeviceMeterRegistryImpl;
 import org.opendaylight.openflowplugin.impl.rpc.RpcContextImpl;
+import org.opendaylight.openflowplugin.impl.statistics.ofpspecific.Histogram;
 import org.opendaylight.openflowplugin.impl.util.DeviceInitializationUtils;
 import org.opendaylight.openflowplugin.impl.util.MdSalRegistrationUtils;
 import org.opendaylight.openflowplugin.openflow.md.core.session.SwitchConnectionCookieOFImpl;
@@ -123,11 +126,13 @@ public class DeviceContextImpl implements DeviceContext, ExtensionConverterProvi
     private final DeviceState deviceState;
     private final DataBroker dataBroker;
     private final Map<SwitchConnectionDistinguisher, ConnectionContext> auxiliaryConnectionContexts;
+    private final AuxiliaryConnectionRouter auxiliaryConnectionRouter;
     private final TransactionChainManager transactionChainManager;
     private final DeviceFlowRegistry deviceFlowRegistry;
     private final DeviceGroupRegistry deviceGroupRegistry;
     private final DeviceMeterRegistry deviceMeterRegistry;
     private final PacketInRateLimiter packetInLimiter;
+    private PacketInTokenBucketLimiter packetInTokenBucketLimiter;
     private final MessageSpy messageSpy;
     private final ItemLifeCycleKeeper flowLifeCycleKeeper;
     private NotificationPublishService notificationPublishService;
@@ -143,6 +148,8 @@ public class DeviceContextImpl implements DeviceContext, ExtensionConverterProvi
     private ExtensionConverterProvider extensionConverterProvider;
 
     private final boolean switchFeaturesMandatory;
+    private TableFeaturesCache tableFeaturesCache;
+    private boolean useBulkFlowMods;
     private StatisticsContext statisticsContext;
 
     private final NodeId nodeId;
@@ -159,14 +166,27 @@ public class DeviceContextImpl implements DeviceContext, ExtensionConverterProvi
                       @Nonnull final OutboundQueueProvider outboundQueueProvider,
                       @Nonnull final TranslatorLibrary translatorLibrary,
                       final boolean switchFeaturesMandatory) {
+        this(primaryConnectionContext, deviceState, dataBroker, _messageSpy, outboundQueueProvider, translatorLibrary,
+                switchFeaturesMandatory, new DeviceFlowRegistryImpl(_messageSpy));
+    }
+
+    DeviceContextImpl(@Nonnull final ConnectionContext primaryConnectionContext,
+                      @Nonnull final DeviceState deviceState,
+                      @Nonnull final DataBroker dataBroker,
+                      @Nonnull final MessageSpy _messageSpy,
+                      @Nonnull final OutboundQueueProvider outboundQueueProvider,
+                      @Nonnull final TranslatorLibrary translatorLibrary,
+                      final boolean switchFeaturesMandatory,
+                      @Nonnull final DeviceFlowRegistry deviceFlowRegistry) {
         this.switchFeaturesMandatory = switchFeaturesMandatory;
         this.primaryConnectionContext = Preconditions.checkNotNull(primaryConnectionContext);
         this.deviceState = Preconditions.checkNotNull(deviceState);
         this.dataBroker = Preconditions.checkNotNull(dataBroker);
         this.outboundQueueProvider = Preconditions.checkNotNull(outboundQueueProvider);
         this.transactionChainManager = new TransactionChainManager(dataBroker, deviceState);
-        auxiliaryConnectionContexts = new HashMap<>();
-        deviceFlowRegistry = new DeviceFlowRegistryImpl();
+        auxiliaryConnectionContexts = new ConcurrentHashMap<>();
+        auxiliaryConnectionRouter = new AuxiliaryConnectionRouter(primaryConnectionContext);
+        this.deviceFlowRegistry = Preconditions.checkNotNull(deviceFlowRegistry);
         deviceGroupRegistry = new DeviceGroupRegistryImpl();
         deviceMeterRegistry = new DeviceMeterRegistryImpl();
         messageSpy = _messageSpy;
@@ -201,6 +221,45 @@ public class DeviceContextImpl implements DeviceContext, ExtensionConverterProvi
         transactionChainManager.initialSubmitWriteTransaction();
     }
 
+    /**
+     * PacketIns exceeding rate of their ingress port and reason or rate of device are dropped (burst of one second
+     * is allowed), 0 means no limit.
+     */
+    void setPacketInRateLimits(final long portRate, final long deviceRate) {
+        packetInTokenBucketLimiter = new PacketInTokenBucketLimiter(portRate, Math.max(portRate, 1L),
+                deviceRate, Math.max(deviceRate, 1L), messageSpy);
+    }
+
+    /**
+     * Datastore operations of device are merged into one transaction up to coalescingSize operations
+     * or for coalescingDelay since submit was requested.
+     */
+    void setTransactionCoalescing(final LifecycleConductor conductor, final int coalescingSize, final long coalescingDelay) {
+        transactionChainManager.setCoalescing(conductor, coalescingSize, coalescingDelay);
+    }
+
+    /**
+     * @param tableFeaturesCache table features are looked up there before they are requested from device
+     */
+    void setTableFeaturesCache(final TableFeaturesCache tableFeaturesCache) {
+        this.tableFeaturesCache = tableFeaturesCache;
+    }
+
+    /**
+     * @param useBulkFlowMods if true then flat batch sends its flow steps as bulk of FLOW_MODs
+     */
+    void setUseBulkFlowMods(final boolean useBulkFlowMods) {
+        this.useBulkFlowMods = useBulkFlowMods;
+    }
+
+    Histogram getTransactionCommitSizeHistogram() {
+        return transactionChainManager.getCommitSizeHistogram();
+    }
+
+    Histogram getTransactionCommitLatencyHistogram() {
+        return transactionChainManager.getCommitLatencyHistogram();
+    }
+
     @Override
     public Long reserveXidForDeviceMessage() {
         return outboundQueueProvider.reserveEntry();
@@ -210,6 +269,13 @@ public class DeviceContextImpl implements DeviceContext, ExtensionConverterProvi
     public void addAuxiliaryConnectionContext(final ConnectionContext connectionContext) {
         final SwitchConnectionDistinguisher connectionDistinguisher = createConnectionDistinguisher(connectionContext);
         auxiliaryConnectionContexts.put(connectionDistinguisher, connectionContext);
+        if (connectionContext.getOutboundQueueProvider() != null) {
+            connectionContext.getConnectionAdapter().setPacketInFiltering(!DEVICE_CONTEXT_STATE.WORKING.equals(deviceCtxState));
+            auxiliaryConnectionRouter.addConnection(connectionContext.getFeatures().getAuxiliaryId(), connectionContext);
+            LOG.debug("auxiliary connection added: {}, nodeId:{}, auxiliary connections carrying traffic: {}",
+                    connectionContext.getConnectionAdapter().getRemoteAddress(), nodeId,
+                    auxiliaryConnectionRouter.getConnectionCount());
+        }
     }
 
     private static SwitchConnectionDistinguisher createConnectionDistinguisher(final ConnectionContext connectionContext) {
@@ -221,6 +287,7 @@ public class DeviceContextImpl implements DeviceContext, ExtensionConverterProvi
         final SwitchConnectionDistinguisher connectionDistinguisher = createConnectionDistinguisher(connectionContext);
         LOG.debug("auxiliary connection dropped: {}, nodeId:{}", connectionContext.getConnectionAdapter()
                 .getRemoteAddress(), nodeId);
+        auxiliaryConnectionRouter.removeConnection(connectionContext.getFeatures().getAuxiliaryId());
         auxiliaryConnectionContexts.remove(connectionDistinguisher);
     }
 
@@ -279,7 +346,8 @@ public class DeviceContextImpl implements DeviceContext, ExtensionConverterProvi
             return Futures.immediateFailedFuture(new IllegalStateException(errMsg));
         }
         /* Routed RPC registration */
-        MdSalRegistrationUtils.registerMasterServices(getRpcContext(), DeviceContextImpl.this, OfpRole.BECOMEMASTER);
+        MdSalRegistrationUtils.registerMasterServices(getRpcContext(), DeviceContextImpl.this, OfpRole.BECOMEMASTER,
+                tableFeaturesCache, useBulkFlowMods);
 
         if (isStatisticsRpcEnabled) {
             MdSalRegistrationUtils.registerStatCompatibilityServices(getRpcContext(), this,
@@ -291,7 +359,7 @@ public class DeviceContextImpl implements DeviceContext, ExtensionConverterProvi
         transactionChainManager.activateTransactionManager();
         /* Init Collecting NodeInfo */
         final ListenableFuture<Void> initCollectingDeviceInfo = DeviceInitializationUtils.initializeNodeInformation(
-                DeviceContextImpl.this, switchFeaturesMandatory);
+                DeviceContextImpl.this, switchFeaturesMandatory, tableFeaturesCache);
         /* Init Collecting StatInfo */
         final ListenableFuture<Boolean> statPollFuture = Futures.transform(initCollectingDeviceInfo,
                 new AsyncFunction<Void, Boolean>() {
@@ -354,6 +422,11 @@ public class DeviceContextImpl implements DeviceContext, ExtensionConverterProvi
         return auxiliaryConnectionContexts.get(new SwitchConnectionCookieOFImpl(cookie.longValue()));
     }
 
+    @Override
+    public ConnectionContext selectConnectionContext(final long orderingKey) {
+        return auxiliaryConnectionRouter.select(orderingKey);
+    }
+
     @Override
     public DeviceFlowRegistry getDeviceFlowRegistry() {
         return deviceFlowRegistry;
@@ -449,12 +522,19 @@ public class DeviceContextImpl implements DeviceContext, ExtensionConverterProvi
 
         if (packetReceived == null) {
             LOG.debug("Received a null packet from switch {}", connectionAdapter.getRemoteAddress());
-            messageSpy.spyMessage(packetReceived.getImplementedInterface(), MessageSpy.STATISTIC_GROUP.FROM_SWITCH_TRANSLATE_SRC_FAILURE);
+            messageSpy.spyMessage(packetInMessage.getImplementedInterface(), MessageSpy.STATISTIC_GROUP.FROM_SWITCH_TRANSLATE_SRC_FAILURE);
             return;
         } else {
             messageSpy.spyMessage(packetReceived.getImplementedInterface(), MessageSpy.STATISTIC_GROUP.FROM_SWITCH_TRANSLATE_OUT_SUCCESS);
         }
 
+        if (packetInTokenBucketLimiter != null
+                && !packetInTokenBucketLimiter.acquirePermit(packetReceived.getIngress(), packetReceived.getPacketInReason())) {
+            // drop is counted by limiter
+            LOG.debug("Packet rate of port or device exceeded");
+            return;
+        }
+
         if (!packetInLimiter.acquirePermit()) {
             LOG.debug("Packet limited");
             // TODO: save packet into emergency slot if possible
@@ -565,6 +645,13 @@ public class DeviceContextImpl implements DeviceContext, ExtensionConverterProvi
         return new MultiMsgCollectorImpl(this, requestContext);
     }
 
+    @Override
+    public MultiMsgCollector getMultiMsgCollector(final RequestContext<List<MultipartReply>> requestContext,
+                                                  final MultipartReplySink sink) {
+        return new StreamingMultiMsgCollectorImpl(this, requestContext, sink,
+                deviceState.getFeatures().getDatapathId(), deviceState.getFeatures().getVersion());
+    }
+
     @Override
     public NodeConnectorRef lookupNodeConnectorRef(final Long portNumber) {
         return nodeConnectorCache.get(portNumber);
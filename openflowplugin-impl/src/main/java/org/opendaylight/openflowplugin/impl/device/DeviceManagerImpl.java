@@ -9,6 +9,7 @@ package org.opendaylight.openflowplugin.impl.device;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import com.google.common.base.Strings;
 import com.google.common.base.Verify;
 import com.google.common.collect.Iterators;
 import com.google.common.util.concurrent.FutureCallback;
@@ -16,6 +17,7 @@ import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import io.netty.util.Timeout;
 import io.netty.util.TimerTask;
+import java.nio.file.Paths;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.concurrent.ConcurrentHashMap;
@@ -41,10 +43,15 @@ import org.opendaylight.openflowplugin.api.openflow.device.TranslatorLibrary;
 import org.opendaylight.openflowplugin.api.openflow.device.handlers.DeviceInitializationPhaseHandler;
 import org.opendaylight.openflowplugin.api.openflow.device.handlers.DeviceTerminationPhaseHandler;
 import org.opendaylight.openflowplugin.api.openflow.lifecycle.LifecycleConductor;
+import org.opendaylight.openflowplugin.api.openflow.statistics.ofpspecific.MessageIntelligenceAgency;
+import org.opendaylight.openflowplugin.api.openflow.statistics.ofpspecific.MessageSpy;
 import org.opendaylight.openflowplugin.extension.api.ExtensionConverterProviderKeeper;
 import org.opendaylight.openflowplugin.extension.api.core.extension.ExtensionConverterProvider;
 import org.opendaylight.openflowplugin.impl.connection.OutboundQueueProviderImpl;
 import org.opendaylight.openflowplugin.impl.device.listener.OpenflowProtocolListenerFullImpl;
+import org.opendaylight.openflowplugin.impl.registry.flow.CompactDeviceFlowRegistryImpl;
+import org.opendaylight.openflowplugin.impl.registry.flow.DeviceFlowRegistryImpl;
+import org.opendaylight.openflowplugin.impl.statistics.ofpspecific.MessageIntelligenceAgencyImpl;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.NodeId;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.Nodes;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.NodesBuilder;
@@ -80,6 +87,15 @@ public class DeviceManagerImpl implements DeviceManager, ExtensionConverterProvi
 
     private final LifecycleConductor conductor;
     private boolean isStatisticsRpcEnabled;
+    private boolean isFlowRegistryCompact;
+    private boolean isFlowRegistryKeyNormalized;
+    private long packetInPortRate;
+    private long packetInDeviceRate;
+    private int transactionCoalescingSize;
+    private long transactionCoalescingDelay;
+    private boolean useAuxiliaryConnections;
+    private boolean useBulkFlowMods;
+    private TableFeaturesCache tableFeaturesCache;
 
     public DeviceManagerImpl(@Nonnull final DataBroker dataBroker,
                              final long globalNotificationQuota, final boolean switchFeaturesMandatory,
@@ -129,6 +145,10 @@ public class DeviceManagerImpl implements DeviceManager, ExtensionConverterProvi
         Preconditions.checkArgument(connectionContext != null);
 
         NodeId nodeId = connectionContext.getNodeId();
+        if (useAuxiliaryConnections && isAuxiliary(connectionContext)) {
+            return auxiliaryConnected(connectionContext);
+        }
+
         /**
          * This part prevent destroy another device context. Throwing here an exception result to propagate close connection
          * in {@link org.opendaylight.openflowplugin.impl.connection.org.opendaylight.openflowplugin.impl.connection.HandshakeContextImpl}
@@ -159,15 +179,37 @@ public class DeviceManagerImpl implements DeviceManager, ExtensionConverterProvi
         connectionContext.setOutboundQueueHandleRegistration(outboundQueueHandlerRegistration);
 
         final DeviceState deviceState = createDeviceState(connectionContext);
-        final DeviceContext deviceContext = new DeviceContextImpl(connectionContext,
+        final MessageIntelligenceAgency messageIntelligenceAgency = conductor.getMessageIntelligenceAgency();
+        final MessageSpy messageSpy = messageIntelligenceAgency instanceof MessageIntelligenceAgencyImpl
+                ? ((MessageIntelligenceAgencyImpl) messageIntelligenceAgency).createDeviceMessageSpy(nodeId)
+                : messageIntelligenceAgency;
+        final DeviceContextImpl deviceContext = new DeviceContextImpl(connectionContext,
                 deviceState,
                 dataBroker,
-                conductor.getMessageIntelligenceAgency(),
+                messageSpy,
                 outboundQueueProvider,
                 translatorLibrary,
-                switchFeaturesMandatory);
+                switchFeaturesMandatory,
+                isFlowRegistryCompact
+                        ? new CompactDeviceFlowRegistryImpl(messageSpy)
+                        : new DeviceFlowRegistryImpl(messageSpy, isFlowRegistryKeyNormalized));
+
+        if (packetInPortRate > 0 || packetInDeviceRate > 0) {
+            deviceContext.setPacketInRateLimits(packetInPortRate, packetInDeviceRate);
+        }
+
+        if (transactionCoalescingSize > 0) {
+            deviceContext.setTransactionCoalescing(conductor, transactionCoalescingSize, transactionCoalescingDelay);
+        }
+        deviceContext.setTableFeaturesCache(tableFeaturesCache);
+        deviceContext.setUseBulkFlowMods(useBulkFlowMods);
 
         Verify.verify(deviceContexts.putIfAbsent(nodeId, deviceContext) == null, "DeviceCtx still not closed.");
+        if (messageIntelligenceAgency instanceof MessageIntelligenceAgencyImpl) {
+            ((MessageIntelligenceAgencyImpl) messageIntelligenceAgency).registerTransactionHistograms(nodeId,
+                    deviceContext.getTransactionCommitSizeHistogram(),
+                    deviceContext.getTransactionCommitLatencyHistogram());
+        }
 
         ((ExtensionConverterProviderKeeper) deviceContext).setExtensionConverterProvider(extensionConverterProvider);
         deviceContext.setStatisticsRpcEnabled(isStatisticsRpcEnabled);
@@ -185,6 +227,41 @@ public class DeviceManagerImpl implements DeviceManager, ExtensionConverterProvi
         return true;
     }
 
+    private static boolean isAuxiliary(final ConnectionContext connectionContext) {
+        final Short auxiliaryId = connectionContext.getFeatures().getAuxiliaryId();
+        return auxiliaryId != null && auxiliaryId != 0;
+    }
+
+    /**
+     * Auxiliary connection gets its own outbound queue and carries part of device traffic, see
+     * {@link AuxiliaryConnectionRouter}. It is refused while device is not connected by primary connection.
+     */
+    private boolean auxiliaryConnected(final ConnectionContext connectionContext) {
+        final NodeId nodeId = connectionContext.getNodeId();
+        final DeviceContext deviceContext = deviceContexts.get(nodeId);
+        if (deviceContext == null) {
+            LOG.info("Rejecting auxiliary connection {} from node {} which is not connected by primary connection",
+                    connectionContext.getFeatures().getAuxiliaryId(), nodeId);
+            return false;
+        }
+
+        LOG.info("ConnectionEvent: Auxiliary connection {} established, Device:{}, NodeId:{}",
+                connectionContext.getFeatures().getAuxiliaryId(),
+                connectionContext.getConnectionAdapter().getRemoteAddress(), nodeId);
+        connectionContext.setDeviceDisconnectedHandler(DeviceManagerImpl.this);
+        final ConnectionAdapter connectionAdapter = connectionContext.getConnectionAdapter();
+        connectionAdapter.setPacketInFiltering(true);
+
+        final OutboundQueueProvider outboundQueueProvider = new OutboundQueueProviderImpl(connectionContext.getFeatures().getVersion());
+        connectionContext.setOutboundQueueProvider(outboundQueueProvider);
+        connectionContext.setOutboundQueueHandleRegistration(
+                connectionAdapter.registerOutboundQueueHandler(outboundQueueProvider, barrierCountLimit, barrierIntervalNanos));
+        connectionAdapter.setMessageListener(new OpenflowProtocolListenerFullImpl(connectionAdapter, deviceContext));
+
+        deviceContext.addAuxiliaryConnectionContext(connectionContext);
+        return true;
+    }
+
     private DeviceStateImpl createDeviceState(final @Nonnull ConnectionContext connectionContext) {
         final DeviceStateImpl deviceState = new DeviceStateImpl(connectionContext.getFeatures(), connectionContext.getNodeId());
         deviceState.setSkipTableFeatures(skipTableFeatures);
@@ -235,7 +312,14 @@ public class DeviceManagerImpl implements DeviceManager, ExtensionConverterProvi
     @Override
     public void onDeviceContextLevelDown(final DeviceContext deviceContext) {
         LOG.debug("onDeviceContextClosed for Node {}", deviceContext.getDeviceState().getNodeId());
-        deviceContexts.remove(deviceContext.getPrimaryConnectionContext().getNodeId(), deviceContext);
+        final NodeId nodeId = deviceContext.getPrimaryConnectionContext().getNodeId();
+        if (deviceContexts.remove(nodeId, deviceContext)) {
+            final MessageIntelligenceAgency messageIntelligenceAgency = conductor.getMessageIntelligenceAgency();
+            if (messageIntelligenceAgency instanceof MessageIntelligenceAgencyImpl) {
+                ((MessageIntelligenceAgencyImpl) messageIntelligenceAgency).unregisterTransactionHistograms(nodeId);
+                ((MessageIntelligenceAgencyImpl) messageIntelligenceAgency).unregisterDeviceMessageSpy(nodeId);
+            }
+        }
         updatePacketInRateLimiters();
     }
 
@@ -255,6 +339,49 @@ public class DeviceManagerImpl implements DeviceManager, ExtensionConverterProvi
         this.isStatisticsRpcEnabled = isStatisticsRpcEnabled;
     }
 
+    @Override
+    public void setFlowRegistryCompact(final boolean isFlowRegistryCompact) {
+        this.isFlowRegistryCompact = isFlowRegistryCompact;
+    }
+
+    @Override
+    public void setFlowRegistryKeyNormalized(final boolean isFlowRegistryKeyNormalized) {
+        this.isFlowRegistryKeyNormalized = isFlowRegistryKeyNormalized;
+    }
+
+    @Override
+    public void setPacketInRateLimits(final long packetInPortRate, final long packetInDeviceRate) {
+        this.packetInPortRate = packetInPortRate;
+        this.packetInDeviceRate = packetInDeviceRate;
+    }
+
+    @Override
+    public void setTransactionCoalescing(final int transactionCoalescingSize, final long transactionCoalescingDelay) {
+        this.transactionCoalescingSize = transactionCoalescingSize;
+        this.transactionCoalescingDelay = transactionCoalescingDelay;
+    }
+
+    @Override
+    public void setUseAuxiliaryConnections(final boolean useAuxiliaryConnections) {
+        this.useAuxiliaryConnections = useAuxiliaryConnections;
+    }
+
+    @Override
+    public void setUseBulkFlowMods(final boolean useBulkFlowMods) {
+        this.useBulkFlowMods = useBulkFlowMods;
+    }
+
+    @Override
+    public void setTableFeaturesCache(final boolean cacheTableFeatures, final String tableFeaturesCacheDirectory) {
+        if (!cacheTableFeatures) {
+            tableFeaturesCache = null;
+        } else if (Strings.isNullOrEmpty(tableFeaturesCacheDirectory)) {
+            tableFeaturesCache = new TableFeaturesCache(null);
+        } else {
+            tableFeaturesCache = new TableFeaturesCache(Paths.get(tableFeaturesCacheDirectory));
+        }
+    }
+
     @Override
     public void setExtensionConverterProvider(final ExtensionConverterProvider extensionConverterProvider) {
         this.extensionConverterProvider = extensionConverterProvider;
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.openflowplugin.impl.device;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Ticker;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import javax.annotation.Nullable;
+import org.opendaylight.openflowplugin.api.openflow.statistics.ofpspecific.MessageSpy;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.NodeConnectorId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.NodeConnectorRef;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.NodeConnector;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.NodeConnectorKey;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.packet.service.rev130709.PacketInReason;
+
+/**
+ * Token bucket packetIn limiter of one device. Each packetIn has to pass bucket of its ingress port and reason
+ * and then device-wide bucket, so one flooding port can not starve other ports of the same device.
+ * <p>
+ * Buckets are kept as theoretical arrival times (virtual scheduling form of token bucket) in striped atomic
+ * counters - acquiring permit is a single CAS per bucket and never takes a lock. Port and reason pairs hashed
+ * into the same stripe share one bucket. Rate 0 turns the port or device bucket off.
+ */
+final class PacketInTokenBucketLimiter {
+
+    @VisibleForTesting
+    static final int STRIPES = 256;
+
+    private final AtomicLongArray portBuckets = new AtomicLongArray(STRIPES);
+    private final AtomicLong deviceBucket = new AtomicLong();
+    private final long portInterval;
+    private final long portTolerance;
+    private final long deviceInterval;
+    private final long deviceTolerance;
+    private final MessageSpy messageSpy;
+    private final Ticker ticker;
+    private final long startNanos;
+
+    /**
+     * @param portRate    permits per second of one ingress port and reason, 0 means no limit
+     * @param portBurst   permits of one ingress port and reason available at once
+     * @param deviceRate  permits per second of whole device, 0 means no limit
+     * @param deviceBurst permits of whole device available at once
+     * @param messageSpy  dropped packetIn counter
+     */
+    PacketInTokenBucketLimiter(final long portRate, final long portBurst, final long deviceRate, final long deviceBurst,
+                               final MessageSpy messageSpy) {
+        this(portRate, portBurst, deviceRate, deviceBurst, messageSpy, Ticker.systemTicker());
+    }
+
+    @VisibleForTesting
+    PacketInTokenBucketLimiter(final long portRate, final long portBurst, final long deviceRate, final long deviceBurst,
+                               final MessageSpy messageSpy, final Ticker ticker) {
+        Preconditions.checkArgument(portRate >= 0 && portBurst > 0);
+        Preconditions.checkArgument(deviceRate >= 0 && deviceBurst > 0);
+        this.messageSpy = Preconditions.checkNotNull(messageSpy);
+        this.ticker = Preconditions.checkNotNull(ticker);
+        portInterval = portRate == 0 ? 0 : TimeUnit.SECONDS.toNanos(1) / portRate;
+        portTolerance = portInterval * (portBurst - 1);
+        deviceInterval = deviceRate == 0 ? 0 : TimeUnit.SECONDS.toNanos(1) / deviceRate;
+        deviceTolerance = deviceInterval * (deviceBurst - 1);
+        startNanos = ticker.read();
+    }
+
+    /**
+     * @param ingress ingress port of packetIn
+     * @param reason  reason of packetIn
+     * @return true if packetIn fits into rate of its ingress port and reason and into rate of device,
+     * otherwise the drop is reported to {@link MessageSpy}
+     */
+    boolean acquirePermit(@Nullable final NodeConnectorRef ingress, @Nullable final Class<? extends PacketInReason> reason) {
+        // relative to start, so untouched buckets (0) are always in the past
+        final long now = ticker.read() - startNanos;
+        if ((portInterval == 0 || tryAcquire(portBuckets, stripe(ingress, reason), now, portInterval, portTolerance))
+                && (deviceInterval == 0 || tryAcquire(deviceBucket, now, deviceInterval, deviceTolerance))) {
+            return true;
+        }
+
+        messageSpy.spyPacketInDropped(extractNodeConnectorId(ingress), reason == null ? PacketInReason.class : reason);
+        return false;
+    }
+
+    private static NodeConnectorId extractNodeConnectorId(@Nullable final NodeConnectorRef ingress) {
+        if (ingress == null) {
+            return null;
+        }
+        final NodeConnectorKey key = ingress.getValue().firstKeyOf(NodeConnector.class, NodeConnectorKey.class);
+        return key == null ? null : key.getId();
+    }
+
+    @VisibleForTesting
+    static int stripe(@Nullable final NodeConnectorRef ingress, @Nullable final Class<?> reason) {
+        int hash = 31 * (ingress == null ? 0 : ingress.hashCode()) + (reason == null ? 0 : reason.hashCode());
+        // spread bits as both hash codes can be poorly distributed in low bits
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        return hash & (STRIPES - 1);
+    }
+
+    private static boolean tryAcquire(final AtomicLongArray buckets, final int index, final long now,
+                                      final long interval, final long tolerance) {
+        for (;;) {
+            final long arrival = buckets.get(index);
+            final long base = Math.max(arrival, now);
+            if (base - now > tolerance) {
+                return false;
+            }
+            if (buckets.compareAndSet(index, arrival, base + interval)) {
+                return true;
+            }
+        }
+    }
+
+    private static boolean tryAcquire(final AtomicLong bucket, final long now, final long interval,
+                                      final long tolerance) {
+        for (;;) {
+            final long arrival = bucket.get();
+            final long base = Math.max(arrival, now);
+            if (base - now > tolerance) {
+                return false;
+            }
+            if (bucket.compareAndSet(arrival, base + interval)) {
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,378 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.openflowplugin.impl.device;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.opendaylight.openflowplugin.impl.common.NodeStaticReplyTranslatorUtil;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.MultipartReply;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.multipart.reply.multipart.reply.body.multipart.reply.table.features._case.MultipartReplyTableFeatures;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.table.types.rev131026.table.features.TableFeatures;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Table features of devices keyed by datapath id and device description, so reconnecting device does not have
+ * to send (often hundreds of kilobytes of) table features again. Entries are content addressed - devices of the same
+ * model and software share one translated copy.
+ * <p>
+ * When directory is given, every entry is also stored there in one file per key and read back lazily after
+ * restart. Files carry encoded replies rather than translated table features, so they are translated by the current
+ * translator when loaded. Unreadable files are treated as missing.
+ * <p>
+ * Cache does not notice table features changed without change of device description (e.g. table configuration
+ * pushed to the switch), entry has to be {@link #invalidate(BigInteger) invalidated} then. Entries no longer referenced
+ * by any key are dropped, so memory is bounded by number of distinct table features of known devices.
+ */
+public final class TableFeaturesCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TableFeaturesCache.class);
+    private static final HashFunction DIGEST_FUNCTION = Hashing.sha256();
+    private static final int FILE_MAGIC = 0x4f465446;
+    private static final int FILE_VERSION = 1;
+    private static final String FILE_SUFFIX = ".tf";
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+
+    private final ConcurrentMap<Key, HashCode> digests = new ConcurrentHashMap<>();
+    private final ConcurrentMap<HashCode, Entry> entries = new ConcurrentHashMap<>();
+    @Nullable
+    private final Path directory;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+
+    /**
+     * @param directory where entries are persisted, null keeps them in memory only
+     */
+    public TableFeaturesCache(@Nullable final Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * @param key device identification
+     * @return translated table features or null if they are not known for given key
+     */
+    @Nullable
+    public List<TableFeatures> get(@Nonnull final Key key) {
+        HashCode digest = digests.get(key);
+        if (digest == null && directory != null) {
+            digest = load(key);
+        }
+        final Entry entry = digest == null ? null : entries.get(digest);
+        final List<TableFeatures> tables = entry == null ? null : entry.getTables();
+        if (tables == null) {
+            if (digest != null && digests.remove(key, digest)) {
+                release(digest);
+            }
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return tables;
+    }
+
+    /**
+     * @param key device identification
+     * @param replies table features replies received from device
+     */
+    public void put(@Nonnull final Key key, @Nonnull final Collection<MultipartReply> replies) {
+        final byte[] encoded;
+        try {
+            encoded = TableFeaturesCodec.encode(replies);
+        } catch (final RuntimeException e) {
+            LOG.debug("Table features of {} can not be cached", key, e);
+            return;
+        }
+        final HashCode digest = register(key, encoded);
+        if (directory != null) {
+            store(key, digest, encoded);
+        }
+    }
+
+    /**
+     * Forgets table features of given key, both in memory and in directory.
+     */
+    public void invalidate(@Nonnull final Key key) {
+        final HashCode digest = digests.remove(key);
+        if (digest != null) {
+            release(digest);
+        }
+        if (directory != null) {
+            try {
+                Files.deleteIfExists(fileOf(key));
+            } catch (final IOException e) {
+                LOG.warn("Failed to delete cached table features of {}", key, e);
+            }
+        }
+    }
+
+    /**
+     * Forgets table features of all known keys of given datapath id, e.g. after table features were updated.
+     */
+    public void invalidate(@Nonnull final BigInteger datapathId) {
+        for (final Key key : digests.keySet()) {
+            if (key.datapathId.equals(datapathId)) {
+                invalidate(key);
+            }
+        }
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * @return number of entries read from directory
+     */
+    public long getLoadCount() {
+        return loads.get();
+    }
+
+    /**
+     * @return number of distinct table features kept in memory
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "hits: %d, misses: %d, loads: %d, keys: %d, distinct entries: %d",
+                getHitCount(), getMissCount(), getLoadCount(), digests.size(), size());
+    }
+
+    private HashCode register(final Key key, final byte[] encoded) {
+        final HashCode digest = DIGEST_FUNCTION.hashBytes(encoded);
+        if (!entries.containsKey(digest)) {
+            entries.putIfAbsent(digest, new Entry(encoded));
+        }
+        final HashCode previous = digests.put(key, digest);
+        if (previous != null && !previous.equals(digest)) {
+            release(previous);
+        }
+        return digest;
+    }
+
+    /**
+     * Drops entry not referenced by any key. Entry registered concurrently under the same digest may get dropped
+     * too, next lookup is a miss then and the entry is registered again.
+     */
+    private void release(final HashCode digest) {
+        if (!digests.containsValue(digest)) {
+            entries.remove(digest);
+        }
+    }
+
+    private Path fileOf(final Key key) {
+        return directory.resolve(DIGEST_FUNCTION.hashString(key.toString(), StandardCharsets.UTF_8) + FILE_SUFFIX);
+    }
+
+    @Nullable
+    private HashCode load(final Key key) {
+        final byte[] content;
+        try {
+            content = Files.readAllBytes(fileOf(key));
+        } catch (final NoSuchFileException e) {
+            return null;
+        } catch (final IOException e) {
+            LOG.warn("Failed to read cached table features of {}", key, e);
+            return null;
+        }
+
+        try {
+            final DataInputStream in = new DataInputStream(new ByteArrayInputStream(content));
+            if (in.readInt() != FILE_MAGIC || in.readInt() != FILE_VERSION || !key.equals(Key.read(in))) {
+                LOG.debug("Cached table features file of {} does not match", key);
+                return null;
+            }
+            final byte[] storedDigest = new byte[DIGEST_FUNCTION.bits() / Byte.SIZE];
+            in.readFully(storedDigest);
+            final byte[] encoded = new byte[in.available()];
+            in.readFully(encoded);
+            if (!Arrays.equals(storedDigest, DIGEST_FUNCTION.hashBytes(encoded).asBytes())) {
+                LOG.warn("Cached table features file of {} is corrupted", key);
+                return null;
+            }
+            loads.incrementAndGet();
+            return register(key, encoded);
+        } catch (final IOException e) {
+            LOG.warn("Cached table features file of {} is corrupted", key, e);
+            return null;
+        }
+    }
+
+    /**
+     * Writes complete file aside and moves it in place, so readers never see partially written entry.
+     */
+    private void store(final Key key, final HashCode digest, final byte[] encoded) {
+        final Path file = fileOf(key);
+        Path tempFile = null;
+        try {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream(encoded.length + 256);
+            final DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(FILE_MAGIC);
+            out.writeInt(FILE_VERSION);
+            key.write(out);
+            out.write(digest.asBytes());
+            out.write(encoded);
+            out.flush();
+
+            Files.createDirectories(directory);
+            tempFile = Files.createTempFile(directory, file.getFileName().toString(), TEMP_FILE_SUFFIX);
+            Files.write(tempFile, bytes.toByteArray());
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (final IOException e) {
+            LOG.warn("Failed to store table features of {} to {}", key, file, e);
+            if (tempFile != null) {
+                try {
+                    Files.deleteIfExists(tempFile);
+                } catch (final IOException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+            }
+        }
+    }
+
+    /**
+     * Encoded replies, translated when asked for the first time.
+     */
+    private static final class Entry {
+        private final byte[] encoded;
+        private List<TableFeatures> tables;
+        private boolean failed;
+
+        private Entry(final byte[] encoded) {
+            this.encoded = encoded;
+        }
+
+        /**
+         * @return translated table features or null if replies can not be decoded or translated
+         */
+        @Nullable
+        private synchronized List<TableFeatures> getTables() {
+            if (tables == null && !failed) {
+                try {
+                    final ImmutableList.Builder<TableFeatures> builder = ImmutableList.builder();
+                    for (final MultipartReplyTableFeatures reply : TableFeaturesCodec.decode(encoded)) {
+                        builder.addAll(NodeStaticReplyTranslatorUtil.nodeTableFeatureTranslator(reply));
+                    }
+                    tables = builder.build();
+                } catch (final IOException | RuntimeException e) {
+                    LOG.warn("Cached table features can not be translated", e);
+                    failed = true;
+                }
+            }
+            return tables;
+        }
+    }
+
+    /**
+     * Device identification - datapath id together with manufacturer, hardware and software description taken
+     * from description reply.
+     */
+    public static final class Key {
+        private final BigInteger datapathId;
+        private final String manufacturer;
+        private final String hardware;
+        private final String software;
+
+        public Key(@Nonnull final BigInteger datapathId, @Nullable final String manufacturer,
+                   @Nullable final String hardware, @Nullable final String software) {
+            this.datapathId = Preconditions.checkNotNull(datapathId);
+            this.manufacturer = manufacturer;
+            this.hardware = hardware;
+            this.software = software;
+        }
+
+        private void write(final DataOutputStream out) throws IOException {
+            out.writeUTF(datapathId.toString());
+            writeString(out, manufacturer);
+            writeString(out, hardware);
+            writeString(out, software);
+        }
+
+        private static Key read(final DataInputStream in) throws IOException {
+            try {
+                return new Key(new BigInteger(in.readUTF()), readString(in), readString(in), readString(in));
+            } catch (final NumberFormatException e) {
+                throw new IOException(e);
+            }
+        }
+
+        private static void writeString(final DataOutputStream out, final String value) throws IOException {
+            out.writeBoolean(value != null);
+            if (value != null) {
+                out.writeUTF(value);
+            }
+        }
+
+        private static String readString(final DataInputStream in) throws IOException {
+            return in.readBoolean() ? in.readUTF() : null;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(datapathId, manufacturer, hardware, software);
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            final Key other = (Key) obj;
+            return datapathId.equals(other.datapathId)
+                    && Objects.equals(manufacturer, other.manufacturer)
+                    && Objects.equals(hardware, other.hardware)
+                    && Objects.equals(software, other.software);
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(this)
+                    .add("datapathId", datapathId)
+                    .add("manufacturer", manufacturer)
+                    .add("hardware", hardware)
+                    .add("software", software)
+                    .toString();
+        }
+    }
+}
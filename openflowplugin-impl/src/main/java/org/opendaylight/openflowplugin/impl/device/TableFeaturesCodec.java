@@ -0,0 +1,449 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.openflowplugin.impl.device;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.augments.rev150225.ActionRelatedTableFeatureProperty;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.augments.rev150225.ActionRelatedTableFeaturePropertyBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.augments.rev150225.InstructionRelatedTableFeatureProperty;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.augments.rev150225.InstructionRelatedTableFeaturePropertyBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.augments.rev150225.NextTableRelatedTableFeatureProperty;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.augments.rev150225.NextTableRelatedTableFeaturePropertyBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.augments.rev150225.OxmRelatedTableFeatureProperty;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.augments.rev150225.OxmRelatedTableFeaturePropertyBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.augments.rev150225.instruction.container.instruction.choice.ExperimenterIdCaseBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.augments.rev150225.table.features.properties.container.table.feature.properties.NextTableIds;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.augments.rev150225.table.features.properties.container.table.feature.properties.NextTableIdsBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.action.rev150203.action.grouping.ActionChoice;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.action.rev150203.action.grouping.action.choice.CopyTtlInCaseBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.action.rev150203.action.grouping.action.choice.CopyTtlOutCaseBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.action.rev150203.action.grouping.action.choice.DecMplsTtlCaseBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.action.rev150203.action.grouping.action.choice.DecNwTtlCaseBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.action.rev150203.action.grouping.action.choice.GroupCaseBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.action.rev150203.action.grouping.action.choice.OutputActionCaseBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.action.rev150203.action.grouping.action.choice.PopMplsCaseBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.action.rev150203.action.grouping.action.choice.PopPbbCaseBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.action.rev150203.action.grouping.action.choice.PopVlanCaseBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.action.rev150203.action.grouping.action.choice.PushMplsCaseBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.action.rev150203.action.grouping.action.choice.PushPbbCaseBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.action.rev150203.action.grouping.action.choice.PushVlanCaseBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.action.rev150203.action.grouping.action.choice.SetFieldCaseBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.action.rev150203.action.grouping.action.choice.SetMplsTtlCaseBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.action.rev150203.action.grouping.action.choice.SetNwDstCaseBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.action.rev150203.action.grouping.action.choice.SetNwSrcCaseBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.action.rev150203.action.grouping.action.choice.SetNwTtlCaseBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.action.rev150203.action.grouping.action.choice.SetQueueCaseBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.action.rev150203.action.grouping.action.choice.StripVlanCaseBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.action.rev150203.actions.grouping.Action;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.action.rev150203.actions.grouping.ActionBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.instruction.rev130731.instruction.grouping.InstructionChoice;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.instruction.rev130731.instruction.grouping.instruction.choice.ApplyActionsCaseBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.instruction.rev130731.instruction.grouping.instruction.choice.ClearActionsCaseBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.instruction.rev130731.instruction.grouping.instruction.choice.GotoTableCaseBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.instruction.rev130731.instruction.grouping.instruction.choice.MeterCaseBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.instruction.rev130731.instruction.grouping.instruction.choice.WriteActionsCaseBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.instruction.rev130731.instruction.grouping.instruction.choice.WriteMetadataCaseBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.instruction.rev130731.instructions.grouping.Instruction;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.instruction.rev130731.instructions.grouping.InstructionBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.types.rev130731.TableConfig;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.types.rev130731.TableFeaturesPropType;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.oxm.rev150225.MatchField;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.oxm.rev150225.OpenflowBasicClass;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.oxm.rev150225.match.entries.grouping.MatchEntry;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.oxm.rev150225.match.entries.grouping.MatchEntryBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.MultipartReply;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.multipart.reply.MultipartReplyBody;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.multipart.reply.multipart.reply.body.MultipartReplyTableFeaturesCase;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.multipart.reply.multipart.reply.body.multipart.reply.table.features._case.MultipartReplyTableFeatures;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.multipart.reply.multipart.reply.body.multipart.reply.table.features._case.MultipartReplyTableFeaturesBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.multipart.reply.multipart.reply.body.multipart.reply.table.features._case.multipart.reply.table.features.TableFeatures;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.multipart.reply.multipart.reply.body.multipart.reply.table.features._case.multipart.reply.table.features.TableFeaturesBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.table.features.properties.grouping.TableFeatureProperties;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.table.features.properties.grouping.TableFeaturePropertiesBuilder;
+
+/**
+ * Compact binary form of table features replies. Only what {@link
+ * org.opendaylight.openflowplugin.openflow.md.core.sal.convertor.TableFeaturesReplyConvertor} looks at is kept -
+ * instructions and actions by their case, match entries by their field, so decoded replies translate to the same
+ * table features as the original ones. Instructions, actions and match fields unknown to the translator
+ * (e.g. experimenter ones) are decoded to placeholders which the translator treats the same way.
+ */
+final class TableFeaturesCodec {
+
+    private static final int ABSENT = -1;
+    private static final String NO_CHOICE = "";
+
+    /**
+     * OF 1.0 only action, never offered by table features and not translated (like experimenter actions).
+     */
+    private static final ActionChoice UNKNOWN_ACTION = new StripVlanCaseBuilder().build();
+    private static final InstructionChoice UNKNOWN_INSTRUCTION = new ExperimenterIdCaseBuilder().build();
+
+    private static final Map<String, ActionChoice> ACTIONS = actionsByName(
+            new OutputActionCaseBuilder().build(),
+            new GroupCaseBuilder().build(),
+            new CopyTtlOutCaseBuilder().build(),
+            new CopyTtlInCaseBuilder().build(),
+            new SetMplsTtlCaseBuilder().build(),
+            new DecMplsTtlCaseBuilder().build(),
+            new PushVlanCaseBuilder().build(),
+            new PopVlanCaseBuilder().build(),
+            new PushMplsCaseBuilder().build(),
+            new PopMplsCaseBuilder().build(),
+            new SetQueueCaseBuilder().build(),
+            new SetNwTtlCaseBuilder().build(),
+            new DecNwTtlCaseBuilder().build(),
+            new SetFieldCaseBuilder().build(),
+            new PushPbbCaseBuilder().build(),
+            new PopPbbCaseBuilder().build(),
+            new SetNwSrcCaseBuilder().build(),
+            new SetNwDstCaseBuilder().build());
+
+    private static final Map<String, InstructionChoice> INSTRUCTIONS = instructionsByName(
+            new GotoTableCaseBuilder().build(),
+            new WriteMetadataCaseBuilder().build(),
+            new WriteActionsCaseBuilder().build(),
+            new ApplyActionsCaseBuilder().build(),
+            new ClearActionsCaseBuilder().build(),
+            new MeterCaseBuilder().build());
+
+    private TableFeaturesCodec() {
+        throw new IllegalStateException("This class should not be instantiated.");
+    }
+
+    /**
+     * @param replies table features replies of one device
+     * @return encoded replies
+     * @throws IllegalArgumentException if any of replies does not carry table features
+     */
+    static byte[] encode(final Collection<MultipartReply> replies) {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeInt(replies.size());
+            for (final MultipartReply reply : replies) {
+                final MultipartReplyBody body = reply.getMultipartReplyBody();
+                Preconditions.checkArgument(body instanceof MultipartReplyTableFeaturesCase,
+                        "Unexpected multipart reply body %s", body);
+                final List<TableFeatures> tables = ((MultipartReplyTableFeaturesCase) body)
+                        .getMultipartReplyTableFeatures().getTableFeatures();
+                writeSize(out, tables);
+                if (tables != null) {
+                    for (final TableFeatures table : tables) {
+                        writeTable(out, table);
+                    }
+                }
+            }
+            out.flush();
+        } catch (final IOException e) {
+            // writing to memory does not fail
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @param encoded output of {@link #encode(Collection)}
+     * @return table features of replies in the original order
+     * @throws IOException if encoded replies are corrupted
+     */
+    static List<MultipartReplyTableFeatures> decode(final byte[] encoded) throws IOException {
+        final DataInputStream in = new DataInputStream(new ByteArrayInputStream(encoded));
+        final int replyCount = in.readInt();
+        final List<MultipartReplyTableFeatures> replies = new ArrayList<>(replyCount);
+        for (int i = 0; i < replyCount; i++) {
+            final int tableCount = in.readInt();
+            List<TableFeatures> tables = null;
+            if (tableCount != ABSENT) {
+                tables = new ArrayList<>(tableCount);
+                for (int j = 0; j < tableCount; j++) {
+                    tables.add(readTable(in));
+                }
+            }
+            replies.add(new MultipartReplyTableFeaturesBuilder().setTableFeatures(tables).build());
+        }
+        if (in.read() != ABSENT) {
+            throw new IOException("Unexpected data after encoded table features");
+        }
+        return replies;
+    }
+
+    private static void writeTable(final DataOutputStream out, final TableFeatures table) throws IOException {
+        writeShort(out, table.getTableId());
+        writeString(out, table.getName());
+        writeBytes(out, table.getMetadataMatch());
+        writeBytes(out, table.getMetadataWrite());
+        final TableConfig config = table.getConfig();
+        out.writeBoolean(config != null);
+        if (config != null) {
+            out.writeBoolean(config.isOFPTCDEPRECATEDMASK());
+        }
+        final Long maxEntries = table.getMaxEntries();
+        out.writeBoolean(maxEntries != null);
+        if (maxEntries != null) {
+            out.writeLong(maxEntries);
+        }
+
+        final List<TableFeatureProperties> properties = table.getTableFeatureProperties();
+        writeSize(out, properties);
+        if (properties != null) {
+            for (final TableFeatureProperties property : properties) {
+                writeProperty(out, property);
+            }
+        }
+    }
+
+    private static TableFeatures readTable(final DataInputStream in) throws IOException {
+        final TableFeaturesBuilder builder = new TableFeaturesBuilder()
+                .setTableId(readShort(in))
+                .setName(readString(in))
+                .setMetadataMatch(readBytes(in))
+                .setMetadataWrite(readBytes(in));
+        if (in.readBoolean()) {
+            builder.setConfig(new TableConfig(in.readBoolean()));
+        }
+        if (in.readBoolean()) {
+            builder.setMaxEntries(in.readLong());
+        }
+
+        final int propertyCount = in.readInt();
+        if (propertyCount != ABSENT) {
+            final List<TableFeatureProperties> properties = new ArrayList<>(propertyCount);
+            for (int i = 0; i < propertyCount; i++) {
+                properties.add(readProperty(in));
+            }
+            builder.setTableFeatureProperties(properties);
+        }
+        return builder.build();
+    }
+
+    private static void writeProperty(final DataOutputStream out, final TableFeatureProperties property)
+            throws IOException {
+        final TableFeaturesPropType type = property.getType();
+        out.writeInt(type == null ? ABSENT : type.getIntValue());
+
+        final InstructionRelatedTableFeatureProperty instructions =
+                property.getAugmentation(InstructionRelatedTableFeatureProperty.class);
+        final List<Instruction> instructionList = instructions == null ? null : instructions.getInstruction();
+        writeSize(out, instructionList);
+        if (instructionList != null) {
+            for (final Instruction instruction : instructionList) {
+                final InstructionChoice choice = instruction.getInstructionChoice();
+                out.writeUTF(choice == null ? NO_CHOICE : choice.getImplementedInterface().getName());
+            }
+        }
+
+        final NextTableRelatedTableFeatureProperty nextTables =
+                property.getAugmentation(NextTableRelatedTableFeatureProperty.class);
+        final List<NextTableIds> nextTableList = nextTables == null ? null : nextTables.getNextTableIds();
+        writeSize(out, nextTableList);
+        if (nextTableList != null) {
+            for (final NextTableIds nextTable : nextTableList) {
+                writeShort(out, nextTable.getTableId());
+            }
+        }
+
+        final ActionRelatedTableFeatureProperty actions =
+                property.getAugmentation(ActionRelatedTableFeatureProperty.class);
+        final List<Action> actionList = actions == null ? null : actions.getAction();
+        writeSize(out, actionList);
+        if (actionList != null) {
+            for (final Action action : actionList) {
+                final ActionChoice choice = action.getActionChoice();
+                out.writeUTF(choice == null ? NO_CHOICE : choice.getImplementedInterface().getName());
+            }
+        }
+
+        final OxmRelatedTableFeatureProperty matchEntries =
+                property.getAugmentation(OxmRelatedTableFeatureProperty.class);
+        final List<MatchEntry> matchEntryList = matchEntries == null ? null : matchEntries.getMatchEntry();
+        writeSize(out, matchEntryList);
+        if (matchEntryList != null) {
+            for (final MatchEntry matchEntry : matchEntryList) {
+                final Class<? extends MatchField> matchField = matchEntry.getOxmMatchField();
+                out.writeUTF(matchField == null ? NO_CHOICE : matchField.getName());
+                final Boolean hasMask = matchEntry.isHasMask();
+                out.writeByte(hasMask == null ? ABSENT : (hasMask ? 1 : 0));
+            }
+        }
+    }
+
+    private static TableFeatureProperties readProperty(final DataInputStream in) throws IOException {
+        final TableFeaturePropertiesBuilder builder = new TableFeaturePropertiesBuilder();
+        final int type = in.readInt();
+        if (type != ABSENT) {
+            final TableFeaturesPropType propType = TableFeaturesPropType.forValue(type);
+            if (propType == null) {
+                throw new IOException("Unknown table features property type " + type);
+            }
+            builder.setType(propType);
+        }
+
+        final int instructionCount = in.readInt();
+        if (instructionCount != ABSENT) {
+            final List<Instruction> instructions = new ArrayList<>(instructionCount);
+            for (int i = 0; i < instructionCount; i++) {
+                instructions.add(new InstructionBuilder().setInstructionChoice(readInstruction(in)).build());
+            }
+            builder.addAugmentation(InstructionRelatedTableFeatureProperty.class,
+                    new InstructionRelatedTableFeaturePropertyBuilder().setInstruction(instructions).build());
+        }
+
+        final int nextTableCount = in.readInt();
+        if (nextTableCount != ABSENT) {
+            final List<NextTableIds> nextTables = new ArrayList<>(nextTableCount);
+            for (int i = 0; i < nextTableCount; i++) {
+                nextTables.add(new NextTableIdsBuilder().setTableId(readShort(in)).build());
+            }
+            builder.addAugmentation(NextTableRelatedTableFeatureProperty.class,
+                    new NextTableRelatedTableFeaturePropertyBuilder().setNextTableIds(nextTables).build());
+        }
+
+        final int actionCount = in.readInt();
+        if (actionCount != ABSENT) {
+            final List<Action> actions = new ArrayList<>(actionCount);
+            for (int i = 0; i < actionCount; i++) {
+                actions.add(new ActionBuilder().setActionChoice(readAction(in)).build());
+            }
+            builder.addAugmentation(ActionRelatedTableFeatureProperty.class,
+                    new ActionRelatedTableFeaturePropertyBuilder().setAction(actions).build());
+        }
+
+        final int matchEntryCount = in.readInt();
+        if (matchEntryCount != ABSENT) {
+            final List<MatchEntry> matchEntries = new ArrayList<>(matchEntryCount);
+            for (int i = 0; i < matchEntryCount; i++) {
+                matchEntries.add(readMatchEntry(in));
+            }
+            builder.addAugmentation(OxmRelatedTableFeatureProperty.class,
+                    new OxmRelatedTableFeaturePropertyBuilder().setMatchEntry(matchEntries).build());
+        }
+        return builder.build();
+    }
+
+    private static InstructionChoice readInstruction(final DataInputStream in) throws IOException {
+        final String name = in.readUTF();
+        if (NO_CHOICE.equals(name)) {
+            return null;
+        }
+        final InstructionChoice instruction = INSTRUCTIONS.get(name);
+        return instruction == null ? UNKNOWN_INSTRUCTION : instruction;
+    }
+
+    private static ActionChoice readAction(final DataInputStream in) throws IOException {
+        final String name = in.readUTF();
+        if (NO_CHOICE.equals(name)) {
+            return null;
+        }
+        final ActionChoice action = ACTIONS.get(name);
+        return action == null ? UNKNOWN_ACTION : action;
+    }
+
+    private static MatchEntry readMatchEntry(final DataInputStream in) throws IOException {
+        final MatchEntryBuilder builder = new MatchEntryBuilder();
+        final String name = in.readUTF();
+        if (!NO_CHOICE.equals(name)) {
+            final Class<? extends MatchField> matchField = loadMatchField(name);
+            builder.setOxmMatchField(matchField);
+            if (matchField != MatchField.class) {
+                builder.setOxmClass(OpenflowBasicClass.class);
+            }
+        }
+        final byte hasMask = in.readByte();
+        if (hasMask != ABSENT) {
+            builder.setHasMask(hasMask == 1);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Match fields are identities, OF basic ones live next to {@link MatchField}. Fields of other bundles
+     * (experimenter ones) are not translated, they are represented by the base identity.
+     */
+    private static Class<? extends MatchField> loadMatchField(final String name) {
+        try {
+            final Class<?> loaded = Class.forName(name, false, MatchField.class.getClassLoader());
+            if (MatchField.class.isAssignableFrom(loaded)) {
+                return loaded.asSubclass(MatchField.class);
+            }
+        } catch (final ClassNotFoundException e) {
+            // not an OF basic field
+        }
+        return MatchField.class;
+    }
+
+    private static void writeSize(final DataOutputStream out, final Collection<?> collection) throws IOException {
+        out.writeInt(collection == null ? ABSENT : collection.size());
+    }
+
+    private static void writeShort(final DataOutputStream out, final Short value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeShort(value);
+        }
+    }
+
+    private static Short readShort(final DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readShort() : null;
+    }
+
+    private static void writeString(final DataOutputStream out, final String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(final DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeBytes(final DataOutputStream out, final byte[] value) throws IOException {
+        out.writeInt(value == null ? ABSENT : value.length);
+        if (value != null) {
+            out.write(value);
+        }
+    }
+
+    private static byte[] readBytes(final DataInputStream in) throws IOException {
+        final int length = in.readInt();
+        if (length == ABSENT) {
+            return null;
+        }
+        final byte[] value = new byte[length];
+        in.readFully(value);
+        return value;
+    }
+
+    private static Map<String, ActionChoice> actionsByName(final ActionChoice... actions) {
+        final ImmutableMap.Builder<String, ActionChoice> builder = ImmutableMap.builder();
+        for (final ActionChoice action : actions) {
+            builder.put(action.getImplementedInterface().getName(), action);
+        }
+        return builder.build();
+    }
+
+    private static Map<String, InstructionChoice> instructionsByName(final InstructionChoice... instructions) {
+        final ImmutableMap.Builder<String, InstructionChoice> builder = ImmutableMap.builder();
+        for (final InstructionChoice instruction : instructions) {
+            builder.put(instruction.getImplementedInterface().getName(), instruction);
+        }
+        return builder.build();
+    }
+}
@@ -14,6 +14,14 @@ import com.google.common.util.concurrent.CheckedFuture;
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
+import io.netty.util.Timeout;
+import io.netty.util.TimerTask;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.GuardedBy;
@@ -26,6 +34,8 @@ import org.opendaylight.controller.md.sal.common.api.data.TransactionChain;
 import org.opendaylight.controller.md.sal.common.api.data.TransactionChainListener;
 import org.opendaylight.controller.md.sal.common.api.data.TransactionCommitFailedException;
 import org.opendaylight.openflowplugin.api.openflow.device.DeviceState;
+import org.opendaylight.openflowplugin.api.openflow.lifecycle.LifecycleConductor;
+import org.opendaylight.openflowplugin.impl.statistics.ofpspecific.Histogram;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.Node;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.NodeKey;
 import org.opendaylight.yangtools.yang.binding.DataObject;
@@ -42,6 +52,9 @@ import org.slf4j.LoggerFactory;
  * a {@link TransactionChainListener} and provide package protected methods for writeToTransaction
  * method (wrapped {@link WriteTransaction#put(LogicalDatastoreType, InstanceIdentifier, DataObject)})
  * and submitTransaction method (wrapped {@link WriteTransaction#submit()})
+ * <p/>
+ * In coalescing mode (see {@link #setCoalescing(LifecycleConductor, int, long)}) operations are kept pending
+ * and submitted in one transaction once size threshold is reached or submit deadline expires.
  *
  * @author <a href="mailto:vdemcak@cisco.com">Vaclav Demcak</a>
  *         </p>
@@ -63,6 +76,17 @@ class TransactionChainManager implements TransactionChainListener, AutoCloseable
     private boolean submitIsEnabled;
     @GuardedBy("txLock")
     private ListenableFuture<Void> lastSubmittedFuture;
+    @GuardedBy("txLock")
+    private final Map<Entry<LogicalDatastoreType, InstanceIdentifier<?>>, PendingOperation<?>> pendingOperations =
+            new LinkedHashMap<>();
+    @GuardedBy("txLock")
+    private Timeout coalescedSubmitTimeout;
+    private final AtomicInteger wTxOperations = new AtomicInteger();
+    private final Histogram commitSizeHistogram = new Histogram();
+    private final Histogram commitLatencyHistogram = new Histogram();
+    private volatile LifecycleConductor conductor;
+    private volatile int coalescingSize;
+    private volatile long coalescingDelay;
 
     public TransactionChainManagerStatus getTransactionChainManagerStatus() {
         return transactionChainManagerStatus;
@@ -82,6 +106,36 @@ class TransactionChainManager implements TransactionChainListener, AutoCloseable
         LOG.debug("created txChainManager");
     }
 
+    /**
+     * Switches to coalescing mode - operations are kept pending (later operation on the same path replaces
+     * earlier one) and submitted together as soon as coalescingSize operations is pending or coalescingDelay
+     * after submit was requested.
+     *
+     * @param conductor       provides timer for submit deadline
+     * @param coalescingSize  amount of pending operations forcing submit, 0 disables coalescing
+     * @param coalescingDelay maximal delay of requested submit [ms]
+     */
+    void setCoalescing(@Nonnull final LifecycleConductor conductor, final int coalescingSize, final long coalescingDelay) {
+        Preconditions.checkArgument(coalescingSize >= 0 && coalescingDelay > 0);
+        this.conductor = Preconditions.checkNotNull(conductor);
+        this.coalescingDelay = coalescingDelay;
+        this.coalescingSize = coalescingSize;
+    }
+
+    /**
+     * @return amount of operations per submitted transaction
+     */
+    Histogram getCommitSizeHistogram() {
+        return commitSizeHistogram;
+    }
+
+    /**
+     * @return time from submit to commit of transaction [us]
+     */
+    Histogram getCommitLatencyHistogram() {
+        return commitLatencyHistogram;
+    }
+
     @GuardedBy("txLock")
     private void createTxChain() {
         if (txChainFactory != null) {
@@ -92,7 +146,12 @@ class TransactionChainManager implements TransactionChainListener, AutoCloseable
 
     void initialSubmitWriteTransaction() {
         enableSubmit();
-        submitWriteTransaction();
+        synchronized (txLock) {
+            // initial device content is never postponed by coalescing
+            if (submitIsEnabled) {
+                submitPendingOperations();
+            }
+        }
     }
 
     /**
@@ -158,40 +217,150 @@ class TransactionChainManager implements TransactionChainListener, AutoCloseable
                 LOG.trace("transaction not committed - submit block issued");
                 return false;
             }
-            if (wTx == null) {
-                LOG.trace("nothing to commit - submit returns true");
+            if (!pendingOperations.isEmpty()) {
+                if (pendingOperations.size() >= coalescingSize) {
+                    submitPendingOperations();
+                } else {
+                    scheduleCoalescedSubmit();
+                }
                 return true;
             }
-            Preconditions.checkState(TransactionChainManagerStatus.WORKING.equals(transactionChainManagerStatus),
-                    "we have here Uncompleted Transaction for node {} and we are not MASTER", nodeII);
-            final CheckedFuture<Void, TransactionCommitFailedException> submitFuture = wTx.submit();
-            Futures.addCallback(submitFuture, new FutureCallback<Void>() {
-                @Override
-                public void onSuccess(final Void result) {
-                    //no action required
+            submitWriteTransactionNow();
+        }
+        return true;
+    }
+
+    @GuardedBy("txLock")
+    private void submitWriteTransactionNow() {
+        if (wTx == null) {
+            LOG.trace("nothing to commit - submit returns true");
+            return;
+        }
+        Preconditions.checkState(TransactionChainManagerStatus.WORKING.equals(transactionChainManagerStatus),
+                "we have here Uncompleted Transaction for node {} and we are not MASTER", nodeII);
+        final CheckedFuture<Void, TransactionCommitFailedException> submitFuture = submitAndRecord(wTx);
+        Futures.addCallback(submitFuture, new FutureCallback<Void>() {
+            @Override
+            public void onSuccess(final Void result) {
+                //no action required
+            }
+
+            @Override
+            public void onFailure(final Throwable t) {
+                if (t instanceof TransactionCommitFailedException) {
+                    LOG.error("Transaction commit failed. {}", t);
+                } else {
+                    LOG.error("Exception during transaction submitting. {}", t);
                 }
+            }
+        });
+        lastSubmittedFuture = submitFuture;
+        wTx = null;
+    }
+
+    @GuardedBy("txLock")
+    private CheckedFuture<Void, TransactionCommitFailedException> submitAndRecord(final WriteTransaction writeTx) {
+        commitSizeHistogram.record(wTxOperations.getAndSet(0));
+        final long submitNanos = System.nanoTime();
+        final CheckedFuture<Void, TransactionCommitFailedException> submitFuture = writeTx.submit();
+        Futures.addCallback(submitFuture, new FutureCallback<Void>() {
+            @Override
+            public void onSuccess(final Void result) {
+                recordLatency();
+            }
 
-                @Override
-                public void onFailure(final Throwable t) {
-                    if (t instanceof TransactionCommitFailedException) {
-                        LOG.error("Transaction commit failed. {}", t);
-                    } else {
-                        LOG.error("Exception during transaction submitting. {}", t);
+            @Override
+            public void onFailure(final Throwable t) {
+                recordLatency();
+            }
+
+            private void recordLatency() {
+                commitLatencyHistogram.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - submitNanos));
+            }
+        });
+        return submitFuture;
+    }
+
+    @GuardedBy("txLock")
+    private void submitPendingOperations() {
+        cancelCoalescedSubmit();
+        applyPendingOperations();
+        submitWriteTransactionNow();
+    }
+
+    @GuardedBy("txLock")
+    private void applyPendingOperations() {
+        if (pendingOperations.isEmpty() || txChainFactory == null) {
+            return;
+        }
+        if (wTx == null) {
+            wTx = txChainFactory.newWriteOnlyTransaction();
+        }
+        for (final PendingOperation<?> operation : pendingOperations.values()) {
+            operation.applyTo(wTx);
+        }
+        wTxOperations.addAndGet(pendingOperations.size());
+        pendingOperations.clear();
+    }
+
+    @GuardedBy("txLock")
+    private void scheduleCoalescedSubmit() {
+        if (coalescedSubmitTimeout != null) {
+            return;
+        }
+        // timer thread has to wait for txLock, so the timeout is assigned before it can run
+        coalescedSubmitTimeout = conductor.newTimeout(new TimerTask() {
+            @Override
+            public void run(final Timeout timeout) {
+                synchronized (txLock) {
+                    if (coalescedSubmitTimeout != timeout) {
+                        return;
+                    }
+                    coalescedSubmitTimeout = null;
+                    if (submitIsEnabled && TransactionChainManagerStatus.WORKING.equals(transactionChainManagerStatus)) {
+                        submitPendingOperations();
                     }
                 }
-            });
-            lastSubmittedFuture = submitFuture;
-            wTx = null;
+            }
+        }, coalescingDelay, TimeUnit.MILLISECONDS);
+    }
+
+    @GuardedBy("txLock")
+    private void cancelCoalescedSubmit() {
+        if (coalescedSubmitTimeout != null) {
+            coalescedSubmitTimeout.cancel();
+            coalescedSubmitTimeout = null;
+        }
+    }
+
+    private <T extends DataObject> void addPendingOperation(final PendingOperation<T> operation) throws Exception {
+        synchronized (txLock) {
+            if (!TransactionChainManagerStatus.WORKING.equals(transactionChainManagerStatus) || txChainFactory == null) {
+                LOG.debug("TxChain is not active for node {}. Operation on {} was not realized.", nodeII, operation.path);
+                throw new Exception("Cannot write into transaction.");
+            }
+            final Entry<LogicalDatastoreType, InstanceIdentifier<?>> key =
+                    new SimpleImmutableEntry<LogicalDatastoreType, InstanceIdentifier<?>>(operation.store, operation.path);
+            // re-insert, so that order of pending operations follows the last operation on each path
+            pendingOperations.remove(key);
+            pendingOperations.put(key, operation);
+            if (submitIsEnabled && pendingOperations.size() >= coalescingSize) {
+                submitPendingOperations();
+            }
         }
-        return true;
     }
 
     <T extends DataObject> void addDeleteOperationTotTxChain(final LogicalDatastoreType store,
                                                              final InstanceIdentifier<T> path) throws Exception {
+        if (coalescingSize > 0) {
+            addPendingOperation(new PendingOperation<>(store, path, null));
+            return;
+        }
         final WriteTransaction writeTx = getTransactionSafely();
         if (writeTx != null) {
             LOG.trace("addDeleteOperation called with path {} ", path);
             writeTx.delete(store, path);
+            wTxOperations.incrementAndGet();
         } else {
             LOG.debug("WriteTx is null for node {}. Delete {} was not realized.", nodeII, path);
             throw new Exception("Cannot write into transaction.");
@@ -200,10 +369,15 @@ class TransactionChainManager implements TransactionChainListener, AutoCloseable
 
     <T extends DataObject> void writeToTransaction(final LogicalDatastoreType store,
                                                    final InstanceIdentifier<T> path, final T data) throws Exception {
+        if (coalescingSize > 0) {
+            addPendingOperation(new PendingOperation<>(store, path, Preconditions.checkNotNull(data)));
+            return;
+        }
         final WriteTransaction writeTx = getTransactionSafely();
         if (writeTx != null) {
             LOG.trace("writeToTransaction called with path {} ", path);
             writeTx.put(store, path, data);
+            wTxOperations.incrementAndGet();
         } else {
             LOG.debug("WriteTx is null for node {}. Write data for {} was not realized.", nodeII, path);
             throw new Exception("Cannot write into transaction.");
@@ -228,6 +402,7 @@ class TransactionChainManager implements TransactionChainListener, AutoCloseable
         synchronized (txLock) {
             createTxChain();
             wTx = null;
+            wTxOperations.set(0);
         }
     }
 
@@ -266,6 +441,9 @@ class TransactionChainManager implements TransactionChainListener, AutoCloseable
     @GuardedBy("txLock")
     private ListenableFuture<Void> txChainShuttingDown() {
         submitIsEnabled = false;
+        cancelCoalescedSubmit();
+        applyPendingOperations();
+        pendingOperations.clear();
         ListenableFuture<Void> future;
         if (txChainFactory == null) {
             // stay with actual thread
@@ -275,7 +453,7 @@ class TransactionChainManager implements TransactionChainListener, AutoCloseable
             future = lastSubmittedFuture;
         } else {
             // hijack md-sal thread
-            future = wTx.submit();
+            future = submitAndRecord(wTx);
             wTx = null;
         }
         return future;
@@ -295,6 +473,27 @@ class TransactionChainManager implements TransactionChainListener, AutoCloseable
         Preconditions.checkState(txChainFactory == null);
     }
 
+    private static final class PendingOperation<T extends DataObject> {
+        private final LogicalDatastoreType store;
+        private final InstanceIdentifier<T> path;
+        /** null for delete */
+        private final T data;
+
+        PendingOperation(final LogicalDatastoreType store, final InstanceIdentifier<T> path, @Nullable final T data) {
+            this.store = store;
+            this.path = path;
+            this.data = data;
+        }
+
+        void applyTo(final WriteTransaction writeTx) {
+            if (data == null) {
+                writeTx.delete(store, path);
+            } else {
+                writeTx.put(store, path, data);
+            }
+        }
+    }
+
     public enum TransactionChainManagerStatus {
         /** txChainManager is sleeping - is not active (SLAVE or default init value) */
         WORKING,
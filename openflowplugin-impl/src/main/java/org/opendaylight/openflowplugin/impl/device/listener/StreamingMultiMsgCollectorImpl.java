@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.openflowplugin.impl.device.listener;
+
+import com.google.common.base.Preconditions;
+import java.math.BigInteger;
+import java.util.Collections;
+import java.util.List;
+import javax.annotation.Nonnull;
+import org.opendaylight.openflowplugin.api.openflow.device.RequestContext;
+import org.opendaylight.openflowplugin.api.openflow.device.handlers.DeviceReplyProcessor;
+import org.opendaylight.openflowplugin.api.openflow.device.handlers.MultiMsgCollector;
+import org.opendaylight.openflowplugin.api.openflow.device.handlers.MultipartReplySink;
+import org.opendaylight.openflowplugin.api.openflow.statistics.ofpspecific.EventIdentifier;
+import org.opendaylight.openflowplugin.impl.statistics.SinglePurposeMultipartReplyTranslator;
+import org.opendaylight.openflowplugin.impl.statistics.ofpspecific.EventsTimeCounter;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.types.rev130731.MultipartType;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.MultipartReply;
+import org.opendaylight.yangtools.yang.binding.DataObject;
+import org.opendaylight.yangtools.yang.common.RpcError;
+import org.opendaylight.yangtools.yang.common.RpcResult;
+import org.opendaylight.yangtools.yang.common.RpcResultBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link MultiMsgCollector} which does not collect anything - every multipart reply is translated and
+ * handed over to {@link MultipartReplySink} right away. Request context is finished with empty result
+ * once the last reply arrives, content of replies is delivered only to the sink.
+ */
+public class StreamingMultiMsgCollectorImpl implements MultiMsgCollector {
+
+    private static final Logger LOG = LoggerFactory.getLogger(StreamingMultiMsgCollectorImpl.class);
+    private static final SinglePurposeMultipartReplyTranslator MULTIPART_REPLY_TRANSLATOR = new SinglePurposeMultipartReplyTranslator();
+
+    private final RequestContext<List<MultipartReply>> requestContext;
+    private final DeviceReplyProcessor deviceReplyProcessor;
+    private final MultipartReplySink sink;
+    private final BigInteger datapathId;
+    private final short version;
+    private MultipartType msgType;
+    private boolean finished;
+
+    public StreamingMultiMsgCollectorImpl(final DeviceReplyProcessor deviceReplyProcessor,
+                                          final RequestContext<List<MultipartReply>> requestContext,
+                                          final MultipartReplySink sink,
+                                          final BigInteger datapathId,
+                                          final short version) {
+        this.deviceReplyProcessor = Preconditions.checkNotNull(deviceReplyProcessor);
+        this.requestContext = Preconditions.checkNotNull(requestContext);
+        this.sink = Preconditions.checkNotNull(sink);
+        this.datapathId = datapathId;
+        this.version = version;
+    }
+
+    @Override
+    public void addMultipartMsg(@Nonnull final MultipartReply reply) {
+        addMultipartMsg(reply, null);
+    }
+
+    @Override
+    public void addMultipartMsg(@Nonnull final MultipartReply reply, final EventIdentifier eventIdentifier) {
+        Preconditions.checkNotNull(reply);
+        Preconditions.checkArgument(requestContext.getXid().getValue().equals(reply.getXid()));
+        LOG.trace("Try to stream Multipart reply msg with XID {}", reply.getXid());
+
+        if (finished) {
+            LOG.debug("Multipart reply received after end of stream: xid={}, type={}", reply.getXid(), reply.getType());
+            return;
+        }
+
+        if (msgType == null) {
+            msgType = reply.getType();
+        }
+
+        if (!msgType.equals(reply.getType())) {
+            LOG.warn("MultiMsgCollector get incorrect multipart msg with type {} but expected type is {}", reply.getType(), msgType);
+        }
+
+        final List<? extends DataObject> chunk;
+        try {
+            chunk = MULTIPART_REPLY_TRANSLATOR.translate(datapathId, version, reply);
+        } catch (final Exception e) {
+            LOG.warn("Translation of multipart reply of type {} with XID {} failed", reply.getType(), reply.getXid(), e);
+            failCollecting(e, eventIdentifier);
+            return;
+        }
+
+        deviceReplyProcessor.processReply(requestContext.getXid(), Collections.singletonList(reply));
+        sink.onChunk(chunk);
+        if (!reply.getFlags().isOFPMPFREQMORE()) {
+            endCollecting(eventIdentifier);
+        }
+    }
+
+    @Override
+    public void endCollecting() {
+        endCollecting(null);
+    }
+
+    @Override
+    public void endCollecting(final EventIdentifier eventIdentifier) {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        if (null != eventIdentifier) {
+            EventsTimeCounter.markEnd(eventIdentifier);
+        }
+        sink.onCompleted();
+        final RpcResult<List<MultipartReply>> rpcResult = RpcResultBuilder.success(
+                Collections.<MultipartReply>emptyList()).build();
+        requestContext.setResult(rpcResult);
+        requestContext.close();
+    }
+
+    private void failCollecting(final Throwable cause, final EventIdentifier eventIdentifier) {
+        finished = true;
+        if (null != eventIdentifier) {
+            EventsTimeCounter.markEnd(eventIdentifier);
+        }
+        sink.onFailure(cause);
+        final RpcResult<List<MultipartReply>> rpcResult = RpcResultBuilder.<List<MultipartReply>>failed()
+                .withError(RpcError.ErrorType.APPLICATION, "multipart reply translation failed", cause).build();
+        requestContext.setResult(rpcResult);
+        requestContext.close();
+    }
+}
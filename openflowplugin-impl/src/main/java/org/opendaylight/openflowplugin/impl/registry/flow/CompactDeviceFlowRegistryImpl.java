@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.openflowplugin.impl.registry.flow;
+
+import com.romix.scala.collection.concurrent.TrieMap;
+import java.math.BigInteger;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.annotation.Nullable;
+import org.opendaylight.openflowplugin.api.openflow.registry.flow.DeviceFlowRegistry;
+import org.opendaylight.openflowplugin.api.openflow.registry.flow.FlowDescriptor;
+import org.opendaylight.openflowplugin.api.openflow.registry.flow.FlowRegistryKey;
+import org.opendaylight.openflowplugin.api.openflow.statistics.ofpspecific.MessageSpy;
+import org.opendaylight.openflowplugin.impl.util.FlowUtil;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.FlowId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link DeviceFlowRegistry} keeping flows under {@link CompactFlowRegistryKey} - match is held as canonical byte
+ * array with precomputed hash instead of binding object, so that lookups do not walk the match tree and stored
+ * entries do not retain it. Besides flow identity (table id, priority, match) entries are indexed by cookie.
+ * <p>
+ * Accepts keys created by {@link FlowRegistryKeyFactory} in both normalized and binding form.
+ */
+public class CompactDeviceFlowRegistryImpl implements DeviceFlowRegistry {
+    private static final Logger LOG = LoggerFactory.getLogger(CompactDeviceFlowRegistryImpl.class);
+
+    private final ConcurrentMap<CompactFlowRegistryKey, FlowEntry> flowRegistry = new TrieMap<>();
+    private final ConcurrentMap<Long, Set<CompactFlowRegistryKey>> cookieIndex = new ConcurrentHashMap<>();
+    private final MessageSpy messageSpy;
+
+    public CompactDeviceFlowRegistryImpl() {
+        this(null);
+    }
+
+    /**
+     * @param messageSpy counts flows resolved by {@link #storeIfNecessary(FlowRegistryKey, short)} (optional)
+     */
+    public CompactDeviceFlowRegistryImpl(@Nullable final MessageSpy messageSpy) {
+        this.messageSpy = messageSpy;
+    }
+
+    @Override
+    public FlowDescriptor retrieveIdForFlow(final FlowRegistryKey flowRegistryKey) {
+        final FlowEntry flowEntry = flowRegistry.get(CompactFlowRegistryKey.create(flowRegistryKey));
+        return flowEntry == null ? null : flowEntry.descriptor;
+    }
+
+    @Override
+    public void store(final FlowRegistryKey flowRegistryKey, final FlowDescriptor flowDescriptor) {
+        final CompactFlowRegistryKey compactKey = CompactFlowRegistryKey.create(flowRegistryKey);
+        LOG.trace("Storing flowDescriptor with table ID : {} and flow ID : {} for flow hash : {}",
+                flowDescriptor.getTableKey().getId(), flowDescriptor.getFlowId().getValue(), compactKey.getHash());
+        final FlowEntry previous = flowRegistry.put(compactKey, new FlowEntry(compactKey, flowDescriptor));
+        if (previous == null || previous.key.getCookieBits() != compactKey.getCookieBits()) {
+            indexCookie(compactKey);
+            if (previous != null) {
+                unindexCookie(previous.key);
+            }
+        }
+    }
+
+    @Override
+    public FlowId storeIfNecessary(final FlowRegistryKey flowRegistryKey, @Deprecated final short tableId) {
+        final CompactFlowRegistryKey compactKey = CompactFlowRegistryKey.create(flowRegistryKey);
+        final FlowEntry existing = flowRegistry.get(compactKey);
+        if (existing != null) {
+            FlowRegistryUtil.spyFlowIdResolved(messageSpy);
+            return existing.descriptor.getFlowId();
+        }
+
+        final FlowId alienFlowId = FlowUtil.createAlienFlowId(tableId);
+        final FlowDescriptor alienFlowDescriptor = FlowDescriptorFactory.create(tableId, alienFlowId);
+        final FlowEntry previous = flowRegistry.putIfAbsent(compactKey, new FlowEntry(compactKey, alienFlowDescriptor));
+        if (previous == null) {
+            LOG.trace("Flow descriptor for flow hash {} wasn't found.", compactKey.getHash());
+            indexCookie(compactKey);
+            FlowRegistryUtil.spyFlowIdAlien(messageSpy);
+            return alienFlowId;
+        } else {
+            FlowRegistryUtil.spyFlowIdResolved(messageSpy);
+            return previous.descriptor.getFlowId();
+        }
+    }
+
+    @Override
+    public void removeDescriptor(final FlowRegistryKey flowRegistryKey) {
+        final CompactFlowRegistryKey compactKey = CompactFlowRegistryKey.create(flowRegistryKey);
+        LOG.trace("Removing flowDescriptor for flow hash : {}", compactKey.getHash());
+        final FlowEntry removed = flowRegistry.remove(compactKey);
+        if (removed != null) {
+            unindexCookie(removed.key);
+        }
+    }
+
+    /**
+     * @return snapshot of all flow descriptors, keys are {@link CompactFlowRegistryKey}s carrying the latest stored
+     * cookie
+     */
+    @Override
+    public Map<FlowRegistryKey, FlowDescriptor> getAllFlowDescriptors() {
+        final Map<FlowRegistryKey, FlowDescriptor> snapshot = new HashMap<>();
+        for (FlowEntry flowEntry : flowRegistry.values()) {
+            snapshot.put(flowEntry.key, flowEntry.descriptor);
+        }
+        return Collections.unmodifiableMap(snapshot);
+    }
+
+    /**
+     * @param cookie flow cookie
+     * @return snapshot of flow descriptors stored for flows with given cookie
+     */
+    public Map<FlowRegistryKey, FlowDescriptor> getFlowDescriptorsByCookie(final BigInteger cookie) {
+        final Set<CompactFlowRegistryKey> keys = cookieIndex.get(cookie.longValue());
+        if (keys == null) {
+            return Collections.emptyMap();
+        }
+        final Map<FlowRegistryKey, FlowDescriptor> result = new HashMap<>();
+        for (CompactFlowRegistryKey key : keys) {
+            final FlowEntry flowEntry = flowRegistry.get(key);
+            if (flowEntry != null && flowEntry.key.getCookieBits() == key.getCookieBits()) {
+                result.put(flowEntry.key, flowEntry.descriptor);
+            }
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    private void indexCookie(final CompactFlowRegistryKey key) {
+        final Long cookie = key.getCookieBits();
+        while (true) {
+            Set<CompactFlowRegistryKey> keys = cookieIndex.get(cookie);
+            if (keys == null) {
+                final Set<CompactFlowRegistryKey> newKeys =
+                        Collections.newSetFromMap(new ConcurrentHashMap<CompactFlowRegistryKey, Boolean>());
+                keys = cookieIndex.putIfAbsent(cookie, newKeys);
+                if (keys == null) {
+                    keys = newKeys;
+                }
+            }
+            keys.add(key);
+            // bucket might have been dropped as empty meanwhile - retry with fresh one
+            if (cookieIndex.get(cookie) == keys) {
+                return;
+            }
+        }
+    }
+
+    private void unindexCookie(final CompactFlowRegistryKey key) {
+        final Long cookie = key.getCookieBits();
+        final Set<CompactFlowRegistryKey> keys = cookieIndex.get(cookie);
+        if (keys != null) {
+            keys.remove(key);
+            if (keys.isEmpty()) {
+                cookieIndex.remove(cookie, keys);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        flowRegistry.clear();
+        cookieIndex.clear();
+    }
+
+    /**
+     * Stored key (with the latest cookie) and descriptor.
+     */
+    private static final class FlowEntry {
+        private final CompactFlowRegistryKey key;
+        private final FlowDescriptor descriptor;
+
+        private FlowEntry(final CompactFlowRegistryKey key, final FlowDescriptor descriptor) {
+            this.key = key;
+            this.descriptor = descriptor;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.openflowplugin.impl.registry.flow;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import java.math.BigInteger;
+import java.util.Arrays;
+import org.opendaylight.openflowplugin.api.OFConstants;
+import org.opendaylight.openflowplugin.api.openflow.registry.flow.FlowRegistryKey;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.types.rev131026.Flow;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.types.rev131026.flow.Match;
+
+/**
+ * {@link FlowRegistryKey} holding match in normalized canonical binary form (see {@link FlowMatchEncoder}) instead
+ * of binding object. Identity of flow is given by table id, priority and match (cookie is carried along but ignored
+ * by {@link #equals(Object)}), 64-bit hash of those is computed once on creation.
+ */
+public final class CompactFlowRegistryKey implements FlowRegistryKey {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final BigInteger UNSIGNED_LONG_OFFSET = BigInteger.ONE.shiftLeft(Long.SIZE);
+
+    private final short tableId;
+    private final int priority;
+    private final long cookie;
+    private final byte[] match;
+    private final long hash;
+
+    private CompactFlowRegistryKey(final short tableId, final int priority, final long cookie, final byte[] match) {
+        this.tableId = tableId;
+        this.priority = priority;
+        this.cookie = cookie;
+        this.match = match;
+        this.hash = computeHash(tableId, priority, match);
+    }
+
+    public static CompactFlowRegistryKey create(final Flow flow) {
+        final short tableId = Preconditions.checkNotNull(flow.getTableId(), "flow tableId must not be null");
+        final int priority = MoreObjects.firstNonNull(flow.getPriority(), OFConstants.DEFAULT_FLOW_PRIORITY);
+        final BigInteger cookie = MoreObjects.firstNonNull(flow.getCookie(), OFConstants.DEFAULT_FLOW_COOKIE).getValue();
+        return create(tableId, priority, cookie, flow.getMatch());
+    }
+
+    /**
+     * @param flowRegistryKey key created by {@link FlowRegistryKeyFactory} (normalized or not)
+     * @return compact form of given key
+     */
+    public static CompactFlowRegistryKey create(final FlowRegistryKey flowRegistryKey) {
+        if (flowRegistryKey instanceof CompactFlowRegistryKey) {
+            return (CompactFlowRegistryKey) flowRegistryKey;
+        }
+        Preconditions.checkArgument(flowRegistryKey instanceof FlowRegistryKeyFactory.FlowRegistryKeyDto,
+                "unsupported flow registry key: %s", flowRegistryKey);
+        final FlowRegistryKeyFactory.FlowRegistryKeyDto keyDto = (FlowRegistryKeyFactory.FlowRegistryKeyDto) flowRegistryKey;
+        return create(keyDto.getTableId(), keyDto.getPriority(), keyDto.getCookie(), keyDto.getMatch());
+    }
+
+    private static CompactFlowRegistryKey create(final short tableId, final int priority, final BigInteger cookie,
+                                                 final Match match) {
+        return new CompactFlowRegistryKey(tableId, priority, cookie.longValue(), FlowMatchEncoder.encode(match));
+    }
+
+    private static long computeHash(final short tableId, final int priority, final byte[] match) {
+        // FNV-1a
+        long result = FNV_OFFSET_BASIS;
+        result = (result ^ (tableId & 0xff)) * FNV_PRIME;
+        result = (result ^ ((priority >>> 8) & 0xff)) * FNV_PRIME;
+        result = (result ^ (priority & 0xff)) * FNV_PRIME;
+        for (byte b : match) {
+            result = (result ^ (b & 0xff)) * FNV_PRIME;
+        }
+        return result;
+    }
+
+    /**
+     * @return 64-bit hash of table id, priority and match
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * @return canonical binary form of match (shared, do not modify)
+     */
+    byte[] getEncodedMatch() {
+        return match;
+    }
+
+    @Override
+    public short getTableId() {
+        return tableId;
+    }
+
+    @Override
+    public int getPriority() {
+        return priority;
+    }
+
+    @Override
+    public BigInteger getCookie() {
+        final BigInteger value = BigInteger.valueOf(cookie);
+        return cookie < 0 ? value.add(UNSIGNED_LONG_OFFSET) : value;
+    }
+
+    long getCookieBits() {
+        return cookie;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        final CompactFlowRegistryKey that = (CompactFlowRegistryKey) o;
+        return hash == that.hash
+                && tableId == that.tableId
+                && priority == that.priority
+                && Arrays.equals(match, that.match);
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("tableId", tableId)
+                .add("priority", priority)
+                .add("cookie", getCookie())
+                .add("hash", Long.toHexString(hash))
+                .toString();
+    }
+}
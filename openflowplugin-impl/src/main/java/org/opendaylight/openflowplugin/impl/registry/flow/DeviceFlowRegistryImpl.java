@@ -11,9 +11,11 @@ import com.romix.scala.collection.concurrent.TrieMap;
 import java.util.Collections;
 import java.util.Map;
 import java.util.concurrent.ConcurrentMap;
+import javax.annotation.Nullable;
 import org.opendaylight.openflowplugin.api.openflow.registry.flow.DeviceFlowRegistry;
 import org.opendaylight.openflowplugin.api.openflow.registry.flow.FlowDescriptor;
 import org.opendaylight.openflowplugin.api.openflow.registry.flow.FlowRegistryKey;
+import org.opendaylight.openflowplugin.api.openflow.statistics.ofpspecific.MessageSpy;
 import org.opendaylight.openflowplugin.impl.util.FlowUtil;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.FlowId;
 import org.slf4j.Logger;
@@ -23,30 +25,61 @@ public class DeviceFlowRegistryImpl implements DeviceFlowRegistry {
     private static final Logger LOG = LoggerFactory.getLogger(DeviceFlowRegistryImpl.class);
 
     private final ConcurrentMap<FlowRegistryKey, FlowDescriptor> flowRegistry = new TrieMap<>();
+    private final MessageSpy messageSpy;
+    private final FlowRegistryKeyFactory keyFactory;
+
+    public DeviceFlowRegistryImpl() {
+        this(null);
+    }
+
+    /**
+     * @param messageSpy counts flows resolved by {@link #storeIfNecessary(FlowRegistryKey, short)} (optional)
+     */
+    public DeviceFlowRegistryImpl(@Nullable final MessageSpy messageSpy) {
+        this(messageSpy, false);
+    }
+
+    /**
+     * @param messageSpy     counts flows resolved by {@link #storeIfNecessary(FlowRegistryKey, short)} (optional)
+     * @param normalizedKeys if true then flows are identified by normalized match, see {@link FlowRegistryKeyFactory}
+     */
+    public DeviceFlowRegistryImpl(@Nullable final MessageSpy messageSpy, final boolean normalizedKeys) {
+        this.messageSpy = messageSpy;
+        this.keyFactory = new FlowRegistryKeyFactory(normalizedKeys);
+    }
 
     @Override
     public FlowDescriptor retrieveIdForFlow(final FlowRegistryKey flowRegistryKey) {
-        FlowDescriptor flowDescriptor = flowRegistry.get(flowRegistryKey);
+        FlowDescriptor flowDescriptor = flowRegistry.get(keyFactory.convert(flowRegistryKey));
         return flowDescriptor;
     }
 
     @Override
     public void store(final FlowRegistryKey flowRegistryKey, final FlowDescriptor flowDescriptor) {
         LOG.trace("Storing flowDescriptor with table ID : {} and flow ID : {} for flow hash : {}", flowDescriptor.getTableKey().getId(), flowDescriptor.getFlowId().getValue(), flowRegistryKey.hashCode());
-        flowRegistry.put(flowRegistryKey, flowDescriptor);
+        flowRegistry.put(keyFactory.convert(flowRegistryKey), flowDescriptor);
     }
 
     @Override
     public FlowId storeIfNecessary(final FlowRegistryKey flowRegistryKey, @Deprecated final short tableId) {
         //TODO: remove tableId parameter - it is contained in the first one
+        final FlowRegistryKey registryKey = keyFactory.convert(flowRegistryKey);
+        final FlowDescriptor existing = flowRegistry.get(registryKey);
+        if (existing != null) {
+            FlowRegistryUtil.spyFlowIdResolved(messageSpy);
+            return existing.getFlowId();
+        }
+
         final FlowId alienFlowId = FlowUtil.createAlienFlowId(tableId);
         final FlowDescriptor alienFlowDescriptor = FlowDescriptorFactory.create(tableId, alienFlowId);
 
-        final FlowDescriptor previous = flowRegistry.putIfAbsent(flowRegistryKey, alienFlowDescriptor);
+        final FlowDescriptor previous = flowRegistry.putIfAbsent(registryKey, alienFlowDescriptor);
         if (previous == null) {
             LOG.trace("Flow descriptor for flow hash {} wasn't found.", flowRegistryKey.hashCode());
+            FlowRegistryUtil.spyFlowIdAlien(messageSpy);
             return alienFlowId;
         } else {
+            FlowRegistryUtil.spyFlowIdResolved(messageSpy);
             return previous.getFlowId();
         }
     }
@@ -55,7 +88,7 @@ public class DeviceFlowRegistryImpl implements DeviceFlowRegistry {
     public void removeDescriptor(final FlowRegistryKey flowRegistryKey) {
         synchronized (flowRegistryKey) {
             LOG.trace("Removing flowDescriptor for flow hash : {}", flowRegistryKey.hashCode());
-            flowRegistry.remove(flowRegistryKey);
+            flowRegistry.remove(keyFactory.convert(flowRegistryKey));
         }
     }
 
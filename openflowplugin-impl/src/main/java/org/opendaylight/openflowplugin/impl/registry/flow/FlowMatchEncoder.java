@@ -0,0 +1,841 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.openflowplugin.impl.registry.flow;
+
+import com.google.common.base.Optional;
+import com.google.common.net.InetAddresses;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.opendaylight.openflowplugin.extension.api.GroupingLooseResolver;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.types.rev131026.flow.Match;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.arp.match.fields.ArpSourceHardwareAddress;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.arp.match.fields.ArpTargetHardwareAddress;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.ethernet.match.fields.EthernetDestination;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.ethernet.match.fields.EthernetSource;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.ethernet.match.fields.EthernetType;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.ipv6.match.fields.Ipv6ExtHeader;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.ipv6.match.fields.Ipv6Label;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.match.EthernetMatch;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.match.Icmpv4Match;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.match.Icmpv6Match;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.match.IpMatch;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.match.Layer3Match;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.match.Layer4Match;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.match.Metadata;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.match.ProtocolMatchFields;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.match.TcpFlagMatch;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.match.Tunnel;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.match.VlanMatch;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.match.layer._3.match.ArpMatch;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.match.layer._3.match.Ipv4Match;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.match.layer._3.match.Ipv4MatchArbitraryBitMask;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.match.layer._3.match.Ipv6Match;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.match.layer._3.match.Ipv6MatchArbitraryBitMask;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.match.layer._3.match.TunnelIpv4Match;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.match.layer._4.match.SctpMatch;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.match.layer._4.match.TcpMatch;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.match.layer._4.match.UdpMatch;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.protocol.match.fields.Pbb;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.vlan.match.fields.VlanId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflowplugin.extension.general.rev140714.GeneralAugMatchNodesNodeTableFlow;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflowplugin.extension.general.rev140714.GeneralAugMatchNotifUpdateFlowStats;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflowplugin.extension.general.rev140714.GeneralAugMatchRpcAddFlow;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflowplugin.extension.general.rev140714.GeneralAugMatchRpcRemoveFlow;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflowplugin.extension.general.rev140714.GeneralAugMatchRpcUpdateFlowOriginal;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflowplugin.extension.general.rev140714.GeneralAugMatchRpcUpdateFlowUpdated;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflowplugin.extension.general.rev140714.GeneralExtensionListGrouping;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflowplugin.extension.general.rev140714.general.extension.list.grouping.ExtensionList;
+import org.opendaylight.yangtools.yang.binding.Augmentable;
+import org.opendaylight.yangtools.yang.binding.Augmentation;
+import org.opendaylight.yangtools.yang.binding.DataContainer;
+import org.opendaylight.yangtools.yang.binding.DataObject;
+import org.opendaylight.yangtools.yang.binding.util.BindingReflections;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Encodes {@link Match} into compact canonical byte form - every present leaf is written as tag followed by its
+ * value in fixed order, absent leaves are skipped. Two matches with equal leaf values produce equal bytes no matter
+ * which builder or augmentation class (rpc input, inventory, statistics) they were created from.
+ * <p>
+ * Values are normalized the way a switch reports them back in flow statistics, so that flow written by application
+ * and the same flow coming from device encode equally:
+ * <ul>
+ * <li>IPv4/IPv6 addresses are written in binary form, host bits outside of prefix/mask are cleared and
+ * arbitrary bit mask which is contiguous is written as prefix (so it equals to the plain prefix match)</li>
+ * <li>MAC addresses are written in binary form (case and separator insensitive), address bits outside of mask
+ * are cleared</li>
+ * <li>masks with all bits set are omitted (exact match), fields with empty mask or zero prefix are omitted
+ * (wildcard)</li>
+ * </ul>
+ * Values which can not be parsed are written as they are (under distinct tag). Vendor extensions are opaque to this
+ * encoder, they are written as extension key name followed by leaf names and values of the extension (read through
+ * getters of its augmentations, so that augmentation class does not matter).
+ */
+public final class FlowMatchEncoder {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FlowMatchEncoder.class);
+
+    private static final int INITIAL_BUFFER_SIZE = 256;
+
+    private static final byte IN_PORT = 1;
+    private static final byte IN_PHY_PORT = 2;
+    private static final byte METADATA = 3;
+    private static final byte METADATA_MASK = 4;
+    private static final byte TUNNEL_ID = 5;
+    private static final byte TUNNEL_MASK = 6;
+    private static final byte ETH_SRC = 7;
+    private static final byte ETH_SRC_MASK = 8;
+    private static final byte ETH_DST = 9;
+    private static final byte ETH_DST_MASK = 10;
+    private static final byte ETH_TYPE = 11;
+    private static final byte VLAN_ID = 12;
+    private static final byte VLAN_ID_PRESENT = 13;
+    private static final byte VLAN_PCP = 14;
+    private static final byte IP_PROTOCOL = 15;
+    private static final byte IP_DSCP = 16;
+    private static final byte IP_ECN = 17;
+    private static final byte IP_PROTO = 18;
+    private static final byte IPV4_SRC = 19;
+    private static final byte IPV4_DST = 20;
+    private static final byte IPV6_SRC = 21;
+    private static final byte IPV6_DST = 22;
+    private static final byte IPV6_ND_TARGET = 23;
+    private static final byte IPV6_FLABEL = 24;
+    private static final byte IPV6_FLABEL_MASK = 25;
+    private static final byte IPV6_ND_SLL = 26;
+    private static final byte IPV6_ND_TLL = 27;
+    private static final byte IPV6_EXTHDR = 28;
+    private static final byte IPV6_EXTHDR_MASK = 29;
+    private static final byte ARP_OP = 30;
+    private static final byte ARP_SPA = 31;
+    private static final byte ARP_TPA = 32;
+    private static final byte ARP_SHA = 33;
+    private static final byte ARP_SHA_MASK = 34;
+    private static final byte ARP_THA = 35;
+    private static final byte ARP_THA_MASK = 36;
+    private static final byte TUNNEL_IPV4_SRC = 37;
+    private static final byte TUNNEL_IPV4_DST = 38;
+    private static final byte UDP_SRC = 39;
+    private static final byte UDP_DST = 40;
+    private static final byte TCP_SRC = 41;
+    private static final byte TCP_DST = 42;
+    private static final byte SCTP_SRC = 43;
+    private static final byte SCTP_DST = 44;
+    private static final byte ICMPV4_TYPE = 45;
+    private static final byte ICMPV4_CODE = 46;
+    private static final byte ICMPV6_TYPE = 47;
+    private static final byte ICMPV6_CODE = 48;
+    private static final byte MPLS_LABEL = 49;
+    private static final byte MPLS_TC = 50;
+    private static final byte MPLS_BOS = 51;
+    private static final byte PBB_ISID = 52;
+    private static final byte PBB_MASK = 53;
+    private static final byte TCP_FLAG = 54;
+    private static final byte EXTENSION = 55;
+
+    /** flag of tag followed by value which could not be normalized */
+    private static final int RAW_VALUE = 0x80;
+    /** ip address followed by prefix length */
+    private static final byte IP_PREFIX_FORM = 0;
+    /** ip address followed by arbitrary (non contiguous) mask */
+    private static final byte IP_BITMASK_FORM = 1;
+
+    private static final int IPV4_ADDRESS_LENGTH = 4;
+    private static final int IPV6_ADDRESS_LENGTH = 16;
+    private static final int MAC_ADDRESS_LENGTH = 6;
+    private static final long MAC_FULL_MASK = 0xffffffffffffL;
+    private static final long IPV6_FLABEL_FULL_MASK = 0xfffffL;
+    private static final long IPV6_EXTHDR_FULL_MASK = 0x1ffL;
+    private static final long PBB_ISID_FULL_MASK = 0xffffffL;
+    private static final long UINT64_FULL_MASK = -1L;
+
+    private static final GroupingLooseResolver<GeneralExtensionListGrouping> EXTENSION_RESOLVER =
+            new GroupingLooseResolver<>(GeneralExtensionListGrouping.class)
+                    .add(GeneralAugMatchRpcAddFlow.class)
+                    .add(GeneralAugMatchRpcRemoveFlow.class)
+                    .add(GeneralAugMatchRpcUpdateFlowOriginal.class)
+                    .add(GeneralAugMatchRpcUpdateFlowUpdated.class)
+                    .add(GeneralAugMatchNodesNodeTableFlow.class)
+                    .add(GeneralAugMatchNotifUpdateFlowStats.class);
+
+    private static final ConcurrentMap<Class<? extends DataContainer>, List<Method>> GETTERS =
+            new ConcurrentHashMap<>();
+
+    private static final ThreadLocal<Encoder> ENCODER = new ThreadLocal<Encoder>() {
+        @Override
+        protected Encoder initialValue() {
+            return new Encoder();
+        }
+    };
+
+    private FlowMatchEncoder() {
+        throw new IllegalStateException("This class should not be instantiated.");
+    }
+
+    /**
+     * @param match match to encode, null is treated as empty match
+     * @return normalized canonical byte form of given match
+     */
+    public static byte[] encode(final Match match) {
+        final Encoder encoder = ENCODER.get();
+        encoder.reset();
+        if (match != null) {
+            encodeMatch(encoder, match);
+        }
+        return encoder.toByteArray();
+    }
+
+    private static void encodeMatch(final Encoder encoder, final Match match) {
+        if (match.getInPort() != null) {
+            encoder.writeString(IN_PORT, match.getInPort().getValue());
+        }
+        if (match.getInPhyPort() != null) {
+            encoder.writeString(IN_PHY_PORT, match.getInPhyPort().getValue());
+        }
+
+        final Metadata metadata = match.getMetadata();
+        if (metadata != null) {
+            encoder.writeMasked(METADATA, METADATA_MASK, toLong(metadata.getMetadata()),
+                    toLong(metadata.getMetadataMask()), UINT64_FULL_MASK);
+        }
+
+        final Tunnel tunnel = match.getTunnel();
+        if (tunnel != null) {
+            encoder.writeMasked(TUNNEL_ID, TUNNEL_MASK, toLong(tunnel.getTunnelId()),
+                    toLong(tunnel.getTunnelMask()), UINT64_FULL_MASK);
+        }
+
+        final EthernetMatch ethernetMatch = match.getEthernetMatch();
+        if (ethernetMatch != null) {
+            encodeEthernetMatch(encoder, ethernetMatch);
+        }
+
+        final VlanMatch vlanMatch = match.getVlanMatch();
+        if (vlanMatch != null) {
+            final VlanId vlanId = vlanMatch.getVlanId();
+            if (vlanId != null) {
+                if (vlanId.getVlanId() != null) {
+                    encoder.writeNumber(VLAN_ID, vlanId.getVlanId().getValue());
+                }
+                encoder.writeBoolean(VLAN_ID_PRESENT, vlanId.isVlanIdPresent());
+            }
+            if (vlanMatch.getVlanPcp() != null) {
+                encoder.writeNumber(VLAN_PCP, vlanMatch.getVlanPcp().getValue());
+            }
+        }
+
+        final IpMatch ipMatch = match.getIpMatch();
+        if (ipMatch != null) {
+            encoder.writeNumber(IP_PROTOCOL, ipMatch.getIpProtocol());
+            if (ipMatch.getIpDscp() != null) {
+                encoder.writeNumber(IP_DSCP, ipMatch.getIpDscp().getValue());
+            }
+            encoder.writeNumber(IP_ECN, ipMatch.getIpEcn());
+            if (ipMatch.getIpProto() != null) {
+                encoder.writeNumber(IP_PROTO, ipMatch.getIpProto().getIntValue());
+            }
+        }
+
+        final Layer3Match layer3Match = match.getLayer3Match();
+        if (layer3Match != null) {
+            encodeLayer3Match(encoder, layer3Match);
+        }
+
+        final Layer4Match layer4Match = match.getLayer4Match();
+        if (layer4Match instanceof UdpMatch) {
+            final UdpMatch udpMatch = (UdpMatch) layer4Match;
+            if (udpMatch.getUdpSourcePort() != null) {
+                encoder.writeNumber(UDP_SRC, udpMatch.getUdpSourcePort().getValue());
+            }
+            if (udpMatch.getUdpDestinationPort() != null) {
+                encoder.writeNumber(UDP_DST, udpMatch.getUdpDestinationPort().getValue());
+            }
+        } else if (layer4Match instanceof TcpMatch) {
+            final TcpMatch tcpMatch = (TcpMatch) layer4Match;
+            if (tcpMatch.getTcpSourcePort() != null) {
+                encoder.writeNumber(TCP_SRC, tcpMatch.getTcpSourcePort().getValue());
+            }
+            if (tcpMatch.getTcpDestinationPort() != null) {
+                encoder.writeNumber(TCP_DST, tcpMatch.getTcpDestinationPort().getValue());
+            }
+        } else if (layer4Match instanceof SctpMatch) {
+            final SctpMatch sctpMatch = (SctpMatch) layer4Match;
+            if (sctpMatch.getSctpSourcePort() != null) {
+                encoder.writeNumber(SCTP_SRC, sctpMatch.getSctpSourcePort().getValue());
+            }
+            if (sctpMatch.getSctpDestinationPort() != null) {
+                encoder.writeNumber(SCTP_DST, sctpMatch.getSctpDestinationPort().getValue());
+            }
+        }
+
+        final Icmpv4Match icmpv4Match = match.getIcmpv4Match();
+        if (icmpv4Match != null) {
+            encoder.writeNumber(ICMPV4_TYPE, icmpv4Match.getIcmpv4Type());
+            encoder.writeNumber(ICMPV4_CODE, icmpv4Match.getIcmpv4Code());
+        }
+
+        final Icmpv6Match icmpv6Match = match.getIcmpv6Match();
+        if (icmpv6Match != null) {
+            encoder.writeNumber(ICMPV6_TYPE, icmpv6Match.getIcmpv6Type());
+            encoder.writeNumber(ICMPV6_CODE, icmpv6Match.getIcmpv6Code());
+        }
+
+        final ProtocolMatchFields protocolMatchFields = match.getProtocolMatchFields();
+        if (protocolMatchFields != null) {
+            encoder.writeNumber(MPLS_LABEL, protocolMatchFields.getMplsLabel());
+            encoder.writeNumber(MPLS_TC, protocolMatchFields.getMplsTc());
+            encoder.writeNumber(MPLS_BOS, protocolMatchFields.getMplsBos());
+            final Pbb pbb = protocolMatchFields.getPbb();
+            if (pbb != null) {
+                encoder.writeMasked(PBB_ISID, PBB_MASK, pbb.getPbbIsid(), pbb.getPbbMask(), PBB_ISID_FULL_MASK);
+            }
+        }
+
+        final TcpFlagMatch tcpFlagMatch = match.getTcpFlagMatch();
+        if (tcpFlagMatch != null) {
+            encoder.writeNumber(TCP_FLAG, tcpFlagMatch.getTcpFlag());
+        }
+
+        final Optional<GeneralExtensionListGrouping> extensionListOpt = EXTENSION_RESOLVER.getExtension(match);
+        if (extensionListOpt.isPresent() && extensionListOpt.get().getExtensionList() != null) {
+            encodeExtensions(encoder, extensionListOpt.get().getExtensionList());
+        }
+    }
+
+    private static void encodeEthernetMatch(final Encoder encoder, final EthernetMatch ethernetMatch) {
+        final EthernetSource ethernetSource = ethernetMatch.getEthernetSource();
+        if (ethernetSource != null && ethernetSource.getAddress() != null) {
+            encoder.writeMacAddress(ETH_SRC, ETH_SRC_MASK, ethernetSource.getAddress().getValue(),
+                    ethernetSource.getMask() == null ? null : ethernetSource.getMask().getValue());
+        }
+        final EthernetDestination ethernetDestination = ethernetMatch.getEthernetDestination();
+        if (ethernetDestination != null && ethernetDestination.getAddress() != null) {
+            encoder.writeMacAddress(ETH_DST, ETH_DST_MASK, ethernetDestination.getAddress().getValue(),
+                    ethernetDestination.getMask() == null ? null : ethernetDestination.getMask().getValue());
+        }
+        final EthernetType ethernetType = ethernetMatch.getEthernetType();
+        if (ethernetType != null && ethernetType.getType() != null) {
+            encoder.writeNumber(ETH_TYPE, ethernetType.getType().getValue());
+        }
+    }
+
+    private static void encodeLayer3Match(final Encoder encoder, final Layer3Match layer3Match) {
+        if (layer3Match instanceof Ipv4Match) {
+            final Ipv4Match ipv4Match = (Ipv4Match) layer3Match;
+            if (ipv4Match.getIpv4Source() != null) {
+                encoder.writeIpv4Prefix(IPV4_SRC, ipv4Match.getIpv4Source().getValue());
+            }
+            if (ipv4Match.getIpv4Destination() != null) {
+                encoder.writeIpv4Prefix(IPV4_DST, ipv4Match.getIpv4Destination().getValue());
+            }
+        } else if (layer3Match instanceof Ipv4MatchArbitraryBitMask) {
+            final Ipv4MatchArbitraryBitMask ipv4Match = (Ipv4MatchArbitraryBitMask) layer3Match;
+            if (ipv4Match.getIpv4SourceAddressNoMask() != null) {
+                encoder.writeIpv4Masked(IPV4_SRC, ipv4Match.getIpv4SourceAddressNoMask().getValue(),
+                        ipv4Match.getIpv4SourceArbitraryBitmask() == null
+                                ? null : ipv4Match.getIpv4SourceArbitraryBitmask().getValue());
+            }
+            if (ipv4Match.getIpv4DestinationAddressNoMask() != null) {
+                encoder.writeIpv4Masked(IPV4_DST, ipv4Match.getIpv4DestinationAddressNoMask().getValue(),
+                        ipv4Match.getIpv4DestinationArbitraryBitmask() == null
+                                ? null : ipv4Match.getIpv4DestinationArbitraryBitmask().getValue());
+            }
+        } else if (layer3Match instanceof Ipv6Match) {
+            encodeIpv6Match(encoder, (Ipv6Match) layer3Match);
+        } else if (layer3Match instanceof Ipv6MatchArbitraryBitMask) {
+            final Ipv6MatchArbitraryBitMask ipv6Match = (Ipv6MatchArbitraryBitMask) layer3Match;
+            if (ipv6Match.getIpv6SourceAddressNoMask() != null) {
+                encoder.writeIpv6Masked(IPV6_SRC, ipv6Match.getIpv6SourceAddressNoMask().getValue(),
+                        ipv6Match.getIpv6SourceArbitraryBitmask() == null
+                                ? null : ipv6Match.getIpv6SourceArbitraryBitmask().getValue());
+            }
+            if (ipv6Match.getIpv6DestinationAddressNoMask() != null) {
+                encoder.writeIpv6Masked(IPV6_DST, ipv6Match.getIpv6DestinationAddressNoMask().getValue(),
+                        ipv6Match.getIpv6DestinationArbitraryBitmask() == null
+                                ? null : ipv6Match.getIpv6DestinationArbitraryBitmask().getValue());
+            }
+        } else if (layer3Match instanceof ArpMatch) {
+            encodeArpMatch(encoder, (ArpMatch) layer3Match);
+        } else if (layer3Match instanceof TunnelIpv4Match) {
+            final TunnelIpv4Match tunnelIpv4Match = (TunnelIpv4Match) layer3Match;
+            if (tunnelIpv4Match.getTunnelIpv4Source() != null) {
+                encoder.writeIpv4Prefix(TUNNEL_IPV4_SRC, tunnelIpv4Match.getTunnelIpv4Source().getValue());
+            }
+            if (tunnelIpv4Match.getTunnelIpv4Destination() != null) {
+                encoder.writeIpv4Prefix(TUNNEL_IPV4_DST, tunnelIpv4Match.getTunnelIpv4Destination().getValue());
+            }
+        }
+    }
+
+    private static void encodeIpv6Match(final Encoder encoder, final Ipv6Match ipv6Match) {
+        if (ipv6Match.getIpv6Source() != null) {
+            encoder.writeIpv6Prefix(IPV6_SRC, ipv6Match.getIpv6Source().getValue());
+        }
+        if (ipv6Match.getIpv6Destination() != null) {
+            encoder.writeIpv6Prefix(IPV6_DST, ipv6Match.getIpv6Destination().getValue());
+        }
+        if (ipv6Match.getIpv6NdTarget() != null) {
+            encoder.writeIpv6Masked(IPV6_ND_TARGET, ipv6Match.getIpv6NdTarget().getValue(), null);
+        }
+        final Ipv6Label ipv6Label = ipv6Match.getIpv6Label();
+        if (ipv6Label != null && ipv6Label.getIpv6Flabel() != null) {
+            encoder.writeMasked(IPV6_FLABEL, IPV6_FLABEL_MASK, ipv6Label.getIpv6Flabel().getValue(),
+                    ipv6Label.getFlabelMask() == null ? null : ipv6Label.getFlabelMask().getValue(),
+                    IPV6_FLABEL_FULL_MASK);
+        }
+        if (ipv6Match.getIpv6NdSll() != null) {
+            encoder.writeMacAddress(IPV6_ND_SLL, IPV6_ND_SLL, ipv6Match.getIpv6NdSll().getValue(), null);
+        }
+        if (ipv6Match.getIpv6NdTll() != null) {
+            encoder.writeMacAddress(IPV6_ND_TLL, IPV6_ND_TLL, ipv6Match.getIpv6NdTll().getValue(), null);
+        }
+        final Ipv6ExtHeader ipv6ExtHeader = ipv6Match.getIpv6ExtHeader();
+        if (ipv6ExtHeader != null && ipv6ExtHeader.getIpv6Exthdr() != null) {
+            encoder.writeMasked(IPV6_EXTHDR, IPV6_EXTHDR_MASK, ipv6ExtHeader.getIpv6Exthdr(),
+                    ipv6ExtHeader.getIpv6ExthdrMask(), IPV6_EXTHDR_FULL_MASK);
+        }
+    }
+
+    private static void encodeArpMatch(final Encoder encoder, final ArpMatch arpMatch) {
+        encoder.writeNumber(ARP_OP, arpMatch.getArpOp());
+        if (arpMatch.getArpSourceTransportAddress() != null) {
+            encoder.writeIpv4Prefix(ARP_SPA, arpMatch.getArpSourceTransportAddress().getValue());
+        }
+        if (arpMatch.getArpTargetTransportAddress() != null) {
+            encoder.writeIpv4Prefix(ARP_TPA, arpMatch.getArpTargetTransportAddress().getValue());
+        }
+        final ArpSourceHardwareAddress sourceHardwareAddress = arpMatch.getArpSourceHardwareAddress();
+        if (sourceHardwareAddress != null && sourceHardwareAddress.getAddress() != null) {
+            encoder.writeMacAddress(ARP_SHA, ARP_SHA_MASK, sourceHardwareAddress.getAddress().getValue(),
+                    sourceHardwareAddress.getMask() == null ? null : sourceHardwareAddress.getMask().getValue());
+        }
+        final ArpTargetHardwareAddress targetHardwareAddress = arpMatch.getArpTargetHardwareAddress();
+        if (targetHardwareAddress != null && targetHardwareAddress.getAddress() != null) {
+            encoder.writeMacAddress(ARP_THA, ARP_THA_MASK, targetHardwareAddress.getAddress().getValue(),
+                    targetHardwareAddress.getMask() == null ? null : targetHardwareAddress.getMask().getValue());
+        }
+    }
+
+    private static void encodeExtensions(final Encoder encoder, final List<ExtensionList> extensionList) {
+        // extension list is keyed by extension key - sort it so that order of items does not matter
+        final List<String> encodedExtensions = new ArrayList<>(extensionList.size());
+        for (ExtensionList extension : extensionList) {
+            final String extensionKey = extension.getExtensionKey() == null ? "" : extension.getExtensionKey().getName();
+            final StringBuilder encodedExtension = new StringBuilder(extensionKey).append('=');
+            appendContent(encodedExtension, extension.getExtension());
+            encodedExtensions.add(encodedExtension.toString());
+        }
+        Collections.sort(encodedExtensions);
+        for (String encodedExtension : encodedExtensions) {
+            encoder.writeString(EXTENSION, encodedExtension);
+        }
+    }
+
+    /**
+     * Writes content of extension value - leaves of data objects are written as getter name and value, augmentations
+     * without their class. Vendor augments the extension container with a different augmentation class for every
+     * place the match is used in (rpc input, inventory, statistics), all of them share the same grouping and getters.
+     */
+    private static void appendContent(final StringBuilder target, final Object value) {
+        if (value instanceof DataObject) {
+            appendDataObject(target, (DataObject) value);
+        } else if (value instanceof List) {
+            // keyed lists are unordered
+            final List<String> items = new ArrayList<>(((List<?>) value).size());
+            for (Object item : (List<?>) value) {
+                final StringBuilder encodedItem = new StringBuilder();
+                appendContent(encodedItem, item);
+                items.add(encodedItem.toString());
+            }
+            Collections.sort(items);
+            target.append(items);
+        } else if (value instanceof Class) {
+            target.append(((Class<?>) value).getName());
+        } else if (value instanceof byte[]) {
+            target.append(Arrays.toString((byte[]) value));
+        } else {
+            target.append(value);
+        }
+    }
+
+    private static void appendDataObject(final StringBuilder target, final DataObject dataObject) {
+        target.append('{');
+        for (Method getter : getGetters(dataObject.getImplementedInterface())) {
+            final Object leafValue;
+            try {
+                leafValue = getter.invoke(dataObject);
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                LOG.debug("Failed to read {} of extension {}", getter.getName(), dataObject.getImplementedInterface(), e);
+                continue;
+            }
+            if (leafValue != null) {
+                target.append(getter.getName()).append('=');
+                appendContent(target, leafValue);
+                target.append(';');
+            }
+        }
+        if (dataObject instanceof Augmentable) {
+            final List<String> augmentations = new ArrayList<>();
+            for (Augmentation<?> augmentation : BindingReflections.getAugmentations((Augmentable<?>) dataObject).values()) {
+                final StringBuilder encodedAugmentation = new StringBuilder();
+                appendContent(encodedAugmentation, augmentation);
+                augmentations.add(encodedAugmentation.toString());
+            }
+            Collections.sort(augmentations);
+            for (String encodedAugmentation : augmentations) {
+                target.append(encodedAugmentation);
+            }
+        }
+        target.append('}');
+    }
+
+    /**
+     * @return getters of leaves, containers and lists of given binding interface sorted by name, key getter is left
+     * out (key leaves have getters of their own)
+     */
+    private static List<Method> getGetters(final Class<? extends DataContainer> bindingInterface) {
+        List<Method> getters = GETTERS.get(bindingInterface);
+        if (getters == null) {
+            final Map<String, Method> gettersByName = new TreeMap<>();
+            for (Method method : bindingInterface.getMethods()) {
+                final String name = method.getName();
+                if (method.getParameterTypes().length == 0 && !Modifier.isStatic(method.getModifiers())
+                        && (name.startsWith("get") || name.startsWith("is"))
+                        && !"getImplementedInterface".equals(name) && !"getKey".equals(name)) {
+                    gettersByName.put(name, method);
+                }
+            }
+            getters = new ArrayList<>(gettersByName.values());
+            GETTERS.putIfAbsent(bindingInterface, getters);
+        }
+        return getters;
+    }
+
+    private static Long toLong(final BigInteger value) {
+        return value == null ? null : value.longValue();
+    }
+
+    /**
+     * @param address dotted decimal IPv4 address
+     * @param target  4 bytes array to parse address into
+     * @return true if address was parsed
+     */
+    private static boolean parseIpv4Address(final String address, final byte[] target) {
+        int octet = 0;
+        int octetIndex = 0;
+        int digits = 0;
+        for (int i = 0; i < address.length(); i++) {
+            final char c = address.charAt(i);
+            if (c >= '0' && c <= '9') {
+                octet = octet * 10 + (c - '0');
+                if (++digits > 3 || octet > 255) {
+                    return false;
+                }
+            } else if (c == '.' && digits > 0 && octetIndex < IPV4_ADDRESS_LENGTH - 1) {
+                target[octetIndex++] = (byte) octet;
+                octet = 0;
+                digits = 0;
+            } else {
+                return false;
+            }
+        }
+        if (digits == 0 || octetIndex != IPV4_ADDRESS_LENGTH - 1) {
+            return false;
+        }
+        target[octetIndex] = (byte) octet;
+        return true;
+    }
+
+    /**
+     * @param address IPv6 address in any textual form (including embedded IPv4)
+     * @param target  16 bytes array to parse address into
+     * @return true if address was parsed
+     */
+    private static boolean parseIpv6Address(final String address, final byte[] target) {
+        final byte[] parsed;
+        try {
+            parsed = InetAddresses.forString(address).getAddress();
+        } catch (final IllegalArgumentException e) {
+            return false;
+        }
+        if (parsed.length == IPV6_ADDRESS_LENGTH) {
+            System.arraycopy(parsed, 0, target, 0, IPV6_ADDRESS_LENGTH);
+        } else {
+            // IPv4 mapped address is parsed to IPv4 one
+            Arrays.fill(target, (byte) 0);
+            target[10] = (byte) 0xff;
+            target[11] = (byte) 0xff;
+            System.arraycopy(parsed, 0, target, IPV6_ADDRESS_LENGTH - parsed.length, parsed.length);
+        }
+        return true;
+    }
+
+    /**
+     * @param mac    MAC address (hex digits pairs separated by ':' or '-')
+     * @return address as 48 bit number or -1 if not parseable
+     */
+    private static long parseMacAddress(final String mac) {
+        long result = 0;
+        int digits = 0;
+        for (int i = 0; i < mac.length(); i++) {
+            final char c = mac.charAt(i);
+            final int digit = Character.digit(c, 16);
+            if (digit >= 0) {
+                result = (result << 4) | digit;
+                digits++;
+            } else if ((c != ':' && c != '-') || (i % 3) != 2) {
+                return -1;
+            }
+        }
+        return digits == MAC_ADDRESS_LENGTH * 2 ? result : -1;
+    }
+
+    /**
+     * @param mask   mask in network byte order
+     * @return number of leading set bits if mask is contiguous, otherwise -1
+     */
+    private static int toPrefixLength(final byte[] mask) {
+        int prefixLength = 0;
+        boolean hostPart = false;
+        for (byte b : mask) {
+            final int bits = b & 0xff;
+            if (hostPart) {
+                if (bits != 0) {
+                    return -1;
+                }
+            } else if (bits == 0xff) {
+                prefixLength += Byte.SIZE;
+            } else {
+                final int inverted = ~bits & 0xff;
+                if ((inverted & (inverted + 1)) != 0) {
+                    return -1;
+                }
+                prefixLength += Integer.bitCount(bits);
+                hostPart = true;
+            }
+        }
+        return prefixLength;
+    }
+
+    private static void fillPrefixMask(final byte[] mask, final int prefixLength) {
+        for (int i = 0; i < mask.length; i++) {
+            final int bits = Math.max(0, Math.min(Byte.SIZE, prefixLength - i * Byte.SIZE));
+            mask[i] = (byte) (0xff00 >>> bits);
+        }
+    }
+
+    /**
+     * Growable byte buffer reused by one thread, holds also scratch arrays used for parsing of addresses.
+     */
+    private static final class Encoder {
+        private final byte[] address = new byte[IPV6_ADDRESS_LENGTH];
+        private final byte[] mask = new byte[IPV6_ADDRESS_LENGTH];
+        private final byte[] ipv4Address = new byte[IPV4_ADDRESS_LENGTH];
+        private final byte[] ipv4Mask = new byte[IPV4_ADDRESS_LENGTH];
+        private byte[] buffer = new byte[INITIAL_BUFFER_SIZE];
+        private int position;
+
+        private void reset() {
+            position = 0;
+        }
+
+        private byte[] toByteArray() {
+            return Arrays.copyOf(buffer, position);
+        }
+
+        private void writeNumber(final byte tag, final Number value) {
+            if (value != null) {
+                ensureCapacity(9);
+                buffer[position++] = tag;
+                writeLongValue(value.longValue());
+            }
+        }
+
+        private void writeBoolean(final byte tag, final Boolean value) {
+            if (value != null) {
+                ensureCapacity(2);
+                buffer[position++] = tag;
+                buffer[position++] = (byte) (value ? 1 : 0);
+            }
+        }
+
+        private void writeString(final byte tag, final String value) {
+            if (value != null) {
+                writeBytes(tag, value.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        private void writeRaw(final byte tag, final String value) {
+            writeString((byte) (tag | RAW_VALUE), value.toLowerCase(Locale.ENGLISH));
+        }
+
+        /**
+         * Writes value with bits outside of mask cleared, mask is written only if it is not full.
+         */
+        private void writeMasked(final byte valueTag, final byte maskTag, final Number value, final Number maskValue,
+                                 final long fullMask) {
+            if (value == null) {
+                return;
+            }
+            final long effectiveMask = maskValue == null ? fullMask : maskValue.longValue() & fullMask;
+            if (effectiveMask == 0) {
+                // wildcard
+                return;
+            }
+            writeNumber(valueTag, value.longValue() & effectiveMask);
+            if (effectiveMask != fullMask) {
+                writeNumber(maskTag, effectiveMask);
+            }
+        }
+
+        private void writeMacAddress(final byte addressTag, final byte maskTag, final String macAddress,
+                                     final String macMask) {
+            final long addressValue = parseMacAddress(macAddress);
+            final long maskValue = macMask == null ? MAC_FULL_MASK : parseMacAddress(macMask);
+            if (addressValue < 0 || maskValue < 0) {
+                writeRaw(addressTag, macAddress);
+                if (macMask != null) {
+                    writeRaw(maskTag, macMask);
+                }
+                return;
+            }
+            writeMasked(addressTag, maskTag, addressValue, maskValue, MAC_FULL_MASK);
+        }
+
+        private void writeIpv4Prefix(final byte tag, final String prefix) {
+            final int separator = prefix.indexOf('/');
+            final String addressPart = separator < 0 ? prefix : prefix.substring(0, separator);
+            final int prefixLength;
+            try {
+                prefixLength = separator < 0 ? IPV4_ADDRESS_LENGTH * Byte.SIZE
+                        : Integer.parseInt(prefix.substring(separator + 1));
+            } catch (final NumberFormatException e) {
+                writeRaw(tag, prefix);
+                return;
+            }
+            if (prefixLength < 0 || prefixLength > IPV4_ADDRESS_LENGTH * Byte.SIZE
+                    || !parseIpv4Address(addressPart, ipv4Address)) {
+                writeRaw(tag, prefix);
+                return;
+            }
+            fillPrefixMask(ipv4Mask, prefixLength);
+            writeIpAddress(tag, ipv4Address, ipv4Mask);
+        }
+
+        private void writeIpv4Masked(final byte tag, final String ipAddress, final String ipMask) {
+            if (!parseIpv4Address(ipAddress, ipv4Address)) {
+                writeRaw(tag, ipAddress);
+                return;
+            }
+            if (ipMask == null) {
+                fillPrefixMask(ipv4Mask, IPV4_ADDRESS_LENGTH * Byte.SIZE);
+            } else if (!parseIpv4Address(ipMask, ipv4Mask)) {
+                writeRaw(tag, ipAddress + '/' + ipMask);
+                return;
+            }
+            writeIpAddress(tag, ipv4Address, ipv4Mask);
+        }
+
+        private void writeIpv6Prefix(final byte tag, final String prefix) {
+            final int separator = prefix.indexOf('/');
+            final String addressPart = separator < 0 ? prefix : prefix.substring(0, separator);
+            final int prefixLength;
+            try {
+                prefixLength = separator < 0 ? IPV6_ADDRESS_LENGTH * Byte.SIZE
+                        : Integer.parseInt(prefix.substring(separator + 1));
+            } catch (final NumberFormatException e) {
+                writeRaw(tag, prefix);
+                return;
+            }
+            if (prefixLength < 0 || prefixLength > IPV6_ADDRESS_LENGTH * Byte.SIZE
+                    || !parseIpv6Address(addressPart, address)) {
+                writeRaw(tag, prefix);
+                return;
+            }
+            fillPrefixMask(mask, prefixLength);
+            writeIpAddress(tag, address, mask);
+        }
+
+        private void writeIpv6Masked(final byte tag, final String ipAddress, final String ipMask) {
+            if (!parseIpv6Address(ipAddress, address)) {
+                writeRaw(tag, ipAddress);
+                return;
+            }
+            if (ipMask == null) {
+                fillPrefixMask(mask, IPV6_ADDRESS_LENGTH * Byte.SIZE);
+            } else if (!parseIpv6Address(ipMask, mask)) {
+                writeRaw(tag, ipAddress + '/' + ipMask);
+                return;
+            }
+            writeIpAddress(tag, address, mask);
+        }
+
+        /**
+         * Writes masked address either in prefix form (contiguous mask) or bitmask form, zero mask means wildcard
+         * and nothing is written.
+         */
+        private void writeIpAddress(final byte tag, final byte[] ipAddress, final byte[] ipMask) {
+            final int prefixLength = toPrefixLength(ipMask);
+            if (prefixLength == 0) {
+                return;
+            }
+            ensureCapacity(2 + ipAddress.length * 2 + 1);
+            buffer[position++] = tag;
+            buffer[position++] = prefixLength < 0 ? IP_BITMASK_FORM : IP_PREFIX_FORM;
+            for (int i = 0; i < ipAddress.length; i++) {
+                buffer[position++] = (byte) (ipAddress[i] & ipMask[i]);
+            }
+            if (prefixLength < 0) {
+                System.arraycopy(ipMask, 0, buffer, position, ipMask.length);
+                position += ipMask.length;
+            } else {
+                buffer[position++] = (byte) prefixLength;
+            }
+        }
+
+        private void writeBytes(final byte tag, final byte[] bytes) {
+            ensureCapacity(5 + bytes.length);
+            buffer[position++] = tag;
+            writeIntValue(bytes.length);
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        private void writeIntValue(final int value) {
+            buffer[position++] = (byte) (value >>> 24);
+            buffer[position++] = (byte) (value >>> 16);
+            buffer[position++] = (byte) (value >>> 8);
+            buffer[position++] = (byte) value;
+        }
+
+        private void writeLongValue(final long value) {
+            writeIntValue((int) (value >>> 32));
+            writeIntValue((int) value);
+        }
+
+        private void ensureCapacity(final int additional) {
+            if (position + additional > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + additional));
+            }
+        }
+    }
+}
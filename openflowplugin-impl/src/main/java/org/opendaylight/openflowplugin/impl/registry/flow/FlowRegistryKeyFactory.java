@@ -15,22 +15,57 @@ import org.opendaylight.openflowplugin.api.OFConstants;
 import org.opendaylight.openflowplugin.api.openflow.registry.flow.FlowRegistryKey;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.types.rev131026.Flow;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.types.rev131026.flow.Match;
-import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.types.rev131026.flow.MatchBuilder;
 
 /**
  * Created by Martin Bobak &lt;mbobak@cisco.com&gt; on 8.4.2015.
  */
 public class FlowRegistryKeyFactory {
 
+    private final boolean normalizedKeys;
 
     public FlowRegistryKeyFactory() {
+        this(false);
     }
 
+    /**
+     * @param normalizedKeys true - keys compare flows by normalized match (see {@link FlowMatchEncoder}),
+     *                       false - keys compare flows by match binding object equality
+     */
+    public FlowRegistryKeyFactory(final boolean normalizedKeys) {
+        this.normalizedKeys = normalizedKeys;
+    }
+
+    /**
+     * @param flow flow definition (from application or from device)
+     * @return key comparing flows by table id, priority and match binding object
+     */
     public static FlowRegistryKey create(final Flow flow) {
         return new FlowRegistryKeyDto(flow);
     }
 
-    private static final class FlowRegistryKeyDto implements FlowRegistryKey {
+    /**
+     * @param flow flow definition (from application or from device)
+     * @return key of this factory's form comparing flows by table id, priority and match
+     */
+    public FlowRegistryKey createKey(final Flow flow) {
+        if (normalizedKeys) {
+            return CompactFlowRegistryKey.create(flow);
+        }
+        return new FlowRegistryKeyDto(flow);
+    }
+
+    /**
+     * @param flowRegistryKey key created by {@link #create(Flow)} or by any factory
+     * @return the same key in this factory's form
+     */
+    public FlowRegistryKey convert(final FlowRegistryKey flowRegistryKey) {
+        if (normalizedKeys) {
+            return CompactFlowRegistryKey.create(flowRegistryKey);
+        }
+        return flowRegistryKey;
+    }
+
+    static final class FlowRegistryKeyDto implements FlowRegistryKey {
 
         private final short tableId;
         private final int priority;
@@ -91,5 +126,9 @@ public class FlowRegistryKeyFactory {
         public BigInteger getCookie() {
             return cookie;
         }
+
+        Match getMatch() {
+            return match;
+        }
     }
 }
@@ -0,0 +1,35 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.openflowplugin.impl.registry.flow;
+
+import javax.annotation.Nullable;
+import org.opendaylight.openflowplugin.api.openflow.registry.flow.DeviceFlowRegistry;
+import org.opendaylight.openflowplugin.api.openflow.statistics.ofpspecific.MessageSpy;
+
+/**
+ * Flow id resolution counting shared by {@link DeviceFlowRegistry} implementations.
+ */
+final class FlowRegistryUtil {
+
+    private FlowRegistryUtil() {
+        throw new IllegalStateException("This class should not be instantiated.");
+    }
+
+    static void spyFlowIdResolved(@Nullable final MessageSpy messageSpy) {
+        if (messageSpy != null) {
+            messageSpy.spyMessage(DeviceFlowRegistry.class, MessageSpy.STATISTIC_GROUP.FROM_SWITCH_FLOW_ID_RESOLVED);
+        }
+    }
+
+    static void spyFlowIdAlien(@Nullable final MessageSpy messageSpy) {
+        if (messageSpy != null) {
+            messageSpy.spyMessage(DeviceFlowRegistry.class, MessageSpy.STATISTIC_GROUP.FROM_SWITCH_FLOW_ID_ALIEN);
+        }
+    }
+}
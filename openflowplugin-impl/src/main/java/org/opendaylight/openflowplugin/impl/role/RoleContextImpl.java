@@ -18,6 +18,7 @@ import org.opendaylight.controller.md.sal.common.api.clustering.CandidateAlready
 import org.opendaylight.controller.md.sal.common.api.clustering.Entity;
 import org.opendaylight.controller.md.sal.common.api.clustering.EntityOwnershipCandidateRegistration;
 import org.opendaylight.controller.md.sal.common.api.clustering.EntityOwnershipService;
+import org.opendaylight.openflowplugin.api.openflow.connection.ConnectionContext;
 import org.opendaylight.openflowplugin.api.openflow.device.RequestContext;
 import org.opendaylight.openflowplugin.api.openflow.lifecycle.LifecycleConductor;
 import org.opendaylight.openflowplugin.api.openflow.role.RoleContext;
@@ -86,6 +87,16 @@ class RoleContextImpl implements RoleContext {
         };
     }
 
+    @Nullable
+    @Override
+    public <T> RequestContext<T> createRequestContext(@Nonnull final ConnectionContext connectionContext) {
+        return new AbstractRequestContext<T>(connectionContext.getOutboundQueueProvider().reserveEntry()) {
+            @Override
+            public void close() {
+            }
+        };
+    }
+
     @Override
     public void setSalRoleService(@Nonnull final SalRoleService salRoleService) {
         Preconditions.checkNotNull(salRoleService);
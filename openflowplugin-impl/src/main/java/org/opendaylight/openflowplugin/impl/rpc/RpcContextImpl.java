@@ -15,8 +15,12 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Semaphore;
 
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import org.opendaylight.controller.sal.binding.api.BindingAwareBroker.RoutedRpcRegistration;
 import org.opendaylight.controller.sal.binding.api.RpcProviderRegistry;
+import org.opendaylight.openflowjava.protocol.api.connection.OutboundQueue;
+import org.opendaylight.openflowplugin.api.openflow.connection.ConnectionContext;
 import org.opendaylight.openflowplugin.api.openflow.device.RequestContext;
 import org.opendaylight.openflowplugin.api.openflow.device.XidSequencer;
 import org.opendaylight.openflowplugin.api.openflow.rpc.RpcContext;
@@ -95,6 +99,18 @@ public class RpcContextImpl implements RpcContext {
 
     @Override
     public <T> RequestContext<T> createRequestContext() {
+        return newRequestContext(null);
+    }
+
+    @Override
+    public <T> RequestContext<T> createRequestContext(@Nonnull final ConnectionContext connectionContext) {
+        return newRequestContext(connectionContext.getOutboundQueueProvider());
+    }
+
+    /**
+     * @param outboundQueue queue reserving XID of the request, null means primary connection of device
+     */
+    private <T> RequestContext<T> newRequestContext(@Nullable final OutboundQueue outboundQueue) {
         if (!tracker.tryAcquire()) {
             LOG.trace("Device queue {} at capacity", this);
             return null;
@@ -102,7 +118,7 @@ public class RpcContextImpl implements RpcContext {
             LOG.trace("Acquired semaphore for {}, available permits:{} ", nodeInstanceIdentifier.getKey().getId(), tracker.availablePermits());
         }
 
-        final Long xid = xidSequencer.reserveXidForDeviceMessage();
+        final Long xid = outboundQueue == null ? xidSequencer.reserveXidForDeviceMessage() : outboundQueue.reserveEntry();
         if (xid == null) {
             LOG.warn("Xid cannot be reserved for new RequestContext, node:{}", nodeInstanceIdentifier.getKey().getId());
             tracker.release();
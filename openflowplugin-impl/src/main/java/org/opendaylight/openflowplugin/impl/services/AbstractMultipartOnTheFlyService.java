@@ -8,13 +8,20 @@
 
 package org.opendaylight.openflowplugin.impl.services;
 
+import com.google.common.base.Preconditions;
 import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.ListenableFuture;
 import java.util.List;
+import javax.annotation.Nonnull;
 import org.opendaylight.openflowplugin.api.openflow.device.DeviceContext;
 import org.opendaylight.openflowplugin.api.openflow.device.RequestContext;
 import org.opendaylight.openflowplugin.api.openflow.device.RequestContextStack;
+import org.opendaylight.openflowplugin.api.openflow.device.handlers.MultipartReplySink;
+import org.opendaylight.openflowplugin.impl.statistics.FlowStatisticsSnapshot;
+import org.opendaylight.openflowplugin.impl.statistics.FlowStatisticsWriterSink;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.MultipartReply;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.OfHeader;
+import org.opendaylight.yangtools.yang.common.RpcResult;
 
 public abstract class AbstractMultipartOnTheFlyService<I> extends AbstractService<I, List<MultipartReply>> {
     protected AbstractMultipartOnTheFlyService(final RequestContextStack requestContextStack, final DeviceContext deviceContext) {
@@ -23,9 +30,44 @@ public abstract class AbstractMultipartOnTheFlyService<I> extends AbstractServic
 
     @Override
     protected final FutureCallback<OfHeader> createCallback(final RequestContext<List<MultipartReply>> context, final Class<?> requestType) {
-        return new MultipartRequestOnTheFlyCallback(context, requestType,
-                getDeviceContext().getMessageSpy(), getEventIdentifier(), getDeviceContext().getDeviceState(),
-                getDeviceContext().getDeviceFlowRegistry(), getDeviceContext());
+        return createCallback(context, requestType, createReplySink());
+    }
+
+    private FutureCallback<OfHeader> createCallback(final RequestContext<List<MultipartReply>> context,
+                                                    final Class<?> requestType,
+                                                    final MultipartReplySink replySink) {
+        return new MultipartRequestOnTheFlyCallback(context, requestType, getDeviceContext(), getEventIdentifier(),
+                replySink);
+    }
+
+    /**
+     * @param replySink consumer of translated replies of this request, result of request is always empty
+     */
+    public final ListenableFuture<RpcResult<List<MultipartReply>>> handleServiceCall(@Nonnull final I input,
+                                                                                    @Nonnull final MultipartReplySink replySink) {
+        Preconditions.checkNotNull(replySink);
+        return handleServiceCall(input, new CallbackFactory<List<MultipartReply>>() {
+            @Override
+            public FutureCallback<OfHeader> createCallback(final RequestContext<List<MultipartReply>> context,
+                                                           final Class<?> requestType) {
+                return AbstractMultipartOnTheFlyService.this.createCallback(context, requestType, replySink);
+            }
+        });
+    }
+
+    /**
+     * @return consumer of translated replies of one request, flow statistics writer by default
+     */
+    protected MultipartReplySink createReplySink() {
+        return new FlowStatisticsWriterSink(getDeviceContext().getDeviceState(),
+                getDeviceContext().getDeviceFlowRegistry(), getDeviceContext(), getFlowStatisticsSnapshot());
+    }
+
+    /**
+     * @return snapshot for incremental writes of flow statistics, null if all known flows are to be rewritten
+     */
+    protected FlowStatisticsSnapshot getFlowStatisticsSnapshot() {
+        return null;
     }
 
 
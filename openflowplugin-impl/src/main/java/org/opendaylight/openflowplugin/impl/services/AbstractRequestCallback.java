@@ -60,7 +60,7 @@ abstract class AbstractRequestCallback<T> implements FutureCallback<OfHeader> {
     }
 
     @Override
-    public final void onFailure(final Throwable t) {
+    public void onFailure(final Throwable t) {
         final RpcResultBuilder<T> builder;
         if (null != eventIdentifier) {
             EventsTimeCounter.markEnd(eventIdentifier);
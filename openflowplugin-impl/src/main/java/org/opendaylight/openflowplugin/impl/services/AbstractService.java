@@ -14,8 +14,10 @@ import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import java.math.BigInteger;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import org.opendaylight.openflowjava.protocol.api.connection.ConnectionAdapter;
 import org.opendaylight.openflowjava.protocol.api.connection.OutboundQueue;
+import org.opendaylight.openflowplugin.api.openflow.connection.ConnectionContext;
 import org.opendaylight.openflowplugin.api.openflow.device.DeviceContext;
 import org.opendaylight.openflowplugin.api.openflow.device.RequestContext;
 import org.opendaylight.openflowplugin.api.openflow.device.RequestContextStack;
@@ -42,6 +44,12 @@ abstract class AbstractService<I, O> {
     private final DeviceContext deviceContext;
     private final ConnectionAdapter primaryConnectionAdapter;
     private final MessageSpy messageSpy;
+    private final CallbackFactory<O> defaultCallbackFactory = new CallbackFactory<O>() {
+        @Override
+        public FutureCallback<OfHeader> createCallback(final RequestContext<O> context, final Class<?> requestType) {
+            return AbstractService.this.createCallback(context, requestType);
+        }
+    };
     private EventIdentifier eventIdentifier;
 
     public AbstractService(final RequestContextStack requestContextStack, final DeviceContext deviceContext) {
@@ -86,8 +94,42 @@ abstract class AbstractService<I, O> {
 
     protected abstract FutureCallback<OfHeader> createCallback(RequestContext<O> context, Class<?> requestType);
 
+    /**
+     * Requests sharing ordering key keep their mutual order, but may be carried by auxiliary connection of device.
+     *
+     * @param input service input
+     * @return ordering key of request, null if the request has to go over primary connection
+     */
+    @Nullable
+    protected Long getOrderingKey(final I input) {
+        return null;
+    }
+
+    /**
+     * @return auxiliary connection carrying the request, null for primary connection
+     */
+    @Nullable
+    private ConnectionContext selectConnectionContext(final I input) {
+        final Long orderingKey = getOrderingKey(input);
+        if (orderingKey == null) {
+            return null;
+        }
+        final ConnectionContext connectionContext = deviceContext.selectConnectionContext(orderingKey);
+        return connectionContext == deviceContext.getPrimaryConnectionContext() ? null : connectionContext;
+    }
+
     public final ListenableFuture<RpcResult<O>> handleServiceCall(@Nonnull final I input) {
+        return handleServiceCall(input, defaultCallbackFactory);
+    }
+
+    /**
+     * @param callbackFactory creates callback of this request only, so that request specific state does not have
+     *                        to be kept in service shared by concurrent requests
+     */
+    protected final ListenableFuture<RpcResult<O>> handleServiceCall(@Nonnull final I input,
+                                                                     @Nonnull final CallbackFactory<O> callbackFactory) {
         Preconditions.checkNotNull(input);
+        Preconditions.checkNotNull(callbackFactory);
 
         final Class<?> requestType;
         if (input instanceof DataContainer) {
@@ -98,7 +140,10 @@ abstract class AbstractService<I, O> {
         getMessageSpy().spyMessage(requestType, MessageSpy.STATISTIC_GROUP.TO_SWITCH_ENTERED);
 
         LOG.trace("Handling general service call");
-        final RequestContext<O> requestContext = requestContextStack.createRequestContext();
+        final ConnectionContext connectionContext = selectConnectionContext(input);
+        final RequestContext<O> requestContext = connectionContext == null
+                ? requestContextStack.<O>createRequestContext()
+                : requestContextStack.<O>createRequestContext(connectionContext);
         if (requestContext == null) {
             LOG.trace("Request context refused.");
             deviceContext.getMessageSpy().spyMessage(AbstractService.class, MessageSpy.STATISTIC_GROUP.TO_SWITCH_DISREGARDED);
@@ -121,8 +166,10 @@ abstract class AbstractService<I, O> {
             LOG.error("Failed to build request for {}, forfeiting request {}", input, xid.getValue(), e);
             RequestContextUtil.closeRequestContextWithRpcError(requestContext, "failed to build request input: " + e.getMessage());
         } finally {
-            final OutboundQueue outboundQueue = getDeviceContext().getPrimaryConnectionContext().getOutboundQueueProvider();
-            outboundQueue.commitEntry(xid.getValue(), request, createCallback(requestContext, requestType));
+            final OutboundQueue outboundQueue = connectionContext == null
+                    ? getDeviceContext().getPrimaryConnectionContext().getOutboundQueueProvider()
+                    : connectionContext.getOutboundQueueProvider();
+            outboundQueue.commitEntry(xid.getValue(), request, callbackFactory.createCallback(requestContext, requestType));
         }
 
         return requestContext.getFuture();
@@ -133,4 +180,8 @@ abstract class AbstractService<I, O> {
                 .withError(RpcError.ErrorType.APPLICATION, "", "Request quota exceeded").build();
         return Futures.immediateFuture(rpcResult);
     }
+
+    interface CallbackFactory<O> {
+        FutureCallback<OfHeader> createCallback(RequestContext<O> context, Class<?> requestType);
+    }
 }
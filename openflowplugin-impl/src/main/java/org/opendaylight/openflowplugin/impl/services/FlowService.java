@@ -19,6 +19,11 @@ import org.opendaylight.openflowplugin.api.openflow.device.RequestContextStack;
 import org.opendaylight.openflowplugin.api.openflow.device.Xid;
 import org.opendaylight.openflowplugin.openflow.md.core.sal.convertor.FlowConvertor;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.types.rev131026.Flow;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.action.rev150203.action.grouping.action.choice.GroupCase;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.action.rev150203.actions.grouping.Action;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.instruction.rev130731.instruction.grouping.instruction.choice.ApplyActionsCase;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.instruction.rev130731.instruction.grouping.instruction.choice.WriteActionsCase;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.instruction.rev130731.instructions.grouping.Instruction;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.FlowModInputBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.OfHeader;
 import org.opendaylight.yangtools.yang.binding.DataObject;
@@ -28,8 +33,19 @@ import org.opendaylight.yangtools.yang.common.RpcResultBuilder;
 
 final class FlowService<O extends DataObject> extends AbstractSimpleService<FlowModInputBuilder, O> {
 
+    private final boolean primaryConnectionOnly;
+
     protected FlowService(final RequestContextStack requestContextStack, final DeviceContext deviceContext, final Class<O> clazz) {
+        this(requestContextStack, deviceContext, clazz, false);
+    }
+
+    /**
+     * @param primaryConnectionOnly all FLOW_MODs go over primary connection, required when they are ordered by barrier
+     */
+    protected FlowService(final RequestContextStack requestContextStack, final DeviceContext deviceContext, final Class<O> clazz,
+                          final boolean primaryConnectionOnly) {
         super(requestContextStack, deviceContext, clazz);
+        this.primaryConnectionOnly = primaryConnectionOnly;
     }
 
     @Override
@@ -38,6 +54,47 @@ final class FlowService<O extends DataObject> extends AbstractSimpleService<Flow
         return input.build();
     }
 
+    /**
+     * FLOW_MODs of the same table keep their order, FLOW_MODs of all tables and FLOW_MODs pointing to a group
+     * go over primary connection (together with GROUP_MODs, so that group is installed before flow using it).
+     */
+    @Override
+    protected Long getOrderingKey(final FlowModInputBuilder input) {
+        return primaryConnectionOnly ? null : getFlowModOrderingKey(input);
+    }
+
+    static Long getFlowModOrderingKey(final FlowModInputBuilder input) {
+        if (input.getTableId() == null || OFConstants.OFPTT_ALL.longValue() == input.getTableId().getValue()
+                || referencesGroup(input)) {
+            return null;
+        }
+        return input.getTableId().getValue();
+    }
+
+    private static boolean referencesGroup(final FlowModInputBuilder input) {
+        if (input.getInstruction() == null) {
+            return false;
+        }
+        for (Instruction instruction : input.getInstruction()) {
+            final List<Action> actions;
+            if (instruction.getInstructionChoice() instanceof ApplyActionsCase) {
+                actions = ((ApplyActionsCase) instruction.getInstructionChoice()).getApplyActions().getAction();
+            } else if (instruction.getInstructionChoice() instanceof WriteActionsCase) {
+                actions = ((WriteActionsCase) instruction.getInstructionChoice()).getWriteActions().getAction();
+            } else {
+                continue;
+            }
+            if (actions != null) {
+                for (Action action : actions) {
+                    if (action.getActionChoice() instanceof GroupCase) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
     List<FlowModInputBuilder> toFlowModInputs(final Flow input) {
         return FlowConvertor.toFlowModInputs(input, getVersion(), getDatapathId());
     }
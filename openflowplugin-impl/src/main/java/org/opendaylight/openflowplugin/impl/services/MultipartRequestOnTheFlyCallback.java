@@ -7,62 +7,40 @@
  */
 package org.opendaylight.openflowplugin.impl.services;
 
-import com.google.common.base.Function;
-import com.google.common.util.concurrent.Futures;
-import com.google.common.util.concurrent.ListenableFuture;
-import java.util.Collections;
+import com.google.common.base.Preconditions;
 import java.util.List;
-
-import org.opendaylight.openflowplugin.api.openflow.device.DeviceState;
+import org.opendaylight.openflowplugin.api.openflow.device.DeviceContext;
 import org.opendaylight.openflowplugin.api.openflow.device.RequestContext;
-import org.opendaylight.openflowplugin.api.openflow.device.TxFacade;
-import org.opendaylight.openflowplugin.api.openflow.registry.flow.DeviceFlowRegistry;
+import org.opendaylight.openflowplugin.api.openflow.device.handlers.MultiMsgCollector;
+import org.opendaylight.openflowplugin.api.openflow.device.handlers.MultipartReplySink;
 import org.opendaylight.openflowplugin.api.openflow.statistics.ofpspecific.EventIdentifier;
 import org.opendaylight.openflowplugin.api.openflow.statistics.ofpspecific.MessageSpy;
-import org.opendaylight.openflowplugin.impl.statistics.SinglePurposeMultipartReplyTranslator;
-import org.opendaylight.openflowplugin.impl.statistics.StatisticsGatheringUtils;
-import org.opendaylight.openflowplugin.impl.statistics.ofpspecific.EventsTimeCounter;
-import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.statistics.rev130819.FlowsStatisticsUpdate;
-import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.types.rev130731.MultipartType;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.MultipartReply;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.OfHeader;
-import org.opendaylight.yangtools.yang.binding.DataObject;
 import org.opendaylight.yangtools.yang.common.RpcError;
-import org.opendaylight.yangtools.yang.common.RpcResult;
 import org.opendaylight.yangtools.yang.common.RpcResultBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Multipart callback processing replies on the fly - every reply is translated and passed to
+ * {@link MultipartReplySink} as it arrives (see {@link DeviceContext#getMultiMsgCollector(RequestContext, MultipartReplySink)}),
+ * request itself is finished with empty result.
+ */
 final class MultipartRequestOnTheFlyCallback extends AbstractRequestCallback<List<MultipartReply>> {
     private static final Logger LOG = LoggerFactory.getLogger(MultipartRequestOnTheFlyCallback.class);
-    private static final SinglePurposeMultipartReplyTranslator MULTIPART_REPLY_TRANSLATOR = new SinglePurposeMultipartReplyTranslator();
-    private final DeviceState deviceState;
-    private final DeviceFlowRegistry registry;
-    private boolean virgin = true;
+    private final MultipartReplySink sink;
+    private final MultiMsgCollector collector;
     private boolean finished = false;
-    private final EventIdentifier doneEventIdentifier;
-    private final TxFacade txFacade;
-
 
     public MultipartRequestOnTheFlyCallback(final RequestContext<List<MultipartReply>> context,
                                             final Class<?> requestType,
-                                            final MessageSpy messageSpy,
+                                            final DeviceContext deviceContext,
                                             final EventIdentifier eventIdentifier,
-                                            final DeviceState deviceState,
-                                            final DeviceFlowRegistry registry,
-                                            final TxFacade txFacade) {
-        super(context, requestType, messageSpy, eventIdentifier);
-
-        this.deviceState = deviceState;
-        this.registry = registry;
-        this.txFacade = txFacade;
-
-        //TODO: this is focused on flow stats only - need more general approach if used for more than flow stats
-        doneEventIdentifier = new EventIdentifier(MultipartType.OFPMPFLOW.name(), deviceState.getNodeId().toString());
-    }
-
-    public EventIdentifier getDoneEventIdentifier() {
-        return doneEventIdentifier;
+                                            final MultipartReplySink sink) {
+        super(context, requestType, deviceContext.getMessageSpy(), eventIdentifier);
+        this.sink = Preconditions.checkNotNull(sink);
+        collector = deviceContext.getMultiMsgCollector(context, sink);
     }
 
     @Override
@@ -71,8 +49,8 @@ final class MultipartRequestOnTheFlyCallback extends AbstractRequestCallback<Lis
             LOG.info("Ofheader was null.");
             if (!finished) {
                 endCollecting();
-                return;
             }
+            return;
         } else if (finished) {
             LOG.debug("Unexpected multipart response received: xid={}, {}", result.getXid(), result.getImplementedInterface());
             return;
@@ -80,51 +58,34 @@ final class MultipartRequestOnTheFlyCallback extends AbstractRequestCallback<Lis
 
         if (!(result instanceof MultipartReply)) {
             LOG.info("Unexpected response type received {}.", result.getClass());
+            final String errorMessage = String.format("Unexpected response type received %s.", result.getClass());
             final RpcResultBuilder<List<MultipartReply>> rpcResultBuilder =
-                    RpcResultBuilder.<List<MultipartReply>>failed().withError(RpcError.ErrorType.APPLICATION,
-                            String.format("Unexpected response type received %s.", result.getClass()));
+                    RpcResultBuilder.<List<MultipartReply>>failed().withError(RpcError.ErrorType.APPLICATION, errorMessage);
+            finished = true;
+            sink.onFailure(new IllegalStateException(errorMessage));
             setResult(rpcResultBuilder.build());
-            endCollecting();
         } else {
             final MultipartReply multipartReply = (MultipartReply) result;
-
-            final MultipartReply singleReply = multipartReply;
-            final List<? extends DataObject> multipartDataList = MULTIPART_REPLY_TRANSLATOR.translate(
-                    deviceState.getFeatures().getDatapathId(), deviceState.getFeatures().getVersion(), singleReply);
-            final Iterable<? extends DataObject> allMultipartData = multipartDataList;
-
-            //TODO: following part is focused on flow stats only - need more general approach if used for more than flow stats
-            ListenableFuture<Void> future;
-            if (virgin) {
-                future = StatisticsGatheringUtils.deleteAllKnownFlows(deviceState, registry, txFacade);
-                virgin = false;
-            } else {
-                future = Futures.immediateFuture(null);
+            collector.addMultipartMsg(multipartReply, getEventIdentifier());
+            if (!multipartReply.getFlags().isOFPMPFREQMORE()) {
+                finished = true;
+                spyMessage(MessageSpy.STATISTIC_GROUP.FROM_SWITCH_TRANSLATE_OUT_SUCCESS);
             }
+        }
+    }
 
-            Futures.transform(future, new Function<Void, Void>() {
-
-                @Override
-                public Void apply(final Void input) {
-                    StatisticsGatheringUtils.writeFlowStatistics((Iterable<FlowsStatisticsUpdate>) allMultipartData,
-                            deviceState, registry, txFacade);
-
-                    if (!multipartReply.getFlags().isOFPMPFREQMORE()) {
-                        endCollecting();
-                    }
-                    return input;
-                }
-            });
+    @Override
+    public void onFailure(final Throwable t) {
+        if (!finished) {
+            finished = true;
+            sink.onFailure(t);
         }
+        super.onFailure(t);
     }
 
     private void endCollecting() {
-        EventsTimeCounter.markEnd(getDoneEventIdentifier());
-        EventsTimeCounter.markEnd(getEventIdentifier());
-        final RpcResult<List<MultipartReply>> rpcResult = RpcResultBuilder.success(Collections.<MultipartReply>emptyList()).build();
-        spyMessage(MessageSpy.STATISTIC_GROUP.FROM_SWITCH_TRANSLATE_OUT_SUCCESS);
-        txFacade.submitTransaction();
-        setResult(rpcResult);
         finished = true;
+        spyMessage(MessageSpy.STATISTIC_GROUP.FROM_SWITCH_TRANSLATE_OUT_SUCCESS);
+        collector.endCollecting(getEventIdentifier());
     }
 }
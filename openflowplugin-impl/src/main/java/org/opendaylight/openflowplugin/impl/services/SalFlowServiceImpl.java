@@ -63,10 +63,19 @@ public class SalFlowServiceImpl implements SalFlowService, ItemLifeCycleSource {
     private ItemLifecycleListener itemLifecycleListener;
 
     public SalFlowServiceImpl(final RequestContextStack requestContextStack, final DeviceContext deviceContext) {
+        this(requestContextStack, deviceContext, false);
+    }
+
+    /**
+     * @param primaryConnectionOnly flows are not spread over auxiliary connections, required by callers which order
+     *                              flows by barrier (barrier goes over primary connection only)
+     */
+    public SalFlowServiceImpl(final RequestContextStack requestContextStack, final DeviceContext deviceContext,
+                              final boolean primaryConnectionOnly) {
         this.deviceContext = deviceContext;
-        flowRemove = new FlowService(requestContextStack, deviceContext, RemoveFlowOutput.class);
-        flowAdd = new FlowService<>(requestContextStack, deviceContext, AddFlowOutput.class);
-        flowUpdate = new FlowService<>(requestContextStack, deviceContext, UpdateFlowOutput.class);
+        flowRemove = new FlowService(requestContextStack, deviceContext, RemoveFlowOutput.class, primaryConnectionOnly);
+        flowAdd = new FlowService<>(requestContextStack, deviceContext, AddFlowOutput.class, primaryConnectionOnly);
+        flowUpdate = new FlowService<>(requestContextStack, deviceContext, UpdateFlowOutput.class, primaryConnectionOnly);
     }
 
     @Override
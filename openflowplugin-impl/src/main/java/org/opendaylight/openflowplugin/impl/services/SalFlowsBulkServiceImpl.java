@@ -0,0 +1,564 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.openflowplugin.impl.services;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import javax.annotation.Nullable;
+import org.opendaylight.openflowjava.protocol.api.connection.DeviceRequestFailedException;
+import org.opendaylight.openflowjava.protocol.api.connection.OutboundQueue;
+import org.opendaylight.openflowplugin.api.openflow.connection.ConnectionContext;
+import org.opendaylight.openflowplugin.api.openflow.device.DeviceContext;
+import org.opendaylight.openflowplugin.api.openflow.device.RequestContext;
+import org.opendaylight.openflowplugin.api.openflow.device.RequestContextStack;
+import org.opendaylight.openflowplugin.api.openflow.registry.flow.DeviceFlowRegistry;
+import org.opendaylight.openflowplugin.api.openflow.registry.flow.FlowRegistryKey;
+import org.opendaylight.openflowplugin.api.openflow.statistics.ofpspecific.MessageSpy;
+import org.opendaylight.openflowplugin.impl.registry.flow.FlowDescriptorFactory;
+import org.opendaylight.openflowplugin.impl.registry.flow.FlowRegistryKeyFactory;
+import org.opendaylight.openflowplugin.impl.util.BarrierUtil;
+import org.opendaylight.openflowplugin.impl.util.FlowUtil;
+import org.opendaylight.openflowplugin.impl.util.PathUtil;
+import org.opendaylight.openflowplugin.openflow.md.core.sal.convertor.FlowConvertor;
+import org.opendaylight.openflowplugin.openflow.md.util.FlowCreatorUtil;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.service.rev130819.AddFlowInputBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.service.rev130819.AddFlowOutput;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.service.rev130819.RemoveFlowInputBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.service.rev130819.RemoveFlowOutput;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.service.rev130819.UpdateFlowOutput;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.service.rev130819.flow.update.OriginalFlow;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.service.rev130819.flow.update.OriginalFlowBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.service.rev130819.flow.update.UpdatedFlow;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.service.rev130819.flow.update.UpdatedFlowBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.transaction.rev150304.FlowCapableTransactionService;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flows.service.rev160314.AddFlowsBatchInput;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flows.service.rev160314.AddFlowsBatchOutput;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flows.service.rev160314.RemoveFlowsBatchInput;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flows.service.rev160314.RemoveFlowsBatchOutput;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flows.service.rev160314.SalFlowsBatchService;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flows.service.rev160314.UpdateFlowsBatchInput;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flows.service.rev160314.UpdateFlowsBatchOutput;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flows.service.rev160314.add.flows.batch.input.BatchAddFlows;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flows.service.rev160314.batch.flow.output.list.grouping.BatchFailedFlowsOutput;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flows.service.rev160314.remove.flows.batch.input.BatchRemoveFlows;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flows.service.rev160314.update.flows.batch.input.BatchUpdateFlows;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.Error;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.FeaturesReply;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.FlowModInput;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.FlowModInputBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.OfHeader;
+import org.opendaylight.yangtools.yang.common.RpcError;
+import org.opendaylight.yangtools.yang.common.RpcResult;
+import org.opendaylight.yangtools.yang.common.RpcResultBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bulk implementation of {@link SalFlowsBatchService} - flows of whole batch are converted into FLOW_MODs in one
+ * pass and committed back-to-back into {@link OutboundQueue} under single {@link RequestContext} (one rpc quota
+ * permit per batch instead of one per flow). Device errors are correlated back to batch items through the XID
+ * range reserved for the batch.
+ * <p>
+ * Results are assembled the same way as in {@link SalFlowsBatchServiceImpl}, so both implementations are
+ * interchangeable for {@link SalFlatBatchServiceImpl}.
+ */
+public class SalFlowsBulkServiceImpl implements SalFlowsBatchService {
+    private static final Logger LOG = LoggerFactory.getLogger(SalFlowsBulkServiceImpl.class);
+
+    private final RequestContextStack requestContextStack;
+    private final DeviceContext deviceContext;
+    private final FlowCapableTransactionService transactionService;
+    private final short version;
+    private final BigInteger datapathId;
+    private final boolean primaryConnectionOnly;
+
+    public SalFlowsBulkServiceImpl(final RequestContextStack requestContextStack,
+                                   final DeviceContext deviceContext,
+                                   final FlowCapableTransactionService transactionService) {
+        this(requestContextStack, deviceContext, transactionService, false);
+    }
+
+    /**
+     * @param primaryConnectionOnly FLOW_MODs are not spread over auxiliary connections, required when batches are
+     *                              ordered by barrier (barrier goes over primary connection only)
+     */
+    public SalFlowsBulkServiceImpl(final RequestContextStack requestContextStack,
+                                   final DeviceContext deviceContext,
+                                   final FlowCapableTransactionService transactionService,
+                                   final boolean primaryConnectionOnly) {
+        this.primaryConnectionOnly = primaryConnectionOnly;
+        this.requestContextStack = Preconditions.checkNotNull(requestContextStack, "request context stack must not be null");
+        this.deviceContext = Preconditions.checkNotNull(deviceContext, "device context must not be null");
+        this.transactionService = Preconditions.checkNotNull(transactionService, "delegate transaction service must not be null");
+        final FeaturesReply features = deviceContext.getPrimaryConnectionContext().getFeatures();
+        this.version = features.getVersion();
+        this.datapathId = features.getDatapathId();
+    }
+
+    @Override
+    public Future<RpcResult<AddFlowsBatchOutput>> addFlowsBatch(final AddFlowsBatchInput input) {
+        LOG.trace("Adding flows in bulk @ {} : {}", PathUtil.extractNodeId(input.getNode()), input.getBatchAddFlows().size());
+        final List<BatchAddFlows> batchFlows = input.getBatchAddFlows();
+        final DeviceFlowRegistry deviceFlowRegistry = deviceContext.getDeviceFlowRegistry();
+        final List<FlowRegistryKey> flowRegistryKeys = new ArrayList<>(batchFlows.size());
+        final List<List<FlowModInputBuilder>> flowMods = new ArrayList<>(batchFlows.size());
+
+        for (BatchAddFlows batchFlow : batchFlows) {
+            final FlowRegistryKey flowRegistryKey = FlowRegistryKeyFactory.create(batchFlow);
+            deviceFlowRegistry.store(flowRegistryKey,
+                    FlowDescriptorFactory.create(batchFlow.getTableId(), batchFlow.getFlowId()));
+            flowRegistryKeys.add(flowRegistryKey);
+            flowMods.add(FlowConvertor.toFlowModInputs(new AddFlowInputBuilder(batchFlow).build(), version, datapathId));
+        }
+
+        final ListenableFuture<List<RpcResult<AddFlowOutput>>> itemResults = this.<AddFlowOutput>processFlowMods(flowMods);
+        Futures.addCallback(itemResults, new FutureCallback<List<RpcResult<AddFlowOutput>>>() {
+            @Override
+            public void onSuccess(final List<RpcResult<AddFlowOutput>> results) {
+                for (int i = 0; i < results.size(); i++) {
+                    if (!results.get(i).isSuccessful()) {
+                        deviceFlowRegistry.removeDescriptor(flowRegistryKeys.get(i));
+                    }
+                }
+            }
+
+            @Override
+            public void onFailure(final Throwable t) {
+                LOG.debug("Bulk flow add failed", t);
+            }
+        });
+
+        final ListenableFuture<RpcResult<List<BatchFailedFlowsOutput>>> commonResult = Futures.transform(itemResults,
+                FlowUtil.<AddFlowOutput>createCumulatingFunction(batchFlows));
+        ListenableFuture<RpcResult<AddFlowsBatchOutput>> addFlowsBulkFuture =
+                Futures.transform(commonResult, FlowUtil.FLOW_ADD_TRANSFORM);
+
+        if (input.isBarrierAfter()) {
+            addFlowsBulkFuture = BarrierUtil.chainBarrier(addFlowsBulkFuture, input.getNode(),
+                    transactionService, FlowUtil.FLOW_ADD_COMPOSING_TRANSFORM);
+        }
+
+        return addFlowsBulkFuture;
+    }
+
+    @Override
+    public Future<RpcResult<RemoveFlowsBatchOutput>> removeFlowsBatch(final RemoveFlowsBatchInput input) {
+        LOG.trace("Removing flows in bulk @ {} : {}", PathUtil.extractNodeId(input.getNode()), input.getBatchRemoveFlows().size());
+        final List<BatchRemoveFlows> batchFlows = input.getBatchRemoveFlows();
+        final List<List<FlowModInputBuilder>> flowMods = new ArrayList<>(batchFlows.size());
+
+        for (BatchRemoveFlows batchFlow : batchFlows) {
+            flowMods.add(FlowConvertor.toFlowModInputs(new RemoveFlowInputBuilder(batchFlow).build(), version, datapathId));
+        }
+
+        final ListenableFuture<List<RpcResult<RemoveFlowOutput>>> itemResults = this.<RemoveFlowOutput>processFlowMods(flowMods);
+        Futures.addCallback(itemResults, new FutureCallback<List<RpcResult<RemoveFlowOutput>>>() {
+            @Override
+            public void onSuccess(final List<RpcResult<RemoveFlowOutput>> results) {
+                final DeviceFlowRegistry deviceFlowRegistry = deviceContext.getDeviceFlowRegistry();
+                for (int i = 0; i < results.size(); i++) {
+                    if (results.get(i).isSuccessful()) {
+                        deviceFlowRegistry.removeDescriptor(FlowRegistryKeyFactory.create(batchFlows.get(i)));
+                    }
+                }
+            }
+
+            @Override
+            public void onFailure(final Throwable t) {
+                LOG.debug("Bulk flow remove failed", t);
+            }
+        });
+
+        final ListenableFuture<RpcResult<List<BatchFailedFlowsOutput>>> commonResult = Futures.transform(itemResults,
+                FlowUtil.<RemoveFlowOutput>createCumulatingFunction(batchFlows));
+        ListenableFuture<RpcResult<RemoveFlowsBatchOutput>> removeFlowsBulkFuture =
+                Futures.transform(commonResult, FlowUtil.FLOW_REMOVE_TRANSFORM);
+
+        if (input.isBarrierAfter()) {
+            removeFlowsBulkFuture = BarrierUtil.chainBarrier(removeFlowsBulkFuture, input.getNode(),
+                    transactionService, FlowUtil.FLOW_REMOVE_COMPOSING_TRANSFORM);
+        }
+
+        return removeFlowsBulkFuture;
+    }
+
+    @Override
+    public Future<RpcResult<UpdateFlowsBatchOutput>> updateFlowsBatch(final UpdateFlowsBatchInput input) {
+        LOG.trace("Updating flows in bulk @ {} : {}", PathUtil.extractNodeId(input.getNode()), input.getBatchUpdateFlows().size());
+        final List<BatchUpdateFlows> batchFlows = input.getBatchUpdateFlows();
+        final List<UpdatedFlow> updatedFlows = new ArrayList<>(batchFlows.size());
+        final List<List<FlowModInputBuilder>> flowMods = new ArrayList<>(batchFlows.size());
+
+        for (BatchUpdateFlows batchFlow : batchFlows) {
+            final OriginalFlow original = new OriginalFlowBuilder(batchFlow.getOriginalBatchedFlow()).build();
+            final UpdatedFlow updated = new UpdatedFlowBuilder(batchFlow.getUpdatedBatchedFlow()).build();
+            updatedFlows.add(updated);
+
+            final List<FlowModInputBuilder> itemFlowMods;
+            if (!FlowCreatorUtil.canModifyFlow(original, updated, version)) {
+                // remove original and add updated - remove has to be the first
+                itemFlowMods = new ArrayList<>(FlowConvertor.toFlowModInputs(
+                        new RemoveFlowInputBuilder(original).build(), version, datapathId));
+                itemFlowMods.addAll(FlowConvertor.toFlowModInputs(
+                        new AddFlowInputBuilder(updated).build(), version, datapathId));
+            } else {
+                itemFlowMods = FlowConvertor.toFlowModInputs(updated, version, datapathId);
+            }
+            flowMods.add(itemFlowMods);
+        }
+
+        final ListenableFuture<List<RpcResult<UpdateFlowOutput>>> itemResults = this.<UpdateFlowOutput>processFlowMods(flowMods);
+        Futures.addCallback(itemResults, new FutureCallback<List<RpcResult<UpdateFlowOutput>>>() {
+            @Override
+            public void onSuccess(final List<RpcResult<UpdateFlowOutput>> results) {
+                final DeviceFlowRegistry deviceFlowRegistry = deviceContext.getDeviceFlowRegistry();
+                for (int i = 0; i < results.size(); i++) {
+                    if (results.get(i).isSuccessful()) {
+                        final UpdatedFlow updated = updatedFlows.get(i);
+                        deviceFlowRegistry.store(FlowRegistryKeyFactory.create(updated),
+                                FlowDescriptorFactory.create(updated.getTableId(), batchFlows.get(i).getFlowId()));
+                    }
+                }
+            }
+
+            @Override
+            public void onFailure(final Throwable t) {
+                LOG.debug("Bulk flow update failed", t);
+            }
+        });
+
+        final ListenableFuture<RpcResult<List<BatchFailedFlowsOutput>>> commonResult = Futures.transform(itemResults,
+                FlowUtil.<UpdateFlowOutput>createCumulatingFunction(batchFlows));
+        ListenableFuture<RpcResult<UpdateFlowsBatchOutput>> updateFlowsBulkFuture =
+                Futures.transform(commonResult, FlowUtil.FLOW_UPDATE_TRANSFORM);
+
+        if (input.isBarrierAfter()) {
+            updateFlowsBulkFuture = BarrierUtil.chainBarrier(updateFlowsBulkFuture, input.getNode(),
+                    transactionService, FlowUtil.FLOW_UPDATE_COMPOSING_TRANSFORM);
+        }
+
+        return updateFlowsBulkFuture;
+    }
+
+    /**
+     * Commits FLOW_MODs of all batch items back-to-back into outbound queues - FLOW_MODs of one table go over
+     * the same connection (see {@link DeviceContext#selectConnectionContext(long)}), so they keep their order.
+     * All of them go over primary connection if this service is pinned to it.
+     *
+     * @param itemFlowMods FLOW_MODs of every batch item (in batch order)
+     * @param <O>          type of per item rpc output
+     * @return future of per item results (in batch order), never fails
+     */
+    @VisibleForTesting
+    <O> ListenableFuture<List<RpcResult<O>>> processFlowMods(final List<List<FlowModInputBuilder>> itemFlowMods) {
+        int flowModsCount = 0;
+        for (List<FlowModInputBuilder> flowMods : itemFlowMods) {
+            flowModsCount += flowMods.size();
+        }
+
+        final BulkFlowModTracker<O> tracker = new BulkFlowModTracker<>(itemFlowMods.size(), flowModsCount,
+                deviceContext.getMessageSpy());
+        if (flowModsCount == 0) {
+            tracker.finishDispatching(itemFlowMods.size());
+            return tracker.getResult();
+        }
+
+        final ConnectionContext primaryConnectionContext = deviceContext.getPrimaryConnectionContext();
+        final ConnectionContext firstConnectionContext = selectConnectionContext(firstFlowMod(itemFlowMods));
+        final RequestContext<Void> requestContext = firstConnectionContext == primaryConnectionContext
+                ? requestContextStack.<Void>createRequestContext()
+                : requestContextStack.<Void>createRequestContext(firstConnectionContext);
+        if (requestContext == null) {
+            LOG.trace("Request context refused.");
+            deviceContext.getMessageSpy().spyMessage(SalFlowsBulkServiceImpl.class, MessageSpy.STATISTIC_GROUP.TO_SWITCH_DISREGARDED);
+            tracker.finishDispatching(0, "Request quota exceeded");
+            return tracker.getResult();
+        }
+        tracker.setRequestContext(requestContext);
+
+        if (requestContext.getXid() == null) {
+            deviceContext.getMessageSpy().spyMessage(requestContext.getClass(), MessageSpy.STATISTIC_GROUP.TO_SWITCH_RESERVATION_REJECTED);
+            tracker.finishDispatching(0, "Outbound queue wasn't able to reserve XID.");
+            return tracker.getResult();
+        }
+
+        // XID of request context was reserved for the first FLOW_MOD on its connection
+        Long reservedXid = requestContext.getXid().getValue();
+        int dispatchedItems = 0;
+        for (List<FlowModInputBuilder> flowMods : itemFlowMods) {
+            if (!dispatchItem(flowMods, dispatchedItems, reservedXid, firstConnectionContext, requestContext, tracker)) {
+                // partially sent item is failed together with all following ones
+                break;
+            }
+            if (!flowMods.isEmpty()) {
+                reservedXid = null;
+            }
+            dispatchedItems++;
+        }
+
+        tracker.finishDispatching(dispatchedItems, "Outbound queue wasn't able to reserve XID.");
+        return tracker.getResult();
+    }
+
+    /**
+     * @param reservedXid XID reserved on firstConnectionContext for the first FLOW_MOD of item, null if there is none
+     * @return false if XID of some FLOW_MOD of item could not be reserved, FLOW_MODs preceding it are sent
+     */
+    private <O> boolean dispatchItem(final List<FlowModInputBuilder> flowMods, final int item,
+                                     @Nullable final Long reservedXid, final ConnectionContext firstConnectionContext,
+                                     final RequestContext<Void> requestContext, final BulkFlowModTracker<O> tracker) {
+        final ConnectionContext primaryConnectionContext = deviceContext.getPrimaryConnectionContext();
+        Long xid = reservedXid;
+        for (FlowModInputBuilder flowMod : flowMods) {
+            // the first XID is already reserved, do not let it move when auxiliary connections change meanwhile
+            final ConnectionContext connectionContext = xid == null
+                    ? selectConnectionContext(flowMod) : firstConnectionContext;
+            if (xid == null) {
+                xid = connectionContext == primaryConnectionContext
+                        ? deviceContext.reserveXidForDeviceMessage()
+                        : connectionContext.getOutboundQueueProvider().reserveEntry();
+                if (xid == null) {
+                    deviceContext.getMessageSpy().spyMessage(requestContext.getClass(),
+                            MessageSpy.STATISTIC_GROUP.TO_SWITCH_RESERVATION_REJECTED);
+                    return false;
+                }
+            }
+
+            flowMod.setXid(xid);
+            final OfHeader request = flowMod.build();
+            final int connection = tracker.registerConnection(connectionContext);
+            tracker.registerXid(xid, connection, item);
+            connectionContext.getOutboundQueueProvider().commitEntry(xid, request, tracker.getCallback(connection));
+            xid = null;
+        }
+        return true;
+    }
+
+    private static FlowModInputBuilder firstFlowMod(final List<List<FlowModInputBuilder>> itemFlowMods) {
+        for (List<FlowModInputBuilder> flowMods : itemFlowMods) {
+            if (!flowMods.isEmpty()) {
+                return flowMods.get(0);
+            }
+        }
+        throw new IllegalArgumentException("No FLOW_MOD in bulk");
+    }
+
+    private ConnectionContext selectConnectionContext(final FlowModInputBuilder flowMod) {
+        final Long orderingKey = primaryConnectionOnly ? null : FlowService.getFlowModOrderingKey(flowMod);
+        final ConnectionContext connectionContext = orderingKey == null
+                ? null : deviceContext.selectConnectionContext(orderingKey);
+        return connectionContext == null ? deviceContext.getPrimaryConnectionContext() : connectionContext;
+    }
+
+    /**
+     * Single tracking object (and outbound queue callback) of all FLOW_MODs of one bulk. FLOW_MOD has no reply,
+     * so successful callback carries no XID - only device errors can be correlated to batch item, which is done
+     * through XIDs registered in dispatch order. XIDs are unique only within one connection, therefore every
+     * connection used by the bulk gets its own callback. Failure without XID (e.g. connection drop) can not be
+     * attributed, therefore all dispatched items without explicit result are conservatively marked as failed.
+     */
+    private static final class BulkFlowModTracker<O> implements FutureCallback<OfHeader> {
+        private final SettableFuture<List<RpcResult<O>>> result = SettableFuture.create();
+        private final MessageSpy messageSpy;
+        private final int itemCount;
+        /** XIDs in dispatch order, connection they were sent over and index of batch item each of them belongs to */
+        private final long[] xids;
+        private final int[] xidConnections;
+        private final int[] xidItems;
+        /** connections used by bulk (primary one is usually the first), callback of each of them */
+        private final List<ConnectionContext> connections = new ArrayList<>(1);
+        private final List<FutureCallback<OfHeader>> callbacks = new ArrayList<>(1);
+        private final AtomicReferenceArray<RpcResult<O>> itemFailures;
+        private final AtomicReference<Throwable> unattributedFailure = new AtomicReference<>();
+        /** pending outbound queue callbacks + 1 for dispatching phase */
+        private final AtomicInteger pending = new AtomicInteger(1);
+        private volatile int registeredXids;
+        private RequestContext<Void> requestContext;
+        private int dispatchedItems;
+
+        private BulkFlowModTracker(final int itemCount, final int flowModsCount, final MessageSpy messageSpy) {
+            this.itemCount = itemCount;
+            this.messageSpy = messageSpy;
+            xids = new long[flowModsCount];
+            xidConnections = new int[flowModsCount];
+            xidItems = new int[flowModsCount];
+            itemFailures = new AtomicReferenceArray<>(itemCount);
+        }
+
+        private void setRequestContext(final RequestContext<Void> requestContext) {
+            this.requestContext = requestContext;
+        }
+
+        private ListenableFuture<List<RpcResult<O>>> getResult() {
+            return result;
+        }
+
+        /**
+         * @return index of connection within this bulk
+         */
+        private int registerConnection(final ConnectionContext connectionContext) {
+            for (int i = 0; i < connections.size(); i++) {
+                if (connections.get(i) == connectionContext) {
+                    return i;
+                }
+            }
+            final int connection = connections.size();
+            connections.add(connectionContext);
+            callbacks.add(connection == 0 ? this : new ConnectionCallback(connection));
+            return connection;
+        }
+
+        private FutureCallback<OfHeader> getCallback(final int connection) {
+            return callbacks.get(connection);
+        }
+
+        private void registerXid(final long xid, final int connection, final int item) {
+            final int position = registeredXids;
+            xids[position] = xid;
+            xidConnections[position] = connection;
+            xidItems[position] = item;
+            pending.incrementAndGet();
+            messageSpy.spyMessage(FlowModInput.class, MessageSpy.STATISTIC_GROUP.TO_SWITCH_READY_FOR_SUBMIT);
+            registeredXids = position + 1;
+        }
+
+        private void finishDispatching(final int dispatchedItems) {
+            finishDispatching(dispatchedItems, null);
+        }
+
+        private void finishDispatching(final int dispatchedItems, final String undispatchedReason) {
+            this.dispatchedItems = dispatchedItems;
+            for (int item = dispatchedItems; item < itemCount; item++) {
+                itemFailures.compareAndSet(item, null, RpcResultBuilder.<O>failed()
+                        .withError(RpcError.ErrorType.APPLICATION, "", undispatchedReason).build());
+            }
+            if (pending.decrementAndGet() == 0) {
+                complete();
+            }
+        }
+
+        @Override
+        public void onSuccess(final OfHeader ofHeader) {
+            messageSpy.spyMessage(FlowModInput.class, MessageSpy.STATISTIC_GROUP.TO_SWITCH_SUBMIT_SUCCESS);
+            if (pending.decrementAndGet() == 0) {
+                complete();
+            }
+        }
+
+        @Override
+        public void onFailure(final Throwable t) {
+            onFailure(0, t);
+        }
+
+        private void onFailure(final int connection, final Throwable t) {
+            if (t instanceof DeviceRequestFailedException) {
+                messageSpy.spyMessage(FlowModInput.class, MessageSpy.STATISTIC_GROUP.TO_SWITCH_SUBMIT_FAILURE);
+                final Error err = ((DeviceRequestFailedException) t).getError();
+                final int item = findItem(connection, err.getXid());
+                if (item >= 0) {
+                    final String errorString = String.format("Device reported error type %s code %s",
+                            err.getTypeString(), err.getCodeString());
+                    itemFailures.compareAndSet(item, null, RpcResultBuilder.<O>failed()
+                            .withError(RpcError.ErrorType.APPLICATION, errorString, t).build());
+                } else {
+                    LOG.debug("Device error with unknown xid {} in flow bulk", err.getXid());
+                    unattributedFailure.compareAndSet(null, t);
+                }
+            } else {
+                messageSpy.spyMessage(FlowModInput.class, MessageSpy.STATISTIC_GROUP.TO_SWITCH_SUBMIT_ERROR);
+                unattributedFailure.compareAndSet(null, t);
+            }
+
+            if (pending.decrementAndGet() == 0) {
+                complete();
+            }
+        }
+
+        /**
+         * @return index of batch item the given xid was dispatched for over given connection, -1 if unknown
+         */
+        private int findItem(final int connection, final Long xid) {
+            if (xid == null) {
+                return -1;
+            }
+            final int registered = registeredXids;
+            if (registered == 0) {
+                return -1;
+            }
+            // XIDs of bulk are mostly contiguous - try direct offset from first XID of the range
+            final long offset = xid - xids[0];
+            if (offset >= 0 && offset < registered && xids[(int) offset] == xid
+                    && xidConnections[(int) offset] == connection) {
+                return xidItems[(int) offset];
+            }
+            for (int i = 0; i < registered; i++) {
+                if (xids[i] == xid && xidConnections[i] == connection) {
+                    return xidItems[i];
+                }
+            }
+            return -1;
+        }
+
+        private void complete() {
+            final Throwable unattributed = unattributedFailure.get();
+            final RpcResult<O> success = RpcResultBuilder.<O>success().build();
+            final List<RpcResult<O>> itemResults = new ArrayList<>(itemCount);
+            for (int item = 0; item < itemCount; item++) {
+                final RpcResult<O> failure = itemFailures.get(item);
+                if (failure != null) {
+                    itemResults.add(failure);
+                } else if (unattributed != null && item < dispatchedItems) {
+                    itemResults.add(RpcResultBuilder.<O>failed()
+                            .withError(RpcError.ErrorType.APPLICATION, unattributed.getMessage(), unattributed).build());
+                } else {
+                    itemResults.add(success);
+                }
+            }
+
+            if (requestContext != null) {
+                requestContext.setResult(RpcResultBuilder.<Void>success().build());
+                RequestContextUtil.closeRequstContext(requestContext);
+            }
+            result.set(Collections.unmodifiableList(itemResults));
+        }
+
+        /**
+         * Outbound queue callback of auxiliary connection, it only tells which connection the XID belongs to.
+         */
+        private final class ConnectionCallback implements FutureCallback<OfHeader> {
+            private final int connection;
+
+            private ConnectionCallback(final int connection) {
+                this.connection = connection;
+            }
+
+            @Override
+            public void onSuccess(final OfHeader ofHeader) {
+                BulkFlowModTracker.this.onSuccess(ofHeader);
+            }
+
+            @Override
+            public void onFailure(final Throwable t) {
+                BulkFlowModTracker.this.onFailure(connection, t);
+            }
+        }
+    }
+}
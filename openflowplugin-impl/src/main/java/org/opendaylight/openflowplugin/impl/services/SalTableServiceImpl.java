@@ -15,11 +15,13 @@ import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Future;
+import javax.annotation.Nullable;
 import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
 import org.opendaylight.openflowplugin.api.openflow.device.DeviceContext;
 import org.opendaylight.openflowplugin.api.openflow.device.RequestContextStack;
 import org.opendaylight.openflowplugin.api.openflow.device.TxFacade;
 import org.opendaylight.openflowplugin.api.openflow.device.Xid;
+import org.opendaylight.openflowplugin.impl.device.TableFeaturesCache;
 import org.opendaylight.openflowplugin.openflow.md.core.sal.convertor.TableFeaturesConvertor;
 import org.opendaylight.openflowplugin.openflow.md.core.sal.convertor.TableFeaturesReplyConvertor;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.FlowCapableNode;
@@ -57,11 +59,22 @@ public final class SalTableServiceImpl extends AbstractMultipartService<UpdateTa
     private static final Logger LOG = org.slf4j.LoggerFactory.getLogger(SalTableServiceImpl.class);
     private final TxFacade txFacade;
     private final NodeId nodeId;
+    @Nullable
+    private final TableFeaturesCache tableFeaturesCache;
 
     public SalTableServiceImpl(final RequestContextStack requestContextStack, final DeviceContext deviceContext) {
+        this(requestContextStack, deviceContext, null);
+    }
+
+    /**
+     * @param tableFeaturesCache cached table features of the device are invalidated after successful update
+     */
+    public SalTableServiceImpl(final RequestContextStack requestContextStack, final DeviceContext deviceContext,
+                               @Nullable final TableFeaturesCache tableFeaturesCache) {
         super(requestContextStack, deviceContext);
         this.txFacade = deviceContext;
         this.nodeId = deviceContext.getDeviceState().getNodeId();
+        this.tableFeaturesCache = tableFeaturesCache;
     }
 
     @Override
@@ -84,6 +97,9 @@ public final class SalTableServiceImpl extends AbstractMultipartService<UpdateTa
                         LOG.debug(
                                 "OnSuccess, rpc result successful, multipart response for rpc update-table with xid {} obtained.",
                                 xid);
+                        if (tableFeaturesCache != null) {
+                            tableFeaturesCache.invalidate(getDatapathId());
+                        }
                         final UpdateTableOutputBuilder updateTableOutputBuilder = new UpdateTableOutputBuilder();
                         updateTableOutputBuilder.setTransactionId(new TransactionId(BigInteger.valueOf(xid)));
                         finalFuture.set(RpcResultBuilder.success(updateTableOutputBuilder.build()).build());
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.openflowplugin.impl.statistics;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.AsyncFunction;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import java.util.List;
+import javax.annotation.Nonnull;
+import org.opendaylight.openflowplugin.api.openflow.device.TxFacade;
+import org.opendaylight.openflowplugin.api.openflow.device.handlers.MultipartReplySink;
+import org.opendaylight.yangtools.yang.binding.DataObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Base of statistics writers consuming multipart replies chunk by chunk. The first chunk triggers
+ * {@link #startWriting()} (typically cleanup of known items), every chunk is written into transaction
+ * as soon as the previous writes are done and transaction is submitted at the end of stream.
+ * <p>
+ * Chunks wait in memory only while cleanup is in progress, otherwise they are written right away.
+ * On broken stream or failed write the already written data are submitted as well, but {@link #abortWriting()}
+ * is called instead of {@link #finishWriting()}.
+ */
+public abstract class AbstractStatisticsWriterSink implements MultipartReplySink {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AbstractStatisticsWriterSink.class);
+
+    private final TxFacade txFacade;
+    private final SettableFuture<Boolean> result = SettableFuture.create();
+    private ListenableFuture<Void> pendingWrites = Futures.immediateFuture(null);
+    private boolean started;
+
+    protected AbstractStatisticsWriterSink(final TxFacade txFacade) {
+        this.txFacade = Preconditions.checkNotNull(txFacade);
+    }
+
+    @Override
+    public void onChunk(@Nonnull final List<? extends DataObject> chunk) {
+        if (!started) {
+            started = true;
+            try {
+                pendingWrites = startWriting();
+            } catch (final Exception e) {
+                pendingWrites = Futures.immediateFailedFuture(e);
+            }
+        }
+
+        pendingWrites = Futures.transform(pendingWrites, new AsyncFunction<Void, Void>() {
+            @Override
+            public ListenableFuture<Void> apply(final Void input) throws Exception {
+                writeChunk(chunk);
+                return Futures.immediateFuture(null);
+            }
+        });
+    }
+
+    @Override
+    public void onCompleted() {
+        Futures.addCallback(pendingWrites, new FutureCallback<Void>() {
+            @Override
+            public void onSuccess(final Void input) {
+                if (started) {
+                    finishWriting();
+                }
+                txFacade.submitTransaction();
+                result.set(Boolean.TRUE);
+            }
+
+            @Override
+            public void onFailure(final Throwable t) {
+                LOG.warn("Writing of statistics into transaction failed", t);
+                if (started) {
+                    abortWriting();
+                }
+                txFacade.submitTransaction();
+                result.setException(t);
+            }
+        });
+    }
+
+    @Override
+    public void onFailure(@Nonnull final Throwable cause) {
+        Futures.addCallback(pendingWrites, new FutureCallback<Void>() {
+            @Override
+            public void onSuccess(final Void input) {
+                if (started) {
+                    abortWriting();
+                }
+                txFacade.submitTransaction();
+                result.setException(cause);
+            }
+
+            @Override
+            public void onFailure(final Throwable t) {
+                if (started) {
+                    abortWriting();
+                }
+                txFacade.submitTransaction();
+                result.setException(cause);
+            }
+        });
+    }
+
+    /**
+     * @return future of whole stream - true when all chunks got written and transaction was submitted
+     */
+    public ListenableFuture<Boolean> getResult() {
+        return result;
+    }
+
+    /**
+     * Called before the first chunk is written.
+     *
+     * @return future which has to be done before chunks are written
+     */
+    protected ListenableFuture<Void> startWriting() throws Exception {
+        return Futures.immediateFuture(null);
+    }
+
+    /**
+     * @param chunk translated content of one multipart reply
+     */
+    protected abstract void writeChunk(List<? extends DataObject> chunk) throws Exception;
+
+    /**
+     * Called after the last chunk got written, before transaction is submitted (only if any chunk arrived).
+     */
+    protected void finishWriting() {
+        // NOOP
+    }
+
+    /**
+     * Called instead of {@link #finishWriting()} when stream broke or some chunk failed to be written
+     * (only if any chunk arrived).
+     */
+    protected void abortWriting() {
+        // NOOP
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.openflowplugin.impl.statistics;
+
+import com.google.common.annotations.VisibleForTesting;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import javax.annotation.concurrent.GuardedBy;
+import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
+import org.opendaylight.openflowplugin.api.openflow.device.DeviceState;
+import org.opendaylight.openflowplugin.api.openflow.device.TxFacade;
+import org.opendaylight.openflowplugin.api.openflow.registry.flow.DeviceFlowRegistry;
+import org.opendaylight.openflowplugin.api.openflow.registry.flow.FlowRegistryKey;
+import org.opendaylight.openflowplugin.impl.registry.flow.FlowRegistryKeyFactory;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.FlowCapableNode;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.FlowId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.Table;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.TableKey;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.table.Flow;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.table.FlowBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.table.FlowKey;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.statistics.rev130819.FlowStatisticsData;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.statistics.rev130819.FlowStatisticsDataBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.statistics.rev130819.FlowsStatisticsUpdate;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.statistics.rev130819.flow.and.statistics.map.list.FlowAndStatisticsMapList;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.statistics.rev130819.flow.statistics.FlowStatistics;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.statistics.rev130819.flow.statistics.FlowStatisticsBuilder;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Last written flow statistics of one device - used for incremental (diff based) writes of flow statistics into
+ * operational DS instead of deleting all known flows and writing them back on every poll.
+ * <p>
+ * One gathering cycle consists of {@link #startCycle()}, any number of
+ * {@link #writeFlowStatistics(Iterable, DeviceState, DeviceFlowRegistry, TxFacade)} calls (one per multipart chunk)
+ * and {@link #finishCycle(DeviceState, TxFacade)} - or {@link #abortCycle()} if any chunk could not be written:
+ * <ul>
+ * <li>flow not present in snapshot or with changed definition is written as whole</li>
+ * <li>flow with unchanged definition but changed counters gets only its statistics augmentation rewritten
+ * (duration is refreshed together with counters only)</li>
+ * <li>flow known from previous cycle but not reported in current one is deleted</li>
+ * </ul>
+ * Aborted cycle deletes nothing, it only drops the baseline (flows missing in an incomplete cycle are not known
+ * to be gone). Until the first cycle is finished there is no baseline and the caller is expected to clean up known flows
+ * (see {@link StatisticsGatheringUtils#deleteAllKnownFlows(DeviceState, DeviceFlowRegistry, TxFacade)}).
+ */
+public class FlowStatisticsSnapshot {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FlowStatisticsSnapshot.class);
+
+    private static final class SnapshotEntry {
+        private final short tableId;
+        private final FlowId flowId;
+        private final Flow flow;
+        private final FlowStatistics flowStatistics;
+
+        private SnapshotEntry(final short tableId, final FlowId flowId, final Flow flow,
+                              final FlowStatistics flowStatistics) {
+            this.tableId = tableId;
+            this.flowId = flowId;
+            this.flow = flow;
+            this.flowStatistics = flowStatistics;
+        }
+    }
+
+    @GuardedBy("this")
+    private final Map<FlowRegistryKey, SnapshotEntry> snapshot = new HashMap<>();
+    @GuardedBy("this")
+    private final Set<FlowRegistryKey> reportedInCycle = new HashSet<>();
+    @GuardedBy("this")
+    private boolean baselineAvailable;
+    @GuardedBy("this")
+    private boolean cycleInProgress;
+
+    /**
+     * Starts new gathering cycle.
+     *
+     * @return true if snapshot contains baseline from previous cycle and incremental write is possible,
+     * false if caller has to clean up all known flows first
+     */
+    public synchronized boolean startCycle() {
+        reportedInCycle.clear();
+        cycleInProgress = true;
+        if (!baselineAvailable) {
+            snapshot.clear();
+        }
+        return baselineAvailable;
+    }
+
+    /**
+     * Writes added and changed flows of one chunk of flow statistics into transaction.
+     *
+     * @return false if chunk could not be written completely, cycle has to be aborted then
+     */
+    public synchronized boolean writeFlowStatistics(final Iterable<FlowsStatisticsUpdate> data,
+                                                 final DeviceState deviceState,
+                                                 final DeviceFlowRegistry registry,
+                                                 final TxFacade txFacade) {
+        final InstanceIdentifier<FlowCapableNode> fNodeIdent = assembleFlowCapableNodeInstanceIdentifier(deviceState);
+        try {
+            for (final FlowsStatisticsUpdate flowsStatistics : data) {
+                for (final FlowAndStatisticsMapList flowStat : flowsStatistics.getFlowAndStatisticsMapList()) {
+                    final FlowBuilder flowBuilder = new FlowBuilder(flowStat);
+                    final Flow flowDefinition = flowBuilder.build();
+                    final FlowStatistics flowStatistics = new FlowStatisticsBuilder(flowStat).build();
+
+                    final short tableId = flowStat.getTableId();
+                    final FlowRegistryKey flowRegistryKey = FlowRegistryKeyFactory.create(flowDefinition);
+                    final FlowId flowId = registry.storeIfNecessary(flowRegistryKey, tableId);
+                    reportedInCycle.add(flowRegistryKey);
+
+                    final FlowKey flowKey = new FlowKey(flowId);
+                    final InstanceIdentifier<Flow> flowIdent = fNodeIdent.child(Table.class, new TableKey(tableId))
+                            .child(Flow.class, flowKey);
+                    final SnapshotEntry lastEntry = snapshot.get(flowRegistryKey);
+
+                    if (lastEntry == null || !lastEntry.flowId.equals(flowId)
+                            || !lastEntry.flow.equals(flowDefinition)) {
+                        if (lastEntry != null && (lastEntry.tableId != tableId || !lastEntry.flowId.equals(flowId))) {
+                            // flow got another id (e.g. alien id replaced by configured one), drop the old node
+                            txFacade.addDeleteToTxChain(LogicalDatastoreType.OPERATIONAL,
+                                    fNodeIdent.child(Table.class, new TableKey(lastEntry.tableId))
+                                            .child(Flow.class, new FlowKey(lastEntry.flowId)));
+                        }
+                        flowBuilder.setKey(flowKey);
+                        flowBuilder.addAugmentation(FlowStatisticsData.class,
+                                new FlowStatisticsDataBuilder().setFlowStatistics(flowStatistics).build());
+                        txFacade.writeToTransaction(LogicalDatastoreType.OPERATIONAL, flowIdent, flowBuilder.build());
+                    } else if (countersChanged(lastEntry.flowStatistics, flowStatistics)) {
+                        final InstanceIdentifier<FlowStatistics> flowStatIdent = flowIdent
+                                .augmentation(FlowStatisticsData.class).child(FlowStatistics.class);
+                        txFacade.writeToTransaction(LogicalDatastoreType.OPERATIONAL, flowStatIdent, flowStatistics);
+                    } else {
+                        continue;
+                    }
+                    snapshot.put(flowRegistryKey, new SnapshotEntry(tableId, flowId, flowDefinition, flowStatistics));
+                }
+            }
+        } catch (Exception e) {
+            LOG.warn("Not able to write to transaction: {}", e.getMessage());
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Finishes gathering cycle - deletes all flows which were not reported in this cycle.
+     */
+    public synchronized void finishCycle(final DeviceState deviceState, final TxFacade txFacade) {
+        if (!cycleInProgress) {
+            LOG.debug("Flow statistics cycle was aborted, vanished flows are not deleted");
+            return;
+        }
+        cycleInProgress = false;
+        final InstanceIdentifier<FlowCapableNode> fNodeIdent = assembleFlowCapableNodeInstanceIdentifier(deviceState);
+        try {
+            for (final Iterator<Map.Entry<FlowRegistryKey, SnapshotEntry>> iterator = snapshot.entrySet().iterator();
+                    iterator.hasNext(); ) {
+                final Map.Entry<FlowRegistryKey, SnapshotEntry> entry = iterator.next();
+                if (!reportedInCycle.contains(entry.getKey())) {
+                    final SnapshotEntry vanished = entry.getValue();
+                    final InstanceIdentifier<Flow> flowIdent = fNodeIdent.child(Table.class, new TableKey(vanished.tableId))
+                            .child(Flow.class, new FlowKey(vanished.flowId));
+                    txFacade.addDeleteToTxChain(LogicalDatastoreType.OPERATIONAL, flowIdent);
+                    iterator.remove();
+                }
+            }
+            baselineAvailable = true;
+        } catch (Exception e) {
+            LOG.warn("Not able to delete vanished flows: {}", e.getMessage());
+            baselineAvailable = false;
+        }
+        reportedInCycle.clear();
+    }
+
+    /**
+     * Aborts gathering cycle after incomplete write or broken reply stream - nothing is deleted, but baseline
+     * is dropped, so next cycle will do full rewrite.
+     */
+    public synchronized void abortCycle() {
+        cycleInProgress = false;
+        baselineAvailable = false;
+        reportedInCycle.clear();
+    }
+
+    /**
+     * Drops baseline - next cycle will do full rewrite.
+     */
+    public synchronized void invalidate() {
+        baselineAvailable = false;
+        snapshot.clear();
+        reportedInCycle.clear();
+    }
+
+    @VisibleForTesting
+    synchronized int size() {
+        return snapshot.size();
+    }
+
+    private static boolean countersChanged(final FlowStatistics lastStatistics, final FlowStatistics flowStatistics) {
+        return !Objects.equals(lastStatistics.getPacketCount(), flowStatistics.getPacketCount())
+                || !Objects.equals(lastStatistics.getByteCount(), flowStatistics.getByteCount());
+    }
+
+    private static InstanceIdentifier<FlowCapableNode> assembleFlowCapableNodeInstanceIdentifier(final DeviceState deviceState) {
+        return deviceState.getNodeInstanceIdentifier().augmentation(FlowCapableNode.class);
+    }
+}
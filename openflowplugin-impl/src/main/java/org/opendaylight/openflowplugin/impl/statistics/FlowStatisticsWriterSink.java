@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.openflowplugin.impl.statistics;
+
+import com.google.common.collect.Iterables;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import java.util.List;
+import javax.annotation.Nullable;
+import org.opendaylight.openflowplugin.api.openflow.device.DeviceState;
+import org.opendaylight.openflowplugin.api.openflow.device.TxFacade;
+import org.opendaylight.openflowplugin.api.openflow.registry.flow.DeviceFlowRegistry;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.statistics.rev130819.FlowsStatisticsUpdate;
+import org.opendaylight.yangtools.yang.binding.DataObject;
+
+/**
+ * Writes flow statistics chunk by chunk - known flows are cleaned up before the first chunk unless
+ * the statistics are written incrementally against {@link FlowStatisticsSnapshot}.
+ */
+public class FlowStatisticsWriterSink extends AbstractStatisticsWriterSink {
+
+    private final DeviceState deviceState;
+    private final DeviceFlowRegistry registry;
+    private final TxFacade txFacade;
+    private final FlowStatisticsSnapshot flowStatisticsSnapshot;
+
+    /**
+     * @param flowStatisticsSnapshot if not null then flow statistics are written incrementally against this snapshot
+     */
+    public FlowStatisticsWriterSink(final DeviceState deviceState,
+                                    final DeviceFlowRegistry registry,
+                                    final TxFacade txFacade,
+                                    @Nullable final FlowStatisticsSnapshot flowStatisticsSnapshot) {
+        super(txFacade);
+        this.deviceState = deviceState;
+        this.registry = registry;
+        this.txFacade = txFacade;
+        this.flowStatisticsSnapshot = flowStatisticsSnapshot;
+    }
+
+    @Override
+    protected ListenableFuture<Void> startWriting() {
+        if (flowStatisticsSnapshot != null && flowStatisticsSnapshot.startCycle()) {
+            return Futures.immediateFuture(null);
+        }
+        return StatisticsGatheringUtils.deleteAllKnownFlows(deviceState, registry, txFacade);
+    }
+
+    @Override
+    protected void writeChunk(final List<? extends DataObject> chunk) {
+        final Iterable<FlowsStatisticsUpdate> data = Iterables.filter(chunk, FlowsStatisticsUpdate.class);
+        if (flowStatisticsSnapshot != null) {
+            if (!flowStatisticsSnapshot.writeFlowStatistics(data, deviceState, registry, txFacade)) {
+                throw new IllegalStateException("Flow statistics chunk was not written completely");
+            }
+        } else {
+            StatisticsGatheringUtils.writeFlowStatistics(data, deviceState, registry, txFacade);
+        }
+    }
+
+    @Override
+    protected void finishWriting() {
+        if (flowStatisticsSnapshot != null) {
+            flowStatisticsSnapshot.finishCycle(deviceState, txFacade);
+        }
+    }
+
+    @Override
+    protected void abortWriting() {
+        if (flowStatisticsSnapshot != null) {
+            flowStatisticsSnapshot.abortCycle();
+        }
+    }
+}
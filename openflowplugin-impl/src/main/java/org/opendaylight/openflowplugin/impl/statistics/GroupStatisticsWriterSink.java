@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.openflowplugin.impl.statistics;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Iterables;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import java.util.List;
+import org.opendaylight.openflowplugin.api.openflow.device.DeviceContext;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.group.statistics.rev131111.GroupDescStatsUpdated;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.group.statistics.rev131111.GroupStatisticsUpdated;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.types.rev130731.MultipartType;
+import org.opendaylight.yangtools.yang.binding.DataObject;
+
+/**
+ * Writes group statistics ({@link MultipartType#OFPMPGROUP}) or group descriptions
+ * ({@link MultipartType#OFPMPGROUPDESC}) chunk by chunk - known groups are cleaned up before
+ * the first chunk of descriptions.
+ */
+public class GroupStatisticsWriterSink extends AbstractStatisticsWriterSink {
+
+    private final DeviceContext deviceContext;
+    private final boolean description;
+
+    public GroupStatisticsWriterSink(final DeviceContext deviceContext, final MultipartType type) {
+        super(deviceContext);
+        Preconditions.checkArgument(MultipartType.OFPMPGROUP.equals(type) || MultipartType.OFPMPGROUPDESC.equals(type),
+                "Unsupported multipart type: %s", type);
+        this.deviceContext = deviceContext;
+        this.description = MultipartType.OFPMPGROUPDESC.equals(type);
+    }
+
+    @Override
+    protected ListenableFuture<Void> startWriting() throws Exception {
+        if (description) {
+            StatisticsGatheringUtils.deleteAllKnownGroups(deviceContext);
+        }
+        return Futures.immediateFuture(null);
+    }
+
+    @Override
+    protected void writeChunk(final List<? extends DataObject> chunk) throws Exception {
+        if (description) {
+            StatisticsGatheringUtils.writeGroupDescStatistics(
+                    Iterables.filter(chunk, GroupDescStatsUpdated.class), deviceContext);
+        } else {
+            StatisticsGatheringUtils.writeGroupStatistics(
+                    Iterables.filter(chunk, GroupStatisticsUpdated.class), deviceContext);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.openflowplugin.impl.statistics;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Iterables;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import java.util.List;
+import org.opendaylight.openflowplugin.api.openflow.device.DeviceContext;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.meter.statistics.rev131111.MeterConfigStatsUpdated;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.meter.statistics.rev131111.MeterStatisticsUpdated;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.types.rev130731.MultipartType;
+import org.opendaylight.yangtools.yang.binding.DataObject;
+
+/**
+ * Writes meter statistics ({@link MultipartType#OFPMPMETER}) or meter configurations
+ * ({@link MultipartType#OFPMPMETERCONFIG}) chunk by chunk - known meters are cleaned up before
+ * the first chunk of configurations.
+ */
+public class MeterStatisticsWriterSink extends AbstractStatisticsWriterSink {
+
+    private final DeviceContext deviceContext;
+    private final boolean config;
+
+    public MeterStatisticsWriterSink(final DeviceContext deviceContext, final MultipartType type) {
+        super(deviceContext);
+        Preconditions.checkArgument(MultipartType.OFPMPMETER.equals(type) || MultipartType.OFPMPMETERCONFIG.equals(type),
+                "Unsupported multipart type: %s", type);
+        this.deviceContext = deviceContext;
+        this.config = MultipartType.OFPMPMETERCONFIG.equals(type);
+    }
+
+    @Override
+    protected ListenableFuture<Void> startWriting() throws Exception {
+        if (config) {
+            StatisticsGatheringUtils.deleteAllKnownMeters(deviceContext);
+        }
+        return Futures.immediateFuture(null);
+    }
+
+    @Override
+    protected void writeChunk(final List<? extends DataObject> chunk) throws Exception {
+        if (config) {
+            StatisticsGatheringUtils.writeMeterConfigStatistics(
+                    Iterables.filter(chunk, MeterConfigStatsUpdated.class), deviceContext);
+        } else {
+            StatisticsGatheringUtils.writeMeterStatistics(
+                    Iterables.filter(chunk, MeterStatisticsUpdated.class), deviceContext);
+        }
+    }
+}
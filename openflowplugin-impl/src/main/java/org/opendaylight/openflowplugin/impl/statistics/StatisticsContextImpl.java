@@ -20,9 +20,12 @@ import com.google.common.util.concurrent.SettableFuture;
 import io.netty.util.Timeout;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 import javax.annotation.concurrent.GuardedBy;
@@ -33,9 +36,11 @@ import org.opendaylight.openflowplugin.api.openflow.device.RequestContext;
 import org.opendaylight.openflowplugin.api.openflow.lifecycle.LifecycleConductor;
 import org.opendaylight.openflowplugin.api.openflow.rpc.listener.ItemLifecycleListener;
 import org.opendaylight.openflowplugin.api.openflow.statistics.StatisticsContext;
+import org.opendaylight.openflowplugin.api.openflow.statistics.ofpspecific.EventIdentifier;
 import org.opendaylight.openflowplugin.impl.rpc.AbstractRequestContext;
 import org.opendaylight.openflowplugin.impl.rpc.listener.ItemLifecycleListenerImpl;
 import org.opendaylight.openflowplugin.impl.services.RequestContextUtil;
+import org.opendaylight.openflowplugin.impl.statistics.ofpspecific.EventsTimeCounter;
 import org.opendaylight.openflowplugin.impl.statistics.services.dedicated.StatisticsGatheringOnTheFlyService;
 import org.opendaylight.openflowplugin.impl.statistics.services.dedicated.StatisticsGatheringService;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.NodeId;
@@ -47,6 +52,8 @@ public class StatisticsContextImpl implements StatisticsContext {
 
     private static final Logger LOG = LoggerFactory.getLogger(StatisticsContextImpl.class);
     private static final String CONNECTION_CLOSED = "Connection closed.";
+    /** prefix of per statistics type gathering time event (see {@link EventsTimeCounter}) */
+    public static final String STAT_TYPE_EVENT_PREFIX = "STATISTICS-";
 
     private final ItemLifecycleListener itemLifeCycleListener;
     private final Collection<RequestContext<?>> requestContexts = new HashSet<>();
@@ -54,6 +61,8 @@ public class StatisticsContextImpl implements StatisticsContext {
     private final DeviceState devState;
     private final ListenableFuture<Boolean> emptyFuture;
     private final boolean shuttingDownStatisticsPolling;
+    private final FlowStatisticsSnapshot flowStatisticsSnapshot;
+    private final int statisticsGatheringWindow;
     private final Object COLLECTION_STAT_TYPE_LOCK = new Object();
     @GuardedBy("COLLECTION_STAT_TYPE_LOCK")
     private List<MultipartType> collectingStatType;
@@ -64,14 +73,20 @@ public class StatisticsContextImpl implements StatisticsContext {
 
     private final LifecycleConductor conductor;
 
-    public StatisticsContextImpl(@CheckForNull final NodeId nodeId, final boolean shuttingDownStatisticsPolling, final LifecycleConductor lifecycleConductor) {
+    public StatisticsContextImpl(@CheckForNull final NodeId nodeId, final boolean shuttingDownStatisticsPolling,
+                                 final boolean isStatisticsWriteIncremental, final int statisticsGatheringWindow,
+                                 final LifecycleConductor lifecycleConductor) {
+        Preconditions.checkArgument(statisticsGatheringWindow > 0, "statistics gathering window has to be positive");
         this.conductor = lifecycleConductor;
+        this.statisticsGatheringWindow = statisticsGatheringWindow;
         this.deviceContext = Preconditions.checkNotNull(conductor.getDeviceContext(nodeId));
         this.devState = Preconditions.checkNotNull(deviceContext.getDeviceState());
         this.shuttingDownStatisticsPolling = shuttingDownStatisticsPolling;
+        this.flowStatisticsSnapshot = isStatisticsWriteIncremental ? new FlowStatisticsSnapshot() : null;
         emptyFuture = Futures.immediateFuture(false);
         statisticsGatheringService = new StatisticsGatheringService(this, deviceContext);
-        statisticsGatheringOnTheFlyService = new StatisticsGatheringOnTheFlyService(this, deviceContext);
+        statisticsGatheringOnTheFlyService = new StatisticsGatheringOnTheFlyService(this, deviceContext,
+                flowStatisticsSnapshot);
         itemLifeCycleListener = new ItemLifecycleListenerImpl(deviceContext);
         statListForCollectingInitialization();
         this.deviceContext.setStatisticsContext(StatisticsContextImpl.this);
@@ -116,13 +131,56 @@ public class StatisticsContextImpl implements StatisticsContext {
             return errorResultFuture;
         }
         synchronized (COLLECTION_STAT_TYPE_LOCK) {
-            final Iterator<MultipartType> statIterator = Iterators.unmodifiableIterator(collectingStatType.iterator());
             final SettableFuture<Boolean> settableStatResultFuture = SettableFuture.create();
-            statChainFuture(statIterator, settableStatResultFuture);
+            if (statisticsGatheringWindow > 1) {
+                new StatisticsPipeline(collectingStatType, settableStatResultFuture).fill();
+            } else {
+                final Iterator<MultipartType> statIterator = Iterators.unmodifiableIterator(collectingStatType.iterator());
+                statChainFuture(statIterator, settableStatResultFuture);
+            }
             return settableStatResultFuture;
         }
     }
 
+    /**
+     * Multipart type which has to be collected before given type (e.g. group stats are written into groups
+     * created by group description), null if there is no such type.
+     */
+    @VisibleForTesting
+    static MultipartType getPrerequisite(final MultipartType multipartType) {
+        switch (multipartType) {
+            case OFPMPGROUP:
+                return MultipartType.OFPMPGROUPDESC;
+            case OFPMPMETER:
+                return MultipartType.OFPMPMETERCONFIG;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Chooses and collects statistics of given type, gathering time of the type is recorded in
+     * {@link EventsTimeCounter} under {@link #STAT_TYPE_EVENT_PREFIX} + type.
+     */
+    private ListenableFuture<Boolean> chooseAndMeasureStat(final MultipartType multipartType) {
+        final EventIdentifier eventIdentifier = new EventIdentifier(STAT_TYPE_EVENT_PREFIX + multipartType,
+                deviceContext.getPrimaryConnectionContext().getNodeId().toString());
+        EventsTimeCounter.markStart(eventIdentifier);
+        final ListenableFuture<Boolean> statFuture = chooseStat(multipartType);
+        Futures.addCallback(statFuture, new FutureCallback<Boolean>() {
+            @Override
+            public void onSuccess(final Boolean result) {
+                EventsTimeCounter.markEnd(eventIdentifier);
+            }
+
+            @Override
+            public void onFailure(@Nonnull final Throwable t) {
+                // failed gathering is not a relevant sample
+            }
+        });
+        return statFuture;
+    }
+
     private ListenableFuture<Boolean> chooseStat(final MultipartType multipartType) {
         switch (multipartType) {
             case OFPMPFLOW:
@@ -149,7 +207,16 @@ public class StatisticsContextImpl implements StatisticsContext {
 
     @Override
     public <T> RequestContext<T> createRequestContext() {
-        final AbstractRequestContext<T> ret = new AbstractRequestContext<T>(deviceContext.reserveXidForDeviceMessage()) {
+        return newRequestContext(deviceContext.reserveXidForDeviceMessage());
+    }
+
+    @Override
+    public <T> RequestContext<T> createRequestContext(@Nonnull final ConnectionContext connectionContext) {
+        return newRequestContext(connectionContext.getOutboundQueueProvider().reserveEntry());
+    }
+
+    private <T> RequestContext<T> newRequestContext(final Long xid) {
+        final AbstractRequestContext<T> ret = new AbstractRequestContext<T>(xid) {
             @Override
             public void close() {
                 requestContexts.remove(this);
@@ -168,6 +235,9 @@ public class StatisticsContextImpl implements StatisticsContext {
         if (null != pollTimeout && !pollTimeout.isExpired()) {
             pollTimeout.cancel();
         }
+        if (null != flowStatisticsSnapshot) {
+            flowStatisticsSnapshot.invalidate();
+        }
     }
 
     @Override
@@ -197,7 +267,7 @@ public class StatisticsContextImpl implements StatisticsContext {
         final MultipartType nextType = iterator.next();
         LOG.debug("Stats iterating to next type for node {} of type {}", deviceContext.getDeviceState().getNodeId(), nextType);
 
-        final ListenableFuture<Boolean> deviceStatisticsCollectionFuture = chooseStat(nextType);
+        final ListenableFuture<Boolean> deviceStatisticsCollectionFuture = chooseAndMeasureStat(nextType);
         Futures.addCallback(deviceStatisticsCollectionFuture, new FutureCallback<Boolean>() {
             @Override
             public void onSuccess(final Boolean result) {
@@ -210,6 +280,93 @@ public class StatisticsContextImpl implements StatisticsContext {
         });
     }
 
+    /**
+     * Pipelined statistics gathering - keeps up to {@link #statisticsGatheringWindow} multipart requests in flight,
+     * type with prerequisite (see {@link #getPrerequisite(MultipartType)}) is requested only after its prerequisite
+     * has been collected.
+     */
+    private final class StatisticsPipeline {
+        private final SettableFuture<Boolean> resultFuture;
+        private final Set<MultipartType> scheduledTypes;
+        @GuardedBy("this")
+        private final List<MultipartType> waitingTypes;
+        @GuardedBy("this")
+        private final Set<MultipartType> collectedTypes = EnumSet.noneOf(MultipartType.class);
+        @GuardedBy("this")
+        private int inFlight;
+        @GuardedBy("this")
+        private boolean failed;
+
+        private StatisticsPipeline(final List<MultipartType> statTypes, final SettableFuture<Boolean> resultFuture) {
+            this.resultFuture = resultFuture;
+            this.waitingTypes = new LinkedList<>(statTypes);
+            this.scheduledTypes = statTypes.isEmpty()
+                    ? EnumSet.noneOf(MultipartType.class) : EnumSet.copyOf(statTypes);
+        }
+
+        private void fill() {
+            if (ConnectionContext.CONNECTION_STATE.RIP.equals(deviceContext.getPrimaryConnectionContext().getConnectionState())) {
+                final String errMsg = String.format("Device connection is closed for Node : %s.",
+                        deviceContext.getDeviceState().getNodeId());
+                LOG.debug(errMsg);
+                fail(new IllegalStateException(errMsg));
+                return;
+            }
+
+            final List<MultipartType> typesToSend = new ArrayList<>();
+            synchronized (this) {
+                if (failed) {
+                    return;
+                }
+                if (waitingTypes.isEmpty() && inFlight == 0) {
+                    LOG.debug("Stats collection successfully finished for node {}", deviceContext.getDeviceState().getNodeId());
+                    resultFuture.set(Boolean.TRUE);
+                    return;
+                }
+                for (final Iterator<MultipartType> iterator = waitingTypes.iterator();
+                     iterator.hasNext() && inFlight < statisticsGatheringWindow; ) {
+                    final MultipartType type = iterator.next();
+                    final MultipartType prerequisite = getPrerequisite(type);
+                    if (prerequisite == null || !scheduledTypes.contains(prerequisite)
+                            || collectedTypes.contains(prerequisite)) {
+                        iterator.remove();
+                        inFlight++;
+                        typesToSend.add(type);
+                    }
+                }
+            }
+
+            for (final MultipartType type : typesToSend) {
+                LOG.debug("Stats pipelining type {} for node {}", type, deviceContext.getDeviceState().getNodeId());
+                Futures.addCallback(chooseAndMeasureStat(type), new FutureCallback<Boolean>() {
+                    @Override
+                    public void onSuccess(final Boolean result) {
+                        synchronized (StatisticsPipeline.this) {
+                            inFlight--;
+                            collectedTypes.add(type);
+                        }
+                        fill();
+                    }
+
+                    @Override
+                    public void onFailure(@Nonnull final Throwable t) {
+                        fail(t);
+                    }
+                });
+            }
+        }
+
+        private void fail(final Throwable t) {
+            synchronized (this) {
+                if (failed) {
+                    return;
+                }
+                failed = true;
+            }
+            resultFuture.setException(t);
+        }
+    }
+
     /**
      * Method checks a device state. It returns null for be able continue. Otherwise it returns immediateFuture
      * which has to be returned from caller too
@@ -236,8 +393,9 @@ public class StatisticsContextImpl implements StatisticsContext {
     }
 
     private ListenableFuture<Boolean> collectFlowStatistics(final MultipartType multipartType) {
-        return devState.isFlowStatisticsAvailable() ? StatisticsGatheringUtils.gatherStatistics(
-                statisticsGatheringOnTheFlyService, deviceContext, /*MultipartType.OFPMPFLOW*/ multipartType) : emptyFuture;
+        return devState.isFlowStatisticsAvailable() ? StatisticsGatheringUtils.streamStatistics(
+                statisticsGatheringOnTheFlyService, deviceContext, /*MultipartType.OFPMPFLOW*/ multipartType,
+                flowStatisticsSnapshot) : emptyFuture;
     }
 
     private ListenableFuture<Boolean> collectTableStatistics(final MultipartType multipartType) {
@@ -256,23 +414,23 @@ public class StatisticsContextImpl implements StatisticsContext {
     }
 
     private ListenableFuture<Boolean> collectGroupDescStatistics(final MultipartType multipartType) {
-        return devState.isGroupAvailable() ? StatisticsGatheringUtils.gatherStatistics(
-                statisticsGatheringService, deviceContext, /*MultipartType.OFPMPGROUPDESC*/ multipartType) : emptyFuture;
+        return devState.isGroupAvailable() ? StatisticsGatheringUtils.streamStatistics(
+                statisticsGatheringOnTheFlyService, deviceContext, /*MultipartType.OFPMPGROUPDESC*/ multipartType, null) : emptyFuture;
     }
 
     private ListenableFuture<Boolean> collectGroupStatistics(final MultipartType multipartType) {
-        return devState.isGroupAvailable() ? StatisticsGatheringUtils.gatherStatistics(
-                statisticsGatheringService, deviceContext, /*MultipartType.OFPMPGROUP*/ multipartType) : emptyFuture;
+        return devState.isGroupAvailable() ? StatisticsGatheringUtils.streamStatistics(
+                statisticsGatheringOnTheFlyService, deviceContext, /*MultipartType.OFPMPGROUP*/ multipartType, null) : emptyFuture;
     }
 
     private ListenableFuture<Boolean> collectMeterConfigStatistics(final MultipartType multipartType) {
-        return devState.isMetersAvailable() ? StatisticsGatheringUtils.gatherStatistics(
-                statisticsGatheringService, deviceContext, /*MultipartType.OFPMPMETERCONFIG*/ multipartType) : emptyFuture;
+        return devState.isMetersAvailable() ? StatisticsGatheringUtils.streamStatistics(
+                statisticsGatheringOnTheFlyService, deviceContext, /*MultipartType.OFPMPMETERCONFIG*/ multipartType, null) : emptyFuture;
     }
 
     private ListenableFuture<Boolean> collectMeterStatistics(final MultipartType multipartType) {
-        return devState.isMetersAvailable() ? StatisticsGatheringUtils.gatherStatistics(
-                statisticsGatheringService, deviceContext, /*MultipartType.OFPMPMETER*/ multipartType) : emptyFuture;
+        return devState.isMetersAvailable() ? StatisticsGatheringUtils.streamStatistics(
+                statisticsGatheringOnTheFlyService, deviceContext, /*MultipartType.OFPMPMETER*/ multipartType, null) : emptyFuture;
     }
 
     @VisibleForTesting
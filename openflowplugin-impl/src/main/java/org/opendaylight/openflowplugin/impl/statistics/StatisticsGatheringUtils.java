@@ -31,6 +31,7 @@ import org.opendaylight.openflowplugin.api.openflow.registry.flow.FlowRegistryKe
 import org.opendaylight.openflowplugin.api.openflow.statistics.ofpspecific.EventIdentifier;
 import org.opendaylight.openflowplugin.api.openflow.statistics.ofpspecific.StatisticsGatherer;
 import org.opendaylight.openflowplugin.impl.registry.flow.FlowRegistryKeyFactory;
+import org.opendaylight.openflowplugin.impl.statistics.services.dedicated.StatisticsGatheringOnTheFlyService;
 import org.opendaylight.openflowplugin.impl.statistics.ofpspecific.EventsTimeCounter;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.FlowCapableNode;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.FlowCapableNodeConnector;
@@ -114,6 +115,16 @@ public final class StatisticsGatheringUtils {
     public static ListenableFuture<Boolean> gatherStatistics(final StatisticsGatherer statisticsGatheringService,
                                                              final DeviceContext deviceContext,
                                                              final MultipartType type) {
+        return gatherStatistics(statisticsGatheringService, deviceContext, type, null);
+    }
+
+    /**
+     * @param flowStatisticsSnapshot if not null then flow statistics are written incrementally against this snapshot
+     */
+    public static ListenableFuture<Boolean> gatherStatistics(final StatisticsGatherer statisticsGatheringService,
+                                                             final DeviceContext deviceContext,
+                                                             final MultipartType type,
+                                                             @Nullable final FlowStatisticsSnapshot flowStatisticsSnapshot) {
         final String deviceId = deviceContext.getPrimaryConnectionContext().getNodeId().toString();
         EventIdentifier wholeProcessEventIdentifier = null;
         if (MultipartType.OFPMPFLOW.equals(type)) {
@@ -124,12 +135,79 @@ public final class StatisticsGatheringUtils {
         final ListenableFuture<RpcResult<List<MultipartReply>>> statisticsDataInFuture =
                 JdkFutureAdapters.listenInPoolThread(statisticsGatheringService.getStatisticsOfType(
                         ofpQueuToRequestContextEventIdentifier, type));
-        return transformAndStoreStatisticsData(statisticsDataInFuture, deviceContext, wholeProcessEventIdentifier, type);
+        return transformAndStoreStatisticsData(statisticsDataInFuture, deviceContext, wholeProcessEventIdentifier, type,
+                flowStatisticsSnapshot);
+    }
+
+    /**
+     * Gathers statistics of given type streaming them into datastore - every multipart reply is written right
+     * after it arrives, so replies are never collected in memory. Supported for flow, group, group description,
+     * meter and meter config statistics.
+     *
+     * @param flowStatisticsSnapshot if not null then flow statistics are written incrementally against this snapshot
+     */
+    public static ListenableFuture<Boolean> streamStatistics(final StatisticsGatheringOnTheFlyService statisticsGatheringService,
+                                                             final DeviceContext deviceContext,
+                                                             final MultipartType type,
+                                                             @Nullable final FlowStatisticsSnapshot flowStatisticsSnapshot) {
+        final String deviceId = deviceContext.getPrimaryConnectionContext().getNodeId().toString();
+        final AbstractStatisticsWriterSink sink = createWriterSink(deviceContext, type, flowStatisticsSnapshot);
+        final EventIdentifier wholeProcessEventIdentifier;
+        if (MultipartType.OFPMPFLOW.equals(type)) {
+            wholeProcessEventIdentifier = new EventIdentifier(type.toString(), deviceId);
+            EventsTimeCounter.markStart(wholeProcessEventIdentifier);
+        } else {
+            wholeProcessEventIdentifier = null;
+        }
+        final EventIdentifier ofpQueuToRequestContextEventIdentifier = new EventIdentifier(QUEUE2_REQCTX + type.toString(), deviceId);
+        final ListenableFuture<RpcResult<List<MultipartReply>>> statisticsDataInFuture =
+                JdkFutureAdapters.listenInPoolThread(statisticsGatheringService.getStatisticsOfType(
+                        ofpQueuToRequestContextEventIdentifier, type, sink));
+
+        return Futures.transform(statisticsDataInFuture, new AsyncFunction<RpcResult<List<MultipartReply>>, Boolean>() {
+            @Override
+            public ListenableFuture<Boolean> apply(final RpcResult<List<MultipartReply>> rpcResult) {
+                if (!rpcResult.isSuccessful()) {
+                    LOG.debug("Stats reply FAILED for node {} of type {}: {}", deviceContext.getDeviceState().getNodeId(), type, rpcResult.getErrors());
+                    return Futures.immediateFuture(Boolean.FALSE);
+                }
+                // successful request means the last chunk was already passed to the sink
+                return Futures.transform(sink.getResult(), new Function<Boolean, Boolean>() {
+                    @Override
+                    public Boolean apply(final Boolean input) {
+                        LOG.debug("Stats reply streamed to transaction for node {} of type {}", deviceContext.getDeviceState().getNodeId(), type);
+                        if (wholeProcessEventIdentifier != null) {
+                            EventsTimeCounter.markEnd(wholeProcessEventIdentifier);
+                        }
+                        return input;
+                    }
+                });
+            }
+        });
+    }
+
+    private static AbstractStatisticsWriterSink createWriterSink(final DeviceContext deviceContext,
+                                                                 final MultipartType type,
+                                                                 @Nullable final FlowStatisticsSnapshot flowStatisticsSnapshot) {
+        switch (type) {
+            case OFPMPFLOW:
+                return new FlowStatisticsWriterSink(deviceContext.getDeviceState(), deviceContext.getDeviceFlowRegistry(),
+                        deviceContext, flowStatisticsSnapshot);
+            case OFPMPGROUP:
+            case OFPMPGROUPDESC:
+                return new GroupStatisticsWriterSink(deviceContext, type);
+            case OFPMPMETER:
+            case OFPMPMETERCONFIG:
+                return new MeterStatisticsWriterSink(deviceContext, type);
+            default:
+                throw new IllegalArgumentException("Streaming of statistics of type " + type + " is not supported");
+        }
     }
 
     private static ListenableFuture<Boolean> transformAndStoreStatisticsData(final ListenableFuture<RpcResult<List<MultipartReply>>> statisticsDataInFuture,
                                                                              final DeviceContext deviceContext,
-                                                                             final EventIdentifier eventIdentifier, final MultipartType type) {
+                                                                             final EventIdentifier eventIdentifier, final MultipartType type,
+                                                                             final FlowStatisticsSnapshot flowStatisticsSnapshot) {
         return Futures.transform(statisticsDataInFuture, new AsyncFunction<RpcResult<List<MultipartReply>>, Boolean>() {
             @Nullable
             @Override
@@ -174,6 +252,10 @@ public final class StatisticsGatheringUtils {
                             } else if (multipartData instanceof FlowsStatisticsUpdate) {
                                 /* FlowStat Processing is realized by NettyThread only by initPhase, otherwise it is realized
                                  * by MD-SAL thread */
+                                if (flowStatisticsSnapshot != null) {
+                                    return processFlowStatisticsIncrementally((Iterable<FlowsStatisticsUpdate>) allMultipartData,
+                                            deviceContext, eventIdentifier, flowStatisticsSnapshot);
+                                }
                                 return processFlowStatistics((Iterable<FlowsStatisticsUpdate>) allMultipartData, deviceContext, eventIdentifier);
 
                             } else if (multipartData instanceof GroupDescStatsUpdated) {
@@ -206,8 +288,13 @@ public final class StatisticsGatheringUtils {
     }
 
     private static void processMeterConfigStatsUpdated(final Iterable<MeterConfigStatsUpdated> data, final DeviceContext deviceContext) throws Exception {
+        deleteAllKnownMeters(deviceContext);
+        writeMeterConfigStatistics(data, deviceContext);
+        deviceContext.submitTransaction();
+    }
+
+    static void writeMeterConfigStatistics(final Iterable<MeterConfigStatsUpdated> data, final DeviceContext deviceContext) throws Exception {
         final InstanceIdentifier<FlowCapableNode> fNodeIdent = assembleFlowCapableNodeInstanceIdentifier(deviceContext.getDeviceState());
-        deleteAllKnownMeters(deviceContext, fNodeIdent);
         for (final MeterConfigStatsUpdated meterConfigStatsUpdated : data) {
             for (final MeterConfigStats meterConfigStats : meterConfigStatsUpdated.getMeterConfigStats()) {
                 final MeterId meterId = meterConfigStats.getMeterId();
@@ -220,7 +307,6 @@ public final class StatisticsGatheringUtils {
                 deviceContext.writeToTransaction(LogicalDatastoreType.OPERATIONAL, meterInstanceIdentifier, meterBuilder.build());
             }
         }
-        deviceContext.submitTransaction();
     }
 
     private static ListenableFuture<Boolean> processFlowStatistics(final Iterable<FlowsStatisticsUpdate> data,
@@ -240,6 +326,34 @@ public final class StatisticsGatheringUtils {
         });
     }
 
+    private static ListenableFuture<Boolean> processFlowStatisticsIncrementally(final Iterable<FlowsStatisticsUpdate> data,
+                                                                                final DeviceContext deviceContext,
+                                                                                final EventIdentifier eventIdentifier,
+                                                                                final FlowStatisticsSnapshot flowStatisticsSnapshot) {
+        final ListenableFuture<Void> deleFuture;
+        if (flowStatisticsSnapshot.startCycle()) {
+            deleFuture = Futures.immediateFuture(null);
+        } else {
+            deleFuture = deleteAllKnownFlows(deviceContext.getDeviceState(), deviceContext.getDeviceFlowRegistry(),
+                    deviceContext);
+        }
+        return Futures.transform(deleFuture, new Function<Void, Boolean>() {
+
+            @Override
+            public Boolean apply(final Void input) {
+                if (flowStatisticsSnapshot.writeFlowStatistics(data, deviceContext.getDeviceState(),
+                        deviceContext.getDeviceFlowRegistry(), deviceContext)) {
+                    flowStatisticsSnapshot.finishCycle(deviceContext.getDeviceState(), deviceContext);
+                } else {
+                    flowStatisticsSnapshot.abortCycle();
+                }
+                deviceContext.submitTransaction();
+                EventsTimeCounter.markEnd(eventIdentifier);
+                return Boolean.TRUE;
+            }
+        });
+    }
+
     public static void writeFlowStatistics(final Iterable<FlowsStatisticsUpdate> data,
                                            final DeviceState deviceState,
                                            final DeviceFlowRegistry registry,
@@ -383,6 +497,12 @@ public final class StatisticsGatheringUtils {
 
     private static void processMetersStatistics(final Iterable<MeterStatisticsUpdated> data,
                                                 final DeviceContext deviceContext) throws Exception {
+        writeMeterStatistics(data, deviceContext);
+        deviceContext.submitTransaction();
+    }
+
+    static void writeMeterStatistics(final Iterable<MeterStatisticsUpdated> data,
+                                     final DeviceContext deviceContext) throws Exception {
         final InstanceIdentifier<FlowCapableNode> fNodeIdent = assembleFlowCapableNodeInstanceIdentifier(deviceContext.getDeviceState());
         for (final MeterStatisticsUpdated meterStatisticsUpdated : data) {
             for (final MeterStats mStat : meterStatisticsUpdated.getMeterStats()) {
@@ -395,10 +515,10 @@ public final class StatisticsGatheringUtils {
                 deviceContext.writeToTransaction(LogicalDatastoreType.OPERATIONAL, msIdent, stats);
             }
         }
-        deviceContext.submitTransaction();
     }
 
-    private static void deleteAllKnownMeters(final DeviceContext deviceContext, final InstanceIdentifier<FlowCapableNode> fNodeIdent) throws Exception {
+    static void deleteAllKnownMeters(final DeviceContext deviceContext) throws Exception {
+        final InstanceIdentifier<FlowCapableNode> fNodeIdent = assembleFlowCapableNodeInstanceIdentifier(deviceContext.getDeviceState());
         for (final MeterId meterId : deviceContext.getDeviceMeterRegistry().getAllMeterIds()) {
             final InstanceIdentifier<Meter> meterIdent = fNodeIdent.child(Meter.class, new MeterKey(meterId));
             deviceContext.addDeleteToTxChain(LogicalDatastoreType.OPERATIONAL, meterIdent);
@@ -407,10 +527,13 @@ public final class StatisticsGatheringUtils {
     }
 
     private static void processGroupDescStats(final Iterable<GroupDescStatsUpdated> data, final DeviceContext deviceContext) throws Exception {
-        final InstanceIdentifier<FlowCapableNode> fNodeIdent =
-                deviceContext.getDeviceState().getNodeInstanceIdentifier().augmentation(FlowCapableNode.class);
-        deleteAllKnownGroups(deviceContext, fNodeIdent);
+        deleteAllKnownGroups(deviceContext);
+        writeGroupDescStatistics(data, deviceContext);
+        deviceContext.submitTransaction();
+    }
 
+    static void writeGroupDescStatistics(final Iterable<GroupDescStatsUpdated> data, final DeviceContext deviceContext) throws Exception {
+        final InstanceIdentifier<FlowCapableNode> fNodeIdent = assembleFlowCapableNodeInstanceIdentifier(deviceContext.getDeviceState());
         for (final GroupDescStatsUpdated groupDescStatsUpdated : data) {
             for (final GroupDescStats groupDescStats : groupDescStatsUpdated.getGroupDescStats()) {
                 final GroupId groupId = groupDescStats.getGroupId();
@@ -425,10 +548,10 @@ public final class StatisticsGatheringUtils {
                 deviceContext.writeToTransaction(LogicalDatastoreType.OPERATIONAL, groupIdent, groupBuilder.build());
             }
         }
-        deviceContext.submitTransaction();
     }
 
-    private static void deleteAllKnownGroups(final DeviceContext deviceContext, final InstanceIdentifier<FlowCapableNode> fNodeIdent) throws Exception {
+    static void deleteAllKnownGroups(final DeviceContext deviceContext) throws Exception {
+        final InstanceIdentifier<FlowCapableNode> fNodeIdent = assembleFlowCapableNodeInstanceIdentifier(deviceContext.getDeviceState());
         for (final GroupId groupId : deviceContext.getDeviceGroupRegistry().getAllGroupIds()) {
             final InstanceIdentifier<Group> groupIdent = fNodeIdent.child(Group.class, new GroupKey(groupId));
             deviceContext.addDeleteToTxChain(LogicalDatastoreType.OPERATIONAL, groupIdent);
@@ -437,6 +560,11 @@ public final class StatisticsGatheringUtils {
     }
 
     private static void processGroupStatistics(final Iterable<GroupStatisticsUpdated> data, final DeviceContext deviceContext) throws Exception {
+        writeGroupStatistics(data, deviceContext);
+        deviceContext.submitTransaction();
+    }
+
+    static void writeGroupStatistics(final Iterable<GroupStatisticsUpdated> data, final DeviceContext deviceContext) throws Exception {
         final InstanceIdentifier<FlowCapableNode> fNodeIdent = assembleFlowCapableNodeInstanceIdentifier(deviceContext.getDeviceState());
         for (final GroupStatisticsUpdated groupStatistics : data) {
             for (final GroupStats groupStats : groupStatistics.getGroupStats()) {
@@ -450,7 +578,6 @@ public final class StatisticsGatheringUtils {
                 deviceContext.writeToTransaction(LogicalDatastoreType.OPERATIONAL, gsIdent, stats);
             }
         }
-        deviceContext.submitTransaction();
     }
 
     private static InstanceIdentifier<FlowCapableNode> assembleFlowCapableNodeInstanceIdentifier(final DeviceState deviceState) {
@@ -18,7 +18,12 @@ import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import io.netty.util.Timeout;
 import io.netty.util.TimerTask;
+import java.math.BigInteger;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -37,12 +42,28 @@ import org.opendaylight.openflowplugin.api.openflow.lifecycle.LifecycleConductor
 import org.opendaylight.openflowplugin.api.openflow.rpc.ItemLifeCycleSource;
 import org.opendaylight.openflowplugin.api.openflow.statistics.StatisticsContext;
 import org.opendaylight.openflowplugin.api.openflow.statistics.StatisticsManager;
+import org.opendaylight.openflowplugin.api.openflow.statistics.ofpspecific.MessageIntelligenceAgency;
+import org.opendaylight.openflowplugin.impl.statistics.ofpspecific.EventsTimeCounter;
+import org.opendaylight.openflowplugin.impl.statistics.ofpspecific.Histogram;
+import org.opendaylight.openflowplugin.impl.statistics.ofpspecific.MessageCount;
+import org.opendaylight.openflowplugin.impl.statistics.ofpspecific.MessageIntelligenceAgencyImpl;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.NodeId;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.openflowplugin.sm.control.rev150812.ChangeStatisticsWorkModeInput;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.openflowplugin.sm.control.rev150812.EventTimesWindow;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.openflowplugin.sm.control.rev150812.GetEventTimesInput;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.openflowplugin.sm.control.rev150812.GetEventTimesOutput;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.openflowplugin.sm.control.rev150812.GetEventTimesOutputBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.openflowplugin.sm.control.rev150812.GetMessageCountsInput;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.openflowplugin.sm.control.rev150812.GetMessageCountsOutput;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.openflowplugin.sm.control.rev150812.GetMessageCountsOutputBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.openflowplugin.sm.control.rev150812.GetStatisticsWorkModeOutput;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.openflowplugin.sm.control.rev150812.GetStatisticsWorkModeOutputBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.openflowplugin.sm.control.rev150812.StatisticsManagerControlService;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.openflowplugin.sm.control.rev150812.StatisticsWorkMode;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.openflowplugin.sm.control.rev150812.get.event.times.output.EventTimes;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.openflowplugin.sm.control.rev150812.get.event.times.output.EventTimesBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.openflowplugin.sm.control.rev150812.get.message.counts.output.MessageCounts;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.openflowplugin.sm.control.rev150812.get.message.counts.output.MessageCountsBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.role.service.rev150727.OfpRole;
 import org.opendaylight.yangtools.yang.common.RpcError;
 import org.opendaylight.yangtools.yang.common.RpcResult;
@@ -54,20 +75,17 @@ public class StatisticsManagerImpl implements StatisticsManager, StatisticsManag
 
     private static final Logger LOG = LoggerFactory.getLogger(StatisticsManagerImpl.class);
 
-    private static final long DEFAULT_STATS_TIMEOUT_SEC = 50L;
-
     private DeviceInitializationPhaseHandler deviceInitPhaseHandler;
     private DeviceTerminationPhaseHandler deviceTerminPhaseHandler;
 
     private final ConcurrentMap<NodeId, StatisticsContext> contexts = new ConcurrentHashMap<>();
-
-    private static final long basicTimerDelay = 3000;
-    private static long currentTimerDelay = basicTimerDelay;
-    private static long maximumTimerDelay = 900000; //wait max 15 minutes for next statistics
+    private final ConcurrentMap<NodeId, StatisticsPollingScheduler> pollingSchedulers = new ConcurrentHashMap<>();
 
     private StatisticsWorkMode workMode = StatisticsWorkMode.COLLECTALL;
     private final Semaphore workModeGuard = new Semaphore(1, true);
     private boolean shuttingDownStatisticsPolling;
+    private final boolean isStatisticsWriteIncremental;
+    private final int statisticsGatheringWindow;
     private BindingAwareBroker.RpcRegistration<StatisticsManagerControlService> controlServiceRegistration;
 
     private final LifecycleConductor conductor;
@@ -79,11 +97,15 @@ public class StatisticsManagerImpl implements StatisticsManager, StatisticsManag
 
     public StatisticsManagerImpl(@CheckForNull final RpcProviderRegistry rpcProviderRegistry,
                                  final boolean shuttingDownStatisticsPolling,
+                                 final boolean isStatisticsWriteIncremental,
+                                 final int statisticsGatheringWindow,
                                  final LifecycleConductor lifecycleConductor) {
         Preconditions.checkArgument(rpcProviderRegistry != null);
         this.controlServiceRegistration = Preconditions.checkNotNull(rpcProviderRegistry.addRpcImplementation(
                 StatisticsManagerControlService.class, this));
         this.shuttingDownStatisticsPolling = shuttingDownStatisticsPolling;
+        this.isStatisticsWriteIncremental = isStatisticsWriteIncremental;
+        this.statisticsGatheringWindow = statisticsGatheringWindow;
         this.conductor = lifecycleConductor;
     }
 
@@ -92,14 +114,16 @@ public class StatisticsManagerImpl implements StatisticsManager, StatisticsManag
 
         final DeviceContext deviceContext = Preconditions.checkNotNull(conductor.getDeviceContext(nodeId));
 
-        final StatisticsContext statisticsContext = new StatisticsContextImpl(nodeId, shuttingDownStatisticsPolling, conductor);
+        final StatisticsContext statisticsContext = new StatisticsContextImpl(nodeId, shuttingDownStatisticsPolling,
+                isStatisticsWriteIncremental, statisticsGatheringWindow, conductor);
         Verify.verify(contexts.putIfAbsent(nodeId, statisticsContext) == null, "StatisticsCtx still not closed for Node {}", nodeId);
 
         if (shuttingDownStatisticsPolling) {
             LOG.info("Statistics is shutdown for node:{}", nodeId);
         } else {
             LOG.info("Schedule Statistics poll for node:{}", nodeId);
-            scheduleNextPolling(deviceContext, statisticsContext, new TimeCounter());
+            final StatisticsPollingScheduler pollingScheduler = getOrCreatePollingScheduler(nodeId);
+            schedulePolling(deviceContext, statisticsContext, pollingScheduler, pollingScheduler.getStartOffset());
         }
 
         deviceContext.getDeviceState().setDeviceSynchronized(true);
@@ -108,7 +132,7 @@ public class StatisticsManagerImpl implements StatisticsManager, StatisticsManag
 
     private void pollStatistics(final DeviceContext deviceContext,
                                 final StatisticsContext statisticsContext,
-                                final TimeCounter timeCounter) {
+                                final StatisticsPollingScheduler pollingScheduler) {
 
         if (!deviceContext.getDeviceState().isValid()) {
             LOG.debug("Session for device {} is not valid.", deviceContext.getDeviceState().getNodeId().getValue());
@@ -116,43 +140,40 @@ public class StatisticsManagerImpl implements StatisticsManager, StatisticsManag
         }
         if (!deviceContext.getDeviceState().isStatisticsPollingEnabled()) {
             LOG.debug("StatisticsPolling is disabled for device: {} , try later", deviceContext.getDeviceState().getNodeId());
-            scheduleNextPolling(deviceContext, statisticsContext, timeCounter);
+            scheduleNextPolling(deviceContext, statisticsContext, pollingScheduler);
             return;
         }
 
         if (!OfpRole.BECOMEMASTER.equals(deviceContext.getDeviceState().getRole())) {
             LOG.debug("Role is not Master so we don't want to poll any stat for device: {}", deviceContext.getDeviceState().getNodeId());
-            scheduleNextPolling(deviceContext, statisticsContext, timeCounter);
+            scheduleNextPolling(deviceContext, statisticsContext, pollingScheduler);
             return;
         }
         LOG.debug("POLLING ALL STATS for device: {}", deviceContext.getDeviceState().getNodeId().getValue());
-        timeCounter.markStart();
+        pollingScheduler.markStart();
         final ListenableFuture<Boolean> deviceStatisticsCollectionFuture = statisticsContext.gatherDynamicData();
         Futures.addCallback(deviceStatisticsCollectionFuture, new FutureCallback<Boolean>() {
             @Override
             public void onSuccess(final Boolean o) {
-                timeCounter.addTimeMark();
-                calculateTimerDelay(timeCounter);
-                scheduleNextPolling(deviceContext, statisticsContext, timeCounter);
+                pollingScheduler.markEnd();
+                scheduleNextPolling(deviceContext, statisticsContext, pollingScheduler);
             }
 
             @Override
             public void onFailure(@Nonnull final Throwable throwable) {
-                timeCounter.addTimeMark();
+                pollingScheduler.markEnd();
                 LOG.warn("Statistics gathering for single node was not successful: {}", throwable.getMessage());
                 LOG.trace("Statistics gathering for single node was not successful.. ", throwable);
-                calculateTimerDelay(timeCounter);
                 if (throwable instanceof CancellationException) {
                     /** This often happens when something wrong with akka or DS, so closing connection will help to restart device **/
                     conductor.closeConnection(deviceContext.getDeviceState().getNodeId());
                 } else {
-                    scheduleNextPolling(deviceContext, statisticsContext, timeCounter);
+                    scheduleNextPolling(deviceContext, statisticsContext, pollingScheduler);
                 }
             }
         });
 
-        final long averageTime = TimeUnit.MILLISECONDS.toSeconds(timeCounter.getAverageTimeBetweenMarks());
-        final long STATS_TIMEOUT_SEC = averageTime > 0 ? 3 * averageTime : DEFAULT_STATS_TIMEOUT_SEC;
+        final long STATS_TIMEOUT_SEC = pollingScheduler.getStatisticsTimeout();
         final TimerTask timerTask = new TimerTask() {
 
             @Override
@@ -169,43 +190,62 @@ public class StatisticsManagerImpl implements StatisticsManager, StatisticsManag
 
     private void scheduleNextPolling(final DeviceContext deviceContext,
                                      final StatisticsContext statisticsContext,
-                                     final TimeCounter timeCounter) {
-        LOG.debug("SCHEDULING NEXT STATS POLLING for device: {}", deviceContext.getDeviceState().getNodeId().getValue());
+                                     final StatisticsPollingScheduler pollingScheduler) {
+        schedulePolling(deviceContext, statisticsContext, pollingScheduler, pollingScheduler.nextPollingDelay());
+    }
+
+    private void schedulePolling(final DeviceContext deviceContext,
+                                 final StatisticsContext statisticsContext,
+                                 final StatisticsPollingScheduler pollingScheduler,
+                                 final long delay) {
+        LOG.debug("SCHEDULING NEXT STATS POLLING for device: {} in {} ms", deviceContext.getDeviceState().getNodeId().getValue(), delay);
         if (!shuttingDownStatisticsPolling) {
             final Timeout pollTimeout = conductor.newTimeout(new TimerTask() {
                 @Override
                 public void run(final Timeout timeout) throws Exception {
-                    pollStatistics(deviceContext, statisticsContext, timeCounter);
+                    pollStatistics(deviceContext, statisticsContext, pollingScheduler);
                 }
-            }, currentTimerDelay, TimeUnit.MILLISECONDS);
+            }, delay, TimeUnit.MILLISECONDS);
             statisticsContext.setPollTimeout(pollTimeout);
         }
     }
 
-    @VisibleForTesting
-    void calculateTimerDelay(final TimeCounter timeCounter) {
-        final long averageStatisticsGatheringTime = timeCounter.getAverageTimeBetweenMarks();
-        if (averageStatisticsGatheringTime > currentTimerDelay) {
-            currentTimerDelay *= 2;
-            if (currentTimerDelay > maximumTimerDelay) {
-                currentTimerDelay = maximumTimerDelay;
-            }
-        } else {
-            if (currentTimerDelay > basicTimerDelay) {
-                currentTimerDelay /= 2;
-            } else {
-                currentTimerDelay = basicTimerDelay;
+    private StatisticsPollingScheduler getOrCreatePollingScheduler(final NodeId nodeId) {
+        final StatisticsPollingScheduler lookup = pollingSchedulers.get(nodeId);
+        if (lookup != null) {
+            return lookup;
+        }
+
+        final StatisticsPollingScheduler newScheduler = new StatisticsPollingScheduler();
+        final StatisticsPollingScheduler check = pollingSchedulers.putIfAbsent(nodeId, newScheduler);
+        if (check != null) {
+            return check;
+        }
+
+        final MessageIntelligenceAgency messageIntelligenceAgency = conductor.getMessageIntelligenceAgency();
+        if (messageIntelligenceAgency instanceof MessageIntelligenceAgencyImpl) {
+            ((MessageIntelligenceAgencyImpl) messageIntelligenceAgency).registerPollingScheduler(nodeId, newScheduler);
+        }
+        return newScheduler;
+    }
+
+    private void removePollingScheduler(final NodeId nodeId) {
+        if (pollingSchedulers.remove(nodeId) != null) {
+            final MessageIntelligenceAgency messageIntelligenceAgency = conductor.getMessageIntelligenceAgency();
+            if (messageIntelligenceAgency instanceof MessageIntelligenceAgencyImpl) {
+                ((MessageIntelligenceAgencyImpl) messageIntelligenceAgency).unregisterPollingScheduler(nodeId);
             }
         }
     }
 
     @VisibleForTesting
-    static long getCurrentTimerDelay() {
-        return currentTimerDelay;
+    StatisticsPollingScheduler getPollingScheduler(final NodeId nodeId) {
+        return pollingSchedulers.get(nodeId);
     }
 
     @Override
     public void onDeviceContextLevelDown(final DeviceContext deviceContext) {
+        removePollingScheduler(deviceContext.getDeviceState().getNodeId());
         final StatisticsContext statisticsContext = contexts.remove(deviceContext.getDeviceState().getNodeId());
         if (null != statisticsContext) {
             LOG.trace("Removing device context from stack. No more statistics gathering for node {}", deviceContext.getDeviceState().getNodeId());
@@ -234,7 +274,8 @@ public class StatisticsManagerImpl implements StatisticsManager, StatisticsManag
                     final DeviceContext deviceContext = statisticsContext.getDeviceContext();
                     switch (targetWorkMode) {
                         case COLLECTALL:
-                            scheduleNextPolling(deviceContext, statisticsContext, new TimeCounter());
+                            scheduleNextPolling(deviceContext, statisticsContext,
+                                    getOrCreatePollingScheduler(deviceContext.getDeviceState().getNodeId()));
                             for (final ItemLifeCycleSource lifeCycleSource : deviceContext.getItemLifeCycleSourceRegistry().getLifeCycleSources()) {
                                 lifeCycleSource.setItemLifecycleListener(null);
                             }
@@ -264,6 +305,49 @@ public class StatisticsManagerImpl implements StatisticsManager, StatisticsManag
         return result;
     }
 
+    @Override
+    public Future<RpcResult<GetEventTimesOutput>> getEventTimes(final GetEventTimesInput input) {
+        final boolean lastMinute = input == null || !EventTimesWindow.ALLTIME.equals(input.getWindow());
+        final List<EventTimes> eventTimes = new ArrayList<>();
+        for (final Map.Entry<String, SortedMap<String, Histogram>> deviceEntry : EventsTimeCounter.snapshot(lastMinute).entrySet()) {
+            for (final Map.Entry<String, Histogram> eventEntry : deviceEntry.getValue().entrySet()) {
+                final Histogram durations = eventEntry.getValue();
+                eventTimes.add(new EventTimesBuilder()
+                        .setDeviceId(deviceEntry.getKey())
+                        .setEventName(eventEntry.getKey())
+                        .setCount(BigInteger.valueOf(durations.getCount()))
+                        .setP50(BigInteger.valueOf(durations.getPercentile(0.5)))
+                        .setP90(BigInteger.valueOf(durations.getPercentile(0.9)))
+                        .setP99(BigInteger.valueOf(durations.getPercentile(0.99)))
+                        .setP999(BigInteger.valueOf(durations.getPercentile(0.999)))
+                        .setMax(BigInteger.valueOf(durations.getMax()))
+                        .build());
+            }
+        }
+        return RpcResultBuilder.success(new GetEventTimesOutputBuilder().setEventTimes(eventTimes).build()).buildFuture();
+    }
+
+    @Override
+    public Future<RpcResult<GetMessageCountsOutput>> getMessageCounts(final GetMessageCountsInput input) {
+        final List<MessageCounts> messageCounts = new ArrayList<>();
+        final MessageIntelligenceAgency messageIntelligenceAgency = conductor.getMessageIntelligenceAgency();
+        if (messageIntelligenceAgency instanceof MessageIntelligenceAgencyImpl) {
+            final MessageIntelligenceAgencyImpl messageIntelligenceAgencyImpl = (MessageIntelligenceAgencyImpl) messageIntelligenceAgency;
+            final List<MessageCount> snapshot = input == null || input.getDeviceId() == null
+                    ? messageIntelligenceAgencyImpl.provideMessageCounts()
+                    : messageIntelligenceAgencyImpl.provideMessageCounts(new NodeId(input.getDeviceId()));
+            for (final MessageCount messageCount : snapshot) {
+                messageCounts.add(new MessageCountsBuilder()
+                        .setDeviceId(messageCount.getDeviceId())
+                        .setStatisticGroup(messageCount.getStatisticGroup())
+                        .setMessageType(messageCount.getMessageType())
+                        .setCount(BigInteger.valueOf(messageCount.getCount()))
+                        .build());
+            }
+        }
+        return RpcResultBuilder.success(new GetMessageCountsOutputBuilder().setMessageCounts(messageCounts).build()).buildFuture();
+    }
+
     @Override
     public void close() {
         if (controlServiceRegistration != null) {
@@ -274,6 +358,9 @@ public class StatisticsManagerImpl implements StatisticsManager, StatisticsManag
                 iterator.hasNext();) {
             iterator.next().close();
         }
+        for (final NodeId nodeId : pollingSchedulers.keySet()) {
+            removePollingScheduler(nodeId);
+        }
     }
 
     @Override
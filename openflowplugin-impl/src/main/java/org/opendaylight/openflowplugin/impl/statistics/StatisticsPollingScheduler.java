@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.openflowplugin.impl.statistics;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.concurrent.GuardedBy;
+
+/**
+ * Adaptive statistics polling schedule of one device.
+ * <p>
+ * Gathering latency is tracked as exponentially weighted moving average (EWMA). Whenever the average exceeds
+ * current polling interval the interval is doubled (up to {@link #MAXIMUM_TIMER_DELAY}), otherwise it is halved
+ * back towards {@link #BASIC_TIMER_DELAY}. First poll is delayed by random start offset and every following poll
+ * by a small random jitter so that polls of many devices do not fire in synchronized bursts.
+ */
+public class StatisticsPollingScheduler {
+
+    static final long BASIC_TIMER_DELAY = 3000;
+    static final long MAXIMUM_TIMER_DELAY = 900000; //wait max 15 minutes for next statistics
+    private static final long DEFAULT_STATS_TIMEOUT_SEC = 50L;
+    /** weight of the latest sample in gathering time moving average */
+    private static final double EWMA_WEIGHT = 0.3;
+    /** maximal jitter in percents of current timer delay */
+    private static final int JITTER_PERCENT = 10;
+
+    private final TimeCounter timeCounter = new TimeCounter();
+    private final long startOffset;
+
+    @GuardedBy("this")
+    private double averageGatheringTime = -1;
+    private volatile long currentTimerDelay = BASIC_TIMER_DELAY;
+    private volatile long lastJitter;
+
+    public StatisticsPollingScheduler() {
+        this(ThreadLocalRandom.current().nextLong(BASIC_TIMER_DELAY));
+    }
+
+    /**
+     * @param startOffset delay of the very first poll [ms]
+     */
+    public StatisticsPollingScheduler(final long startOffset) {
+        Preconditions.checkArgument(startOffset >= 0, "start offset must not be negative");
+        this.startOffset = startOffset;
+    }
+
+    /**
+     * @return delay of the first poll of device [ms]
+     */
+    public long getStartOffset() {
+        return startOffset;
+    }
+
+    /**
+     * Computes delay of the next poll - current adaptive interval shifted by random jitter.
+     *
+     * @return delay of the next poll [ms]
+     */
+    public long nextPollingDelay() {
+        final long delay = currentTimerDelay;
+        final long jitterBound = delay * JITTER_PERCENT / 100;
+        final long jitter = jitterBound > 0 ? ThreadLocalRandom.current().nextLong(-jitterBound, jitterBound + 1) : 0;
+        lastJitter = jitter;
+        return delay + jitter;
+    }
+
+    /**
+     * Marks start of statistics gathering cycle.
+     */
+    public void markStart() {
+        timeCounter.markStart();
+    }
+
+    /**
+     * Marks end of statistics gathering cycle (successful or not) and recalculates polling interval.
+     */
+    public void markEnd() {
+        timeCounter.addTimeMark();
+        recordGatheringTime(timeCounter.getAverageTimeBetweenMarks());
+    }
+
+    @VisibleForTesting
+    synchronized void recordGatheringTime(final long gatheringTime) {
+        if (averageGatheringTime < 0) {
+            averageGatheringTime = gatheringTime;
+        } else {
+            averageGatheringTime = EWMA_WEIGHT * gatheringTime + (1 - EWMA_WEIGHT) * averageGatheringTime;
+        }
+
+        long timerDelay = currentTimerDelay;
+        if (averageGatheringTime > timerDelay) {
+            timerDelay = Math.min(timerDelay * 2, MAXIMUM_TIMER_DELAY);
+        } else {
+            timerDelay = Math.max(timerDelay / 2, BASIC_TIMER_DELAY);
+        }
+        currentTimerDelay = timerDelay;
+    }
+
+    /**
+     * @return timeout for one statistics gathering cycle derived from average gathering time [s]
+     */
+    public synchronized long getStatisticsTimeout() {
+        final long averageTime = averageGatheringTime > 0
+                ? TimeUnit.MILLISECONDS.toSeconds(Math.round(averageGatheringTime)) : 0;
+        return averageTime > 0 ? 3 * averageTime : DEFAULT_STATS_TIMEOUT_SEC;
+    }
+
+    /**
+     * @return moving average of gathering time [ms], 0 if nothing has been measured yet
+     */
+    public synchronized long getAverageGatheringTime() {
+        return averageGatheringTime < 0 ? 0 : Math.round(averageGatheringTime);
+    }
+
+    /**
+     * @return current polling interval without jitter [ms]
+     */
+    public long getCurrentTimerDelay() {
+        return currentTimerDelay;
+    }
+
+    /**
+     * @return jitter applied to the most recently scheduled poll [ms]
+     */
+    public long getLastJitter() {
+        return lastJitter;
+    }
+}
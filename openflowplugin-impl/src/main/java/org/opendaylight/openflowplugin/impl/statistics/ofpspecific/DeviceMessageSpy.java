@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.openflowplugin.impl.statistics.ofpspecific;
+
+import com.google.common.base.Preconditions;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.opendaylight.openflowplugin.api.openflow.statistics.ofpspecific.MessageSpy;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.NodeConnectorId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.NodeId;
+
+/**
+ * Message spy of one device - counts messages of the device into its own counters and passes them on to the global
+ * spy, so it is visible which device sends (or gets) which message type.
+ */
+public class DeviceMessageSpy implements MessageSpy {
+
+    private final NodeId nodeId;
+    private final MessageSpy globalSpy;
+    private final MessageCounterTable counters = new MessageCounterTable();
+    private final Set<NodeConnectorId> packetInDropPorts =
+            Collections.newSetFromMap(new ConcurrentHashMap<NodeConnectorId, Boolean>());
+
+    /**
+     * @param nodeId    device identification
+     * @param globalSpy spy counting messages of all devices
+     */
+    public DeviceMessageSpy(@Nonnull final NodeId nodeId, @Nonnull final MessageSpy globalSpy) {
+        this.nodeId = Preconditions.checkNotNull(nodeId);
+        this.globalSpy = Preconditions.checkNotNull(globalSpy);
+    }
+
+    @Override
+    public void spyMessage(@Nonnull final Class<?> message, final STATISTIC_GROUP statGroup) {
+        Preconditions.checkNotNull(message, "Message can't be null.");
+        counters.increment(message, statGroup);
+        globalSpy.spyMessage(message, statGroup);
+    }
+
+    @Override
+    public void spyPacketInDropped(@Nullable final NodeConnectorId ingress, @Nonnull final Class<?> reason) {
+        counters.increment(reason, STATISTIC_GROUP.FROM_SWITCH_PACKET_IN_RATE_EXCEEDED);
+        if (ingress != null) {
+            packetInDropPorts.add(ingress);
+        }
+        globalSpy.spyPacketInDropped(ingress, reason);
+    }
+
+    @Override
+    public void run() {
+        // device counters are not logged periodically, they are exported by snapshot
+    }
+
+    public NodeId getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * @return non-zero message counters of device
+     */
+    public List<MessageCount> snapshot() {
+        final List<MessageCount> snapshot = new ArrayList<>();
+        counters.snapshot(nodeId.getValue(), snapshot);
+        return snapshot;
+    }
+
+    /**
+     * @return ingress ports of device with dropped packetIns
+     */
+    Set<NodeConnectorId> getPacketInDropPorts() {
+        return packetInDropPorts;
+    }
+
+    void resetCounters() {
+        counters.reset();
+        packetInDropPorts.clear();
+    }
+}
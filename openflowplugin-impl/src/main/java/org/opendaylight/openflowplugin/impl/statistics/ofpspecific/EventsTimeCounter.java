@@ -8,135 +8,197 @@
 
 package org.opendaylight.openflowplugin.impl.statistics.ofpspecific;
 
+import com.google.common.annotations.VisibleForTesting;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import org.opendaylight.openflowplugin.api.openflow.statistics.ofpspecific.EventIdentifier;
 
 /**
  * Created by Martin Bobak &lt;mbobak@cisco.com&gt; on 28.5.2015.
+ * <p>
+ * Thread safe recorder of event durations per device and event type. Start of every occurrence is kept in its
+ * {@link EventIdentifier}, duration [us] then goes to all time histogram and to histogram of the current window slot,
+ * so both all time and the last minute percentiles can be reported. Recording is lock free and allocates only
+ * when a window slot rotates.
  */
 public final class EventsTimeCounter {
 
-    private static Map<String, Map<String, EventTimeCounter>> devicesEvents = new HashMap<>();
+    /**
+     * Durations above one hour are counted as one hour (maximum stays exact).
+     */
+    private static final long HIGHEST_DURATION_MICROS = TimeUnit.HOURS.toMicros(1);
+    private static final int PRECISION_BITS = 3;
+    @VisibleForTesting
+    static final long SLOT_NANOS = TimeUnit.SECONDS.toNanos(15);
+    /**
+     * Complete slots forming the last minute, the current slot is reported on top of them.
+     */
+    private static final int WINDOW_SLOTS = 4;
+
+    private static final ConcurrentMap<String, ConcurrentMap<String, EventTimeCounter>> DEVICES_EVENTS =
+            new ConcurrentHashMap<>();
+
+    private EventsTimeCounter() {
+        throw new IllegalStateException("This class should not be instantiated.");
+    }
 
     public static void markStart(final EventIdentifier eventIdentifier) {
-        Map<String, EventTimeCounter> deviceEvents = getOrCreateCountersForDevice(eventIdentifier.getDeviceId());
-        EventTimeCounter eventTimeCounter = getOrCreateEventOfType(eventIdentifier.getEventName(), deviceEvents);
-        eventTimeCounter.markStart();
+        eventIdentifier.markStart(System.nanoTime());
     }
 
+    /**
+     * Records duration of given occurrence, occurrences which were not started (or were already ended) are ignored.
+     */
     public static void markEnd(final EventIdentifier eventIdentifier) {
-        Map<String, EventTimeCounter> deviceEvents = getOrCreateCountersForDevice(eventIdentifier.getDeviceId());
-        EventTimeCounter eventTimeCounter = getOrCreateEventOfType(eventIdentifier.getEventName(), deviceEvents);
-        eventTimeCounter.markEnd();
+        markEnd(eventIdentifier, System.nanoTime());
+    }
+
+    @VisibleForTesting
+    static void markEnd(final EventIdentifier eventIdentifier, final long nanoTime) {
+        final long start = eventIdentifier.takeStart();
+        if (start == EventIdentifier.NOT_STARTED) {
+            return;
+        }
+        getOrCreateEventOfType(eventIdentifier.getEventName(), getOrCreateCountersForDevice(eventIdentifier.getDeviceId()))
+                .record(TimeUnit.NANOSECONDS.toMicros(nanoTime - start), nanoTime);
     }
 
-    private static EventTimeCounter getOrCreateEventOfType(final String event, final Map<String, EventTimeCounter> deviceEvents) {
+    private static EventTimeCounter getOrCreateEventOfType(final String event,
+                                                           final ConcurrentMap<String, EventTimeCounter> deviceEvents) {
         EventTimeCounter lookup = deviceEvents.get(event);
         if (null == lookup) {
-            lookup = new EventTimeCounter();
-            deviceEvents.put(event, lookup);
+            final EventTimeCounter created = new EventTimeCounter();
+            lookup = deviceEvents.putIfAbsent(event, created);
+            if (null == lookup) {
+                lookup = created;
+            }
         }
         return lookup;
     }
 
-    private static Map<String, EventTimeCounter> getOrCreateCountersForDevice(final String deviceId) {
-        Map<String, EventTimeCounter> lookup = devicesEvents.get(deviceId);
+    private static ConcurrentMap<String, EventTimeCounter> getOrCreateCountersForDevice(final String deviceId) {
+        ConcurrentMap<String, EventTimeCounter> lookup = DEVICES_EVENTS.get(deviceId);
         if (null == lookup) {
-            lookup = new HashMap<String, EventTimeCounter>();
-            devicesEvents.put(deviceId, lookup);
+            final ConcurrentMap<String, EventTimeCounter> created = new ConcurrentHashMap<>();
+            lookup = DEVICES_EVENTS.putIfAbsent(deviceId, created);
+            if (null == lookup) {
+                lookup = created;
+            }
         }
-
         return lookup;
     }
 
+    /**
+     * @param lastMinute if true then only durations recorded during the last minute are taken
+     * @return device id -> event name -> merged histogram of durations [us], events without durations are left out
+     */
+    public static SortedMap<String, SortedMap<String, Histogram>> snapshot(final boolean lastMinute) {
+        return snapshot(lastMinute, System.nanoTime());
+    }
+
+    @VisibleForTesting
+    static SortedMap<String, SortedMap<String, Histogram>> snapshot(final boolean lastMinute, final long nanoTime) {
+        final SortedMap<String, SortedMap<String, Histogram>> snapshot = new TreeMap<>();
+        for (Map.Entry<String, ConcurrentMap<String, EventTimeCounter>> deviceEntry : DEVICES_EVENTS.entrySet()) {
+            final SortedMap<String, Histogram> deviceSnapshot = new TreeMap<>();
+            for (Map.Entry<String, EventTimeCounter> eventEntry : deviceEntry.getValue().entrySet()) {
+                final Histogram durations = lastMinute
+                        ? eventEntry.getValue().snapshotLastMinute(nanoTime)
+                        : eventEntry.getValue().snapshotAllTime();
+                if (durations.getCount() > 0) {
+                    deviceSnapshot.put(eventEntry.getKey(), durations);
+                }
+            }
+            if (!deviceSnapshot.isEmpty()) {
+                snapshot.put(deviceEntry.getKey(), deviceSnapshot);
+            }
+        }
+        return snapshot;
+    }
+
     public static List<String> provideTimes() {
+        final long now = System.nanoTime();
+        final SortedMap<String, SortedMap<String, Histogram>> lastMinute = snapshot(true, now);
         List<String> dump = new ArrayList<>();
-        for (Map.Entry<String, Map<String, EventTimeCounter>> deviceEntry : devicesEvents.entrySet()) {
-            Map<String, EventTimeCounter> eventsMap = deviceEntry.getValue();
+        for (Map.Entry<String, SortedMap<String, Histogram>> deviceEntry : snapshot(false, now).entrySet()) {
+            final SortedMap<String, Histogram> deviceLastMinute = lastMinute.get(deviceEntry.getKey());
             dump.add("================================================");
             dump.add(String.format("DEVICE : %s", deviceEntry.getKey()));
-            for (Map.Entry<String, EventTimeCounter> eventEntry : eventsMap.entrySet()) {
-                final String eventName = eventEntry.getKey();
-                final EventTimeCounter eventTimeCounter = eventEntry.getValue();
-                dump.add(String.format("%s", eventName));
-                dump.add(String.format("    MIN TIME (ms):  %d",
-                        TimeUnit.MILLISECONDS.convert(eventTimeCounter.getMinimum(), TimeUnit.NANOSECONDS)));
-                dump.add(String.format("    MAX TIME (ms):  %d",
-                        TimeUnit.MILLISECONDS.convert(eventTimeCounter.getMaximum(), TimeUnit.NANOSECONDS)));
-                dump.add(String.format("    AVG TIME (ms):  %d",
-                        TimeUnit.MILLISECONDS.convert(eventTimeCounter.getAverage(), TimeUnit.NANOSECONDS)));
-
+            for (Map.Entry<String, Histogram> eventEntry : deviceEntry.getValue().entrySet()) {
+                final Histogram eventLastMinute = deviceLastMinute == null ? null : deviceLastMinute.get(eventEntry.getKey());
+                dump.add(String.format("%s", eventEntry.getKey()));
+                dump.add(String.format("    LAST MINUTE (us):  %s", eventLastMinute == null ? "no events" : eventLastMinute));
+                dump.add(String.format("    ALL TIME (us):     %s", eventEntry.getValue()));
             }
         }
         return dump;
     }
 
     public static void resetAllCounters() {
-        devicesEvents = new HashMap<>();
+        DEVICES_EVENTS.clear();
     }
 
+    private static Histogram newHistogram() {
+        return new Histogram(HIGHEST_DURATION_MICROS, PRECISION_BITS);
+    }
 
     private static final class EventTimeCounter {
 
-        private volatile long delta = 0;
-        private volatile long average = 0;
-        private volatile long minimum = 0;
-        private volatile long maximum = 0;
-        private volatile long summary = 0;
-        private volatile int counter = 0;
+        private final Histogram allTime = newHistogram();
+        private final AtomicReferenceArray<WindowSlot> slots = new AtomicReferenceArray<>(WINDOW_SLOTS + 1);
 
-        public synchronized void markStart() {
-            delta = System.nanoTime();
+        void record(final long durationMicros, final long nanoTime) {
+            allTime.record(durationMicros);
+            slotOf(nanoTime / SLOT_NANOS).durations.record(durationMicros);
         }
 
-        public synchronized void markEnd() {
-            if (0 == delta) {
-                return;
-            }
-            counter++;
-            delta = System.nanoTime() - delta;
-
-            if (delta < minimum || minimum == 0) {
-                minimum = delta;
+        private WindowSlot slotOf(final long epoch) {
+            final int index = (int) (((epoch % slots.length()) + slots.length()) % slots.length());
+            while (true) {
+                final WindowSlot slot = slots.get(index);
+                if (slot != null && slot.epoch >= epoch) {
+                    return slot;
+                }
+                // stale slot gets replaced rather than reset, so concurrent recording never mixes two epochs
+                final WindowSlot fresh = new WindowSlot(epoch);
+                if (slots.compareAndSet(index, slot, fresh)) {
+                    return fresh;
+                }
             }
-            if (delta > maximum) {
-                maximum = delta;
-            }
-            if (average > 0 && delta > (average * 1.8)) {
-                summary += average;
-            } else {
-                summary += delta;
-            }
-            average = summary / counter;
         }
 
-        public synchronized void resetCounters() {
-            delta = 0;
-            average = 0;
-            minimum = 0;
-            maximum = 0;
-            summary = 0;
-            counter = 0;
-
+        Histogram snapshotLastMinute(final long nanoTime) {
+            final long epoch = nanoTime / SLOT_NANOS;
+            final Histogram merged = newHistogram();
+            for (int i = 0; i < slots.length(); i++) {
+                final WindowSlot slot = slots.get(i);
+                if (slot != null && slot.epoch <= epoch && slot.epoch >= epoch - WINDOW_SLOTS) {
+                    merged.add(slot.durations);
+                }
+            }
+            return merged;
         }
 
-        public synchronized long getAverage() {
-            return average;
+        Histogram snapshotAllTime() {
+            final Histogram merged = newHistogram();
+            merged.add(allTime);
+            return merged;
         }
+    }
 
-        public synchronized long getMinimum() {
-            return minimum;
-        }
+    private static final class WindowSlot {
+        private final long epoch;
+        private final Histogram durations = newHistogram();
 
-        public synchronized long getMaximum() {
-            return maximum;
+        private WindowSlot(final long epoch) {
+            this.epoch = epoch;
         }
-
     }
-
-
 }
@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.openflowplugin.impl.statistics.ofpspecific;
+
+import com.google.common.base.Preconditions;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock free histogram of non-negative values with log-linear buckets (HDR histogram alike) - every power of two range
+ * is split into 2^precisionBits equal sub-buckets. Percentiles are reported as upper bound of the bucket, so they are
+ * precise within factor of 1 + 2^-precisionBits (within factor of two by default). Histograms of the same layout
+ * can be merged, see {@link #add(Histogram)}.
+ */
+public final class Histogram {
+
+    private static final int MAX_PRECISION_BITS = 10;
+
+    private final long highestTrackableValue;
+    private final int precisionBits;
+    private final AtomicLongArray buckets;
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    public Histogram() {
+        this(Long.MAX_VALUE, 0);
+    }
+
+    /**
+     * @param highestTrackableValue values above are counted in the top bucket (maximum is still kept exact)
+     * @param precisionBits         every power of two range is split into 2^precisionBits sub-buckets
+     */
+    public Histogram(final long highestTrackableValue, final int precisionBits) {
+        Preconditions.checkArgument(highestTrackableValue > 0, "Highest trackable value not positive: %s", highestTrackableValue);
+        Preconditions.checkArgument(precisionBits >= 0 && precisionBits <= MAX_PRECISION_BITS,
+                "Precision out of range: %s", precisionBits);
+        this.highestTrackableValue = highestTrackableValue;
+        this.precisionBits = precisionBits;
+        this.buckets = new AtomicLongArray(bucketIndex(highestTrackableValue) + 1);
+    }
+
+    /**
+     * @param value recorded value, negative values are recorded as zero
+     */
+    public void record(final long value) {
+        final long sample = Math.max(0, value);
+        buckets.incrementAndGet(bucketIndex(Math.min(sample, highestTrackableValue)));
+        count.incrementAndGet();
+        sum.addAndGet(sample);
+        updateMax(sample);
+    }
+
+    /**
+     * Merges values recorded by other histogram into this one.
+     *
+     * @param other histogram of the same highest trackable value and precision
+     */
+    public void add(final Histogram other) {
+        Preconditions.checkArgument(highestTrackableValue == other.highestTrackableValue
+                && precisionBits == other.precisionBits, "Histograms of different layout can not be merged");
+        for (int i = 0; i < buckets.length(); i++) {
+            final long bucketCount = other.buckets.get(i);
+            if (bucketCount != 0) {
+                buckets.addAndGet(i, bucketCount);
+            }
+        }
+        count.addAndGet(other.count.get());
+        sum.addAndGet(other.sum.get());
+        updateMax(other.max.get());
+    }
+
+    private void updateMax(final long sample) {
+        long currentMax = max.get();
+        while (sample > currentMax && !max.compareAndSet(currentMax, sample)) {
+            currentMax = max.get();
+        }
+    }
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getMean() {
+        final long total = count.get();
+        return total == 0 ? 0 : sum.get() / total;
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * @param quantile requested quantile (0 to 1)
+     * @return upper bound of bucket where given quantile of recorded values falls (never above maximum)
+     */
+    public long getPercentile(final double quantile) {
+        Preconditions.checkArgument(quantile >= 0 && quantile <= 1, "Quantile out of range: %s", quantile);
+        final long total = count.get();
+        if (total == 0) {
+            return 0;
+        }
+
+        final long threshold = Math.max(1, (long) Math.ceil(quantile * total));
+        long cumulative = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            cumulative += buckets.get(i);
+            if (cumulative >= threshold) {
+                return Math.min(upperBound(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    public void reset() {
+        for (int i = 0; i < buckets.length(); i++) {
+            buckets.set(i, 0);
+        }
+        count.set(0);
+        sum.set(0);
+        max.set(0);
+    }
+
+    /**
+     * Values below 2^(precisionBits+1) have bucket of their own, bigger ones are split by their highest bit
+     * and following precisionBits bits.
+     */
+    private int bucketIndex(final long value) {
+        if (value < (2L << precisionBits)) {
+            return (int) value;
+        }
+        final int shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - precisionBits;
+        return (shift << precisionBits) + (int) (value >>> shift);
+    }
+
+    private long upperBound(final int bucket) {
+        if (bucket < (2 << precisionBits)) {
+            return bucket;
+        }
+        final int shift = (bucket >>> precisionBits) - 1;
+        final long lowerBound = (long) ((1 << precisionBits) + (bucket & ((1 << precisionBits) - 1))) << shift;
+        return lowerBound + ((1L << shift) - 1);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count: %d, mean: %d, p50: %d, p90: %d, p99: %d, p99.9: %d, max: %d",
+                getCount(), getMean(), getPercentile(0.5), getPercentile(0.9), getPercentile(0.99),
+                getPercentile(0.999), getMax());
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.openflowplugin.impl.statistics.ofpspecific;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * Amount of messages of one type counted in one statistic group of one device, exported over JMX as composite data.
+ */
+public final class MessageCount {
+
+    private final String deviceId;
+    private final String statisticGroup;
+    private final String messageType;
+    private final long count;
+
+    @ConstructorProperties({"deviceId", "statisticGroup", "messageType", "count"})
+    public MessageCount(final String deviceId, final String statisticGroup, final String messageType, final long count) {
+        this.deviceId = deviceId;
+        this.statisticGroup = statisticGroup;
+        this.messageType = messageType;
+        this.count = count;
+    }
+
+    public String getDeviceId() {
+        return deviceId;
+    }
+
+    public String getStatisticGroup() {
+        return statisticGroup;
+    }
+
+    public String getMessageType() {
+        return messageType;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %s: MSG[%s] -> %d", deviceId, statisticGroup, messageType, count);
+    }
+}
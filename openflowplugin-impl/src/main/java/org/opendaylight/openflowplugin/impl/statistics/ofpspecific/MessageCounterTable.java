@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.openflowplugin.impl.statistics.ofpspecific;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.opendaylight.openflowplugin.api.openflow.statistics.ofpspecific.MessageSpy.STATISTIC_GROUP;
+
+/**
+ * Message counters indexed by statistic group and dense message type ordinal ({@link MessageTypeIndex}) - counting
+ * is a single atomic increment, no lookup and no allocation. Counters are kept in fixed size chunks of message types,
+ * growing the table copies only the chunk references so no increment gets lost.
+ */
+final class MessageCounterTable {
+
+    private static final STATISTIC_GROUP[] GROUPS = STATISTIC_GROUP.values();
+    private static final int TYPES_PER_CHUNK = 64;
+
+    private volatile AtomicLongArray[] chunks = new AtomicLongArray[]{newChunk()};
+
+    /**
+     * @return position of given counter in flat array ordered by message type ordinal
+     */
+    static int index(final STATISTIC_GROUP statGroup, final int typeOrdinal) {
+        return typeOrdinal * GROUPS.length + statGroup.ordinal();
+    }
+
+    /**
+     * @return size of flat array covering all currently assigned message type ordinals
+     */
+    static int size() {
+        return MessageTypeIndex.assignedOrdinals() * GROUPS.length;
+    }
+
+    void increment(final Class<?> message, final STATISTIC_GROUP statGroup) {
+        final int typeOrdinal = MessageTypeIndex.ordinalOf(message);
+        chunkOf(typeOrdinal).incrementAndGet(offset(statGroup, typeOrdinal));
+    }
+
+    long get(final STATISTIC_GROUP statGroup, final int typeOrdinal) {
+        final AtomicLongArray[] current = chunks;
+        final int chunkIndex = typeOrdinal / TYPES_PER_CHUNK;
+        return chunkIndex < current.length ? current[chunkIndex].get(offset(statGroup, typeOrdinal)) : 0;
+    }
+
+    void reset() {
+        for (AtomicLongArray chunk : chunks) {
+            for (int i = 0; i < chunk.length(); i++) {
+                chunk.set(i, 0);
+            }
+        }
+    }
+
+    /**
+     * @param deviceId device the counters belong to
+     * @param snapshot receives non-zero counters
+     */
+    void snapshot(final String deviceId, final List<MessageCount> snapshot) {
+        final int messageTypes = MessageTypeIndex.assignedOrdinals();
+        for (STATISTIC_GROUP statGroup : GROUPS) {
+            for (int type = 0; type < messageTypes; type++) {
+                final long count = get(statGroup, type);
+                if (count > 0) {
+                    snapshot.add(new MessageCount(deviceId, statGroup.name(), MessageTypeIndex.nameOf(type), count));
+                }
+            }
+        }
+    }
+
+    private static int offset(final STATISTIC_GROUP statGroup, final int typeOrdinal) {
+        return statGroup.ordinal() * TYPES_PER_CHUNK + typeOrdinal % TYPES_PER_CHUNK;
+    }
+
+    private static AtomicLongArray newChunk() {
+        return new AtomicLongArray(GROUPS.length * TYPES_PER_CHUNK);
+    }
+
+    private AtomicLongArray chunkOf(final int typeOrdinal) {
+        final AtomicLongArray[] current = chunks;
+        final int chunkIndex = typeOrdinal / TYPES_PER_CHUNK;
+        return chunkIndex < current.length ? current[chunkIndex] : grow(chunkIndex);
+    }
+
+    private synchronized AtomicLongArray grow(final int chunkIndex) {
+        AtomicLongArray[] current = chunks;
+        if (chunkIndex >= current.length) {
+            final AtomicLongArray[] grown = Arrays.copyOf(current, chunkIndex + 1);
+            for (int i = current.length; i < grown.length; i++) {
+                grown[i] = newChunk();
+            }
+            chunks = grown;
+            current = grown;
+        }
+        return current[chunkIndex];
+    }
+}
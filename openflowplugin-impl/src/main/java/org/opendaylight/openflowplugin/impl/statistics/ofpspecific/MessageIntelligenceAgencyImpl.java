@@ -10,21 +10,33 @@ package org.opendaylight.openflowplugin.impl.statistics.ofpspecific;
 
 import com.google.common.base.Preconditions;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.SortedMap;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
 import org.opendaylight.openflowplugin.api.openflow.statistics.ofpspecific.MessageIntelligenceAgency;
+import org.opendaylight.openflowplugin.impl.statistics.StatisticsPollingScheduler;
+import org.opendaylight.openflowplugin.openflow.md.core.sal.convertor.FlowConvertor;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.NodeConnectorId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.NodeId;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Implementation of {@link org.opendaylight.openflowplugin.api.openflow.statistics.ofpspecific.MessageIntelligenceAgency}.
  * Class counts message of {@link org.opendaylight.openflowplugin.api.openflow.statistics.ofpspecific.MessageSpy.STATISTIC_GROUP} type
- * and provides info as debug log.
+ * and provides info as debug log. Messages are counted by statistic group and dense message type ordinal, counters
+ * of every connected device are kept by its {@link DeviceMessageSpy}.
  */
 public class MessageIntelligenceAgencyImpl implements MessageIntelligenceAgency, MessageIntelligenceAgencyMXBean {
 
@@ -46,31 +58,40 @@ public class MessageIntelligenceAgencyImpl implements MessageIntelligenceAgency,
             return cumulative;
         }
 
+        public synchronized long getTotal() {
+            return cumulative + UPDATER.get(this);
+        }
+
         public long increment() {
             return UPDATER.incrementAndGet(this);
         }
     }
 
-    private ConcurrentMap<STATISTIC_GROUP, ConcurrentMap<Class<?>, MessageCounters>> inputStats = new ConcurrentHashMap<>();
+    private final MessageCounterTable inputStats = new MessageCounterTable();
+    @GuardedBy("this")
+    private long[] reportedInputStats = new long[0];
+    private ConcurrentMap<NodeConnectorId, MessageCounters> packetInDropsPerPort = new ConcurrentHashMap<>();
+    private final ConcurrentMap<NodeId, StatisticsPollingScheduler> pollingSchedulers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<NodeId, Histogram> transactionCommitSizes = new ConcurrentHashMap<>();
+    private final ConcurrentMap<NodeId, Histogram> transactionCommitLatencies = new ConcurrentHashMap<>();
+    private final ConcurrentMap<NodeId, Histogram> echoRoundTripTimes = new ConcurrentHashMap<>();
+    private final ConcurrentMap<NodeId, DeviceMessageSpy> deviceMessageSpies = new ConcurrentHashMap<>();
 
     @Override
     public void spyMessage(@Nonnull final Class<?> message, final STATISTIC_GROUP statGroup) {
         Preconditions.checkNotNull(message, "Message can't be null.");
-        getCounters(message, statGroup).increment();
+        inputStats.increment(message, statGroup);
     }
 
-    /**
-     * @param message counted element
-     * @param statGroup statistic counter group
-     * @return corresponding counter
-     */
-    private MessageCounters getCounters(final Class<?> message, final STATISTIC_GROUP statGroup) {
-        ConcurrentMap<Class<?>, MessageCounters> groupData = getOrCreateGroupData(statGroup);
-        MessageCounters counters = getOrCreateCountersPair(message, groupData);
-        return counters;
+    @Override
+    public void spyPacketInDropped(@Nullable final NodeConnectorId ingress, @Nonnull final Class<?> reason) {
+        spyMessage(reason, STATISTIC_GROUP.FROM_SWITCH_PACKET_IN_RATE_EXCEEDED);
+        if (ingress != null) {
+            getOrCreateCountersPair(ingress, packetInDropsPerPort).increment();
+        }
     }
 
-    private static MessageCounters getOrCreateCountersPair(final Class<?> msgType, final ConcurrentMap<Class<?>, MessageCounters> groupData) {
+    private static <K> MessageCounters getOrCreateCountersPair(final K msgType, final ConcurrentMap<K, MessageCounters> groupData) {
         final MessageCounters lookup = groupData.get(msgType);
         if (lookup != null) {
             return lookup;
@@ -82,18 +103,6 @@ public class MessageIntelligenceAgencyImpl implements MessageIntelligenceAgency,
 
     }
 
-    private ConcurrentMap<Class<?>, MessageCounters> getOrCreateGroupData(final STATISTIC_GROUP statGroup) {
-        final ConcurrentMap<Class<?>, MessageCounters> lookup = inputStats.get(statGroup);
-        if (lookup != null) {
-            return lookup;
-        }
-
-        final ConcurrentMap<Class<?>, MessageCounters> newmap = new ConcurrentHashMap<>();
-        final ConcurrentMap<Class<?>, MessageCounters> check = inputStats.putIfAbsent(statGroup, newmap);
-
-        return check == null ? newmap : check;
-    }
-
     @Override
     public void run() {
         // log current counters and cleans it
@@ -105,29 +114,212 @@ public class MessageIntelligenceAgencyImpl implements MessageIntelligenceAgency,
     }
 
     @Override
-    public List<String> provideIntelligence() {
+    public synchronized List<String> provideIntelligence() {
         List<String> dump = new ArrayList<>();
 
+        final int messageTypes = MessageTypeIndex.assignedOrdinals();
+        final int size = MessageCounterTable.size();
+        if (reportedInputStats.length < size) {
+            reportedInputStats = Arrays.copyOf(reportedInputStats, size);
+        }
         for (STATISTIC_GROUP statGroup : STATISTIC_GROUP.values()) {
-            Map<Class<?>, MessageCounters> groupData = inputStats.get(statGroup);
-            if (groupData != null) {
-                for (Entry<Class<?>, MessageCounters> statEntry : groupData.entrySet()) {
-                    long amountPerInterval = statEntry.getValue().accumulate();
-                    long cumulativeAmount = statEntry.getValue().getCumulative();
+            boolean activityDetected = false;
+            for (int type = 0; type < messageTypes; type++) {
+                final long cumulativeAmount = inputStats.get(statGroup, type);
+                if (cumulativeAmount > 0) {
+                    final int index = MessageCounterTable.index(statGroup, type);
                     dump.add(String.format("%s: MSG[%s] -> +%d | %d",
                             statGroup,
-                            statEntry.getKey().getSimpleName(),
-                            amountPerInterval, cumulativeAmount));
+                            MessageTypeIndex.nameOf(type),
+                            cumulativeAmount - reportedInputStats[index], cumulativeAmount));
+                    reportedInputStats[index] = cumulativeAmount;
+                    activityDetected = true;
                 }
-            } else {
+            }
+            if (!activityDetected) {
                 dump.add(String.format("%s: no activity detected", statGroup));
             }
         }
+        for (Entry<NodeConnectorId, MessageCounters> portEntry : packetInDropsPerPort.entrySet()) {
+            long amountPerInterval = portEntry.getValue().accumulate();
+            long cumulativeAmount = portEntry.getValue().getCumulative();
+            dump.add(String.format("%s: PORT[%s] -> +%d | %d",
+                    STATISTIC_GROUP.FROM_SWITCH_PACKET_IN_RATE_EXCEEDED,
+                    portEntry.getKey().getValue(),
+                    amountPerInterval, cumulativeAmount));
+        }
         return dump;
     }
 
     @Override
-    public void resetStatistics() {
-        inputStats = new ConcurrentHashMap<>();
+    public Map<String, Long> providePacketInDropsPerPort() {
+        final Map<String, Long> dump = new HashMap<>();
+        for (Entry<NodeConnectorId, MessageCounters> portEntry : packetInDropsPerPort.entrySet()) {
+            dump.put(portEntry.getKey().getValue(), portEntry.getValue().getTotal());
+        }
+        return dump;
+    }
+
+    /**
+     * @param nodeId device identification
+     * @return spy counting messages of given device, exposed till {@link #unregisterDeviceMessageSpy(NodeId)}
+     */
+    public DeviceMessageSpy createDeviceMessageSpy(final NodeId nodeId) {
+        final DeviceMessageSpy deviceMessageSpy = new DeviceMessageSpy(nodeId, this);
+        deviceMessageSpies.put(nodeId, deviceMessageSpy);
+        return deviceMessageSpy;
+    }
+
+    /**
+     * Drops spy of disconnected device together with packetIn drop counters of its ports.
+     *
+     * @param nodeId device identification
+     */
+    public void unregisterDeviceMessageSpy(final NodeId nodeId) {
+        final DeviceMessageSpy deviceMessageSpy = deviceMessageSpies.remove(nodeId);
+        if (deviceMessageSpy != null) {
+            for (NodeConnectorId ingress : deviceMessageSpy.getPacketInDropPorts()) {
+                packetInDropsPerPort.remove(ingress);
+            }
+        }
+    }
+
+    @Override
+    public List<MessageCount> provideMessageCounts() {
+        final SortedMap<String, DeviceMessageSpy> devicesByName = new TreeMap<>();
+        for (Entry<NodeId, DeviceMessageSpy> spyEntry : deviceMessageSpies.entrySet()) {
+            devicesByName.put(spyEntry.getKey().getValue(), spyEntry.getValue());
+        }
+        final List<MessageCount> snapshot = new ArrayList<>();
+        for (DeviceMessageSpy deviceMessageSpy : devicesByName.values()) {
+            snapshot.addAll(deviceMessageSpy.snapshot());
+        }
+        return snapshot;
+    }
+
+    /**
+     * @param nodeId device identification
+     * @return non-zero message counters of given device, empty if device is not connected
+     */
+    public List<MessageCount> provideMessageCounts(final NodeId nodeId) {
+        final DeviceMessageSpy deviceMessageSpy = deviceMessageSpies.get(nodeId);
+        return deviceMessageSpy == null ? Collections.<MessageCount>emptyList() : deviceMessageSpy.snapshot();
+    }
+
+    /**
+     * @param nodeId device identification
+     * @param pollingScheduler statistics polling schedule of device to be exposed
+     */
+    public void registerPollingScheduler(final NodeId nodeId, final StatisticsPollingScheduler pollingScheduler) {
+        pollingSchedulers.put(nodeId, pollingScheduler);
+    }
+
+    /**
+     * @param nodeId device identification
+     */
+    public void unregisterPollingScheduler(final NodeId nodeId) {
+        pollingSchedulers.remove(nodeId);
+    }
+
+    /**
+     * @param nodeId device identification
+     * @param commitSizes operations per datastore transaction of device to be exposed
+     * @param commitLatencies datastore transaction commit latencies [us] of device to be exposed
+     */
+    public void registerTransactionHistograms(final NodeId nodeId, final Histogram commitSizes,
+                                              final Histogram commitLatencies) {
+        transactionCommitSizes.put(nodeId, commitSizes);
+        transactionCommitLatencies.put(nodeId, commitLatencies);
+    }
+
+    /**
+     * @param nodeId device identification
+     */
+    public void unregisterTransactionHistograms(final NodeId nodeId) {
+        transactionCommitSizes.remove(nodeId);
+        transactionCommitLatencies.remove(nodeId);
+    }
+
+    /**
+     * @param nodeId device identification
+     * @param roundTripTimes echo round trip times [us] of device to be exposed
+     */
+    public void registerEchoRoundTripTimes(final NodeId nodeId, final Histogram roundTripTimes) {
+        echoRoundTripTimes.put(nodeId, roundTripTimes);
+    }
+
+    /**
+     * @param nodeId device identification
+     * @param roundTripTimes histogram to be removed - histogram of newer connection of the same device is kept
+     */
+    public void unregisterEchoRoundTripTimes(final NodeId nodeId, final Histogram roundTripTimes) {
+        echoRoundTripTimes.remove(nodeId, roundTripTimes);
+    }
+
+    @Override
+    public Map<String, String> provideTransactionCommitSizes() {
+        return dumpHistograms(transactionCommitSizes);
+    }
+
+    @Override
+    public Map<String, String> provideTransactionCommitLatencies() {
+        return dumpHistograms(transactionCommitLatencies);
+    }
+
+    @Override
+    public Map<String, String> provideEchoRoundTripTimes() {
+        return dumpHistograms(echoRoundTripTimes);
+    }
+
+    @Override
+    public Map<String, String> provideEventTimes() {
+        final Map<String, String> dump = new HashMap<>();
+        for (Entry<String, SortedMap<String, Histogram>> deviceEntry : EventsTimeCounter.snapshot(true).entrySet()) {
+            for (Entry<String, Histogram> eventEntry : deviceEntry.getValue().entrySet()) {
+                dump.put(deviceEntry.getKey() + "/" + eventEntry.getKey(), eventEntry.getValue().toString());
+            }
+        }
+        return dump;
+    }
+
+    @Override
+    public Map<String, String> provideFlowConversionCacheStatistics() {
+        return FlowConvertor.getConversionCacheStatistics();
+    }
+
+    private static Map<String, String> dumpHistograms(final Map<NodeId, Histogram> histograms) {
+        final Map<String, String> dump = new HashMap<>();
+        for (Entry<NodeId, Histogram> histogramEntry : histograms.entrySet()) {
+            dump.put(histogramEntry.getKey().getValue(), histogramEntry.getValue().toString());
+        }
+        return dump;
+    }
+
+    @Override
+    public Map<String, Long> provideStatisticsPollingIntervals() {
+        final Map<String, Long> dump = new HashMap<>();
+        for (Entry<NodeId, StatisticsPollingScheduler> schedulerEntry : pollingSchedulers.entrySet()) {
+            dump.put(schedulerEntry.getKey().getValue(), schedulerEntry.getValue().getCurrentTimerDelay());
+        }
+        return dump;
+    }
+
+    @Override
+    public Map<String, Long> provideStatisticsPollingJitter() {
+        final Map<String, Long> dump = new HashMap<>();
+        for (Entry<NodeId, StatisticsPollingScheduler> schedulerEntry : pollingSchedulers.entrySet()) {
+            dump.put(schedulerEntry.getKey().getValue(), schedulerEntry.getValue().getLastJitter());
+        }
+        return dump;
+    }
+
+    @Override
+    public synchronized void resetStatistics() {
+        inputStats.reset();
+        Arrays.fill(reportedInputStats, 0);
+        packetInDropsPerPort = new ConcurrentHashMap<>();
+        for (DeviceMessageSpy deviceMessageSpy : deviceMessageSpies.values()) {
+            deviceMessageSpy.resetCounters();
+        }
     }
 }
@@ -9,6 +9,7 @@
 package org.opendaylight.openflowplugin.impl.statistics.ofpspecific;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * Created by Martin Bobak &lt;mbobak@cisco.com&gt; on 11.5.2015.
@@ -16,4 +17,49 @@ import java.util.List;
 public interface MessageIntelligenceAgencyMXBean {
 
     List<String> provideIntelligence();
+
+    /**
+     * @return current statistics polling interval [ms] per device
+     */
+    Map<String, Long> provideStatisticsPollingIntervals();
+
+    /**
+     * @return jitter [ms] applied to the last scheduled statistics poll per device
+     */
+    Map<String, Long> provideStatisticsPollingJitter();
+
+    /**
+     * @return amount of packetIns dropped by packetIn rate limiter per ingress port
+     */
+    Map<String, Long> providePacketInDropsPerPort();
+
+    /**
+     * @return histogram of operations per datastore transaction per device
+     */
+    Map<String, String> provideTransactionCommitSizes();
+
+    /**
+     * @return histogram of datastore transaction commit latencies [us] per device
+     */
+    Map<String, String> provideTransactionCommitLatencies();
+
+    /**
+     * @return histogram of echo round trip times [us] per device
+     */
+    Map<String, String> provideEchoRoundTripTimes();
+
+    /**
+     * @return histogram of event durations [us] during the last minute per device and event
+     */
+    Map<String, String> provideEventTimes();
+
+    /**
+     * @return non-zero message counters per device, statistic group and message type
+     */
+    List<MessageCount> provideMessageCounts();
+
+    /**
+     * @return hit rate and size of flow match and instructions conversion caches
+     */
+    Map<String, String> provideFlowConversionCacheStatistics();
 }
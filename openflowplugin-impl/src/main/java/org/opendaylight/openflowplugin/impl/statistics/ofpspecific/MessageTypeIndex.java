@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.openflowplugin.impl.statistics.ofpspecific;
+
+import java.util.Arrays;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+
+/**
+ * Dense ordinals of counted message types. Every class gets its ordinal on the first lookup, further lookups are
+ * served by {@link ClassValue} without any map lookup. Names are kept in copy-on-write array which grows with
+ * number of assigned ordinals.
+ */
+final class MessageTypeIndex {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    @GuardedBy("MessageTypeIndex.class")
+    private static volatile String[] names = new String[INITIAL_CAPACITY];
+    @GuardedBy("MessageTypeIndex.class")
+    private static volatile int nextOrdinal;
+    private static final ClassValue<Integer> ORDINALS = new ClassValue<Integer>() {
+        @Override
+        protected Integer computeValue(final Class<?> type) {
+            // racing threads may burn an ordinal, only one of them gets published
+            return register(type.getSimpleName());
+        }
+    };
+
+    private MessageTypeIndex() {
+        throw new IllegalStateException("This class should not be instantiated.");
+    }
+
+    static int ordinalOf(final Class<?> type) {
+        return ORDINALS.get(type);
+    }
+
+    /**
+     * @return name of message type of given ordinal, null if the ordinal is not assigned
+     */
+    @Nullable
+    static String nameOf(final int ordinal) {
+        final String[] current = names;
+        return ordinal < current.length ? current[ordinal] : null;
+    }
+
+    /**
+     * @return upper bound of assigned ordinals
+     */
+    static int assignedOrdinals() {
+        return nextOrdinal;
+    }
+
+    private static synchronized int register(final String name) {
+        final int ordinal = nextOrdinal;
+        String[] current = names;
+        if (ordinal >= current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+        }
+        current[ordinal] = name;
+        // publish name before the ordinal becomes visible to readers
+        names = current;
+        nextOrdinal = ordinal + 1;
+        return ordinal;
+    }
+}
@@ -10,13 +10,16 @@ package org.opendaylight.openflowplugin.impl.statistics.services.dedicated;
 
 import java.util.List;
 import java.util.concurrent.Future;
+import javax.annotation.Nullable;
 import org.opendaylight.openflowplugin.api.openflow.device.DeviceContext;
 import org.opendaylight.openflowplugin.api.openflow.device.RequestContextStack;
 import org.opendaylight.openflowplugin.api.openflow.device.Xid;
+import org.opendaylight.openflowplugin.api.openflow.device.handlers.MultipartReplySink;
 import org.opendaylight.openflowplugin.api.openflow.statistics.ofpspecific.EventIdentifier;
 import org.opendaylight.openflowplugin.api.openflow.statistics.ofpspecific.StatisticsGatherer;
 import org.opendaylight.openflowplugin.impl.common.MultipartRequestInputFactory;
 import org.opendaylight.openflowplugin.impl.services.AbstractMultipartOnTheFlyService;
+import org.opendaylight.openflowplugin.impl.statistics.FlowStatisticsSnapshot;
 import org.opendaylight.openflowplugin.impl.statistics.ofpspecific.EventsTimeCounter;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.types.rev130731.MultipartType;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.MultipartReply;
@@ -32,8 +35,20 @@ public class StatisticsGatheringOnTheFlyService extends AbstractMultipartOnTheFl
 
     private static final Logger LOG = LoggerFactory.getLogger(StatisticsGatheringOnTheFlyService.class);
 
+    private final FlowStatisticsSnapshot flowStatisticsSnapshot;
+
     public StatisticsGatheringOnTheFlyService(final RequestContextStack requestContextStack, final DeviceContext deviceContext) {
+        this(requestContextStack, deviceContext, null);
+    }
+
+    /**
+     * @param flowStatisticsSnapshot if not null then flow statistics are written incrementally
+     */
+    public StatisticsGatheringOnTheFlyService(final RequestContextStack requestContextStack,
+                                              final DeviceContext deviceContext,
+                                              @Nullable final FlowStatisticsSnapshot flowStatisticsSnapshot) {
         super(requestContextStack, deviceContext);
+        this.flowStatisticsSnapshot = flowStatisticsSnapshot;
     }
 
     @Override
@@ -44,6 +59,31 @@ public class StatisticsGatheringOnTheFlyService extends AbstractMultipartOnTheFl
         return handleServiceCall(type);
     }
 
+    /**
+     * @param replySink consumer of translated replies, result of request is always empty
+     */
+    public Future<RpcResult<List<MultipartReply>>> getStatisticsOfType(final EventIdentifier eventIdentifier,
+                                                                      final MultipartType type,
+                                                                      final MultipartReplySink replySink) {
+        LOG.debug("Streaming statistics (onTheFly) for node {} of type {}", getDeviceContext().getDeviceState().getNodeId(), type);
+        EventsTimeCounter.markStart(eventIdentifier);
+        setEventIdentifier(eventIdentifier);
+        return handleServiceCall(type, replySink);
+    }
+
+    @Override
+    protected FlowStatisticsSnapshot getFlowStatisticsSnapshot() {
+        return flowStatisticsSnapshot;
+    }
+
+    /**
+     * Replies of every statistics type are streamed on their own, so types can be spread over auxiliary connections.
+     */
+    @Override
+    protected Long getOrderingKey(final MultipartType input) {
+        return (long) input.getIntValue();
+    }
+
     @Override
     protected OfHeader buildRequest(final Xid xid, final MultipartType input) {
         return MultipartRequestInputFactory.makeMultipartRequestInput(xid.getValue(), getVersion(), input);
@@ -44,6 +44,14 @@ public class StatisticsGatheringService extends AbstractMultipartService<Multipa
         return handleServiceCall(type);
     }
 
+    /**
+     * Statistics of different types are independent of each other and may be gathered over different connections.
+     */
+    @Override
+    protected Long getOrderingKey(final MultipartType input) {
+        return (long) input.getIntValue();
+    }
+
     @Override
     protected OfHeader buildRequest(final Xid xid, final MultipartType input) {
         return MultipartRequestInputFactory.makeMultipartRequestInput(xid.getValue(), getVersion(), input);
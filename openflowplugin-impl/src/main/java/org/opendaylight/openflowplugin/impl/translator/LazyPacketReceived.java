@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.openflowplugin.impl.translator;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Objects;
+import java.math.BigInteger;
+import java.util.Arrays;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.types.rev131026.FlowCookie;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.NodeConnectorRef;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.PacketInMessage;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.packet.service.rev130709.ConnectionCookie;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.packet.service.rev130709.PacketInReason;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.packet.service.rev130709.PacketReceived;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.packet.service.rev130709.packet.received.Match;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.table.types.rev131026.TableId;
+import org.opendaylight.yangtools.yang.binding.Augmentation;
+
+/**
+ * {@link PacketReceived} keeping raw openflow match of packet-in. Conversion to MD-SAL match (including match
+ * extensions) is done on first {@link #getMatch()} call only, as most of packet-in consumers need just payload,
+ * ingress and cookie.
+ */
+final class LazyPacketReceived implements PacketReceived {
+
+    private final PacketInMessage input;
+    private final BigInteger datapathId;
+    private final NodeConnectorRef ingress;
+    private final FlowCookie flowCookie;
+    private final TableId tableId;
+    private final Class<? extends PacketInReason> packetInReason;
+
+    private volatile Match match;
+
+    LazyPacketReceived(final PacketInMessage input, final BigInteger datapathId, final NodeConnectorRef ingress,
+                       final FlowCookie flowCookie, final TableId tableId,
+                       final Class<? extends PacketInReason> packetInReason) {
+        this.input = input;
+        this.datapathId = datapathId;
+        this.ingress = ingress;
+        this.flowCookie = flowCookie;
+        this.tableId = tableId;
+        this.packetInReason = packetInReason;
+    }
+
+    @Override
+    public Match getMatch() {
+        Match result = match;
+        if (result == null && input.getMatch() != null) {
+            // conversion is idempotent - racing listeners might convert twice, but always to equal match
+            result = PacketReceivedTranslator.getPacketInMatch(input, datapathId);
+            match = result;
+        }
+        return result;
+    }
+
+    /**
+     * @return true if match was already converted
+     */
+    boolean isMatchConverted() {
+        return match != null;
+    }
+
+    @Override
+    public ConnectionCookie getConnectionCookie() {
+        //TODO connection cookie from connection distinguisher
+        return null;
+    }
+
+    @Override
+    public FlowCookie getFlowCookie() {
+        return flowCookie;
+    }
+
+    @Override
+    public TableId getTableId() {
+        return tableId;
+    }
+
+    @Override
+    public Class<? extends PacketInReason> getPacketInReason() {
+        return packetInReason;
+    }
+
+    @Override
+    public NodeConnectorRef getIngress() {
+        return ingress;
+    }
+
+    @Override
+    public byte[] getPayload() {
+        return input.getData();
+    }
+
+    @Override
+    public <E extends Augmentation<PacketReceived>> E getAugmentation(final Class<E> augmentationType) {
+        return null;
+    }
+
+    @Override
+    public Class<PacketReceived> getImplementedInterface() {
+        return PacketReceived.class;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof PacketReceived)) {
+            return false;
+        }
+        final PacketReceived other = (PacketReceived) obj;
+        return Objects.equal(getConnectionCookie(), other.getConnectionCookie())
+                && Objects.equal(flowCookie, other.getFlowCookie())
+                && Objects.equal(tableId, other.getTableId())
+                && Objects.equal(packetInReason, other.getPacketInReason())
+                && Objects.equal(ingress, other.getIngress())
+                && Arrays.equals(getPayload(), other.getPayload())
+                && Objects.equal(getMatch(), other.getMatch());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(flowCookie, tableId, packetInReason, ingress, Arrays.hashCode(getPayload()));
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(PacketReceived.class)
+                .omitNullValues()
+                .add("flowCookie", flowCookie)
+                .add("tableId", tableId)
+                .add("packetInReason", packetInReason)
+                .add("ingress", ingress)
+                .add("match", match)
+                .toString();
+    }
+}
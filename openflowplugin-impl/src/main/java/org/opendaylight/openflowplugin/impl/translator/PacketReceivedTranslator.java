@@ -28,7 +28,6 @@ import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.oxm.rev150225.matc
 import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.oxm.rev150225.match.entry.value.grouping.match.entry.value.InPortCase;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.PacketInMessage;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.packet.service.rev130709.PacketReceived;
-import org.opendaylight.yang.gen.v1.urn.opendaylight.packet.service.rev130709.PacketReceivedBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.packet.service.rev130709.packet.received.MatchBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.table.types.rev131026.TableId;
 
@@ -36,10 +35,11 @@ import org.opendaylight.yang.gen.v1.urn.opendaylight.table.types.rev131026.Table
  * Created by tkubas on 4/1/15.
  */
 public class PacketReceivedTranslator implements MessageTranslator<PacketInMessage, PacketReceived> {
+    /**
+     * @return packet received notification converting openflow match on first {@link PacketReceived#getMatch()}
+     */
     @Override
     public PacketReceived translate(final PacketInMessage input, final DeviceContext deviceContext, final Object connectionDistinguisher) {
-
-        PacketReceivedBuilder packetReceivedBuilder = new PacketReceivedBuilder();
         BigInteger datapathId = deviceContext.getPrimaryConnectionContext().getFeatures().getDatapathId();
 
         // extract the port number
@@ -52,35 +52,22 @@ public class PacketReceivedTranslator implements MessageTranslator<PacketInMessa
             }
         }
 
-        //TODO connection cookie from connection distinguisher
-//        packetReceivedBuilder.setConnectionCookie(new ConnectionCookie(input.getCookie().longValue()));
-        packetReceivedBuilder.setPayload(input.getData());
-        // get the Cookie if it exists
-        if (input.getCookie() != null) {
-            packetReceivedBuilder.setFlowCookie(new FlowCookie(input.getCookie()));
-        }
+        NodeConnectorRef nodeConnectorRef = null;
         if (port != null) {
-            NodeConnectorRef nodeConnectorRef = deviceContext.lookupNodeConnectorRef(port);
+            nodeConnectorRef = deviceContext.lookupNodeConnectorRef(port);
             if (nodeConnectorRef == null) {
                 nodeConnectorRef = InventoryDataServiceUtil.nodeConnectorRefFromDatapathIdPortno(
                         datapathId, port, OpenflowVersion.get(input.getVersion()), deviceContext.getDeviceState().getNodeInstanceIdentifier());
                 deviceContext.storeNodeConnectorRef(port, nodeConnectorRef);
             }
-            packetReceivedBuilder.setIngress(nodeConnectorRef);
-        }
-
-        packetReceivedBuilder.setPacketInReason(PacketInUtil.getMdSalPacketInReason(input.getReason()));
-
-        if (input.getTableId() != null) {
-            packetReceivedBuilder.setTableId(new TableId(input.getTableId().getValue().shortValue()));
         }
 
-        if (input.getMatch() != null) {
-            org.opendaylight.yang.gen.v1.urn.opendaylight.packet.service.rev130709.packet.received.Match packetInMatch = getPacketInMatch(input, datapathId);
-            packetReceivedBuilder.setMatch(packetInMatch);
-        }
+        // get the Cookie if it exists
+        final FlowCookie flowCookie = input.getCookie() == null ? null : new FlowCookie(input.getCookie());
+        final TableId tableId = input.getTableId() == null ? null : new TableId(input.getTableId().getValue().shortValue());
 
-        return packetReceivedBuilder.build();
+        return new LazyPacketReceived(input, datapathId, nodeConnectorRef, flowCookie, tableId,
+                PacketInUtil.getMdSalPacketInReason(input.getReason()));
     }
 
     @VisibleForTesting
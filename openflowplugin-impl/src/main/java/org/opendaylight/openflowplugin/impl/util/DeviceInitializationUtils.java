@@ -9,11 +9,13 @@
 package org.opendaylight.openflowplugin.impl.util;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.util.concurrent.AsyncFunction;
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.Uninterruptibles;
 import java.math.BigInteger;
 import java.net.Inet4Address;
 import java.net.Inet6Address;
@@ -24,6 +26,10 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.annotation.Nullable;
 
 import com.google.common.base.Preconditions;
 import com.google.common.util.concurrent.AsyncFunction;
@@ -43,9 +49,12 @@ import org.opendaylight.openflowplugin.api.openflow.device.RequestContext;
 import org.opendaylight.openflowplugin.api.openflow.device.Xid;
 import org.opendaylight.openflowplugin.api.openflow.device.handlers.MultiMsgCollector;
 import org.opendaylight.openflowplugin.api.openflow.md.core.TranslatorKey;
+import org.opendaylight.openflowplugin.api.openflow.statistics.ofpspecific.EventIdentifier;
 import org.opendaylight.openflowplugin.impl.common.MultipartRequestInputFactory;
 import org.opendaylight.openflowplugin.impl.common.NodeStaticReplyTranslatorUtil;
+import org.opendaylight.openflowplugin.impl.device.TableFeaturesCache;
 import org.opendaylight.openflowplugin.impl.rpc.AbstractRequestContext;
+import org.opendaylight.openflowplugin.impl.statistics.ofpspecific.EventsTimeCounter;
 import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev100924.IpAddress;
 import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev100924.Ipv4Address;
 import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev100924.Ipv6Address;
@@ -95,6 +104,17 @@ public class DeviceInitializationUtils {
 
     private static final Logger LOG = LoggerFactory.getLogger(DeviceInitializationUtils.class);
 
+    /**
+     * Event of {@link EventsTimeCounter} - time from start of node information collecting until all of it is
+     * submitted, table features were requested from device (or skipped).
+     */
+    public static final String NODE_INFORMATION_EVENT = "NODE-INFORMATION";
+    /**
+     * Event of {@link EventsTimeCounter} - as {@link #NODE_INFORMATION_EVENT}, table features were taken
+     * from {@link TableFeaturesCache}.
+     */
+    public static final String NODE_INFORMATION_CACHED_TABLE_FEATURES_EVENT = "NODE-INFORMATION-CACHED-TABLE-FEATURES";
+
     /**
      * InitializationNodeInformation is good to call only for MASTER otherwise we will have not empty transaction
      * for every Cluster Node (SLAVE too) and we will get race-condition by closing Connection.
@@ -104,11 +124,26 @@ public class DeviceInitializationUtils {
      * @return future - recommended to have blocking call for this future
      */
     public static ListenableFuture<Void> initializeNodeInformation(final DeviceContext deviceContext, final boolean switchFeaturesMandatory) {
+        return initializeNodeInformation(deviceContext, switchFeaturesMandatory, null);
+    }
+
+    /**
+     * @param deviceContext
+     * @param switchFeaturesMandatory
+     * @param tableFeaturesCache if not null then table features of OF 1.3 device are looked up there first
+     *                           and fetched ones are added there
+     * @return future - recommended to have blocking call for this future
+     * @see #initializeNodeInformation(DeviceContext, boolean)
+     */
+    public static ListenableFuture<Void> initializeNodeInformation(final DeviceContext deviceContext,
+            final boolean switchFeaturesMandatory, @Nullable final TableFeaturesCache tableFeaturesCache) {
         Preconditions.checkArgument(deviceContext != null);
         final DeviceState deviceState = Preconditions.checkNotNull(deviceContext.getDeviceState());
         final ConnectionContext connectionContext = Preconditions.checkNotNull(deviceContext.getPrimaryConnectionContext());
         final short version = deviceState.getVersion();
         LOG.trace("initalizeNodeInformation for node {}", deviceState.getNodeId());
+        final long startNanos = System.nanoTime();
+        final AtomicReference<List<TableFeatures>> cachedTableFeatures = new AtomicReference<>();
         final SettableFuture<Void> returnFuture = SettableFuture.<Void> create();
         addNodeToOperDS(deviceContext, returnFuture);
         final ListenableFuture<List<RpcResult<List<MultipartReply>>>> deviceFeaturesFuture;
@@ -151,7 +186,8 @@ public class DeviceInitializationUtils {
             final Capabilities capabilities = connectionContext.getFeatures().getCapabilities();
             LOG.debug("Setting capabilities for device {}", deviceContext.getDeviceState().getNodeId());
             DeviceStateUtil.setDeviceStateBasedOnV13Capabilities(deviceState, capabilities);
-            deviceFeaturesFuture = createDeviceFeaturesForOF13(deviceContext, deviceState, switchFeaturesMandatory);
+            deviceFeaturesFuture = createDeviceFeaturesForOF13(deviceContext, deviceState, switchFeaturesMandatory,
+                    tableFeaturesCache, cachedTableFeatures);
         } else {
             deviceFeaturesFuture = Futures.immediateFailedFuture(new ConnectionException("Unsupported version "
                     + version));
@@ -161,6 +197,11 @@ public class DeviceInitializationUtils {
             @Override
             public void onSuccess(final List<RpcResult<List<MultipartReply>>> result) {
                 LOG.debug("All init data for node {} is in submited.", deviceState.getNodeId());
+                final EventIdentifier eventIdentifier = new EventIdentifier(cachedTableFeatures.get() != null
+                        ? NODE_INFORMATION_CACHED_TABLE_FEATURES_EVENT : NODE_INFORMATION_EVENT,
+                        connectionContext.getNodeId().toString());
+                eventIdentifier.markStart(startNanos);
+                EventsTimeCounter.markEnd(eventIdentifier);
                 returnFuture.set(null);
             }
 
@@ -199,60 +240,180 @@ public class DeviceInitializationUtils {
     }
 
     private static ListenableFuture<List<RpcResult<List<MultipartReply>>>> createDeviceFeaturesForOF13(
-            final DeviceContext deviceContext, final DeviceState deviceState, final boolean switchFeaturesMandatory) {
+            final DeviceContext deviceContext, final DeviceState deviceState, final boolean switchFeaturesMandatory,
+            @Nullable final TableFeaturesCache tableFeaturesCache,
+            final AtomicReference<List<TableFeatures>> cachedTableFeatures) {
+        final InstanceIdentifier<Node> nodeII = deviceState.getNodeInstanceIdentifier();
+        final short version = deviceState.getVersion();
 
+        // requests do not depend on each other (except for cached table features) - send them all at once
         final ListenableFuture<RpcResult<List<MultipartReply>>> replyDesc = getNodeStaticInfo(MultipartType.OFPMPDESC,
-                deviceContext, deviceState.getNodeInstanceIdentifier(), deviceState.getVersion());
+                deviceContext, nodeII, version);
+        final ListenableFuture<RpcResult<List<MultipartReply>>> replyMeterFeature = getNodeStaticInfo(
+                MultipartType.OFPMPMETERFEATURES, deviceContext, nodeII, version);
+        final ListenableFuture<RpcResult<List<MultipartReply>>> replyGroupFeatures = getNodeStaticInfo(
+                MultipartType.OFPMPGROUPFEATURES, deviceContext, nodeII, version);
+
+        final ListenableFuture<RpcResult<List<MultipartReply>>> replyTableFeatures;
+        if (deviceState.isSkipTableFeatures()) {
+            replyTableFeatures = RpcResultBuilder.<List<MultipartReply>>success().buildFuture();
+        } else if (tableFeaturesCache == null) {
+            replyTableFeatures = getNodeStaticInfo(MultipartType.OFPMPTABLEFEATURES, deviceContext, nodeII, version);
+        } else {
+            // cache key is made of device description
+            replyTableFeatures = Futures.transform(replyDesc,
+                    new AsyncFunction<RpcResult<List<MultipartReply>>, RpcResult<List<MultipartReply>>>() {
+                        @Override
+                        public ListenableFuture<RpcResult<List<MultipartReply>>> apply(
+                                final RpcResult<List<MultipartReply>> descResult) throws Exception {
+                            return getTableFeatures(deviceContext, tableFeaturesCache,
+                                    createTableFeaturesKey(deviceContext, descResult.getResult()),
+                                    cachedTableFeatures);
+                        }
+                    });
+        }
+
+        final ListenableFuture<RpcResult<List<MultipartReply>>> replyPortDescription = getNodeStaticInfo(
+                MultipartType.OFPMPPORTDESC, deviceContext, nodeII, version);
+
+        // iteration order is the order of writes
+        final Map<MultipartType, ListenableFuture<RpcResult<List<MultipartReply>>>> replies = ImmutableMap.of(
+                MultipartType.OFPMPMETERFEATURES, replyMeterFeature,
+                MultipartType.OFPMPGROUPFEATURES, replyGroupFeatures,
+                MultipartType.OFPMPTABLEFEATURES, replyTableFeatures,
+                MultipartType.OFPMPPORTDESC, replyPortDescription);
 
-        //first process description reply, write data to DS and write consequent data if successful
-        return Futures.transform(replyDesc,
+        // writes start once all replies are in, so they end up in one transaction
+        final ListenableFuture<RpcResult<List<MultipartReply>>> replyDescWhenAllReplied = Futures.transform(
+                Futures.successfulAsList(replies.values()),
+                new AsyncFunction<List<RpcResult<List<MultipartReply>>>, RpcResult<List<MultipartReply>>>() {
+                    @Override
+                    public ListenableFuture<RpcResult<List<MultipartReply>>> apply(
+                            final List<RpcResult<List<MultipartReply>>> input) throws Exception {
+                        return replyDesc;
+                    }
+                });
+
+        //first write description (it replaces whole flow capable node), then write the rest
+        return Futures.transform(replyDescWhenAllReplied,
                 new AsyncFunction<RpcResult<List<MultipartReply>>, List<RpcResult<List<MultipartReply>>>>() {
                     @Override
                     public ListenableFuture<List<RpcResult<List<MultipartReply>>>> apply(
                             final RpcResult<List<MultipartReply>> rpcResult) throws Exception {
 
-                        translateAndWriteReply(MultipartType.OFPMPDESC, deviceContext,
-                                deviceState.getNodeInstanceIdentifier(), rpcResult.getResult());
-
-                        final ListenableFuture<RpcResult<List<MultipartReply>>> replyMeterFeature = getNodeStaticInfo(
-                                MultipartType.OFPMPMETERFEATURES, deviceContext,
-                                deviceState.getNodeInstanceIdentifier(), deviceState.getVersion());
-
-                        createSuccessProcessingCallback(MultipartType.OFPMPMETERFEATURES, deviceContext,
-                                deviceState.getNodeInstanceIdentifier(), replyMeterFeature);
-
-                        final ListenableFuture<RpcResult<List<MultipartReply>>> replyGroupFeatures = getNodeStaticInfo(
-                                MultipartType.OFPMPGROUPFEATURES, deviceContext,
-                                deviceState.getNodeInstanceIdentifier(), deviceState.getVersion());
-                        createSuccessProcessingCallback(MultipartType.OFPMPGROUPFEATURES, deviceContext,
-                                deviceState.getNodeInstanceIdentifier(), replyGroupFeatures);
-
-                        final ListenableFuture<RpcResult<List<MultipartReply>>> replyTableFeatures;
-                        if (deviceState.isSkipTableFeatures()) {
-                            replyTableFeatures = RpcResultBuilder.<List<MultipartReply>>success().buildFuture();
-                        } else {
-                            replyTableFeatures = getNodeStaticInfo(
-                                    MultipartType.OFPMPTABLEFEATURES, deviceContext,
-                                    deviceState.getNodeInstanceIdentifier(), deviceState.getVersion());
+                        translateAndWriteReply(MultipartType.OFPMPDESC, deviceContext, nodeII, rpcResult.getResult());
+                        for (final Map.Entry<MultipartType, ListenableFuture<RpcResult<List<MultipartReply>>>> reply
+                                : replies.entrySet()) {
+                            writeStaticInfo(reply.getKey(), deviceContext, nodeII, reply.getValue(),
+                                    cachedTableFeatures.get());
                         }
-                        createSuccessProcessingCallback(MultipartType.OFPMPTABLEFEATURES, deviceContext,
-                                deviceState.getNodeInstanceIdentifier(), replyTableFeatures);
-
-                        final ListenableFuture<RpcResult<List<MultipartReply>>> replyPortDescription = getNodeStaticInfo(
-                                MultipartType.OFPMPPORTDESC, deviceContext, deviceState.getNodeInstanceIdentifier(),
-                                deviceState.getVersion());
-                        createSuccessProcessingCallback(MultipartType.OFPMPPORTDESC, deviceContext,
-                                deviceState.getNodeInstanceIdentifier(), replyPortDescription);
+
                         if (switchFeaturesMandatory) {
-                            return Futures.allAsList(Arrays.asList(replyMeterFeature, replyGroupFeatures,
-                                    replyTableFeatures, replyPortDescription));
+                            return Futures.allAsList(replies.values());
                         } else {
-                            return Futures.successfulAsList(Arrays.asList(replyMeterFeature, replyGroupFeatures,
-                                    replyTableFeatures, replyPortDescription));
+                            return Futures.successfulAsList(replies.values());
                         }
                     }
                 });
+    }
+
+    /**
+     * Writes completed static info reply, failed request is only logged.
+     *
+     * @param cachedTables table features to be written instead of table features reply
+     */
+    static void writeStaticInfo(final MultipartType type, final DeviceContext deviceContext,
+            final InstanceIdentifier<Node> nodeII, final ListenableFuture<RpcResult<List<MultipartReply>>> reply,
+            @Nullable final List<TableFeatures> cachedTables) {
+        if (MultipartType.OFPMPTABLEFEATURES.equals(type) && cachedTables != null) {
+            LOG.info("Static node {} info: {} taken from cache", deviceContext.getDeviceState().getNodeId(), type);
+            try {
+                writeTables(deviceContext, nodeII, cachedTables);
+            } catch (final Exception e) {
+                LOG.debug("Failed to write node {} to DS ", deviceContext.getDeviceState().getNodeId().toString(), e);
+            }
+            return;
+        }
 
+        final RpcResult<List<MultipartReply>> rpcResult;
+        try {
+            rpcResult = Uninterruptibles.getUninterruptibly(reply);
+        } catch (final ExecutionException e) {
+            LOG.info("Request of type {} for static info of node {} failed.", type, nodeII);
+            return;
+        }
+        processStaticInfo(type, deviceContext, nodeII, rpcResult);
+    }
+
+    /**
+     * Takes table features from cache if they are there, otherwise requests them from device and caches them.
+     * Cached table features are handed over in given reference and returned future holds empty reply.
+     */
+    private static ListenableFuture<RpcResult<List<MultipartReply>>> getTableFeatures(
+            final DeviceContext deviceContext, final TableFeaturesCache tableFeaturesCache,
+            @Nullable final TableFeaturesCache.Key key, final AtomicReference<List<TableFeatures>> cachedTableFeatures) {
+        final DeviceState deviceState = deviceContext.getDeviceState();
+        final List<TableFeatures> cachedTables = key == null ? null : tableFeaturesCache.get(key);
+        if (cachedTables != null) {
+            cachedTableFeatures.set(cachedTables);
+            return RpcResultBuilder.<List<MultipartReply>>success(Collections.<MultipartReply>emptyList())
+                    .buildFuture();
+        }
+
+        final ListenableFuture<RpcResult<List<MultipartReply>>> replyTableFeatures = getNodeStaticInfo(
+                MultipartType.OFPMPTABLEFEATURES, deviceContext, deviceState.getNodeInstanceIdentifier(),
+                deviceState.getVersion());
+        if (key != null) {
+            Futures.addCallback(replyTableFeatures, new FutureCallback<RpcResult<List<MultipartReply>>>() {
+                @Override
+                public void onSuccess(final RpcResult<List<MultipartReply>> rpcResult) {
+                    if (rpcResult.isSuccessful() && rpcResult.getResult() != null) {
+                        tableFeaturesCache.put(key, rpcResult.getResult());
+                    }
+                }
+
+                @Override
+                public void onFailure(final Throwable throwable) {
+                    // NOOP - nothing to cache
+                }
+            });
+        }
+        return replyTableFeatures;
+    }
+
+    /**
+     * @return cache key of device or null if description reply is missing
+     */
+    @Nullable
+    private static TableFeaturesCache.Key createTableFeaturesKey(final DeviceContext deviceContext,
+            @Nullable final List<MultipartReply> descReplies) {
+        if (descReplies == null) {
+            return null;
+        }
+        final BigInteger datapathId = deviceContext.getPrimaryConnectionContext().getFeatures().getDatapathId();
+        for (final MultipartReply reply : descReplies) {
+            final MultipartReplyBody body = reply.getMultipartReplyBody();
+            if (datapathId != null && body instanceof MultipartReplyDescCase) {
+                final MultipartReplyDesc replyDesc = ((MultipartReplyDescCase) body).getMultipartReplyDesc();
+                return new TableFeaturesCache.Key(datapathId, replyDesc.getMfrDesc(), replyDesc.getHwDesc(),
+                        replyDesc.getSwDesc());
+            }
+        }
+        return null;
+    }
+
+    private static void writeTables(final DeviceContext dContext, final InstanceIdentifier<Node> nodeII,
+            final List<TableFeatures> tables) throws Exception {
+        for (final TableFeatures table : tables) {
+            final Short tableId = table.getTableId();
+            final InstanceIdentifier<Table> tableII = nodeII.augmentation(FlowCapableNode.class).child(
+                    Table.class, new TableKey(tableId));
+            final TableBuilder tableBuilder = new TableBuilder().setId(tableId).setTableFeatures(
+                    Collections.singletonList(table));
+            tableBuilder.addAugmentation(FlowTableStatisticsData.class,
+                    new FlowTableStatisticsDataBuilder().build());
+            dContext.writeToTransaction(LogicalDatastoreType.OPERATIONAL, tableII, tableBuilder.build());
+        }
     }
 
     static void translateAndWriteReply(final MultipartType type, final DeviceContext dContext,
@@ -276,16 +437,7 @@ public class DeviceInitializationUtils {
                             .getMultipartReplyTableFeatures();
                     final List<TableFeatures> tables = NodeStaticReplyTranslatorUtil
                             .nodeTableFeatureTranslator(tableFeatures);
-                    for (final TableFeatures table : tables) {
-                        final Short tableId = table.getTableId();
-                        final InstanceIdentifier<Table> tableII = nodeII.augmentation(FlowCapableNode.class).child(
-                                Table.class, new TableKey(tableId));
-                        final TableBuilder tableBuilder = new TableBuilder().setId(tableId).setTableFeatures(
-                                Collections.singletonList(table));
-                        tableBuilder.addAugmentation(FlowTableStatisticsData.class,
-                                new FlowTableStatisticsDataBuilder().build());
-                        dContext.writeToTransaction(LogicalDatastoreType.OPERATIONAL, tableII, tableBuilder.build());
-                    }
+                    writeTables(dContext, nodeII, tables);
                     break;
 
                 case OFPMPMETERFEATURES:
@@ -407,37 +559,26 @@ public class DeviceInitializationUtils {
         }
     }
 
-    static void createSuccessProcessingCallback(final MultipartType type, final DeviceContext deviceContext,
-            final InstanceIdentifier<Node> nodeII,
-            final ListenableFuture<RpcResult<List<MultipartReply>>> requestContextFuture) {
-        Futures.addCallback(requestContextFuture, new FutureCallback<RpcResult<List<MultipartReply>>>() {
-            @Override
-            public void onSuccess(final RpcResult<List<MultipartReply>> rpcResult) {
-                final List<MultipartReply> result = rpcResult.getResult();
-                if (result != null) {
-                    LOG.info("Static node {} info: {} collected", deviceContext.getDeviceState().getNodeId(), type);
-                    translateAndWriteReply(type, deviceContext, nodeII, result);
-                } else {
-                    final Iterator<RpcError> rpcErrorIterator = rpcResult.getErrors().iterator();
-                    while (rpcErrorIterator.hasNext()) {
-                        final RpcError rpcError = rpcErrorIterator.next();
-                        LOG.info("Failed to retrieve static node {} info: {}", type, rpcError.getMessage());
-                        if (null != rpcError.getCause()) {
-                            LOG.trace("Detailed error:", rpcError.getCause());
-                        }
-                    }
-                    if (MultipartType.OFPMPTABLEFEATURES.equals(type)) {
-                        makeEmptyTables(deviceContext, nodeII, deviceContext.getPrimaryConnectionContext()
-                                .getFeatures().getTables());
-                    }
+    private static void processStaticInfo(final MultipartType type, final DeviceContext deviceContext,
+            final InstanceIdentifier<Node> nodeII, final RpcResult<List<MultipartReply>> rpcResult) {
+        final List<MultipartReply> result = rpcResult.getResult();
+        if (result != null) {
+            LOG.info("Static node {} info: {} collected", deviceContext.getDeviceState().getNodeId(), type);
+            translateAndWriteReply(type, deviceContext, nodeII, result);
+        } else {
+            final Iterator<RpcError> rpcErrorIterator = rpcResult.getErrors().iterator();
+            while (rpcErrorIterator.hasNext()) {
+                final RpcError rpcError = rpcErrorIterator.next();
+                LOG.info("Failed to retrieve static node {} info: {}", type, rpcError.getMessage());
+                if (null != rpcError.getCause()) {
+                    LOG.trace("Detailed error:", rpcError.getCause());
                 }
             }
-
-            @Override
-            public void onFailure(final Throwable throwable) {
-                LOG.info("Request of type {} for static info of node {} failed.", type, nodeII);
+            if (MultipartType.OFPMPTABLEFEATURES.equals(type)) {
+                makeEmptyTables(deviceContext, nodeII, deviceContext.getPrimaryConnectionContext()
+                        .getFeatures().getTables());
             }
-        });
+        }
     }
 
     private static ListenableFuture<RpcResult<List<MultipartReply>>> getNodeStaticInfo(final MultipartType type,
@@ -481,10 +622,6 @@ public class DeviceInitializationUtils {
                         final RpcResult<List<MultipartReply>> rpcResult = RpcResultBuilder
                                 .<List<MultipartReply>> failed().build();
                         requestContext.setResult(rpcResult);
-                        if (MultipartType.OFPMPTABLEFEATURES.equals(type)) {
-                            makeEmptyTables(deviceContext, nodeII, deviceContext.getPrimaryConnectionContext()
-                                    .getFeatures().getTables());
-                        }
                         requestContext.close();
                     }
                 });
@@ -12,10 +12,12 @@ import com.google.common.base.Verify;
 import com.google.common.reflect.TypeToken;
 import java.util.concurrent.atomic.AtomicLong;
 import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
 import org.opendaylight.controller.md.sal.binding.api.NotificationPublishService;
 import org.opendaylight.openflowplugin.api.openflow.device.DeviceContext;
 import org.opendaylight.openflowplugin.api.openflow.rpc.RpcContext;
 import org.opendaylight.openflowplugin.api.openflow.statistics.compatibility.Delegator;
+import org.opendaylight.openflowplugin.impl.device.TableFeaturesCache;
 import org.opendaylight.openflowplugin.impl.services.FlowCapableTransactionServiceImpl;
 import org.opendaylight.openflowplugin.impl.services.NodeConfigServiceImpl;
 import org.opendaylight.openflowplugin.impl.services.PacketProcessingServiceImpl;
@@ -24,6 +26,7 @@ import org.opendaylight.openflowplugin.impl.services.SalExperimenterMessageServi
 import org.opendaylight.openflowplugin.impl.services.SalFlatBatchServiceImpl;
 import org.opendaylight.openflowplugin.impl.services.SalFlowServiceImpl;
 import org.opendaylight.openflowplugin.impl.services.SalFlowsBatchServiceImpl;
+import org.opendaylight.openflowplugin.impl.services.SalFlowsBulkServiceImpl;
 import org.opendaylight.openflowplugin.impl.services.SalGroupServiceImpl;
 import org.opendaylight.openflowplugin.impl.services.SalGroupsBatchServiceImpl;
 import org.opendaylight.openflowplugin.impl.services.SalMeterServiceImpl;
@@ -44,6 +47,7 @@ import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.service.rev130819.SalF
 import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.statistics.rev130819.OpendaylightFlowStatisticsService;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.table.statistics.rev131215.OpendaylightFlowTableStatisticsService;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.transaction.rev150304.FlowCapableTransactionService;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flows.service.rev160314.SalFlowsBatchService;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.group.service.rev130918.SalGroupService;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.group.statistics.rev131111.OpendaylightGroupStatisticsService;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.meter.service.rev130918.SalMeterService;
@@ -78,6 +82,22 @@ public class MdSalRegistrationUtils {
      */
     public static void registerMasterServices(@CheckForNull final RpcContext rpcContext,
                                               @CheckForNull final DeviceContext deviceContext, @CheckForNull final OfpRole newRole) {
+        registerMasterServices(rpcContext, deviceContext, newRole, null, false);
+    }
+
+    /**
+     * Method registers all OF services for role {@link OfpRole#BECOMEMASTER}
+     *
+     * @param rpcContext         - registration processing is implemented in {@link RpcContext}
+     * @param deviceContext      - every service needs {@link DeviceContext} as input parameter
+     * @param newRole            - role validation for {@link OfpRole#BECOMEMASTER}
+     * @param tableFeaturesCache - table features of device are invalidated there after successful table update
+     * @param useBulkFlowMods    - flat batch sends flow steps as bulk of FLOW_MODs instead of flow service rpcs
+     */
+    public static void registerMasterServices(@CheckForNull final RpcContext rpcContext,
+                                              @CheckForNull final DeviceContext deviceContext, @CheckForNull final OfpRole newRole,
+                                              @Nullable final TableFeaturesCache tableFeaturesCache,
+                                              final boolean useBulkFlowMods) {
         Preconditions.checkArgument(rpcContext != null);
         Preconditions.checkArgument(deviceContext != null);
         Preconditions.checkArgument(newRole != null);
@@ -96,14 +116,20 @@ public class MdSalRegistrationUtils {
         rpcContext.registerRpcServiceImplementation(FlowCapableTransactionService.class, flowCapableTransactionService);
         rpcContext.registerRpcServiceImplementation(SalMeterService.class, salMeterService);
         rpcContext.registerRpcServiceImplementation(SalGroupService.class, salGroupService);
-        rpcContext.registerRpcServiceImplementation(SalTableService.class, new SalTableServiceImpl(rpcContext, deviceContext));
+        rpcContext.registerRpcServiceImplementation(SalTableService.class, new SalTableServiceImpl(rpcContext, deviceContext, tableFeaturesCache));
         rpcContext.registerRpcServiceImplementation(SalPortService.class, new SalPortServiceImpl(rpcContext, deviceContext));
         rpcContext.registerRpcServiceImplementation(PacketProcessingService.class, new PacketProcessingServiceImpl(rpcContext, deviceContext));
         rpcContext.registerRpcServiceImplementation(NodeConfigService.class, new NodeConfigServiceImpl(rpcContext, deviceContext));
         rpcContext.registerRpcServiceImplementation(OpendaylightFlowStatisticsService.class, new OpendaylightFlowStatisticsServiceImpl(rpcContext, deviceContext));
 
+        // flat batch orders its steps by barriers which go over primary connection only -> flows must not be spread
+        // over auxiliary connections
+        final SalFlowsBatchService salFlowsBatchService = useBulkFlowMods
+                ? new SalFlowsBulkServiceImpl(rpcContext, deviceContext, flowCapableTransactionService, true)
+                : new SalFlowsBatchServiceImpl(new SalFlowServiceImpl(rpcContext, deviceContext, true),
+                        flowCapableTransactionService);
         final SalFlatBatchServiceImpl salFlatBatchService = new SalFlatBatchServiceImpl(
-                new SalFlowsBatchServiceImpl(salFlowService, flowCapableTransactionService),
+                salFlowsBatchService,
                 new SalGroupsBatchServiceImpl(salGroupService, flowCapableTransactionService),
                 new SalMetersBatchServiceImpl(salMeterService, flowCapableTransactionService)
         );
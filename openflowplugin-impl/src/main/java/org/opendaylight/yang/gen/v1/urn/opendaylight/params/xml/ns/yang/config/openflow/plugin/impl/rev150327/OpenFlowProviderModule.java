@@ -40,17 +40,33 @@ public class OpenFlowProviderModule extends org.opendaylight.yang.gen.v1.urn.ope
         openflowPluginProvider.setNotificationPublishService(getNotificationPublishAdapterDependency());
         openflowPluginProvider.setSwitchFeaturesMandatory(getSwitchFeaturesMandatory());
         openflowPluginProvider.setIsStatisticsPollingOff(getIsStatisticsPollingOff());
+        openflowPluginProvider.setIsStatisticsWriteIncremental(getIsStatisticsWriteIncremental());
+        openflowPluginProvider.setStatisticsGatheringWindow(getStatisticsGatheringWindow().getValue());
+        openflowPluginProvider.setIsFlowRegistryCompact(getIsFlowRegistryCompact());
+        openflowPluginProvider.setIsFlowRegistryKeyNormalized(getIsFlowRegistryKeyNormalized());
+        openflowPluginProvider.setPacketInPortRate(getPacketInPortRate());
+        openflowPluginProvider.setPacketInDeviceRate(getPacketInDeviceRate());
+        openflowPluginProvider.setTransactionCoalescingSize(getTransactionCoalescingSize());
+        openflowPluginProvider.setTransactionCoalescingDelay(getTransactionCoalescingDelay().getValue());
         openflowPluginProvider.setEntityOwnershipService(getEntityOwnershipServiceDependency());
         openflowPluginProvider.setIsStatisticsRpcEnabled(getIsStatisticsRpcEnabled());
         openflowPluginProvider.setBarrierCountLimit(getBarrierCountLimit().getValue());
         openflowPluginProvider.setBarrierInterval(getBarrierIntervalTimeoutLimit().getValue());
         openflowPluginProvider.setEchoReplyTimeout(getEchoReplyTimeout().getValue());
+        openflowPluginProvider.setHandshakeConcurrencyLimit(getHandshakeConcurrencyLimit());
+        openflowPluginProvider.setHandshakeQueueSize(getHandshakeQueueSize());
+        openflowPluginProvider.setHandshakeQueueTimeout(getHandshakeQueueTimeout().getValue());
+        openflowPluginProvider.setUseAuxiliaryConnections(getUseAuxiliaryConnections());
+        openflowPluginProvider.setUseBulkFlowMods(getUseBulkFlowMods());
+        openflowPluginProvider.setFlowConversionCacheSize(getFlowConversionCacheSize());
+        openflowPluginProvider.setCacheTableFeatures(getCacheTableFeatures());
+        openflowPluginProvider.setTableFeaturesCacheDirectory(getTableFeaturesCacheDirectory());
         openflowPluginProvider.setSkipTableFeatures(getSkipTableFeatures());
 
         openflowPluginProvider.initialize();
 
-        LOG.info("Configured values, StatisticsPollingOff:{}, SwitchFeaturesMandatory:{}, BarrierCountLimit:{}, BarrierTimeoutLimit:{}, EchoReplyTimeout:{}",
-                getIsStatisticsPollingOff(), getSwitchFeaturesMandatory(), getBarrierCountLimit().getValue(),
+        LOG.info("Configured values, StatisticsPollingOff:{}, StatisticsWriteIncremental:{}, SwitchFeaturesMandatory:{}, BarrierCountLimit:{}, BarrierTimeoutLimit:{}, EchoReplyTimeout:{}",
+                getIsStatisticsPollingOff(), getIsStatisticsWriteIncremental(), getSwitchFeaturesMandatory(), getBarrierCountLimit().getValue(),
                 getBarrierIntervalTimeoutLimit().getValue(), getEchoReplyTimeout().getValue());
 
 
@@ -0,0 +1,258 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.openflowplugin.impl.connection;
+
+import io.netty.util.Timeout;
+import io.netty.util.TimerTask;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Matchers;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.opendaylight.openflowjava.protocol.api.connection.ConnectionAdapter;
+import org.opendaylight.openflowplugin.api.openflow.connection.ConnectionContext;
+import org.opendaylight.openflowplugin.api.openflow.lifecycle.LifecycleConductor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Test for {@link HandshakeAdmissionControl}.
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class HandshakeAdmissionControlTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(HandshakeAdmissionControlTest.class);
+    private static final long MAX_WAIT = 60000;
+
+    @Mock
+    private LifecycleConductor conductor;
+    @Mock
+    private Timeout timeout;
+
+    private ExecutorService replayExecutor;
+
+    @Before
+    public void setUp() throws Exception {
+        Mockito.when(conductor.newTimeout(Matchers.any(TimerTask.class), Matchers.anyLong(), Matchers.any(TimeUnit.class)))
+                .thenReturn(timeout);
+        replayExecutor = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        replayExecutor.shutdownNow();
+    }
+
+    @Test
+    public void testUnlimited() throws Exception {
+        final HandshakeAdmissionControl admissionControl = new HandshakeAdmissionControl(0, 0, MAX_WAIT, conductor, replayExecutor);
+        final Runnable replay = Mockito.mock(Runnable.class);
+
+        Assert.assertTrue(admissionControl.accept(InetAddress.getByName("10.0.0.1")));
+        for (int i = 0; i < 10; i++) {
+            Assert.assertTrue(admissionControl.createTicket(mockConnectionContext(i)).admitOrDefer(replay));
+        }
+        Mockito.verifyZeroInteractions(conductor, replay);
+    }
+
+    @Test
+    public void testQueueAndRelease() throws Exception {
+        final HandshakeAdmissionControl admissionControl = new HandshakeAdmissionControl(1, 10, MAX_WAIT, conductor, replayExecutor);
+        final HandshakeAdmissionControl.Ticket first = admissionControl.createTicket(mockConnectionContext(1));
+        final HandshakeAdmissionControl.Ticket second = admissionControl.createTicket(mockConnectionContext(2));
+        final CountDownLatch replayed = new CountDownLatch(2);
+        final Runnable replay = new Runnable() {
+            @Override
+            public void run() {
+                replayed.countDown();
+            }
+        };
+
+        Assert.assertTrue(first.admitOrDefer(replay));
+        Assert.assertFalse(second.admitOrDefer(replay));
+        // connection ready and hello of the same connection are both deferred
+        Assert.assertFalse(second.admitOrDefer(replay));
+        Assert.assertEquals(1, admissionControl.getActiveHandshakes());
+        Assert.assertEquals(1, admissionControl.getPendingHandshakes());
+
+        first.release();
+        first.release();
+
+        Assert.assertTrue(replayed.await(5, TimeUnit.SECONDS));
+        Mockito.verify(timeout).cancel();
+        Assert.assertTrue(second.admitOrDefer(replay));
+        Assert.assertEquals(1, admissionControl.getActiveHandshakes());
+        Assert.assertEquals(0, admissionControl.getPendingHandshakes());
+
+        second.release();
+        Assert.assertEquals(0, admissionControl.getActiveHandshakes());
+        Assert.assertEquals(2, admissionControl.getHandshakeDurations().getCount());
+    }
+
+    @Test
+    public void testKnownAddressPriority() throws Exception {
+        final HandshakeAdmissionControl admissionControl = new HandshakeAdmissionControl(1, 1, MAX_WAIT, conductor, replayExecutor);
+        admissionControl.markKnown(addressOf(3));
+
+        final HandshakeAdmissionControl.Ticket running = admissionControl.createTicket(mockConnectionContext(1));
+        final HandshakeAdmissionControl.Ticket unknown = admissionControl.createTicket(mockConnectionContext(2));
+        final HandshakeAdmissionControl.Ticket known = admissionControl.createTicket(mockConnectionContext(3));
+        final CountDownLatch knownReplayed = new CountDownLatch(1);
+
+        Assert.assertTrue(running.admitOrDefer(Mockito.mock(Runnable.class)));
+        Assert.assertFalse(unknown.admitOrDefer(Mockito.mock(Runnable.class)));
+        // queue is full but returning switch is still accepted and goes first
+        Assert.assertFalse(admissionControl.accept(addressOf(4)));
+        Assert.assertTrue(admissionControl.accept(addressOf(3)));
+        Assert.assertFalse(known.admitOrDefer(new Runnable() {
+            @Override
+            public void run() {
+                knownReplayed.countDown();
+            }
+        }));
+
+        running.release();
+
+        Assert.assertTrue(knownReplayed.await(5, TimeUnit.SECONDS));
+        Assert.assertTrue(known.admitOrDefer(Mockito.mock(Runnable.class)));
+        Assert.assertEquals(1, admissionControl.getPendingHandshakes());
+        Assert.assertEquals(1, admissionControl.getRejectedConnections());
+    }
+
+    @Test
+    public void testQueueFull() throws Exception {
+        final HandshakeAdmissionControl admissionControl = new HandshakeAdmissionControl(1, 0, MAX_WAIT, conductor, replayExecutor);
+        final ConnectionContext refusedContext = mockConnectionContext(2);
+
+        Assert.assertTrue(admissionControl.createTicket(mockConnectionContext(1)).admitOrDefer(Mockito.mock(Runnable.class)));
+        Assert.assertFalse(admissionControl.createTicket(refusedContext).admitOrDefer(Mockito.mock(Runnable.class)));
+
+        Mockito.verify(refusedContext).closeConnection(false);
+        Assert.assertEquals(1, admissionControl.getRejectedConnections());
+        Assert.assertTrue(admissionControl.estimateBackOffMillis() >= HandshakeAdmissionControl.MIN_BACK_OFF_MILLIS);
+    }
+
+    @Test
+    public void testWaitExpired() throws Exception {
+        final HandshakeAdmissionControl admissionControl = new HandshakeAdmissionControl(1, 10, MAX_WAIT, conductor, replayExecutor);
+        final ConnectionContext waitingContext = mockConnectionContext(2);
+        final HandshakeAdmissionControl.Ticket running = admissionControl.createTicket(mockConnectionContext(1));
+        final HandshakeAdmissionControl.Ticket waiting = admissionControl.createTicket(waitingContext);
+        final Runnable replay = Mockito.mock(Runnable.class);
+
+        Assert.assertTrue(running.admitOrDefer(replay));
+        Assert.assertFalse(waiting.admitOrDefer(replay));
+
+        final ArgumentCaptor<TimerTask> timerTaskCaptor = ArgumentCaptor.forClass(TimerTask.class);
+        Mockito.verify(conductor).newTimeout(timerTaskCaptor.capture(), Matchers.eq(MAX_WAIT), Matchers.eq(TimeUnit.MILLISECONDS));
+        timerTaskCaptor.getValue().run(timeout);
+
+        Mockito.verify(waitingContext).closeConnection(false);
+        Assert.assertEquals(0, admissionControl.getPendingHandshakes());
+        Assert.assertEquals(1, admissionControl.getExpiredHandshakes());
+
+        // expired ticket does not get the slot
+        running.release();
+        Assert.assertEquals(0, admissionControl.getActiveHandshakes());
+        Mockito.verifyZeroInteractions(replay);
+    }
+
+    /**
+     * Simulation of controller restart - all switches reconnect at once and every handshake takes a while.
+     */
+    @Test
+    public void testReconnectStorm() throws Exception {
+        final int switches = 2000;
+        final int concurrencyLimit = 64;
+        final long handshakeMillis = 2;
+        final HandshakeAdmissionControl admissionControl = new HandshakeAdmissionControl(concurrencyLimit, switches,
+                MAX_WAIT, conductor, replayExecutor);
+        final ExecutorService handshakeWorkers = Executors.newCachedThreadPool();
+        final AtomicInteger runningHandshakes = new AtomicInteger();
+        final AtomicInteger maxRunningHandshakes = new AtomicInteger();
+        final CountDownLatch connected = new CountDownLatch(switches);
+
+        final List<ConnectionContext> connectionContexts = new ArrayList<>(switches);
+        for (int i = 0; i < switches; i++) {
+            connectionContexts.add(mockConnectionContext(i));
+        }
+
+        final long start = System.nanoTime();
+        for (final ConnectionContext connectionContext : connectionContexts) {
+            final HandshakeAdmissionControl.Ticket ticket = admissionControl.createTicket(connectionContext);
+            final Runnable handshake = new Runnable() {
+                @Override
+                public void run() {
+                    handshakeWorkers.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            final int running = runningHandshakes.incrementAndGet();
+                            int max = maxRunningHandshakes.get();
+                            while (running > max && !maxRunningHandshakes.compareAndSet(max, running)) {
+                                max = maxRunningHandshakes.get();
+                            }
+                            try {
+                                Thread.sleep(handshakeMillis);
+                            } catch (final InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                            runningHandshakes.decrementAndGet();
+                            ticket.release();
+                            connected.countDown();
+                        }
+                    });
+                }
+            };
+
+            if (ticket.admitOrDefer(handshake)) {
+                handshake.run();
+            }
+        }
+
+        Assert.assertTrue(connected.await(30, TimeUnit.SECONDS));
+        final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        handshakeWorkers.shutdownNow();
+        LOG.info("{} switches connected in {} ms, handshake concurrency limit: {}, handshake durations: {}",
+                switches, elapsedMillis, concurrencyLimit, admissionControl.getHandshakeDurations());
+
+        Assert.assertTrue(maxRunningHandshakes.get() <= concurrencyLimit);
+        Assert.assertEquals(0, admissionControl.getActiveHandshakes());
+        Assert.assertEquals(0, admissionControl.getPendingHandshakes());
+        Assert.assertEquals(switches, admissionControl.getHandshakeDurations().getCount());
+        for (final ConnectionContext connectionContext : connectionContexts) {
+            Mockito.verify(connectionContext, Mockito.never()).closeConnection(Matchers.anyBoolean());
+        }
+    }
+
+    private static InetAddress addressOf(final int index) throws Exception {
+        return InetAddress.getByAddress(new byte[]{10, 0, (byte) (index >> 8), (byte) index});
+    }
+
+    private static ConnectionContext mockConnectionContext(final int index) throws Exception {
+        final ConnectionAdapter connectionAdapter = Mockito.mock(ConnectionAdapter.class);
+        Mockito.when(connectionAdapter.getRemoteAddress()).thenReturn(new InetSocketAddress(addressOf(index), 6633));
+        final ConnectionContext connectionContext = Mockito.mock(ConnectionContext.class);
+        Mockito.when(connectionContext.getConnectionAdapter()).thenReturn(connectionAdapter);
+        return connectionContext;
+    }
+}
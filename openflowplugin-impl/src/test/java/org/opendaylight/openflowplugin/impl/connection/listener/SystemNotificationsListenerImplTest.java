@@ -10,23 +10,27 @@ package org.opendaylight.openflowplugin.impl.connection.listener;
 
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.SettableFuture;
+import io.netty.util.Timeout;
+import io.netty.util.TimerTask;
 import java.net.InetSocketAddress;
 import java.util.concurrent.Future;
-import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.TimeUnit;
 
 import org.junit.After;
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Matchers;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.runners.MockitoJUnitRunner;
 import org.opendaylight.openflowjava.protocol.api.connection.ConnectionAdapter;
 import org.opendaylight.openflowplugin.api.openflow.connection.ConnectionContext;
+import org.opendaylight.openflowplugin.api.openflow.lifecycle.LifecycleConductor;
 import org.opendaylight.openflowplugin.impl.connection.ConnectionContextImpl;
-import org.opendaylight.openflowplugin.openflow.md.core.ThreadPoolLoggingExecutor;
+import org.opendaylight.openflowplugin.impl.statistics.ofpspecific.MessageIntelligenceAgencyImpl;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.NodeId;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.EchoInput;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.EchoOutput;
@@ -52,6 +56,12 @@ public class SystemNotificationsListenerImplTest {
     private ConnectionAdapter connectionAdapter;
     @Mock
     private FeaturesReply features;
+    @Mock
+    private LifecycleConductor conductor;
+    @Mock
+    private Timeout timeout;
+
+    private MessageIntelligenceAgencyImpl messageIntelligenceAgency;
 
     private ConnectionContext connectionContext;
     private ConnectionContextImpl connectionContextGolem;
@@ -75,11 +85,12 @@ public class SystemNotificationsListenerImplTest {
         Mockito.when(connectionContext.getConnectionAdapter()).thenReturn(connectionAdapter);
         Mockito.when(connectionContext.getFeatures()).thenReturn(features);
 
-        final ThreadPoolLoggingExecutor threadPool = new ThreadPoolLoggingExecutor(0, Integer.MAX_VALUE,
-                60L, TimeUnit.SECONDS,
-                new SynchronousQueue<Runnable>(), "opfpool");
+        Mockito.when(conductor.newTimeout(Matchers.any(TimerTask.class), Matchers.anyLong(), Matchers.any(TimeUnit.class)))
+                .thenReturn(timeout);
+        messageIntelligenceAgency = new MessageIntelligenceAgencyImpl();
+        Mockito.when(conductor.getMessageIntelligenceAgency()).thenReturn(messageIntelligenceAgency);
 
-        systemNotificationsListener = new SystemNotificationsListenerImpl(connectionContext, ECHO_REPLY_TIMEOUT, threadPool);
+        systemNotificationsListener = new SystemNotificationsListenerImpl(connectionContext, ECHO_REPLY_TIMEOUT, conductor);
     }
 
     @After
@@ -179,14 +190,16 @@ public class SystemNotificationsListenerImplTest {
         SwitchIdleEvent notification = new SwitchIdleEventBuilder().setInfo("wake up, device sleeps").build();
         systemNotificationsListener.onSwitchIdleEvent(notification);
 
-        // make sure that the idle notification processing thread started
-        Thread.sleep(SAFE_TIMEOUT);
-
         verifyCommonInvocations();
-        Mockito.verify(connectionAdapter, Mockito.timeout(SAFE_TIMEOUT)).echo(Matchers.any(EchoInput.class));
+        Mockito.verify(connectionAdapter).echo(Matchers.any(EchoInput.class));
         Mockito.verify(connectionAdapter, Mockito.never()).disconnect();
         Mockito.verify(connectionContext).changeStateToTimeouting();
         Mockito.verify(connectionContext).changeStateToWorking();
+        Mockito.verify(connectionContext).getNodeId();
+        // deadline and pipelined echo are not needed anymore
+        Mockito.verify(timeout, Mockito.times(2)).cancel();
+        Assert.assertEquals(1, systemNotificationsListener.getEchoRoundTripTimes().getCount());
+        Assert.assertTrue(messageIntelligenceAgency.provideEchoRoundTripTimes().containsKey(nodeId.getValue()));
     }
 
     /**
@@ -204,15 +217,65 @@ public class SystemNotificationsListenerImplTest {
         SwitchIdleEvent notification = new SwitchIdleEventBuilder().setInfo("wake up, device sleeps").build();
         systemNotificationsListener.onSwitchIdleEvent(notification);
 
-        Thread.sleep(SystemNotificationsListenerImpl.MAX_ECHO_REPLY_TIMEOUT + SAFE_TIMEOUT);
+        // no thread waits for the reply, the rest is driven by timer
+        Mockito.verify(connectionAdapter).echo(Matchers.any(EchoInput.class));
+        runTimerTask(1);
+        runTimerTask(2);
+        Mockito.verify(connectionAdapter, Mockito.times(SystemNotificationsListenerImpl.MAX_OUTSTANDING_ECHOES))
+                .echo(Matchers.any(EchoInput.class));
+        Mockito.verify(conductor, Mockito.times(SystemNotificationsListenerImpl.MAX_OUTSTANDING_ECHOES))
+                .newTimeout(Matchers.any(TimerTask.class), Matchers.anyLong(), Matchers.any(TimeUnit.class));
+        Mockito.verify(connectionContext, Mockito.never()).closeConnection(Matchers.anyBoolean());
+
+        // echo reply timeout expired
+        runTimerTask(0);
 
         verifyCommonInvocations();
-        Mockito.verify(connectionAdapter, Mockito.timeout(SAFE_TIMEOUT)).echo(Matchers.any(EchoInput.class));
         Mockito.verify(connectionAdapter).disconnect();
         Mockito.verify(connectionContext).changeStateToTimeouting();
         Mockito.verify(connectionContext).closeConnection(true);
+        Mockito.verify(connectionContext, Mockito.atLeastOnce()).getNodeId();
+        Assert.assertTrue(messageIntelligenceAgency.provideEchoRoundTripTimes().isEmpty());
+
+        // late reply must not revive closed connection
+        echoReply.set(RpcResultBuilder.success(new EchoOutputBuilder().build()).build());
+        Mockito.verify(connectionContext, Mockito.never()).changeStateToWorking();
+    }
+
+    /**
+     * idle event, first echo lost but pipelined one answered in time
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testOnSwitchIdleEvent3() throws Exception {
+        final SettableFuture<RpcResult<EchoOutput>> lostEchoReply = SettableFuture.create();
+        final SettableFuture<RpcResult<EchoOutput>> echoReply = SettableFuture.create();
+        Mockito.when(connectionAdapter.echo(Matchers.any(EchoInput.class))).thenReturn(lostEchoReply, echoReply);
+
+        SwitchIdleEvent notification = new SwitchIdleEventBuilder().setInfo("wake up, device sleeps").build();
+        systemNotificationsListener.onSwitchIdleEvent(notification);
+        runTimerTask(1);
+        echoReply.set(RpcResultBuilder.success(new EchoOutputBuilder().build()).build());
+
+        verifyCommonInvocations();
+        Mockito.verify(connectionAdapter, Mockito.times(2)).echo(Matchers.any(EchoInput.class));
+        Mockito.verify(connectionContext).changeStateToTimeouting();
+        Mockito.verify(connectionContext).changeStateToWorking();
         Mockito.verify(connectionContext).getNodeId();
 
+        // timer tasks of finished probe do nothing
+        runTimerTask(0);
+        runTimerTask(2);
+        Mockito.verify(connectionAdapter, Mockito.times(2)).echo(Matchers.any(EchoInput.class));
+        Mockito.verify(connectionContext, Mockito.never()).closeConnection(Matchers.anyBoolean());
+    }
+
+    private void runTimerTask(final int index) throws Exception {
+        final ArgumentCaptor<TimerTask> timerTaskCaptor = ArgumentCaptor.forClass(TimerTask.class);
+        Mockito.verify(conductor, Mockito.atLeast(index + 1))
+                .newTimeout(timerTaskCaptor.capture(), Matchers.anyLong(), Matchers.any(TimeUnit.class));
+        timerTaskCaptor.getAllValues().get(index).run(timeout);
     }
 
     private void verifyCommonInvocations() {
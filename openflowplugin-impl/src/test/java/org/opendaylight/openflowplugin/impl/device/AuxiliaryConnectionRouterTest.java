@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.openflowplugin.impl.device;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.opendaylight.openflowplugin.api.openflow.connection.ConnectionContext;
+
+/**
+ * Test for {@link AuxiliaryConnectionRouter}.
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class AuxiliaryConnectionRouterTest {
+
+    private static final int KEYS = 256;
+
+    @Mock
+    private ConnectionContext primaryConnectionContext;
+
+    private AuxiliaryConnectionRouter router;
+
+    @Before
+    public void setUp() throws Exception {
+        router = new AuxiliaryConnectionRouter(primaryConnectionContext);
+    }
+
+    @Test
+    public void testNoAuxiliaryConnection() throws Exception {
+        for (long key = 0; key < KEYS; key++) {
+            Assert.assertSame(primaryConnectionContext, router.select(key));
+        }
+    }
+
+    @Test
+    public void testSpreadAndStability() throws Exception {
+        final ConnectionContext[] auxiliaries = addAuxiliaryConnections(4);
+        final Map<ConnectionContext, Integer> keysPerConnection = new HashMap<>();
+        for (long key = 0; key < KEYS; key++) {
+            final ConnectionContext selected = router.select(key);
+            Assert.assertSame(selected, router.select(key));
+            final Integer count = keysPerConnection.get(selected);
+            keysPerConnection.put(selected, count == null ? 1 : count + 1);
+        }
+
+        // primary connection takes its share too
+        Assert.assertTrue(keysPerConnection.containsKey(primaryConnectionContext));
+        Assert.assertEquals(auxiliaries.length + 1, keysPerConnection.size());
+        for (final Integer count : keysPerConnection.values()) {
+            // 51 keys per connection expected
+            Assert.assertTrue("uneven spread: " + keysPerConnection.values(), count > 25 && count < 77);
+        }
+    }
+
+    @Test
+    public void testRemoveConnection() throws Exception {
+        final ConnectionContext[] auxiliaries = addAuxiliaryConnections(3);
+        final ConnectionContext[] before = new ConnectionContext[KEYS];
+        for (int key = 0; key < KEYS; key++) {
+            before[key] = router.select(key);
+        }
+
+        router.removeConnection((short) 2);
+        Assert.assertEquals(2, router.getConnectionCount());
+        for (int key = 0; key < KEYS; key++) {
+            final ConnectionContext after = router.select(key);
+            Assert.assertNotSame(auxiliaries[1], after);
+            if (before[key] != auxiliaries[1]) {
+                // only keys of dropped connection move
+                Assert.assertSame(before[key], after);
+            }
+        }
+
+        router.removeConnection((short) 1);
+        router.removeConnection((short) 3);
+        router.removeConnection((short) 3);
+        Assert.assertEquals(0, router.getConnectionCount());
+        Assert.assertSame(primaryConnectionContext, router.select(7));
+    }
+
+    @Test
+    public void testReplaceConnection() throws Exception {
+        final ConnectionContext[] auxiliaries = addAuxiliaryConnections(1);
+        final ConnectionContext[] before = new ConnectionContext[KEYS];
+        for (int key = 0; key < KEYS; key++) {
+            before[key] = router.select(key);
+        }
+        final ConnectionContext reconnected = Mockito.mock(ConnectionContext.class);
+        router.addConnection((short) 1, reconnected);
+
+        Assert.assertEquals(1, router.getConnectionCount());
+        for (int key = 0; key < KEYS; key++) {
+            final ConnectionContext after = router.select(key);
+            Assert.assertNotSame(auxiliaries[0], after);
+            // keys stay with the same auxiliary id
+            Assert.assertSame(before[key] == auxiliaries[0] ? reconnected : primaryConnectionContext, after);
+        }
+    }
+
+    private ConnectionContext[] addAuxiliaryConnections(final int count) {
+        final ConnectionContext[] auxiliaries = new ConnectionContext[count];
+        for (int i = 0; i < count; i++) {
+            auxiliaries[i] = Mockito.mock(ConnectionContext.class);
+            router.addConnection((short) (i + 1), auxiliaries[i]);
+        }
+        return auxiliaries;
+    }
+}
@@ -10,6 +10,8 @@ package org.opendaylight.openflowplugin.impl.device;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
@@ -267,6 +269,35 @@ public class DeviceContextImplTest {
         assertEquals(mockedConnectionContext, pickedConnectiobContexts);
     }
 
+    @Test
+    public void testSelectConnectionContext() {
+        assertSame(connectionContext, deviceContext.selectConnectionContext(0));
+
+        final ConnectionContext auxiliaryConnectionContext = prepareConnectionContext();
+        final ConnectionAdapter auxiliaryConnectionAdapter = mock(ConnectionAdapter.class);
+        when(auxiliaryConnectionContext.getConnectionAdapter()).thenReturn(auxiliaryConnectionAdapter);
+        when(auxiliaryConnectionContext.getOutboundQueueProvider()).thenReturn(mock(OutboundQueueProvider.class));
+        deviceContext.addAuxiliaryConnectionContext(auxiliaryConnectionContext);
+
+        // keys are shared by primary and auxiliary connection
+        int auxiliaryKeys = 0;
+        for (long key = 0; key < 64; key++) {
+            final ConnectionContext selected = deviceContext.selectConnectionContext(key);
+            assertSame(selected, deviceContext.selectConnectionContext(key));
+            if (selected == auxiliaryConnectionContext) {
+                auxiliaryKeys++;
+            } else {
+                assertSame(connectionContext, selected);
+            }
+        }
+        assertTrue(auxiliaryKeys > 0 && auxiliaryKeys < 64);
+        // device is not published yet
+        verify(auxiliaryConnectionAdapter).setPacketInFiltering(true);
+
+        deviceContext.removeAuxiliaryConnectionContext(auxiliaryConnectionContext);
+        assertSame(connectionContext, deviceContext.selectConnectionContext(0));
+    }
+
     private ConnectionContext addDummyAuxiliaryConnectionContext() {
         final ConnectionContext mockedConnectionContext = prepareConnectionContext();
         deviceContext.addAuxiliaryConnectionContext(mockedConnectionContext);
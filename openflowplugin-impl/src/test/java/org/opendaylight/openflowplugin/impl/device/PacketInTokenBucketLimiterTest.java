@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.openflowplugin.impl.device;
+
+import com.google.common.base.Ticker;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Matchers;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.opendaylight.openflowplugin.api.openflow.statistics.ofpspecific.MessageSpy;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.NodeConnectorId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.NodeConnectorRef;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.NodeId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.Nodes;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.Node;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.NodeConnector;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.NodeConnectorKey;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.NodeKey;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.packet.service.rev130709.NoMatch;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.packet.service.rev130709.SendToController;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+
+/**
+ * Test for {@link PacketInTokenBucketLimiter}.
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class PacketInTokenBucketLimiterTest {
+
+    private static final String NODE_ID = "openflow:1";
+
+    @Mock
+    private MessageSpy messageSpy;
+    private FakeTicker ticker;
+
+    @Before
+    public void setUp() throws Exception {
+        ticker = new FakeTicker();
+    }
+
+    @Test
+    public void testAcquirePermit_portBurst() throws Exception {
+        final PacketInTokenBucketLimiter limiter = new PacketInTokenBucketLimiter(10, 3, 1000, 1000, messageSpy, ticker);
+        final NodeConnectorRef port = createNodeConnectorRef(1);
+
+        for (int i = 0; i < 3; i++) {
+            Assert.assertTrue(limiter.acquirePermit(port, NoMatch.class));
+        }
+        Assert.assertFalse(limiter.acquirePermit(port, NoMatch.class));
+        Mockito.verify(messageSpy).spyPacketInDropped(new NodeConnectorId(NODE_ID + ":1"), NoMatch.class);
+
+        // one token refilled per 100ms
+        ticker.advance(100);
+        Assert.assertTrue(limiter.acquirePermit(port, NoMatch.class));
+        Assert.assertFalse(limiter.acquirePermit(port, NoMatch.class));
+
+        // refill never exceeds burst
+        ticker.advance(10000);
+        for (int i = 0; i < 3; i++) {
+            Assert.assertTrue(limiter.acquirePermit(port, NoMatch.class));
+        }
+        Assert.assertFalse(limiter.acquirePermit(port, NoMatch.class));
+        Mockito.verify(messageSpy, Mockito.times(3)).spyPacketInDropped(
+                Matchers.any(NodeConnectorId.class), Matchers.eq(NoMatch.class));
+    }
+
+    @Test
+    public void testAcquirePermit_portFairness() throws Exception {
+        final PacketInTokenBucketLimiter limiter = new PacketInTokenBucketLimiter(10, 2, 1000, 1000, messageSpy, ticker);
+        final NodeConnectorRef floodingPort = createNodeConnectorRef(1);
+        NodeConnectorRef quietPort = null;
+        for (int portNumber = 2; quietPort == null; portNumber++) {
+            final NodeConnectorRef candidate = createNodeConnectorRef(portNumber);
+            if (PacketInTokenBucketLimiter.stripe(candidate, NoMatch.class)
+                    != PacketInTokenBucketLimiter.stripe(floodingPort, NoMatch.class)) {
+                quietPort = candidate;
+            }
+        }
+
+        for (int i = 0; i < 100; i++) {
+            limiter.acquirePermit(floodingPort, NoMatch.class);
+        }
+        Assert.assertTrue(limiter.acquirePermit(quietPort, NoMatch.class));
+        Mockito.verify(messageSpy, Mockito.times(98)).spyPacketInDropped(new NodeConnectorId(NODE_ID + ":1"), NoMatch.class);
+    }
+
+    @Test
+    public void testAcquirePermit_reason() throws Exception {
+        final NodeConnectorRef port = createNodeConnectorRef(1);
+        Assume.assumeTrue(PacketInTokenBucketLimiter.stripe(port, NoMatch.class)
+                != PacketInTokenBucketLimiter.stripe(port, SendToController.class));
+        final PacketInTokenBucketLimiter limiter = new PacketInTokenBucketLimiter(10, 1, 1000, 1000, messageSpy, ticker);
+
+        Assert.assertTrue(limiter.acquirePermit(port, NoMatch.class));
+        Assert.assertFalse(limiter.acquirePermit(port, NoMatch.class));
+        Assert.assertTrue(limiter.acquirePermit(port, SendToController.class));
+    }
+
+    @Test
+    public void testAcquirePermit_deviceCeiling() throws Exception {
+        final PacketInTokenBucketLimiter limiter = new PacketInTokenBucketLimiter(1000, 1000, 10, 2, messageSpy, ticker);
+
+        Assert.assertTrue(limiter.acquirePermit(createNodeConnectorRef(1), NoMatch.class));
+        Assert.assertTrue(limiter.acquirePermit(createNodeConnectorRef(2), NoMatch.class));
+        Assert.assertFalse(limiter.acquirePermit(createNodeConnectorRef(3), NoMatch.class));
+        Mockito.verify(messageSpy).spyPacketInDropped(new NodeConnectorId(NODE_ID + ":3"), NoMatch.class);
+
+        ticker.advance(100);
+        Assert.assertTrue(limiter.acquirePermit(createNodeConnectorRef(3), NoMatch.class));
+    }
+
+    @Test
+    public void testAcquirePermit_portLimitOff() throws Exception {
+        final PacketInTokenBucketLimiter limiter = new PacketInTokenBucketLimiter(0, 1, 10, 2, messageSpy, ticker);
+        final NodeConnectorRef port = createNodeConnectorRef(1);
+
+        Assert.assertTrue(limiter.acquirePermit(port, NoMatch.class));
+        Assert.assertTrue(limiter.acquirePermit(port, NoMatch.class));
+        Assert.assertFalse(limiter.acquirePermit(port, NoMatch.class));
+        Mockito.verify(messageSpy).spyPacketInDropped(new NodeConnectorId(NODE_ID + ":1"), NoMatch.class);
+    }
+
+    @Test
+    public void testAcquirePermit_unknownIngress() throws Exception {
+        final PacketInTokenBucketLimiter limiter = new PacketInTokenBucketLimiter(10, 1, 1000, 1000, messageSpy, ticker);
+
+        Assert.assertTrue(limiter.acquirePermit(null, null));
+        Assert.assertFalse(limiter.acquirePermit(null, null));
+        Mockito.verify(messageSpy).spyPacketInDropped(null,
+                org.opendaylight.yang.gen.v1.urn.opendaylight.packet.service.rev130709.PacketInReason.class);
+    }
+
+    private static NodeConnectorRef createNodeConnectorRef(final int portNumber) {
+        return new NodeConnectorRef(InstanceIdentifier.create(Nodes.class)
+                .child(Node.class, new NodeKey(new NodeId(NODE_ID)))
+                .child(NodeConnector.class, new NodeConnectorKey(new NodeConnectorId(NODE_ID + ":" + portNumber))));
+    }
+
+    private static final class FakeTicker extends Ticker {
+        private long nanos = -TimeUnit.DAYS.toNanos(1);
+
+        @Override
+        public long read() {
+            return nanos;
+        }
+
+        void advance(final long millis) {
+            nanos += TimeUnit.MILLISECONDS.toNanos(millis);
+        }
+    }
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.openflowplugin.impl.device;
+
+import java.io.File;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.opendaylight.openflowplugin.impl.common.NodeStaticReplyTranslatorUtil;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.augments.rev150225.ActionRelatedTableFeatureProperty;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.augments.rev150225.ActionRelatedTableFeaturePropertyBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.augments.rev150225.InstructionRelatedTableFeatureProperty;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.augments.rev150225.InstructionRelatedTableFeaturePropertyBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.augments.rev150225.NextTableRelatedTableFeatureProperty;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.augments.rev150225.NextTableRelatedTableFeaturePropertyBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.augments.rev150225.OxmRelatedTableFeatureProperty;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.augments.rev150225.OxmRelatedTableFeaturePropertyBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.augments.rev150225.table.features.properties.container.table.feature.properties.NextTableIds;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.augments.rev150225.table.features.properties.container.table.feature.properties.NextTableIdsBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.action.rev150203.action.grouping.action.choice.OutputActionCaseBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.action.rev150203.action.grouping.action.choice.SetFieldCaseBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.action.rev150203.action.grouping.action.choice.SetVlanVidCaseBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.action.rev150203.actions.grouping.Action;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.action.rev150203.actions.grouping.ActionBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.instruction.rev130731.instruction.grouping.instruction.choice.ApplyActionsCaseBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.instruction.rev130731.instruction.grouping.instruction.choice.GotoTableCaseBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.instruction.rev130731.instructions.grouping.Instruction;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.instruction.rev130731.instructions.grouping.InstructionBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.types.rev130731.TableConfig;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.types.rev130731.TableFeaturesPropType;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.oxm.rev150225.EthDst;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.oxm.rev150225.Ipv4Src;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.oxm.rev150225.OpenflowBasicClass;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.oxm.rev150225.match.entries.grouping.MatchEntry;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.oxm.rev150225.match.entries.grouping.MatchEntryBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.MultipartReply;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.MultipartReplyMessageBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.multipart.reply.multipart.reply.body.MultipartReplyDescCaseBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.multipart.reply.multipart.reply.body.MultipartReplyTableFeaturesCaseBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.multipart.reply.multipart.reply.body.multipart.reply.desc._case.MultipartReplyDescBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.multipart.reply.multipart.reply.body.multipart.reply.table.features._case.MultipartReplyTableFeatures;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.multipart.reply.multipart.reply.body.multipart.reply.table.features._case.MultipartReplyTableFeaturesBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.multipart.reply.multipart.reply.body.multipart.reply.table.features._case.multipart.reply.table.features.TableFeatures;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.multipart.reply.multipart.reply.body.multipart.reply.table.features._case.multipart.reply.table.features.TableFeaturesBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.table.features.properties.grouping.TableFeatureProperties;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.table.features.properties.grouping.TableFeaturePropertiesBuilder;
+
+/**
+ * Test for {@link TableFeaturesCache}.
+ */
+public class TableFeaturesCacheTest {
+
+    private static final BigInteger KEY_DATAPATH_ID = BigInteger.ONE;
+    private static final TableFeaturesCache.Key KEY =
+            new TableFeaturesCache.Key(KEY_DATAPATH_ID, "Nicira, Inc.", "Open vSwitch", "2.5.0");
+    private static final TableFeaturesCache.Key SAME_MODEL_KEY =
+            new TableFeaturesCache.Key(BigInteger.TEN, "Nicira, Inc.", "Open vSwitch", "2.5.0");
+    private static final TableFeaturesCache.Key UPGRADED_KEY =
+            new TableFeaturesCache.Key(BigInteger.ONE, "Nicira, Inc.", "Open vSwitch", "2.6.0");
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private List<MultipartReply> replies;
+    private List<org.opendaylight.yang.gen.v1.urn.opendaylight.table.types.rev131026.table.features.TableFeatures>
+            translated;
+
+    @Before
+    public void setUp() {
+        final MultipartReplyTableFeatures first = createTableFeatures((short) 0, (short) 1);
+        final MultipartReplyTableFeatures second = createTableFeatures((short) 1, (short) 2);
+        replies = Arrays.asList(createReply(first), createReply(second));
+        translated = new ArrayList<>(NodeStaticReplyTranslatorUtil.nodeTableFeatureTranslator(first));
+        translated.addAll(NodeStaticReplyTranslatorUtil.nodeTableFeatureTranslator(second));
+    }
+
+    @Test
+    public void testGetTranslated() {
+        final TableFeaturesCache cache = new TableFeaturesCache(null);
+        Assert.assertNull(cache.get(KEY));
+        cache.put(KEY, replies);
+
+        Assert.assertEquals(translated, cache.get(KEY));
+        Assert.assertNull(cache.get(UPGRADED_KEY));
+        Assert.assertEquals(1, cache.getHitCount());
+        Assert.assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    public void testSameModelShared() {
+        final TableFeaturesCache cache = new TableFeaturesCache(null);
+        cache.put(KEY, replies);
+        cache.put(SAME_MODEL_KEY, replies);
+
+        Assert.assertEquals(1, cache.size());
+        Assert.assertSame(cache.get(KEY), cache.get(SAME_MODEL_KEY));
+    }
+
+    @Test
+    public void testInvalidateDatapath() {
+        final TableFeaturesCache cache = new TableFeaturesCache(null);
+        cache.put(KEY, replies);
+        cache.put(SAME_MODEL_KEY, replies);
+
+        cache.invalidate(KEY_DATAPATH_ID);
+        Assert.assertNull(cache.get(KEY));
+        Assert.assertEquals(translated, cache.get(SAME_MODEL_KEY));
+        Assert.assertEquals(1, cache.size());
+
+        cache.invalidate(SAME_MODEL_KEY);
+        Assert.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testReplacedEntryDropped() {
+        final TableFeaturesCache cache = new TableFeaturesCache(null);
+        cache.put(KEY, replies);
+        cache.put(KEY, replies.subList(0, 1));
+
+        Assert.assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testPersisted() throws Exception {
+        final Path directory = temporaryFolder.getRoot().toPath().resolve("table-features");
+        new TableFeaturesCache(directory).put(KEY, replies);
+
+        final TableFeaturesCache restarted = new TableFeaturesCache(directory);
+        Assert.assertEquals(translated, restarted.get(KEY));
+        Assert.assertNull(restarted.get(SAME_MODEL_KEY));
+        Assert.assertEquals(1, restarted.getLoadCount());
+
+        restarted.invalidate(KEY);
+        Assert.assertNull(restarted.get(KEY));
+        Assert.assertNull(new TableFeaturesCache(directory).get(KEY));
+    }
+
+    @Test
+    public void testCorruptedFile() throws Exception {
+        final Path directory = temporaryFolder.getRoot().toPath();
+        new TableFeaturesCache(directory).put(KEY, replies);
+
+        final File[] files = directory.toFile().listFiles();
+        Assert.assertEquals(1, files.length);
+        final byte[] content = Files.readAllBytes(files[0].toPath());
+        content[content.length - 1] ^= 1;
+        Files.write(files[0].toPath(), content);
+
+        final TableFeaturesCache restarted = new TableFeaturesCache(directory);
+        Assert.assertNull(restarted.get(KEY));
+        Assert.assertEquals(0, restarted.getLoadCount());
+    }
+
+    @Test
+    public void testNotTableFeaturesIgnored() {
+        final TableFeaturesCache cache = new TableFeaturesCache(null);
+        cache.put(KEY, Collections.<MultipartReply>singletonList(new MultipartReplyMessageBuilder()
+                .setMultipartReplyBody(new MultipartReplyDescCaseBuilder()
+                        .setMultipartReplyDesc(new MultipartReplyDescBuilder().build()).build())
+                .build()));
+        Assert.assertNull(cache.get(KEY));
+        Assert.assertEquals(0, cache.size());
+    }
+
+    private static MultipartReply createReply(final MultipartReplyTableFeatures tableFeatures) {
+        return new MultipartReplyMessageBuilder()
+                .setMultipartReplyBody(new MultipartReplyTableFeaturesCaseBuilder()
+                        .setMultipartReplyTableFeatures(tableFeatures).build())
+                .build();
+    }
+
+    private static MultipartReplyTableFeatures createTableFeatures(final short tableId, final short nextTableId) {
+        final List<TableFeatureProperties> properties = new ArrayList<>();
+
+        final List<Instruction> instructions = Arrays.asList(
+                new InstructionBuilder().setInstructionChoice(new GotoTableCaseBuilder().build()).build(),
+                new InstructionBuilder().setInstructionChoice(new ApplyActionsCaseBuilder().build()).build());
+        properties.add(new TableFeaturePropertiesBuilder()
+                .setType(TableFeaturesPropType.OFPTFPTINSTRUCTIONS)
+                .addAugmentation(InstructionRelatedTableFeatureProperty.class,
+                        new InstructionRelatedTableFeaturePropertyBuilder().setInstruction(instructions).build())
+                .build());
+
+        final List<NextTableIds> nextTables = Collections.singletonList(
+                new NextTableIdsBuilder().setTableId(nextTableId).build());
+        properties.add(new TableFeaturePropertiesBuilder()
+                .setType(TableFeaturesPropType.OFPTFPTNEXTTABLES)
+                .addAugmentation(NextTableRelatedTableFeatureProperty.class,
+                        new NextTableRelatedTableFeaturePropertyBuilder().setNextTableIds(nextTables).build())
+                .build());
+
+        // action not known to translator is kept as such
+        final List<Action> actions = Arrays.asList(
+                new ActionBuilder().setActionChoice(new OutputActionCaseBuilder().build()).build(),
+                new ActionBuilder().setActionChoice(new SetVlanVidCaseBuilder().build()).build(),
+                new ActionBuilder().setActionChoice(new SetFieldCaseBuilder().build()).build());
+        properties.add(new TableFeaturePropertiesBuilder()
+                .setType(TableFeaturesPropType.OFPTFPTAPPLYACTIONS)
+                .addAugmentation(ActionRelatedTableFeatureProperty.class,
+                        new ActionRelatedTableFeaturePropertyBuilder().setAction(actions).build())
+                .build());
+
+        final List<MatchEntry> matchEntries = Arrays.asList(
+                new MatchEntryBuilder().setOxmClass(OpenflowBasicClass.class).setOxmMatchField(EthDst.class)
+                        .setHasMask(true).build(),
+                new MatchEntryBuilder().setOxmClass(OpenflowBasicClass.class).setOxmMatchField(Ipv4Src.class)
+                        .setHasMask(false).build());
+        properties.add(new TableFeaturePropertiesBuilder()
+                .setType(TableFeaturesPropType.OFPTFPTMATCH)
+                .addAugmentation(OxmRelatedTableFeatureProperty.class,
+                        new OxmRelatedTableFeaturePropertyBuilder().setMatchEntry(matchEntries).build())
+                .build());
+
+        final TableFeatures table = new TableFeaturesBuilder()
+                .setTableId(tableId)
+                .setName("table" + tableId)
+                .setMetadataMatch(new byte[]{0, 0, 0, 0, 0, 0, 0, (byte) 0xff})
+                .setMetadataWrite(new byte[]{0, 0, 0, 0, 0, 0, (byte) 0xff, 0})
+                .setConfig(new TableConfig(false))
+                .setMaxEntries(1000000L)
+                .setTableFeatureProperties(properties)
+                .build();
+        return new MultipartReplyTableFeaturesBuilder().setTableFeatures(Collections.singletonList(table)).build();
+    }
+}
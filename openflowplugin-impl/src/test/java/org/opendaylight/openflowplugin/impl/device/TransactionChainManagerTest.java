@@ -12,11 +12,17 @@ import com.google.common.base.Optional;
 import com.google.common.util.concurrent.CheckedFuture;
 import com.google.common.util.concurrent.Futures;
 import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import io.netty.util.TimerTask;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Matchers;
 import org.mockito.Mock;
 import org.mockito.Mockito;
@@ -33,9 +39,14 @@ import org.opendaylight.controller.md.sal.common.api.data.TransactionChainListen
 import org.opendaylight.controller.md.sal.common.api.data.TransactionCommitFailedException;
 import org.opendaylight.openflowplugin.api.openflow.connection.ConnectionContext;
 import org.opendaylight.openflowplugin.api.openflow.device.DeviceState;
+import org.opendaylight.openflowplugin.api.openflow.lifecycle.LifecycleConductor;
 import org.opendaylight.openflowplugin.impl.util.DeviceStateUtil;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.NodeId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.NodeConnectorId;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.Nodes;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.NodeConnector;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.NodeConnectorBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.NodeConnectorKey;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.Node;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.NodeBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.NodeKey;
@@ -68,6 +79,10 @@ public class TransactionChainManagerTest {
 
     @Mock
     private KeyedInstanceIdentifier<Node, NodeKey> nodeKeyIdent;
+    @Mock
+    private LifecycleConductor conductor;
+    @Mock
+    private Timeout timeout;
 
     private TransactionChainManager txChainManager;
     private InstanceIdentifier<Node> path;
@@ -167,4 +182,83 @@ public class TransactionChainManagerTest {
         Mockito.verify(txChain).newWriteOnlyTransaction();
         Mockito.verify(writeTx).delete(LogicalDatastoreType.CONFIGURATION, path);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testCoalescing_deadline() throws Exception {
+        final Node data1 = new NodeBuilder().setId(nodeId).build();
+        final Node data2 = new NodeBuilder().setId(new NodeId("h2g2:43")).build();
+        Mockito.when(conductor.newTimeout(Matchers.any(TimerTask.class), Matchers.anyLong(), Matchers.any(TimeUnit.class)))
+                .thenReturn(timeout);
+        txChainManager.setCoalescing(conductor, 10, 100);
+        txChainManager.enableSubmit();
+
+        txChainManager.writeToTransaction(LogicalDatastoreType.OPERATIONAL, path, data1);
+        txChainManager.writeToTransaction(LogicalDatastoreType.OPERATIONAL, path, data2);
+        Assert.assertTrue(txChainManager.submitWriteTransaction());
+        Assert.assertTrue(txChainManager.submitWriteTransaction());
+
+        // nothing written until deadline
+        final ArgumentCaptor<TimerTask> taskCaptor = ArgumentCaptor.forClass(TimerTask.class);
+        Mockito.verify(conductor).newTimeout(taskCaptor.capture(), Matchers.eq(100L), Matchers.eq(TimeUnit.MILLISECONDS));
+        Mockito.verify(txChain, Mockito.never()).newWriteOnlyTransaction();
+
+        taskCaptor.getValue().run(timeout);
+
+        Mockito.verify(txChain).newWriteOnlyTransaction();
+        Mockito.verify(writeTx).put(LogicalDatastoreType.OPERATIONAL, path, data2);
+        Mockito.verify(writeTx).submit();
+        Assert.assertEquals(1, txChainManager.getCommitSizeHistogram().getCount());
+        Assert.assertEquals(1, txChainManager.getCommitSizeHistogram().getMax());
+        Assert.assertEquals(1, txChainManager.getCommitLatencyHistogram().getCount());
+    }
+
+    @Test
+    public void testCoalescing_size() throws Exception {
+        final InstanceIdentifier<NodeConnector> portPath = createPortPath("h2g2:42:1");
+        final InstanceIdentifier<NodeConnector> otherPortPath = createPortPath("h2g2:42:2");
+        final Node data = new NodeBuilder().setId(nodeId).build();
+        final NodeConnector portData = new NodeConnectorBuilder().setId(new NodeConnectorId("h2g2:42:1")).build();
+        txChainManager.setCoalescing(conductor, 3, 100);
+        txChainManager.enableSubmit();
+
+        txChainManager.addDeleteOperationTotTxChain(LogicalDatastoreType.OPERATIONAL, portPath);
+        txChainManager.writeToTransaction(LogicalDatastoreType.OPERATIONAL, path, data);
+        txChainManager.writeToTransaction(LogicalDatastoreType.OPERATIONAL, portPath, portData);
+        Mockito.verify(txChain, Mockito.never()).newWriteOnlyTransaction();
+        txChainManager.addDeleteOperationTotTxChain(LogicalDatastoreType.OPERATIONAL, otherPortPath);
+
+        // replaced delete moved behind write of parent
+        final InOrder inOrder = Mockito.inOrder(writeTx);
+        inOrder.verify(writeTx).put(LogicalDatastoreType.OPERATIONAL, path, data);
+        inOrder.verify(writeTx).put(LogicalDatastoreType.OPERATIONAL, portPath, portData);
+        inOrder.verify(writeTx).delete(LogicalDatastoreType.OPERATIONAL, otherPortPath);
+        inOrder.verify(writeTx).submit();
+        Mockito.verify(txChain).newWriteOnlyTransaction();
+        Mockito.verify(writeTx, Mockito.never()).delete(LogicalDatastoreType.OPERATIONAL, portPath);
+        Mockito.verifyZeroInteractions(conductor);
+        Assert.assertEquals(3, txChainManager.getCommitSizeHistogram().getMax());
+    }
+
+    @Test
+    public void testCoalescing_deactivate() throws Exception {
+        final Node data = new NodeBuilder().setId(nodeId).build();
+        Mockito.when(conductor.newTimeout(Matchers.any(TimerTask.class), Matchers.anyLong(), Matchers.any(TimeUnit.class)))
+                .thenReturn(timeout);
+        txChainManager.setCoalescing(conductor, 10, 100);
+        txChainManager.enableSubmit();
+        txChainManager.writeToTransaction(LogicalDatastoreType.OPERATIONAL, path, data);
+        txChainManager.submitWriteTransaction();
+
+        txChainManager.deactivateTransactionManager();
+
+        Mockito.verify(timeout).cancel();
+        Mockito.verify(txChain).newWriteOnlyTransaction();
+        Mockito.verify(writeTx).put(LogicalDatastoreType.OPERATIONAL, path, data);
+        Mockito.verify(writeTx).submit();
+        Mockito.verify(txChain).close();
+    }
+
+    private InstanceIdentifier<NodeConnector> createPortPath(final String portId) {
+        return path.child(NodeConnector.class, new NodeConnectorKey(new NodeConnectorId(portId)));
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.openflowplugin.impl.device.listener;
+
+import java.math.BigInteger;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InOrder;
+import org.mockito.Matchers;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.opendaylight.openflowplugin.api.OFConstants;
+import org.opendaylight.openflowplugin.api.openflow.device.RequestContext;
+import org.opendaylight.openflowplugin.api.openflow.device.Xid;
+import org.opendaylight.openflowplugin.api.openflow.device.handlers.DeviceReplyProcessor;
+import org.opendaylight.openflowplugin.api.openflow.device.handlers.MultipartReplySink;
+import org.opendaylight.openflowplugin.impl.connection.testutil.MsgGeneratorTestUtils;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.types.rev130731.MultipartType;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.MultipartReply;
+import org.opendaylight.yangtools.yang.binding.DataObject;
+import org.opendaylight.yangtools.yang.common.RpcResult;
+
+/**
+ * Test for {@link StreamingMultiMsgCollectorImpl}.
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class StreamingMultiMsgCollectorImplTest {
+
+    private static final Long XID = 1L;
+    private static final String HW_TEST_VALUE = "test-value";
+
+    @Mock
+    private DeviceReplyProcessor deviceProcessor;
+    @Mock
+    private RequestContext<List<MultipartReply>> requestContext;
+    @Mock
+    private MultipartReplySink sink;
+    @Captor
+    private ArgumentCaptor<RpcResult<List<MultipartReply>>> resultCaptor;
+    @Captor
+    private ArgumentCaptor<List<MultipartReply>> repliesCaptor;
+
+    private StreamingMultiMsgCollectorImpl collector;
+
+    @Before
+    public void setUp() throws Exception {
+        Mockito.when(requestContext.getXid()).thenReturn(new Xid(XID));
+        collector = new StreamingMultiMsgCollectorImpl(deviceProcessor, requestContext, sink, BigInteger.ONE,
+                OFConstants.OFP_VERSION_1_3);
+    }
+
+    @Test
+    public void testAddMultipartMsg() throws Exception {
+        collector.addMultipartMsg(MsgGeneratorTestUtils.makeMultipartDescReply(XID, HW_TEST_VALUE, true).build());
+        Mockito.verify(sink).onChunk(Matchers.<List<? extends DataObject>>any());
+        Mockito.verify(requestContext, Mockito.never()).setResult(Matchers.<RpcResult<List<MultipartReply>>>any());
+
+        collector.addMultipartMsg(MsgGeneratorTestUtils.makeMultipartDescReply(XID, HW_TEST_VALUE, false).build());
+
+        final InOrder inOrder = Mockito.inOrder(sink, requestContext);
+        inOrder.verify(sink, Mockito.times(2)).onChunk(Matchers.<List<? extends DataObject>>any());
+        inOrder.verify(sink).onCompleted();
+        inOrder.verify(requestContext).setResult(resultCaptor.capture());
+        inOrder.verify(requestContext).close();
+        Assert.assertTrue(resultCaptor.getValue().isSuccessful());
+        Assert.assertTrue(resultCaptor.getValue().getResult().isEmpty());
+        // replies are reported one by one, never collected
+        Mockito.verify(deviceProcessor, Mockito.times(2)).processReply(Matchers.any(Xid.class), repliesCaptor.capture());
+        for (final List<MultipartReply> replies : repliesCaptor.getAllValues()) {
+            Assert.assertEquals(1, replies.size());
+        }
+        Mockito.verify(sink, Mockito.never()).onFailure(Matchers.any(Throwable.class));
+    }
+
+    @Test
+    public void testEndCollecting() throws Exception {
+        collector.endCollecting();
+        collector.endCollecting();
+
+        Mockito.verify(sink).onCompleted();
+        Mockito.verify(requestContext).setResult(resultCaptor.capture());
+        Assert.assertTrue(resultCaptor.getValue().isSuccessful());
+        Mockito.verifyZeroInteractions(deviceProcessor);
+    }
+
+    @Test
+    public void testAddMultipartMsg_translationFailure() throws Exception {
+        // flow reply without body can not be translated
+        collector.addMultipartMsg(MsgGeneratorTestUtils.makeMultipartDescReply(XID, HW_TEST_VALUE, true)
+                .setType(MultipartType.OFPMPFLOW).setMultipartReplyBody(null).build());
+        collector.addMultipartMsg(MsgGeneratorTestUtils.makeMultipartDescReply(XID, HW_TEST_VALUE, false).build());
+
+        Mockito.verify(sink).onFailure(Matchers.any(Throwable.class));
+        Mockito.verify(sink, Mockito.never()).onChunk(Matchers.<List<? extends DataObject>>any());
+        Mockito.verify(sink, Mockito.never()).onCompleted();
+        Mockito.verify(requestContext).setResult(resultCaptor.capture());
+        Assert.assertFalse(resultCaptor.getValue().isSuccessful());
+        Mockito.verifyZeroInteractions(deviceProcessor);
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.openflowplugin.impl.registry.flow;
+
+import java.math.BigInteger;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.opendaylight.openflowplugin.api.openflow.registry.flow.DeviceFlowRegistry;
+import org.opendaylight.openflowplugin.api.openflow.registry.flow.FlowDescriptor;
+import org.opendaylight.openflowplugin.api.openflow.registry.flow.FlowRegistryKey;
+import org.opendaylight.openflowplugin.api.openflow.statistics.ofpspecific.MessageSpy;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.FlowId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.statistics.rev130819.flow.and.statistics.map.list.FlowAndStatisticsMapList;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.types.rev131026.FlowCookie;
+
+/**
+ * Test for {@link CompactDeviceFlowRegistryImpl}.
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class CompactDeviceFlowRegistryImplTest {
+
+    @Mock
+    private MessageSpy messageSpy;
+    private CompactDeviceFlowRegistryImpl deviceFlowRegistry;
+    private FlowRegistryKey key;
+    private FlowDescriptor descriptor;
+
+    @Before
+    public void setUp() throws Exception {
+        deviceFlowRegistry = new CompactDeviceFlowRegistryImpl(messageSpy);
+        final FlowAndStatisticsMapList flowStats = TestFlowHelper.createFlowAndStatisticsMapListBuilder(1).build();
+        key = FlowRegistryKeyFactory.create(flowStats);
+        descriptor = FlowDescriptorFactory.create(key.getTableId(), new FlowId("ut:1"));
+
+        Assert.assertEquals(0, deviceFlowRegistry.getAllFlowDescriptors().size());
+        deviceFlowRegistry.store(key, descriptor);
+        Assert.assertEquals(1, deviceFlowRegistry.getAllFlowDescriptors().size());
+    }
+
+    @Test
+    public void testRetrieveIdForFlow() throws Exception {
+        Assert.assertEquals(descriptor, deviceFlowRegistry.retrieveIdForFlow(key));
+        // equal flow built again (different binding objects)
+        final FlowRegistryKey keyAgain = FlowRegistryKeyFactory.create(
+                TestFlowHelper.createFlowAndStatisticsMapListBuilder(1).build());
+        Assert.assertEquals(descriptor, deviceFlowRegistry.retrieveIdForFlow(keyAgain));
+        Assert.assertEquals(descriptor, deviceFlowRegistry.retrieveIdForFlow(CompactFlowRegistryKey.create(key)));
+    }
+
+    @Test
+    public void testStore() throws Exception {
+        //store the same key with different value
+        final FlowDescriptor descriptor2 = FlowDescriptorFactory.create(key.getTableId(), new FlowId("ut:2"));
+        deviceFlowRegistry.store(key, descriptor2);
+        Assert.assertEquals(1, deviceFlowRegistry.getAllFlowDescriptors().size());
+        Assert.assertEquals("ut:2", deviceFlowRegistry.retrieveIdForFlow(key).getFlowId().getValue());
+
+        // store new key with old value
+        final FlowAndStatisticsMapList flowStats = TestFlowHelper.createFlowAndStatisticsMapListBuilder(2).build();
+        final FlowRegistryKey key2 = FlowRegistryKeyFactory.create(flowStats);
+        deviceFlowRegistry.store(key2, descriptor);
+        Assert.assertEquals(2, deviceFlowRegistry.getAllFlowDescriptors().size());
+        Assert.assertEquals("ut:1", deviceFlowRegistry.retrieveIdForFlow(key2).getFlowId().getValue());
+    }
+
+    @Test
+    public void testStoreIfNecessary() throws Exception {
+        FlowId newFlowId;
+
+        //store existing key
+        newFlowId = deviceFlowRegistry.storeIfNecessary(key, key.getTableId());
+
+        Assert.assertEquals(1, deviceFlowRegistry.getAllFlowDescriptors().size());
+        Assert.assertEquals(descriptor, deviceFlowRegistry.retrieveIdForFlow(key));
+        Assert.assertEquals(descriptor.getFlowId(), newFlowId);
+
+        //store new key
+        final String alienPrefix = "#UF$TABLE*2-";
+        final FlowRegistryKey key2 = FlowRegistryKeyFactory.create(TestFlowHelper.createFlowAndStatisticsMapListBuilder(2).build());
+        newFlowId = deviceFlowRegistry.storeIfNecessary(key2, key2.getTableId());
+
+        Assert.assertTrue(newFlowId.getValue().startsWith(alienPrefix));
+        Assert.assertTrue(deviceFlowRegistry.retrieveIdForFlow(key2).getFlowId().getValue().startsWith(alienPrefix));
+        Assert.assertEquals(2, deviceFlowRegistry.getAllFlowDescriptors().size());
+
+        Mockito.verify(messageSpy).spyMessage(DeviceFlowRegistry.class,
+                MessageSpy.STATISTIC_GROUP.FROM_SWITCH_FLOW_ID_RESOLVED);
+        Mockito.verify(messageSpy).spyMessage(DeviceFlowRegistry.class,
+                MessageSpy.STATISTIC_GROUP.FROM_SWITCH_FLOW_ID_ALIEN);
+    }
+
+    @Test
+    public void testRemoveDescriptor() throws Exception {
+        deviceFlowRegistry.removeDescriptor(key);
+        Assert.assertEquals(0, deviceFlowRegistry.getAllFlowDescriptors().size());
+        Assert.assertTrue(deviceFlowRegistry.getFlowDescriptorsByCookie(BigInteger.TEN).isEmpty());
+    }
+
+    @Test
+    public void testGetFlowDescriptorsByCookie() throws Exception {
+        final FlowRegistryKey key2 = FlowRegistryKeyFactory.create(TestFlowHelper.createFlowAndStatisticsMapListBuilder(2).build());
+        final FlowDescriptor descriptor2 = FlowDescriptorFactory.create(key2.getTableId(), new FlowId("ut:2"));
+        deviceFlowRegistry.store(key2, descriptor2);
+        Assert.assertEquals(2, deviceFlowRegistry.getFlowDescriptorsByCookie(BigInteger.TEN).size());
+        Assert.assertTrue(deviceFlowRegistry.getFlowDescriptorsByCookie(BigInteger.ONE).isEmpty());
+
+        // the same flow stored again with changed cookie moves to another cookie bucket
+        final FlowRegistryKey key2Recookied = FlowRegistryKeyFactory.create(TestFlowHelper.createFlowAndStatisticsMapListBuilder(2)
+                .setCookie(new FlowCookie(BigInteger.ONE))
+                .build());
+        deviceFlowRegistry.store(key2Recookied, descriptor2);
+        Assert.assertEquals(2, deviceFlowRegistry.getAllFlowDescriptors().size());
+        Assert.assertEquals(1, deviceFlowRegistry.getFlowDescriptorsByCookie(BigInteger.TEN).size());
+        Assert.assertEquals(descriptor, deviceFlowRegistry.getFlowDescriptorsByCookie(BigInteger.TEN).values().iterator().next());
+        Assert.assertEquals(1, deviceFlowRegistry.getFlowDescriptorsByCookie(BigInteger.ONE).size());
+        Assert.assertEquals(BigInteger.ONE, deviceFlowRegistry.getFlowDescriptorsByCookie(BigInteger.ONE).keySet().iterator().next().getCookie());
+    }
+
+    @Test
+    public void testClose() throws Exception {
+        deviceFlowRegistry.close();
+        Assert.assertEquals(0, deviceFlowRegistry.getAllFlowDescriptors().size());
+        Assert.assertTrue(deviceFlowRegistry.getFlowDescriptorsByCookie(BigInteger.TEN).isEmpty());
+    }
+}
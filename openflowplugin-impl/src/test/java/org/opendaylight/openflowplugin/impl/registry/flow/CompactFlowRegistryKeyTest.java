@@ -0,0 +1,312 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.openflowplugin.impl.registry.flow;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Assert;
+import org.junit.Test;
+import org.opendaylight.openflowplugin.api.openflow.registry.flow.FlowRegistryKey;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev100924.Ipv4Address;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev100924.Ipv4Prefix;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev100924.Ipv6Prefix;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev100924.PortNumber;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.yang.types.rev100924.MacAddress;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.yang.types.rev130715.DottedQuad;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.table.FlowBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.service.rev130819.AddFlowInput;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.service.rev130819.AddFlowInputBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.statistics.rev130819.flow.and.statistics.map.list.FlowAndStatisticsMapList;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.statistics.rev130819.flow.and.statistics.map.list.FlowAndStatisticsMapListBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.types.rev131026.FlowCookie;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.types.rev131026.flow.Match;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.types.rev131026.flow.MatchBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.ethernet.match.fields.EthernetSourceBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.match.EthernetMatchBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.match.MetadataBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.match.layer._3.match.Ipv4MatchArbitraryBitMaskBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.match.layer._3.match.Ipv4MatchBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.match.layer._3.match.Ipv6MatchBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.match.layer._4.match.TcpMatchBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflowplugin.extension.general.rev140714.ExtensionKey;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflowplugin.extension.general.rev140714.GeneralAugMatchNodesNodeTableFlow;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflowplugin.extension.general.rev140714.GeneralAugMatchNodesNodeTableFlowBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflowplugin.extension.general.rev140714.GeneralAugMatchNotifUpdateFlowStats;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflowplugin.extension.general.rev140714.GeneralAugMatchNotifUpdateFlowStatsBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflowplugin.extension.general.rev140714.GeneralAugMatchRpcAddFlow;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflowplugin.extension.general.rev140714.GeneralAugMatchRpcAddFlowBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflowplugin.extension.general.rev140714.VendorXxx1;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflowplugin.extension.general.rev140714.VendorXxx1Builder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflowplugin.extension.general.rev140714.VendorXxx2;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflowplugin.extension.general.rev140714.VendorXxx2Builder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflowplugin.extension.general.rev140714.general.extension.grouping.Extension;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflowplugin.extension.general.rev140714.general.extension.grouping.ExtensionBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflowplugin.extension.general.rev140714.general.extension.list.grouping.ExtensionList;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflowplugin.extension.general.rev140714.general.extension.list.grouping.ExtensionListBuilder;
+import org.opendaylight.yangtools.yang.binding.Augmentation;
+
+/**
+ * Test for {@link CompactFlowRegistryKey} and {@link FlowMatchEncoder}.
+ */
+public class CompactFlowRegistryKeyTest {
+
+    @Test
+    public void testEquals() throws Exception {
+        final FlowAndStatisticsMapList flowStats = TestFlowHelper.createFlowAndStatisticsMapListBuilder(1).build();
+        final CompactFlowRegistryKey key1 = CompactFlowRegistryKey.create(flowStats);
+        final CompactFlowRegistryKey key2 = CompactFlowRegistryKey.create(
+                TestFlowHelper.createFlowAndStatisticsMapListBuilder(1).build());
+        final CompactFlowRegistryKey key3 = CompactFlowRegistryKey.create(
+                TestFlowHelper.createFlowAndStatisticsMapListBuilder(2).build());
+
+        Assert.assertEquals(key1, key2);
+        Assert.assertEquals(key1.hashCode(), key2.hashCode());
+        Assert.assertEquals(key1.getHash(), key2.getHash());
+        Assert.assertNotEquals(key1, key3);
+
+        // inventory flow with the same content
+        final CompactFlowRegistryKey inventoryKey = CompactFlowRegistryKey.create(new FlowBuilder()
+                .setTableId(flowStats.getTableId())
+                .setPriority(flowStats.getPriority())
+                .setMatch(flowStats.getMatch())
+                .build());
+        Assert.assertEquals(key1, inventoryKey);
+
+        // key converted from binding key
+        Assert.assertEquals(key1, CompactFlowRegistryKey.create(FlowRegistryKeyFactory.create(flowStats)));
+    }
+
+    @Test
+    public void testEquals_cookieIgnored() throws Exception {
+        final CompactFlowRegistryKey key1 = CompactFlowRegistryKey.create(
+                TestFlowHelper.createFlowAndStatisticsMapListBuilder(1).build());
+        final CompactFlowRegistryKey key2 = CompactFlowRegistryKey.create(
+                TestFlowHelper.createFlowAndStatisticsMapListBuilder(1)
+                        .setCookie(new FlowCookie(new BigInteger("ffffffffffffffff", 16)))
+                        .build());
+
+        Assert.assertEquals(key1, key2);
+        Assert.assertEquals(BigInteger.TEN, key1.getCookie());
+        Assert.assertEquals(new BigInteger("ffffffffffffffff", 16), key2.getCookie());
+    }
+
+    @Test
+    public void testEquals_defaults() throws Exception {
+        final CompactFlowRegistryKey key1 = CompactFlowRegistryKey.create(new FlowBuilder()
+                .setTableId((short) 0)
+                .build());
+        final CompactFlowRegistryKey key2 = CompactFlowRegistryKey.create(new FlowBuilder()
+                .setTableId((short) 0)
+                .setMatch(new MatchBuilder().build())
+                .build());
+
+        Assert.assertEquals(key1, key2);
+        Assert.assertEquals(0, key1.getEncodedMatch().length);
+    }
+
+    @Test
+    public void testEncode() throws Exception {
+        final Match match1 = new MatchBuilder()
+                .setLayer3Match(new Ipv4MatchBuilder()
+                        .setIpv4Source(new Ipv4Prefix("10.0.0.1/32"))
+                        .build())
+                .setLayer4Match(new TcpMatchBuilder()
+                        .setTcpDestinationPort(new PortNumber(80))
+                        .build())
+                .build();
+        final Match match2 = new MatchBuilder()
+                .setLayer3Match(new Ipv4MatchBuilder()
+                        .setIpv4Destination(new Ipv4Prefix("10.0.0.1/32"))
+                        .build())
+                .setLayer4Match(new TcpMatchBuilder()
+                        .setTcpSourcePort(new PortNumber(80))
+                        .build())
+                .build();
+
+        Assert.assertArrayEquals(FlowMatchEncoder.encode(match1), FlowMatchEncoder.encode(new MatchBuilder(match1).build()));
+        Assert.assertFalse(Arrays.equals(FlowMatchEncoder.encode(match1), FlowMatchEncoder.encode(match2)));
+    }
+
+    @Test
+    public void testEncode_extensions() throws Exception {
+        final ExtensionList extension = new ExtensionListBuilder().setExtensionKey(UtExtensionKey.class).build();
+        final Match inventoryMatch = new MatchBuilder()
+                .addAugmentation(GeneralAugMatchNodesNodeTableFlow.class, new GeneralAugMatchNodesNodeTableFlowBuilder()
+                        .setExtensionList(Collections.singletonList(extension))
+                        .build())
+                .build();
+        final Match statisticsMatch = new MatchBuilder()
+                .addAugmentation(GeneralAugMatchNotifUpdateFlowStats.class, new GeneralAugMatchNotifUpdateFlowStatsBuilder()
+                        .setExtensionList(Collections.singletonList(extension))
+                        .build())
+                .build();
+
+        Assert.assertArrayEquals(FlowMatchEncoder.encode(inventoryMatch), FlowMatchEncoder.encode(statisticsMatch));
+        Assert.assertFalse(Arrays.equals(FlowMatchEncoder.encode(inventoryMatch),
+                FlowMatchEncoder.encode(new MatchBuilder().build())));
+    }
+
+    @Test
+    public void testEquals_extensionContent() throws Exception {
+        // vendor augments extension container with different class in rpc input and in statistics
+        final AddFlowInput rpcFlow = new AddFlowInputBuilder()
+                .setTableId((short) 1)
+                .setPriority(2)
+                .setMatch(new MatchBuilder()
+                        .addAugmentation(GeneralAugMatchRpcAddFlow.class, new GeneralAugMatchRpcAddFlowBuilder()
+                                .setExtensionList(Collections.singletonList(createExtension(
+                                        VendorXxx2.class, new VendorXxx2Builder().setDosEkis("dos-ekis").build())))
+                                .build())
+                        .build())
+                .build();
+        final FlowAndStatisticsMapList statsFlow = new FlowAndStatisticsMapListBuilder()
+                .setTableId((short) 1)
+                .setPriority(2)
+                .setMatch(new MatchBuilder()
+                        .addAugmentation(GeneralAugMatchNotifUpdateFlowStats.class, new GeneralAugMatchNotifUpdateFlowStatsBuilder()
+                                .setExtensionList(Collections.singletonList(createExtension(
+                                        VendorXxx1.class, new VendorXxx1Builder().setDosEkis("dos-ekis").build())))
+                                .build())
+                        .build())
+                .build();
+        final FlowAndStatisticsMapList otherStatsFlow = new FlowAndStatisticsMapListBuilder(statsFlow)
+                .setMatch(new MatchBuilder()
+                        .addAugmentation(GeneralAugMatchNotifUpdateFlowStats.class, new GeneralAugMatchNotifUpdateFlowStatsBuilder()
+                                .setExtensionList(Collections.singletonList(createExtension(
+                                        VendorXxx1.class, new VendorXxx1Builder().setDosEkis("tres-ekis").build())))
+                                .build())
+                        .build())
+                .build();
+
+        Assert.assertArrayEquals(FlowMatchEncoder.encode(rpcFlow.getMatch()), FlowMatchEncoder.encode(statsFlow.getMatch()));
+        Assert.assertEquals(CompactFlowRegistryKey.create(rpcFlow), CompactFlowRegistryKey.create(statsFlow));
+        Assert.assertNotEquals(CompactFlowRegistryKey.create(rpcFlow), CompactFlowRegistryKey.create(otherStatsFlow));
+    }
+
+    @Test
+    public void testEncode_normalizedIpv4() throws Exception {
+        final byte[] expected = FlowMatchEncoder.encode(new MatchBuilder()
+                .setLayer3Match(new Ipv4MatchBuilder()
+                        .setIpv4Source(new Ipv4Prefix("10.0.0.0/24"))
+                        .build())
+                .build());
+
+        // host bits set
+        Assert.assertArrayEquals(expected, FlowMatchEncoder.encode(new MatchBuilder()
+                .setLayer3Match(new Ipv4MatchBuilder()
+                        .setIpv4Source(new Ipv4Prefix("10.0.0.5/24"))
+                        .build())
+                .build()));
+        // contiguous arbitrary bitmask
+        Assert.assertArrayEquals(expected, FlowMatchEncoder.encode(new MatchBuilder()
+                .setLayer3Match(new Ipv4MatchArbitraryBitMaskBuilder()
+                        .setIpv4SourceAddressNoMask(new Ipv4Address("10.0.0.5"))
+                        .setIpv4SourceArbitraryBitmask(new DottedQuad("255.255.255.0"))
+                        .build())
+                .build()));
+        Assert.assertFalse(Arrays.equals(expected, FlowMatchEncoder.encode(new MatchBuilder()
+                .setLayer3Match(new Ipv4MatchBuilder()
+                        .setIpv4Source(new Ipv4Prefix("10.0.0.0/25"))
+                        .build())
+                .build())));
+    }
+
+    @Test
+    public void testEncode_normalizedIpv6() throws Exception {
+        Assert.assertArrayEquals(
+                FlowMatchEncoder.encode(new MatchBuilder()
+                        .setLayer3Match(new Ipv6MatchBuilder()
+                                .setIpv6Source(new Ipv6Prefix("2001:db8::1/128"))
+                                .build())
+                        .build()),
+                FlowMatchEncoder.encode(new MatchBuilder()
+                        .setLayer3Match(new Ipv6MatchBuilder()
+                                .setIpv6Source(new Ipv6Prefix("2001:0DB8:0000:0000:0000:0000:0000:0001/128"))
+                                .build())
+                        .build()));
+    }
+
+    @Test
+    public void testEncode_normalizedMac() throws Exception {
+        final Match lowerCaseMatch = createEthernetSourceMatch("00:0a:0b:0c:0d:0e", null);
+
+        Assert.assertArrayEquals(FlowMatchEncoder.encode(lowerCaseMatch),
+                FlowMatchEncoder.encode(createEthernetSourceMatch("00:0A:0B:0C:0D:0E", null)));
+        // full mask equals no mask
+        Assert.assertArrayEquals(FlowMatchEncoder.encode(lowerCaseMatch),
+                FlowMatchEncoder.encode(createEthernetSourceMatch("00:0a:0b:0c:0d:0e", "ff:ff:ff:ff:ff:ff")));
+        Assert.assertFalse(Arrays.equals(FlowMatchEncoder.encode(lowerCaseMatch),
+                FlowMatchEncoder.encode(createEthernetSourceMatch("00:0a:0b:0c:0d:0e", "ff:ff:ff:00:00:00"))));
+    }
+
+    @Test
+    public void testEncode_normalizedMetadata() throws Exception {
+        final BigInteger metadata = BigInteger.valueOf(42);
+        Assert.assertArrayEquals(
+                FlowMatchEncoder.encode(new MatchBuilder()
+                        .setMetadata(new MetadataBuilder().setMetadata(metadata).build())
+                        .build()),
+                FlowMatchEncoder.encode(new MatchBuilder()
+                        .setMetadata(new MetadataBuilder()
+                                .setMetadata(metadata)
+                                .setMetadataMask(new BigInteger("ffffffffffffffff", 16))
+                                .build())
+                        .build()));
+    }
+
+    @Test
+    public void testEquals_normalizedKeys() throws Exception {
+        final FlowRegistryKeyFactory keyFactory = new FlowRegistryKeyFactory(true);
+        final FlowRegistryKey configKey = keyFactory.createKey(new FlowBuilder()
+                .setTableId((short) 1)
+                .setPriority(5)
+                .setMatch(new MatchBuilder()
+                        .setLayer3Match(new Ipv4MatchBuilder()
+                                .setIpv4Destination(new Ipv4Prefix("192.168.1.7/16"))
+                                .build())
+                        .build())
+                .build());
+        final FlowRegistryKey statisticsKey = keyFactory.createKey(new FlowBuilder()
+                .setTableId((short) 1)
+                .setPriority(5)
+                .setMatch(new MatchBuilder()
+                        .setLayer3Match(new Ipv4MatchBuilder()
+                                .setIpv4Destination(new Ipv4Prefix("192.168.0.0/16"))
+                                .build())
+                        .build())
+                .build());
+
+        Assert.assertEquals(configKey, statisticsKey);
+        Assert.assertEquals(configKey.hashCode(), statisticsKey.hashCode());
+    }
+
+    private static Match createEthernetSourceMatch(final String address, final String mask) {
+        return new MatchBuilder()
+                .setEthernetMatch(new EthernetMatchBuilder()
+                        .setEthernetSource(new EthernetSourceBuilder()
+                                .setAddress(new MacAddress(address))
+                                .setMask(mask == null ? null : new MacAddress(mask))
+                                .build())
+                        .build())
+                .build();
+    }
+
+    private static <T extends Augmentation<Extension>> ExtensionList createExtension(final Class<T> augmentationClass,
+                                                                                    final T augmentation) {
+        return new ExtensionListBuilder()
+                .setExtensionKey(UtExtensionKey.class)
+                .setExtension(new ExtensionBuilder().addAugmentation(augmentationClass, augmentation).build())
+                .build();
+    }
+
+    private static class UtExtensionKey extends ExtensionKey {
+        // nobody
+    }
+}
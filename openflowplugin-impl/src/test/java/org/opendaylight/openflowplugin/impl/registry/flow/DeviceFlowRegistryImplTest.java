@@ -11,23 +11,36 @@ package org.opendaylight.openflowplugin.impl.registry.flow;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.runners.MockitoJUnitRunner;
 import org.opendaylight.openflowplugin.api.openflow.registry.flow.FlowDescriptor;
+import org.opendaylight.openflowplugin.api.openflow.registry.flow.DeviceFlowRegistry;
 import org.opendaylight.openflowplugin.api.openflow.registry.flow.FlowRegistryKey;
+import org.opendaylight.openflowplugin.api.openflow.statistics.ofpspecific.MessageSpy;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev100924.Ipv4Prefix;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.FlowId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.table.FlowBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.statistics.rev130819.flow.and.statistics.map.list.FlowAndStatisticsMapList;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.types.rev131026.flow.MatchBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.match.layer._3.match.Ipv4MatchBuilder;
 
 /**
  * Test for {@link DeviceFlowRegistryImpl}.
  */
+@RunWith(MockitoJUnitRunner.class)
 public class DeviceFlowRegistryImplTest {
 
+    @Mock
+    private MessageSpy messageSpy;
     private DeviceFlowRegistryImpl deviceFlowRegistry;
     private FlowRegistryKey key;
     private FlowDescriptor descriptor;
 
     @Before
     public void setUp() throws Exception {
-        deviceFlowRegistry = new DeviceFlowRegistryImpl();
+        deviceFlowRegistry = new DeviceFlowRegistryImpl(messageSpy);
         final FlowAndStatisticsMapList flowStats = TestFlowHelper.createFlowAndStatisticsMapListBuilder(1).build();
         key = FlowRegistryKeyFactory.create(flowStats);
         descriptor = FlowDescriptorFactory.create(key.getTableId(), new FlowId("ut:1"));
@@ -77,6 +90,11 @@ public class DeviceFlowRegistryImplTest {
         Assert.assertTrue(newFlowId.getValue().startsWith(alienPrefix));
         Assert.assertTrue(deviceFlowRegistry.retrieveIdForFlow(key2).getFlowId().getValue().startsWith(alienPrefix));
         Assert.assertEquals(2, deviceFlowRegistry.getAllFlowDescriptors().size());
+
+        Mockito.verify(messageSpy).spyMessage(DeviceFlowRegistry.class,
+                MessageSpy.STATISTIC_GROUP.FROM_SWITCH_FLOW_ID_RESOLVED);
+        Mockito.verify(messageSpy).spyMessage(DeviceFlowRegistry.class,
+                MessageSpy.STATISTIC_GROUP.FROM_SWITCH_FLOW_ID_ALIEN);
     }
 
     @Test
@@ -90,4 +108,31 @@ public class DeviceFlowRegistryImplTest {
         deviceFlowRegistry.close();
         Assert.assertEquals(0, deviceFlowRegistry.getAllFlowDescriptors().size());
     }
+
+    @Test
+    public void testNormalizedKeys() throws Exception {
+        // host bits under prefix mask differ, normalized matches are the same
+        final FlowBuilder configFlowBuilder = new FlowBuilder()
+                .setMatch(new MatchBuilder().setLayer3Match(new Ipv4MatchBuilder()
+                        .setIpv4Destination(new Ipv4Prefix("10.0.1.0/24")).build()).build())
+                .setPriority(2)
+                .setTableId((short) 0);
+        final FlowBuilder deviceFlowBuilder = new FlowBuilder(configFlowBuilder.build())
+                .setMatch(new MatchBuilder().setLayer3Match(new Ipv4MatchBuilder()
+                        .setIpv4Destination(new Ipv4Prefix("10.0.1.157/24")).build()).build());
+        final FlowRegistryKey configKey = FlowRegistryKeyFactory.create(configFlowBuilder.build());
+        final FlowRegistryKey deviceKey = FlowRegistryKeyFactory.create(deviceFlowBuilder.build());
+        final FlowDescriptor configDescriptor = FlowDescriptorFactory.create((short) 0, new FlowId("ut:config"));
+
+        deviceFlowRegistry.store(configKey, configDescriptor);
+        Assert.assertNull(deviceFlowRegistry.retrieveIdForFlow(deviceKey));
+
+        final DeviceFlowRegistryImpl normalizingRegistry = new DeviceFlowRegistryImpl(messageSpy, true);
+        normalizingRegistry.store(configKey, configDescriptor);
+        Assert.assertEquals(configDescriptor, normalizingRegistry.retrieveIdForFlow(deviceKey));
+        Assert.assertEquals(configDescriptor.getFlowId(), normalizingRegistry.storeIfNecessary(deviceKey, (short) 0));
+
+        normalizingRegistry.removeDescriptor(deviceKey);
+        Assert.assertTrue(normalizingRegistry.getAllFlowDescriptors().isEmpty());
+    }
 }
\ No newline at end of file
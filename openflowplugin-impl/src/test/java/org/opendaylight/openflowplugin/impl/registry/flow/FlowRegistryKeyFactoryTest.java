@@ -106,6 +106,33 @@ public class FlowRegistryKeyFactoryTest {
         Assert.assertFalse(key1.equals(null));
     }
 
+    @Test
+    public void testNormalizedKeys() throws Exception {
+        // host bits under prefix mask differ, normalized matches are the same
+        final FlowBuilder flow1Builder = new FlowBuilder()
+                .setMatch(new MatchBuilder().setLayer3Match(new Ipv4MatchBuilder()
+                        .setIpv4Destination(new Ipv4Prefix("10.0.1.0/24")).build()).build())
+                .setPriority(2)
+                .setTableId((short) 0);
+        final FlowBuilder flow2Builder = new FlowBuilder(flow1Builder.build())
+                .setMatch(new MatchBuilder().setLayer3Match(new Ipv4MatchBuilder()
+                        .setIpv4Destination(new Ipv4Prefix("10.0.1.157/24")).build()).build());
+
+        final FlowRegistryKeyFactory normalizingFactory = new FlowRegistryKeyFactory(true);
+        Assert.assertEquals(normalizingFactory.createKey(flow1Builder.build()),
+                normalizingFactory.createKey(flow2Builder.build()));
+
+        final FlowRegistryKey key1 = FlowRegistryKeyFactory.create(flow1Builder.build());
+        final FlowRegistryKey key2 = FlowRegistryKeyFactory.create(flow2Builder.build());
+        Assert.assertFalse(key1 instanceof CompactFlowRegistryKey);
+        Assert.assertFalse(key1.equals(key2));
+        Assert.assertEquals(key1, new FlowRegistryKeyFactory().createKey(flow1Builder.build()));
+        Assert.assertEquals(normalizingFactory.convert(key1), normalizingFactory.convert(key2));
+
+        // compact registry accepts binding keys too
+        Assert.assertEquals(CompactFlowRegistryKey.create(flow1Builder.build()), CompactFlowRegistryKey.create(key1));
+    }
+
     @Test
     public void testGetHash2() throws Exception {
         MatchBuilder match1Builder = new MatchBuilder().setLayer3Match(new Ipv4MatchBuilder()
@@ -1,6 +1,7 @@
 package org.opendaylight.openflowplugin.impl.services;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.eq;
@@ -21,7 +22,9 @@ import org.junit.runner.RunWith;
 import org.mockito.Matchers;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
 import org.opendaylight.controller.md.sal.binding.api.ReadOnlyTransaction;
 import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
 import org.opendaylight.controller.md.sal.common.api.data.ReadFailedException;
@@ -30,10 +33,14 @@ import org.opendaylight.openflowplugin.api.openflow.connection.ConnectionContext
 import org.opendaylight.openflowplugin.api.openflow.device.DeviceContext;
 import org.opendaylight.openflowplugin.api.openflow.device.DeviceState;
 import org.opendaylight.openflowplugin.api.openflow.device.RequestContext;
+import org.opendaylight.openflowplugin.api.openflow.device.handlers.MultiMsgCollector;
+import org.opendaylight.openflowplugin.api.openflow.device.handlers.MultipartReplySink;
 import org.opendaylight.openflowplugin.api.openflow.registry.flow.DeviceFlowRegistry;
 import org.opendaylight.openflowplugin.api.openflow.registry.flow.FlowRegistryKey;
 import org.opendaylight.openflowplugin.api.openflow.statistics.ofpspecific.EventIdentifier;
+import org.opendaylight.openflowplugin.impl.device.listener.StreamingMultiMsgCollectorImpl;
 import org.opendaylight.openflowplugin.impl.rpc.AbstractRequestContext;
+import org.opendaylight.openflowplugin.impl.statistics.FlowStatisticsWriterSink;
 import org.opendaylight.openflowplugin.impl.statistics.ofpspecific.MessageIntelligenceAgencyImpl;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.FlowCapableNode;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.FlowCapableNodeBuilder;
@@ -136,9 +143,20 @@ public class MultipartRequestOnTheFlyCallbackTest {
                 //NOOP
             }
         };
+        when(mockedDeviceContext.getMultiMsgCollector(Matchers.<RequestContext<List<MultipartReply>>>any(),
+                Matchers.any(MultipartReplySink.class))).thenAnswer(new Answer<MultiMsgCollector>() {
+            @Override
+            public MultiMsgCollector answer(final InvocationOnMock invocation) throws Throwable {
+                return new StreamingMultiMsgCollectorImpl(mockedDeviceContext,
+                        (RequestContext<List<MultipartReply>>) invocation.getArguments()[0],
+                        (MultipartReplySink) invocation.getArguments()[1], BigInteger.valueOf(123L), OFConstants.OFP_VERSION_1_3);
+            }
+        });
+
+        final FlowStatisticsWriterSink flowStatisticsWriterSink = new FlowStatisticsWriterSink(mockedDeviceState,
+                mockedFlowRegistry, mockedDeviceContext, null);
         multipartRequestOnTheFlyCallback = new MultipartRequestOnTheFlyCallback(dummyRequestContext, String.class,
-                mockedDeviceContext.getMessageSpy(),dummyEventIdentifier, mockedDeviceContext.getDeviceState(),
-                mockedDeviceContext.getDeviceFlowRegistry(), mockedDeviceContext);
+                mockedDeviceContext, dummyEventIdentifier, flowStatisticsWriterSink);
     }
 
 
@@ -203,7 +221,7 @@ public class MultipartRequestOnTheFlyCallbackTest {
                 .setType(MultipartType.OFPMPFLOW)
                 .setFlags(new MultipartRequestFlags(true))
                 .setMultipartReplyBody(multipartReplyFlowCaseBuilder.build())
-                .setXid(21L);
+                .setXid(DUMMY_XID);
 
         final InstanceIdentifier<FlowCapableNode> nodePath = mockedDeviceState.getNodeInstanceIdentifier()
                 .augmentation(FlowCapableNode.class);
@@ -243,7 +261,8 @@ public class MultipartRequestOnTheFlyCallbackTest {
     public void testOnSuccessWithValidMultipart2() throws Exception {
         final MultipartReplyMessageBuilder mpReplyMessage = new MultipartReplyMessageBuilder()
                 .setType(MultipartType.OFPMPDESC)
-                .setFlags(new MultipartRequestFlags(false));
+                .setFlags(new MultipartRequestFlags(false))
+                .setXid(DUMMY_XID);
 
         multipartRequestOnTheFlyCallback.onSuccess(mpReplyMessage.build());
 
@@ -257,4 +276,23 @@ public class MultipartRequestOnTheFlyCallbackTest {
         Mockito.verify(mockedDeviceContext, Mockito.never()).writeToTransaction(Matchers.eq(LogicalDatastoreType.OPERATIONAL),
                 Matchers.<InstanceIdentifier>any(), Matchers.<DataObject>any());
     }
+
+    /**
+     * failed request has to be reported to reply sink, otherwise consumer of streamed replies never finishes
+     */
+    @Test
+    public void testOnFailure() throws Exception {
+        final MultipartReplySink mockedSink = mock(MultipartReplySink.class);
+        final MultipartRequestOnTheFlyCallback callback = new MultipartRequestOnTheFlyCallback(dummyRequestContext,
+                String.class, mockedDeviceContext, dummyEventIdentifier, mockedSink);
+        final IllegalStateException failure = new IllegalStateException("dummy failure");
+
+        callback.onFailure(failure);
+        callback.onFailure(failure);
+
+        final RpcResult<List<MultipartReply>> actualResult = dummyRequestContext.getFuture().get();
+        assertFalse(actualResult.isSuccessful());
+        verify(mockedSink).onFailure(failure);
+        verify(mockedSink, Mockito.never()).onCompleted();
+    }
 }
\ No newline at end of file
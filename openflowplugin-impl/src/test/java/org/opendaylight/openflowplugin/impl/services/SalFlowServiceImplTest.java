@@ -4,6 +4,7 @@ package org.opendaylight.openflowplugin.impl.services;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import java.math.BigInteger;
 import java.util.concurrent.ExecutionException;
@@ -50,6 +51,7 @@ import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.Nodes;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.Node;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.NodeKey;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.FeaturesReply;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.OfHeader;
 import org.opendaylight.yangtools.yang.binding.DataObject;
 import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
 import org.opendaylight.yangtools.yang.binding.KeyedInstanceIdentifier;
@@ -154,6 +156,44 @@ public class SalFlowServiceImplTest extends TestCase {
         assertFalse(removeFlowOutputRpcResult.isSuccessful());
     }
 
+    @Test
+    public void testAddFlowAuxiliaryConnection() throws Exception {
+        final OutboundQueue auxiliaryOutboundQueue = mockAuxiliaryConnection();
+
+        verifyOutput(salFlowService.addFlow(createFlowMock(AddFlowInput.class)));
+        Mockito.verify(auxiliaryOutboundQueue, Mockito.atLeastOnce()).commitEntry(Matchers.eq(84L), Matchers.any(OfHeader.class),
+                Matchers.<FutureCallback<OfHeader>>any());
+        Mockito.verify(outboundQueue, Mockito.never()).commitEntry(Matchers.anyLong(), Matchers.any(OfHeader.class),
+                Matchers.<FutureCallback<OfHeader>>any());
+    }
+
+    /**
+     * Barrier goes over primary connection only - flows of barrier ordered callers (flat batch) must not leave it.
+     */
+    @Test
+    public void testAddFlowPrimaryConnectionOnly() throws Exception {
+        final OutboundQueue auxiliaryOutboundQueue = mockAuxiliaryConnection();
+        salFlowService = new SalFlowServiceImpl(mockedRequestContextStack, mockedDeviceContext, true);
+
+        verifyOutput(salFlowService.addFlow(createFlowMock(AddFlowInput.class)));
+        Mockito.verify(outboundQueue, Mockito.atLeastOnce()).commitEntry(Matchers.eq(84L), Matchers.any(OfHeader.class),
+                Matchers.<FutureCallback<OfHeader>>any());
+        Mockito.verify(auxiliaryOutboundQueue, Mockito.never()).commitEntry(Matchers.anyLong(),
+                Matchers.any(OfHeader.class), Matchers.<FutureCallback<OfHeader>>any());
+        Mockito.verify(mockedRequestContextStack, Mockito.never())
+                .createRequestContext(Matchers.any(ConnectionContext.class));
+    }
+
+    private OutboundQueue mockAuxiliaryConnection() {
+        final ConnectionContext auxiliaryConnectionContext = mock(ConnectionContext.class);
+        final OutboundQueue auxiliaryOutboundQueue = mock(OutboundQueue.class);
+        when(auxiliaryConnectionContext.getOutboundQueueProvider()).thenReturn(auxiliaryOutboundQueue);
+        when(mockedDeviceContext.selectConnectionContext(Matchers.anyLong())).thenReturn(auxiliaryConnectionContext);
+        Mockito.doReturn(requestContext).when(mockedRequestContextStack)
+                .createRequestContext(Matchers.any(ConnectionContext.class));
+        return auxiliaryOutboundQueue;
+    }
+
     @Test
     public void testAddFlowWithItemLifecycle() throws Exception {
         addFlow(mock(ItemLifecycleListener.class));
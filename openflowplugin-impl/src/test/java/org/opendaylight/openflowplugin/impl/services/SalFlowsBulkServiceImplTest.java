@@ -0,0 +1,549 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.openflowplugin.impl.services;
+
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.FutureCallback;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Matchers;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
+import org.opendaylight.openflowjava.protocol.api.connection.DeviceRequestFailedException;
+import org.opendaylight.openflowjava.protocol.api.connection.OutboundQueue;
+import org.opendaylight.openflowplugin.api.OFConstants;
+import org.opendaylight.openflowplugin.api.openflow.connection.ConnectionContext;
+import org.opendaylight.openflowplugin.api.openflow.device.DeviceContext;
+import org.opendaylight.openflowplugin.api.openflow.device.RequestContext;
+import org.opendaylight.openflowplugin.api.openflow.device.RequestContextStack;
+import org.opendaylight.openflowplugin.api.openflow.device.Xid;
+import org.opendaylight.openflowplugin.api.openflow.registry.flow.DeviceFlowRegistry;
+import org.opendaylight.openflowplugin.api.openflow.registry.flow.FlowDescriptor;
+import org.opendaylight.openflowplugin.api.openflow.registry.flow.FlowRegistryKey;
+import org.opendaylight.openflowplugin.api.openflow.statistics.ofpspecific.MessageSpy;
+import org.opendaylight.openflowplugin.impl.device.AuxiliaryConnectionRouter;
+import org.opendaylight.openflowplugin.impl.rpc.AbstractRequestContext;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.FlowId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.transaction.rev150304.FlowCapableTransactionService;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.transaction.rev150304.SendBarrierInput;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.types.rev131026.flow.MatchBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flows.service.rev160314.AddFlowsBatchInput;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flows.service.rev160314.AddFlowsBatchInputBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flows.service.rev160314.AddFlowsBatchOutput;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flows.service.rev160314.RemoveFlowsBatchInput;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flows.service.rev160314.RemoveFlowsBatchInputBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flows.service.rev160314.RemoveFlowsBatchOutput;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flows.service.rev160314.add.flows.batch.input.BatchAddFlows;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flows.service.rev160314.add.flows.batch.input.BatchAddFlowsBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flows.service.rev160314.remove.flows.batch.input.BatchRemoveFlows;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flows.service.rev160314.remove.flows.batch.input.BatchRemoveFlowsBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.action.rev150203.action.grouping.action.choice.GroupCaseBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.action.rev150203.action.grouping.action.choice.group._case.GroupActionBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.action.rev150203.actions.grouping.ActionBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.instruction.rev130731.instruction.grouping.instruction.choice.ApplyActionsCaseBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.instruction.rev130731.instruction.grouping.instruction.choice.apply.actions._case.ApplyActionsBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.instruction.rev130731.instructions.grouping.InstructionBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.ErrorMessageBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.FeaturesReply;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.types.rev130731.TableId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.FlowModInput;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.FlowModInputBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.OfHeader;
+import org.opendaylight.yangtools.yang.common.RpcResult;
+import org.opendaylight.yangtools.yang.common.RpcResultBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Test for {@link SalFlowsBulkServiceImpl}.
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class SalFlowsBulkServiceImplTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SalFlowsBulkServiceImplTest.class);
+    private static final Long FIRST_XID = 84L;
+    private static final String FLOW_ID_VALUE_1 = "ut-dummy-flow1";
+    private static final String FLOW_ID_VALUE_2 = "ut-dummy-flow2";
+
+    @Mock
+    private RequestContextStack requestContextStack;
+    @Mock
+    private RequestContext<Object> requestContext;
+    @Mock
+    private DeviceContext deviceContext;
+    @Mock
+    private ConnectionContext primaryConnectionContext;
+    @Mock
+    private FeaturesReply features;
+    @Mock
+    private OutboundQueue outboundQueue;
+    @Mock
+    private MessageSpy messageSpy;
+    @Mock
+    private DeviceFlowRegistry deviceFlowRegistry;
+    @Mock
+    private FlowCapableTransactionService transactionService;
+    @Captor
+    private ArgumentCaptor<OfHeader> requestCpt;
+    @Captor
+    private ArgumentCaptor<FutureCallback<OfHeader>> callbackCpt;
+
+    private SalFlowsBulkServiceImpl salFlowsBulkService;
+
+    @Before
+    public void setUp() throws Exception {
+        Mockito.when(features.getVersion()).thenReturn(OFConstants.OFP_VERSION_1_3);
+        Mockito.when(features.getDatapathId()).thenReturn(BigInteger.TEN);
+        Mockito.when(primaryConnectionContext.getFeatures()).thenReturn(features);
+        Mockito.when(primaryConnectionContext.getOutboundQueueProvider()).thenReturn(outboundQueue);
+        Mockito.when(deviceContext.getPrimaryConnectionContext()).thenReturn(primaryConnectionContext);
+        Mockito.when(deviceContext.getMessageSpy()).thenReturn(messageSpy);
+        Mockito.when(deviceContext.getDeviceFlowRegistry()).thenReturn(deviceFlowRegistry);
+        Mockito.when(deviceContext.reserveXidForDeviceMessage()).thenReturn(FIRST_XID + 1, FIRST_XID + 2);
+        Mockito.when(requestContextStack.createRequestContext()).thenReturn(requestContext);
+        Mockito.when(requestContext.getXid()).thenReturn(new Xid(FIRST_XID));
+        Mockito.when(transactionService.sendBarrier(Matchers.<SendBarrierInput>any()))
+                .thenReturn(RpcResultBuilder.<Void>success().buildFuture());
+
+        salFlowsBulkService = new SalFlowsBulkServiceImpl(requestContextStack, deviceContext, transactionService);
+    }
+
+    @Test
+    public void testAddFlowsBatch_success() throws Exception {
+        final Future<RpcResult<AddFlowsBatchOutput>> resultFuture = salFlowsBulkService.addFlowsBatch(
+                createAddFlowsBatchInput(true));
+
+        Mockito.verify(requestContextStack).createRequestContext();
+        Mockito.verify(deviceContext).reserveXidForDeviceMessage();
+        Mockito.verify(outboundQueue, Mockito.times(2))
+                .commitEntry(Matchers.anyLong(), requestCpt.capture(), callbackCpt.capture());
+        Assert.assertEquals(FIRST_XID, requestCpt.getAllValues().get(0).getXid());
+        Assert.assertEquals(Long.valueOf(FIRST_XID + 1), requestCpt.getAllValues().get(1).getXid());
+        Assert.assertTrue(requestCpt.getValue() instanceof FlowModInput);
+        // one tracking object for whole bulk
+        Assert.assertSame(callbackCpt.getAllValues().get(0), callbackCpt.getAllValues().get(1));
+        Assert.assertFalse(resultFuture.isDone());
+
+        callbackCpt.getValue().onSuccess(null);
+        callbackCpt.getValue().onSuccess(null);
+
+        Assert.assertTrue(resultFuture.isDone());
+        final RpcResult<AddFlowsBatchOutput> rpcResult = resultFuture.get();
+        Assert.assertTrue(rpcResult.isSuccessful());
+        Assert.assertTrue(rpcResult.getResult().getBatchFailedFlowsOutput().isEmpty());
+
+        Mockito.verify(requestContext).close();
+        Mockito.verify(transactionService).sendBarrier(Matchers.<SendBarrierInput>any());
+        Mockito.verify(deviceFlowRegistry, Mockito.times(2))
+                .store(Matchers.<FlowRegistryKey>any(), Matchers.<FlowDescriptor>any());
+        Mockito.verify(deviceFlowRegistry, Mockito.never()).removeDescriptor(Matchers.<FlowRegistryKey>any());
+    }
+
+    @Test
+    public void testAddFlowsBatch_deviceError() throws Exception {
+        final Future<RpcResult<AddFlowsBatchOutput>> resultFuture = salFlowsBulkService.addFlowsBatch(
+                createAddFlowsBatchInput(false));
+
+        Mockito.verify(outboundQueue, Mockito.times(2))
+                .commitEntry(Matchers.anyLong(), requestCpt.capture(), callbackCpt.capture());
+        callbackCpt.getValue().onSuccess(null);
+        callbackCpt.getValue().onFailure(new DeviceRequestFailedException("ut-device-error",
+                new ErrorMessageBuilder().setXid(FIRST_XID + 1).build()));
+
+        final RpcResult<AddFlowsBatchOutput> rpcResult = resultFuture.get();
+        Assert.assertFalse(rpcResult.isSuccessful());
+        Assert.assertEquals(1, rpcResult.getResult().getBatchFailedFlowsOutput().size());
+        Assert.assertEquals(1, rpcResult.getResult().getBatchFailedFlowsOutput().get(0).getBatchOrder().intValue());
+        Assert.assertEquals(FLOW_ID_VALUE_2,
+                rpcResult.getResult().getBatchFailedFlowsOutput().get(0).getFlowId().getValue());
+
+        Mockito.verify(requestContext).close();
+        Mockito.verify(deviceFlowRegistry).removeDescriptor(Matchers.<FlowRegistryKey>any());
+    }
+
+    @Test
+    public void testAddFlowsBatch_connectionFailure() throws Exception {
+        final Future<RpcResult<AddFlowsBatchOutput>> resultFuture = salFlowsBulkService.addFlowsBatch(
+                createAddFlowsBatchInput(false));
+
+        Mockito.verify(outboundQueue, Mockito.times(2))
+                .commitEntry(Matchers.anyLong(), requestCpt.capture(), callbackCpt.capture());
+        callbackCpt.getValue().onSuccess(null);
+        callbackCpt.getValue().onFailure(new IllegalStateException("ut-connection-closed"));
+
+        // failure without xid can not be attributed - all dispatched items are failed
+        final RpcResult<AddFlowsBatchOutput> rpcResult = resultFuture.get();
+        Assert.assertFalse(rpcResult.isSuccessful());
+        Assert.assertEquals(2, rpcResult.getResult().getBatchFailedFlowsOutput().size());
+    }
+
+    @Test
+    public void testAddFlowsBatch_xidReservationFailed() throws Exception {
+        Mockito.when(deviceContext.reserveXidForDeviceMessage()).thenReturn(null);
+
+        final Future<RpcResult<AddFlowsBatchOutput>> resultFuture = salFlowsBulkService.addFlowsBatch(
+                createAddFlowsBatchInput(false));
+
+        Mockito.verify(outboundQueue).commitEntry(Matchers.eq(FIRST_XID), requestCpt.capture(), callbackCpt.capture());
+        Assert.assertFalse(resultFuture.isDone());
+        callbackCpt.getValue().onSuccess(null);
+
+        final RpcResult<AddFlowsBatchOutput> rpcResult = resultFuture.get();
+        Assert.assertFalse(rpcResult.isSuccessful());
+        Assert.assertEquals(1, rpcResult.getResult().getBatchFailedFlowsOutput().size());
+        Assert.assertEquals(FLOW_ID_VALUE_2,
+                rpcResult.getResult().getBatchFailedFlowsOutput().get(0).getFlowId().getValue());
+        Mockito.verify(requestContext).close();
+    }
+
+    @Test
+    public void testRemoveFlowsBatch_quotaExceeded() throws Exception {
+        Mockito.when(requestContextStack.createRequestContext()).thenReturn(null);
+
+        final Future<RpcResult<RemoveFlowsBatchOutput>> resultFuture = salFlowsBulkService.removeFlowsBatch(
+                createRemoveFlowsBatchInput());
+
+        Assert.assertTrue(resultFuture.isDone());
+        final RpcResult<RemoveFlowsBatchOutput> rpcResult = resultFuture.get();
+        Assert.assertFalse(rpcResult.isSuccessful());
+        Assert.assertEquals(2, rpcResult.getResult().getBatchFailedFlowsOutput().size());
+        Mockito.verify(outboundQueue, Mockito.never()).commitEntry(Matchers.anyLong(),
+                Matchers.<OfHeader>any(), Matchers.<FutureCallback<OfHeader>>any());
+        Mockito.verify(deviceFlowRegistry, Mockito.never()).removeDescriptor(Matchers.<FlowRegistryKey>any());
+    }
+
+    @Test
+    public void testRemoveFlowsBatch_success() throws Exception {
+        final Future<RpcResult<RemoveFlowsBatchOutput>> resultFuture = salFlowsBulkService.removeFlowsBatch(
+                createRemoveFlowsBatchInput());
+
+        Mockito.verify(outboundQueue, Mockito.times(2))
+                .commitEntry(Matchers.anyLong(), requestCpt.capture(), callbackCpt.capture());
+        callbackCpt.getValue().onSuccess(null);
+        callbackCpt.getValue().onSuccess(null);
+
+        Assert.assertTrue(resultFuture.get().isSuccessful());
+        Mockito.verify(deviceFlowRegistry, Mockito.times(2)).removeDescriptor(Matchers.<FlowRegistryKey>any());
+    }
+
+    @Test
+    public void testProcessFlowMods_auxiliaryConnection() throws Exception {
+        final ConnectionContext auxiliaryConnectionContext = Mockito.mock(ConnectionContext.class);
+        final OutboundQueue auxiliaryOutboundQueue = Mockito.mock(OutboundQueue.class);
+        Mockito.when(auxiliaryConnectionContext.getOutboundQueueProvider()).thenReturn(auxiliaryOutboundQueue);
+        // XIDs of different connections may collide
+        Mockito.when(auxiliaryOutboundQueue.reserveEntry()).thenReturn(FIRST_XID);
+        Mockito.when(deviceContext.selectConnectionContext(0L)).thenReturn(primaryConnectionContext);
+        Mockito.when(deviceContext.selectConnectionContext(1L)).thenReturn(auxiliaryConnectionContext);
+
+        final List<List<FlowModInputBuilder>> itemFlowMods = new ArrayList<>();
+        itemFlowMods.add(Collections.singletonList(createFlowMod(0, 1)));
+        itemFlowMods.add(Collections.singletonList(createFlowMod(1, 2)));
+        itemFlowMods.add(Collections.singletonList(createFlowMod(OFConstants.OFPTT_ALL, 3)));
+        final Future<List<RpcResult<Object>>> resultFuture = salFlowsBulkService.processFlowMods(itemFlowMods);
+
+        final ArgumentCaptor<FutureCallback<OfHeader>> auxiliaryCallbackCpt = newCallbackCaptor();
+        Mockito.verify(outboundQueue, Mockito.times(2))
+                .commitEntry(Matchers.anyLong(), requestCpt.capture(), callbackCpt.capture());
+        Mockito.verify(auxiliaryOutboundQueue).commitEntry(Matchers.eq(FIRST_XID), Matchers.any(OfHeader.class),
+                auxiliaryCallbackCpt.capture());
+        // FLOW_MOD of all tables goes over primary connection
+        Assert.assertEquals(Long.valueOf(FIRST_XID + 1), requestCpt.getValue().getXid());
+        Assert.assertNotSame(callbackCpt.getValue(), auxiliaryCallbackCpt.getValue());
+
+        callbackCpt.getAllValues().get(0).onSuccess(null);
+        callbackCpt.getAllValues().get(1).onSuccess(null);
+        auxiliaryCallbackCpt.getValue().onFailure(new DeviceRequestFailedException("ut-device-error",
+                new ErrorMessageBuilder().setXid(FIRST_XID).build()));
+
+        final List<RpcResult<Object>> results = resultFuture.get(1, TimeUnit.SECONDS);
+        Assert.assertTrue(results.get(0).isSuccessful());
+        Assert.assertFalse(results.get(1).isSuccessful());
+        Assert.assertTrue(results.get(2).isSuccessful());
+    }
+
+    /**
+     * Simulation of switch which processes messages of every connection one by one - FLOW_MODs of many tables are
+     * programmed over primary connection only and then spread over auxiliary connections.
+     */
+    @Test
+    public void testProcessFlowMods_auxiliaryConnectionScaling() throws Exception {
+        final int tables = 16;
+        final int flowModsPerTable = 200;
+        final long processingNanos = TimeUnit.MICROSECONDS.toNanos(20);
+
+        long primaryOnlyElapsed = 0;
+        long spreadElapsed = 0;
+        for (final int auxiliaryConnections : new int[]{0, 2, 4}) {
+            final SwitchConnectionStandIn primary = new SwitchConnectionStandIn(processingNanos);
+            final List<SwitchConnectionStandIn> connections = Lists.newArrayList(primary);
+            final DeviceContext simulatedDevice = Mockito.mock(DeviceContext.class);
+            final ConnectionContext simulatedPrimaryContext = mockConnectionContext(primary);
+            Mockito.when(simulatedDevice.getPrimaryConnectionContext()).thenReturn(simulatedPrimaryContext);
+            Mockito.when(simulatedDevice.getMessageSpy()).thenReturn(messageSpy);
+            Mockito.when(simulatedDevice.reserveXidForDeviceMessage()).thenAnswer(new Answer<Long>() {
+                @Override
+                public Long answer(final InvocationOnMock invocation) throws Throwable {
+                    return primary.reserveEntry();
+                }
+            });
+
+            final AuxiliaryConnectionRouter router = new AuxiliaryConnectionRouter(simulatedPrimaryContext);
+            for (short auxiliaryId = 1; auxiliaryId <= auxiliaryConnections; auxiliaryId++) {
+                final SwitchConnectionStandIn auxiliary = new SwitchConnectionStandIn(processingNanos);
+                connections.add(auxiliary);
+                router.addConnection(auxiliaryId, mockConnectionContext(auxiliary));
+            }
+            Mockito.when(simulatedDevice.selectConnectionContext(Matchers.anyLong())).thenAnswer(new Answer<ConnectionContext>() {
+                @Override
+                public ConnectionContext answer(final InvocationOnMock invocation) throws Throwable {
+                    return router.select((Long) invocation.getArguments()[0]);
+                }
+            });
+
+            final RequestContextStack simulatedStack = Mockito.mock(RequestContextStack.class);
+            Mockito.when(simulatedStack.createRequestContext()).thenAnswer(new Answer<RequestContext<Object>>() {
+                @Override
+                public RequestContext<Object> answer(final InvocationOnMock invocation) throws Throwable {
+                    return createRequestContext(primary.reserveEntry());
+                }
+            });
+            Mockito.when(simulatedStack.createRequestContext(Matchers.any(ConnectionContext.class)))
+                    .thenAnswer(new Answer<RequestContext<Object>>() {
+                        @Override
+                        public RequestContext<Object> answer(final InvocationOnMock invocation) throws Throwable {
+                            final ConnectionContext connectionContext = (ConnectionContext) invocation.getArguments()[0];
+                            return createRequestContext(connectionContext.getOutboundQueueProvider().reserveEntry());
+                        }
+                    });
+
+            final List<List<FlowModInputBuilder>> itemFlowMods = new ArrayList<>(tables * flowModsPerTable);
+            for (int sequence = 0; sequence < flowModsPerTable; sequence++) {
+                for (int table = 0; table < tables; table++) {
+                    itemFlowMods.add(Collections.singletonList(createFlowMod(table, sequence)));
+                }
+            }
+
+            final long start = System.nanoTime();
+            final List<RpcResult<Object>> results = new SalFlowsBulkServiceImpl(simulatedStack, simulatedDevice,
+                    transactionService).<Object>processFlowMods(itemFlowMods).get(30, TimeUnit.SECONDS);
+            final long elapsed = System.nanoTime() - start;
+
+            for (final RpcResult<Object> result : results) {
+                Assert.assertTrue(result.isSuccessful());
+            }
+            int processed = 0;
+            for (final SwitchConnectionStandIn connection : connections) {
+                connection.shutdown();
+                processed += connection.assertTableOrder();
+            }
+            Assert.assertEquals(tables * flowModsPerTable, processed);
+
+            LOG.info("{} FLOW_MODs of {} tables programmed over {} auxiliary connections in {} ms ({} FLOW_MODs/ms)",
+                    processed, tables, auxiliaryConnections, TimeUnit.NANOSECONDS.toMillis(elapsed),
+                    processed * TimeUnit.MILLISECONDS.toNanos(1) / elapsed);
+            if (auxiliaryConnections == 0) {
+                primaryOnlyElapsed = elapsed;
+            } else {
+                spreadElapsed = elapsed;
+            }
+        }
+
+        Assert.assertTrue("no speed up by auxiliary connections", spreadElapsed < primaryOnlyElapsed);
+    }
+
+    /**
+     * Flat batch orders its steps by barrier sent over primary connection - pinned service must not use auxiliary
+     * connections at all.
+     */
+    @Test
+    public void testProcessFlowMods_primaryConnectionOnly() throws Exception {
+        final ConnectionContext auxiliaryConnectionContext = Mockito.mock(ConnectionContext.class);
+        final OutboundQueue auxiliaryOutboundQueue = Mockito.mock(OutboundQueue.class);
+        Mockito.when(auxiliaryConnectionContext.getOutboundQueueProvider()).thenReturn(auxiliaryOutboundQueue);
+        Mockito.when(deviceContext.selectConnectionContext(Matchers.anyLong())).thenReturn(auxiliaryConnectionContext);
+        salFlowsBulkService = new SalFlowsBulkServiceImpl(requestContextStack, deviceContext, transactionService, true);
+
+        final List<List<FlowModInputBuilder>> itemFlowMods = new ArrayList<>();
+        itemFlowMods.add(Collections.singletonList(createFlowMod(0, 1)));
+        itemFlowMods.add(Collections.singletonList(createFlowMod(1, 2)));
+        itemFlowMods.add(Collections.singletonList(createFlowMod(2, 3)));
+        final Future<List<RpcResult<Object>>> resultFuture = salFlowsBulkService.processFlowMods(itemFlowMods);
+
+        Mockito.verify(outboundQueue, Mockito.times(3))
+                .commitEntry(Matchers.anyLong(), requestCpt.capture(), callbackCpt.capture());
+        Mockito.verify(auxiliaryOutboundQueue, Mockito.never()).reserveEntry();
+        Mockito.verify(auxiliaryOutboundQueue, Mockito.never()).commitEntry(Matchers.anyLong(),
+                Matchers.any(OfHeader.class), Matchers.<FutureCallback<OfHeader>>any());
+        Mockito.verify(requestContextStack, Mockito.never()).createRequestContext(Matchers.any(ConnectionContext.class));
+
+        for (FutureCallback<OfHeader> callback : callbackCpt.getAllValues()) {
+            callback.onSuccess(null);
+        }
+        for (RpcResult<Object> result : resultFuture.get(1, TimeUnit.SECONDS)) {
+            Assert.assertTrue(result.isSuccessful());
+        }
+    }
+
+    @Test
+    public void testGetFlowModOrderingKey() throws Exception {
+        Assert.assertEquals(Long.valueOf(1L), FlowService.getFlowModOrderingKey(createFlowMod(1L, 0L)));
+        Assert.assertNull(FlowService.getFlowModOrderingKey(createFlowMod(OFConstants.OFPTT_ALL.longValue(), 0L)));
+
+        // flow pointing to group stays on primary connection together with GROUP_MODs
+        final FlowModInputBuilder groupFlowMod = createFlowMod(1L, 0L).setInstruction(Collections.singletonList(
+                new InstructionBuilder().setInstructionChoice(new ApplyActionsCaseBuilder()
+                        .setApplyActions(new ApplyActionsBuilder().setAction(Collections.singletonList(
+                                new ActionBuilder().setActionChoice(new GroupCaseBuilder()
+                                        .setGroupAction(new GroupActionBuilder().setGroupId(42L).build())
+                                        .build()).build())).build())
+                        .build()).build()));
+        Assert.assertNull(FlowService.getFlowModOrderingKey(groupFlowMod));
+    }
+
+    private static FlowModInputBuilder createFlowMod(final long tableId, final long sequence) {
+        return new FlowModInputBuilder()
+                .setVersion(OFConstants.OFP_VERSION_1_3)
+                .setTableId(new TableId(tableId))
+                .setCookie(BigInteger.valueOf(sequence));
+    }
+
+    private static ConnectionContext mockConnectionContext(final OutboundQueue outboundQueue) {
+        final ConnectionContext connectionContext = Mockito.mock(ConnectionContext.class);
+        Mockito.when(connectionContext.getOutboundQueueProvider()).thenReturn(outboundQueue);
+        return connectionContext;
+    }
+
+    private static RequestContext<Object> createRequestContext(final Long xid) {
+        return new AbstractRequestContext<Object>(xid) {
+            @Override
+            public void close() {
+                // NOOP
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ArgumentCaptor<FutureCallback<OfHeader>> newCallbackCaptor() {
+        return ArgumentCaptor.forClass((Class) FutureCallback.class);
+    }
+
+    /**
+     * One connection of in-process switch - committed messages are processed one by one on connection thread.
+     */
+    private static final class SwitchConnectionStandIn implements OutboundQueue {
+        private final long processingNanos;
+        private final AtomicLong xids = new AtomicLong();
+        private final ExecutorService connectionThread = Executors.newSingleThreadExecutor();
+        private final Map<Long, List<BigInteger>> cookiesPerTable = new ConcurrentHashMap<>();
+
+        private SwitchConnectionStandIn(final long processingNanos) {
+            this.processingNanos = processingNanos;
+        }
+
+        @Override
+        public Long reserveEntry() {
+            return xids.incrementAndGet();
+        }
+
+        @Override
+        public void commitEntry(final Long xid, final OfHeader message, final FutureCallback<OfHeader> callback) {
+            connectionThread.execute(new Runnable() {
+                @Override
+                public void run() {
+                    LockSupport.parkNanos(processingNanos);
+                    final FlowModInput flowMod = (FlowModInput) message;
+                    List<BigInteger> cookies = cookiesPerTable.get(flowMod.getTableId().getValue());
+                    if (cookies == null) {
+                        cookies = new ArrayList<>();
+                        cookiesPerTable.put(flowMod.getTableId().getValue(), cookies);
+                    }
+                    cookies.add(flowMod.getCookie());
+                    callback.onSuccess(null);
+                }
+            });
+        }
+
+        private void shutdown() throws InterruptedException {
+            connectionThread.shutdown();
+            Assert.assertTrue(connectionThread.awaitTermination(5, TimeUnit.SECONDS));
+        }
+
+        /**
+         * @return count of processed messages
+         */
+        private int assertTableOrder() {
+            int processed = 0;
+            for (final List<BigInteger> cookies : cookiesPerTable.values()) {
+                for (int i = 0; i < cookies.size(); i++) {
+                    Assert.assertEquals(BigInteger.valueOf(i), cookies.get(i));
+                }
+                processed += cookies.size();
+            }
+            return processed;
+        }
+    }
+
+    private static AddFlowsBatchInput createAddFlowsBatchInput(final boolean barrierAfter) {
+        return new AddFlowsBatchInputBuilder()
+                .setNode(SalFlowsBatchServiceImplTest.NODE_REF)
+                .setBarrierAfter(barrierAfter)
+                .setBatchAddFlows(Lists.newArrayList(
+                        createEmptyBatchAddFlow(FLOW_ID_VALUE_1, 42),
+                        createEmptyBatchAddFlow(FLOW_ID_VALUE_2, 43)))
+                .build();
+    }
+
+    private static RemoveFlowsBatchInput createRemoveFlowsBatchInput() {
+        return new RemoveFlowsBatchInputBuilder()
+                .setNode(SalFlowsBatchServiceImplTest.NODE_REF)
+                .setBarrierAfter(false)
+                .setBatchRemoveFlows(Lists.newArrayList(
+                        createEmptyBatchRemoveFlow(FLOW_ID_VALUE_1, 42),
+                        createEmptyBatchRemoveFlow(FLOW_ID_VALUE_2, 43)))
+                .build();
+    }
+
+    private static BatchAddFlows createEmptyBatchAddFlow(final String flowIdValue, final int priority) {
+        return new BatchAddFlowsBuilder()
+                .setFlowId(new FlowId(flowIdValue))
+                .setPriority(priority)
+                .setMatch(new MatchBuilder().build())
+                .setTableId((short) 0)
+                .build();
+    }
+
+    private static BatchRemoveFlows createEmptyBatchRemoveFlow(final String flowIdValue, final int priority) {
+        return new BatchRemoveFlowsBuilder()
+                .setFlowId(new FlowId(flowIdValue))
+                .setPriority(priority)
+                .setMatch(new MatchBuilder().build())
+                .setTableId((short) 0)
+                .build();
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.openflowplugin.impl.statistics;
+
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.Lists;
+import java.math.BigInteger;
+import java.util.concurrent.ExecutionException;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Matchers;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
+import org.opendaylight.openflowplugin.api.openflow.device.DeviceState;
+import org.opendaylight.openflowplugin.api.openflow.device.TxFacade;
+import org.opendaylight.openflowplugin.api.openflow.registry.flow.DeviceFlowRegistry;
+import org.opendaylight.openflowplugin.api.openflow.registry.flow.FlowRegistryKey;
+import org.opendaylight.openflowplugin.impl.registry.flow.DeviceFlowRegistryImpl;
+import org.opendaylight.openflowplugin.impl.registry.flow.FlowDescriptorFactory;
+import org.opendaylight.openflowplugin.impl.registry.flow.FlowRegistryKeyFactory;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.yang.types.rev100924.Counter64;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.FlowCapableNode;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.FlowId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.Table;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.TableKey;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.table.Flow;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.table.FlowBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.tables.table.FlowKey;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.statistics.rev130819.FlowsStatisticsUpdate;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.statistics.rev130819.FlowsStatisticsUpdateBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.statistics.rev130819.flow.and.statistics.map.list.FlowAndStatisticsMapList;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.statistics.rev130819.flow.and.statistics.map.list.FlowAndStatisticsMapListBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.statistics.rev130819.flow.statistics.FlowStatistics;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.types.rev131026.flow.MatchBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.NodeId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.Nodes;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.Node;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.NodeKey;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+
+/**
+ * Test for {@link FlowStatisticsSnapshot}.
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class FlowStatisticsSnapshotTest {
+
+    private static final NodeId DUMMY_NODE_ID = new NodeId("openflow:1");
+
+    @Mock
+    private DeviceState deviceState;
+    @Mock
+    private TxFacade txFacade;
+
+    private DeviceFlowRegistry deviceFlowRegistry;
+    private FlowStatisticsSnapshot flowStatisticsSnapshot;
+
+    @Before
+    public void setUp() throws Exception {
+        when(deviceState.getNodeInstanceIdentifier()).thenReturn(
+                InstanceIdentifier.create(Nodes.class).child(Node.class, new NodeKey(DUMMY_NODE_ID)));
+        deviceFlowRegistry = new DeviceFlowRegistryImpl();
+        flowStatisticsSnapshot = new FlowStatisticsSnapshot();
+    }
+
+    @Test
+    public void testFirstCycleWithoutBaseline() throws Exception {
+        Assert.assertFalse(flowStatisticsSnapshot.startCycle());
+        flowStatisticsSnapshot.writeFlowStatistics(prepareFlowStatisticsData(createFlowStat(1, 10L), createFlowStat(2, 20L)),
+                deviceState, deviceFlowRegistry, txFacade);
+        flowStatisticsSnapshot.finishCycle(deviceState, txFacade);
+
+        Mockito.verify(txFacade, Mockito.times(2)).writeToTransaction(Matchers.eq(LogicalDatastoreType.OPERATIONAL),
+                Matchers.<InstanceIdentifier<Flow>>any(), Matchers.<Flow>any());
+        Assert.assertEquals(2, flowStatisticsSnapshot.size());
+        Assert.assertTrue(flowStatisticsSnapshot.startCycle());
+    }
+
+    @Test
+    public void testIncrementalCycle() throws Exception {
+        flowStatisticsSnapshot.startCycle();
+        flowStatisticsSnapshot.writeFlowStatistics(prepareFlowStatisticsData(
+                        createFlowStat(1, 10L), createFlowStat(2, 20L), createFlowStat(3, 30L)),
+                deviceState, deviceFlowRegistry, txFacade);
+        flowStatisticsSnapshot.finishCycle(deviceState, txFacade);
+        Mockito.reset(txFacade);
+
+        // flow 1 unchanged, flow 2 counters changed, flow 3 vanished, flow 4 added
+        Assert.assertTrue(flowStatisticsSnapshot.startCycle());
+        flowStatisticsSnapshot.writeFlowStatistics(prepareFlowStatisticsData(
+                        createFlowStat(1, 10L), createFlowStat(2, 21L), createFlowStat(4, 40L)),
+                deviceState, deviceFlowRegistry, txFacade);
+        flowStatisticsSnapshot.finishCycle(deviceState, txFacade);
+
+        Mockito.verify(txFacade).writeToTransaction(Matchers.eq(LogicalDatastoreType.OPERATIONAL),
+                Matchers.<InstanceIdentifier<FlowStatistics>>any(), Matchers.isA(FlowStatistics.class));
+        Mockito.verify(txFacade).writeToTransaction(Matchers.eq(LogicalDatastoreType.OPERATIONAL),
+                Matchers.<InstanceIdentifier<Flow>>any(), Matchers.isA(Flow.class));
+        Mockito.verify(txFacade).addDeleteToTxChain(Matchers.eq(LogicalDatastoreType.OPERATIONAL),
+                Matchers.<InstanceIdentifier<Flow>>any());
+        Assert.assertEquals(3, flowStatisticsSnapshot.size());
+    }
+
+    @Test
+    public void testFlowIdChanged() throws Exception {
+        final FlowAndStatisticsMapList flowStat = createFlowStat(1, 10L);
+        flowStatisticsSnapshot.startCycle();
+        flowStatisticsSnapshot.writeFlowStatistics(prepareFlowStatisticsData(flowStat),
+                deviceState, deviceFlowRegistry, txFacade);
+        flowStatisticsSnapshot.finishCycle(deviceState, txFacade);
+        Mockito.reset(txFacade);
+
+        // alien id is replaced by configured one
+        final FlowRegistryKey flowRegistryKey = FlowRegistryKeyFactory.create(new FlowBuilder(flowStat).build());
+        final FlowId alienFlowId = deviceFlowRegistry.retrieveIdForFlow(flowRegistryKey).getFlowId();
+        final FlowId configuredFlowId = new FlowId("configured");
+        deviceFlowRegistry.store(flowRegistryKey, FlowDescriptorFactory.create((short) 42, configuredFlowId));
+
+        Assert.assertTrue(flowStatisticsSnapshot.startCycle());
+        flowStatisticsSnapshot.writeFlowStatistics(prepareFlowStatisticsData(flowStat),
+                deviceState, deviceFlowRegistry, txFacade);
+        flowStatisticsSnapshot.finishCycle(deviceState, txFacade);
+
+        final InstanceIdentifier<Table> tableIdent = deviceState.getNodeInstanceIdentifier()
+                .augmentation(FlowCapableNode.class).child(Table.class, new TableKey((short) 42));
+        Mockito.verify(txFacade).addDeleteToTxChain(LogicalDatastoreType.OPERATIONAL,
+                tableIdent.child(Flow.class, new FlowKey(alienFlowId)));
+        Mockito.verify(txFacade).writeToTransaction(Matchers.eq(LogicalDatastoreType.OPERATIONAL),
+                Matchers.eq(tableIdent.child(Flow.class, new FlowKey(configuredFlowId))), Matchers.isA(Flow.class));
+        Mockito.verify(txFacade, Mockito.never()).addDeleteToTxChain(LogicalDatastoreType.OPERATIONAL,
+                tableIdent.child(Flow.class, new FlowKey(configuredFlowId)));
+        Assert.assertEquals(1, flowStatisticsSnapshot.size());
+    }
+
+    @Test
+    public void testInvalidate() throws Exception {
+        flowStatisticsSnapshot.startCycle();
+        flowStatisticsSnapshot.writeFlowStatistics(prepareFlowStatisticsData(createFlowStat(1, 10L)),
+                deviceState, deviceFlowRegistry, txFacade);
+        flowStatisticsSnapshot.finishCycle(deviceState, txFacade);
+
+        flowStatisticsSnapshot.invalidate();
+        Assert.assertEquals(0, flowStatisticsSnapshot.size());
+        Assert.assertFalse(flowStatisticsSnapshot.startCycle());
+    }
+
+    @Test
+    public void testAbortedCycleDeletesNothing() throws Exception {
+        flowStatisticsSnapshot.startCycle();
+        flowStatisticsSnapshot.writeFlowStatistics(prepareFlowStatisticsData(
+                        createFlowStat(1, 10L), createFlowStat(2, 20L), createFlowStat(3, 30L)),
+                deviceState, deviceFlowRegistry, txFacade);
+        flowStatisticsSnapshot.finishCycle(deviceState, txFacade);
+        Mockito.reset(txFacade);
+
+        // second chunk fails on changed counters of flow 2, flow 3 is not reported because stream is incomplete
+        Mockito.doThrow(new IllegalStateException("dummy write failure")).when(txFacade).writeToTransaction(
+                Matchers.eq(LogicalDatastoreType.OPERATIONAL), Matchers.<InstanceIdentifier<FlowStatistics>>any(),
+                Matchers.isA(FlowStatistics.class));
+        final FlowStatisticsWriterSink sink = new FlowStatisticsWriterSink(deviceState, deviceFlowRegistry, txFacade,
+                flowStatisticsSnapshot);
+        sink.onChunk(Lists.newArrayList(prepareFlowStatisticsData(createFlowStat(1, 10L))));
+        sink.onChunk(Lists.newArrayList(prepareFlowStatisticsData(createFlowStat(2, 21L))));
+        sink.onCompleted();
+
+        try {
+            sink.getResult().get();
+            Assert.fail("failed chunk has to fail the result");
+        } catch (final ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        Mockito.verify(txFacade, Mockito.never()).addDeleteToTxChain(Matchers.eq(LogicalDatastoreType.OPERATIONAL),
+                Matchers.<InstanceIdentifier<Flow>>any());
+        Mockito.verify(txFacade).submitTransaction();
+        Assert.assertFalse(flowStatisticsSnapshot.startCycle());
+    }
+
+    @Test
+    public void testFinishAfterAbort() throws Exception {
+        flowStatisticsSnapshot.startCycle();
+        flowStatisticsSnapshot.writeFlowStatistics(prepareFlowStatisticsData(createFlowStat(1, 10L)),
+                deviceState, deviceFlowRegistry, txFacade);
+        flowStatisticsSnapshot.finishCycle(deviceState, txFacade);
+
+        Assert.assertTrue(flowStatisticsSnapshot.startCycle());
+        flowStatisticsSnapshot.abortCycle();
+        flowStatisticsSnapshot.finishCycle(deviceState, txFacade);
+
+        Mockito.verify(txFacade, Mockito.never()).addDeleteToTxChain(Matchers.eq(LogicalDatastoreType.OPERATIONAL),
+                Matchers.<InstanceIdentifier<Flow>>any());
+        Assert.assertFalse(flowStatisticsSnapshot.startCycle());
+    }
+
+    private static FlowAndStatisticsMapList createFlowStat(final int priority, final long packetCount) {
+        return new FlowAndStatisticsMapListBuilder()
+                .setTableId((short) 42)
+                .setPriority(priority)
+                .setMatch(new MatchBuilder().build())
+                .setPacketCount(new Counter64(BigInteger.valueOf(packetCount)))
+                .setByteCount(new Counter64(BigInteger.valueOf(packetCount * 64)))
+                .build();
+    }
+
+    private static Iterable<FlowsStatisticsUpdate> prepareFlowStatisticsData(final FlowAndStatisticsMapList... flowStats) {
+        final FlowsStatisticsUpdateBuilder flowStatsUpdateBld = new FlowsStatisticsUpdateBuilder();
+        flowStatsUpdateBld.setFlowAndStatisticsMapList(Lists.newArrayList(flowStats));
+        return Lists.newArrayList(flowStatsUpdateBld.build());
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.openflowplugin.impl.statistics;
+
+import java.util.Collections;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InOrder;
+import org.mockito.Matchers;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.opendaylight.controller.md.sal.common.api.data.LogicalDatastoreType;
+import org.opendaylight.openflowplugin.api.openflow.device.DeviceContext;
+import org.opendaylight.openflowplugin.api.openflow.device.DeviceState;
+import org.opendaylight.openflowplugin.api.openflow.registry.group.DeviceGroupRegistry;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.inventory.rev130819.FlowCapableNode;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.group.statistics.rev131111.GroupDescStatsUpdatedBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.group.types.rev131018.GroupId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.group.types.rev131018.group.desc.stats.reply.GroupDescStats;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.group.types.rev131018.group.desc.stats.reply.GroupDescStatsBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.group.types.rev131018.groups.Group;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.group.types.rev131018.groups.GroupKey;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.NodeId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.Nodes;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.Node;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.nodes.NodeKey;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.types.rev130731.MultipartType;
+import org.opendaylight.yangtools.yang.binding.DataObject;
+import org.opendaylight.yangtools.yang.binding.InstanceIdentifier;
+import org.opendaylight.yangtools.yang.binding.KeyedInstanceIdentifier;
+
+/**
+ * Test for {@link GroupStatisticsWriterSink}.
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class GroupStatisticsWriterSinkTest {
+
+    private static final KeyedInstanceIdentifier<Node, NodeKey> DUMMY_NODE_PATH = InstanceIdentifier.create(Nodes.class)
+            .child(Node.class, new NodeKey(new NodeId("openflow:21")));
+
+    @Mock
+    private DeviceContext deviceContext;
+    @Mock
+    private DeviceState deviceState;
+    @Mock
+    private DeviceGroupRegistry deviceGroupRegistry;
+
+    @Before
+    public void setUp() throws Exception {
+        Mockito.when(deviceContext.getDeviceState()).thenReturn(deviceState);
+        Mockito.when(deviceContext.getDeviceGroupRegistry()).thenReturn(deviceGroupRegistry);
+        Mockito.when(deviceState.getNodeInstanceIdentifier()).thenReturn(DUMMY_NODE_PATH);
+        Mockito.when(deviceGroupRegistry.getAllGroupIds()).thenReturn(Collections.<GroupId>emptyList());
+    }
+
+    @Test
+    public void testGroupDescStream() throws Exception {
+        final GroupStatisticsWriterSink sink = new GroupStatisticsWriterSink(deviceContext, MultipartType.OFPMPGROUPDESC);
+
+        sink.onChunk(Collections.<DataObject>singletonList(assembleGroupDescChunk(1L)));
+        sink.onChunk(Collections.<DataObject>singletonList(assembleGroupDescChunk(2L)));
+        Mockito.verify(deviceContext, Mockito.never()).submitTransaction();
+        sink.onCompleted();
+
+        Assert.assertTrue(sink.getResult().get(1, TimeUnit.SECONDS));
+        final InOrder inOrder = Mockito.inOrder(deviceGroupRegistry, deviceContext);
+        // known groups are cleaned up only once - before the first chunk
+        inOrder.verify(deviceGroupRegistry).removeMarked();
+        inOrder.verify(deviceGroupRegistry).store(new GroupId(1L));
+        inOrder.verify(deviceGroupRegistry).store(new GroupId(2L));
+        inOrder.verify(deviceContext).submitTransaction();
+        Mockito.verify(deviceContext).writeToTransaction(Matchers.eq(LogicalDatastoreType.OPERATIONAL),
+                Matchers.eq(assembleGroupPath(2L)), Matchers.any(Group.class));
+    }
+
+    @Test
+    public void testStreamFailure() throws Exception {
+        final GroupStatisticsWriterSink sink = new GroupStatisticsWriterSink(deviceContext, MultipartType.OFPMPGROUPDESC);
+
+        sink.onChunk(Collections.<DataObject>singletonList(assembleGroupDescChunk(1L)));
+        sink.onFailure(new IllegalStateException("broken stream"));
+
+        try {
+            sink.getResult().get(1, TimeUnit.SECONDS);
+            Assert.fail("broken stream must fail the result");
+        } catch (final ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        // partially written data are submitted anyway
+        Mockito.verify(deviceContext).submitTransaction();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnsupportedType() throws Exception {
+        new GroupStatisticsWriterSink(deviceContext, MultipartType.OFPMPFLOW);
+    }
+
+    private static DataObject assembleGroupDescChunk(final long groupId) {
+        final GroupDescStats groupDescStats = new GroupDescStatsBuilder()
+                .setGroupId(new GroupId(groupId))
+                .build();
+        return new GroupDescStatsUpdatedBuilder()
+                .setGroupDescStats(Collections.singletonList(groupDescStats))
+                .build();
+    }
+
+    private static InstanceIdentifier<Group> assembleGroupPath(final long groupId) {
+        return DUMMY_NODE_PATH.augmentation(FlowCapableNode.class).child(Group.class, new GroupKey(new GroupId(groupId)));
+    }
+}
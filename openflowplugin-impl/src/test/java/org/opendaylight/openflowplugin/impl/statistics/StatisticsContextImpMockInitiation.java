@@ -14,19 +14,32 @@ package org.opendaylight.openflowplugin.impl.statistics;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import com.google.common.util.concurrent.Futures;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Future;
 import org.junit.Before;
+import org.mockito.Matchers;
 import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.opendaylight.openflowjava.protocol.api.connection.OutboundQueue;
 import org.opendaylight.openflowplugin.api.openflow.connection.ConnectionContext;
 import org.opendaylight.openflowplugin.api.openflow.device.DeviceContext;
 import org.opendaylight.openflowplugin.api.openflow.device.DeviceManager;
 import org.opendaylight.openflowplugin.api.openflow.device.DeviceState;
+import org.opendaylight.openflowplugin.api.openflow.device.handlers.MultipartReplySink;
 import org.opendaylight.openflowplugin.api.openflow.lifecycle.LifecycleConductor;
+import org.opendaylight.openflowplugin.api.openflow.statistics.ofpspecific.EventIdentifier;
 import org.opendaylight.openflowplugin.api.openflow.statistics.ofpspecific.MessageSpy;
 import org.opendaylight.openflowplugin.impl.statistics.services.dedicated.StatisticsGatheringOnTheFlyService;
 import org.opendaylight.openflowplugin.impl.statistics.services.dedicated.StatisticsGatheringService;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.NodeId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.types.rev130731.MultipartType;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.FeaturesReply;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.MultipartReply;
+import org.opendaylight.yangtools.yang.common.RpcResult;
+import org.opendaylight.yangtools.yang.common.RpcResultBuilder;
 
 
 public class StatisticsContextImpMockInitiation {
@@ -80,5 +93,15 @@ public class StatisticsContextImpMockInitiation {
         mockConductor.setSafelyDeviceManager(mockedDeviceManager);
         when(mockConductor.getDeviceContext(Mockito.<NodeId>any())).thenReturn(mockedDeviceContext);
 
+        // streamed statistics: end of stream without any reply
+        when(mockedStatisticsOnFlyGatheringService.getStatisticsOfType(Matchers.any(EventIdentifier.class),
+                Matchers.any(MultipartType.class), Matchers.any(MultipartReplySink.class))).thenAnswer(
+                new Answer<Future<RpcResult<List<MultipartReply>>>>() {
+                    @Override
+                    public Future<RpcResult<List<MultipartReply>>> answer(final InvocationOnMock invocation) throws Throwable {
+                        ((MultipartReplySink) invocation.getArguments()[2]).onCompleted();
+                        return Futures.immediateFuture(RpcResultBuilder.success(Collections.<MultipartReply>emptyList()).build());
+                    }
+                });
     }
 }
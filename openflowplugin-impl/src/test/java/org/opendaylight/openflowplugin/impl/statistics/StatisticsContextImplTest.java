@@ -18,7 +18,11 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import org.junit.Assert;
 import org.junit.Before;
@@ -26,9 +30,12 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Matchers;
 import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
 import org.opendaylight.openflowplugin.api.openflow.connection.ConnectionContext;
 import org.opendaylight.openflowplugin.api.openflow.device.RequestContext;
+import org.opendaylight.openflowplugin.api.openflow.device.handlers.MultipartReplySink;
 import org.opendaylight.openflowplugin.api.openflow.statistics.ofpspecific.EventIdentifier;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.NodeId;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.types.rev130731.MultipartType;
@@ -54,7 +61,7 @@ public class StatisticsContextImplTest extends StatisticsContextImpMockInitiatio
     }
 
     private void initStatisticsContext() {
-        statisticsContext = new StatisticsContextImpl(mockedDeviceContext.getDeviceState().getNodeId(), false, mockConductor);
+        statisticsContext = new StatisticsContextImpl(mockedDeviceContext.getDeviceState().getNodeId(), false, false, 1, mockConductor);
         statisticsContext.setStatisticsGatheringService(mockedStatisticsGatheringService);
         statisticsContext.setStatisticsGatheringOnTheFlyService(mockedStatisticsOnFlyGatheringService);
     }
@@ -72,7 +79,7 @@ public class StatisticsContextImplTest extends StatisticsContextImpMockInitiatio
      */
     @Test
     public void testClose() throws Exception {
-        final StatisticsContextImpl statisticsContext = new StatisticsContextImpl(mockedDeviceContext.getDeviceState().getNodeId(), false, mockConductor);
+        final StatisticsContextImpl statisticsContext = new StatisticsContextImpl(mockedDeviceContext.getDeviceState().getNodeId(), false, false, 1, mockConductor);
         final RequestContext<Object> requestContext = statisticsContext.createRequestContext();
         statisticsContext.close();
         try {
@@ -109,21 +116,78 @@ public class StatisticsContextImplTest extends StatisticsContextImpMockInitiatio
                 .thenReturn(
                         Futures.immediateFuture(RpcResultBuilder.success(Collections.<MultipartReply>emptyList()).build())
                 );
-        when(mockedStatisticsOnFlyGatheringService.getStatisticsOfType(Matchers.any(EventIdentifier.class), Matchers.any(MultipartType.class)))
-                .thenReturn(
-                        Futures.immediateFuture(RpcResultBuilder.success(Collections.<MultipartReply>emptyList()).build())
-                );
 
         final ListenableFuture<Boolean> gatheringResult = statisticsContext.gatherDynamicData();
         Assert.assertTrue(gatheringResult.isDone());
         Assert.assertTrue(gatheringResult.get());
-        verify(mockedStatisticsGatheringService, times(7))
-                .getStatisticsOfType(Matchers.any(EventIdentifier.class), Matchers.any(MultipartType.class));
-        verify(mockedStatisticsOnFlyGatheringService)
+        // table, port and queue statistics are collected, flow, group and meter ones are streamed
+        verify(mockedStatisticsGatheringService, times(3))
                 .getStatisticsOfType(Matchers.any(EventIdentifier.class), Matchers.any(MultipartType.class));
+        verify(mockedStatisticsOnFlyGatheringService, times(5)).getStatisticsOfType(Matchers.any(EventIdentifier.class),
+                Matchers.any(MultipartType.class), Matchers.any(MultipartReplySink.class));
         Mockito.verifyNoMoreInteractions(mockedStatisticsGatheringService, mockedStatisticsOnFlyGatheringService);
     }
 
+    /**
+     * pipelined gathering: independent types are requested together, group and meter stats wait
+     * for group description and meter config respectively
+     */
+    @Test
+    public void testGatherDynamicData_pipelined() throws Exception {
+        Mockito.reset(mockedDeviceState);
+        when(mockedDeviceState.isGroupAvailable()).thenReturn(true);
+        when(mockedDeviceState.isMetersAvailable()).thenReturn(true);
+        statisticsContext = new StatisticsContextImpl(mockedDeviceContext.getDeviceState().getNodeId(), false, false, 4, mockConductor);
+        statisticsContext.setStatisticsGatheringService(mockedStatisticsGatheringService);
+        statisticsContext.setStatisticsGatheringOnTheFlyService(mockedStatisticsOnFlyGatheringService);
+
+        final Map<MultipartType, SettableFuture<RpcResult<List<MultipartReply>>>> requests = new ConcurrentHashMap<>();
+        final Map<MultipartType, MultipartReplySink> sinks = new ConcurrentHashMap<>();
+        when(mockedStatisticsOnFlyGatheringService.getStatisticsOfType(Matchers.any(EventIdentifier.class),
+                Matchers.any(MultipartType.class), Matchers.any(MultipartReplySink.class)))
+                .thenAnswer(new Answer<SettableFuture<RpcResult<List<MultipartReply>>>>() {
+                    @Override
+                    public SettableFuture<RpcResult<List<MultipartReply>>> answer(final InvocationOnMock invocation) throws Throwable {
+                        final SettableFuture<RpcResult<List<MultipartReply>>> future = SettableFuture.create();
+                        final MultipartReplySink sink = (MultipartReplySink) invocation.getArguments()[2];
+                        sinks.put((MultipartType) invocation.getArguments()[1], sink);
+                        requests.put((MultipartType) invocation.getArguments()[1], future);
+                        return future;
+                    }
+                });
+
+        final ListenableFuture<Boolean> gatheringResult = statisticsContext.gatherDynamicData();
+        Assert.assertEquals(2, requests.size());
+        Assert.assertTrue(requests.containsKey(MultipartType.OFPMPGROUPDESC));
+        Assert.assertTrue(requests.containsKey(MultipartType.OFPMPMETERCONFIG));
+
+        finishStream(MultipartType.OFPMPGROUPDESC, sinks, requests);
+        Assert.assertEquals(3, requests.size());
+        Assert.assertTrue(requests.containsKey(MultipartType.OFPMPGROUP));
+
+        finishStream(MultipartType.OFPMPMETERCONFIG, sinks, requests);
+        Assert.assertEquals(4, requests.size());
+        Assert.assertFalse(gatheringResult.isDone());
+
+        finishStream(MultipartType.OFPMPGROUP, sinks, requests);
+        finishStream(MultipartType.OFPMPMETER, sinks, requests);
+        Assert.assertTrue(gatheringResult.isDone());
+        Assert.assertTrue(gatheringResult.get());
+    }
+
+    private static void finishStream(final MultipartType type, final Map<MultipartType, MultipartReplySink> sinks,
+                                     final Map<MultipartType, SettableFuture<RpcResult<List<MultipartReply>>>> requests) {
+        sinks.get(type).onCompleted();
+        requests.get(type).set(RpcResultBuilder.success(Collections.<MultipartReply>emptyList()).build());
+    }
+
+    @Test
+    public void testGetPrerequisite() throws Exception {
+        Assert.assertEquals(MultipartType.OFPMPGROUPDESC, StatisticsContextImpl.getPrerequisite(MultipartType.OFPMPGROUP));
+        Assert.assertEquals(MultipartType.OFPMPMETERCONFIG, StatisticsContextImpl.getPrerequisite(MultipartType.OFPMPMETER));
+        Assert.assertNull(StatisticsContextImpl.getPrerequisite(MultipartType.OFPMPFLOW));
+    }
+
     @Test
     public void testDeviceConnectionCheck_WORKING() throws Exception {
         final ListenableFuture<Boolean> deviceConnectionCheckResult = statisticsContext.deviceConnectionCheck();
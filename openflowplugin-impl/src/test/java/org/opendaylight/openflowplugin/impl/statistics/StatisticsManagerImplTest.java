@@ -40,22 +40,34 @@ import org.opendaylight.openflowplugin.api.openflow.device.RequestContextStack;
 import org.opendaylight.openflowplugin.api.openflow.device.handlers.DeviceInitializationPhaseHandler;
 import org.opendaylight.openflowplugin.api.openflow.device.handlers.DeviceTerminationPhaseHandler;
 import org.opendaylight.openflowplugin.api.openflow.device.handlers.MultiMsgCollector;
+import org.opendaylight.openflowplugin.api.openflow.device.handlers.MultipartReplySink;
 import org.opendaylight.openflowplugin.api.openflow.lifecycle.LifecycleConductor;
 import org.opendaylight.openflowplugin.api.openflow.registry.ItemLifeCycleRegistry;
 import org.opendaylight.openflowplugin.api.openflow.rpc.ItemLifeCycleSource;
 import org.opendaylight.openflowplugin.api.openflow.rpc.listener.ItemLifecycleListener;
 import org.opendaylight.openflowplugin.api.openflow.statistics.StatisticsContext;
+import org.opendaylight.openflowplugin.api.openflow.statistics.ofpspecific.EventIdentifier;
 import org.opendaylight.openflowplugin.api.openflow.statistics.ofpspecific.MessageSpy;
+import org.opendaylight.openflowplugin.impl.device.listener.StreamingMultiMsgCollectorImpl;
 import org.opendaylight.openflowplugin.impl.registry.flow.DeviceFlowRegistryImpl;
+import org.opendaylight.openflowplugin.impl.statistics.ofpspecific.EventsTimeCounter;
+import org.opendaylight.openflowplugin.impl.statistics.ofpspecific.MessageIntelligenceAgencyImpl;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.NodeId;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.FeaturesReply;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.MultipartReply;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.MultipartRequestInput;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.OfHeader;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.openflowplugin.sm.control.rev150812.ChangeStatisticsWorkModeInputBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.openflowplugin.sm.control.rev150812.EventTimesWindow;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.openflowplugin.sm.control.rev150812.GetEventTimesInputBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.openflowplugin.sm.control.rev150812.GetEventTimesOutput;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.openflowplugin.sm.control.rev150812.GetMessageCountsInputBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.openflowplugin.sm.control.rev150812.GetMessageCountsOutput;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.openflowplugin.sm.control.rev150812.GetStatisticsWorkModeOutput;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.openflowplugin.sm.control.rev150812.StatisticsManagerControlService;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.openflowplugin.sm.control.rev150812.StatisticsWorkMode;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.openflowplugin.sm.control.rev150812.get.event.times.output.EventTimes;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.params.xml.ns.yang.openflowplugin.sm.control.rev150812.get.message.counts.output.MessageCounts;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.role.service.rev150727.OfpRole;
 import org.opendaylight.yangtools.yang.common.RpcResult;
 import org.opendaylight.yangtools.yang.common.RpcResultBuilder;
@@ -146,19 +158,30 @@ public class StatisticsManagerImplTest {
                     }
                 }
         );
+        when(mockedDeviceContext.getMultiMsgCollector(
+                Matchers.<RequestContext<List<MultipartReply>>>any(), Matchers.any(MultipartReplySink.class))).thenAnswer(
+                new Answer<MultiMsgCollector>() {
+                    @Override
+                    public MultiMsgCollector answer(final InvocationOnMock invocation) throws Throwable {
+                        currentRequestContext = (RequestContext<List<MultipartReply>>) invocation.getArguments()[0];
+                        return new StreamingMultiMsgCollectorImpl(mockedDeviceContext, currentRequestContext,
+                                (MultipartReplySink) invocation.getArguments()[1], DUMMY_DATAPATH_ID, DUMMY_VERSION);
+                    }
+                }
+        );
         when(mockedDeviceContext.getItemLifeCycleSourceRegistry()).thenReturn(itemLifeCycleRegistry);
         when(rpcProviderRegistry.addRpcImplementation(
                 Matchers.eq(StatisticsManagerControlService.class),
                 Matchers.<StatisticsManagerControlService>any())).thenReturn(serviceControlRegistration);
 
-        statisticsManager = new StatisticsManagerImpl(rpcProviderRegistry, false, conductor);
+        statisticsManager = new StatisticsManagerImpl(rpcProviderRegistry, false, false, 1, conductor);
         when(deviceManager.getDeviceContextFromNodeId(Mockito.<NodeId>any())).thenReturn(mockedDeviceContext);
         when(conductor.getDeviceContext(Mockito.<NodeId>any())).thenReturn(mockedDeviceContext);
     }
 
     @Test
     public void testOnDeviceContextLevelUp() throws Exception {
-        statisticsManager = new StatisticsManagerImpl(rpcProviderRegistry, true, conductor);
+        statisticsManager = new StatisticsManagerImpl(rpcProviderRegistry, true, false, 1, conductor);
         Mockito.doAnswer(new Answer<Void>() {
             @Override
             public Void answer(final InvocationOnMock invocation) throws Throwable {
@@ -213,6 +236,48 @@ public class StatisticsManagerImplTest {
         Assert.assertEquals(StatisticsWorkMode.COLLECTALL, workMode.get().getResult().getMode());
     }
 
+    @Test
+    public void testGetEventTimes() throws Exception {
+        EventsTimeCounter.resetAllCounters();
+        final EventIdentifier eventIdentifier = new EventIdentifier("junit", "junitDevice");
+        EventsTimeCounter.markStart(eventIdentifier);
+        EventsTimeCounter.markEnd(eventIdentifier);
+
+        final Future<RpcResult<GetEventTimesOutput>> eventTimes = statisticsManager.getEventTimes(
+                new GetEventTimesInputBuilder().setWindow(EventTimesWindow.ALLTIME).build());
+        Assert.assertTrue(eventTimes.isDone());
+        Assert.assertTrue(eventTimes.get().isSuccessful());
+        final List<EventTimes> eventTimesList = eventTimes.get().getResult().getEventTimes();
+        Assert.assertEquals(1, eventTimesList.size());
+        Assert.assertEquals("junitDevice", eventTimesList.get(0).getDeviceId());
+        Assert.assertEquals("junit", eventTimesList.get(0).getEventName());
+        Assert.assertEquals(BigInteger.ONE, eventTimesList.get(0).getCount());
+        EventsTimeCounter.resetAllCounters();
+    }
+
+    @Test
+    public void testGetMessageCounts() throws Exception {
+        final MessageIntelligenceAgencyImpl messageIntelligenceAgency = new MessageIntelligenceAgencyImpl();
+        when(conductor.getMessageIntelligenceAgency()).thenReturn(messageIntelligenceAgency);
+        messageIntelligenceAgency.createDeviceMessageSpy(new NodeId("openflow:1"))
+                .spyMessage(OfHeader.class, MessageSpy.STATISTIC_GROUP.FROM_SWITCH);
+        messageIntelligenceAgency.createDeviceMessageSpy(new NodeId("openflow:2"))
+                .spyMessage(OfHeader.class, MessageSpy.STATISTIC_GROUP.FROM_SWITCH);
+
+        final Future<RpcResult<GetMessageCountsOutput>> messageCounts = statisticsManager.getMessageCounts(
+                new GetMessageCountsInputBuilder().setDeviceId("openflow:2").build());
+        Assert.assertTrue(messageCounts.get().isSuccessful());
+        final List<MessageCounts> messageCountsList = messageCounts.get().getResult().getMessageCounts();
+        Assert.assertEquals(1, messageCountsList.size());
+        Assert.assertEquals("openflow:2", messageCountsList.get(0).getDeviceId());
+        Assert.assertEquals("FROM_SWITCH", messageCountsList.get(0).getStatisticGroup());
+        Assert.assertEquals("OfHeader", messageCountsList.get(0).getMessageType());
+        Assert.assertEquals(BigInteger.ONE, messageCountsList.get(0).getCount());
+
+        Assert.assertEquals(2, statisticsManager.getMessageCounts(new GetMessageCountsInputBuilder().build())
+                .get().getResult().getMessageCounts().size());
+    }
+
     /**
      * switching to {@link StatisticsWorkMode#FULLYDISABLED}; no pollTimeout and no lifecycleRegistry
      *
@@ -333,13 +398,19 @@ public class StatisticsManagerImplTest {
     }
 
     @Test
-    public void testCalculateTimerDelay() throws Exception {
-        final TimeCounter timeCounter = Mockito.mock(TimeCounter.class);
-        when(timeCounter.getAverageTimeBetweenMarks()).thenReturn(2000L, 4000L);
-
-        statisticsManager.calculateTimerDelay(timeCounter);
-        Assert.assertEquals(3000L, StatisticsManagerImpl.getCurrentTimerDelay());
-        statisticsManager.calculateTimerDelay(timeCounter);
-        Assert.assertEquals(6000L, StatisticsManagerImpl.getCurrentTimerDelay());
+    public void testPollingSchedulerPerDevice() throws Exception {
+        statisticsManager.setDeviceInitializationPhaseHandler(mockedDevicePhaseHandler);
+        statisticsManager.setDeviceTerminationPhaseHandler(mockedTerminationPhaseHandler);
+        final NodeId nodeId = mockedDeviceContext.getDeviceState().getNodeId();
+
+        statisticsManager.onDeviceContextLevelUp(nodeId);
+        final StatisticsPollingScheduler pollingScheduler = statisticsManager.getPollingScheduler(nodeId);
+        Assert.assertNotNull(pollingScheduler);
+        Assert.assertEquals(StatisticsPollingScheduler.BASIC_TIMER_DELAY, pollingScheduler.getCurrentTimerDelay());
+        verify(conductor).newTimeout(Matchers.<TimerTask>any(),
+                Matchers.eq(pollingScheduler.getStartOffset()), Matchers.eq(TimeUnit.MILLISECONDS));
+
+        statisticsManager.onDeviceContextLevelDown(mockedDeviceContext);
+        Assert.assertNull(statisticsManager.getPollingScheduler(nodeId));
     }
-}
\ No newline at end of file
+}
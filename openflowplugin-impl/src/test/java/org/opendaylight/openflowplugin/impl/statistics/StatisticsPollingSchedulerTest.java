@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.openflowplugin.impl.statistics;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test for {@link StatisticsPollingScheduler}.
+ */
+public class StatisticsPollingSchedulerTest {
+
+    private StatisticsPollingScheduler pollingScheduler;
+
+    @Before
+    public void setUp() throws Exception {
+        pollingScheduler = new StatisticsPollingScheduler(1000L);
+    }
+
+    @Test
+    public void testStartOffset() throws Exception {
+        Assert.assertEquals(1000L, pollingScheduler.getStartOffset());
+        final long randomOffset = new StatisticsPollingScheduler().getStartOffset();
+        Assert.assertTrue(randomOffset >= 0 && randomOffset < StatisticsPollingScheduler.BASIC_TIMER_DELAY);
+    }
+
+    @Test
+    public void testRecordGatheringTime() throws Exception {
+        pollingScheduler.recordGatheringTime(2000L);
+        Assert.assertEquals(3000L, pollingScheduler.getCurrentTimerDelay());
+        Assert.assertEquals(2000L, pollingScheduler.getAverageGatheringTime());
+
+        // EWMA: 0.3 * 12000 + 0.7 * 2000 = 5000 > 3000
+        pollingScheduler.recordGatheringTime(12000L);
+        Assert.assertEquals(5000L, pollingScheduler.getAverageGatheringTime());
+        Assert.assertEquals(6000L, pollingScheduler.getCurrentTimerDelay());
+
+        // EWMA: 0.3 * 0 + 0.7 * 5000 = 3500 < 6000
+        pollingScheduler.recordGatheringTime(0L);
+        Assert.assertEquals(3000L, pollingScheduler.getCurrentTimerDelay());
+    }
+
+    @Test
+    public void testMaximumTimerDelay() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            pollingScheduler.recordGatheringTime(10 * StatisticsPollingScheduler.MAXIMUM_TIMER_DELAY);
+        }
+        Assert.assertEquals(StatisticsPollingScheduler.MAXIMUM_TIMER_DELAY, pollingScheduler.getCurrentTimerDelay());
+    }
+
+    @Test
+    public void testNextPollingDelay() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            final long delay = pollingScheduler.nextPollingDelay();
+            Assert.assertTrue(delay >= 2700L && delay <= 3300L);
+            Assert.assertEquals(delay - 3000L, pollingScheduler.getLastJitter());
+        }
+    }
+
+    @Test
+    public void testGetStatisticsTimeout() throws Exception {
+        Assert.assertEquals(50L, pollingScheduler.getStatisticsTimeout());
+        pollingScheduler.recordGatheringTime(4000L);
+        Assert.assertEquals(12L, pollingScheduler.getStatisticsTimeout());
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.openflowplugin.impl.statistics.ofpspecific;
+
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.opendaylight.openflowplugin.api.openflow.statistics.ofpspecific.MessageSpy;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.NodeConnectorId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.NodeId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.PacketInMessage;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.packet.service.rev130709.NoMatch;
+
+/**
+ * Test for {@link DeviceMessageSpy}.
+ */
+public class DeviceMessageSpyTest {
+
+    private MessageIntelligenceAgencyImpl messageIntelligenceAgency;
+    private DeviceMessageSpy firstDeviceSpy;
+    private DeviceMessageSpy secondDeviceSpy;
+
+    @Before
+    public void setUp() throws Exception {
+        messageIntelligenceAgency = new MessageIntelligenceAgencyImpl();
+        firstDeviceSpy = messageIntelligenceAgency.createDeviceMessageSpy(new NodeId("openflow:1"));
+        secondDeviceSpy = messageIntelligenceAgency.createDeviceMessageSpy(new NodeId("openflow:2"));
+    }
+
+    @Test
+    public void testSpyMessage() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            firstDeviceSpy.spyMessage(PacketInMessage.class, MessageSpy.STATISTIC_GROUP.FROM_SWITCH);
+        }
+        secondDeviceSpy.spyMessage(PacketInMessage.class, MessageSpy.STATISTIC_GROUP.FROM_SWITCH);
+        secondDeviceSpy.spyPacketInDropped(new NodeConnectorId("openflow:2:1"), NoMatch.class);
+
+        final List<MessageCount> firstDeviceCounts = messageIntelligenceAgency.provideMessageCounts(new NodeId("openflow:1"));
+        Assert.assertEquals(1, firstDeviceCounts.size());
+        Assert.assertEquals("openflow:1", firstDeviceCounts.get(0).getDeviceId());
+        Assert.assertEquals("FROM_SWITCH", firstDeviceCounts.get(0).getStatisticGroup());
+        Assert.assertEquals("PacketInMessage", firstDeviceCounts.get(0).getMessageType());
+        Assert.assertEquals(3, firstDeviceCounts.get(0).getCount());
+
+        final List<MessageCount> allCounts = messageIntelligenceAgency.provideMessageCounts();
+        Assert.assertEquals(3, allCounts.size());
+        Assert.assertEquals("openflow:1", allCounts.get(0).getDeviceId());
+        Assert.assertEquals("FROM_SWITCH_PACKET_IN_RATE_EXCEEDED", allCounts.get(2).getStatisticGroup());
+
+        // global counters still see all devices
+        Assert.assertTrue(messageIntelligenceAgency.provideIntelligence().contains("FROM_SWITCH: MSG[PacketInMessage] -> +4 | 4"));
+        Assert.assertEquals(Long.valueOf(1), messageIntelligenceAgency.providePacketInDropsPerPort().get("openflow:2:1"));
+    }
+
+    @Test
+    public void testUnregisterAndReset() throws Exception {
+        firstDeviceSpy.spyMessage(PacketInMessage.class, MessageSpy.STATISTIC_GROUP.FROM_SWITCH);
+        secondDeviceSpy.spyMessage(PacketInMessage.class, MessageSpy.STATISTIC_GROUP.FROM_SWITCH);
+        firstDeviceSpy.spyPacketInDropped(new NodeConnectorId("openflow:1:1"), NoMatch.class);
+        secondDeviceSpy.spyPacketInDropped(new NodeConnectorId("openflow:2:1"), NoMatch.class);
+
+        messageIntelligenceAgency.unregisterDeviceMessageSpy(new NodeId("openflow:2"));
+        Assert.assertTrue(messageIntelligenceAgency.provideMessageCounts(new NodeId("openflow:2")).isEmpty());
+        Assert.assertEquals(2, messageIntelligenceAgency.provideMessageCounts().size());
+        Assert.assertNull(messageIntelligenceAgency.providePacketInDropsPerPort().get("openflow:2:1"));
+        Assert.assertEquals(Long.valueOf(1), messageIntelligenceAgency.providePacketInDropsPerPort().get("openflow:1:1"));
+
+        messageIntelligenceAgency.resetStatistics();
+        Assert.assertTrue(messageIntelligenceAgency.provideMessageCounts().isEmpty());
+        Assert.assertTrue(firstDeviceSpy.snapshot().isEmpty());
+    }
+}
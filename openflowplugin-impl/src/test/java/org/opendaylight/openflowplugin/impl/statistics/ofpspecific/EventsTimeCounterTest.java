@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.openflowplugin.impl.statistics.ofpspecific;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.opendaylight.openflowplugin.api.openflow.statistics.ofpspecific.EventIdentifier;
+
+/**
+ * Test for {@link EventsTimeCounter}.
+ */
+public class EventsTimeCounterTest {
+
+    private static final String DEVICE_ID = "junitDevice";
+    private static final String EVENT_NAME = "junit";
+    private static final long BASE_TIME = 1000 * EventsTimeCounter.SLOT_NANOS;
+
+    @Before
+    public void setUp() throws Exception {
+        EventsTimeCounter.resetAllCounters();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        EventsTimeCounter.resetAllCounters();
+    }
+
+    @Test
+    public void testMarkEnd_notStarted() throws Exception {
+        EventsTimeCounter.markEnd(new EventIdentifier(EVENT_NAME, DEVICE_ID));
+        Assert.assertTrue(EventsTimeCounter.provideTimes().isEmpty());
+    }
+
+    @Test
+    public void testMarkEnd_twice() throws Exception {
+        final EventIdentifier eventIdentifier = new EventIdentifier(EVENT_NAME, DEVICE_ID);
+        eventIdentifier.markStart(BASE_TIME);
+        EventsTimeCounter.markEnd(eventIdentifier, BASE_TIME + TimeUnit.MILLISECONDS.toNanos(5));
+        EventsTimeCounter.markEnd(eventIdentifier, BASE_TIME + TimeUnit.MILLISECONDS.toNanos(50));
+
+        final Histogram durations = EventsTimeCounter.snapshot(false).get(DEVICE_ID).get(EVENT_NAME);
+        Assert.assertEquals(1, durations.getCount());
+        Assert.assertEquals(5000, durations.getMax());
+    }
+
+    @Test
+    public void testLastMinuteWindow() throws Exception {
+        recordAt(BASE_TIME, TimeUnit.MILLISECONDS.toNanos(900));
+        recordAt(BASE_TIME + TimeUnit.SECONDS.toNanos(40), TimeUnit.MILLISECONDS.toNanos(3));
+
+        final SortedMap<String, SortedMap<String, Histogram>> lastMinute =
+                EventsTimeCounter.snapshot(true, BASE_TIME + TimeUnit.SECONDS.toNanos(80));
+        final Histogram lastMinuteDurations = lastMinute.get(DEVICE_ID).get(EVENT_NAME);
+        Assert.assertEquals(1, lastMinuteDurations.getCount());
+        Assert.assertEquals(3000, lastMinuteDurations.getMax());
+
+        final Histogram allTimeDurations = EventsTimeCounter.snapshot(false).get(DEVICE_ID).get(EVENT_NAME);
+        Assert.assertEquals(2, allTimeDurations.getCount());
+        Assert.assertEquals(900000, allTimeDurations.getMax());
+
+        // nothing happened during the last minute, slot of the same index is not reported again
+        Assert.assertTrue(EventsTimeCounter.snapshot(true, BASE_TIME + TimeUnit.MINUTES.toNanos(5)).isEmpty());
+        recordAt(BASE_TIME + TimeUnit.SECONDS.toNanos(75), TimeUnit.MILLISECONDS.toNanos(1));
+        Assert.assertEquals(2, EventsTimeCounter.snapshot(true, BASE_TIME + TimeUnit.SECONDS.toNanos(80))
+                .get(DEVICE_ID).get(EVENT_NAME).getCount());
+    }
+
+    /**
+     * Concurrent occurrences of the same event type are measured independently.
+     */
+    @Test
+    public void testConcurrentEvents() throws Exception {
+        final int threads = 8;
+        final int eventsPerThread = 1000;
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        final CyclicBarrier barrier = new CyclicBarrier(threads);
+        final List<Future<Void>> results = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            results.add(executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    barrier.await();
+                    for (int j = 0; j < eventsPerThread; j++) {
+                        final EventIdentifier eventIdentifier = new EventIdentifier(EVENT_NAME, DEVICE_ID);
+                        EventsTimeCounter.markStart(eventIdentifier);
+                        EventsTimeCounter.markEnd(eventIdentifier);
+                    }
+                    return null;
+                }
+            }));
+        }
+        for (Future<Void> result : results) {
+            result.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdownNow();
+
+        final Histogram durations = EventsTimeCounter.snapshot(false).get(DEVICE_ID).get(EVENT_NAME);
+        Assert.assertEquals(threads * eventsPerThread, durations.getCount());
+        Assert.assertEquals(threads * eventsPerThread,
+                EventsTimeCounter.snapshot(true).get(DEVICE_ID).get(EVENT_NAME).getCount());
+
+        final List<String> times = EventsTimeCounter.provideTimes();
+        Assert.assertEquals("DEVICE : " + DEVICE_ID, times.get(1));
+        Assert.assertEquals(EVENT_NAME, times.get(2));
+        Assert.assertTrue(times.get(3).contains("p99.9"));
+    }
+
+    private static void recordAt(final long endTime, final long duration) {
+        final EventIdentifier eventIdentifier = new EventIdentifier(EVENT_NAME, DEVICE_ID);
+        eventIdentifier.markStart(endTime - duration);
+        EventsTimeCounter.markEnd(eventIdentifier, endTime);
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.openflowplugin.impl.statistics.ofpspecific;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test for {@link Histogram}.
+ */
+public class HistogramTest {
+
+    @Test
+    public void testRecord() throws Exception {
+        final Histogram histogram = new Histogram();
+        Assert.assertEquals(0, histogram.getPercentile(0.5));
+
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i);
+        }
+        histogram.record(-5);
+
+        Assert.assertEquals(101, histogram.getCount());
+        Assert.assertEquals(50, histogram.getMean());
+        Assert.assertEquals(100, histogram.getMax());
+        // 50th value falls into bucket 32..63
+        Assert.assertEquals(63, histogram.getPercentile(0.5));
+        // bucket 64..127 capped by maximum
+        Assert.assertEquals(100, histogram.getPercentile(0.99));
+        Assert.assertEquals(0, histogram.getPercentile(0));
+    }
+
+    @Test
+    public void testReset() throws Exception {
+        final Histogram histogram = new Histogram();
+        histogram.record(Long.MAX_VALUE);
+        Assert.assertEquals(Long.MAX_VALUE, histogram.getPercentile(1));
+
+        histogram.reset();
+        Assert.assertEquals(0, histogram.getCount());
+        Assert.assertEquals(0, histogram.getMax());
+        Assert.assertEquals(0, histogram.getPercentile(1));
+    }
+
+    @Test
+    public void testPrecision() throws Exception {
+        final Histogram histogram = new Histogram(1000, 3);
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i);
+        }
+
+        // 50th value falls into bucket 48..51
+        Assert.assertEquals(51, histogram.getPercentile(0.5));
+        // 90th value falls into bucket 88..95
+        Assert.assertEquals(95, histogram.getPercentile(0.9));
+        Assert.assertEquals(100, histogram.getPercentile(1));
+
+        // values above highest trackable value go to the top bucket, maximum stays exact
+        histogram.record(5000);
+        Assert.assertEquals(1023, histogram.getPercentile(0.999));
+        Assert.assertEquals(5000, histogram.getMax());
+    }
+
+    @Test
+    public void testAdd() throws Exception {
+        final Histogram first = new Histogram(1000, 3);
+        final Histogram second = new Histogram(1000, 3);
+        first.record(10);
+        second.record(20);
+        second.record(700);
+
+        first.add(second);
+        Assert.assertEquals(3, first.getCount());
+        Assert.assertEquals(243, first.getMean());
+        Assert.assertEquals(21, first.getPercentile(0.5));
+        Assert.assertEquals(700, first.getMax());
+        Assert.assertEquals(2, second.getCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAdd_differentLayout() throws Exception {
+        new Histogram().add(new Histogram(1000, 3));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPercentile_outOfRange() throws Exception {
+        new Histogram().getPercentile(1.5);
+    }
+}
@@ -3,9 +3,13 @@ package org.opendaylight.openflowplugin.impl.statistics.ofpspecific;
 import junit.framework.TestCase;
 import org.junit.Test;
 import org.opendaylight.openflowplugin.api.openflow.statistics.ofpspecific.MessageSpy;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.inventory.rev130819.NodeConnectorId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.packet.service.rev130709.NoMatch;
 
+import java.lang.reflect.Array;
 import java.util.List;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 
@@ -20,6 +24,33 @@ public class MessageIntelligenceAgencyImplTest {
         findExpectedStatistics(intelligence, "FROM_SWITCH: MSG[String] -> +1 | 1", "TO_SWITCH_ENTERED: MSG[Integer] -> +1 | 1");
     }
 
+    @Test
+    public void testSpyPacketInDropped() {
+        final MessageIntelligenceAgencyImpl messageIntelligenceAgency = new MessageIntelligenceAgencyImpl();
+        messageIntelligenceAgency.spyPacketInDropped(new NodeConnectorId("openflow:1:2"), NoMatch.class);
+        messageIntelligenceAgency.spyPacketInDropped(new NodeConnectorId("openflow:1:2"), NoMatch.class);
+        messageIntelligenceAgency.spyPacketInDropped(null, NoMatch.class);
+
+        assertEquals(Long.valueOf(2), messageIntelligenceAgency.providePacketInDropsPerPort().get("openflow:1:2"));
+        final List<String> intelligence = messageIntelligenceAgency.provideIntelligence();
+        findExpectedStatistics(intelligence, "FROM_SWITCH_PACKET_IN_RATE_EXCEEDED: MSG[NoMatch] -> +3 | 3",
+                "FROM_SWITCH_PACKET_IN_RATE_EXCEEDED: PORT[openflow:1:2] -> +2 | 2");
+    }
+
+    @Test
+    public void testManyMessageTypes() {
+        final MessageIntelligenceAgencyImpl messageIntelligenceAgency = new MessageIntelligenceAgencyImpl();
+        // distinct array classes Integer[], Integer[][], ... - more types than initial capacity of counters
+        final int messageTypes = 100;
+        final String[] expectedValues = new String[messageTypes];
+        for (int depth = 1; depth <= messageTypes; depth++) {
+            final Class<?> messageType = Array.newInstance(Integer.class, new int[depth]).getClass();
+            messageIntelligenceAgency.spyMessage(messageType, MessageSpy.STATISTIC_GROUP.FROM_SWITCH);
+            expectedValues[depth - 1] = "FROM_SWITCH: MSG[" + messageType.getSimpleName() + "] -> +1 | 1";
+        }
+        findExpectedStatistics(messageIntelligenceAgency.provideIntelligence(), expectedValues);
+    }
+
     private void findExpectedStatistics(final List<String> statisticsInfo, String ... expectedValues) {
         for (String expectedValue : expectedValues) {
             assertTrue("Expected value " + expectedValue + "wasn't found.", findValueInStatistics(statisticsInfo, expectedValue));
@@ -89,6 +89,12 @@ public class PacketReceivedTranslatorTest {
                         .getId().getValue());
         Assert.assertEquals(0L, packetReceived.getFlowCookie().getValue().longValue());
         Assert.assertEquals(42L, packetReceived.getTableId().getValue().longValue());
+
+        // match converted on demand only
+        Assert.assertFalse(((LazyPacketReceived) packetReceived).isMatchConverted());
+        Assert.assertEquals("openflow:10:5", packetReceived.getMatch().getInPort().getValue());
+        Assert.assertTrue(((LazyPacketReceived) packetReceived).isMatchConverted());
+        Assert.assertSame(packetReceived.getMatch(), packetReceived.getMatch());
     }
 
     private static PacketInMessage createPacketInMessage(final byte[] data,
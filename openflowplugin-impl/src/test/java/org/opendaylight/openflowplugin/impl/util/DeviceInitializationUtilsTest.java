@@ -17,6 +17,7 @@ import static org.mockito.Mockito.when;
 
 import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -27,9 +28,11 @@ import com.google.common.util.concurrent.CheckedFuture;
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.InOrder;
 import org.mockito.Matchers;
 import org.mockito.Mock;
 import org.mockito.Mockito;
@@ -47,8 +50,10 @@ import org.opendaylight.openflowplugin.api.openflow.connection.ConnectionContext
 import org.opendaylight.openflowplugin.api.openflow.device.DeviceContext;
 import org.opendaylight.openflowplugin.api.openflow.device.DeviceState;
 import org.opendaylight.openflowplugin.api.openflow.device.MessageTranslator;
+import org.opendaylight.openflowplugin.api.openflow.device.RequestContext;
 import org.opendaylight.openflowplugin.api.openflow.device.TranslatorLibrary;
 import org.opendaylight.openflowplugin.api.openflow.device.handlers.DeviceInitializationPhaseHandler;
+import org.opendaylight.openflowplugin.api.openflow.device.handlers.MultiMsgCollector;
 import org.opendaylight.openflowplugin.api.openflow.md.core.TranslatorKey;
 import org.opendaylight.openflowplugin.impl.device.DeviceContextImpl;
 import org.opendaylight.openflowplugin.openflow.md.util.OpenflowPortsUtil;
@@ -278,7 +283,7 @@ public class DeviceInitializationUtilsTest {
     }
 
     @Test
-    public void createSuccessProcessingCallbackTest() throws Exception {
+    public void writeStaticInfoTest() throws Exception {
         DeviceState mockedDeviceState = mock(DeviceState.class);
         when(mockedDeviceContext.getDeviceState()).thenReturn(mockedDeviceState);
 
@@ -288,13 +293,88 @@ public class DeviceInitializationUtilsTest {
         RpcResult<List<MultipartReply>> result = RpcResultBuilder.<List<MultipartReply>>success(multipartReplies).build();
         ListenableFuture<RpcResult<List<MultipartReply>>> mockedRequestContextFuture = Futures.immediateFuture(result);
 
-        DeviceInitializationUtils.createSuccessProcessingCallback(MultipartType.OFPMPDESC, mockedDeviceContext, DUMMY_NODE_II, mockedRequestContextFuture);
+        DeviceInitializationUtils.writeStaticInfo(MultipartType.OFPMPDESC, mockedDeviceContext, DUMMY_NODE_II, mockedRequestContextFuture, null);
         verify(mockedDeviceContext).writeToTransaction(eq(LogicalDatastoreType.OPERATIONAL), eq(DUMMY_NODE_II.augmentation(FlowCapableNode.class)), any(FlowCapableNode.class));
 
         RpcResult<List<MultipartReply>> rpcResult = RpcResultBuilder.<List<MultipartReply>>failed().withError(RpcError.ErrorType.PROTOCOL, "dummy error").build();
         mockedRequestContextFuture = Futures.immediateFuture(rpcResult);
-        DeviceInitializationUtils.createSuccessProcessingCallback(MultipartType.OFPMPDESC, mockedDeviceContext, DUMMY_NODE_II, mockedRequestContextFuture);
+        DeviceInitializationUtils.writeStaticInfo(MultipartType.OFPMPDESC, mockedDeviceContext, DUMMY_NODE_II, mockedRequestContextFuture, null);
         verify(mockedDeviceContext).writeToTransaction(eq(LogicalDatastoreType.OPERATIONAL), eq(DUMMY_NODE_II.augmentation(FlowCapableNode.class)), any(FlowCapableNode.class));
+
+        mockedRequestContextFuture = Futures.immediateFailedFuture(new IllegalStateException("dummy failure"));
+        DeviceInitializationUtils.writeStaticInfo(MultipartType.OFPMPDESC, mockedDeviceContext, DUMMY_NODE_II, mockedRequestContextFuture, null);
+        verify(mockedDeviceContext).writeToTransaction(eq(LogicalDatastoreType.OPERATIONAL), eq(DUMMY_NODE_II.augmentation(FlowCapableNode.class)), any(FlowCapableNode.class));
+    }
+
+    @Test
+    public void testInitializeNodeInformationOF13() throws Exception {
+        final DeviceState mockedDeviceState = mock(DeviceState.class);
+        when(mockedDeviceState.getVersion()).thenReturn(OFConstants.OFP_VERSION_1_3);
+        when(mockedDeviceState.getNodeId()).thenReturn(new NodeId("dummyNodeId"));
+        when(mockedDeviceState.getNodeInstanceIdentifier()).thenReturn(DUMMY_NODE_II);
+        when(mockedDeviceContext.getDeviceState()).thenReturn(mockedDeviceState);
+        when(mockedDeviceContext.reserveXidForDeviceMessage()).thenReturn(43L);
+        when(mockConnectionContext.getOutboundQueueProvider()).thenReturn(outboundQueueProvider);
+
+        final List<RequestContext<List<MultipartReply>>> requestContexts = new ArrayList<>();
+        when(mockedDeviceContext.getMultiMsgCollector(Matchers.<RequestContext<List<MultipartReply>>>any()))
+                .thenAnswer(new Answer<MultiMsgCollector>() {
+                    @Override
+                    public MultiMsgCollector answer(InvocationOnMock invocation) throws Throwable {
+                        requestContexts.add((RequestContext<List<MultipartReply>>) invocation.getArguments()[0]);
+                        return mock(MultiMsgCollector.class);
+                    }
+                });
+        final List<MultipartType> requestTypes = new ArrayList<>();
+        Mockito.doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                requestTypes.add(((MultipartRequestInput) invocation.getArguments()[1]).getType());
+                return null;
+            }
+        })
+                .when(outboundQueueProvider)
+                .commitEntry(Matchers.anyLong(), Matchers.<MultipartRequestInput>any(), Matchers.<FutureCallback<OfHeader>>any());
+
+        final ListenableFuture<Void> initialized = DeviceInitializationUtils.initializeNodeInformation(mockedDeviceContext,
+                TEST_VALUE_SWITCH_FEATURE_MANDATORY);
+
+        // nothing waits for description reply
+        Assert.assertEquals(Arrays.asList(MultipartType.OFPMPDESC, MultipartType.OFPMPMETERFEATURES,
+                MultipartType.OFPMPGROUPFEATURES, MultipartType.OFPMPTABLEFEATURES, MultipartType.OFPMPPORTDESC),
+                requestTypes);
+
+        TableFeaturesBuilder tableFeature = new TableFeaturesBuilder();
+        tableFeature.setTableId(DUMMY_TABLE_ID);
+        MultipartReplyTableFeaturesCaseBuilder multipartReplyTableFeaturesCaseBuilder = new MultipartReplyTableFeaturesCaseBuilder();
+        multipartReplyTableFeaturesCaseBuilder.setMultipartReplyTableFeatures(new MultipartReplyTableFeaturesBuilder()
+                .setTableFeatures(Collections.singletonList(tableFeature.build())).build());
+        MultipartReply tableFeaturesReply = new MultipartReplyMessageBuilder()
+                .setMultipartReplyBody(multipartReplyTableFeaturesCaseBuilder.build()).build();
+
+        // replies come in any order, nothing but the node itself is written until the last one
+        requestContexts.get(3).setResult(RpcResultBuilder.<List<MultipartReply>>success(
+                Collections.singletonList(tableFeaturesReply)).build());
+        requestContexts.get(0).setResult(RpcResultBuilder.<List<MultipartReply>>success(
+                new ArrayList<>(prepareDataforTypeDesc(mockedDeviceContext))).build());
+        requestContexts.get(1).setResult(RpcResultBuilder.<List<MultipartReply>>success(
+                Collections.<MultipartReply>emptyList()).build());
+        requestContexts.get(2).setResult(RpcResultBuilder.<List<MultipartReply>>success(
+                Collections.<MultipartReply>emptyList()).build());
+        verify(mockedDeviceContext, times(1))
+                .writeToTransaction(any(LogicalDatastoreType.class), any(InstanceIdentifier.class), any(Node.class));
+        Assert.assertFalse(initialized.isDone());
+
+        requestContexts.get(4).setResult(RpcResultBuilder.<List<MultipartReply>>success(
+                Collections.<MultipartReply>emptyList()).build());
+        Assert.assertTrue(initialized.isDone());
+
+        final InOrder inOrder = Mockito.inOrder(mockedDeviceContext);
+        inOrder.verify(mockedDeviceContext)
+                .writeToTransaction(eq(LogicalDatastoreType.OPERATIONAL), eq(DUMMY_NODE_II.augmentation(FlowCapableNode.class)), any(FlowCapableNode.class));
+        inOrder.verify(mockedDeviceContext)
+                .writeToTransaction(eq(LogicalDatastoreType.OPERATIONAL),
+                        eq(DUMMY_NODE_II.augmentation(FlowCapableNode.class).child(Table.class, new TableKey(DUMMY_TABLE_ID))), any(Table.class));
     }
 
     private Collection<MultipartReply> prepareDataforTypeDesc(final DeviceContext mockedDeviceContext) {
@@ -12,7 +12,10 @@ import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
 import org.opendaylight.openflowplugin.api.OFConstants;
+import org.opendaylight.openflowplugin.openflow.md.core.sal.convertor.common.ConversionCache;
 import org.opendaylight.openflowplugin.openflow.md.core.sal.convertor.common.OrderComparator;
 import org.opendaylight.openflowplugin.openflow.md.core.sal.convertor.flowflag.FlowFlagReactor;
 import org.opendaylight.openflowplugin.openflow.md.core.sal.convertor.match.MatchReactor;
@@ -69,12 +72,15 @@ import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.types.rev13
 import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.types.rev130731.TableId;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.oxm.rev150225.OxmMatchType;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.oxm.rev150225.match.entries.grouping.MatchEntry;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.oxm.rev150225.match.v10.grouping.MatchV10;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731.FlowModInputBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Ordering;
 
 /**
@@ -142,6 +148,10 @@ public class FlowConvertor {
     private static final VlanMatch VLAN_MATCH_FALSE;
     private static final VlanMatch VLAN_MATCH_TRUE;
 
+    // conversion of match and instructions does not depend on datapath id, so results are shared by all devices
+    private static volatile ConversionCache<Match, ConvertedMatch> matchCache;
+    private static volatile ConversionCache<Instructions, ConvertedInstructions> instructionsCache;
+
     static {
         final VlanId zeroVlan = new VlanId(0);
         VlanMatchBuilder vlanMatchBuilder = new VlanMatchBuilder();
@@ -165,6 +175,40 @@ public class FlowConvertor {
         //hiding implicit constructor
     }
 
+    /**
+     * Enables caching of converted match and instructions - worth it when the same pipeline is programmed
+     * into many devices. Replaces current cache including its statistics.
+     *
+     * @param maximumSize maximum amount of cached matches and instructions, 0 disables caching
+     */
+    public static void setConversionCacheSize(final int maximumSize) {
+        Preconditions.checkArgument(maximumSize >= 0, "maximumSize must not be negative: %s", maximumSize);
+        if (maximumSize == 0) {
+            matchCache = null;
+            instructionsCache = null;
+        } else {
+            matchCache = new ConversionCache<>(maximumSize);
+            instructionsCache = new ConversionCache<>(maximumSize);
+        }
+        LOG.debug("Flow conversion cache size set to {}", maximumSize);
+    }
+
+    /**
+     * @return hit rate and size of match and instructions conversion caches, empty if caching is disabled
+     */
+    public static Map<String, String> getConversionCacheStatistics() {
+        final ConversionCache<Match, ConvertedMatch> currentMatchCache = matchCache;
+        final ConversionCache<Instructions, ConvertedInstructions> currentInstructionsCache = instructionsCache;
+        final ImmutableMap.Builder<String, String> statistics = ImmutableMap.builder();
+        if (currentMatchCache != null) {
+            statistics.put("match", currentMatchCache.toString());
+        }
+        if (currentInstructionsCache != null) {
+            statistics.put("instructions", currentInstructionsCache.toString());
+        }
+        return statistics.build();
+    }
+
     /**
      * This method converts the SAL Flow to OF Flow.
      * It checks if there is a set-vlan-id (1.0) action made on OF1.3.
@@ -201,17 +245,70 @@ public class FlowConvertor {
         FlowFlagReactor.getInstance().convert(flow.getFlags(), version, flowMod, datapathid);
 
         // convert and inject match
-        MatchReactor.getInstance().convert(flow.getMatch(), version, flowMod, datapathid);
+        salToOFFlowMatch(flow, version, flowMod, datapathid);
 
         if (flow.getInstructions() != null) {
-            flowMod.setInstruction(toInstructions(flow, version, datapathid));
-            flowMod.setAction(getActions(version, datapathid, flow));
+            salToOFFlowInstructions(flow, version, flowMod, datapathid);
         }
         flowMod.setVersion(version);
 
         return flowMod;
     }
 
+    private static void salToOFFlowMatch(final Flow flow, final short version, final FlowModInputBuilder flowMod,
+                                         final BigInteger datapathid) {
+        final ConversionCache<Match, ConvertedMatch> cache = matchCache;
+        final Match match = flow.getMatch();
+        if (cache == null || match == null) {
+            MatchReactor.getInstance().convert(match, version, flowMod, datapathid);
+            return;
+        }
+
+        final Short context = version;
+        final ConvertedMatch convertedMatch = cache.get(match, context);
+        if (convertedMatch != null) {
+            flowMod.setMatch(convertedMatch.match);
+            flowMod.setMatchV10(convertedMatch.matchV10);
+        } else {
+            MatchReactor.getInstance().convert(match, version, flowMod, datapathid);
+            cache.put(match, context, new ConvertedMatch(flowMod.getMatch(), flowMod.getMatchV10()));
+        }
+    }
+
+    private static void salToOFFlowInstructions(final Flow flow, final short version,
+                                                final FlowModInputBuilder flowMod, final BigInteger datapathid) {
+        final ConversionCache<Instructions, ConvertedInstructions> cache = instructionsCache;
+        if (cache == null) {
+            flowMod.setInstruction(toInstructions(flow, version, datapathid));
+            flowMod.setAction(getActions(version, datapathid, flow));
+            return;
+        }
+
+        final Instructions instructions = flow.getInstructions();
+        final Integer context = instructionsContext(flow, version);
+        ConvertedInstructions convertedInstructions = cache.get(instructions, context);
+        if (convertedInstructions == null) {
+            convertedInstructions = new ConvertedInstructions(toInstructions(flow, version, datapathid),
+                    getActions(version, datapathid, flow));
+            cache.put(instructions, context, convertedInstructions);
+        }
+        flowMod.setInstruction(convertedInstructions.instructions);
+        flowMod.setAction(convertedInstructions.actions);
+    }
+
+    /**
+     * Besides version, conversion of set-tp-src/dst actions depends on ip protocol of the flow match.
+     *
+     * @return version in upper 16 bits, ip protocol (or all ones if not matched) in lower 16 bits
+     */
+    private static Integer instructionsContext(final Flow flow, final short version) {
+        Short ipProtocol = null;
+        if (flow.getMatch() != null && flow.getMatch().getIpMatch() != null) {
+            ipProtocol = flow.getMatch().getIpMatch().getIpProtocol();
+        }
+        return version << 16 | (ipProtocol == null ? 0xffff : ipProtocol);
+    }
+
     private static void salToOFFlowOutGroup(Flow flow, FlowModInputBuilder flowMod) {
         if (flow.getOutGroup() != null) {
             flowMod.setOutGroup(flow.getOutGroup());
@@ -577,4 +674,25 @@ public class FlowConvertor {
         return targetInstructionList;
     }
 
+    private static final class ConvertedMatch {
+        private final org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.oxm.rev150225.match.grouping.Match match;
+        private final MatchV10 matchV10;
+
+        private ConvertedMatch(
+                final org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.oxm.rev150225.match.grouping.Match match,
+                final MatchV10 matchV10) {
+            this.match = match;
+            this.matchV10 = matchV10;
+        }
+    }
+
+    private static final class ConvertedInstructions {
+        private final List<Instruction> instructions;
+        private final List<Action> actions;
+
+        private ConvertedInstructions(final List<Instruction> instructions, @Nullable final List<Action> actions) {
+            this.instructions = ImmutableList.copyOf(instructions);
+            this.actions = actions == null ? null : ImmutableList.copyOf(actions);
+        }
+    }
 }
@@ -14,11 +14,9 @@ import com.google.common.base.Strings;
 import com.google.common.collect.Iterators;
 import com.google.common.net.InetAddresses;
 import com.google.common.primitives.UnsignedBytes;
-import java.math.BigInteger;
 import java.net.Inet4Address;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
 import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev100924.Ipv4Address;
@@ -38,8 +36,11 @@ public final class IpConversionUtil {
     private static final int INADDR4SZ = 4;
     private static final int INADDR6SZ = 16;
     private static final int INT16SZ = 2;
+    private static final int INT64SZ = 8;
     private static final int IPV4_ADDRESS_LENGTH = 32;
     private static final int IPV6_ADDRESS_LENGTH = 128;
+    private static final int IPV6_GROUPS = 8;
+    private static final int IPV6_GROUP_SIZE = 16;
     private static final String DEFAULT_ARBITRARY_BIT_MASK = "255.255.255.255";
     private static final String DEFAULT_IPV6_ARBITRARY_BITMASK = "ffff:ffff:ffff:ffff:ffff:ffff:ffff:ffff";
 
@@ -128,10 +129,14 @@ public final class IpConversionUtil {
         if (bytemask == null ) {
             dottedQuad = new DottedQuad(DEFAULT_ARBITRARY_BIT_MASK);
         } else {
-            try {
-                dottedQuad = new DottedQuad(InetAddress.getByAddress(bytemask).getHostAddress());
-            } catch (UnknownHostException e) {
-                LOG.error("Failed to create the dottedQuad notation for the given mask ", e);
+            if (bytemask.length == INADDR4SZ) {
+                dottedQuad = new DottedQuad(ipv4AddressToString(ipv4AddressFromBytes(bytemask)));
+            } else {
+                try {
+                    dottedQuad = new DottedQuad(InetAddress.getByAddress(bytemask).getHostAddress());
+                } catch (UnknownHostException e) {
+                    LOG.error("Failed to create the dottedQuad notation for the given mask ", e);
+                }
             }
         }
         return dottedQuad;
@@ -142,15 +147,35 @@ public final class IpConversionUtil {
         if (bytemask == null ) {
             ipv6ArbitraryMask = new Ipv6ArbitraryMask(DEFAULT_IPV6_ARBITRARY_BITMASK);
         } else {
-            try {
-                ipv6ArbitraryMask = new Ipv6ArbitraryMask(InetAddress.getByAddress(bytemask).getHostAddress());
-            } catch (UnknownHostException e) {
-                LOG.error("Failed to create the Ipv6ArbitraryMask notation for the given mask ", e);
+            if (bytemask.length == INADDR6SZ) {
+                ipv6ArbitraryMask = new Ipv6ArbitraryMask(formatIpv6Address(
+                        readLong(bytemask, 0), readLong(bytemask, INT64SZ), false));
+            } else {
+                try {
+                    ipv6ArbitraryMask = new Ipv6ArbitraryMask(InetAddress.getByAddress(bytemask).getHostAddress());
+                } catch (UnknownHostException e) {
+                    LOG.error("Failed to create the Ipv6ArbitraryMask notation for the given mask ", e);
+                }
             }
         }
         return ipv6ArbitraryMask;
     }
 
+    /**
+     * Same as {@link #createIpv6ArbitraryBitMask(byte[])} followed by {@link #compressedIpv6MaskFormat(Ipv6ArbitraryMask)},
+     * without the intermediate uncompressed form.
+     *
+     * @param bytemask mask of size 16, null stands for all ones
+     * @return mask in RFC 5952 notation
+     */
+    public static Ipv6ArbitraryMask createCompressedIpv6ArbitraryBitMask(final byte [] bytemask) {
+        if (bytemask == null) {
+            return new Ipv6ArbitraryMask(DEFAULT_IPV6_ARBITRARY_BITMASK);
+        }
+        Preconditions.checkArgument(bytemask.length == INADDR6SZ, "Invalid v6 mask length %s", bytemask.length);
+        return new Ipv6ArbitraryMask(ipv6AddressToString(readLong(bytemask, 0), readLong(bytemask, INT64SZ)));
+    }
+
     public static Ipv6Prefix createPrefix(final Ipv6Address ipv6Address){
         return new Ipv6Prefix(ipv6Address.getValue() + PREFIX_SEPARATOR + IPV6_ADDRESS_LENGTH);
     }
@@ -184,23 +209,21 @@ public final class IpConversionUtil {
     }
 
     public static Integer extractPrefix(final Ipv4Prefix ipv4Prefix) {
-        Iterator<String> addressParts = splitToParts(ipv4Prefix);
-        addressParts.next();
-        Integer retval = null;
-        if (addressParts.hasNext()) {
-            retval = Integer.parseInt(addressParts.next());
-        }
-        return retval;
+        return extractPrefixLength(ipv4Prefix.getValue());
     }
 
     public static Integer extractPrefix(final Ipv6Prefix ipv6Prefix) {
-        Iterator<String> addressParts = splitToParts(ipv6Prefix);
-        addressParts.next();
-        Integer retval = null;
-        if (addressParts.hasNext()) {
-            retval = Integer.parseInt(addressParts.next());
-        }
-        return retval;
+        return extractPrefixLength(ipv6Prefix.getValue());
+    }
+
+    private static Integer extractPrefixLength(final String prefix) {
+        final int separator = prefix.indexOf(PREFIX_SEPARATOR);
+        return separator < 0 ? null : parsePrefixLength(prefix, separator);
+    }
+
+    private static String extractAddressPart(final String prefix) {
+        final int separator = prefix.indexOf(PREFIX_SEPARATOR);
+        return separator < 0 ? prefix : prefix.substring(0, separator);
     }
 
     public static Integer extractPrefix(final Ipv4Address ipv4Prefix) {
@@ -252,128 +275,17 @@ public final class IpConversionUtil {
     }
 
     private static byte[] canonicalBinaryV6AddressFromString(final String ipv6Address) {
-
-        String [] address =  ipv6Address.split("%");
-
-        int colonp;
-        char ch;
-        boolean saw_xdigit;
-
-        /* Isn't it fun - the above variable names are the same in BSD and Sun sources */
-
-        int val;
-
-        char[] src = address[0].toCharArray();
-
-        byte[] dst = new byte[INADDR6SZ];
-
-        int src_length = src.length;
-
-        colonp = -1;
-        int i = 0, j = 0;
-
-        /* Leading :: requires some special handling. */
-
-        /* Isn't it fun - the above comment is again the same in BSD and Sun sources,
-         * We will derive our code from BSD. Shakespear always sounds better
-         * in original Clingon. So does Dilbert.
-         */
-
-        if (src[i] == ':') {
-            Preconditions.checkArgument(src[++i] == ':', "Invalid v6 address");
-        }
-
-        int curtok = i;
-        saw_xdigit = false;
-
-
-        val = 0;
-        while (i < src_length) {
-            ch = src[i++];
-            int chval = Character.digit(ch, 16);
-
-            /* Business as usual - ipv6 address digit.
-             * We can remove all checks from the original BSD code because
-             * the regexp has already verified that we are not being fed
-             * anything bigger than 0xffff between the separators.
-             */
-
-            if (chval != -1) {
-                val <<= 4;
-                val |= chval;
-                saw_xdigit = true;
-                continue;
-            }
-
-            /* v6 separator */
-
-            if (ch == ':') {
-                curtok = i;
-                if (!saw_xdigit) {
-                    /* no need to check separator position validity - regexp does that */
-                    colonp = j;
-                    continue;
-                }
-
-                /* removed overrun check - the regexp checks for valid data */
-
-                dst[j++] = (byte) ((val >>> 8) & 0xff);
-                dst[j++] = (byte) (val & 0xff);
-                saw_xdigit = false;
-                val = 0;
-                continue;
-            }
-
-            /* frankenstein - v4 attached to v6, mixed notation */
-
-            if (ch == '.' && ((j + INADDR4SZ) <= INADDR6SZ)) {
-
-                /* this has passed the regexp so it is fairly safe to parse it
-                 * straight away. As v4 addresses do not suffer from the same
-                 * defficiencies as the java v6 implementation we can invoke it
-                 * straight away and be done with it
-                 */
-
-                Preconditions.checkArgument(j != (INADDR6SZ - INADDR4SZ - 1), "Invalid v4 in v6 mapping");
-
-                InetAddress _inet_form = InetAddresses.forString(address[0].substring(curtok, src_length));
-
-                Preconditions.checkArgument(_inet_form instanceof Inet4Address);
-                System.arraycopy(_inet_form.getAddress(), 0, dst, j, INADDR4SZ);
-                j += INADDR4SZ;
-
-                saw_xdigit = false;
-                break;
-            }
-            /* removed parser exit on invalid char - no need to do it, regexp checks it */
-        }
-        if (saw_xdigit) {
-            Preconditions.checkArgument(j + INT16SZ <= INADDR6SZ, "Overrun in v6 parsing, should not occur");
-            dst[j++] = (byte) ((val >> 8) & 0xff);
-            dst[j++] = (byte) (val & 0xff);
-        }
-
-        if (colonp != -1) {
-            int n = j - colonp;
-
-            Preconditions.checkArgument(j != INADDR6SZ, "Overrun in v6 parsing, should not occur");
-            for (i = 1; i <= n; i++) {
-                dst[INADDR6SZ - i] = dst[colonp + n - i];
-                dst[colonp + n - i] = 0;
-            }
-            j = INADDR6SZ;
-        }
-
-        Preconditions.checkArgument(j == INADDR6SZ, "Overrun in v6 parsing, should not occur");
-
-        return dst;
+        final long[] address = new long[2];
+        parseIpv6Address(ipv6Address, 0, ipv6AddressEnd(ipv6Address), address);
+        return ipv6AddressToBytes(address[0], address[1]);
     }
 
     public static String byteArrayV6AddressToString (final byte [] _binary_form) throws UnknownHostException{
-        /* DO NOT DIY!!! - InetAddresses will actually print correct canonical
-         * zero compressed form.
-         */
-        return InetAddresses.toAddrString(InetAddress.getByAddress(_binary_form));
+        if (_binary_form.length != INADDR6SZ) {
+            /* let java report the invalid length */
+            return InetAddresses.toAddrString(InetAddress.getByAddress(_binary_form));
+        }
+        return ipv6AddressToString(readLong(_binary_form, 0), readLong(_binary_form, INT64SZ));
     }
 
     private static int nextNibble(final int mask) {
@@ -562,20 +474,9 @@ public final class IpConversionUtil {
      * @throws UnknownHostException unknown host exception
      */
     public static String byteArrayV6PrefixToString(final byte [] _binary_form) throws UnknownHostException {
-        /* NO DIY!!! - InetAddresses will actually print correct canonical
-         * zero compressed form
-         */
+        /* Yang RFC specifies that the normalized form is RFC 5952, see ipv6AddressToString() */
         StringBuilder sb = new StringBuilder();
-        /* Yang RFC specifies that the normalized form is RFC 5952, note - java
-         * core type is not RFC compliant, guava is.
-         */
-        sb.append(
-            InetAddresses.toAddrString(
-                InetAddress.getByAddress(
-                    Arrays.copyOf(_binary_form, INADDR6SZ)
-                )
-            )
-        );
+        sb.append(ipv6AddressToString(readLong(_binary_form, 0), readLong(_binary_form, INT64SZ)));
         sb.append('/');
         sb.append(_binary_form[INADDR6SZ] & 0xff);
         return sb.toString();
@@ -615,67 +516,29 @@ public final class IpConversionUtil {
     }
 
     public static Ipv6Address extractIpv6Address(final Ipv6Prefix ipv6Prefix) {
-        Iterator<String> addressParts = PREFIX_SPLITTER.split(ipv6Prefix.getValue()).iterator();
-        return new Ipv6Address(addressParts.next());
+        return new Ipv6Address(extractAddressPart(ipv6Prefix.getValue()));
     }
 
     public static Ipv4Address extractIpv4Address(final Ipv4Prefix ipv4Prefix) {
-        Iterator<String> addressParts = PREFIX_SPLITTER.split(ipv4Prefix.getValue()).iterator();
-        return new Ipv4Address(addressParts.next());
+        return new Ipv4Address(extractAddressPart(ipv4Prefix.getValue()));
     }
 
     public static DottedQuad extractIpv4AddressMask(final Ipv4Prefix ipv4Prefix) {
-        Iterator<String> addressParts = PREFIX_SPLITTER.split(ipv4Prefix.getValue()).iterator();
-        addressParts.next();
-        Integer cidrMask =0;
-        if (addressParts.hasNext()) {
-            cidrMask = Integer.parseInt(addressParts.next());
-        }
-        long maskBits = 0;
-        maskBits = 0xffffffff << IPV4_ADDRESS_LENGTH - cidrMask;
-        String mask = String.format("%d.%d.%d.%d", (maskBits & 0x0000000000ff000000L) >> 24, (maskBits & 0x0000000000ff0000) >> 16, (maskBits & 0x0000000000ff00) >> 8, maskBits & 0xff);
-        DottedQuad netMask = new DottedQuad(mask);
-        return netMask;
+        final Integer cidrMask = extractPrefix(ipv4Prefix);
+        /* no mask in the prefix means exact match */
+        final int maskBits = cidrMask == null ? ipv4Netmask(IPV4_ADDRESS_LENGTH) : ipv4Netmask(cidrMask);
+        return new DottedQuad(ipv4AddressToString(maskBits));
     }
 
     public static Ipv6ArbitraryMask extractIpv6AddressMask(final Ipv6Prefix ipv6Prefix) {
-        Iterator<String> addressParts = PREFIX_SPLITTER.split(ipv6Prefix.getValue()).iterator();
-        addressParts.next();
-        byte[] bytes = new byte[16];
-        int maskLength = 0;
-        if (addressParts.hasNext()) {
-            maskLength = Integer.parseInt(addressParts.next());
-        }
-        String mask = "";
-        for (int i = 0; i < IPV6_ADDRESS_LENGTH; i++) {
-            if (i < maskLength) {
-                mask = mask + "1";
-            } else {
-                mask = mask + "0";
-            }
-        }
-        byte[] byteWithSignVal = new BigInteger(mask, 2).toByteArray();
-        for(int i=0; i< byteWithSignVal.length-1; i++) {
-            bytes[i] = byteWithSignVal[i+1];
-        }
-        InetAddress inetAddress = null;
-        try {
-            inetAddress = InetAddress.getByAddress(bytes);
-        } catch (UnknownHostException e) {
-            LOG.error("Failed to convert the Ipv6 subnetmask from integer to mask value ", e);
-        }
-        return new Ipv6ArbitraryMask(inetAddress.getHostAddress());
+        final Integer prefix = extractIpv6Prefix(ipv6Prefix);
+        final int maskLength = prefix == null ? 0 : prefix;
+        /* same notation as InetAddress.getHostAddress() - not compressed */
+        return new Ipv6ArbitraryMask(formatIpv6Address(ipv6NetmaskHigh(maskLength), ipv6NetmaskLow(maskLength), false));
     }
 
     public static Integer extractIpv6Prefix(final Ipv6Prefix ipv6Prefix) {
-        Iterator<String> addressParts = PREFIX_SPLITTER.split(ipv6Prefix.getValue()).iterator();
-        addressParts.next();
-
-        Integer prefix = null;
-        if (addressParts.hasNext()) {
-            prefix = Integer.parseInt(addressParts.next());
-        }
-        return prefix;
+        return extractPrefixLength(ipv6Prefix.getValue());
     }
 
     public static int countBits(final byte[] mask) {
@@ -693,102 +556,61 @@ public final class IpConversionUtil {
         } else {
             maskValue = DEFAULT_ARBITRARY_BIT_MASK;
         }
-        InetAddress maskInIpFormat = null;
-        try {
-            maskInIpFormat = InetAddress.getByName(maskValue);
-        } catch (UnknownHostException e) {
-            LOG.error ("Failed to resolve the ip address of the mask ",e);
-        }
-        byte[] bytes = maskInIpFormat.getAddress();
-        return bytes;
+        return ipv4AddressToBytes(parseIpv4Address(maskValue, 0, maskValue.length()));
     }
 
     public static boolean isArbitraryBitMask(byte[] byteMask) {
-        if (byteMask == null) {
-            return false;
-        } else {
-            ArrayList<Integer> integerMaskArrayList = new ArrayList<Integer>();
-            String maskInBits;
-            // converting byte array to bits
-            maskInBits = new BigInteger(1, byteMask).toString(2);
-            ArrayList<String> stringMaskArrayList = new ArrayList<String>(Arrays.asList(maskInBits.split("(?!^)")));
-            for (String string:stringMaskArrayList) {
-                integerMaskArrayList.add(Integer.parseInt(string));
-            }
-            return checkArbitraryBitMask(integerMaskArrayList);
-        }
-    }
-
-    private static boolean checkArbitraryBitMask(ArrayList<Integer> arrayList) {
-        // checks 0*1* case - Leading zeros in arrayList are truncated
-        if (arrayList.size()>0 && arrayList.size()<IPV4_ADDRESS_LENGTH) {
-            return true;
-        } else {
-            //checks 1*0*1 case
-            for (int i=0; i<arrayList.size()-1;i++) {
-                if (arrayList.get(i) ==0 && arrayList.get(i+1) == 1) {
-                    return true;
-                }
-            }
-        }
-        return false;
+        return byteMask != null && isArbitraryBitMask(byteMask, IPV4_ADDRESS_LENGTH);
     }
 
     public static final byte[] convertIpv6ArbitraryMaskToByteArray(final Ipv6ArbitraryMask mask) {
         String maskValue;
-        if (mask.getValue() != null && mask != null) {
+        if (mask != null && mask.getValue() != null) {
             maskValue  = mask.getValue();
         } else {
             maskValue = DEFAULT_IPV6_ARBITRARY_BITMASK;
         }
-        InetAddress maskInIpFormat = null;
-        try {
-            maskInIpFormat = InetAddress.getByName(maskValue);
-        } catch (UnknownHostException e) {
-            LOG.error ("Failed to resolve the ipv6 address of the mask or " +
-                    "check if the specified address is for a global IPv6 address.",e);
-        }
-        return maskInIpFormat.getAddress();
+        return canonicalBinaryV6AddressFromString(maskValue);
     }
 
     public static boolean isIpv6ArbitraryBitMask(final byte[] byteMask) {
-        if (byteMask == null) {
-            return false;
-        } else {
-            ArrayList<Integer> integerMaskArrayList = new ArrayList<Integer>();
-            String maskInBits;
-            // converting byte array to bits
-            maskInBits = new BigInteger(1, byteMask).toString(2);
-            ArrayList<String> stringMaskArrayList = new ArrayList<String>(Arrays.asList(maskInBits.split("(?!^)")));
-            for (String string:stringMaskArrayList) {
-                integerMaskArrayList.add(Integer.parseInt(string));
-            }
-            return checkIpv6ArbitraryBitMask(integerMaskArrayList);
-        }
+        return byteMask != null && isArbitraryBitMask(byteMask, IPV6_ADDRESS_LENGTH);
     }
 
-    private static boolean checkIpv6ArbitraryBitMask(final ArrayList<Integer> arrayList) {
-        // checks 0*1* case - Leading zeros in arrayList are truncated
-        if (arrayList.size() > 0 && arrayList.size() < IPV6_ADDRESS_LENGTH) {
-            return true;
-        } else {
-            //checks 1*0*1 case
-            for (int i=0; i<arrayList.size()-1;i++) {
-                if (arrayList.get(i) ==0 && arrayList.get(i+1) == 1) {
-                    return true;
+    /**
+     * Mask is arbitrary unless it is a contiguous run of ones starting at the first bit - leading zeros are
+     * considered arbitrary (0*1*) as well as zeros in the middle of ones (1*0*1).
+     *
+     * @param byteMask mask in network order
+     * @param addressLength number of bits of the address
+     * @return true if the mask cannot be expressed as prefix length
+     */
+    private static boolean isArbitraryBitMask(final byte[] byteMask, final int addressLength) {
+        int bitLength = 0;
+        boolean sawOne = false;
+        boolean sawZero = false;
+        boolean contiguous = true;
+        for (int i = 0; i < byteMask.length; i++) {
+            for (int bit = Byte.SIZE - 1; bit >= 0; bit--) {
+                if ((byteMask[i] & (1 << bit)) != 0) {
+                    contiguous &= !sawZero;
+                    sawOne = true;
+                } else {
+                    sawZero |= sawOne;
+                }
+                if (sawOne) {
+                    bitLength++;
                 }
             }
         }
-        return false;
+        /* all zero mask is arbitrary as well */
+        return bitLength < addressLength || !contiguous;
     }
 
     private static String compressedIpv6FormatFromString(final String ipv6Address) {
-        try {
-            return byteArrayV6AddressToString(canonicalBinaryV6AddressFromString(ipv6Address));
-        } catch (UnknownHostException e) {
-            LOG.warn("Failed to compress IPv6 address {} because it is invalid", ipv6Address);
-            return ipv6Address;
-        }
+        final long[] address = new long[2];
+        parseIpv6Address(ipv6Address, 0, ipv6AddressEnd(ipv6Address), address);
+        return ipv6AddressToString(address[0], address[1]);
     }
 
     public static Ipv6Address compressedIpv6AddressFormat(final Ipv6Address ipv6Address) {
@@ -798,4 +620,309 @@ public final class IpConversionUtil {
     public static Ipv6ArbitraryMask compressedIpv6MaskFormat(final Ipv6ArbitraryMask ipv6Mask) {
         return new Ipv6ArbitraryMask(compressedIpv6FormatFromString(ipv6Mask.getValue()));
     }
+
+    /*
+     * Primitive forms - IPv4 address or mask is an int, IPv6 address or mask is a pair of longs (upper and
+     * lower 64 bits), both in network order. Prefix length stays an int. Nothing but the result is allocated
+     * here, these are the building blocks of the per flow conversions above. As with the BSD parser, input is
+     * assumed to have passed the yang regexps already, so only gross errors are reported.
+     */
+
+    /**
+     * @param value - dotted quad
+     * @return address as int
+     */
+    public static int parseIpv4Address(final String value) {
+        return parseIpv4Address(value, 0, value.length());
+    }
+
+    /**
+     * @param value - string containing dotted quad
+     * @param from - index of the first character of the address
+     * @param to - index after the last character of the address
+     * @return address as int
+     */
+    public static int parseIpv4Address(final String value, final int from, final int to) {
+        int address = 0;
+        int octet = 0;
+        int octets = 0;
+        boolean sawDigit = false;
+        for (int i = from; i < to; i++) {
+            final char ch = value.charAt(i);
+            if (ch == '.' && sawDigit) {
+                address = (address << Byte.SIZE) | octet;
+                octets++;
+                octet = 0;
+                sawDigit = false;
+                continue;
+            }
+            final int digit = ch - '0';
+            if (digit < 0 || digit > 9 || (octet = octet * 10 + digit) > 0xff) {
+                throw new IllegalArgumentException("Invalid v4 address " + value);
+            }
+            sawDigit = true;
+        }
+        if (!sawDigit || octets != INADDR4SZ - 1) {
+            throw new IllegalArgumentException("Invalid v4 address " + value);
+        }
+        return (address << Byte.SIZE) | octet;
+    }
+
+    /**
+     * @param value - prefix
+     * @param separator - index of {@link #PREFIX_SEPARATOR} in value
+     * @return number of bits in the netmask
+     */
+    public static int parsePrefixLength(final String value, final int separator) {
+        final int length = value.length();
+        if (separator + 1 >= length) {
+            throw new NumberFormatException("Missing netmask in " + value);
+        }
+        int prefix = 0;
+        for (int i = separator + 1; i < length; i++) {
+            final int digit = value.charAt(i) - '0';
+            if (digit < 0 || digit > 9 || prefix > IPV6_ADDRESS_LENGTH) {
+                throw new NumberFormatException("Invalid netmask in " + value);
+            }
+            prefix = prefix * 10 + digit;
+        }
+        return prefix;
+    }
+
+    /**
+     * @param length - number of bits in the netmask
+     * @return netmask as int, lengths out of range are clamped
+     */
+    public static int ipv4Netmask(final int length) {
+        if (length <= 0) {
+            return 0;
+        }
+        return length >= IPV4_ADDRESS_LENGTH ? -1 : -1 << (IPV4_ADDRESS_LENGTH - length);
+    }
+
+    public static String ipv4AddressToString(final int address) {
+        final StringBuilder sb = new StringBuilder(15);
+        sb.append(address >>> 24).append('.')
+                .append((address >>> 16) & 0xff).append('.')
+                .append((address >>> 8) & 0xff).append('.')
+                .append(address & 0xff);
+        return sb.toString();
+    }
+
+    public static byte[] ipv4AddressToBytes(final int address) {
+        return new byte[] {(byte) (address >>> 24), (byte) (address >>> 16), (byte) (address >>> 8), (byte) address};
+    }
+
+    public static int ipv4AddressFromBytes(final byte[] address) {
+        Preconditions.checkArgument(address.length == INADDR4SZ, "Invalid v4 address length %s", address.length);
+        return (address[0] & 0xff) << 24 | (address[1] & 0xff) << 16 | (address[2] & 0xff) << 8 | address[3] & 0xff;
+    }
+
+    /**
+     * Parse v6 address, including :: and v4 in v6 notation. Scope (zone) is not part of the address,
+     * use {@link #ipv6AddressEnd(String)} to skip it.
+     *
+     * @param value - string containing v6 address
+     * @param from - index of the first character of the address
+     * @param to - index after the last character of the address
+     * @param dst - upper 64 bits are stored to dst[0], lower to dst[1]
+     */
+    public static void parseIpv6Address(final String value, final int from, final int to, final long[] dst) {
+        int i = from;
+        if (i < to && value.charAt(i) == ':') {
+            /* leading :: - the second colon marks the gap */
+            i++;
+        }
+        final int groups = countIpv6Groups(value, i, to);
+        if (groups > IPV6_GROUPS) {
+            throw new IllegalArgumentException("Invalid v6 address " + value);
+        }
+
+        long high = 0;
+        long low = 0;
+        int group = 0;
+        int val = 0;
+        int curtok = i;
+        boolean sawXdigit = false;
+        boolean sawGap = false;
+        for (; i < to; i++) {
+            final char ch = value.charAt(i);
+            final int chval = Character.digit(ch, 16);
+            if (chval != -1) {
+                val = (val << 4) | chval;
+                sawXdigit = true;
+            } else if (ch == ':') {
+                curtok = i + 1;
+                if (sawXdigit) {
+                    high = (high << IPV6_GROUP_SIZE) | (low >>> (Long.SIZE - IPV6_GROUP_SIZE));
+                    low = (low << IPV6_GROUP_SIZE) | val;
+                    group++;
+                    val = 0;
+                    sawXdigit = false;
+                } else if (!sawGap) {
+                    sawGap = true;
+                    for (int zeros = IPV6_GROUPS - groups; zeros > 0; zeros--) {
+                        high = (high << IPV6_GROUP_SIZE) | (low >>> (Long.SIZE - IPV6_GROUP_SIZE));
+                        low <<= IPV6_GROUP_SIZE;
+                        group++;
+                    }
+                } else {
+                    throw new IllegalArgumentException("Invalid v6 address " + value);
+                }
+            } else if (ch == '.') {
+                /* frankenstein - v4 attached to v6, takes the last two groups */
+                final int v4 = parseIpv4Address(value, curtok, to);
+                high = (high << IPV6_GROUP_SIZE) | (low >>> (Long.SIZE - IPV6_GROUP_SIZE));
+                low = (low << IPV6_GROUP_SIZE) | (v4 >>> IPV6_GROUP_SIZE);
+                group++;
+                val = v4 & 0xffff;
+                break;
+            } else {
+                throw new IllegalArgumentException("Invalid v6 address " + value);
+            }
+        }
+        if (sawXdigit) {
+            high = (high << IPV6_GROUP_SIZE) | (low >>> (Long.SIZE - IPV6_GROUP_SIZE));
+            low = (low << IPV6_GROUP_SIZE) | val;
+            group++;
+        }
+        if (group != IPV6_GROUPS) {
+            throw new IllegalArgumentException("Invalid v6 address " + value);
+        }
+        dst[0] = high;
+        dst[1] = low;
+    }
+
+    /**
+     * @param value - v6 address, possibly with scope
+     * @return index after the last character of the address
+     */
+    public static int ipv6AddressEnd(final String value) {
+        final int scope = value.indexOf('%');
+        return scope < 0 ? value.length() : scope;
+    }
+
+    private static int countIpv6Groups(final String value, final int from, final int to) {
+        int groups = 0;
+        boolean sawXdigit = false;
+        for (int i = from; i < to; i++) {
+            final char ch = value.charAt(i);
+            if (ch == ':') {
+                if (sawXdigit) {
+                    groups++;
+                }
+                sawXdigit = false;
+            } else if (ch == '.') {
+                /* the token in progress is the first octet of v4 which takes two groups */
+                return groups + 2;
+            } else {
+                sawXdigit = true;
+            }
+        }
+        return sawXdigit ? groups + 1 : groups;
+    }
+
+    /**
+     * Print v6 address in RFC 5952 canonical form - lower case, no leading zeros, the longest (first one on tie)
+     * run of two or more zero groups compressed to ::. Unlike going through {@link InetAddress}, v4 mapped
+     * addresses stay v6.
+     *
+     * @param high - upper 64 bits of the address
+     * @param low - lower 64 bits of the address
+     * @return string form of the address
+     */
+    public static String ipv6AddressToString(final long high, final long low) {
+        return formatIpv6Address(high, low, true);
+    }
+
+    private static String formatIpv6Address(final long high, final long low, final boolean compress) {
+        int bestStart = -1;
+        int bestLength = 0;
+        if (compress) {
+            int runStart = -1;
+            for (int g = 0; g < IPV6_GROUPS; g++) {
+                if (ipv6Group(high, low, g) != 0) {
+                    runStart = -1;
+                    continue;
+                }
+                if (runStart < 0) {
+                    runStart = g;
+                }
+                if (g - runStart + 1 > bestLength) {
+                    bestStart = runStart;
+                    bestLength = g - runStart + 1;
+                }
+            }
+            if (bestLength < 2) {
+                bestStart = -1;
+            }
+        }
+
+        final StringBuilder sb = new StringBuilder(39);
+        for (int g = 0; g < IPV6_GROUPS; g++) {
+            if (g == bestStart) {
+                sb.append("::");
+                g += bestLength - 1;
+                continue;
+            }
+            if (g > 0 && sb.charAt(sb.length() - 1) != ':') {
+                sb.append(':');
+            }
+            final int group = ipv6Group(high, low, g);
+            int shift = IPV6_GROUP_SIZE - 4;
+            while (shift > 0 && (group >>> shift) == 0) {
+                shift -= 4;
+            }
+            for (; shift >= 0; shift -= 4) {
+                sb.append(Character.forDigit((group >>> shift) & 0xf, 16));
+            }
+        }
+        return sb.toString();
+    }
+
+    private static int ipv6Group(final long high, final long low, final int group) {
+        final int groupsPerLong = IPV6_GROUPS / 2;
+        final long half = group < groupsPerLong ? high : low;
+        return (int) (half >>> (IPV6_GROUP_SIZE * (groupsPerLong - 1 - group % groupsPerLong))) & 0xffff;
+    }
+
+    public static byte[] ipv6AddressToBytes(final long high, final long low) {
+        final byte[] bytes = new byte[INADDR6SZ];
+        for (int i = 0; i < INT64SZ; i++) {
+            bytes[i] = (byte) (high >>> (Long.SIZE - Byte.SIZE * (i + 1)));
+            bytes[INT64SZ + i] = (byte) (low >>> (Long.SIZE - Byte.SIZE * (i + 1)));
+        }
+        return bytes;
+    }
+
+    private static long readLong(final byte[] bytes, final int offset) {
+        long value = 0;
+        for (int i = offset; i < offset + INT64SZ; i++) {
+            value = (value << Byte.SIZE) | (bytes[i] & 0xff);
+        }
+        return value;
+    }
+
+    /**
+     * @param length - number of bits in the netmask
+     * @return upper 64 bits of v6 netmask
+     */
+    public static long ipv6NetmaskHigh(final int length) {
+        return netmask64(length);
+    }
+
+    /**
+     * @param length - number of bits in the netmask
+     * @return lower 64 bits of v6 netmask
+     */
+    public static long ipv6NetmaskLow(final int length) {
+        return netmask64(length - Long.SIZE);
+    }
+
+    private static long netmask64(final int length) {
+        if (length <= 0) {
+            return 0;
+        }
+        return length >= Long.SIZE ? -1L : -1L << (Long.SIZE - length);
+    }
 }
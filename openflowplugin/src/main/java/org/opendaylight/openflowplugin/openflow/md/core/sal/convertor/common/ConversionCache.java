@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.openflowplugin.openflow.md.core.sal.convertor.common;
+
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Bounded cache of conversion results. Source object is looked up by identity first (weak keys, so the entry goes
+ * away together with the source), then by value - that is where equal structures pushed to many devices meet.
+ * Context carries everything besides the source which the conversion depends on (e.g. openflow version).
+ * <p>
+ * Conversion results are shared by all callers hence they must be immutable.
+ *
+ * @param <S> source type for conversion
+ * @param <V> conversion result
+ */
+public final class ConversionCache<S, V> {
+
+    private final Cache<S, ContextualValue<V>> identityCache;
+    private final Cache<ContextualKey<S>, V> equalityCache;
+    private final AtomicLong identityHits = new AtomicLong();
+    private final AtomicLong equalityHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * @param maximumSize maximum amount of results kept on each level
+     */
+    public ConversionCache(final int maximumSize) {
+        Preconditions.checkArgument(maximumSize > 0, "maximumSize must be positive: %s", maximumSize);
+        // weak keys are compared by identity
+        identityCache = CacheBuilder.newBuilder().weakKeys().maximumSize(maximumSize).build();
+        equalityCache = CacheBuilder.newBuilder().maximumSize(maximumSize).build();
+    }
+
+    /**
+     * @param source convert from
+     * @param context everything else the conversion depends on, must implement equals and hashCode
+     * @return cached result or null if the source has not been converted in given context yet
+     */
+    @Nullable
+    public V get(@Nonnull final S source, @Nonnull final Object context) {
+        final ContextualValue<V> identityEntry = identityCache.getIfPresent(source);
+        if (identityEntry != null && identityEntry.context.equals(context)) {
+            identityHits.incrementAndGet();
+            return identityEntry.value;
+        }
+
+        final V value = equalityCache.getIfPresent(new ContextualKey<>(source, context));
+        if (value != null) {
+            equalityHits.incrementAndGet();
+            identityCache.put(source, new ContextualValue<>(context, value));
+            return value;
+        }
+
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * @param source convert from
+     * @param context everything else the conversion depends on, must implement equals and hashCode
+     * @param value immutable result of conversion
+     */
+    public void put(@Nonnull final S source, @Nonnull final Object context, @Nonnull final V value) {
+        equalityCache.put(new ContextualKey<>(source, context), value);
+        identityCache.put(source, new ContextualValue<>(context, value));
+    }
+
+    public long getIdentityHitCount() {
+        return identityHits.get();
+    }
+
+    public long getEqualityHitCount() {
+        return equalityHits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * @return ratio of lookups answered from cache, 1.0 if there were no lookups yet
+     */
+    public double getHitRate() {
+        final long hits = identityHits.get() + equalityHits.get();
+        final long lookups = hits + misses.get();
+        return lookups == 0 ? 1.0 : (double) hits / lookups;
+    }
+
+    public long size() {
+        return equalityCache.size();
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT,
+                "hit rate: %.3f, identity hits: %d, equality hits: %d, misses: %d, size: %d",
+                getHitRate(), getIdentityHitCount(), getEqualityHitCount(), getMissCount(), size());
+    }
+
+    private static final class ContextualValue<V> {
+        private final Object context;
+        private final V value;
+
+        private ContextualValue(final Object context, final V value) {
+            this.context = context;
+            this.value = value;
+        }
+    }
+
+    private static final class ContextualKey<S> {
+        private final S source;
+        private final Object context;
+
+        private ContextualKey(final S source, final Object context) {
+            this.source = Preconditions.checkNotNull(source);
+            this.context = Preconditions.checkNotNull(context);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * source.hashCode() + context.hashCode();
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            final ContextualKey<?> other = (ContextualKey<?>) obj;
+            return Objects.equals(context, other.context) && Objects.equals(source, other.source);
+        }
+    }
+}
@@ -14,7 +14,6 @@ import com.google.common.base.Optional;
 import java.math.BigInteger;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 import javax.annotation.Nonnull;
 import org.opendaylight.openflowjava.util.ByteBufUtils;
@@ -497,11 +496,9 @@ public class MatchConvertorImpl implements MatchConvertor<List<MatchEntry>> {
                     Ipv4SrcCaseBuilder ipv4SrcCaseBuilder = new Ipv4SrcCaseBuilder();
                     Ipv4SrcBuilder ipv4SrcBuilder = new Ipv4SrcBuilder();
 
-                    Iterator<String> addressParts = IpConversionUtil.splitToParts(ipv4Prefix);
-                    Ipv4Address ipv4Address = new Ipv4Address(addressParts.next());
-                    ipv4SrcBuilder.setIpv4Address(ipv4Address);
+                    ipv4SrcBuilder.setIpv4Address(IpConversionUtil.extractIpv4Address(ipv4Prefix));
                     boolean hasMask = false;
-                    byte[] mask = extractIpv4Mask(addressParts);
+                    byte[] mask = extractIpv4Mask(ipv4Prefix);
                     if (null != mask) {
                         ipv4SrcBuilder.setMask(mask);
                         hasMask = true;
@@ -520,11 +517,9 @@ public class MatchConvertorImpl implements MatchConvertor<List<MatchEntry>> {
                     Ipv4DstCaseBuilder ipv4DstCaseBuilder = new Ipv4DstCaseBuilder();
                     Ipv4DstBuilder ipv4DstBuilder = new Ipv4DstBuilder();
 
-                    Iterator<String> addressParts = IpConversionUtil.splitToParts(ipv4Prefix);
-                    Ipv4Address ipv4Address = new Ipv4Address(addressParts.next());
-                    ipv4DstBuilder.setIpv4Address(ipv4Address);
+                    ipv4DstBuilder.setIpv4Address(IpConversionUtil.extractIpv4Address(ipv4Prefix));
                     boolean hasMask = false;
-                    byte[] mask = extractIpv4Mask(addressParts);
+                    byte[] mask = extractIpv4Mask(ipv4Prefix);
                     if (null != mask) {
                         ipv4DstBuilder.setMask(mask);
                         hasMask = true;
@@ -546,11 +541,9 @@ public class MatchConvertorImpl implements MatchConvertor<List<MatchEntry>> {
                     Ipv4SrcCaseBuilder ipv4SrcCaseBuilder = new Ipv4SrcCaseBuilder();
                     Ipv4SrcBuilder ipv4SrcBuilder = new Ipv4SrcBuilder();
 
-                    Iterator<String> addressParts = IpConversionUtil.splitToParts(ipv4Prefix);
-                    Ipv4Address ipv4Address = new Ipv4Address(addressParts.next());
-                    ipv4SrcBuilder.setIpv4Address(ipv4Address);
+                    ipv4SrcBuilder.setIpv4Address(IpConversionUtil.extractIpv4Address(ipv4Prefix));
                     boolean hasMask = false;
-                    byte[] mask = extractIpv4Mask(addressParts);
+                    byte[] mask = extractIpv4Mask(ipv4Prefix);
                     if (null != mask) {
                         ipv4SrcBuilder.setMask(mask);
                         hasMask = true;
@@ -569,11 +562,9 @@ public class MatchConvertorImpl implements MatchConvertor<List<MatchEntry>> {
                     Ipv4DstCaseBuilder ipv4DstCaseBuilder = new Ipv4DstCaseBuilder();
                     Ipv4DstBuilder ipv4DstBuilder = new Ipv4DstBuilder();
 
-                    Iterator<String> addressParts = IpConversionUtil.splitToParts(ipv4Prefix);
-                    Ipv4Address ipv4Address = new Ipv4Address(addressParts.next());
-                    ipv4DstBuilder.setIpv4Address(ipv4Address);
+                    ipv4DstBuilder.setIpv4Address(IpConversionUtil.extractIpv4Address(ipv4Prefix));
                     boolean hasMask = false;
-                    byte[] mask = extractIpv4Mask(addressParts);
+                    byte[] mask = extractIpv4Mask(ipv4Prefix);
                     if (null != mask) {
                         ipv4DstBuilder.setMask(mask);
                         hasMask = true;
@@ -598,11 +589,9 @@ public class MatchConvertorImpl implements MatchConvertor<List<MatchEntry>> {
                     ArpSpaCaseBuilder arpSpaCaseBuilder = new ArpSpaCaseBuilder();
                     ArpSpaBuilder arpSpaBuilder = new ArpSpaBuilder();
 
-                    Iterator<String> addressParts = IpConversionUtil.splitToParts(ipv4Prefix);
-                    Ipv4Address ipv4Address = new Ipv4Address(addressParts.next());
-                    arpSpaBuilder.setIpv4Address(ipv4Address);
+                    arpSpaBuilder.setIpv4Address(IpConversionUtil.extractIpv4Address(ipv4Prefix));
                     boolean hasMask = false;
-                    byte[] mask = extractIpv4Mask(addressParts);
+                    byte[] mask = extractIpv4Mask(ipv4Prefix);
                     if (null != mask) {
                         arpSpaBuilder.setMask(mask);
                         hasMask = true;
@@ -622,11 +611,9 @@ public class MatchConvertorImpl implements MatchConvertor<List<MatchEntry>> {
                     ArpTpaCaseBuilder arpTpaCaseBuilder = new ArpTpaCaseBuilder();
                     ArpTpaBuilder arpTpaBuilder = new ArpTpaBuilder();
 
-                    Iterator<String> addressParts = IpConversionUtil.splitToParts(ipv4Prefix);
-                    Ipv4Address ipv4Address = new Ipv4Address(addressParts.next());
-                    arpTpaBuilder.setIpv4Address(ipv4Address);
+                    arpTpaBuilder.setIpv4Address(IpConversionUtil.extractIpv4Address(ipv4Prefix));
                     boolean hasMask = false;
-                    byte[] mask = extractIpv4Mask(addressParts);
+                    byte[] mask = extractIpv4Mask(ipv4Prefix);
                     if (null != mask) {
                         arpTpaBuilder.setMask(mask);
                         hasMask = true;
@@ -998,20 +985,10 @@ public class MatchConvertorImpl implements MatchConvertor<List<MatchEntry>> {
     }
 
 
-    private static byte[] extractIpv4Mask(final Iterator<String> addressParts) {
-        final int prefix;
-        if (addressParts.hasNext()) {
-            int potentionalPrefix = Integer.parseInt(addressParts.next());
-            prefix = potentionalPrefix < 32 ? potentionalPrefix : 0;
-        } else {
-            prefix = 0;
-        }
-
-        if (prefix != 0) {
-            int mask = 0xffffffff << (32 - prefix);
-            byte[] maskBytes = new byte[]{(byte) (mask >>> 24), (byte) (mask >>> 16), (byte) (mask >>> 8),
-                    (byte) mask};
-            return maskBytes;
+    private static byte[] extractIpv4Mask(final Ipv4Prefix ipv4Prefix) {
+        final Integer prefix = IpConversionUtil.extractPrefix(ipv4Prefix);
+        if (prefix != null && prefix > 0 && prefix < 32) {
+            return IpConversionUtil.ipv4AddressToBytes(IpConversionUtil.ipv4Netmask(prefix));
         }
         return null;
     }
@@ -1563,8 +1540,7 @@ public class MatchConvertorImpl implements MatchConvertor<List<MatchEntry>> {
                             setDstIpv6MatchArbitraryBitMaskBuilderFields(ipv6MatchArbitraryBitMaskBuilder, ofMatch,
                                     dstIpv6ArbitraryMask, IpConversionUtil.compressedIpv6AddressFormat(ipv6DstAddress));
                         }
-                        Ipv6ArbitraryMask srcIpv6ArbitraryMask = IpConversionUtil.compressedIpv6MaskFormat(
-                                IpConversionUtil.createIpv6ArbitraryBitMask(mask));
+                        Ipv6ArbitraryMask srcIpv6ArbitraryMask = IpConversionUtil.createCompressedIpv6ArbitraryBitMask(mask);
                         Ipv6Address stringIpv6SrcAddress = IpConversionUtil.compressedIpv6AddressFormat(ipv6Address.getIpv6Address());
                         setSrcIpv6MatchArbitraryBitMaskBuilderFields(ipv6MatchArbitraryBitMaskBuilder, ofMatch,
                                 srcIpv6ArbitraryMask, stringIpv6SrcAddress);
@@ -1585,8 +1561,7 @@ public class MatchConvertorImpl implements MatchConvertor<List<MatchEntry>> {
                         <ipv6-destination-address-no-mask>1::1</ipv6-destination-address-no-mask>
                         <ipv6-destination-arbitrary-bitmask>FFFF::0001</ipv6-destination-arbitrary-bitmask>
                         */
-                        Ipv6ArbitraryMask srcIpv6ArbitraryMask = IpConversionUtil.compressedIpv6MaskFormat(
-                                IpConversionUtil.createIpv6ArbitraryBitMask(mask));
+                        Ipv6ArbitraryMask srcIpv6ArbitraryMask = IpConversionUtil.createCompressedIpv6ArbitraryBitMask(mask);
                         Ipv6Address stringIpv6SrcAddress = IpConversionUtil.compressedIpv6AddressFormat(ipv6Address.getIpv6Address());
                         setSrcIpv6MatchArbitraryBitMaskBuilderFields(ipv6MatchArbitraryBitMaskBuilder, ofMatch,
                                 srcIpv6ArbitraryMask, stringIpv6SrcAddress);
@@ -1613,8 +1588,7 @@ public class MatchConvertorImpl implements MatchConvertor<List<MatchEntry>> {
                             setSrcIpv6MatchArbitraryBitMaskBuilderFields(ipv6MatchArbitraryBitMaskBuilder, ofMatch,
                                     srcIpv6Arbitrary, IpConversionUtil.compressedIpv6AddressFormat(ipv6SrcAddress));
                         }
-                        Ipv6ArbitraryMask dstIpv6ArbitraryMask = IpConversionUtil.compressedIpv6MaskFormat(
-                                IpConversionUtil.createIpv6ArbitraryBitMask(mask));
+                        Ipv6ArbitraryMask dstIpv6ArbitraryMask = IpConversionUtil.createCompressedIpv6ArbitraryBitMask(mask);
                         Ipv6Address stringIpv6DstAddress = IpConversionUtil.compressedIpv6AddressFormat(ipv6Address.getIpv6Address());
                         setDstIpv6MatchArbitraryBitMaskBuilderFields(ipv6MatchArbitraryBitMaskBuilder, ofMatch,
                                 dstIpv6ArbitraryMask, stringIpv6DstAddress);
@@ -1635,8 +1609,7 @@ public class MatchConvertorImpl implements MatchConvertor<List<MatchEntry>> {
                         <ipv6-source-address-no-mask>1::1</ipv6-source-address-no-mask>
                         <ipv6-source-arbitrary-bitmask>FFFF::0001</ipv6-source-arbitrary-bitmask>
                         */
-                        Ipv6ArbitraryMask dstIpv6ArbitraryMask = IpConversionUtil.compressedIpv6MaskFormat(
-                                IpConversionUtil.createIpv6ArbitraryBitMask(mask));
+                        Ipv6ArbitraryMask dstIpv6ArbitraryMask = IpConversionUtil.createCompressedIpv6ArbitraryBitMask(mask);
                         Ipv6Address stringIpv6DstAddress = IpConversionUtil.compressedIpv6AddressFormat(ipv6Address.getIpv6Address());
                         setDstIpv6MatchArbitraryBitMaskBuilderFields(ipv6MatchArbitraryBitMaskBuilder, ofMatch,
                                 dstIpv6ArbitraryMask, stringIpv6DstAddress);
@@ -11,7 +11,9 @@ package org.opendaylight.openflowplugin.openflow.md.core.sal.convertor;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
+import org.junit.After;
 import org.junit.Assert;
 import org.junit.Test;
 import org.opendaylight.openflowjava.protocol.api.util.EncodeConstants;
@@ -25,6 +27,7 @@ import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.service.rev130819.flow
 import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.types.rev131026.Flow;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.types.rev131026.FlowCookie;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.types.rev131026.flow.InstructionsBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.types.rev131026.flow.MatchBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.types.rev131026.instruction.instruction.ApplyActionsCaseBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.types.rev131026.instruction.instruction.ClearActionsCaseBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.types.rev131026.instruction.instruction.GoToTableCaseBuilder;
@@ -40,6 +43,7 @@ import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.types.rev131026.instru
 import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.types.rev131026.instruction.list.Instruction;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.flow.types.rev131026.instruction.list.InstructionBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.meter.types.rev130918.MeterId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.model.match.types.rev131026.match.IpMatchBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.instruction.rev130731.instruction.grouping.instruction.choice.ApplyActionsCase;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.instruction.rev130731.instruction.grouping.instruction.choice.GotoTableCase;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.common.instruction.rev130731.instruction.grouping.instruction.choice.MeterCase;
@@ -56,6 +60,11 @@ import org.opendaylight.yang.gen.v1.urn.opendaylight.openflow.protocol.rev130731
  */
 public class FlowConvertorTest {
 
+    @After
+    public void tearDown() {
+        FlowConvertor.setConversionCacheSize(0);
+    }
+
     /**
      * Tests {@link FlowConvertor#toFlowModInputs(Flow, short, BigInteger)}
      */
@@ -217,4 +226,61 @@ public class FlowConvertorTest {
         MeterCase meterCase = (MeterCase) instruction.getInstructionChoice();
         Assert.assertEquals("Wrong meter id", 5, meterCase.getMeter().getMeterId().intValue());
     }
+
+    /**
+     * Tests {@link FlowConvertor#toFlowModInputs(Flow, short, BigInteger)} with conversion cache enabled
+     */
+    @Test
+    public void testConversionCache() {
+        FlowConvertor.setConversionCacheSize(100);
+        AddFlowInput flow = createGotoTableFlow();
+
+        FlowModInputBuilder flowMod = FlowConvertor
+                .toFlowModInputs(flow, EncodeConstants.OF13_VERSION_ID, new BigInteger("42")).get(0);
+        // same objects, then equal objects pushed to another device
+        FlowModInputBuilder sameFlowMod = FlowConvertor
+                .toFlowModInputs(flow, EncodeConstants.OF13_VERSION_ID, new BigInteger("42")).get(0);
+        FlowModInputBuilder equalFlowMod = FlowConvertor
+                .toFlowModInputs(createGotoTableFlow(), EncodeConstants.OF13_VERSION_ID, new BigInteger("43")).get(0);
+
+        Assert.assertSame("Match not cached", flowMod.getMatch(), sameFlowMod.getMatch());
+        Assert.assertSame("Match not cached", flowMod.getMatch(), equalFlowMod.getMatch());
+        Assert.assertSame("Instructions not cached", flowMod.getInstruction(), sameFlowMod.getInstruction());
+        Assert.assertSame("Instructions not cached", flowMod.getInstruction(), equalFlowMod.getInstruction());
+        Assert.assertEquals("Wrong match entries size", 1, flowMod.getMatch().getMatchEntry().size());
+        Assert.assertEquals("Wrong instructions size", 1, flowMod.getInstruction().size());
+
+        // different version must not be served from cache
+        FlowModInputBuilder flowModV10 = FlowConvertor
+                .toFlowModInputs(flow, EncodeConstants.OF10_VERSION_ID, new BigInteger("42")).get(0);
+        Assert.assertNull("Wrong match", flowModV10.getMatch());
+        Assert.assertNotNull("Wrong match", flowModV10.getMatchV10());
+
+        Map<String, String> statistics = FlowConvertor.getConversionCacheStatistics();
+        Assert.assertEquals("Wrong statistics",
+                "hit rate: 0.500, identity hits: 1, equality hits: 1, misses: 2, size: 2", statistics.get("match"));
+        Assert.assertEquals("Wrong statistics",
+                "hit rate: 0.500, identity hits: 1, equality hits: 1, misses: 2, size: 2",
+                statistics.get("instructions"));
+
+        FlowConvertor.setConversionCacheSize(0);
+        Assert.assertTrue("Cache not disabled", FlowConvertor.getConversionCacheStatistics().isEmpty());
+    }
+
+    private static AddFlowInput createGotoTableFlow() {
+        List<Instruction> instructions = new ArrayList<>();
+        instructions.add(new InstructionBuilder()
+                .setInstruction(new GoToTableCaseBuilder()
+                        .setGoToTable(new GoToTableBuilder().setTableId((short) 1).build())
+                        .build())
+                .setOrder(0)
+                .build());
+        return new AddFlowInputBuilder()
+                .setTableId((short) 0)
+                .setMatch(new MatchBuilder()
+                        .setIpMatch(new IpMatchBuilder().setIpProtocol((short) 6).build())
+                        .build())
+                .setInstructions(new InstructionsBuilder().setInstruction(instructions).build())
+                .build();
+    }
 }
\ No newline at end of file
@@ -128,6 +128,13 @@ public class IpConversionUtilTest {
         Assert.assertEquals(dottedQuad.getValue(),"255.255.255.0");
     }
 
+    @Test
+    public void extractIpv4AddressMaskZeroPrefixTest() {
+        // /0 is a wildcard, no prefix is an exact match
+        Assert.assertEquals("0.0.0.0", IpConversionUtil.extractIpv4AddressMask(new Ipv4Prefix("1.1.1.1/0")).getValue());
+        Assert.assertEquals("255.255.255.255", IpConversionUtil.extractIpv4AddressMask(new Ipv4Prefix("1.1.1.1")).getValue());
+    }
+
     @Test
     public void convertipv6ArbitraryMaskToByteArrayTest() {
         byte[] bytes = {-5,-96,-1,-74,-1,-16,-1,-16, -1,-16,-1,-16,-1,-16,-91,85};
@@ -232,4 +239,69 @@ public class IpConversionUtilTest {
         compressedIpv6Address = IpConversionUtil.compressedIpv6AddressFormat(ipv6IpAddressMask);
         Assert.assertEquals(compressedIpv6Address.getValue(), "ffff:0:0:f000::1000");
     }
+
+    @Test
+    public void ipv4PrimitiveTest() {
+        final int address = IpConversionUtil.parseIpv4Address("10.1.255.0");
+        Assert.assertEquals(0x0a01ff00, address);
+        Assert.assertEquals("10.1.255.0", IpConversionUtil.ipv4AddressToString(address));
+        Assert.assertArrayEquals(new byte[] {10, 1, -1, 0}, IpConversionUtil.ipv4AddressToBytes(address));
+        Assert.assertEquals(address, IpConversionUtil.ipv4AddressFromBytes(new byte[] {10, 1, -1, 0}));
+        Assert.assertEquals(0x0a01ff00, IpConversionUtil.parseIpv4Address("x10.1.255.0/24", 1, 11));
+
+        Assert.assertEquals(0, IpConversionUtil.ipv4Netmask(0));
+        Assert.assertEquals(0xffffff00, IpConversionUtil.ipv4Netmask(24));
+        Assert.assertEquals(-1, IpConversionUtil.ipv4Netmask(32));
+        Assert.assertEquals(24, IpConversionUtil.parsePrefixLength("10.1.255.0/24", 10));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parseIpv4AddressInvalidTest() {
+        IpConversionUtil.parseIpv4Address("10.1.256.0");
+    }
+
+    @Test
+    public void ipv6PrimitiveTest() {
+        final long[] address = new long[2];
+        IpConversionUtil.parseIpv6Address("2001:DB8::1:0:0:1", 0, 17, address);
+        Assert.assertEquals(0x20010db800000000L, address[0]);
+        Assert.assertEquals(0x0001000000000001L, address[1]);
+        Assert.assertEquals("2001:db8::1:0:0:1", IpConversionUtil.ipv6AddressToString(address[0], address[1]));
+
+        final String scoped = "fe80::1%eth0";
+        IpConversionUtil.parseIpv6Address(scoped, 0, IpConversionUtil.ipv6AddressEnd(scoped), address);
+        Assert.assertEquals("fe80::1", IpConversionUtil.ipv6AddressToString(address[0], address[1]));
+
+        /* v4 mapped address stays v6 */
+        IpConversionUtil.parseIpv6Address("::ffff:10.1.2.3", 0, 15, address);
+        Assert.assertEquals(0L, address[0]);
+        Assert.assertEquals(0x0000ffff0a010203L, address[1]);
+        Assert.assertEquals("::ffff:a01:203", IpConversionUtil.ipv6AddressToString(address[0], address[1]));
+
+        /* single zero group is not compressed, the first of equally long runs is */
+        Assert.assertEquals("1:0:2:3:4:5:6:7", IpConversionUtil.ipv6AddressToString(0x0001000000020003L, 0x0004000500060007L));
+        Assert.assertEquals("1::2:0:0:3:4", IpConversionUtil.ipv6AddressToString(0x0001000000000002L, 0x0000000000030004L));
+        Assert.assertEquals("::", IpConversionUtil.ipv6AddressToString(0L, 0L));
+
+        Assert.assertEquals(-1L, IpConversionUtil.ipv6NetmaskHigh(64));
+        Assert.assertEquals(0L, IpConversionUtil.ipv6NetmaskLow(64));
+        Assert.assertEquals(0xffff000000000000L, IpConversionUtil.ipv6NetmaskLow(80));
+        Assert.assertArrayEquals(IpConversionUtil.convertIpv6PrefixToByteArray(80), IpConversionUtil.ipv6AddressToBytes(
+                IpConversionUtil.ipv6NetmaskHigh(80), IpConversionUtil.ipv6NetmaskLow(80)));
+    }
+
+    @Test
+    public void createCompressedIpv6ArbitraryBitMaskTest() {
+        final byte[] bytes = {-1,-1,-1,-1,0,0,0,0,0,0,0,0,0,0,-1,-1};
+        Assert.assertEquals("ffff:ffff::ffff", IpConversionUtil.createCompressedIpv6ArbitraryBitMask(bytes).getValue());
+        Assert.assertEquals(IpConversionUtil.compressedIpv6MaskFormat(IpConversionUtil.createIpv6ArbitraryBitMask(bytes)),
+                IpConversionUtil.createCompressedIpv6ArbitraryBitMask(bytes));
+    }
+
+    @Test
+    public void isArbitraryBitMaskZeroTest() {
+        /* leading zeros are arbitrary, all zero mask included */
+        Assert.assertTrue(IpConversionUtil.isArbitraryBitMask(new byte[] {0, 0, 0, 0}));
+        Assert.assertTrue(IpConversionUtil.isIpv6ArbitraryBitMask(new byte[16]));
+    }
 }
@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.openflowplugin.openflow.md.core.sal.convertor.common;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test for {@link ConversionCache}.
+ */
+public class ConversionCacheTest {
+
+    private static final Short OF13 = 4;
+    private static final Short OF10 = 1;
+
+    @Test
+    public void testIdentityAndEqualityHits() {
+        final ConversionCache<String, String> cache = new ConversionCache<>(10);
+        final String source = new String("source");
+
+        Assert.assertNull(cache.get(source, OF13));
+        cache.put(source, OF13, "converted");
+        Assert.assertEquals("converted", cache.get(source, OF13));
+        Assert.assertEquals("converted", cache.get(new String("source"), OF13));
+
+        Assert.assertEquals(1, cache.getIdentityHitCount());
+        Assert.assertEquals(1, cache.getEqualityHitCount());
+        Assert.assertEquals(1, cache.getMissCount());
+        Assert.assertEquals(2.0 / 3, cache.getHitRate(), 0.001);
+    }
+
+    @Test
+    public void testContextMismatch() {
+        final ConversionCache<String, String> cache = new ConversionCache<>(10);
+        final String source = "source";
+        cache.put(source, OF13, "converted13");
+
+        Assert.assertNull(cache.get(source, OF10));
+        cache.put(source, OF10, "converted10");
+        Assert.assertEquals("converted10", cache.get(source, OF10));
+        Assert.assertEquals("converted13", cache.get(source, OF13));
+        Assert.assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testHitRateWithoutLookups() {
+        Assert.assertEquals(1.0, new ConversionCache<String, String>(1).getHitRate(), 0.0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testZeroSize() {
+        new ConversionCache<String, String>(0);
+    }
+}